@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.analysistool;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * <p>
+ * This class holds the ForkJoinPool that is shared by the analysis tools and
+ * their strategies. Analyses are often nested, such as an analysis document
+ * that generates its assets in parallel with strategies that are parallel
+ * themselves, so all of them should run their tasks in this pool instead of
+ * creating pools of their own. This keeps the number of threads at about the
+ * number of processors.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public final class AnalysisPool {
+
+	/**
+	 * <p>
+	 * The shared pool. It has one thread for each available processor.
+	 * </p>
+	 *
+	 */
+	private static final ForkJoinPool pool = new ForkJoinPool();
+
+	/**
+	 * <p>
+	 * The constructor is private because this class only holds the pool.
+	 * </p>
+	 *
+	 */
+	private AnalysisPool() {
+	}
+
+	/**
+	 * <p>
+	 * Returns the pool that is shared by the analysis tools.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         The shared ForkJoinPool.
+	 *         </p>
+	 */
+	public static ForkJoinPool getPool() {
+		return pool;
+	}
+
+}
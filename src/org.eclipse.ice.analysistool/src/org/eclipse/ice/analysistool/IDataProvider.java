@@ -44,6 +44,13 @@ public interface IDataProvider {
 	 */
 	public ArrayList<IData> getDataAtCurrentTime(String feature);
 
+	/** 
+	 * <p>This operation returns the number of data related to a particular feature for this provider at the current time step.  It is the size of the list returned by getDataAtCurrentTime(), but providers that do not store their data as IData do not need to create the list to answer it.</p>
+	 * @param feature <p>The feature for the IData.</p>
+	 * @return <p>The number of IData, or zero if there are none.</p>
+	 */
+	public int getNumberOfDataAtCurrentTime(String feature);
+
 	/** 
 	 * <p>This operation is a description of the source of information for this provider and its data.</p>
 	 * @return <p>The source information.</p>
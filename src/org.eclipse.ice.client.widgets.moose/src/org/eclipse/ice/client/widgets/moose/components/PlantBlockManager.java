@@ -162,24 +162,32 @@ public class PlantBlockManager implements IUpdateableListener {
 			// Unregister from the old components tree.
 			this.tree.unregister(this);
 
-			// Remove all components from the plant and this class' meta data.
-			for (PlantComponent plantComp : componentMap.values()) {
-				if (plantComp != null) {
-					plant.removeComponent(plantComp.getId());
+			// Batch the changes so that the plant's listeners are notified once
+			// of the old components and once of the new components.
+			plant.startBatch();
+			try {
+				// Remove all components from the plant and this class' meta
+				// data.
+				for (PlantComponent plantComp : componentMap.values()) {
+					if (plantComp != null) {
+						plant.removeComponent(plantComp.getId());
+					}
 				}
-			}
-			componentMap.clear();
+				componentMap.clear();
 
-			// Clear the list of EntryListeners.
-			entryListeners.clear();
+				// Clear the list of EntryListeners.
+				entryListeners.clear();
 
-			// Reset the ID counter.
-			id = 0;
+				// Reset the ID counter.
+				id = 0;
 
-			// Update the reference to the new components tree.
-			this.tree = tree;
-			// Update the plant and this class' meta data from the new tree.
-			update(tree);
+				// Update the reference to the new components tree.
+				this.tree = tree;
+				// Update the plant and this class' meta data from the new tree.
+				update(tree);
+			} finally {
+				plant.finishBatch();
+			}
 			// Register with the new components tree.
 			tree.register(this);
 		}
@@ -206,49 +214,56 @@ public class PlantBlockManager implements IUpdateableListener {
 		// Update the plant and meta data based on the current children of the
 		// components tree.
 		if (component == tree) {
-			// Create a set containing all TreeComposites in the component map.
-			// When a TreeComposite is found to still be a child of the
-			// "Components" TreeComposite, it will be removed from this set. Any
-			// TreeComposites remaining in the set afterward have been removed
-			// from the "Components" TreeComposite and should be removed from
-			// both the component map and the PlantComposite.
-			Set<TreeComposite> removedComponents = Collections
-					.newSetFromMap(new IdentityHashMap<TreeComposite, Boolean>(
-							componentMap.size()));
-			removedComponents.addAll(componentMap.keySet());
-
-			// Loop over the existing children in the tree.
-			for (int i = 0; i < tree.getNumberOfChildren(); i++) {
-				TreeComposite child = tree.getChildAtIndex(i);
-
-				// If the child TreeComposite does not already have a
-				// corresponding PlantComponent in the component Map, try to
-				// create a new one and add it to the PlantComposite.
-				if (!componentMap.containsKey(child)) {
-					// Create a plant component for the child.
-					PlantComponent plantComp = createPlantComponent(child);
-					if (plantComp != null) {
-						plantComp.setId(id++);
-						plantComp.setName(child.getName());
-						plantComp.setDescription(child.getDescription());
-						// Only add the child to the plant if it is active.
-						if (child.isActive()) {
-							plant.addPlantComponent(plantComp);
+			// Batch the changes so that the plant's listeners are notified once
+			// of all added and once of all removed components.
+			plant.startBatch();
+			try {
+				// Create a set containing all TreeComposites in the component
+				// map. When a TreeComposite is found to still be a child of the
+				// "Components" TreeComposite, it will be removed from this set.
+				// Any TreeComposites remaining in the set afterward have been
+				// removed from the "Components" TreeComposite and should be
+				// removed from both the component map and the PlantComposite.
+				Set<TreeComposite> removedComponents = Collections
+						.newSetFromMap(new IdentityHashMap<TreeComposite, Boolean>(
+								componentMap.size()));
+				removedComponents.addAll(componentMap.keySet());
+
+				// Loop over the existing children in the tree.
+				for (int i = 0; i < tree.getNumberOfChildren(); i++) {
+					TreeComposite child = tree.getChildAtIndex(i);
+
+					// If the child TreeComposite does not already have a
+					// corresponding PlantComponent in the component Map, try to
+					// create a new one and add it to the PlantComposite.
+					if (!componentMap.containsKey(child)) {
+						// Create a plant component for the child.
+						PlantComponent plantComp = createPlantComponent(child);
+						if (plantComp != null) {
+							plantComp.setId(id++);
+							plantComp.setName(child.getName());
+							plantComp.setDescription(child.getDescription());
+							// Only add the child to the plant if it is active.
+							if (child.isActive()) {
+								plant.addPlantComponent(plantComp);
+							}
 						}
+						componentMap.put(child, plantComp);
+					} else {
+						// The child is still a child of "Components", so remove
+						// it from the set of components.
+						removedComponents.remove(child);
 					}
-					componentMap.put(child, plantComp);
-				} else {
-					// The child is still a child of "Components", so remove it
-					// from the set of components.
-					removedComponents.remove(child);
 				}
-			}
 
-			// Remove all PlantComponents for TreeComposites that remain in the
-			// set of removed TreeComposites.
-			for (TreeComposite child : removedComponents) {
-				PlantComponent plantComp = componentMap.remove(child);
-				plant.removeComponent(plantComp.getId());
+				// Remove all PlantComponents for TreeComposites that remain in
+				// the set of removed TreeComposites.
+				for (TreeComposite child : removedComponents) {
+					PlantComponent plantComp = componentMap.remove(child);
+					plant.removeComponent(plantComp.getId());
+				}
+			} finally {
+				plant.finishBatch();
 			}
 
 			// TODO This is overkill, but the difficulty lies in making sure
@@ -497,7 +497,7 @@ public class AssemblyAnalysisView extends AnalysisView implements IGridListener
 						// get the maximum number of levels supported.
 						for (String feature : lwrData.getFeatureList()) {
 							int newCount = lwrData
-									.getDataAtCurrentTime(feature).size();
+									.getNumberOfDataAtCurrentTime(feature);
 							if (!featureMap.containsKey(feature)
 									|| newCount > featureMap.get(feature)) {
 								featureMap.put(feature, newCount);
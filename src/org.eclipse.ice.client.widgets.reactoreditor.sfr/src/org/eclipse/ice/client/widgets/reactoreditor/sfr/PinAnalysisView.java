@@ -298,7 +298,8 @@ public class PinAnalysisView extends AnalysisView {
 			// number of axial levels supported.
 			for (final String feature : dataProvider.getFeatureList()) {
 				// Get the number of axial levels for this feature.
-				int count = dataProvider.getDataAtCurrentTime(feature).size();
+				int count = dataProvider
+						.getNumberOfDataAtCurrentTime(feature);
 
 				// Put it in the map and create an ActionTree for it.
 				featureMap.put(feature, count);
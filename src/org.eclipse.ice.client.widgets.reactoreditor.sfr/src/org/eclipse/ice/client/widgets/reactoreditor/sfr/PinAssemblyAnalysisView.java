@@ -473,7 +473,7 @@ public class PinAssemblyAnalysisView extends AnalysisView implements
 						// get the maximum number of levels supported.
 						for (String feature : sfrData.getFeatureList()) {
 							int newCount = sfrData
-									.getDataAtCurrentTime(feature).size();
+									.getNumberOfDataAtCurrentTime(feature);
 							if (!featureMap.containsKey(feature)
 									|| newCount > featureMap.get(feature)) {
 								featureMap.put(feature, newCount);
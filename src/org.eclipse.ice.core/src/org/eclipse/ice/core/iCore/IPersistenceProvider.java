@@ -97,4 +97,18 @@ public interface IPersistenceProvider {
 	 *         </p>
 	 */
 	public ArrayList<Item> loadItems();
+
+	/**
+	 * <p>
+	 * Returns the headers of all the Items in the persistence piece. The
+	 * headers are read from an index, so this operation does not load the
+	 * Items themselves. Items can be loaded individually with loadItem() when
+	 * they are needed.
+	 * </p>
+	 *
+	 * @return <p>
+	 *         The list of headers, sorted by Item id.
+	 *         </p>
+	 */
+	public ArrayList<ItemHeader> loadItemHeaders();
 }
\ No newline at end of file
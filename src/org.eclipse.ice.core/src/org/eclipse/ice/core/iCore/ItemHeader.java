@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.iCore;
+
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+
+/**
+ * <p>
+ * An ItemHeader is a lightweight description of an Item that has been
+ * persisted. It holds the id, name, description, builder name and status of
+ * the Item so that lists of Items can be shown without loading the Items
+ * themselves. ItemHeaders are immutable.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class ItemHeader {
+
+	/**
+	 * The id of the Item.
+	 */
+	private final int id;
+
+	/**
+	 * The name of the Item.
+	 */
+	private final String name;
+
+	/**
+	 * The description of the Item or null if it is not known.
+	 */
+	private final String description;
+
+	/**
+	 * The name of the ItemBuilder that created the Item.
+	 */
+	private final String builderName;
+
+	/**
+	 * The status of the Item or null if it is not known.
+	 */
+	private final FormStatus status;
+
+	/**
+	 * The Constructor
+	 *
+	 * @param id
+	 *            The id of the Item
+	 * @param name
+	 *            The name of the Item
+	 * @param description
+	 *            The description of the Item. It may be null.
+	 * @param builderName
+	 *            The name of the ItemBuilder that created the Item
+	 * @param status
+	 *            The status of the Item. It may be null.
+	 */
+	public ItemHeader(int id, String name, String description,
+			String builderName, FormStatus status) {
+		this.id = id;
+		this.name = name;
+		this.description = description;
+		this.builderName = builderName;
+		this.status = status;
+	}
+
+	/**
+	 * This operation creates the header of an Item.
+	 *
+	 * @param item
+	 *            The Item
+	 * @return The header
+	 */
+	public static ItemHeader fromItem(Item item) {
+		return new ItemHeader(item.getId(), item.getName(),
+				item.getDescription(), item.getItemBuilderName(),
+				item.getStatus());
+	}
+
+	/**
+	 * This operation returns the id of the Item.
+	 *
+	 * @return The id
+	 */
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * This operation returns the name of the Item.
+	 *
+	 * @return The name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * This operation returns the description of the Item.
+	 *
+	 * @return The description or null if it is not known
+	 */
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * This operation returns the name of the ItemBuilder that created the
+	 * Item.
+	 *
+	 * @return The builder name
+	 */
+	public String getItemBuilderName() {
+		return builderName;
+	}
+
+	/**
+	 * This operation returns the status of the Item.
+	 *
+	 * @return The status or null if it is not known
+	 */
+	public FormStatus getStatus() {
+		return status;
+	}
+}
@@ -50,7 +50,6 @@ import org.osgi.service.http.NamespaceException;
 import org.osgi.service.component.ComponentContext;
 
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
@@ -65,14 +64,6 @@ import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.osgi.service.http.*;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonParser;
-import com.google.gson.JsonPrimitive;
 import com.sun.jersey.spi.container.servlet.ServletContainer;
 
 /**
@@ -123,10 +114,16 @@ public class Core extends Application implements ICore {
 	private boolean debuggingEnabled = false;
 
 	/**
-	 * An AtomicBoolean to lock and unlock the update operation with hardware.
-	 * True if locked, false if not.
+	 * The parser that converts the updates posted to the Core into Messages.
+	 * It is shared by all of the threads that post updates.
 	 */
-	private AtomicBoolean updateLock;
+	private final UpdateMessageParser messageParser = new UpdateMessageParser();
+
+	/**
+	 * The number of successfully parsed updates between reports of the update
+	 * statistics when debugging is disabled.
+	 */
+	private static final int STATISTICS_INTERVAL = 1000;
 
 	/**
 	 * An alternative constructor that allows the Core to be constructed with a
@@ -151,9 +148,6 @@ public class Core extends Application implements ICore {
 			debuggingEnabled = true;
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
-
 		return;
 	}
 
@@ -193,6 +187,22 @@ public class Core extends Application implements ICore {
 	public void stop() {
 		// Update everything in the ItemManager that requires it
 		itemManager.persistItems();
+		// Report the update statistics if updates were posted
+		if (messageParser.getPayloadCount() > 0) {
+			System.out.println("Core Message: Update statistics: "
+					+ messageParser.getStatistics());
+		}
+	}
+
+	/**
+	 * This operation returns the parser that reads the updates posted to the
+	 * Core. Its statistics describe the rate at which updates are ingested
+	 * and how long they take to parse.
+	 * 
+	 * @return The parser
+	 */
+	public UpdateMessageParser getUpdateMessageParser() {
+		return messageParser;
 	}
 
 	/**
@@ -215,9 +225,6 @@ public class Core extends Application implements ICore {
 			debuggingEnabled = true;
 		}
 
-		// Set the update lock
-		updateLock = new AtomicBoolean(false);
-
 		return;
 	}
 
@@ -760,102 +767,68 @@ public class Core extends Application implements ICore {
 	}
 
 	/**
-	 * This private operation creates an instance of the Message class from a
-	 * string using a JSON parser.
-	 * 
-	 * This operation is synchronized so that the core can't be overloaded.
+	 * This private operation creates instances of the Message class from a
+	 * string using the streaming UpdateMessageParser.
 	 * 
 	 * @param messageString
-	 *            The original message, as a string
+	 *            The string that contains the message
+	 * @param offset
+	 *            The index in the string at which the JSON payload starts
 	 * @return list list of built messages.
 	 */
-	private ArrayList<Message> buildMessagesFromString(String messageString) {
-
-		// Create the ArrayList of messages
-		ArrayList<Message> messages = new ArrayList<Message>();
-
-		// Create the parser and gson utility
-		JsonParser parser = new JsonParser();
-		GsonBuilder builder = new GsonBuilder();
-		Gson gson = builder.create();
-
-		// Catch any exceptions and return the empty list
-		try {
-
-			// Make the string a json string
-			JsonElement messageJson = parser.parse(messageString);
-			JsonObject messageJsonObject = messageJson.getAsJsonObject();
-
-			// Get the Item id from the json
-			JsonPrimitive itemIdJson = messageJsonObject
-					.getAsJsonPrimitive("item_id");
-			int itemId = itemIdJson.getAsInt();
-
-			// Get the array of posts from the message
-			JsonArray jsonMessagesList = messageJsonObject
-					.getAsJsonArray("posts");
-
-			// Load the list
-			for (int i = 0; i < jsonMessagesList.size(); i++) {
-				// Get the message as a json element
-				JsonElement jsonMessage = jsonMessagesList.get(i);
-				// Marshal it into a message
-				Message tmpMessage = gson.fromJson(jsonMessage, Message.class);
-				// Set the item id
-				tmpMessage.setItemId(itemId);
-				// Put it in the list
-				messages.add(tmpMessage);
-			}
-		} catch (JsonParseException e) {
-			// Log the message
-			System.err.println("Core Message: "
-					+ "JSON parsing failed for message " + messageString);
-			e.printStackTrace();
-		}
-
-		return messages;
+	private ArrayList<Message> buildMessagesFromString(String messageString,
+			int offset) {
+		return messageParser.parse(messageString, offset);
 	}
 
 	/**
 	 * (non-Javadoc)
 	 * 
+	 * This operation may be called by many threads at once. The ItemManager
+	 * orders the messages posted to each Item.
+	 * 
 	 * @see ICore#postUpdateMessage(String message)
 	 */
 	public String postUpdateMessage(String message) {
 
-		// Lock the operation
-		updateLock.set(true);
-
 		// Local Declarations
 		String retVal = null;
 
-		// Print the message if debugging is enabled
-		// if (debuggingEnabled) {
-		System.out.println("Core Message: " + "Update received with message: "
-				+ message);
-		// }
-
-		// Only process the message if it exists and is not empty
-		if (message != null && !message.isEmpty() && message.contains("=")) {
-			// Split the message on "=" since it is
-			// application/x-www-form-encoded
-			String[] messageParts = message.split("=");
-			if (messageParts.length > 1) {
-				// Get the message object.
-				ArrayList<Message> msgList = buildMessagesFromString(messageParts[1]);
-				// Post the messages if there are any. Fail otherwise.
-				if (!msgList.isEmpty()) {
-					for (int i = 0; i < msgList.size(); i++) {
-						Message msg = msgList.get(i);
-						itemManager.postUpdateMessage(msg);
-					}
-					// Set the return value
-					retVal = "OK";
+		// Print the message if debugging is enabled. Updaters can post at
+		// high rates, so this is not done otherwise.
+		if (debuggingEnabled) {
+			System.out.println("Core Message: "
+					+ "Update received with message: " + message);
+		}
+
+		// Only process the message if it exists and is not empty. The payload
+		// is the value after the first "=" since the message is
+		// application/x-www-form-encoded. It is parsed in place instead of
+		// being split out of the message.
+		int separator = (message != null) ? message.indexOf('=') : -1;
+		if (separator >= 0 && separator < message.length() - 1) {
+			// Get the message objects.
+			ArrayList<Message> msgList = buildMessagesFromString(message,
+					separator + 1);
+			// Post the messages if there are any. Fail otherwise.
+			if (!msgList.isEmpty()) {
+				for (int i = 0; i < msgList.size(); i++) {
+					Message msg = msgList.get(i);
+					itemManager.postUpdateMessage(msg);
 				}
+				// Set the return value
+				retVal = "OK";
 			}
 		}
 
-		// Unlock the operation and return safely
-		return (updateLock.getAndSet(false)) ? retVal : null;
+		// Report the ingest statistics periodically
+		if (debuggingEnabled
+				|| (retVal != null && messageParser.getPayloadCount()
+						% STATISTICS_INTERVAL == 0)) {
+			System.out.println("Core Message: Update statistics: "
+					+ messageParser.getStatistics());
+		}
+
+		return retVal;
 	}
 }
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.internal;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.ice.item.messaging.Message;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * <p>
+ * The UpdateMessageParser reads the JSON payloads that are posted to the Core
+ * by remote updaters and converts them to Messages. The payload is read as a
+ * stream of tokens and each post is decoded straight into a Message, so no
+ * JSON tree or reflection is used. One instance is shared by all of the
+ * threads that post updates.
+ * </p>
+ * <p>
+ * A payload is either a single update or an array of updates, which may be for
+ * different Items. An update has the form
+ * </p>
+ *
+ * <pre>
+ * {"item_id":"1", "client_key":"...", "posts":[{"type":"FILE_MODIFIED","message":"/tmp/file"}, ...]}
+ * </pre>
+ * <p>
+ * where the fields may be in any order and unknown fields are ignored. A post
+ * may also carry its own "item_id" or "itemId", which overrides the one of its
+ * update.
+ * </p>
+ * <p>
+ * The parser also keeps statistics about the payloads that it has read. They
+ * can be used to report the rate at which Messages are ingested and the time
+ * spent parsing.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class UpdateMessageParser {
+
+	/**
+	 * The number of payloads that were parsed successfully.
+	 */
+	private final AtomicLong payloadCount = new AtomicLong();
+
+	/**
+	 * The number of payloads that could not be parsed.
+	 */
+	private final AtomicLong failureCount = new AtomicLong();
+
+	/**
+	 * The number of Messages that were read.
+	 */
+	private final AtomicLong messageCount = new AtomicLong();
+
+	/**
+	 * The total time spent parsing in nanoseconds.
+	 */
+	private final AtomicLong parseTime = new AtomicLong();
+
+	/**
+	 * The longest time spent parsing a single payload in nanoseconds.
+	 */
+	private final AtomicLong maxParseTime = new AtomicLong();
+
+	/**
+	 * The time at which the first payload was received, from System.nanoTime(),
+	 * or zero if none have been received.
+	 */
+	private final AtomicLong startTime = new AtomicLong();
+
+	/**
+	 * This operation parses a payload into a list of Messages.
+	 *
+	 * @param payload
+	 *            The JSON payload
+	 * @return The Messages or an empty list if the payload could not be parsed
+	 */
+	public ArrayList<Message> parse(String payload) {
+		return parse(payload, 0);
+	}
+
+	/**
+	 * This operation parses the part of a string that starts at the given
+	 * offset into a list of Messages. It allows the Core to read the payload
+	 * of a form-encoded post without copying it.
+	 *
+	 * @param payload
+	 *            The string that contains the JSON payload
+	 * @param offset
+	 *            The index in the string at which the JSON payload starts
+	 * @return The Messages or an empty list if the payload could not be parsed
+	 */
+	public ArrayList<Message> parse(String payload, int offset) {
+
+		// Local Declarations
+		ArrayList<Message> messages = new ArrayList<Message>();
+		long begin = System.nanoTime();
+		long elapsed;
+
+		// Record the time of the first payload
+		startTime.compareAndSet(0L, begin);
+
+		// Read the payload
+		if (payload != null && offset >= 0 && offset < payload.length()) {
+			StringReader stringReader = new StringReader(payload);
+			JsonReader reader = new JsonReader(stringReader);
+			// The Core has always accepted lenient JSON
+			reader.setLenient(true);
+			try {
+				stringReader.skip(offset);
+				if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+					// Read a batch of updates
+					reader.beginArray();
+					while (reader.hasNext()) {
+						readUpdate(reader, messages);
+					}
+					reader.endArray();
+				} else {
+					readUpdate(reader, messages);
+				}
+			} catch (IOException e) {
+				logFailure(payload, offset, e);
+				messages.clear();
+			} catch (IllegalStateException e) {
+				logFailure(payload, offset, e);
+				messages.clear();
+			} catch (NumberFormatException e) {
+				logFailure(payload, offset, e);
+				messages.clear();
+			} finally {
+				try {
+					reader.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+
+		// Update the statistics
+		elapsed = System.nanoTime() - begin;
+		if (messages.isEmpty()) {
+			failureCount.incrementAndGet();
+		} else {
+			payloadCount.incrementAndGet();
+			messageCount.addAndGet(messages.size());
+		}
+		parseTime.addAndGet(elapsed);
+		long max = maxParseTime.get();
+		while (elapsed > max && !maxParseTime.compareAndSet(max, elapsed)) {
+			max = maxParseTime.get();
+		}
+
+		return messages;
+	}
+
+	/**
+	 * This operation logs a payload that could not be parsed. Nothing is
+	 * posted from a bad payload.
+	 *
+	 * @param payload
+	 *            The string that contains the payload
+	 * @param offset
+	 *            The index in the string at which the payload starts
+	 * @param e
+	 *            The exception that was thrown by the parser
+	 */
+	private void logFailure(String payload, int offset, Exception e) {
+		System.err.println("Core Message: "
+				+ "JSON parsing failed for message "
+				+ payload.substring(offset));
+		e.printStackTrace();
+	}
+
+	/**
+	 * This operation reads one update object and adds its posts to the list
+	 * of Messages.
+	 *
+	 * @param reader
+	 *            The reader, positioned at the start of the update
+	 * @param messages
+	 *            The list to which the Messages should be added
+	 * @throws IOException
+	 */
+	private void readUpdate(JsonReader reader, ArrayList<Message> messages)
+			throws IOException {
+
+		// Local Declarations
+		int firstPost = messages.size();
+		int itemId = 0;
+		boolean hasItemId = false;
+		BitSet postsWithIds = new BitSet();
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if ("item_id".equals(name) && reader.peek() != JsonToken.NULL) {
+				itemId = reader.nextInt();
+				hasItemId = true;
+			} else if ("posts".equals(name)
+					&& reader.peek() == JsonToken.BEGIN_ARRAY) {
+				reader.beginArray();
+				while (reader.hasNext()) {
+					readPost(reader, messages, postsWithIds);
+				}
+				reader.endArray();
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		// The item id may come after the posts, so set it now on the posts
+		// that did not carry their own.
+		if (hasItemId) {
+			for (int i = firstPost; i < messages.size(); i++) {
+				if (!postsWithIds.get(i)) {
+					messages.get(i).setItemId(itemId);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads one post into a Message and adds it to the list.
+	 *
+	 * @param reader
+	 *            The reader, positioned at the start of the post
+	 * @param messages
+	 *            The list to which the Message should be added
+	 * @param postsWithIds
+	 *            The set of indices of the Messages whose posts specified
+	 *            their own item id
+	 * @throws IOException
+	 */
+	private void readPost(JsonReader reader, ArrayList<Message> messages,
+			BitSet postsWithIds) throws IOException {
+
+		// Local Declarations
+		Message message = new Message();
+
+		reader.beginObject();
+		while (reader.hasNext()) {
+			String name = reader.nextName();
+			if (reader.peek() == JsonToken.NULL) {
+				// Null strings are kept as null, null numbers are ignored
+				reader.nextNull();
+				if ("type".equals(name)) {
+					message.setType(null);
+				} else if ("message".equals(name)) {
+					message.setMessage(null);
+				}
+			} else if ("type".equals(name)) {
+				message.setType(reader.nextString());
+			} else if ("message".equals(name)) {
+				message.setMessage(reader.nextString());
+			} else if ("id".equals(name)) {
+				message.setId(reader.nextInt());
+			} else if ("itemId".equals(name) || "item_id".equals(name)) {
+				message.setItemId(reader.nextInt());
+				postsWithIds.set(messages.size());
+			} else {
+				reader.skipValue();
+			}
+		}
+		reader.endObject();
+
+		messages.add(message);
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of payloads that were parsed into at
+	 * least one Message.
+	 *
+	 * @return The number of payloads
+	 */
+	public long getPayloadCount() {
+		return payloadCount.get();
+	}
+
+	/**
+	 * This operation returns the number of payloads that could not be parsed
+	 * or that did not contain any Messages.
+	 *
+	 * @return The number of failed payloads
+	 */
+	public long getFailureCount() {
+		return failureCount.get();
+	}
+
+	/**
+	 * This operation returns the number of Messages that were read.
+	 *
+	 * @return The number of Messages
+	 */
+	public long getMessageCount() {
+		return messageCount.get();
+	}
+
+	/**
+	 * This operation returns the number of Messages read per second since
+	 * the first payload was received.
+	 *
+	 * @return The ingest rate in Messages per second
+	 */
+	public double getIngestRate() {
+
+		// Local Declarations
+		long start = startTime.get();
+		double elapsed = (System.nanoTime() - start) / 1.0e9;
+
+		return (start == 0L || elapsed <= 0.0) ? 0.0 : messageCount.get()
+				/ elapsed;
+	}
+
+	/**
+	 * This operation returns the average time spent parsing a payload.
+	 *
+	 * @return The average parse latency in microseconds
+	 */
+	public double getAverageParseLatency() {
+
+		// Local Declarations
+		long payloads = payloadCount.get() + failureCount.get();
+
+		return (payloads == 0L) ? 0.0 : parseTime.get() / 1.0e3 / payloads;
+	}
+
+	/**
+	 * This operation returns the longest time spent parsing a single payload.
+	 *
+	 * @return The maximum parse latency in microseconds
+	 */
+	public double getMaxParseLatency() {
+		return maxParseTime.get() / 1.0e3;
+	}
+
+	/**
+	 * This operation returns a one line summary of the statistics.
+	 *
+	 * @return The summary
+	 */
+	public String getStatistics() {
+		return String.format("%d messages from %d payloads (%d failed), "
+				+ "%.1f messages/s, parse latency %.1f us average, "
+				+ "%.1f us maximum", getMessageCount(), getPayloadCount(),
+				getFailureCount(), getIngestRate(), getAverageParseLatency(),
+				getMaxParseLatency());
+	}
+}
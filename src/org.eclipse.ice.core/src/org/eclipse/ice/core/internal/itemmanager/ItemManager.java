@@ -15,10 +15,18 @@ package org.eclipse.ice.core.internal.itemmanager;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.ice.datastructures.form.FormStatus;
 
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.core.iCore.ItemHeader;
 
 import org.eclipse.core.resources.IProject;
 
@@ -26,6 +34,7 @@ import java.net.URI;
 import java.io.File;
 
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
 import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.item.ICompositeItemBuilder;
 import org.eclipse.ice.item.Item;
@@ -47,8 +56,10 @@ import org.eclipse.ice.item.messaging.Message;
  * The ItemManager will store and retrieve Items to and from a data store if an
  * IPersistenceProvider is set by calling ItemManager.setPersistenceProvider().
  * The ItemManager will persist Items when they are created, updated and
- * processed. It loads all Item in the Provider by calling loadItems() and it
- * persists all currently active Items by calling persistItems().
+ * processed. It persists all currently active Items by calling
+ * persistItems(). Calling loadItems() only loads the headers of the persisted
+ * Items from the provider, which is enough to list them. Each persisted Item
+ * is loaded from the provider the first time that it is accessed.
  * </p>
  * <p>
  * The process output file of an Item can be retrieved by calling
@@ -56,6 +67,17 @@ import org.eclipse.ice.item.messaging.Message;
  * output file and retrieving a Form are separated because they are treated as
  * two distinctly different things on the Item class.
  * </p>
+ * <p>
+ * The ItemManager is thread-safe. Items and ItemBuilders are stored in
+ * concurrent maps, so lookups never block. Operations that change an Item,
+ * such as updating, processing and deleting it, are run on a serial executor
+ * that belongs to that Item. Operations on one Item are performed one at a
+ * time and in the order in which they were requested, while operations on
+ * different Items run in parallel. An Item that calls back into the
+ * ItemManager from one of these operations is never made to wait, even if it
+ * calls another Item. Messages and cancellations bypass the executor so that
+ * they can reach an Item while it is processing.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -67,7 +89,14 @@ public class ItemManager implements ItemListener {
 	 * </p>
 	 * 
 	 */
-	private HashMap<Integer, Item> itemList;
+	private ConcurrentHashMap<Integer, Item> itemList;
+
+	/**
+	 * The headers of the persisted Items that have not been loaded from the
+	 * persistence provider yet. The keys are the Item ids. An Item is moved to
+	 * the itemList the first time that it is accessed.
+	 */
+	private ConcurrentHashMap<Integer, ItemHeader> unloadedItems;
 
 	/**
 	 * <p>
@@ -75,7 +104,7 @@ public class ItemManager implements ItemListener {
 	 * the names of the builders and the values are the builders.
 	 * </p>
 	 */
-	private HashMap<String, ItemBuilder> itemBuilderList;
+	private ConcurrentHashMap<String, ItemBuilder> itemBuilderList;
 
 	/**
 	 * <p>
@@ -98,6 +127,25 @@ public class ItemManager implements ItemListener {
 	 */
 	private ArrayList<Integer> reusableIds;
 
+	/**
+	 * The lock that guards nextSequentialId and reusableIds.
+	 */
+	private final Object idLock = new Object();
+
+	/**
+	 * The serial executors that order the operations on each Item. The keys
+	 * are the Item ids. An executor only stays in the map while it is in use,
+	 * and the map is guarded by its own lock so that looking up, creating and
+	 * removing an executor are atomic.
+	 */
+	private final HashMap<Integer, SerialExecutor> itemExecutors = new HashMap<Integer, SerialExecutor>();
+
+	/**
+	 * The shared pool of threads used by the serial executors to run the
+	 * operations that had to wait for another operation on the same Item.
+	 */
+	private final ExecutorService itemWorkers;
+
 	/**
 	 * <p>
 	 * This list of ICompositeBuilders registered in ICE. This list is
@@ -106,7 +154,7 @@ public class ItemManager implements ItemListener {
 	 * </p>
 	 * 
 	 */
-	private ArrayList<ICompositeItemBuilder> compositeBuilders;
+	private CopyOnWriteArrayList<ICompositeItemBuilder> compositeBuilders;
 
 	/**
 	 * <p>
@@ -135,10 +183,187 @@ public class ItemManager implements ItemListener {
 		reusableIds = new ArrayList<Integer>();
 
 		// Setup the lists
-		itemBuilderList = new HashMap<String, ItemBuilder>();
-		compositeBuilders = new ArrayList<ICompositeItemBuilder>();
-		itemList = new HashMap<Integer, Item>();
+		itemBuilderList = new ConcurrentHashMap<String, ItemBuilder>();
+		compositeBuilders = new CopyOnWriteArrayList<ICompositeItemBuilder>();
+		itemList = new ConcurrentHashMap<Integer, Item>();
+		unloadedItems = new ConcurrentHashMap<Integer, ItemHeader>();
+
+		// Setup the worker pool with daemon threads so that it never keeps
+		// the VM alive.
+		final AtomicInteger threadCount = new AtomicInteger();
+		itemWorkers = Executors.newCachedThreadPool(new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ICE Item Worker "
+						+ threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+
+	}
+
+	/**
+	 * This operation returns the serial executor for the Item with the given
+	 * id, creating it if needed, and registers the caller as one of its users.
+	 * Every call must be matched by a call to releaseExecutor().
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @return The serial executor
+	 */
+	private SerialExecutor acquireExecutor(int itemId) {
+
+		// Local Declarations
+		SerialExecutor executor;
+
+		synchronized (itemExecutors) {
+			executor = itemExecutors.get(itemId);
+			if (executor == null) {
+				executor = new SerialExecutor(itemWorkers);
+				itemExecutors.put(itemId, executor);
+			}
+			executor.users++;
+		}
+
+		return executor;
+	}
+
+	/**
+	 * This operation releases a serial executor that was returned by
+	 * acquireExecutor() and removes it from the map when it has no more users.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @param executor
+	 *            The serial executor
+	 */
+	private void releaseExecutor(int itemId, SerialExecutor executor) {
+		synchronized (itemExecutors) {
+			if (--executor.users == 0) {
+				itemExecutors.remove(itemId);
+			}
+		}
+	}
+
+	/**
+	 * This operation returns true if the ItemManager manages an Item with the
+	 * given id, whether or not it has been loaded from the persistence
+	 * provider.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @return True if the Item exists, false otherwise
+	 */
+	private boolean hasItem(int itemId) {
+		return itemList.containsKey(itemId)
+				|| unloadedItems.containsKey(itemId);
+	}
+
+	/**
+	 * This operation returns the Item with the given id. If the Item has not
+	 * been loaded from the persistence provider yet, it is loaded and rebuilt
+	 * first. Each Item is only loaded once, even if several threads ask for it
+	 * at the same time.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @return The Item or null if there is no Item with that id or it could
+	 *         not be loaded
+	 */
+	private Item getItem(int itemId) {
+
+		// Local Declarations
+		Item item = itemList.get(itemId);
+		ItemHeader header;
+
+		// Load the Item if it is only known by its header
+		if (item == null && (header = unloadedItems.get(itemId)) != null) {
+			synchronized (header) {
+				// Check again in case another thread loaded it
+				item = itemList.get(itemId);
+				if (item == null && unloadedItems.containsKey(itemId)) {
+					Item loadedItem = provider.loadItem(itemId);
+					if (loadedItem != null) {
+						addLoadedItem(loadedItem, loadedProject);
+					} else {
+						System.out.println("ItemManager Message: "
+								+ "Unable to load Item " + header.getName()
+								+ " " + itemId + " from the provider.");
+					}
+					// Only drop the header once the Item is in the list
+					unloadedItems.remove(itemId);
+					item = itemList.get(itemId);
+				}
+			}
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation adds an Item that was loaded from the persistence
+	 * provider to the list. The Item is rebuilt with the builder that created
+	 * it or disabled if that builder is not available.
+	 * 
+	 * @param item
+	 *            The Item loaded from the provider
+	 * @param projectSpace
+	 *            The project space that the Item should use
+	 */
+	private void addLoadedItem(Item item, IProject projectSpace) {
+
+		// Reconstruct the Item to use the proper subclass by searching the
+		// builders for the builder with the appropriate name.
+		String builderName = item.getItemBuilderName();
+		ItemBuilder builder = (builderName != null) ? itemBuilderList
+				.get(builderName) : null;
+		if (builder != null) {
+			rebuildItem(builder, item, projectSpace);
+		} else {
+			System.out.println("ItemManager Message: "
+					+ "Builder not found for " + item.getName() + " "
+					+ item.getId() + " with builder " + builderName
+					+ ". It will be disabled.");
+			// Otherwise just put the Item in the list, but disable it. It can
+			// still be read, just not processed.
+			item.disable(true);
+			itemList.put(item.getId(), item);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation runs a task on the serial executor of the Item with the
+	 * given id and waits for its result.
+	 * 
+	 * @param itemId
+	 *            The id of the Item
+	 * @param task
+	 *            The task
+	 * @param defaultValue
+	 *            The value returned if the calling thread is interrupted
+	 * @return The result of the task
+	 */
+	private <T> T runOnItem(int itemId, Callable<T> task, T defaultValue) {
+
+		// Local Declarations
+		T retVal = defaultValue;
+		SerialExecutor executor = acquireExecutor(itemId);
+
+		try {
+			retVal = executor.call(task);
+		} catch (InterruptedException e) {
+			// Complain and restore the interrupt
+			System.out.println("ItemManager Message: Interrupted while "
+					+ "waiting for Item " + itemId + ".");
+			Thread.currentThread().interrupt();
+		} finally {
+			releaseExecutor(itemId, executor);
+		}
 
+		return retVal;
 	}
 
 	/**
@@ -177,29 +402,29 @@ public class ItemManager implements ItemListener {
 		int retVal = -1;
 		Item item = null;
 
-		// Create the new Item if the type is valid by doing a linear search
-		// across the map. This shouldn't be too expensive, for now, because the
-		// list of items is small.
+		// Create the new Item if the type is valid. The builders are keyed by
+		// the names of the Items that they create.
 		if (newItemType != null) {
-			for (ItemBuilder i : itemBuilderList.values()) {
-				if (i.getItemName().equals(newItemType)) {
-					item = i.build(project);
-				}
+			ItemBuilder builder = itemBuilderList.get(newItemType);
+			if (builder != null) {
+				item = builder.build(project);
 			}
 		}
 
 		// Set the Item's id if it was created, add it to the list and
 		// update the return value.
 		if (item != null) {
-			// Set the id to a previously used id if one is available
-			if (!(reusableIds.isEmpty())) {
-				item.setId(reusableIds.get(0));
-				reusableIds.remove(0);
-			} else {
-				// Set the id to the next sequential id
-				item.setId(nextSequentialId);
-				// Update the next sequential id
-				++nextSequentialId;
+			synchronized (idLock) {
+				// Set the id to a previously used id if one is available
+				if (!(reusableIds.isEmpty())) {
+					item.setId(reusableIds.get(0));
+					reusableIds.remove(0);
+				} else {
+					// Set the id to the next sequential id
+					item.setId(nextSequentialId);
+					// Update the next sequential id
+					++nextSequentialId;
+				}
 			}
 			// Register as an observer of the Item
 			item.addListener(this);
@@ -307,9 +532,12 @@ public class ItemManager implements ItemListener {
 		Form form = null;
 
 		// Retrieve the Form if and only if the Item id is greater than zero and
-		// is also in the list of Items.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
-			form = this.itemList.get(itemID).getForm();
+		// is also in the list of Items. The Item is loaded if needed.
+		if (itemID > 0) {
+			Item item = getItem(itemID);
+			if (item != null) {
+				form = item.getForm();
+			}
 		}
 
 		return form;
@@ -330,11 +558,16 @@ public class ItemManager implements ItemListener {
 	 */
 	public void registerBuilder(ItemBuilder builder) {
 
+		// Local Declarations
+		String builderName = (builder != null) ? builder.getItemName() : null;
+
 		// Make sure the builder is not null and add it to the list, if it's not
-		// there already.
+		// there already. Builders without a name, such as some composite
+		// builders, can not build Items by name, so they are not added to the
+		// list, but the composite Items are still notified.
 		if (builder != null
-				&& !this.itemBuilderList.containsKey(builder.getItemName())) {
-			this.itemBuilderList.put(builder.getItemName(), builder);
+				&& (builderName == null || this.itemBuilderList.putIfAbsent(
+						builderName, builder) == null)) {
 			// Notify the composite Items of the updated builder list
 			for (ICompositeItemBuilder compositeBuilder : compositeBuilders) {
 				compositeBuilder.addBuilders(new ArrayList<ItemBuilder>(
@@ -342,11 +575,9 @@ public class ItemManager implements ItemListener {
 			}
 			// Get the list of Items and see if any disabled ones can be
 			// re-enabled because this builder is their parent.
-			for (int i = 0; i < itemList.values().size(); i++) {
-				Item item = (Item) itemList.values().toArray()[i];
-				if (!item.isEnabled()
-						&& item.getItemBuilderName().equals(
-								builder.getItemName())) {
+			for (Item item : itemList.values()) {
+				if (!item.isEnabled() && builderName != null
+						&& builderName.equals(item.getItemBuilderName())) {
 					rebuildItem(builder, item, loadedProject);
 					item.disable(false);
 					System.out.println("ItemManager Message: "
@@ -401,9 +632,8 @@ public class ItemManager implements ItemListener {
 	 */
 	public void unregisterBuilder(ItemBuilder builder) {
 
-		if (builder != null
-				&& this.itemBuilderList.containsKey(builder.getItemName())) {
-			this.itemBuilderList.remove(builder.getItemName());
+		if (builder != null && builder.getItemName() != null) {
+			this.itemBuilderList.remove(builder.getItemName(), builder);
 		}
 
 		return;
@@ -498,6 +728,12 @@ public class ItemManager implements ItemListener {
 			if (item != null) {
 				// Set the status if the Item is actually in the map
 				status = item.getStatus();
+			} else {
+				// Use the persisted status if the Item was not loaded yet
+				ItemHeader header = unloadedItems.get(itemId);
+				if (header != null) {
+					status = header.getStatus();
+				}
 			}
 		}
 
@@ -558,12 +794,14 @@ public class ItemManager implements ItemListener {
 	 * after the core starts and should not be called frequently.
 	 * </p>
 	 * <p>
-	 * The ItemManager will call the persistence provider to load all available
-	 * Items when this operation is called. It tries to load the Items in such a
-	 * way that new Items are created with unique ids and old, unused ids are
-	 * made available for reuse to prevent fragmentation of the set of Item ids.
-	 * (No one wants to have five Items spread across three orders of magnitude
-	 * in ids!)
+	 * The ItemManager will call the persistence provider to load the headers
+	 * of all available Items when this operation is called. The headers are
+	 * enough to list the Items, so the Items themselves are only loaded from
+	 * the provider when they are first accessed. It tries to load the Items in
+	 * such a way that new Items are created with unique ids and old, unused
+	 * ids are made available for reuse to prevent fragmentation of the set of
+	 * Item ids. (No one wants to have five Items spread across three orders of
+	 * magnitude in ids!)
 	 * </p>
 	 * 
 	 * @param projectSpace
@@ -577,46 +815,36 @@ public class ItemManager implements ItemListener {
 		// Make sure the persistence provider is available before requesting
 		// information from it.
 		if (provider != null) {
-			// Get all of the Items
-			ArrayList<Item> oldItems = provider.loadItems();
-			// Put all of the Items in to the list if the provider was able to
-			// load anything.
-			if (oldItems != null && !(oldItems.isEmpty())) {
-				// Loop over each Item and load it up
-				for (Item item : oldItems) {
-					// Reconstruct the Item to use the proper subclass by
-					// searching the builders for the builder with the
-					// appropriate name.
-					if (itemBuilderList.containsKey(item.getItemBuilderName())) {
-						ItemBuilder builder = itemBuilderList.get(item
-								.getItemBuilderName());
-						rebuildItem(builder, item, projectSpace);
-					} else {
-						System.out.println("ItemManager Message: "
-								+ "Builder not found for " + item.getName()
-								+ " " + item.getId() + " with builder "
-								+ item.getItemBuilderName()
-								+ ". It will be disabled.");
-						// Otherwise just put the Item in the list, but disable
-						// it. It can still be read, just not processed.
-						item.disable(true);
-						itemList.put(item.getId(), item);
+			// Save the project space for the Items that are loaded later
+			loadedProject = projectSpace;
+			// Get the headers of all of the Items
+			ArrayList<ItemHeader> headers = provider.loadItemHeaders();
+			// Remember the Items if the provider was able to find anything.
+			if (headers != null && !(headers.isEmpty())) {
+				for (ItemHeader header : headers) {
+					if (!itemList.containsKey(header.getId())) {
+						unloadedItems.put(header.getId(), header);
 					}
 				}
-				// Get the keys from the map and sort them
+				// Get the keys from the maps and sort them
 				TreeSet<Integer> keys = new TreeSet<Integer>(itemList.keySet());
-				// Set the next sequential id such that it is equal to one plus
-				// the last id in the set of Items from the provider. This will
-				// keep any new items from possibly colliding with old ones in
-				// the map.
-				nextSequentialId = keys.last() + 1;
-				// Loop over the set of ids and figure out if there are any
-				// gaps, which can be reused to keep the ids from fragmenting.
-				for (int i = 1; i < nextSequentialId; i++) {
-					// If the set doesn't contain i, add it to the reusable id
-					// list
-					if (!keys.contains(i)) {
-						reusableIds.add(i);
+				keys.addAll(unloadedItems.keySet());
+				synchronized (idLock) {
+					// Set the next sequential id such that it is equal to one
+					// plus the last id in the set of Items from the provider.
+					// This will keep any new items from possibly colliding with
+					// old ones in the map.
+					nextSequentialId = keys.last() + 1;
+					// Loop over the set of ids and figure out if there are any
+					// gaps, which can be reused to keep the ids from
+					// fragmenting.
+					reusableIds.clear();
+					for (int i = 1; i < nextSequentialId; i++) {
+						// If the set doesn't contain i, add it to the reusable
+						// id list
+						if (!keys.contains(i)) {
+							reusableIds.add(i);
+						}
 					}
 				}
 			} else {
@@ -624,8 +852,6 @@ public class ItemManager implements ItemListener {
 				System.out.println("Unable to load items in bulk from "
 						+ "the IPersistenceProvider.");
 			}
-			// Save the project space
-			loadedProject = projectSpace;
 
 		}
 
@@ -658,6 +884,7 @@ public class ItemManager implements ItemListener {
 		// only minimally tested now.
 
 		// Update all of the Items in the database if the provider is available.
+		// Items that were never loaded have not changed, so they are skipped.
 		if (provider != null) {
 			System.out.println("ItemManager Message: Updating all Items with "
 					+ "Persistence Provider.");
@@ -694,8 +921,9 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		File outputFile = null;
 
-		if (itemList.containsKey(id)) {
-			outputFile = itemList.get(id).getOutputFile();
+		Item item = getItem(id);
+		if (item != null) {
+			outputFile = item.getOutputFile();
 		}
 
 		return outputFile;
@@ -725,9 +953,11 @@ public class ItemManager implements ItemListener {
 		// Local Declarations
 		FormStatus status = FormStatus.InfoError;
 
-		// Find the item if the id is valid
-		if (itemList.keySet().contains(itemId)) {
-			Item item = itemList.get(itemId);
+		// Find the item if the id is valid. This is not run on the Item's
+		// executor so that it can interrupt a long running process. Items that
+		// were not loaded are not running anything.
+		Item item = itemList.get(itemId);
+		if (item != null) {
 			// Try to cancel the task. This kills all processes regardless of
 			// name for now.
 			status = item.cancelProcess();
@@ -745,7 +975,8 @@ public class ItemManager implements ItemListener {
 	 */
 	public void reloadItemData() {
 
-		// Send a reload signal to all of the Items
+		// Send a reload signal to all of the Items. Items that are not loaded
+		// yet read their data when they are loaded.
 		for (Item item : itemList.values()) {
 			item.reloadProjectData();
 		}
@@ -769,17 +1000,17 @@ public class ItemManager implements ItemListener {
 	 *         the Item was able to respond to the Message, false otherwise.
 	 *         </p>
 	 */
-	public boolean postUpdateMessage(Message msg) {
+	public boolean postUpdateMessage(final Message msg) {
 
 		// Local Declarations
 		boolean retVal = false;
-		int itemId = msg.getItemId();
+		final int itemId = msg.getItemId();
 
-		// Push the message if possible
-		if (itemList.containsKey(itemId)) {
-			// Grab the Item
-			Item messagedItem = itemList.get(itemId);
-			// Post the message
+		// Push the message if possible. This is not run on the Item's executor
+		// because the messages usually come from a process that the Item is
+		// waiting on, just like cancelItemProcess().
+		Item messagedItem = getItem(itemId);
+		if (messagedItem != null) {
 			retVal = messagedItem.update(msg);
 		}
 
@@ -795,7 +1026,7 @@ public class ItemManager implements ItemListener {
 
 		// Not threaded for now, but should it be? ~JJB 20130912 17:06
 
-		// Direct all of the Items to reload their data
+		// Direct all of the loaded Items to reload their data
 		System.out.println("ItemManager Message: "
 				+ "Reloading all Item project data.");
 		for (Item item : itemList.values()) {
@@ -826,6 +1057,17 @@ public class ItemManager implements ItemListener {
 			items.add(i);
 		}
 
+		// Describe the Items that were not loaded yet with their headers
+		for (ItemHeader header : unloadedItems.values()) {
+			if (!itemList.containsKey(header.getId())) {
+				ICEObject handle = new ICEObject();
+				handle.setId(header.getId());
+				handle.setName(header.getName());
+				handle.setDescription(header.getDescription());
+				items.add(handle);
+			}
+		}
+
 		return items;
 	}
 
@@ -851,27 +1093,37 @@ public class ItemManager implements ItemListener {
 	 *         The status of the Item after the Form is submitted.
 	 *         </p>
 	 */
-	public FormStatus updateItem(Form form) {
+	public FormStatus updateItem(final Form form) {
 
 		// Local Declarations
 		FormStatus status = FormStatus.InfoError;
-		int id = -1;
-		Item currentItem = null;
-
-		// Get the Item to which the Form belongs
-		id = form.getItemID();
+		final int id = form.getItemID();
+
+		// Make sure the Id is valid and then update its parent on its executor
+		if (hasItem(id)) {
+			status = runOnItem(id, new Callable<FormStatus>() {
+				@Override
+				public FormStatus call() {
+					// Local Declarations
+					FormStatus newStatus = FormStatus.InfoError;
+					Item currentItem = getItem(id);
+
+					// Submit the Form if the Item is still there
+					if (currentItem != null) {
+						newStatus = currentItem.submitForm(form);
+					}
 
-		// Make sure the Id is valid and then find its parent
-		if (itemList.containsKey(id)) {
-			currentItem = itemList.get(id);
-			status = currentItem.submitForm(form);
-		}
+					// Check the status and write to the database if it is
+					// enabled. Only try to write to the database if the
+					// EntityManagers are ready
+					if ((FormStatus.Processed.equals(newStatus) || FormStatus.ReadyToProcess
+							.equals(newStatus)) && provider != null) {
+						provider.updateItem(currentItem);
+					}
 
-		// Check the status and write to the database if it is enabled
-		// Only try to write to the database if the EntityManagers are ready
-		if ((status.equals(FormStatus.Processed) || status
-				.equals(FormStatus.ReadyToProcess)) && provider != null) {
-			provider.updateItem(currentItem);
+					return newStatus;
+				}
+			}, FormStatus.InfoError);
 		}
 
 		return status;
@@ -913,19 +1165,23 @@ public class ItemManager implements ItemListener {
 	 *         The status of the Item after the action has been performed.
 	 *         </p>
 	 */
-	public FormStatus processItem(int itemId, String actionName) {
+	public FormStatus processItem(final int itemId, final String actionName) {
 
 		// Local Declarations
 		FormStatus status = FormStatus.InfoError;
-		Item tmpItem = null;
 
 		// Check the Item id and actionName for validity
-		if (itemId > 0 && actionName != null) {
-			// Retrieve the Item from the map if it exists
-			tmpItem = itemList.get(itemId);
-			if (tmpItem != null) {
-				status = tmpItem.process(actionName);
-			}
+		if (itemId > 0 && actionName != null && hasItem(itemId)) {
+			// Process the Item on its executor
+			status = runOnItem(itemId, new Callable<FormStatus>() {
+				@Override
+				public FormStatus call() {
+					// Retrieve the Item from the map if it still exists
+					Item tmpItem = getItem(itemId);
+					return (tmpItem != null) ? tmpItem.process(actionName)
+							: FormStatus.InfoError;
+				}
+			}, FormStatus.InfoError);
 		}
 
 		return status;
@@ -948,26 +1204,39 @@ public class ItemManager implements ItemListener {
 	 *         True if the Item was deleted, false if something went wrong.
 	 *         </p>
 	 */
-	public boolean deleteItem(int itemID) {
+	public boolean deleteItem(final int itemID) {
 
 		// Local Declarations
 		boolean retVal = false;
 
 		// Try to delete the Item if and only if the Item's id is greater than
-		// zero and it is in the list of Items and set the return value.
-		if (itemID > 0 && this.itemList.containsKey(itemID)) {
-			// If the provider exists, delete the Item from the provider
-			if (this.provider != null) {
-				Item item = itemList.get(itemID);
-				System.out.println("ItemManager Message: Deleting Item "
-						+ item.getName() + " " + item.getId()
-						+ " from provider");
-				provider.deleteItem(itemList.get(itemID));
-			}
-			// Remove the Item from the list
-			retVal = (this.itemList.remove(itemID) != null || false);
-			// Add the id to the list so that it can be reused
-			reusableIds.add(itemID);
+		// zero and it is in the list of Items and set the return value. The
+		// deletion waits for any other operations on the Item.
+		if (itemID > 0 && hasItem(itemID)) {
+			retVal = runOnItem(itemID, new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					// Remove the Item from the list. It is loaded first if
+					// needed because the provider deletes it by name.
+					getItem(itemID);
+					Item item = itemList.remove(itemID);
+					if (item == null) {
+						return false;
+					}
+					// If the provider exists, delete the Item from the provider
+					if (provider != null) {
+						System.out.println("ItemManager Message: Deleting Item "
+								+ item.getName() + " " + item.getId()
+								+ " from provider");
+						provider.deleteItem(item);
+					}
+					// Add the id to the list so that it can be reused
+					synchronized (idLock) {
+						reusableIds.add(itemID);
+					}
+					return true;
+				}
+			}, false);
 		}
 
 		return retVal;
@@ -0,0 +1,211 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.internal.itemmanager;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * <p>
+ * The SerialExecutor runs the tasks submitted to it one at a time, in the
+ * order in which they were submitted. A task that is submitted while the
+ * executor is idle runs on the calling thread. Otherwise it waits in a queue
+ * and runs on one of the threads of a shared Executor. The
+ * ItemManager creates one SerialExecutor for each Item so that operations on
+ * one Item are always ordered while operations on different Items run in
+ * parallel.
+ * </p>
+ * <p>
+ * Tasks that are submitted from a thread that is already running a task of any
+ * SerialExecutor are run immediately on the calling thread if this executor is
+ * busy. This keeps an Item that calls back into the ItemManager while it is
+ * being processed from deadlocking on its own executor, and it keeps two Items
+ * that call each other from waiting on each other forever.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+class SerialExecutor {
+
+	/**
+	 * The shared Executor on which the tasks are run.
+	 */
+	private final Executor executor;
+
+	/**
+	 * The tasks that are waiting to run.
+	 */
+	private final ArrayDeque<Runnable> tasks = new ArrayDeque<Runnable>();
+
+	/**
+	 * The task that is running or null if the executor is idle.
+	 */
+	private Runnable active;
+
+	/**
+	 * A placeholder for the active task when a task is run directly on the
+	 * thread that submitted it.
+	 */
+	private final Runnable callerTask = new Runnable() {
+		@Override
+		public void run() {
+		}
+	};
+
+	/**
+	 * The number of SerialExecutor tasks that the current thread is running.
+	 * It is greater than zero if the thread is inside a task.
+	 */
+	private static final ThreadLocal<int[]> taskDepth = new ThreadLocal<int[]>() {
+		@Override
+		protected int[] initialValue() {
+			return new int[1];
+		}
+	};
+
+	/**
+	 * The number of callers that are using this executor. It is only read and
+	 * changed while the ItemManager holds the lock on its executor map.
+	 */
+	int users;
+
+	/**
+	 * The Constructor
+	 *
+	 * @param executor
+	 *            The shared Executor on which the tasks should be run
+	 */
+	public SerialExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * This operation runs the task after all of the tasks that were submitted
+	 * before it and waits for the result.
+	 *
+	 * @param task
+	 *            The task
+	 * @return The result of the task
+	 * @throws InterruptedException
+	 *             An exception indicating that the calling thread was
+	 *             interrupted while it waited. The task may still run.
+	 */
+	public <T> T call(Callable<T> task) throws InterruptedException {
+
+		// Run the task on this thread if nothing else is running or waiting
+		if (claimIfIdle()) {
+			try {
+				return runDirectly(task);
+			} finally {
+				scheduleNext();
+			}
+		}
+
+		// Run nested calls directly. The thread may be running the task that
+		// this one would wait for, or a task that the active one waits for.
+		if (taskDepth.get()[0] > 0) {
+			return runDirectly(task);
+		}
+
+		// Otherwise queue the task and wait for it
+		FutureTask<T> future = new FutureTask<T>(task);
+		submit(future);
+		try {
+			return future.get();
+		} catch (ExecutionException e) {
+			// Rethrow unchecked exceptions so that callers see the same
+			// behavior as a direct call
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new RuntimeException(cause);
+		}
+	}
+
+	/**
+	 * This operation runs a task on the calling thread.
+	 *
+	 * @param task
+	 *            The task
+	 * @return The result of the task
+	 */
+	private <T> T runDirectly(Callable<T> task) {
+		int[] depth = taskDepth.get();
+		depth[0]++;
+		try {
+			return task.call();
+		} catch (RuntimeException e) {
+			throw e;
+		} catch (Exception e) {
+			throw new RuntimeException(e);
+		} finally {
+			depth[0]--;
+		}
+	}
+
+	/**
+	 * This operation marks the executor as busy with a task of the calling
+	 * thread if the executor is idle.
+	 *
+	 * @return True if the calling thread may run its task directly
+	 */
+	private synchronized boolean claimIfIdle() {
+		if (active == null && tasks.isEmpty()) {
+			active = callerTask;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * This operation adds a task to the queue and starts it if nothing else is
+	 * running.
+	 *
+	 * @param task
+	 *            The task
+	 */
+	private synchronized void submit(final Runnable task) {
+		tasks.offer(new Runnable() {
+			@Override
+			public void run() {
+				int[] depth = taskDepth.get();
+				depth[0]++;
+				try {
+					task.run();
+				} finally {
+					depth[0]--;
+					scheduleNext();
+				}
+			}
+		});
+		if (active == null) {
+			scheduleNext();
+		}
+	}
+
+	/**
+	 * This operation hands the next task to the shared Executor.
+	 */
+	private synchronized void scheduleNext() {
+		active = tasks.poll();
+		if (active != null) {
+			executor.execute(active);
+		}
+	}
+}
@@ -217,20 +217,10 @@ public class ICEObject implements IUpdateable {
 
 		// Only process the update if there are listeners
 		if (listeners != null && !listeners.isEmpty()) {
-			// Create a thread on which to notify the listeners.
-			Thread notifierThread = new Thread() {
-				@Override
-				public void run() {
-					// Loop over all listeners and update them
-					for (int i = 0; i < listeners.size(); i++) {
-						listeners.get(i).update(ICEObject.this);
-					}
-					return;
-				}
-			};
-
-			// Launch the thread and do the notifications
-			notifierThread.start();
+			// Hand the notifications to the shared dispatcher instead of
+			// creating a thread for every update.
+			NotificationDispatcher.getDefault().notifyListeners(this,
+					listeners);
 		}
 
 		return;
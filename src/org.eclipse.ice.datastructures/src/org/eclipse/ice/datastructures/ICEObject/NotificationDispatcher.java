@@ -0,0 +1,497 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.ICEObject;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>
+ * The NotificationDispatcher delivers update notifications from IUpdateables
+ * to their IUpdateableListeners on a small, shared pool of daemon threads
+ * instead of creating a new Thread for every state change.
+ * </p>
+ * <p>
+ * Each listener is served by its own channel, so notifications are delivered
+ * to a given listener one at a time and in the order in which they were
+ * posted. Notifications that are posted for the same source while an earlier
+ * notification for that source is still waiting in the channel are coalesced
+ * into a single call to update(), which is safe because listeners always
+ * query the current state of the source. Channels wait for a short
+ * coalescing window before they are drained so that bursts of setter calls,
+ * like those made while loading a large tree, collapse into a few updates.
+ * </p>
+ * <p>
+ * The dispatcher keeps simple counters that can be used to monitor
+ * backpressure: the number of notifications that are waiting to be delivered,
+ * the number that have been delivered and coalesced, and the average and
+ * maximum latency between posting and delivery.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class NotificationDispatcher {
+
+	/**
+	 * The default coalescing window in milliseconds.
+	 */
+	public static final long DEFAULT_COALESCING_WINDOW = 5;
+
+	/**
+	 * The shared dispatcher used by ICEObject and its subclasses.
+	 */
+	private static final NotificationDispatcher defaultDispatcher = new NotificationDispatcher(
+			Math.max(2, Runtime.getRuntime().availableProcessors()),
+			DEFAULT_COALESCING_WINDOW);
+
+	/**
+	 * The executor that drains the listener channels. The number of threads
+	 * is fixed and at most one drain task per listener is ever queued, so the
+	 * work queue is bounded by the number of listeners.
+	 */
+	private final ScheduledThreadPoolExecutor executor;
+
+	/**
+	 * The time in milliseconds that a channel waits after its first pending
+	 * notification before it is drained.
+	 */
+	private final long coalescingWindow;
+
+	/**
+	 * The active channels, keyed by listener identity.
+	 */
+	private final Map<IUpdateableListener, ListenerChannel> channels;
+
+	/**
+	 * True if the dispatcher has been shut down and must drop new
+	 * notifications.
+	 */
+	private volatile boolean shutdown = false;
+
+	/**
+	 * The number of notifications that are waiting to be delivered.
+	 */
+	private final AtomicInteger queueDepth = new AtomicInteger();
+
+	/**
+	 * The total number of notifications that have been delivered.
+	 */
+	private final AtomicLong dispatchedCount = new AtomicLong();
+
+	/**
+	 * The total number of notifications that were merged into a notification
+	 * that was already pending.
+	 */
+	private final AtomicLong coalescedCount = new AtomicLong();
+
+	/**
+	 * The sum of the latencies of all delivered notifications in nanoseconds.
+	 */
+	private final AtomicLong totalLatency = new AtomicLong();
+
+	/**
+	 * The largest latency of a delivered notification in nanoseconds.
+	 */
+	private final AtomicLong maxLatency = new AtomicLong();
+
+	/**
+	 * The Constructor
+	 *
+	 * @param threads
+	 *            The number of threads used to deliver notifications. Must be
+	 *            at least one.
+	 * @param window
+	 *            The coalescing window in milliseconds. Values less than zero
+	 *            are treated as zero.
+	 */
+	public NotificationDispatcher(int threads, long window) {
+
+		// Create daemon threads so that the dispatcher never keeps the VM
+		// alive.
+		final AtomicInteger threadCount = new AtomicInteger();
+		ThreadFactory factory = new ThreadFactory() {
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "ICE Notifier "
+						+ threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		};
+
+		executor = new ScheduledThreadPoolExecutor(Math.max(1, threads),
+				factory);
+		coalescingWindow = Math.max(0, window);
+		channels = new IdentityHashMap<IUpdateableListener, ListenerChannel>();
+
+		return;
+	}
+
+	/**
+	 * This operation returns the shared dispatcher.
+	 *
+	 * @return The dispatcher shared by all ICEObjects.
+	 */
+	public static NotificationDispatcher getDefault() {
+		return defaultDispatcher;
+	}
+
+	/**
+	 * This operation shuts down the dispatcher and stops its threads.
+	 * Notifications that are waiting to be delivered are dropped and
+	 * notifications that are posted afterwards are ignored. Dispatchers other
+	 * than the default one should be shut down when they are no longer needed
+	 * so that their threads do not leak. The shared dispatcher is used by
+	 * every ICEObject, so calling this operation on it has no effect.
+	 */
+	public void shutdown() {
+
+		// Never stop the shared dispatcher
+		if (this == defaultDispatcher) {
+			return;
+		}
+
+		// Retire the channels so that no new drains are scheduled and stop
+		// the threads.
+		synchronized (channels) {
+			shutdown = true;
+			for (ListenerChannel channel : channels.values()) {
+				channel.discard();
+			}
+			channels.clear();
+		}
+		executor.shutdownNow();
+
+		return;
+	}
+
+	/**
+	 * This operation returns true if the dispatcher has been shut down.
+	 *
+	 * @return True if shutdown() was called, false otherwise.
+	 */
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * This operation posts a notification that the source has been updated to
+	 * each of the listeners. The listener list is copied before this operation
+	 * returns, so callers may continue to modify it.
+	 *
+	 * @param source
+	 *            The IUpdateable whose state changed.
+	 * @param listeners
+	 *            The listeners that should be notified.
+	 */
+	public void notifyListeners(IUpdateable source,
+			List<IUpdateableListener> listeners) {
+
+		// Only process the update if there is something to do
+		if (!shutdown && source != null && listeners != null
+				&& !listeners.isEmpty()) {
+			// Copy the listeners so that they can be modified while the
+			// notifications are posted.
+			IUpdateableListener[] targets = listeners
+					.toArray(new IUpdateableListener[listeners.size()]);
+			for (IUpdateableListener listener : targets) {
+				if (listener != null) {
+					post(source, listener);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation posts a single notification to the channel of the
+	 * listener, creating the channel if needed.
+	 *
+	 * @param source
+	 *            The IUpdateable whose state changed.
+	 * @param listener
+	 *            The listener that should be notified.
+	 */
+	private void post(IUpdateable source, IUpdateableListener listener) {
+
+		// Retry until the notification lands in a live channel. A channel is
+		// only retired when it is idle, so this rarely loops more than once.
+		boolean posted = false;
+		while (!posted) {
+			ListenerChannel channel;
+			synchronized (channels) {
+				// Drop the notification if the dispatcher was shut down
+				if (shutdown) {
+					return;
+				}
+				channel = channels.get(listener);
+				if (channel == null) {
+					channel = new ListenerChannel(listener);
+					channels.put(listener, channel);
+				}
+			}
+			posted = channel.post(source);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the number of notifications that are waiting to
+	 * be delivered.
+	 *
+	 * @return The current queue depth.
+	 */
+	public int getQueueDepth() {
+		return queueDepth.get();
+	}
+
+	/**
+	 * This operation returns the number of notifications that have been
+	 * delivered to listeners.
+	 *
+	 * @return The number of delivered notifications.
+	 */
+	public long getDispatchedCount() {
+		return dispatchedCount.get();
+	}
+
+	/**
+	 * This operation returns the number of notifications that were coalesced
+	 * into a notification that was already waiting to be delivered.
+	 *
+	 * @return The number of coalesced notifications.
+	 */
+	public long getCoalescedCount() {
+		return coalescedCount.get();
+	}
+
+	/**
+	 * This operation returns the average time between posting a notification
+	 * and delivering it.
+	 *
+	 * @return The average dispatch latency in milliseconds, or 0 if nothing
+	 *         has been delivered.
+	 */
+	public double getAverageLatency() {
+		long count = dispatchedCount.get();
+		return (count > 0) ? (totalLatency.get() / (double) count) / 1.0e6
+				: 0.0;
+	}
+
+	/**
+	 * This operation returns the longest time between posting a notification
+	 * and delivering it.
+	 *
+	 * @return The maximum dispatch latency in milliseconds.
+	 */
+	public double getMaxLatency() {
+		return maxLatency.get() / 1.0e6;
+	}
+
+	/**
+	 * This operation resets the dispatched and coalesced counters and the
+	 * latency statistics. The queue depth is not affected.
+	 */
+	public void resetStatistics() {
+		dispatchedCount.set(0);
+		coalescedCount.set(0);
+		totalLatency.set(0);
+		maxLatency.set(0);
+	}
+
+	/**
+	 * This operation records the latency of a single delivered notification.
+	 *
+	 * @param latency
+	 *            The latency in nanoseconds.
+	 */
+	private void recordLatency(long latency) {
+
+		dispatchedCount.incrementAndGet();
+		totalLatency.addAndGet(latency);
+		// Update the maximum without locking
+		long currentMax = maxLatency.get();
+		while (latency > currentMax
+				&& !maxLatency.compareAndSet(currentMax, latency)) {
+			currentMax = maxLatency.get();
+		}
+
+		return;
+	}
+
+	/**
+	 * A ListenerChannel holds the pending notifications for a single listener
+	 * and delivers them serially.
+	 *
+	 * @author Jay Jay Billings
+	 */
+	private class ListenerChannel implements Runnable {
+
+		/**
+		 * The listener served by this channel.
+		 */
+		private final IUpdateableListener listener;
+
+		/**
+		 * The sources with pending notifications in the order that they were
+		 * first posted, keyed by identity so that sources with custom
+		 * equals() operations are not merged with each other.
+		 */
+		private final ArrayList<IUpdateable> pendingSources = new ArrayList<IUpdateable>();
+
+		/**
+		 * The times, from System.nanoTime(), at which the pending sources were
+		 * posted.
+		 */
+		private final IdentityHashMap<IUpdateable, Long> postTimes = new IdentityHashMap<IUpdateable, Long>();
+
+		/**
+		 * True if a drain of this channel has been submitted to the executor
+		 * and has not finished.
+		 */
+		private boolean scheduled = false;
+
+		/**
+		 * True if this channel has been removed from the channel map and must
+		 * not accept new notifications.
+		 */
+		private boolean retired = false;
+
+		/**
+		 * The Constructor
+		 *
+		 * @param listener
+		 *            The listener served by the channel.
+		 */
+		public ListenerChannel(IUpdateableListener listener) {
+			this.listener = listener;
+		}
+
+		/**
+		 * This operation adds a notification for the source to the channel.
+		 *
+		 * @param source
+		 *            The updated IUpdateable.
+		 * @return True if the notification was accepted, false if the channel
+		 *         was retired and the caller must use a new one.
+		 */
+		public synchronized boolean post(IUpdateable source) {
+
+			if (retired) {
+				return false;
+			}
+			if (postTimes.containsKey(source)) {
+				// An update is already pending for this source, so merge them.
+				coalescedCount.incrementAndGet();
+			} else {
+				pendingSources.add(source);
+				postTimes.put(source, System.nanoTime());
+				queueDepth.incrementAndGet();
+			}
+			// Schedule a drain if one is not already running or waiting
+			if (!scheduled) {
+				scheduled = true;
+				try {
+					executor.schedule(this, coalescingWindow,
+							TimeUnit.MILLISECONDS);
+				} catch (RejectedExecutionException e) {
+					// The dispatcher was shut down while posting, so the
+					// notification is dropped.
+					discard();
+				}
+			}
+
+			return true;
+		}
+
+		/**
+		 * This operation drops the pending notifications and retires the
+		 * channel. It is called when the dispatcher is shut down.
+		 */
+		public synchronized void discard() {
+			queueDepth.addAndGet(-pendingSources.size());
+			pendingSources.clear();
+			postTimes.clear();
+			retired = true;
+		}
+
+		/**
+		 * This operation drains the pending notifications and delivers them to
+		 * the listener.
+		 */
+		@Override
+		public void run() {
+
+			// Local Declarations
+			ArrayList<IUpdateable> sources;
+			long[] times;
+
+			// Grab the current batch. If there is nothing left, retire the
+			// channel so that idle listeners do not leak.
+			synchronized (channels) {
+				synchronized (this) {
+					if (pendingSources.isEmpty()) {
+						scheduled = false;
+						retired = true;
+						channels.remove(listener);
+						return;
+					}
+					sources = new ArrayList<IUpdateable>(pendingSources);
+					times = new long[sources.size()];
+					for (int i = 0; i < times.length; i++) {
+						times[i] = postTimes.get(sources.get(i));
+					}
+					pendingSources.clear();
+					postTimes.clear();
+					queueDepth.addAndGet(-times.length);
+				}
+			}
+
+			// Deliver the batch in order. Errors are caught too so that one
+			// failing update does not drop the rest of the batch or leave the
+			// channel marked as scheduled with no drain pending.
+			for (int i = 0; i < sources.size() && !shutdown; i++) {
+				recordLatency(System.nanoTime() - times[i]);
+				try {
+					listener.update(sources.get(i));
+				} catch (Throwable e) {
+					// Complain, but keep notifying the others
+					System.err.println("NotificationDispatcher Message: "
+							+ "Listener threw an exception during update.");
+					e.printStackTrace();
+				}
+			}
+
+			// Give other channels a chance to run before checking this one
+			// again.
+			try {
+				executor.execute(this);
+			} catch (RejectedExecutionException e) {
+				// The dispatcher was shut down, so there is nothing to do.
+				discard();
+			}
+
+			return;
+		}
+	}
+}
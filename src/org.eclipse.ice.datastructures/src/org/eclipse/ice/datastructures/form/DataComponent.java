@@ -20,6 +20,10 @@ import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.io.IOException;
 import java.io.InputStream;
 
@@ -34,6 +38,16 @@ import javax.xml.bind.annotation.XmlRootElement;
  * Entries that are related to each other in some way and to accept updates from
  * dispatched from the Registry.
  * </p>
+ * <p>
+ * The DataComponent keeps an index of its Entries by name and the set of
+ * Entries that are ready so that retrieveEntry(), contains() and
+ * retrieveReadyEntries() do not need to search the whole list. The Entries
+ * tell the DataComponent directly when their names or readiness change. The
+ * list of Entries updates the index as soon as it is modified, including
+ * modifications made through retrieveAllEntries(), so looking Entries up
+ * never changes the DataComponent and can be done from several threads while
+ * it is not being modified.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -45,6 +59,47 @@ public class DataComponent extends ICEObject implements Component,
 	@XmlElement(name = "Entry")
 	private ArrayList<Entry> entries;
 
+	/**
+	 * <p>
+	 * The first Entry with each name.
+	 * </p>
+	 * 
+	 */
+	private HashMap<String, Entry> nameIndex;
+
+	/**
+	 * <p>
+	 * The position of each Entry in the list of Entries.
+	 * </p>
+	 * 
+	 */
+	private IdentityHashMap<Entry, Integer> positionIndex;
+
+	/**
+	 * <p>
+	 * The name of each Entry when it was indexed, by position.
+	 * </p>
+	 * 
+	 */
+	private ArrayList<String> indexedNames;
+
+	/**
+	 * <p>
+	 * The positions of the Entries that are ready.
+	 * </p>
+	 * 
+	 */
+	private BitSet readyEntries;
+
+	/**
+	 * <p>
+	 * True if an Entry is in the list of Entries more than once, in which case
+	 * any change to an Entry requires the index to be rebuilt.
+	 * </p>
+	 * 
+	 */
+	private boolean hasDuplicates;
+
 	/**
 	 * <p>
 	 * The Constructor
@@ -53,8 +108,9 @@ public class DataComponent extends ICEObject implements Component,
 	 */
 	public DataComponent() {
 
-		// Setup the list of Entries
-		entries = new ArrayList<Entry>();
+		// Setup the list of Entries and its index
+		entries = new EntryList(this);
+		rebuildIndex();
 
 	}
 
@@ -75,6 +131,7 @@ public class DataComponent extends ICEObject implements Component,
 			entries.add(newEntry);
 			// Register the data component as a listener of the Entry
 			newEntry.register(this);
+			newEntry.addContainer(this);
 			// Notify the listeners that the component has changed
 			notifyListeners();
 		}
@@ -114,6 +171,9 @@ public class DataComponent extends ICEObject implements Component,
 
 		// Clear the list of Entries if it is not already empty
 		if (!entries.isEmpty()) {
+			for (Entry entry : entries) {
+				entry.removeContainer(this);
+			}
 			entries.clear();
 			notifyListeners();
 		}
@@ -140,11 +200,14 @@ public class DataComponent extends ICEObject implements Component,
 
 		// Make sure the entryName is not null
 		if (entryName != null) {
-			// Find and delete the Entry or Entries with this name. A linear
-			// search is OK since the list should be small
-			for (i = 0; i < entries.size(); i++) {
-				if (entries.get(i).getName().equals(entryName)) {
-					entries.remove(i);
+			// Find and delete the Entry or Entries with this name. The list is
+			// searched backwards so that neighboring Entries with the same
+			// name are not skipped.
+			if (contains(entryName)) {
+				for (i = entries.size() - 1; i >= 0; i--) {
+					if (entries.get(i).getName().equals(entryName)) {
+						entries.remove(i).removeContainer(this);
+					}
 				}
 			}
 
@@ -170,13 +233,8 @@ public class DataComponent extends ICEObject implements Component,
 	 */
 	public Entry retrieveEntry(String entryName) {
 
-		for (Entry j : entries) {
-			if (j.getName().equals(entryName)) {
-				return j;
-			}
-		}
-
-		return null;
+		// Look the Entry up in the index
+		return nameIndex.get(entryName);
 	}
 
 	/**
@@ -196,12 +254,13 @@ public class DataComponent extends ICEObject implements Component,
 	public ArrayList<Entry> retrieveReadyEntries() {
 
 		// Local Declarations
-		ArrayList<Entry> readyEntryList = new ArrayList<Entry>();
+		ArrayList<Entry> readyEntryList;
 
-		for (Entry i : entries) {
-			if (i.isReady()) {
-				readyEntryList.add(i);
-			}
+		// Collect the ready Entries in the order of the list
+		readyEntryList = new ArrayList<Entry>(readyEntries.cardinality());
+		for (int i = readyEntries.nextSetBit(0); i >= 0; i = readyEntries
+				.nextSetBit(i + 1)) {
+			readyEntryList.add(entries.get(i));
 		}
 
 		return readyEntryList;
@@ -240,13 +299,116 @@ public class DataComponent extends ICEObject implements Component,
 	 */
 	public boolean contains(String entryName) {
 
-		for (Entry i : entries) {
-			if (i.getName().equals(entryName)) {
-				return true;
-			}
+		// Check the index
+		return nameIndex.containsKey(entryName);
+	}
+
+	/**
+	 * <p>
+	 * This operation rebuilds the name index and the set of ready Entries from
+	 * the list of Entries. It is called by the list whenever it is modified.
+	 * </p>
+	 * 
+	 */
+	private void rebuildIndex() {
+
+		// Local Declarations
+		int size = entries.size();
+
+		// Index every Entry
+		nameIndex = new HashMap<String, Entry>(2 * size);
+		positionIndex = new IdentityHashMap<Entry, Integer>(size);
+		indexedNames = new ArrayList<String>(size);
+		readyEntries = new BitSet(size);
+		hasDuplicates = false;
+		for (int i = 0; i < size; i++) {
+			indexEntry(entries.get(i), i);
 		}
 
-		return false;
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds the Entry at the end of the list of Entries to the
+	 * name index and the set of ready Entries. It is called by the list when
+	 * an Entry is appended.
+	 * </p>
+	 * 
+	 */
+	private void indexLastEntry() {
+		indexEntry(entries.get(entries.size() - 1), entries.size() - 1);
+	}
+
+	/**
+	 * <p>
+	 * This operation adds an Entry to the name index and the set of ready
+	 * Entries. The Entries before it must already be indexed.
+	 * </p>
+	 * 
+	 * @param entry
+	 *            <p>
+	 *            The Entry.
+	 *            </p>
+	 * @param position
+	 *            <p>
+	 *            The position of the Entry in the list of Entries.
+	 *            </p>
+	 */
+	private void indexEntry(Entry entry, int position) {
+
+		// Local Declarations
+		String name = entry.getName();
+
+		// Only the first Entry with a name is indexed
+		if (!nameIndex.containsKey(name)) {
+			nameIndex.put(name, entry);
+		}
+		if (positionIndex.put(entry, position) != null) {
+			hasDuplicates = true;
+		}
+		indexedNames.add(name);
+		if (entry.isReady()) {
+			readyEntries.set(position);
+		}
+		// Make sure the Entry will report changes
+		entry.addContainer(this);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by an Entry of this DataComponent when its name
+	 * or readiness may have changed. It updates the set of ready Entries or
+	 * rebuilds the index if the name changed.
+	 * </p>
+	 * 
+	 * @param entry
+	 *            <p>
+	 *            The Entry that changed.
+	 *            </p>
+	 */
+	void entryChanged(Entry entry) {
+
+		// Local Declarations
+		Integer position = positionIndex.get(entry);
+		String name = entry.getName();
+
+		if (position == null) {
+			// The Entry was removed from this component
+			return;
+		} else if (hasDuplicates
+				|| (name == null ? indexedNames.get(position) != null : !name
+						.equals(indexedNames.get(position)))) {
+			// Entries with the same name may now be in a different order
+			rebuildIndex();
+		} else {
+			// Update the readiness
+			readyEntries.set(position, entry.isReady());
+		}
+
+		return;
 	}
 
 	/**
@@ -381,6 +543,9 @@ public class DataComponent extends ICEObject implements Component,
 
 		for (Entry i : entries) {
 			i.update(updatedKey, newValue);
+			// Subclasses of Entry may change their readiness without telling
+			// the DataComponent, so check it here.
+			entryChanged(i);
 		}
 
 		return;
@@ -410,4 +575,117 @@ public class DataComponent extends ICEObject implements Component,
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>
+	 * This is the list of Entries. It tells the DataComponent that owns it to
+	 * update its index whenever Entries are added, removed or replaced.
+	 * Appending an Entry only indexes that Entry. Every other modification
+	 * rebuilds the whole index. The modifications made through its iterators
+	 * and sublists go through these operations too, except for replacing an
+	 * Entry with set() on a sublist.
+	 * </p>
+	 * 
+	 */
+	private static class EntryList extends ArrayList<Entry> {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The DataComponent that owns the list
+		 */
+		private final transient DataComponent owner;
+
+		/**
+		 * <p>
+		 * The Constructor
+		 * </p>
+		 * 
+		 * @param owner
+		 *            <p>
+		 *            The DataComponent that owns the list.
+		 *            </p>
+		 */
+		private EntryList(DataComponent owner) {
+			super();
+			this.owner = owner;
+		}
+
+		@Override
+		public boolean add(Entry element) {
+			super.add(element);
+			owner.indexLastEntry();
+			return true;
+		}
+
+		@Override
+		public void add(int index, Entry element) {
+			super.add(index, element);
+			owner.rebuildIndex();
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends Entry> c) {
+			boolean changed = super.addAll(c);
+			owner.rebuildIndex();
+			return changed;
+		}
+
+		@Override
+		public boolean addAll(int index, Collection<? extends Entry> c) {
+			boolean changed = super.addAll(index, c);
+			owner.rebuildIndex();
+			return changed;
+		}
+
+		@Override
+		public Entry set(int index, Entry element) {
+			Entry oldElement = super.set(index, element);
+			owner.rebuildIndex();
+			return oldElement;
+		}
+
+		@Override
+		public Entry remove(int index) {
+			Entry oldElement = super.remove(index);
+			owner.rebuildIndex();
+			return oldElement;
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			boolean changed = super.remove(o);
+			owner.rebuildIndex();
+			return changed;
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> c) {
+			boolean changed = super.removeAll(c);
+			owner.rebuildIndex();
+			return changed;
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> c) {
+			boolean changed = super.retainAll(c);
+			owner.rebuildIndex();
+			return changed;
+		}
+
+		@Override
+		public void clear() {
+			super.clear();
+			owner.rebuildIndex();
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			super.removeRange(fromIndex, toIndex);
+			owner.rebuildIndex();
+		}
+	}
+
+}
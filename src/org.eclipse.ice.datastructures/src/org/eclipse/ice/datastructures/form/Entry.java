@@ -224,6 +224,14 @@ public class Entry extends ICEObject implements IUpdateable {
 	 */
 	protected boolean required = false;
 
+	/**
+	 * The DataComponents that contain this Entry. They are told directly, and
+	 * not through the listener notifications, when the name or readiness of
+	 * the Entry changes so that they can keep their indices up to date.
+	 */
+	@XmlTransient
+	private ArrayList<DataComponent> containers;
+
 	/**
 	 * A constructor that will create an Entry with only a unique ID and a name.
 	 * Default values are set:
@@ -611,7 +619,84 @@ public class Entry extends ICEObject implements IUpdateable {
 	 *            set.
 	 */
 	public void setReady(boolean isReady) {
+
+		// Local Declarations
+		boolean changed = (this.ready != isReady);
+
 		this.ready = isReady;
+		if (changed) {
+			notifyContainers();
+		}
+		return;
+	}
+
+	/**
+	 * This operation overrides ICEObject.setName() to tell the DataComponents
+	 * that contain the Entry about the new name.
+	 * 
+	 * @param name
+	 *            The new name of the Entry.
+	 */
+	@Override
+	public void setName(String name) {
+		super.setName(name);
+		if (name != null) {
+			notifyContainers();
+		}
+	}
+
+	/**
+	 * This operation registers a DataComponent that contains this Entry so
+	 * that it is told when the name or readiness of the Entry changes.
+	 * 
+	 * @param container
+	 *            The DataComponent.
+	 */
+	void addContainer(DataComponent container) {
+
+		// Create the list of containers if needed
+		if (containers == null) {
+			containers = new ArrayList<DataComponent>();
+		}
+
+		// Add the container if it is not already there
+		for (DataComponent other : containers) {
+			if (other == container) {
+				return;
+			}
+		}
+		containers.add(container);
+
+		return;
+	}
+
+	/**
+	 * This operation unregisters a DataComponent that contained this Entry.
+	 * 
+	 * @param container
+	 *            The DataComponent.
+	 */
+	void removeContainer(DataComponent container) {
+		if (containers != null) {
+			for (int i = containers.size() - 1; i >= 0; i--) {
+				if (containers.get(i) == container) {
+					containers.remove(i);
+				}
+			}
+		}
+		return;
+	}
+
+	/**
+	 * This operation tells the DataComponents that contain this Entry that its
+	 * name or readiness may have changed.
+	 */
+	private void notifyContainers() {
+		if (containers != null) {
+			for (int i = 0; i < containers.size(); i++) {
+				containers.get(i).entryChanged(this);
+			}
+		}
 		return;
 	}
 
@@ -623,6 +708,7 @@ public class Entry extends ICEObject implements IUpdateable {
 		// Local Declarations
 		ArrayList<String> readyEquivalentValues = new ArrayList<String>();
 		ArrayList<String> notReadyEquivalentValues = new ArrayList<String>();
+		boolean wasReady = this.ready;
 
 		// The update should only be processed if the values are not null
 		if (updatedKey != null && newValue != null) {
@@ -659,6 +745,11 @@ public class Entry extends ICEObject implements IUpdateable {
 
 		}
 
+		// Tell the containers if the readiness changed
+		if (wasReady != this.ready) {
+			notifyContainers();
+		}
+
 		return;
 	}
 
@@ -800,6 +891,7 @@ public class Entry extends ICEObject implements IUpdateable {
 		}
 
 		// Notify all of the people watching this Entry
+		notifyContainers();
 		notifyListeners();
 
 		return;
@@ -13,7 +13,9 @@
 package org.eclipse.ice.datastructures.form;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
@@ -39,6 +41,13 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
  * an element of a desired set of elements, or the matrix elements must exist
  * within a given range of values.
  * </p>
+ * <p>
+ * The elements are stored in a primitive array in row-major order. Each row
+ * has room for more columns than are in use, and the array has room for more
+ * rows than are in use, so adding rows and columns only copies the elements
+ * when the array must grow. The setRow(), setColumn() and setBlock()
+ * operations set many elements at once and notify the listeners only once.
+ * </p>
  * 
  * @author Jay Jay Billings
  */
@@ -56,13 +65,33 @@ public class MatrixComponent extends ICEObject implements Component {
 
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix as they are read by JAXB. This is
+	 * a list of n*m double values in row-major order for a given matrix of size
+	 * nxm. It is only used while the matrix is unmarshalled and is null
+	 * otherwise. Writing the matrix never touches it, so that many threads can
+	 * marshal the same matrix at once.
 	 * </p>
 	 * 
 	 */
-	@XmlElement
 	private ArrayList<Double> elements;
+
+	/**
+	 * <p>
+	 * The individual elements of this matrix in row-major order. The element
+	 * at row i and column j is stored at i*rowStride + j.
+	 * </p>
+	 * 
+	 */
+	private double[] values;
+
+	/**
+	 * <p>
+	 * The number of columns that each row of the values array has room for.
+	 * It is never less than the number of columns in the matrix.
+	 * </p>
+	 * 
+	 */
+	private int rowStride;
 	/**
 	 * <p>
 	 * Reference to the current number of rows in this matrix.
@@ -185,10 +214,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = allowedValueType;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
-		this.nCols = 1;
-		this.nRows = 1;
+		this.reset(0.0);
 
 		this.listeners = new ArrayList<IUpdateableListener>();
 	}
@@ -226,23 +252,19 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If there is only 1 element in the list and its not default, delete
+		// If there is only 1 element in the matrix and its not default, delete
 		// the whole entity and reset
-		if (elements.size() == 1 && elements.get(0) != defaultValue) {
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (nRows * nCols == 1 && values[0] != defaultValue) {
+			this.reset(defaultValue);
 			return true; // Return
-		} else if (elements.size() == 1 && elements.get(0) == defaultValue) {
+		} else if (nRows * nCols == 1 && values[0] == defaultValue) {
 			return false; // Nothing to delete, return
 		}
 
 		// If there is only one row, delete whole row, reset to 1x1 matrix, and
 		// return true
-		if (elements.size() == this.nCols) {
-			this.nCols = 1;
-			this.nRows = 1;
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (this.nRows == 1) {
+			this.reset(defaultValue);
 			return true; // Return
 		}
 
@@ -318,14 +340,9 @@ public class MatrixComponent extends ICEObject implements Component {
 						.get(i));
 			}
 		}
-		if (otherMatrixComponent.elements == null) {
-			this.elements = otherMatrixComponent.elements;
-		} else {
-			this.elements = new ArrayList<Double>();
-			for (int i = 0; i < otherMatrixComponent.elements.size(); i++) {
-				this.elements.add(otherMatrixComponent.elements.get(i));
-			}
-		}
+		this.values = Arrays.copyOf(otherMatrixComponent.values,
+				otherMatrixComponent.values.length);
+		this.rowStride = otherMatrixComponent.rowStride;
 
 		// get other attributes
 		this.isSquare = otherMatrixComponent.isSquare;
@@ -395,10 +412,19 @@ public class MatrixComponent extends ICEObject implements Component {
 		retVal = (this.isSquare == castedComponent.isSquare)
 				&& (this.resizable == castedComponent.resizable)
 				&& (this.allowedValues.equals(castedComponent.allowedValues))
-				&& (this.elements.equals(castedComponent.elements))
 				&& (this.nCols == castedComponent.nCols)
 				&& (this.nRows == castedComponent.nRows)
 				&& (this.valueType == castedComponent.valueType);
+
+		// Check the elements. They are compared like Doubles.
+		for (int i = 0; retVal && i < nRows; i++) {
+			for (int j = 0; retVal && j < nCols; j++) {
+				retVal = Double.doubleToLongBits(values[i * rowStride + j]) == Double
+						.doubleToLongBits(castedComponent.values[i
+								* castedComponent.rowStride + j]);
+			}
+		}
+
 		return retVal;
 
 	}
@@ -432,10 +458,15 @@ public class MatrixComponent extends ICEObject implements Component {
 			hash = 31 * hash + this.allowedValues.hashCode();
 		}
 
-		// if elements are not null
-		if (this.elements != null) {
-			hash = 31 * hash + this.elements.hashCode();
+		// Elements, hashed like a list of Doubles
+		int elementHash = 1;
+		for (int i = 0; i < nRows; i++) {
+			for (int j = 0; j < nCols; j++) {
+				long bits = Double.doubleToLongBits(values[i * rowStride + j]);
+				elementHash = 31 * elementHash + (int) (bits ^ (bits >>> 32));
+			}
 		}
+		hash = 31 * hash + elementHash;
 
 		// Value type
 		hash = 31 * hash + this.valueType.hashCode();
@@ -526,23 +557,19 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If there is only 1 element in the list and its not default, delete
+		// If there is only 1 element in the matrix and its not default, delete
 		// the whole entity and reset
-		if (elements.size() == 1 && elements.get(0) != defaultValue) {
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (nRows * nCols == 1 && values[0] != defaultValue) {
+			this.reset(defaultValue);
 			return true; // Return
-		} else if (elements.size() == 1 && elements.get(0) == defaultValue) {
+		} else if (nRows * nCols == 1 && values[0] == defaultValue) {
 			return false; // Nothing to delete, return
 		}
 
 		// If there is only one col, delete whole col, reset to 1x1 matrix, and
 		// return true
-		if (elements.size() == this.nRows) {
-			this.nCols = 1;
-			this.nRows = 1;
-			this.elements = new ArrayList<Double>();
-			this.elements.add(defaultValue);
+		if (this.nCols == 1) {
+			this.reset(defaultValue);
 			return true; // Return
 		}
 
@@ -608,17 +635,11 @@ public class MatrixComponent extends ICEObject implements Component {
 		}
 
 		// check value to see if valid
-		if (this.valueType == AllowedValueType.Continuous) {
-			if (value < this.allowedValues.get(0)
-					|| value > this.allowedValues.get(1)) {
-				return false;
-			}
-		} else if (this.valueType == AllowedValueType.Discrete
-				&& !this.allowedValues.contains(value)) {
+		if (!isAllowed(value)) {
 			return false;
 		}
 
-		elements.set(nCols * rowIndex + colIndex, value);
+		values[rowStride * rowIndex + colIndex] = value;
 
 		// notify listeners
 		this.notifyListeners();
@@ -663,8 +684,153 @@ public class MatrixComponent extends ICEObject implements Component {
 			return null;
 		}
 
-		return this.elements.get(nCols * rowIndex + colIndex);
+		return this.values[rowStride * rowIndex + colIndex];
+
+	}
+
+	/**
+	 * <p>
+	 * Set the values of a whole row of the matrix and notify the listeners
+	 * once. The number of values must match the number of columns and every
+	 * value must be allowed, otherwise the matrix is not changed and false is
+	 * returned.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 *            <p>
+	 *            The row index.
+	 *            </p>
+	 * @param rowValues
+	 *            <p>
+	 *            The values of the row.
+	 *            </p>
+	 * @return <p>
+	 *         Returns true if operation was successful. False otherwise.
+	 *         </p>
+	 */
+	public boolean setRow(int rowIndex, double[] rowValues) {
+
+		// Return if the row is not valid
+		if (rowValues == null || rowValues.length != this.nCols) {
+			return false;
+		}
+
+		return setBlock(rowIndex, 0, new double[][] { rowValues });
+	}
+
+	/**
+	 * <p>
+	 * Set the values of a whole column of the matrix and notify the listeners
+	 * once. The number of values must match the number of rows and every
+	 * value must be allowed, otherwise the matrix is not changed and false is
+	 * returned.
+	 * </p>
+	 * 
+	 * @param colIndex
+	 *            <p>
+	 *            The column index.
+	 *            </p>
+	 * @param colValues
+	 *            <p>
+	 *            The values of the column.
+	 *            </p>
+	 * @return <p>
+	 *         Returns true if operation was successful. False otherwise.
+	 *         </p>
+	 */
+	public boolean setColumn(int colIndex, double[] colValues) {
+
+		// Local Declarations
+		double[][] block;
+
+		// Return if the column is not valid
+		if (colValues == null || colValues.length != this.nRows) {
+			return false;
+		}
+
+		// Set the column as a block with one column
+		block = new double[colValues.length][1];
+		for (int i = 0; i < colValues.length; i++) {
+			block[i][0] = colValues[i];
+		}
 
+		return setBlock(0, colIndex, block);
+	}
+
+	/**
+	 * <p>
+	 * Set the values of a rectangular block of the matrix and notify the
+	 * listeners once. The block starts at the given row and column and
+	 * blockValues[i][j] is stored at rowIndex + i, colIndex + j. Every row of
+	 * the block must have the same length, the block must fit in the matrix
+	 * and every value must be allowed, otherwise the matrix is not changed and
+	 * false is returned.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 *            <p>
+	 *            The row index of the first row of the block.
+	 *            </p>
+	 * @param colIndex
+	 *            <p>
+	 *            The column index of the first column of the block.
+	 *            </p>
+	 * @param blockValues
+	 *            <p>
+	 *            The values of the block by row.
+	 *            </p>
+	 * @return <p>
+	 *         Returns true if operation was successful. False otherwise.
+	 *         </p>
+	 */
+	public boolean setBlock(int rowIndex, int colIndex, double[][] blockValues) {
+
+		// Local Declarations
+		int numRows, numCols;
+
+		// Return if the block is null or empty
+		if (blockValues == null || blockValues.length == 0
+				|| blockValues[0] == null || blockValues[0].length == 0) {
+			return false;
+		}
+		numRows = blockValues.length;
+		numCols = blockValues[0].length;
+
+		// Return if negative or out of range
+		if (rowIndex < 0 || colIndex < 0 || rowIndex + numRows > this.nRows
+				|| colIndex + numCols > this.nCols) {
+			return false;
+		}
+
+		// Return if Continuous or Discrete and valueType not set
+		if ((this.valueType == AllowedValueType.Continuous && this.allowedValues == null)
+				|| (this.valueType == AllowedValueType.Discrete && this.allowedValues == null)) {
+			return false;
+		}
+
+		// Check the shape of the block and every value before changing
+		// anything
+		for (double[] row : blockValues) {
+			if (row == null || row.length != numCols) {
+				return false;
+			}
+			for (double value : row) {
+				if (!isAllowed(value)) {
+					return false;
+				}
+			}
+		}
+
+		// Copy the block
+		for (int i = 0; i < numRows; i++) {
+			System.arraycopy(blockValues[i], 0, this.values, (rowIndex + i)
+					* this.rowStride + colIndex, numCols);
+		}
+
+		// notify listeners
+		this.notifyListeners();
+
+		return true;
 	}
 
 	/**
@@ -704,11 +870,11 @@ public class MatrixComponent extends ICEObject implements Component {
 		// This should not happen, but this is a safety feature. Values can only
 		// be set IFF there is
 		// only a fresh matrix
-		if (this.elements.size() > 1 || this.elements.isEmpty()) {
+		if (this.nRows * this.nCols > 1) {
 			return;
 		}
 
-		elements.set(0, values.get(0));
+		this.values[0] = values.get(0);
 
 		// Set values - Do a copy
 		this.allowedValues = new ArrayList<Double>();
@@ -732,10 +898,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = AllowedValueType.Undefined;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
-		this.nCols = 1;
-		this.nRows = 1;
+		this.reset(0.0);
 
 		this.listeners = new ArrayList<IUpdateableListener>();
 	}
@@ -756,10 +919,7 @@ public class MatrixComponent extends ICEObject implements Component {
 		this.valueType = AllowedValueType.Undefined;
 
 		// Setup a 1x1 matrix.
-		this.elements = new ArrayList<Double>();
-		elements.add(0.0);
-		this.nCols = 1;
-		this.nRows = 1;
+		this.reset(0.0);
 
 		this.listeners = new ArrayList<IUpdateableListener>();
 	}
@@ -789,12 +949,12 @@ public class MatrixComponent extends ICEObject implements Component {
 		// create a new double array
 		rowArray = new ArrayList<Double>();
 
-		// Figure out where in the elements list the item is
-		placeInElements = this.nCols * index;
+		// Figure out where in the elements the row is
+		placeInElements = this.rowStride * index;
 
 		// copy contents of row
-		for (int i = placeInElements; i < this.nCols * (index + 1); i++) {
-			rowArray.add(this.elements.get(i));
+		for (int i = placeInElements; i < placeInElements + this.nCols; i++) {
+			rowArray.add(this.values[i]);
 		}
 
 		// return array
@@ -827,12 +987,12 @@ public class MatrixComponent extends ICEObject implements Component {
 		// create a new double array
 		colArray = new ArrayList<Double>();
 
-		// Figure out where in the elements list the item is
-		placeInElements = this.nRows * index;
+		// Figure out where in the elements the column starts
+		placeInElements = index;
 
-		// copy contents of row
-		for (int i = placeInElements; i < this.nRows * (index + 1); i++) {
-			colArray.add(this.elements.get(i));
+		// copy contents of column
+		for (int i = 0; i < this.nRows; i++) {
+			colArray.add(this.values[placeInElements + i * this.rowStride]);
 		}
 
 		// return array
@@ -863,21 +1023,18 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If true, add to the arraylist
+		// If true, add to the array
 		if (addOrRemove) {
 
-			// Add for the number of columns
-			for (i = 0; i < this.nCols; i++) {
-				this.elements.add(defaultValue);
-			}
+			// Make room for the row if needed
+			ensureRowCapacity(this.nRows + 1);
+			// Fill it for the number of columns
+			i = this.nRows * this.rowStride;
+			Arrays.fill(this.values, i, i + this.nCols, defaultValue);
 			// Add to the row
 			this.nRows += 1;
 		} else {
-			// Remove for the number of columns
-			for (i = 0; i < this.nCols; i++) {
-				this.elements.remove(this.elements.size() - 1);
-			}
-			// Remove a row
+			// Remove a row. The space is kept for the next new row.
 			this.nRows -= 1;
 		}
 
@@ -906,21 +1063,21 @@ public class MatrixComponent extends ICEObject implements Component {
 			defaultValue = this.allowedValues.get(0);
 		}
 
-		// If true, add to the arraylist
+		// If true, add to the array
 		if (addOrRemove) {
 
-			// Add for the number of rows
+			// Make room for the column if needed
+			if (this.nCols == this.rowStride) {
+				setRowStride(this.rowStride + (this.rowStride >> 1) + 1);
+			}
+			// Fill it for the number of rows
 			for (i = 0; i < this.nRows; i++) {
-				this.elements.add(((i + 1) * this.nCols) + i, defaultValue);
+				this.values[i * this.rowStride + this.nCols] = defaultValue;
 			}
 			// Add to the cols
 			this.nCols += 1;
 		} else {
-			// Remove for the number of rows
-			for (i = 0; i < this.nRows; i++) {
-				this.elements.remove(((i + 1) * this.nCols) - i - 1);
-			}
-			// Remove a Column
+			// Remove a Column. The space is kept for the next new column.
 			this.nCols -= 1;
 		}
 
@@ -952,6 +1109,208 @@ public class MatrixComponent extends ICEObject implements Component {
 
 	}
 
+	/**
+	 * <p>
+	 * Private operation to check a value against the allowed values of the
+	 * matrix. The allowed values must be set if the type is not undefined.
+	 * </p>
+	 * 
+	 * @param value
+	 *            <p>
+	 *            The value to check.
+	 *            </p>
+	 * @return <p>
+	 *         True if the value is allowed, false otherwise.
+	 *         </p>
+	 */
+	private boolean isAllowed(double value) {
+
+		if (this.valueType == AllowedValueType.Continuous) {
+			return value >= this.allowedValues.get(0)
+					&& value <= this.allowedValues.get(1);
+		} else if (this.valueType == AllowedValueType.Discrete) {
+			return this.allowedValues.contains(value);
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Private operation to reset the matrix to a 1x1 matrix with the given
+	 * value.
+	 * </p>
+	 * 
+	 * @param defaultValue
+	 *            <p>
+	 *            The value of the only element.
+	 *            </p>
+	 */
+	private void reset(double defaultValue) {
+		this.values = new double[] { defaultValue };
+		this.rowStride = 1;
+		this.nCols = 1;
+		this.nRows = 1;
+	}
+
+	/**
+	 * <p>
+	 * Private operation to make sure the array of elements has room for the
+	 * given number of rows. It grows by half of its size at a time so that
+	 * adding rows one by one does not copy the elements every time.
+	 * </p>
+	 * 
+	 * @param numRows
+	 *            <p>
+	 *            The number of rows that must fit.
+	 *            </p>
+	 */
+	private void ensureRowCapacity(int numRows) {
+
+		// Local Declarations
+		int rowCapacity = this.values.length / this.rowStride;
+
+		if (numRows > rowCapacity) {
+			rowCapacity = Math.max(numRows, rowCapacity + (rowCapacity >> 1)
+					+ 1);
+			this.values = Arrays.copyOf(this.values, rowCapacity
+					* this.rowStride);
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Private operation to change the number of columns that each row of the
+	 * array of elements has room for. The rows in use are copied to their new
+	 * positions and the number of rows the array has room for is kept.
+	 * </p>
+	 * 
+	 * @param newRowStride
+	 *            <p>
+	 *            The new row stride. It must not be less than the number of
+	 *            columns.
+	 *            </p>
+	 */
+	private void setRowStride(int newRowStride) {
+
+		// Local Declarations
+		int rowCapacity = this.values.length / this.rowStride;
+		double[] newValues = new double[rowCapacity * newRowStride];
+
+		// Copy the rows
+		for (int i = 0; i < this.nRows; i++) {
+			System.arraycopy(this.values, i * this.rowStride, newValues, i
+					* newRowStride, this.nCols);
+		}
+		this.values = newValues;
+		this.rowStride = newRowStride;
+
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the elements of the matrix as they are persisted.
+	 * When the matrix is written, it returns a new list in row-major order for
+	 * the caller alone. While the matrix is read, it returns the list that
+	 * JAXB fills.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The list of n*m elements.
+	 *         </p>
+	 */
+	@XmlElement(name = "elements")
+	private ArrayList<Double> getElements() {
+
+		// Return the list that is being read, if any
+		if (this.elements != null) {
+			return this.elements;
+		}
+
+		// Otherwise copy the elements
+		ArrayList<Double> list = new ArrayList<Double>(this.nRows * this.nCols);
+		for (int i = 0; i < this.nRows; i++) {
+			for (int j = 0; j < this.nCols; j++) {
+				list.add(this.values[i * this.rowStride + j]);
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * <p>
+	 * This operation sets the list of elements that is being read by JAXB.
+	 * </p>
+	 * 
+	 * @param elements
+	 *            <p>
+	 *            The list of elements.
+	 *            </p>
+	 */
+	private void setElements(ArrayList<Double> elements) {
+		this.elements = elements;
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB before the matrix is read. It creates
+	 * the list that JAXB fills with the persisted elements.
+	 * </p>
+	 * 
+	 * @param unmarshaller
+	 *            <p>
+	 *            The unmarshaller that is reading the matrix.
+	 *            </p>
+	 * @param parent
+	 *            <p>
+	 *            The parent of the matrix in the XML document, if any.
+	 *            </p>
+	 */
+	private void beforeUnmarshal(Unmarshaller unmarshaller, Object parent) {
+		this.elements = new ArrayList<Double>();
+	}
+
+	/**
+	 * <p>
+	 * This operation is called by JAXB after the matrix is read. It copies
+	 * the persisted list of elements into the array of elements. Missing
+	 * elements are set to zero.
+	 * </p>
+	 * 
+	 * @param unmarshaller
+	 *            <p>
+	 *            The unmarshaller that read the matrix.
+	 *            </p>
+	 * @param parent
+	 *            <p>
+	 *            The parent of the matrix in the XML document, if any.
+	 *            </p>
+	 */
+	private void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+
+		// Local Declarations
+		int size;
+
+		// Make sure the size is sensible
+		if (this.nRows < 1 || this.nCols < 1) {
+			this.nRows = 1;
+			this.nCols = 1;
+		}
+		size = this.nRows * this.nCols;
+
+		// Copy the elements
+		this.values = new double[size];
+		this.rowStride = this.nCols;
+		if (this.elements != null) {
+			for (int i = 0; i < Math.min(size, this.elements.size()); i++) {
+				this.values[i] = this.elements.get(i);
+			}
+		}
+		this.elements = null;
+
+	}
+
 	/**
 	 * <p>
 	 * Returns true if the matrix can be resized. False otherwise.
@@ -273,6 +273,20 @@ public abstract class AbstractShape extends ICEObject implements IShape {
 		return true;
 	}
 
+	/**
+	 * <p>
+	 * Returns the keys of all of the properties of the shape in the order in
+	 * which they were first set
+	 * </p>
+	 *
+	 * @return <p>
+	 *         A copy of the list of property keys
+	 *         </p>
+	 */
+	public ArrayList<String> getPropertyKeys() {
+		return new ArrayList<String>(keys);
+	}
+
 	/**
 	 * <p>
 	 * This operation returns the hashcode value of the shape.
@@ -13,8 +13,9 @@
 package org.eclipse.ice.datastructures.form.mesh;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
@@ -41,7 +42,12 @@ import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
  * has changed.<br>
  * <br>
  * All polygons are expected to have a unique ID among all other polygons. This
- * also holds for vertices and edges.
+ * also holds for vertices and edges.<br>
+ * <br>
+ * The adjacency queries use compact arrays of IDs that are rebuilt from the
+ * bookkeeping trees the first time they are needed after the mesh changes.
+ * Queries by location use a uniform grid of the vertices in the x-y plane that
+ * is kept up to date as polygons are added and removed and as vertices move.
  * </p>
  * 
  * @author Jordan H. Deyton
@@ -102,6 +108,79 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 	@XmlTransient
 	private TreeMap<Integer, TreeSet<Integer>> vertexEdges;
 
+	/**
+	 * <p>
+	 * The IDs of the polygons containing each vertex as compact arrays, or
+	 * null if they must be rebuilt from {@link #vertexPolygons}.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private Adjacency vertexPolygonArrays;
+	/**
+	 * <p>
+	 * The IDs of the polygons containing each edge as compact arrays, or null
+	 * if they must be rebuilt from {@link #edgePolygons}.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private Adjacency edgePolygonArrays;
+	/**
+	 * <p>
+	 * The IDs of the edges connected to each vertex as compact arrays, or null
+	 * if they must be rebuilt from {@link #vertexEdges}.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private Adjacency vertexEdgeArrays;
+
+	/**
+	 * <p>
+	 * The spatial index of the vertices, or null if it has not been created
+	 * yet.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private VertexGrid vertexGrid;
+
+	/**
+	 * <p>
+	 * The largest width or height of the bounding boxes of the polygons, or a
+	 * negative value if it must be recomputed.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private float maxPolygonExtent = -1f;
+
+	/**
+	 * <p>
+	 * An unmodifiable view of the polygons ordered by their IDs.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private final Collection<Polygon> polygonView;
+	/**
+	 * <p>
+	 * An unmodifiable view of the vertices ordered by their IDs.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private final Collection<Vertex> vertexView;
+	/**
+	 * <p>
+	 * An unmodifiable view of the edges ordered by their IDs.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private final Collection<Edge> edgeView;
+
 	/**
 	 * <p>
 	 * A flag signifying that the MeshComponent is currently undergoing a copy
@@ -132,6 +211,11 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		edgePolygons = new TreeMap<Integer, TreeSet<Integer>>();
 		vertexEdges = new TreeMap<Integer, TreeSet<Integer>>();
 
+		// Initialize the views of the trees.
+		polygonView = Collections.unmodifiableCollection(polygons.values());
+		vertexView = Collections.unmodifiableCollection(vertices.values());
+		edgeView = Collections.unmodifiableCollection(edges.values());
+
 		// Initialize the flag to signify when the MeshComponent is copying data
 		// from another MeshComponent.
 		copying = new AtomicBoolean(false);
@@ -273,6 +357,7 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 					// of associated polygon IDs.
 					else {
 						vertices.put(j, vertex);
+						vertexAdded(vertex);
 						// Update the polygons that use this vertex.
 						TreeSet<Integer> polygonIds = new TreeSet<Integer>();
 						polygonIds.add(id);
@@ -303,6 +388,9 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 					}
 				}
 
+				// The adjacency arrays are out of date.
+				invalidateAdjacency();
+
 				// Notify listeners when a new polygon was added. If we are
 				// copying, then we do not want to send a new notification.
 				if (!copying.get()) {
@@ -349,7 +437,7 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 				// If there are no more polygons associated with the vertex,
 				// remove the vertex.
 				if (polygonIds.isEmpty()) {
-					vertices.remove(vertexId);
+					vertexRemoved(vertices.remove(vertexId));
 					vertexPolygons.remove(vertexId);
 				}
 
@@ -377,6 +465,9 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 				}
 			}
 
+			// The adjacency arrays are out of date.
+			invalidateAdjacency();
+
 			// Notify listeners of the changes.
 			notifyListeners();
 		}
@@ -431,7 +522,7 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 						// vertex,
 						// remove the vertex.
 						if (polygonIds.isEmpty()) {
-							vertices.remove(vertexId);
+							vertexRemoved(vertices.remove(vertexId));
 							vertexPolygons.remove(vertexId);
 						}
 
@@ -470,6 +561,7 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 			// If the set of polygons was modified, notify listeners of the
 			// change.
 			if (changed) {
+				invalidateAdjacency();
 				notifyListeners();
 			}
 		}
@@ -490,6 +582,22 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		return new ArrayList<Polygon>(polygons.values());
 	}
 
+	/**
+	 * <p>
+	 * Gets an unmodifiable view of all polygons stored in the MeshComponent
+	 * ordered by their IDs. Unlike {@link #getPolygons()}, the polygons are
+	 * not copied, and the view reflects later changes to the MeshComponent.
+	 * The view must not be iterated while the MeshComponent is being changed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         A view of the polygons contained in this MeshComponent.
+	 *         </p>
+	 */
+	public Collection<Polygon> getPolygonView() {
+		return polygonView;
+	}
+
 	/**
 	 * <p>
 	 * Gets a Polygon instance corresponding to an ID.
@@ -564,6 +672,21 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		return new ArrayList<Vertex>(vertices.values());
 	}
 
+	/**
+	 * <p>
+	 * Gets an unmodifiable view of all vertices associated with this
+	 * MeshComponent ordered by their IDs. The view reflects later changes to
+	 * the MeshComponent and must not be iterated while it is being changed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         A view of the vertices managed by this MeshComponent.
+	 *         </p>
+	 */
+	public Collection<Vertex> getVertexView() {
+		return vertexView;
+	}
+
 	/**
 	 * <p>
 	 * Gets a Vertex instance corresponding to an ID.
@@ -607,6 +730,21 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		return new ArrayList<Edge>(edges.values());
 	}
 
+	/**
+	 * <p>
+	 * Gets an unmodifiable view of all edges associated with this
+	 * MeshComponent ordered by their IDs. The view reflects later changes to
+	 * the MeshComponent and must not be iterated while it is being changed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         A view of the edges managed by this MeshComponent.
+	 *         </p>
+	 */
+	public Collection<Edge> getEdgeView() {
+		return edgeView;
+	}
+
 	/**
 	 * <p>
 	 * Gets an Edge instance corresponding to an ID.
@@ -655,10 +793,12 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 	public ArrayList<Edge> getEdgesFromVertex(int id) {
 		// TODO Add to tests.
 		ArrayList<Edge> edgeList = new ArrayList<Edge>();
+		Adjacency adjacency = getVertexEdgeArrays();
+		int row = adjacency.indexOf(id);
 
-		if (vertices.containsKey(id)) {
-			for (int edgeId : vertexEdges.get(id)) {
-				edgeList.add(edges.get(edgeId));
+		if (row >= 0) {
+			for (int i = adjacency.offsets[row]; i < adjacency.offsets[row + 1]; i++) {
+				edgeList.add(edges.get(adjacency.neighbors[i]));
 			}
 		}
 
@@ -683,10 +823,12 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 	public ArrayList<Polygon> getPolygonsFromVertex(int id) {
 		// TODO Add to tests.
 		ArrayList<Polygon> polygonList = new ArrayList<Polygon>();
+		Adjacency adjacency = getVertexPolygonArrays();
+		int row = adjacency.indexOf(id);
 
-		if (vertices.containsKey(id)) {
-			for (int polygonId : vertexPolygons.get(id)) {
-				polygonList.add(polygons.get(polygonId));
+		if (row >= 0) {
+			for (int i = adjacency.offsets[row]; i < adjacency.offsets[row + 1]; i++) {
+				polygonList.add(polygons.get(adjacency.neighbors[i]));
 			}
 		}
 
@@ -711,10 +853,12 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 	public ArrayList<Polygon> getPolygonsFromEdge(int id) {
 		// TODO Add to tests.
 		ArrayList<Polygon> polygonList = new ArrayList<Polygon>();
+		Adjacency adjacency = getEdgePolygonArrays();
+		int row = adjacency.indexOf(id);
 
-		if (edges.containsKey(id)) {
-			for (int polygonId : edgePolygons.get(id)) {
-				polygonList.add(polygons.get(polygonId));
+		if (row >= 0) {
+			for (int i = adjacency.offsets[row]; i < adjacency.offsets[row + 1]; i++) {
+				polygonList.add(polygons.get(adjacency.neighbors[i]));
 			}
 		}
 
@@ -744,17 +888,26 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		// TODO Add to tests.
 		Edge edge = null;
 
+		Adjacency adjacency = getVertexEdgeArrays();
+		int first = adjacency.indexOf(firstId);
+		int second = adjacency.indexOf(secondId);
+
 		// Check the parameters. We can only look for edges that connect two
 		// distinct existing vertices.
-		if (firstId != secondId && vertices.containsKey(firstId)
-				&& vertices.containsKey(secondId)) {
-
-			// Get the Edge from the first edge ID match between the two sets of
-			// edge IDs.
-			Set<Integer> secondEdgeIds = vertexEdges.get(secondId);
-			for (int edgeId : vertexEdges.get(firstId)) {
-				if (secondEdgeIds.contains(edgeId)) {
-					edge = edges.get(edgeId);
+		if (firstId != secondId && first >= 0 && second >= 0) {
+
+			// Get the Edge from the first edge ID match between the two sorted
+			// lists of edge IDs.
+			int i = adjacency.offsets[first];
+			int j = adjacency.offsets[second];
+			while (i < adjacency.offsets[first + 1]
+					&& j < adjacency.offsets[second + 1]) {
+				if (adjacency.neighbors[i] < adjacency.neighbors[j]) {
+					i++;
+				} else if (adjacency.neighbors[i] > adjacency.neighbors[j]) {
+					j++;
+				} else {
+					edge = edges.get(adjacency.neighbors[i]);
 					break;
 				}
 			}
@@ -775,7 +928,8 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 	 *            </p>
 	 * @return <p>
 	 *         An ArrayList of all Polygons in the MeshComponent that are
-	 *         composed of some subset of the specified vertices.
+	 *         composed of some subset of the specified vertices, ordered by
+	 *         their IDs.
 	 *         </p>
 	 */
 	public ArrayList<Polygon> getPolygonsFromVertices(ArrayList<Vertex> vertices) {
@@ -783,41 +937,172 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		ArrayList<Polygon> polygonList = new ArrayList<Polygon>();
 
 		if (vertices != null) {
-			// We need a set of used vertex IDs to make sure we don't count a
-			// vertex twice.
-			HashSet<Integer> usedVertices = new HashSet<Integer>();
-			// We also need a map for each matched polygon telling how many of
-			// its vertices were in the provided list of vertices.
-			HashMap<Integer, Integer> polygonCount = new HashMap<Integer, Integer>();
-
-			// Update the counts for the number of vertex IDs that are
-			// associated with each polygon.
+			Adjacency adjacency = getVertexPolygonArrays();
+
+			// Get the rows of the vertices in the adjacency arrays. Sorting
+			// them makes it easy to skip vertices that are listed twice.
+			int[] rows = new int[vertices.size()];
+			int numRows = 0;
 			for (Vertex vertex : vertices) {
-				if (vertex != null && !usedVertices.contains(vertex.getId())) {
-					// Update the counts for all polygons associated with this
-					// vertex if it is valid.
-					Set<Integer> polygonIds = vertexPolygons
-							.get(vertex.getId());
-					if (polygonIds != null) {
-						for (int id : polygonIds) {
-							Integer count = polygonCount.get(id);
-							if (count == null) {
-								count = 0;
-							}
-							polygonCount.put(id, count + 1);
-						}
+				if (vertex != null) {
+					int row = adjacency.indexOf(vertex.getId());
+					if (row >= 0) {
+						rows[numRows++] = row;
 					}
-					// We do not want to count this vertex again.
-					usedVertices.add(vertex.getId());
 				}
 			}
+			Arrays.sort(rows, 0, numRows);
+
+			// Collect the IDs of the polygons associated with each vertex. Each
+			// polygon ID appears once for each of its vertices in the list.
+			int size = 0;
+			for (int i = 0; i < numRows; i++) {
+				if (i == 0 || rows[i] != rows[i - 1]) {
+					size += adjacency.offsets[rows[i] + 1]
+							- adjacency.offsets[rows[i]];
+				}
+			}
+			int[] polygonIds = new int[size];
+			size = 0;
+			for (int i = 0; i < numRows; i++) {
+				if (i == 0 || rows[i] != rows[i - 1]) {
+					for (int j = adjacency.offsets[rows[i]]; j < adjacency.offsets[rows[i] + 1]; j++) {
+						polygonIds[size++] = adjacency.neighbors[j];
+					}
+				}
+			}
+			Arrays.sort(polygonIds);
 
-			// For each reference polygon ID, check the number of its vertices
-			// that were included in the provided list. If all its vertices were
+			// For each polygon ID, check the number of its vertices that were
+			// included in the provided list. If all its vertices were
 			// included, then it can be added to the returned list of Polygons.
-			for (Entry<Integer, Integer> e : polygonCount.entrySet()) {
-				Polygon polygon = polygons.get(e.getKey());
-				if (polygon.getVertices().size() == e.getValue()) {
+			int start = 0;
+			while (start < size) {
+				int end = start + 1;
+				while (end < size && polygonIds[end] == polygonIds[start]) {
+					end++;
+				}
+				Polygon polygon = polygons.get(polygonIds[start]);
+				if (polygon.getVertices().size() == end - start) {
+					polygonList.add(polygon);
+				}
+				start = end;
+			}
+		}
+
+		return polygonList;
+	}
+
+	/**
+	 * <p>
+	 * Returns the Vertex that is nearest to a point in the x-y plane if there
+	 * is one within a given distance. The z coordinates are ignored.
+	 * </p>
+	 * 
+	 * @param x
+	 *            <p>
+	 *            The x coordinate of the point.
+	 *            </p>
+	 * @param y
+	 *            <p>
+	 *            The y coordinate of the point.
+	 *            </p>
+	 * @param maxDistance
+	 *            <p>
+	 *            The largest distance between the point and the vertex.
+	 *            </p>
+	 * @return <p>
+	 *         The nearest Vertex, or null if no vertex is within the distance.
+	 *         </p>
+	 */
+	public Vertex getNearestVertex(float x, float y, float maxDistance) {
+		return (maxDistance >= 0f ? getVertexGrid().getNearest(x, y,
+				maxDistance) : null);
+	}
+
+	/**
+	 * <p>
+	 * Returns a list of all Vertices whose x and y coordinates are inside a
+	 * rectangle, including its bounds.
+	 * </p>
+	 * 
+	 * @param minX
+	 *            <p>
+	 *            The smallest x coordinate of the rectangle.
+	 *            </p>
+	 * @param minY
+	 *            <p>
+	 *            The smallest y coordinate of the rectangle.
+	 *            </p>
+	 * @param maxX
+	 *            <p>
+	 *            The largest x coordinate of the rectangle.
+	 *            </p>
+	 * @param maxY
+	 *            <p>
+	 *            The largest y coordinate of the rectangle.
+	 *            </p>
+	 * @return <p>
+	 *         An ArrayList of the Vertices inside the rectangle. If there are
+	 *         no such vertices, the list will be empty.
+	 *         </p>
+	 */
+	public ArrayList<Vertex> getVerticesInRectangle(float minX, float minY,
+			float maxX, float maxY) {
+		return getVertexGrid().getInRectangle(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * <p>
+	 * Returns a list of all Polygons that contain a point in the x-y plane.
+	 * The edges of the polygons are treated as straight lines between their
+	 * vertices.
+	 * </p>
+	 * 
+	 * @param x
+	 *            <p>
+	 *            The x coordinate of the point.
+	 *            </p>
+	 * @param y
+	 *            <p>
+	 *            The y coordinate of the point.
+	 *            </p>
+	 * @return <p>
+	 *         An ArrayList of the Polygons that contain the point, ordered by
+	 *         their IDs. If there are no such polygons, the list will be
+	 *         empty.
+	 *         </p>
+	 */
+	public ArrayList<Polygon> getPolygonsAtPoint(float x, float y) {
+
+		ArrayList<Polygon> polygonList = new ArrayList<Polygon>();
+
+		// A polygon that contains the point must have all of its vertices
+		// within its largest extent of the point.
+		float extent = getMaxPolygonExtent();
+		ArrayList<Vertex> nearbyVertices = getVertexGrid().getInRectangle(
+				x - extent, y - extent, x + extent, y + extent);
+
+		// Collect the IDs of the polygons that use those vertices.
+		Adjacency adjacency = getVertexPolygonArrays();
+		int[] polygonIds = new int[0];
+		int size = 0;
+		for (Vertex vertex : nearbyVertices) {
+			int row = adjacency.indexOf(vertex.getId());
+			for (int i = adjacency.offsets[row]; i < adjacency.offsets[row + 1]; i++) {
+				if (size == polygonIds.length) {
+					polygonIds = Arrays.copyOf(polygonIds, 2 * size + 8);
+				}
+				polygonIds[size++] = adjacency.neighbors[i];
+			}
+		}
+		Arrays.sort(polygonIds, 0, size);
+
+		// Test each polygon once.
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || polygonIds[i] != polygonIds[i - 1]) {
+				Polygon polygon = polygons.get(polygonIds[i]);
+				if (containsPoint(polygon, x, y)) {
 					polygonList.add(polygon);
 				}
 			}
@@ -826,6 +1111,234 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		return polygonList;
 	}
 
+	/**
+	 * <p>
+	 * This operation is called by a Vertex of this MeshComponent when it
+	 * moves. It updates the spatial index.
+	 * </p>
+	 * 
+	 * @param vertex
+	 *            <p>
+	 *            The vertex that moved.
+	 *            </p>
+	 */
+	void vertexMoved(Vertex vertex) {
+		if (vertexGrid != null) {
+			vertexGrid.move(vertex);
+		}
+		maxPolygonExtent = -1f;
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation starts following a vertex that was added to the mesh.
+	 * </p>
+	 * 
+	 * @param vertex
+	 *            <p>
+	 *            The new vertex.
+	 *            </p>
+	 */
+	private void vertexAdded(Vertex vertex) {
+		vertex.addContainer(this);
+		if (vertexGrid != null) {
+			vertexGrid.add(vertex);
+		}
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation stops following a vertex that was removed from the mesh.
+	 * </p>
+	 * 
+	 * @param vertex
+	 *            <p>
+	 *            The removed vertex.
+	 *            </p>
+	 */
+	private void vertexRemoved(Vertex vertex) {
+		if (vertex != null) {
+			vertex.removeContainer(this);
+			if (vertexGrid != null) {
+				vertexGrid.remove(vertex);
+			}
+		}
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation marks the adjacency arrays and the largest polygon
+	 * extent as out of date after polygons are added or removed.
+	 * </p>
+	 * 
+	 */
+	private void invalidateAdjacency() {
+		vertexPolygonArrays = null;
+		edgePolygonArrays = null;
+		vertexEdgeArrays = null;
+		maxPolygonExtent = -1f;
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the adjacency arrays of the polygons containing
+	 * each vertex, rebuilding them if needed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The adjacency arrays.
+	 *         </p>
+	 */
+	private Adjacency getVertexPolygonArrays() {
+		if (vertexPolygonArrays == null) {
+			vertexPolygonArrays = new Adjacency(vertexPolygons);
+		}
+		return vertexPolygonArrays;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the adjacency arrays of the polygons containing
+	 * each edge, rebuilding them if needed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The adjacency arrays.
+	 *         </p>
+	 */
+	private Adjacency getEdgePolygonArrays() {
+		if (edgePolygonArrays == null) {
+			edgePolygonArrays = new Adjacency(edgePolygons);
+		}
+		return edgePolygonArrays;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the adjacency arrays of the edges connected to
+	 * each vertex, rebuilding them if needed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The adjacency arrays.
+	 *         </p>
+	 */
+	private Adjacency getVertexEdgeArrays() {
+		if (vertexEdgeArrays == null) {
+			vertexEdgeArrays = new Adjacency(vertexEdges);
+		}
+		return vertexEdgeArrays;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the spatial index of the vertices. It is created
+	 * the first time it is needed and recreated when the number of vertices
+	 * changes too much for its cell size.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The spatial index.
+	 *         </p>
+	 */
+	private VertexGrid getVertexGrid() {
+		if (vertexGrid == null || vertexGrid.needsResizing()) {
+			vertexGrid = new VertexGrid(vertices.values());
+		}
+		return vertexGrid;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the largest width or height of the bounding
+	 * boxes of the polygons, computing it if needed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The largest extent of the polygons.
+	 *         </p>
+	 */
+	private float getMaxPolygonExtent() {
+
+		if (maxPolygonExtent < 0f) {
+			float extent = 0f;
+			for (Polygon polygon : polygons.values()) {
+				float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+				float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+				for (Vertex vertex : polygon.getVertices()) {
+					float[] location = vertex.getLocation();
+					minX = Math.min(minX, location[0]);
+					minY = Math.min(minY, location[1]);
+					maxX = Math.max(maxX, location[0]);
+					maxY = Math.max(maxY, location[1]);
+				}
+				extent = Math.max(extent, Math.max(maxX - minX, maxY - minY));
+			}
+			maxPolygonExtent = extent;
+		}
+
+		return maxPolygonExtent;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks whether a point in the x-y plane is inside a
+	 * polygon or on its boundary by counting the crossings of a ray from the
+	 * point with the polygon's edges.
+	 * </p>
+	 * 
+	 * @param polygon
+	 *            <p>
+	 *            The polygon.
+	 *            </p>
+	 * @param x
+	 *            <p>
+	 *            The x coordinate of the point.
+	 *            </p>
+	 * @param y
+	 *            <p>
+	 *            The y coordinate of the point.
+	 *            </p>
+	 * @return <p>
+	 *         True if the polygon contains the point, false otherwise.
+	 *         </p>
+	 */
+	private static boolean containsPoint(Polygon polygon, float x, float y) {
+
+		ArrayList<Vertex> polygonVertices = polygon.getVertices();
+		int size = polygonVertices.size();
+		boolean inside = false;
+		float[] previous = polygonVertices.get(size - 1).getLocation();
+
+		for (int i = 0; i < size; i++) {
+			float[] current = polygonVertices.get(i).getLocation();
+			// Points on an edge are inside.
+			double cross = (double) (current[0] - previous[0])
+					* (y - previous[1]) - (double) (current[1] - previous[1])
+					* (x - previous[0]);
+			if (cross == 0.0
+					&& x >= Math.min(previous[0], current[0])
+					&& x <= Math.max(previous[0], current[0])
+					&& y >= Math.min(previous[1], current[1])
+					&& y <= Math.max(previous[1], current[1])) {
+				return true;
+			}
+			// Count the edges crossed by a ray in the +x direction.
+			if ((current[1] > y) != (previous[1] > y)
+					&& x < previous[0] + (current[0] - previous[0])
+							* (y - previous[1]) / (current[1] - previous[1])) {
+				inside = !inside;
+			}
+			previous = current;
+		}
+
+		return inside;
+	}
+
 	/**
 	 * <p>
 	 * This operation returns the hash value of the MeshComponent.
@@ -915,6 +1428,10 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 			polygons.clear();
 
 			// These should be updated automatically by adding the shapes.
+			for (Vertex vertex : vertices.values()) {
+				vertex.removeContainer(this);
+			}
+			vertexGrid = null;
 			vertices.clear();
 			edges.clear();
 			polygons.clear();
@@ -926,6 +1443,7 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 			for (Polygon polygon : component.polygons.values()) {
 				addPolygon((Polygon) polygon.clone());
 			}
+			invalidateAdjacency();
 
 			// Notify listeners of the change.
 			notifyListeners();
@@ -990,4 +1508,84 @@ public class MeshComponent extends ICEObject implements Component, IMeshPart {
 		return;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>
+	 * This class stores a map from IDs to sorted sets of IDs as three
+	 * primitive arrays. The keys are stored in increasing order in ids. The
+	 * IDs associated with ids[i] are stored in increasing order in neighbors
+	 * from offsets[i] up to, but not including, offsets[i + 1].
+	 * </p>
+	 * 
+	 */
+	private static class Adjacency {
+
+		/**
+		 * The sorted keys.
+		 */
+		private final int[] ids;
+
+		/**
+		 * The start of each key's IDs in the neighbors array, plus the total
+		 * number of IDs at the end.
+		 */
+		private final int[] offsets;
+
+		/**
+		 * The IDs associated with each key.
+		 */
+		private final int[] neighbors;
+
+		/**
+		 * <p>
+		 * The constructor. It copies the map into the arrays.
+		 * </p>
+		 * 
+		 * @param map
+		 *            <p>
+		 *            The map of keys to sorted sets of IDs.
+		 *            </p>
+		 */
+		private Adjacency(TreeMap<Integer, TreeSet<Integer>> map) {
+
+			// Local Declarations
+			int size = 0, i = 0, j = 0;
+
+			// Count the IDs
+			for (TreeSet<Integer> set : map.values()) {
+				size += set.size();
+			}
+
+			// Fill the arrays. The tree maps and sets are already sorted.
+			ids = new int[map.size()];
+			offsets = new int[map.size() + 1];
+			neighbors = new int[size];
+			for (Entry<Integer, TreeSet<Integer>> entry : map.entrySet()) {
+				ids[i] = entry.getKey();
+				offsets[i++] = j;
+				for (int id : entry.getValue()) {
+					neighbors[j++] = id;
+				}
+			}
+			offsets[i] = j;
+		}
+
+		/**
+		 * <p>
+		 * This operation finds the row of a key.
+		 * </p>
+		 * 
+		 * @param id
+		 *            <p>
+		 *            The key.
+		 *            </p>
+		 * @return <p>
+		 *         The row of the key, or a negative value if it is not in the
+		 *         map.
+		 *         </p>
+		 */
+		private int indexOf(int id) {
+			return Arrays.binarySearch(ids, id);
+		}
+	}
+
+}
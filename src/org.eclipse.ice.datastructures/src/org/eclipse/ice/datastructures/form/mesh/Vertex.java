@@ -18,6 +18,7 @@ import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 
 import javax.xml.bind.JAXBException;
@@ -25,6 +26,7 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
 /**
  * <p>
@@ -49,6 +51,16 @@ public class Vertex extends ICEObject implements IMeshPart {
 	@XmlAttribute
 	private float[] location;
 
+	/**
+	 * <p>
+	 * The MeshComponents that contain this Vertex. They are told directly
+	 * when the Vertex moves so that their spatial indices stay up to date.
+	 * </p>
+	 * 
+	 */
+	@XmlTransient
+	private ArrayList<MeshComponent> containers;
+
 	/**
 	 * <p>
 	 * A nullary constructor. This creates a vertex at the origin and
@@ -158,7 +170,12 @@ public class Vertex extends ICEObject implements IMeshPart {
 			location[1] = y;
 			location[2] = z;
 
-			// Notify the listeners.
+			// Tell the containing meshes and notify the listeners.
+			if (containers != null) {
+				for (int i = 0; i < containers.size(); i++) {
+					containers.get(i).vertexMoved(this);
+				}
+			}
 			notifyListeners();
 		}
 		return;
@@ -197,6 +214,56 @@ public class Vertex extends ICEObject implements IMeshPart {
 		return new float[] { location[0], location[1], location[2] };
 	}
 
+	/**
+	 * <p>
+	 * This operation registers a MeshComponent that contains this Vertex so
+	 * that it is told when the Vertex moves.
+	 * </p>
+	 * 
+	 * @param container
+	 *            <p>
+	 *            The MeshComponent.
+	 *            </p>
+	 */
+	void addContainer(MeshComponent container) {
+
+		// Create the list of containers if needed
+		if (containers == null) {
+			containers = new ArrayList<MeshComponent>();
+		}
+
+		// Add the container if it is not already there
+		for (MeshComponent other : containers) {
+			if (other == container) {
+				return;
+			}
+		}
+		containers.add(container);
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation unregisters a MeshComponent that contained this Vertex.
+	 * </p>
+	 * 
+	 * @param container
+	 *            <p>
+	 *            The MeshComponent.
+	 *            </p>
+	 */
+	void removeContainer(MeshComponent container) {
+		if (containers != null) {
+			for (int i = containers.size() - 1; i >= 0; i--) {
+				if (containers.get(i) == container) {
+					containers.remove(i);
+				}
+			}
+		}
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation returns the hash value of the Vertex.
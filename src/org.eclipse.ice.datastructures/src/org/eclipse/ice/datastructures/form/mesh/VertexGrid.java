@@ -0,0 +1,425 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.form.mesh;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+
+/**
+ * <p>
+ * This class is a uniform grid of square cells in the x-y plane that is used
+ * by the {@link MeshComponent} to find vertices by their location without
+ * checking every vertex. The z coordinate of the vertices is ignored. Only the
+ * cells that contain vertices are stored.
+ * </p>
+ * <p>
+ * The size of the cells is chosen when the grid is created so that there is
+ * about one vertex per cell. Vertices can be added, removed and moved
+ * afterward, but the MeshComponent creates a new grid when the number of
+ * vertices changes enough that the cell size is no longer a good fit.
+ * </p>
+ * 
+ * @author Jordan H. Deyton
+ */
+class VertexGrid {
+
+	/**
+	 * <p>
+	 * The width and height of each cell.
+	 * </p>
+	 * 
+	 */
+	private final float cellSize;
+
+	/**
+	 * <p>
+	 * The vertices in each cell that is not empty, keyed on the cell's packed
+	 * row and column.
+	 * </p>
+	 * 
+	 */
+	private final HashMap<Long, ArrayList<Vertex>> cells;
+
+	/**
+	 * <p>
+	 * The key of the cell that holds each vertex.
+	 * </p>
+	 * 
+	 */
+	private final IdentityHashMap<Vertex, Long> vertexCells;
+
+	/**
+	 * <p>
+	 * The number of vertices in the grid when it was created.
+	 * </p>
+	 * 
+	 */
+	private final int initialSize;
+
+	/**
+	 * <p>
+	 * The constructor. It sizes the cells to the bounds of the vertices and
+	 * adds them to the grid.
+	 * </p>
+	 * 
+	 * @param vertices
+	 *            <p>
+	 *            The vertices that should be in the grid.
+	 *            </p>
+	 */
+	public VertexGrid(Collection<Vertex> vertices) {
+
+		// Local Declarations
+		float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+		float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+		float width, height, size;
+		int count = vertices.size();
+
+		// Find the bounds of the vertices
+		for (Vertex vertex : vertices) {
+			float[] location = vertex.getLocation();
+			minX = Math.min(minX, location[0]);
+			minY = Math.min(minY, location[1]);
+			maxX = Math.max(maxX, location[0]);
+			maxY = Math.max(maxY, location[1]);
+		}
+		width = (count > 0) ? maxX - minX : 0f;
+		height = (count > 0) ? maxY - minY : 0f;
+
+		// Pick a cell size that puts about one vertex in each cell
+		if (width > 0f && height > 0f) {
+			size = (float) Math.sqrt(width * height / count);
+		} else {
+			size = Math.max(width, height) / Math.max(count, 1);
+		}
+		cellSize = (size > 0f && !Float.isInfinite(size)) ? size : 1f;
+
+		// Add the vertices
+		cells = new HashMap<Long, ArrayList<Vertex>>(2 * count);
+		vertexCells = new IdentityHashMap<Vertex, Long>(count);
+		for (Vertex vertex : vertices) {
+			add(vertex);
+		}
+		initialSize = count;
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the number of vertices in the grid.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The number of vertices.
+	 *         </p>
+	 */
+	public int size() {
+		return vertexCells.size();
+	}
+
+	/**
+	 * <p>
+	 * This operation returns true if the number of vertices has doubled or
+	 * halved since the grid was created, in which case the grid should be
+	 * recreated.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         True if the cell size no longer fits the vertices.
+	 *         </p>
+	 */
+	public boolean needsResizing() {
+		int size = vertexCells.size();
+		return size > 2 * initialSize + 16 || 2 * size + 16 < initialSize;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds a vertex to the grid if it is not already there.
+	 * </p>
+	 * 
+	 * @param vertex
+	 *            <p>
+	 *            The vertex to add.
+	 *            </p>
+	 */
+	public void add(Vertex vertex) {
+
+		// Local Declarations
+		float[] location;
+		Long key;
+		ArrayList<Vertex> cell;
+
+		if (!vertexCells.containsKey(vertex)) {
+			// Find the cell and add the vertex to it
+			location = vertex.getLocation();
+			key = getKey(getCellIndex(location[0]), getCellIndex(location[1]));
+			cell = cells.get(key);
+			if (cell == null) {
+				cell = new ArrayList<Vertex>(2);
+				cells.put(key, cell);
+			}
+			cell.add(vertex);
+			vertexCells.put(vertex, key);
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation removes a vertex from the grid.
+	 * </p>
+	 * 
+	 * @param vertex
+	 *            <p>
+	 *            The vertex to remove.
+	 *            </p>
+	 */
+	public void remove(Vertex vertex) {
+
+		// Local Declarations
+		Long key = vertexCells.remove(vertex);
+		ArrayList<Vertex> cell;
+
+		if (key != null) {
+			// Remove the vertex from its cell and drop the cell if it is empty
+			cell = cells.get(key);
+			for (int i = cell.size() - 1; i >= 0; i--) {
+				if (cell.get(i) == vertex) {
+					cell.remove(i);
+				}
+			}
+			if (cell.isEmpty()) {
+				cells.remove(key);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation moves a vertex in the grid to the cell of its current
+	 * location.
+	 * </p>
+	 * 
+	 * @param vertex
+	 *            <p>
+	 *            The vertex that moved.
+	 *            </p>
+	 */
+	public void move(Vertex vertex) {
+
+		// Local Declarations
+		Long key = vertexCells.get(vertex);
+		float[] location;
+
+		// Only move the vertex if it changed cells
+		if (key != null) {
+			location = vertex.getLocation();
+			if (key.longValue() != getKey(getCellIndex(location[0]),
+					getCellIndex(location[1]))) {
+				remove(vertex);
+				add(vertex);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation finds the vertex that is nearest to a point.
+	 * </p>
+	 * 
+	 * @param x
+	 *            <p>
+	 *            The x coordinate of the point.
+	 *            </p>
+	 * @param y
+	 *            <p>
+	 *            The y coordinate of the point.
+	 *            </p>
+	 * @param maxDistance
+	 *            <p>
+	 *            The largest distance from the point to the vertex.
+	 *            </p>
+	 * @return <p>
+	 *         The nearest vertex or null if there is no vertex within the
+	 *         distance.
+	 *         </p>
+	 */
+	public Vertex getNearest(float x, float y, float maxDistance) {
+
+		// Local Declarations
+		Vertex nearest = null;
+		double nearestDistance = (double) maxDistance * maxDistance;
+
+		// Check the vertices in the square around the point
+		for (Vertex vertex : getInRectangle(x - maxDistance, y - maxDistance,
+				x + maxDistance, y + maxDistance)) {
+			float[] location = vertex.getLocation();
+			double dx = location[0] - x;
+			double dy = location[1] - y;
+			double distance = dx * dx + dy * dy;
+			if (distance <= nearestDistance) {
+				nearest = vertex;
+				nearestDistance = distance;
+			}
+		}
+
+		return nearest;
+	}
+
+	/**
+	 * <p>
+	 * This operation finds all of the vertices inside a rectangle, including
+	 * its bounds.
+	 * </p>
+	 * 
+	 * @param minX
+	 *            <p>
+	 *            The smallest x coordinate of the rectangle.
+	 *            </p>
+	 * @param minY
+	 *            <p>
+	 *            The smallest y coordinate of the rectangle.
+	 *            </p>
+	 * @param maxX
+	 *            <p>
+	 *            The largest x coordinate of the rectangle.
+	 *            </p>
+	 * @param maxY
+	 *            <p>
+	 *            The largest y coordinate of the rectangle.
+	 *            </p>
+	 * @return <p>
+	 *         The vertices inside the rectangle.
+	 *         </p>
+	 */
+	public ArrayList<Vertex> getInRectangle(float minX, float minY,
+			float maxX, float maxY) {
+
+		// Local Declarations
+		ArrayList<Vertex> result = new ArrayList<Vertex>();
+		long minRow = getCellIndex(minX), maxRow = getCellIndex(maxX);
+		long minCol = getCellIndex(minY), maxCol = getCellIndex(maxY);
+
+		// If the rectangle covers more cells than there are cells with
+		// vertices, it is faster to check every cell.
+		if ((double) (maxRow - minRow + 1) * (maxCol - minCol + 1) > cells
+				.size()) {
+			for (ArrayList<Vertex> cell : cells.values()) {
+				addInRectangle(cell, minX, minY, maxX, maxY, result);
+			}
+		} else {
+			for (long i = minRow; i <= maxRow; i++) {
+				for (long j = minCol; j <= maxCol; j++) {
+					ArrayList<Vertex> cell = cells.get(getKey((int) i, (int) j));
+					if (cell != null) {
+						addInRectangle(cell, minX, minY, maxX, maxY, result);
+					}
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds the vertices of a cell that are inside a rectangle
+	 * to a list.
+	 * </p>
+	 * 
+	 * @param cell
+	 *            <p>
+	 *            The vertices of the cell.
+	 *            </p>
+	 * @param minX
+	 *            <p>
+	 *            The smallest x coordinate of the rectangle.
+	 *            </p>
+	 * @param minY
+	 *            <p>
+	 *            The smallest y coordinate of the rectangle.
+	 *            </p>
+	 * @param maxX
+	 *            <p>
+	 *            The largest x coordinate of the rectangle.
+	 *            </p>
+	 * @param maxY
+	 *            <p>
+	 *            The largest y coordinate of the rectangle.
+	 *            </p>
+	 * @param result
+	 *            <p>
+	 *            The list of vertices inside the rectangle.
+	 *            </p>
+	 */
+	private void addInRectangle(ArrayList<Vertex> cell, float minX,
+			float minY, float maxX, float maxY, ArrayList<Vertex> result) {
+		for (int i = 0; i < cell.size(); i++) {
+			float[] location = cell.get(i).getLocation();
+			if (location[0] >= minX && location[0] <= maxX
+					&& location[1] >= minY && location[1] <= maxY) {
+				result.add(cell.get(i));
+			}
+		}
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the index of the cell row or column that holds a
+	 * coordinate. Coordinates beyond the range of an int are clamped.
+	 * </p>
+	 * 
+	 * @param coordinate
+	 *            <p>
+	 *            The x or y coordinate.
+	 *            </p>
+	 * @return <p>
+	 *         The index of the cell row or column.
+	 *         </p>
+	 */
+	private int getCellIndex(float coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	/**
+	 * <p>
+	 * This operation packs the row and column of a cell into a single key.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The index of the cell along x.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The index of the cell along y.
+	 *            </p>
+	 * @return <p>
+	 *         The key of the cell.
+	 *         </p>
+	 */
+	private static long getKey(int row, int column) {
+		return ((long) row << 32) | (column & 0xffffffffL);
+	}
+
+}
@@ -18,6 +18,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
@@ -28,6 +29,9 @@ import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import javax.xml.bind.annotation.XmlAnyElement;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -37,10 +41,12 @@ import javax.xml.bind.annotation.XmlElementRefs;
 import javax.xml.bind.annotation.XmlRootElement;
 import javax.xml.bind.annotation.XmlTransient;
 
+import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.ICEJAXBHandler;
@@ -446,6 +452,42 @@ public class Item implements IComponentVisitor, Identifiable,
 	@XmlTransient()
 	private IActionFactory actionFactory;
 
+	/**
+	 * The number of files that a single task copies when files are copied in
+	 * parallel.
+	 */
+	private static final int FILES_PER_TASK = 4;
+
+	/**
+	 * The pool of threads that copies files in parallel. It is shared by all
+	 * Items.
+	 */
+	private static final ForkJoinPool fileTransferPool = new ForkJoinPool();
+
+	/**
+	 * The number of file transfer batches that have been started and not yet
+	 * finished. The project space is not refreshed while it is greater than
+	 * zero. It is guarded by transferLock.
+	 */
+	@XmlTransient()
+	private int fileTransferDepth = 0;
+
+	/**
+	 * The absolute paths of the directories changed by the file transfers of
+	 * the current batch. They are refreshed when the batch is finished. It is
+	 * guarded by transferLock.
+	 */
+	@XmlTransient()
+	private TreeSet<String> transferDirectories = new TreeSet<String>();
+
+	/**
+	 * The lock that guards the file transfer batch state, which may be used by
+	 * the threads of the Item's Actions as well as by the thread that owns the
+	 * Item.
+	 */
+	@XmlTransient()
+	private final Object transferLock = new Object();
+
 	/**
 	 * The constructor. Subclasses of Item should implement their own
 	 * constructor, but creating the Form should be done in the setupForm()
@@ -1695,7 +1737,7 @@ public class Item implements IComponentVisitor, Identifiable,
 		ArrayList<String> files = new ArrayList<String>();
 
 		// Refresh the Project just in case
-		refreshProjectSpace();
+		refreshAfterTransfer(directory);
 
 		// Make sure we were given a valid directory
 		if (Files.isDirectory(Paths.get(directory))) {
@@ -1710,7 +1752,7 @@ public class Item implements IComponentVisitor, Identifiable,
 				}
 
 				// Refresh the Project just in case
-				refreshProjectSpace();
+				refreshAfterTransfer(directory);
 
 			} catch (IOException ex) {
 				ex.printStackTrace();
@@ -1721,6 +1763,206 @@ public class Item implements IComponentVisitor, Identifiable,
 		return files;
 	}
 
+	/**
+	 * This operation starts a batch of file transfers. The copyFile(),
+	 * moveFile(), deleteDirectory() and related operations normally refresh the
+	 * whole project space after every file. Between this operation and
+	 * {@link #finishFileTransfers()} they only record the directories that
+	 * they change, which are then refreshed once when the batch is finished.
+	 * Batches may be nested and only the outermost batch refreshes the
+	 * directories. The batch belongs to the Item rather than to a thread, so
+	 * transfers made by other threads while it is open are refreshed when it
+	 * is finished too.
+	 */
+	protected void startFileTransfers() {
+		synchronized (transferLock) {
+			fileTransferDepth++;
+		}
+		return;
+	}
+
+	/**
+	 * This operation finishes a batch of file transfers that was started with
+	 * {@link #startFileTransfers()}. If it finishes the outermost batch, it
+	 * refreshes every directory that was changed during the batch.
+	 */
+	protected void finishFileTransfers() {
+
+		// Local Declarations
+		String separator = System.getProperty("file.separator");
+		String refreshed = null;
+		IWorkspaceRoot root = null;
+		IContainer container = null;
+		ArrayList<String> directories = null;
+
+		// Take the directories of the batch if it is the outermost one. The
+		// refresh is done outside of the lock because it can take a while.
+		synchronized (transferLock) {
+			if (fileTransferDepth > 0 && --fileTransferDepth == 0) {
+				directories = new ArrayList<String>(transferDirectories);
+				transferDirectories.clear();
+			}
+		}
+
+		if (directories != null) {
+			if (project != null) {
+				root = project.getWorkspace().getRoot();
+				// The directories are sorted, so any directory that is inside
+				// the last refreshed directory follows it and can be skipped.
+				for (String directory : directories) {
+					if (refreshed != null
+							&& directory.startsWith(refreshed + separator)) {
+						continue;
+					}
+					// Directories outside of the workspace have no container
+					container = root
+							.getContainerForLocation(org.eclipse.core.runtime.Path
+									.fromOSString(directory));
+					if (container != null) {
+						try {
+							container.refreshLocal(IResource.DEPTH_INFINITE,
+									null);
+							refreshed = directory;
+						} catch (CoreException e) {
+							e.printStackTrace();
+						}
+					}
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation refreshes the project space after a file transfer. If a
+	 * batch of file transfers is in progress, it only records the directories
+	 * so that they can be refreshed when the batch is finished.
+	 * 
+	 * @param directories
+	 *            The absolute paths of the directories that were changed.
+	 */
+	private void refreshAfterTransfer(String... directories) {
+
+		// Local Declarations
+		boolean batched = false;
+
+		synchronized (transferLock) {
+			batched = (fileTransferDepth > 0);
+			if (batched) {
+				for (String directory : directories) {
+					transferDirectories.add(Paths.get(directory)
+							.toAbsolutePath().normalize().toString());
+				}
+			}
+		}
+		if (!batched) {
+			refreshProjectSpace();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation copies a single file along with its attributes, such as
+	 * its POSIX permissions and modification time, so that copied executables
+	 * and scripts can still be run. Directories are copied as in Files.copy(),
+	 * which creates an empty directory at the target. Copying a file onto
+	 * itself does nothing.
+	 * 
+	 * @param source
+	 *            The file to copy.
+	 * @param target
+	 *            The file to create or replace.
+	 * @throws IOException
+	 */
+	private static void transferFile(Path source, Path target)
+			throws IOException {
+		Files.copy(source, target, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.COPY_ATTRIBUTES);
+		return;
+	}
+
+	/**
+	 * This class copies a range of files from one directory to another. It
+	 * splits the range in half until it is small enough to be copied by a
+	 * single thread.
+	 */
+	private static class FileCopyTask extends RecursiveAction {
+
+		/**
+		 * The directory that holds the files.
+		 */
+		private final String sourceDir;
+
+		/**
+		 * The directory to which the files are copied.
+		 */
+		private final String destinationDir;
+
+		/**
+		 * The names of the files.
+		 */
+		private final ArrayList<String> fileNames;
+
+		/**
+		 * The index of the first file in the range.
+		 */
+		private final int first;
+
+		/**
+		 * The index after the last file in the range.
+		 */
+		private final int last;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param sourceDir
+		 *            The directory that holds the files.
+		 * @param destinationDir
+		 *            The directory to which the files are copied.
+		 * @param fileNames
+		 *            The names of the files.
+		 * @param first
+		 *            The index of the first file in the range.
+		 * @param last
+		 *            The index after the last file in the range.
+		 */
+		public FileCopyTask(String sourceDir, String destinationDir,
+				ArrayList<String> fileNames, int first, int last) {
+			this.sourceDir = sourceDir;
+			this.destinationDir = destinationDir;
+			this.fileNames = fileNames;
+			this.first = first;
+			this.last = last;
+		}
+
+		@Override
+		protected void compute() {
+
+			// Split the range until it is small enough
+			if (last - first > FILES_PER_TASK) {
+				int middle = (first + last) >>> 1;
+				invokeAll(new FileCopyTask(sourceDir, destinationDir,
+						fileNames, first, middle), new FileCopyTask(sourceDir,
+						destinationDir, fileNames, middle, last));
+			} else {
+				for (int i = first; i < last; i++) {
+					// A file that fails should not stop the others
+					try {
+						transferFile(Paths.get(sourceDir, fileNames.get(i)),
+								Paths.get(destinationDir, fileNames.get(i)));
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+				}
+			}
+
+			return;
+		}
+	}
+
 	/**
 	 * Copy the file with the name 'fileName' from the source directory given by
 	 * the sourceDir absolute path String to the destination directory given by
@@ -1745,11 +1987,10 @@ public class Item implements IComponentVisitor, Identifiable,
 			try {
 				// Try to copy the file from the source directory to the target
 				// directory. This leaves the source file intact.
-				Files.copy(Paths.get(sourceDir + separator + fileName),
-						Paths.get(destinationDir + separator + fileName),
-						StandardCopyOption.REPLACE_EXISTING);
+				transferFile(Paths.get(sourceDir + separator + fileName),
+						Paths.get(destinationDir + separator + fileName));
 				// Refresh the Project just in case
-				refreshProjectSpace();
+				refreshAfterTransfer(destinationDir);
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -1763,7 +2004,7 @@ public class Item implements IComponentVisitor, Identifiable,
 	 * the sourceDir absolute path String to the destination directory given by
 	 * the absolute path String. This method creates an exact copy of the file
 	 * in the destination directory, but removes the file from the source
-	 * directory.
+	 * directory. The file is renamed atomically if the file system allows it.
 	 * 
 	 * @param sourceDir
 	 *            The absolute path for the source directory.
@@ -1777,16 +2018,23 @@ public class Item implements IComponentVisitor, Identifiable,
 
 		// Local Declarations
 		String separator = System.getProperty("file.separator");
+		Path source = Paths.get(sourceDir + separator + fileName);
+		Path target = Paths.get(destinationDir + separator + fileName);
 
 		// Make sure the file to be moved is valid.
-		if (Files.exists(Paths.get(sourceDir + separator + fileName))) {
+		if (Files.exists(source)) {
 			try {
-				// Move the file, this deletes the file in sourceDir.
-				Files.move(Paths.get(sourceDir + separator + fileName),
-						Paths.get(destinationDir + separator + fileName),
-						StandardCopyOption.REPLACE_EXISTING);
+				// Move the file, this deletes the file in sourceDir. Fall back
+				// to a regular move if the directories are on different file
+				// systems.
+				try {
+					Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(source, target,
+							StandardCopyOption.REPLACE_EXISTING);
+				}
 				// Refresh the Project just in case
-				refreshProjectSpace();
+				refreshAfterTransfer(sourceDir, destinationDir);
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -1828,8 +2076,10 @@ public class Item implements IComponentVisitor, Identifiable,
 
 						});
 
-				// Refresh the Project just in case
-				refreshProjectSpace();
+				// Refresh the Project just in case. The directory is gone, so
+				// refresh the directory that held it.
+				refreshAfterTransfer(Paths.get(directory).toAbsolutePath()
+						.getParent().toString());
 			} catch (IOException e) {
 				e.printStackTrace();
 			}
@@ -1838,7 +2088,8 @@ public class Item implements IComponentVisitor, Identifiable,
 
 	/**
 	 * This method serves as a utility for moving multiple files with the same
-	 * file extension from one directory to another.
+	 * file extension from one directory to another. The project space is
+	 * refreshed once after all of the files are moved.
 	 * 
 	 * @param sourceDir
 	 *            The directory where the Item should search for files with the
@@ -1850,8 +2101,14 @@ public class Item implements IComponentVisitor, Identifiable,
 	 */
 	protected void moveFiles(String sourceDir, String destinationDir,
 			String fileExtension) {
-		for (String fileName : getFiles(sourceDir, fileExtension)) {
-			moveFile(sourceDir, destinationDir, fileName);
+
+		startFileTransfers();
+		try {
+			for (String fileName : getFiles(sourceDir, fileExtension)) {
+				moveFile(sourceDir, destinationDir, fileName);
+			}
+		} finally {
+			finishFileTransfers();
 		}
 
 		return;
@@ -1859,7 +2116,9 @@ public class Item implements IComponentVisitor, Identifiable,
 
 	/**
 	 * This method serves as a utility for copying multiple files with the same
-	 * file extension from one directory to another.
+	 * file extension from one directory to another. The files are copied in
+	 * parallel and the project space is refreshed once after all of them are
+	 * copied.
 	 * 
 	 * @param sourceDir
 	 *            The directory where the Item should search for files with the
@@ -1871,14 +2130,34 @@ public class Item implements IComponentVisitor, Identifiable,
 	 */
 	protected void copyFiles(String sourceDir, String destinationDir,
 			String fileExtension) {
-		for (String fileName : getFiles(sourceDir, fileExtension)) {
-			copyFile(sourceDir, destinationDir, fileName);
+
+		// Local Declarations
+		ArrayList<String> fileNames = null;
+		FileCopyTask task = null;
+
+		startFileTransfers();
+		try {
+			// Copy the files, only using the pool if there are enough of them
+			fileNames = getFiles(sourceDir, fileExtension);
+			task = new FileCopyTask(sourceDir, destinationDir, fileNames, 0,
+					fileNames.size());
+			if (fileNames.size() > FILES_PER_TASK) {
+				fileTransferPool.invoke(task);
+			} else {
+				task.compute();
+			}
+			refreshAfterTransfer(destinationDir);
+		} finally {
+			finishFileTransfers();
 		}
+
+		return;
 	}
 	
 	/**
 	 * This method serves as a utility for copying a full directory structure
-	 * to a new location
+	 * to a new location. The project space is refreshed once after the whole
+	 * directory is copied.
 	 * 
 	 * @param sourceDir
 	 *            The directory to copy 
@@ -1890,24 +2169,29 @@ public class Item implements IComponentVisitor, Identifiable,
 		File sourceFile = new File(sourceDir);
 		File f = null;
 		String list[] = sourceFile.list();
-		// Go through each entry in the directory
-		for (String fileName : list) {
-			f = new File(sourceDir + separator + fileName);
-			if (!f.isDirectory()) {
-				// If it's not a directory, just copy the file
-				copyFile(sourceDir, destinationDir, fileName);
-			} else {
-				// If it is a directory, recurse on it
-				copyFile(sourceDir, destinationDir, fileName);
-				
-				// This check is necessary for Windows filepaths
-				String pathSteps[] = null;
-				if (fileName.contains(separator)) {
-					pathSteps = fileName.split(separator);
+		startFileTransfers();
+		try {
+			// Go through each entry in the directory
+			for (String fileName : list) {
+				f = new File(sourceDir + separator + fileName);
+				if (!f.isDirectory()) {
+					// If it's not a directory, just copy the file
+					copyFile(sourceDir, destinationDir, fileName);
+				} else {
+					// If it is a directory, recurse on it
+					copyFile(sourceDir, destinationDir, fileName);
+
+					// This check is necessary for Windows filepaths
+					String pathSteps[] = null;
+					if (fileName.contains(separator)) {
+						pathSteps = fileName.split(separator);
+					}
+					String destFileName = (pathSteps == null ? fileName : pathSteps[pathSteps.length-1]);
+					copyDirectory(sourceDir + separator + fileName, destinationDir + separator + destFileName);
 				}
-				String destFileName = (pathSteps == null ? fileName : pathSteps[pathSteps.length-1]);
-				copyDirectory(sourceDir + separator + fileName, destinationDir + separator + destFileName);
 			}
+		} finally {
+			finishFileTransfers();
 		}
 	}
 	
@@ -0,0 +1,56 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+/**
+ * <p>
+ * The IOutputListener interface specifies the operation that must be realized
+ * by classes in order to receive the output of a job launched by an Action as
+ * it is produced. The output is delivered in chunks of arbitrary size that are
+ * not split on line boundaries.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public interface IOutputListener {
+
+	/**
+	 * The name of the standard output stream.
+	 */
+	public static final String STDOUT = "stdout";
+
+	/**
+	 * The name of the standard error stream.
+	 */
+	public static final String STDERR = "stderr";
+
+	/**
+	 * <p>
+	 * This operation notifies the listener that new output was read from a
+	 * stream. It is called on the thread that reads the stream, so it should
+	 * return quickly. The buffer is reused after this operation returns and
+	 * must not be kept.
+	 * </p>
+	 *
+	 * @param streamName
+	 *            The name of the stream, either STDOUT or STDERR
+	 * @param buffer
+	 *            The buffer that holds the output
+	 * @param offset
+	 *            The index of the first character of the output in the buffer
+	 * @param length
+	 *            The number of characters of output
+	 */
+	public void outputReceived(String streamName, char[] buffer, int offset,
+			int length);
+}
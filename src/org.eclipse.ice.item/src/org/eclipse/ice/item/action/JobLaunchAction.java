@@ -12,13 +12,11 @@
  *******************************************************************************/
 package org.eclipse.ice.item.action;
 
-import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.file.Files;
@@ -30,6 +28,7 @@ import java.util.Date;
 import java.util.Dictionary;
 import java.util.Enumeration;
 import java.util.Hashtable;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -445,6 +444,11 @@ public class JobLaunchAction extends Action implements Runnable {
 	 */
 	private long maxFileSize;
 
+	/**
+	 * The listeners that receive the output of the job as it is produced.
+	 */
+	private final CopyOnWriteArrayList<IOutputListener> outputListeners = new CopyOnWriteArrayList<IOutputListener>();
+
 	/**
 	 * The Constructor.
 	 */
@@ -834,7 +838,6 @@ public class JobLaunchAction extends Action implements Runnable {
 		// Log the output
 		stdOutStream = job.getInputStream();
 		stdErrStream = job.getErrorStream();
-		logOutput(stdOutStream, stdErrStream);
 		if (logOutput(stdOutStream, stdErrStream).equals(FormStatus.InfoError)) {
 			// Throw an error if the streaming fails
 			return FormStatus.InfoError;
@@ -871,14 +874,26 @@ public class JobLaunchAction extends Action implements Runnable {
 		// Local Declarations
 		int exitValue = -32; // Totally arbitrary
 
+		// Local jobs can be waited on directly
+		if (isLocal.get()) {
+			try {
+				exitValue = job.waitFor();
+			} catch (InterruptedException e) {
+				// Complain
+				e.printStackTrace();
+			}
+			System.out.println("JobLaunchAction Message: Exit value = "
+					+ exitValue);
+			return;
+		}
+
 		// Wait until the job exits. By convention an exit code of
 		// zero means that the job has succeeded. Watch it until it
 		// finishes.
 		while (exitValue != 0) {
 			// Try to get the exit value of the job
 			try {
-				exitValue = (isLocal.get()) ? job.exitValue() : remoteJob
-						.exitValue();
+				exitValue = remoteJob.exitValue();
 			} catch (IllegalThreadStateException e) {
 				// Complain, but keep watching
 				e.printStackTrace();
@@ -899,7 +914,10 @@ public class JobLaunchAction extends Action implements Runnable {
 	}
 
 	/**
-	 * This operation logs the content of the output and error streams
+	 * This operation logs the content of the output and error streams. Both
+	 * streams are copied at the same time, in large chunks and without
+	 * changing their line endings, to the stdout and stderr files and to the
+	 * output listeners. It returns when both streams have ended.
 	 * 
 	 * @param output
 	 *            The output stream from the code
@@ -910,42 +928,49 @@ public class JobLaunchAction extends Action implements Runnable {
 	protected FormStatus logOutput(InputStream output, InputStream errors) {
 
 		// Local Declarations
-		InputStreamReader stdOutStreamReader, stdErrStreamReader;
-		BufferedReader stdOutReader, stdErrReader;
-		String nextLine;
-
-		// Setup the BufferedReader that will get stdout from the process.
-		stdOutStreamReader = new InputStreamReader(output);
-		stdOutReader = new BufferedReader(stdOutStreamReader);
-		// Setup the BufferedReader that will get stderr from the process.
-		stdErrStreamReader = new InputStreamReader(errors);
-		stdErrReader = new BufferedReader(stdErrStreamReader);
+		OutputStreamPump stdOutPump = new OutputStreamPump(
+				IOutputListener.STDOUT, output, stdOut, outputListeners);
+		OutputStreamPump stdErrPump = new OutputStreamPump(
+				IOutputListener.STDERR, errors, stdErr, outputListeners);
 
 		// Catch the stdout and stderr output
+		stdOutPump.start();
+		stdErrPump.start();
 		try {
-			// Write to the stdOut file
-			while ((nextLine = stdOutReader.readLine()) != null) {
-				stdOut.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdOut.write("\r\n");
-				stdOut.flush();
-			}
-			// Write to the stdErr file
-			while ((nextLine = stdErrReader.readLine()) != null) {
-				stdErr.write(nextLine);
-				// MUST put a new line for this type of writer. "\r\n" works on
-				// Windows and Unix-based systems.
-				stdErr.write("\r\n");
-				stdErr.flush();
-			}
-		} catch (IOException e) {
+			stdOutPump.join();
+			stdErrPump.join();
+		} catch (InterruptedException e) {
 			// Or fail and complain about it.
 			e.printStackTrace();
 			return FormStatus.InfoError;
 		}
 
-		return FormStatus.Processing;
+		return (stdOutPump.hasFailed() || stdErrPump.hasFailed()) ? FormStatus.InfoError
+				: FormStatus.Processing;
+	}
+
+	/**
+	 * This operation registers a listener that will receive the output of the
+	 * job as it is produced.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void addOutputListener(IOutputListener listener) {
+		if (listener != null) {
+			outputListeners.addIfAbsent(listener);
+		}
+	}
+
+	/**
+	 * This operation unregisters a listener so that it will no longer receive
+	 * the output of the job.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeOutputListener(IOutputListener listener) {
+		outputListeners.remove(listener);
 	}
 
 	/**
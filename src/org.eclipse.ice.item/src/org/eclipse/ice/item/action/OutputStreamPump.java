@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.action;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * <p>
+ * The OutputStreamPump copies the output of a process from a stream to a
+ * Writer on its own thread. The output is copied in large chunks exactly as it
+ * was produced, without splitting it into lines, and each chunk is also sent
+ * to a list of IOutputListeners. Only one chunk is held in memory at a time,
+ * so the amount of memory used does not depend on the amount of output.
+ * </p>
+ * <p>
+ * Pumping the standard output and error streams of a process on separate
+ * threads keeps the process from blocking when it fills one of them while the
+ * other is being read.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class OutputStreamPump implements Runnable {
+
+	/**
+	 * The size of the chunks in characters.
+	 */
+	public static final int CHUNK_SIZE = 64 * 1024;
+
+	/**
+	 * The name of the stream, which is passed to the listeners.
+	 */
+	private final String streamName;
+
+	/**
+	 * The stream from which the output is read.
+	 */
+	private final InputStream input;
+
+	/**
+	 * The Writer to which the output is copied. It may be null.
+	 */
+	private final Writer output;
+
+	/**
+	 * The listeners that receive the output. It should be a thread-safe list
+	 * since it is read on the pump's thread.
+	 */
+	private final List<IOutputListener> listeners;
+
+	/**
+	 * The thread on which the pump runs.
+	 */
+	private Thread thread;
+
+	/**
+	 * True if the pump failed to read or write the output.
+	 */
+	private volatile boolean failed = false;
+
+	/**
+	 * The Constructor
+	 *
+	 * @param streamName
+	 *            The name of the stream, such as IOutputListener.STDOUT
+	 * @param input
+	 *            The stream from which the output should be read
+	 * @param output
+	 *            The Writer to which the output should be copied or null if it
+	 *            should only be sent to the listeners
+	 * @param listeners
+	 *            The listeners that should receive the output or null if there
+	 *            are none
+	 */
+	public OutputStreamPump(String streamName, InputStream input,
+			Writer output, List<IOutputListener> listeners) {
+		this.streamName = streamName;
+		this.input = input;
+		this.output = output;
+		this.listeners = listeners;
+	}
+
+	/**
+	 * This operation starts the pump on a new daemon thread.
+	 */
+	public void start() {
+		thread = new Thread(this, "ICE Output Pump (" + streamName + ")");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * This operation waits for the pump to reach the end of the stream.
+	 *
+	 * @throws InterruptedException
+	 */
+	public void join() throws InterruptedException {
+		if (thread != null) {
+			thread.join();
+		}
+	}
+
+	/**
+	 * This operation returns true if the pump failed to read or write the
+	 * output.
+	 *
+	 * @return True if the pump failed
+	 */
+	public boolean hasFailed() {
+		return failed;
+	}
+
+	/**
+	 * This operation copies the stream until it ends.
+	 */
+	@Override
+	public void run() {
+
+		// Local Declarations
+		Reader reader = new InputStreamReader(input);
+		char[] buffer = new char[CHUNK_SIZE];
+		int count;
+
+		try {
+			// Copy whatever is available, up to a chunk at a time
+			while ((count = reader.read(buffer, 0, buffer.length)) != -1) {
+				if (output != null) {
+					output.write(buffer, 0, count);
+					output.flush();
+				}
+				if (listeners != null) {
+					for (IOutputListener listener : listeners) {
+						// A bad listener must not stop the copy or the
+						// process will block on a full pipe.
+						try {
+							listener.outputReceived(streamName, buffer, 0,
+									count);
+						} catch (RuntimeException e) {
+							e.printStackTrace();
+						}
+					}
+				}
+			}
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			failed = true;
+		}
+
+		return;
+	}
+}
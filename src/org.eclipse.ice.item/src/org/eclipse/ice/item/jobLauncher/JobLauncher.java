@@ -12,19 +12,27 @@
  *******************************************************************************/
 package org.eclipse.ice.item.jobLauncher;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
+import java.io.Closeable;
 import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlElement;
@@ -46,6 +54,7 @@ import org.eclipse.ice.datastructures.resource.ICEResource;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
 import org.eclipse.ice.item.Item;
 import org.eclipse.ice.item.ItemType;
+import org.eclipse.ice.item.action.IOutputListener;
 import org.eclipse.ice.item.action.JobLaunchAction;
 import org.eclipse.ice.item.jobLauncher.JobLauncherForm;
 
@@ -229,6 +238,26 @@ public class JobLauncher extends Item {
 	@XmlTransient()
 	private HashMap<IResource, Long> workingDirMemberModMap;
 
+	/**
+	 * The listeners that receive the output of the job as it is produced. They
+	 * are registered with each JobLaunchAction that this JobLauncher creates.
+	 */
+	@XmlTransient()
+	private final CopyOnWriteArrayList<IOutputListener> outputListeners = new CopyOnWriteArrayList<IOutputListener>();
+
+	/**
+	 * The largest number of bytes copied from the stdout or stderr file to the
+	 * output file in one transfer.
+	 */
+	private static final long OUTPUT_CHUNK_SIZE = 1024 * 1024;
+
+	/**
+	 * The longest time in milliseconds that the output streaming thread waits
+	 * for a change in the stdout and stderr files before checking the status
+	 * of the job again.
+	 */
+	private static final long OUTPUT_WAIT_TIME = 500;
+
 	/**
 	 * This is a utility class used to describe a type of file by the
 	 * JobLauncher.
@@ -919,8 +948,12 @@ public class JobLauncher extends Item {
 				}
 				// Create the output files in the project space
 				createOutputFiles();
-				// Launch the action
-				action = new JobLaunchAction();
+				// Launch the action with the output listeners attached
+				JobLaunchAction launchAction = new JobLaunchAction();
+				for (IOutputListener listener : outputListeners) {
+					launchAction.addOutputListener(listener);
+				}
+				action = launchAction;
 				localStatus = action.execute(actionDataMap);
 			} else {
 				localStatus = FormStatus.InfoError;
@@ -939,85 +972,184 @@ public class JobLauncher extends Item {
 	/**
 	 * This operations grabs the information from the stdout and stderr files
 	 * and puts it into the output file for JobLauncher that is consumed by
-	 * clients.
+	 * clients. New data is copied in large chunks as soon as the files change,
+	 * without reading it into memory or splitting it into lines.
 	 */
 	private void streamOutputData() {
 
+		// There is nothing to stream if the job was not launched
+		if (action == null || actionDataMap == null) {
+			return;
+		}
+
 		// Create the thread
 		Thread streamingThread = new Thread(new Runnable() {
 			public void run() {
 				// Local Declarations
 				File stdout = new File(actionDataMap.get("stdOutFileName")), stderr = new File(
 						actionDataMap.get("stdErrFileName"));
-				FileWriter outputFileWriter = null;
-				BufferedWriter outputFileBufferedWriter = null;
-				FileReader stdoutReader = null, stderrReader = null;
-				BufferedReader stdoutBufferredReader = null, stderrBufferredReader = null;
-				String line = null;
+				FileOutputStream outputStream = null;
+				FileInputStream stdoutStream = null, stderrStream = null;
+				WatchService watcher = null;
+				long stdoutPosition = 0, stderrPosition = 0;
+				boolean running = true;
 
 				try {
 					// Open the output file for writing
-					outputFileWriter = new FileWriter(outputFile);
-					outputFileBufferedWriter = new BufferedWriter(
-							outputFileWriter);
+					outputStream = new FileOutputStream(outputFile);
+					FileChannel outputChannel = outputStream.getChannel();
 					// Open the JobLauncherAction stdout file for reading
-					stdoutReader = new FileReader(stdout);
-					stdoutBufferredReader = new BufferedReader(stdoutReader);
+					stdoutStream = new FileInputStream(stdout);
+					FileChannel stdoutChannel = stdoutStream.getChannel();
 					// Open the JobLauncherAction stderr file
-					stderrReader = new FileReader(stderr);
-					stderrBufferredReader = new BufferedReader(stderrReader);
-					// Run until the launcher is done processing
-					while (status.equals(FormStatus.Processing)
-							|| status.equals(FormStatus.NeedsInfo)) {
-						// Read stdout into the output file
-						while ((line = stdoutBufferredReader.readLine()) != null) {
-							outputFileBufferedWriter.write(line);
-							outputFileBufferedWriter.write("\r\n");
-						}
-						// Read stderr into the output file
-						while ((line = stderrBufferredReader.readLine()) != null) {
-							outputFileBufferedWriter.write(line);
-							outputFileBufferedWriter.write("\r\n");
-						}
-						// Flush!
-						outputFileBufferedWriter.flush();
-						// Sleep for a bit
-						Thread.currentThread();
-						Thread.sleep(100);
+					stderrStream = new FileInputStream(stderr);
+					FileChannel stderrChannel = stderrStream.getChannel();
+					// Watch the directories that hold the files so that new
+					// output is copied as soon as it is written
+					watcher = FileSystems.getDefault().newWatchService();
+					HashSet<Path> directories = new HashSet<Path>();
+					directories.add(stdout.getAbsoluteFile().getParentFile()
+							.toPath());
+					directories.add(stderr.getAbsoluteFile().getParentFile()
+							.toPath());
+					for (Path directory : directories) {
+						directory.register(watcher,
+								StandardWatchEventKinds.ENTRY_MODIFY);
+					}
+					// Run until the launcher is done processing. The files are
+					// copied once more after it finishes to catch the end of
+					// the output.
+					while (running) {
 						status = action.getStatus();
+						running = status.equals(FormStatus.Processing)
+								|| status.equals(FormStatus.NeedsInfo);
+						// Copy the new parts of stdout and stderr into the
+						// output file
+						stdoutPosition = transferOutput(stdoutChannel,
+								stdoutPosition, outputChannel);
+						stderrPosition = transferOutput(stderrChannel,
+								stderrPosition, outputChannel);
+						// Wait for the next change, but not forever since the
+						// status may change without any new output.
+						if (running) {
+							WatchKey key = watcher.poll(OUTPUT_WAIT_TIME,
+									TimeUnit.MILLISECONDS);
+							if (key != null) {
+								key.pollEvents();
+								key.reset();
+							}
+						}
 					}
-					// Close stdout
-					stdoutBufferredReader.close();
-					stdoutReader.close();
-					// Close stderr
-					stderrBufferredReader.close();
-					stderrReader.close();
-					// Close the output file
-					outputFileBufferedWriter.close();
-					outputFileWriter.close();
 					// Check the project space to see if new resources were
 					// downloaded that should be added to the ICEResource.
 					updateResourceComponent();
 				} catch (IOException e) {
 					// Complain and return
 					e.printStackTrace();
-					return;
 				} catch (InterruptedException e) {
 					// Complain and return
 					e.printStackTrace();
-					return;
+				} finally {
+					// Close the files and the watcher
+					closeOutputResource(stdoutStream);
+					closeOutputResource(stderrStream);
+					closeOutputResource(outputStream);
+					closeOutputResource(watcher);
 				}
 
+				return;
 			}
 		});
 
 		// Start the thread
 		System.out.println("JobLauncher Message: Starting output data stream.");
+		streamingThread.setDaemon(true);
 		streamingThread.start();
 
 		return;
 	}
 
+	/**
+	 * This operation copies everything that was written to a file since the
+	 * last call into the output file, one chunk at a time.
+	 * 
+	 * @param source
+	 *            The channel of the file that is being copied
+	 * @param position
+	 *            The position in the file up to which it was already copied
+	 * @param target
+	 *            The channel of the output file
+	 * @return The new position up to which the file was copied
+	 * @throws IOException
+	 */
+	private long transferOutput(FileChannel source, long position,
+			FileChannel target) throws IOException {
+
+		// Local Declarations
+		long size = source.size();
+		long count;
+
+		// Copy the new data
+		while (position < size) {
+			count = source.transferTo(position,
+					Math.min(size - position, OUTPUT_CHUNK_SIZE), target);
+			if (count <= 0) {
+				break;
+			}
+			position += count;
+		}
+
+		return position;
+	}
+
+	/**
+	 * This operation closes a file or watcher used to stream the output and
+	 * complains if it can't.
+	 * 
+	 * @param resource
+	 *            The resource to close. It may be null.
+	 */
+	private void closeOutputResource(Closeable resource) {
+		if (resource != null) {
+			try {
+				resource.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * This operation registers a listener that will receive the output of the
+	 * jobs launched by this JobLauncher as it is produced. It is attached to
+	 * every job launched after it is registered.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void addOutputListener(IOutputListener listener) {
+		if (listener != null) {
+			outputListeners.addIfAbsent(listener);
+			if (action instanceof JobLaunchAction) {
+				((JobLaunchAction) action).addOutputListener(listener);
+			}
+		}
+	}
+
+	/**
+	 * This operation unregisters a listener so that it no longer receives the
+	 * output of the jobs launched by this JobLauncher.
+	 * 
+	 * @param listener
+	 *            The listener
+	 */
+	public void removeOutputListener(IOutputListener listener) {
+		outputListeners.remove(listener);
+		if (action instanceof JobLaunchAction) {
+			((JobLaunchAction) action).removeOutputListener(listener);
+		}
+	}
+
 	/**
 	 * <p>
 	 * This operation adds a host to the set of available hosts on which the
@@ -361,11 +361,14 @@ public class MOOSELauncher extends SuiteLauncher implements IUpdateableListener
 
 			// Get all files that end with .yaml or .syntax and move them from
 			// the
-			// MooseLauncher working directory to the MOOSE folder.
+			// MooseLauncher working directory to the MOOSE folder. Batch the
+			// moves so that the folders are only refreshed once.
+			startFileTransfers();
 			moveFiles(workingDirectory, mooseFolder.getLocation().toOSString(),
 					".yaml");
 			moveFiles(workingDirectory, mooseFolder.getLocation().toOSString(),
 					".syntax");
+			finishFileTransfers();
 
 			// Clean up the MOOSE yaml/syntax files.
 			try {
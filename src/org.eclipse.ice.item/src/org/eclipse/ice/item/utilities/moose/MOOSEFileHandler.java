@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.ice.item.utilities.moose;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
@@ -26,6 +27,7 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Stack;
 
 import org.eclipse.core.resources.IFile;
@@ -80,6 +82,12 @@ public class MOOSEFileHandler implements IReader, IWriter {
 	 */
 	private static boolean debugFlag = false;
 
+	/**
+	 * The lock that keeps two handlers from loading the same YAML
+	 * specification at the same time.
+	 */
+	private static final Object yamlLock = new Object();
+
 	/**
 	 * Set the debug flag
 	 */
@@ -338,40 +346,138 @@ public class MOOSEFileHandler implements IReader, IWriter {
 	 *         and stored in TreeComposites. Each TreeComposite contains both
 	 *         parameters and exemplar children. Any parameters in a
 	 *         TreeComposite are contained in a DataComponent. The id of the
-	 *         data component is 1.
+	 *         data component is 1. The trees are a deep copy of the
+	 *         specification in the YAMLCache, so the caller may modify them.
 	 * @throws IOException
 	 */
 	public ArrayList<TreeComposite> loadYAML(String filePath)
 			throws IOException {
 
 		// Local Declarations
-		InputStream input = null;
-		String syntaxFilePath, treeName;
-		ArrayList<String> hardPathsList = null;
 		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
-		Map<String, TreeComposite> treeMap = null;
-		TreeComposite oneUpTree = null;
 
 		// Quit if the path is boned
 		if (filePath == null || filePath.isEmpty()) {
 			return null;
 		}
 
-		// Get a handle on the YAML file
+		// Deep copy the shared specification so that the caller can modify
+		// it without changing the cached trees
+		for (TreeComposite tree : getYAMLTrees(filePath)) {
+			trees.add((TreeComposite) tree.clone());
+		}
+
+		return trees;
+	}
+
+	/**
+	 * This operation returns the TreeComposites of a MOOSE YAML file from the
+	 * YAMLCache, loading them first if they are not already there. The trees
+	 * are shared by every caller and must not be modified.
+	 * 
+	 * @param filePath
+	 *            The file path from which the MOOSE blocks written in YAML
+	 *            should be read.
+	 * @return The shared MOOSE input file specification.
+	 * @throws IOException
+	 */
+	private ArrayList<TreeComposite> getYAMLTrees(String filePath)
+			throws IOException {
+
+		// Local Declarations
 		File yamlFile = new File(filePath);
-		input = new FileInputStream(yamlFile);
+		String syntaxFilePath = filePath.substring(0,
+				filePath.indexOf(".yaml"))
+				+ ".syntax";
+		File syntaxFile = new File(syntaxFilePath);
+		ArrayList<TreeComposite> trees = null;
+		List<?> list = null;
+
+		// Only load each specification once, even if several Items ask for it
+		// at the same time
+		synchronized (yamlLock) {
+			trees = YAMLCache.getTrees(yamlFile, syntaxFile);
+			if (trees == null) {
+				// Use the binary copy of the YAML if it is up to date
+				list = YAMLCache.readSyntax(yamlFile);
+				if (list == null) {
+					list = parseYAML(yamlFile);
+					YAMLCache.writeSyntax(yamlFile, list);
+				} else if (debugFlag) {
+					System.out.println("MOOSEFileHandler Message: Loaded "
+							+ "cached YAML for " + filePath);
+				}
+				trees = buildYAMLTrees(list, syntaxFilePath);
+				YAMLCache.putTrees(yamlFile, syntaxFile, trees);
+			} else if (debugFlag) {
+				System.out.println("MOOSEFileHandler Message: Using cached "
+						+ "specification for " + filePath);
+			}
+		}
+
+		return trees;
+	}
+
+	/**
+	 * This operation parses a MOOSE YAML file.
+	 * 
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @return The list of block maps in the file.
+	 * @throws IOException
+	 */
+	private List<?> parseYAML(File yamlFile) throws IOException {
+
+		// Local Declarations
+		InputStream input = new BufferedInputStream(new FileInputStream(
+				yamlFile), 65536);
+		List<?> list = null;
 
 		// Load the YAML tree
 		if (debugFlag) {
 			System.out.println("MOOSEFileHandler Message: Loading YAML file "
-					+ filePath.toString());
+					+ yamlFile.getPath());
+		}
+		try {
+			Yaml yaml = new Yaml();
+			list = (List<?>) yaml.load(input);
+		} finally {
+			// Close the files
+			try {
+				input.close();
+			} catch (IOException e) {
+				// Complain
+				e.printStackTrace();
+			}
 		}
-		Yaml yaml = new Yaml();
-		ArrayList<?> list = (ArrayList<?>) yaml.load(input);
 		if (debugFlag) {
 			System.out.println("MOOSEFileHandler Message: File loaded.");
 		}
 
+		return list;
+	}
+
+	/**
+	 * This operation converts the block maps of a MOOSE YAML file into
+	 * TreeComposites and replaces the blocks listed in the action syntax file
+	 * that have types with AdaptiveTreeComposites.
+	 * 
+	 * @param list
+	 *            The list of block maps in the YAML file.
+	 * @param syntaxFilePath
+	 *            The path of the action syntax file.
+	 * @return The MOOSE input file specification.
+	 */
+	private ArrayList<TreeComposite> buildYAMLTrees(List<?> list,
+			String syntaxFilePath) {
+
+		// Local Declarations
+		String treeName;
+		int prevNameIndex;
+		ArrayList<String> hardPathsList = null;
+		ArrayList<TreeComposite> trees = new ArrayList<TreeComposite>();
+		Map<String, TreeComposite> treeMap = null;
+
 		// Load the block list. Use YAMLBlocks so that they can be converted to
 		// TreeComposites appropriately.
 		for (int i = 0; i < list.size(); i++) {
@@ -381,14 +487,6 @@ public class MOOSEFileHandler implements IReader, IWriter {
 			trees.add(block.toTreeComposite());
 		}
 
-		// Close the files
-		try {
-			input.close();
-		} catch (IOException e) {
-			// Complain
-			e.printStackTrace();
-		}
-
 		// Put all the names of top-level nodes into a list (we use this later)
 		ArrayList<String> topLevelNodes = new ArrayList<String>();
 		for (TreeComposite node : trees) {
@@ -397,70 +495,9 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		// Instantiate a HashMap that all TreeComposites and their exemplar
 		// children trees can be added to, keyed by absolute path name
 		treeMap = new HashMap<String, TreeComposite>();
-
-		// Create empty stack for TreeComposites
-		Stack<TreeComposite> treeStack = new Stack<TreeComposite>();
-		treeStack.push(null);
-
-		// Push the top level TreeComposites from the ArrayList first on first
 		for (TreeComposite tree : trees) {
-			treeStack.push(tree);
+			mapTrees(tree, tree.getName(), treeMap);
 		}
-		// Pop one of the top-level trees off to start.
-		TreeComposite tree = treeStack.pop();
-		ArrayList<TreeComposite> childExemplars;
-		treeName = "";
-		int prevNameIndex;
-		while (tree != null) {
-
-			// Append to the tree name
-			treeName += "/" + tree.getName();
-
-			// Put the tree in the Map, keyed on path name
-			treeMap.put((treeName.startsWith("/") ? treeName.substring(1)
-					: treeName), tree);
-
-			// Push child exemplars to the top of the tree stack
-			childExemplars = tree.getChildExemplars();
-			for (int i = (childExemplars.size() - 1); i >= 0; i--) {
-				treeStack.push(childExemplars.get(i));
-			}
-
-			// If the next tree in the stack is a top-level tree, clear the
-			// path name
-			if (trees.contains(treeStack.peek())) {
-				treeName = "";
-			}
-
-			// Otherwise, if the current tree didn't have child exemplars to
-			// push onto the stack, remove the last "part" of the path name, as
-			// we'll be going back up one level
-			else if (childExemplars.isEmpty()) {
-
-				// Get the name of the tree one level up
-				prevNameIndex = treeName.lastIndexOf("/" + tree.getName());
-				treeName = treeName.substring(0, prevNameIndex);
-
-				// Go up another level if the next tree in the stack isn't
-				// a child exemplar of the current tree referenced by treeName
-				oneUpTree = treeMap.get(treeName.substring(1));
-				if (oneUpTree != null
-						&& !oneUpTree.getChildExemplars().contains(
-								treeStack.peek())) {
-					prevNameIndex = treeName.lastIndexOf("/");
-					treeName = ((prevNameIndex == 0 || prevNameIndex == -1) ? treeName
-							: treeName.substring(0, prevNameIndex));
-				}
-
-			}
-
-			// Pop the next tree off the stack
-			tree = treeStack.pop();
-		}
-
-		// Define the file path of the action syntax file
-		int yamlIndex = filePath.indexOf(".yaml");
-		syntaxFilePath = filePath.substring(0, yamlIndex) + ".syntax";
 
 		// Load the list of all "hard" paths from the action syntax file
 		try {
@@ -599,6 +636,28 @@ public class MOOSEFileHandler implements IReader, IWriter {
 		return newTrees;
 	}
 
+	/**
+	 * This operation adds a tree and all of its child exemplars to a map keyed
+	 * on their paths in the specification, such as "Kernels/Diffusion".
+	 * 
+	 * @param tree
+	 *            The tree to add.
+	 * @param path
+	 *            The path of the tree.
+	 * @param treeMap
+	 *            The map of trees keyed on their paths.
+	 */
+	private void mapTrees(TreeComposite tree, String path,
+			Map<String, TreeComposite> treeMap) {
+
+		treeMap.put(path, tree);
+		for (TreeComposite child : tree.getChildExemplars()) {
+			mapTrees(child, path + "/" + child.getName(), treeMap);
+		}
+
+		return;
+	}
+
 	/**
 	 * This method is responsible for loading the action syntax file associated
 	 * with a MOOSE app. It reads through the list of paths and returns the
@@ -774,7 +833,7 @@ public class MOOSEFileHandler implements IReader, IWriter {
 				// Parse the extension to see if we are loading
 				// YAML or input files.
 				if (fileExt.toLowerCase().equals("yaml")) {
-					blocks = loadYAML(mooseFile.getAbsolutePath());
+					blocks = getYAMLTrees(mooseFile.getAbsolutePath());
 				} else if (fileExt.toLowerCase().equals("i")) {
 					blocks = loadFromGetPot(mooseFile.getAbsolutePath());
 				}
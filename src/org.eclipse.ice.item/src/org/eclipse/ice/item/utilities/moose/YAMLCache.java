@@ -0,0 +1,550 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.utilities.moose;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.osgi.framework.Bundle;
+
+/**
+ * <p>
+ * This class caches the MOOSE input specifications that the MOOSEFileHandler
+ * loads from YAML files so that each specification is only parsed and built
+ * once. The YAML dump of a large MOOSE application is tens of megabytes and it
+ * would otherwise be parsed again every time a MOOSE Item is created or
+ * reloaded.
+ * </p>
+ * <p>
+ * There are two levels to the cache. The TreeComposites built from a YAML file
+ * are kept in memory and shared by every Item that uses the same application.
+ * They must never be modified, so the MOOSEFileHandler hands out a deep copy
+ * of every tree, made with clone(), each time a specification is requested.
+ * The copy still costs time and memory in proportion to the size of the
+ * specification, but it is much cheaper than parsing the YAML and building
+ * the trees again. The copies are not copy-on-write. The only part they share
+ * with the cached trees is the map of type exemplars of each
+ * AdaptiveTreeComposite, which AdaptiveTreeComposite.copy() has always copied
+ * by reference. setType() copies an exemplar into the composite instead of
+ * changing it, so the shared exemplars are left alone. The trees are held
+ * through soft references so that they can be reclaimed if memory runs low.
+ * </p>
+ * <p>
+ * The parsed YAML is also written to a compact binary file so that later
+ * sessions can skip the YAML parser. Strings that appear more than once, such
+ * as the keys of the YAML maps, are only stored once. The binary files are
+ * kept in the state location of this bundle or, outside of the platform, in
+ * the .ice directory of the user's home directory, so they are never shared
+ * with other users. A binary file that cannot be read for any reason is
+ * treated as if it did not exist.
+ * </p>
+ * <p>
+ * Both levels are keyed on the absolute path of the YAML file and are
+ * discarded when the modification time or the size of the YAML file or its
+ * action syntax file changes.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public final class YAMLCache {
+
+	/**
+	 * The number at the start of every binary cache file.
+	 */
+	private static final int magicNumber = 0x4D4F4F53;
+
+	/**
+	 * The version of the binary format. It must be changed when the format
+	 * changes so that old cache files are ignored.
+	 */
+	private static final int formatVersion = 1;
+
+	/**
+	 * The tags that mark the type of each value in the binary format.
+	 */
+	private static final byte nullTag = 0, stringTag = 1, stringReferenceTag = 2,
+			trueTag = 3, falseTag = 4, integerTag = 5, longTag = 6,
+			doubleTag = 7, listTag = 8, mapTag = 9;
+
+	/**
+	 * The character set of the strings in the binary format.
+	 */
+	private static final Charset utf8 = Charset.forName("UTF-8");
+
+	/**
+	 * The TreeComposites built from each YAML file, keyed on its absolute
+	 * path.
+	 */
+	private static final HashMap<String, CachedTrees> cachedTrees = new HashMap<String, CachedTrees>();
+
+	/**
+	 * The directory that holds the binary cache files.
+	 */
+	private static volatile File cacheDirectory = getDefaultCacheDirectory();
+
+	/**
+	 * The trees built from a YAML file and the state of the files when they
+	 * were built.
+	 */
+	private static class CachedTrees {
+
+		/**
+		 * The modification times and sizes of the YAML and action syntax
+		 * files.
+		 */
+		private final long[] stamp;
+
+		/**
+		 * The trees.
+		 */
+		private final SoftReference<ArrayList<TreeComposite>> trees;
+
+		/**
+		 * The constructor
+		 *
+		 * @param stamp
+		 *            the modification times and sizes of the files
+		 * @param trees
+		 *            the trees
+		 */
+		private CachedTrees(long[] stamp, ArrayList<TreeComposite> trees) {
+			this.stamp = stamp;
+			this.trees = new SoftReference<ArrayList<TreeComposite>>(trees);
+		}
+	}
+
+	/**
+	 * The constructor is private because the cache is shared.
+	 */
+	private YAMLCache() {
+	}
+
+	/**
+	 * This operation returns the trees that were built from a YAML file if
+	 * neither the YAML file nor its action syntax file changed since.
+	 *
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @param syntaxFile
+	 *            The action syntax file of the YAML file.
+	 * @return The shared trees, which must not be modified, or null if they
+	 *         are not in the cache.
+	 */
+	static synchronized ArrayList<TreeComposite> getTrees(File yamlFile,
+			File syntaxFile) {
+
+		// Local Declarations
+		CachedTrees entry = cachedTrees.get(yamlFile.getAbsolutePath());
+		ArrayList<TreeComposite> trees = null;
+
+		// Only use the trees if the files did not change
+		if (entry != null
+				&& Arrays.equals(entry.stamp,
+						getStamp(yamlFile, syntaxFile))) {
+			trees = entry.trees.get();
+		}
+
+		return trees;
+	}
+
+	/**
+	 * This operation stores the trees built from a YAML file.
+	 *
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @param syntaxFile
+	 *            The action syntax file of the YAML file.
+	 * @param trees
+	 *            The trees. They must not be modified afterward.
+	 */
+	static synchronized void putTrees(File yamlFile, File syntaxFile,
+			ArrayList<TreeComposite> trees) {
+		cachedTrees.put(yamlFile.getAbsolutePath(), new CachedTrees(getStamp(
+				yamlFile, syntaxFile), trees));
+	}
+
+	/**
+	 * This operation removes all of the trees from the memory cache. The
+	 * binary cache files are kept.
+	 */
+	public static synchronized void clear() {
+		cachedTrees.clear();
+	}
+
+	/**
+	 * This operation sets the directory that holds the binary cache files.
+	 *
+	 * @param directory
+	 *            The directory. It is created when the first file is written.
+	 */
+	public static void setCacheDirectory(File directory) {
+		if (directory != null) {
+			cacheDirectory = directory;
+		}
+	}
+
+	/**
+	 * This operation returns the directory that holds the binary cache files
+	 * by default. It is in the state location of this bundle if the platform
+	 * is running and in the user's home directory otherwise.
+	 *
+	 * @return The directory.
+	 */
+	private static File getDefaultCacheDirectory() {
+
+		// Use the state location of the bundle if there is one
+		try {
+			Bundle bundle = Platform.isRunning() ? Platform
+					.getBundle("org.eclipse.ice.item") : null;
+			if (bundle != null) {
+				return new File(Platform.getStateLocation(bundle).toFile(),
+						"moose-cache");
+			}
+		} catch (RuntimeException | LinkageError e) {
+			// The platform is not running, so use the home directory
+		}
+
+		return new File(System.getProperty("user.home"), ".ice"
+				+ File.separator + "moose-cache");
+	}
+
+	/**
+	 * This operation reads the parsed contents of a YAML file from its binary
+	 * cache file.
+	 *
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @return The YAML contents as the lists, maps and scalars created by the
+	 *         YAML parser, or null if there is no cache file or it is out of
+	 *         date.
+	 */
+	static List<?> readSyntax(File yamlFile) {
+
+		// Local Declarations
+		File cacheFile = getCacheFile(cacheDirectory, yamlFile);
+		Object syntax = null;
+		DataInputStream input = null;
+
+		if (cacheFile.isFile()) {
+			try {
+				input = new DataInputStream(new BufferedInputStream(
+						new FileInputStream(cacheFile), 65536));
+				// Check that the cache file belongs to this version of the
+				// YAML file
+				if (input.readInt() == magicNumber
+						&& input.readInt() == formatVersion
+						&& input.readUTF().equals(yamlFile.getAbsolutePath())
+						&& input.readLong() == yamlFile.lastModified()
+						&& input.readLong() == yamlFile.length()) {
+					syntax = readValue(input, new ArrayList<String>(),
+							cacheFile.length());
+				}
+			} catch (Exception | StackOverflowError e) {
+				// A bad cache file is the same as no cache file, whatever is
+				// wrong with it
+				syntax = null;
+			} finally {
+				close(input);
+			}
+		}
+
+		return (syntax instanceof List) ? (List<?>) syntax : null;
+	}
+
+	/**
+	 * This operation writes the parsed contents of a YAML file to its binary
+	 * cache file. Nothing is written if the contents have values that the
+	 * binary format does not support.
+	 *
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @param syntax
+	 *            The YAML contents as the lists, maps and scalars created by
+	 *            the YAML parser.
+	 */
+	static void writeSyntax(File yamlFile, List<?> syntax) {
+
+		// Local Declarations
+		File directory = cacheDirectory;
+		File cacheFile = getCacheFile(directory, yamlFile);
+		File tmpFile = null;
+		DataOutputStream output = null;
+		boolean written = false;
+
+		// Write the file under a unique temporary name and rename it when it
+		// is complete so that a partial file is never read, even if several
+		// sessions write it at once
+		if (directory.isDirectory() || directory.mkdirs()) {
+			try {
+				tmpFile = File.createTempFile(cacheFile.getName(), ".tmp",
+						directory);
+				output = new DataOutputStream(new BufferedOutputStream(
+						new FileOutputStream(tmpFile), 65536));
+				output.writeInt(magicNumber);
+				output.writeInt(formatVersion);
+				output.writeUTF(yamlFile.getAbsolutePath());
+				output.writeLong(yamlFile.lastModified());
+				output.writeLong(yamlFile.length());
+				writeValue(output, syntax, new HashMap<String, Integer>());
+				output.close();
+				output = null;
+				cacheFile.delete();
+				written = tmpFile.renameTo(cacheFile);
+			} catch (IOException e) {
+				// The YAML will just be parsed again next time
+				written = false;
+			} finally {
+				close(output);
+				if (!written && tmpFile != null) {
+					tmpFile.delete();
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation returns the binary cache file of a YAML file.
+	 *
+	 * @param directory
+	 *            The directory that holds the binary cache files.
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @return The cache file.
+	 */
+	private static File getCacheFile(File directory, File yamlFile) {
+		String path = yamlFile.getAbsolutePath();
+		return new File(directory, yamlFile.getName() + "-"
+				+ Integer.toHexString(path.hashCode()) + ".bin");
+	}
+
+	/**
+	 * This operation returns the modification times and sizes of a YAML file
+	 * and its action syntax file.
+	 *
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @param syntaxFile
+	 *            The action syntax file.
+	 * @return The modification times and sizes.
+	 */
+	private static long[] getStamp(File yamlFile, File syntaxFile) {
+		return new long[] { yamlFile.lastModified(), yamlFile.length(),
+				syntaxFile.lastModified(), syntaxFile.length() };
+	}
+
+	/**
+	 * This operation writes one value and, for lists and maps, everything in
+	 * it.
+	 *
+	 * @param output
+	 *            The stream to write.
+	 * @param value
+	 *            The value.
+	 * @param strings
+	 *            The index of each string that was already written.
+	 * @throws IOException
+	 *             Thrown if the value cannot be written or is not supported.
+	 */
+	private static void writeValue(DataOutputStream output, Object value,
+			HashMap<String, Integer> strings) throws IOException {
+
+		if (value == null) {
+			output.writeByte(nullTag);
+		} else if (value instanceof String) {
+			// Write each string once and refer to it afterward
+			Integer index = strings.get(value);
+			if (index != null) {
+				output.writeByte(stringReferenceTag);
+				output.writeInt(index);
+			} else {
+				byte[] bytes = ((String) value).getBytes(utf8);
+				output.writeByte(stringTag);
+				output.writeInt(bytes.length);
+				output.write(bytes);
+				strings.put((String) value, strings.size());
+			}
+		} else if (value instanceof Boolean) {
+			output.writeByte((Boolean) value ? trueTag : falseTag);
+		} else if (value instanceof Integer) {
+			output.writeByte(integerTag);
+			output.writeInt((Integer) value);
+		} else if (value instanceof Long) {
+			output.writeByte(longTag);
+			output.writeLong((Long) value);
+		} else if (value instanceof Double) {
+			output.writeByte(doubleTag);
+			output.writeDouble((Double) value);
+		} else if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			output.writeByte(listTag);
+			output.writeInt(list.size());
+			for (Object element : list) {
+				writeValue(output, element, strings);
+			}
+		} else if (value instanceof Map) {
+			Map<?, ?> map = (Map<?, ?>) value;
+			output.writeByte(mapTag);
+			output.writeInt(map.size());
+			for (Map.Entry<?, ?> mapEntry : map.entrySet()) {
+				writeValue(output, mapEntry.getKey(), strings);
+				writeValue(output, mapEntry.getValue(), strings);
+			}
+		} else {
+			throw new IOException("YAMLCache Message: Unsupported value "
+					+ "type " + value.getClass().getName());
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads one value and, for lists and maps, everything in
+	 * it. Lists are read as ArrayLists and maps as LinkedHashMaps, as the
+	 * YAML parser creates them.
+	 *
+	 * @param input
+	 *            The stream to read.
+	 * @param strings
+	 *            The strings that were already read, in order.
+	 * @param limit
+	 *            The size of the file. No string or list can be longer.
+	 * @return The value.
+	 * @throws IOException
+	 *             Thrown if the value cannot be read.
+	 */
+	private static Object readValue(DataInputStream input,
+			ArrayList<String> strings, long limit) throws IOException {
+
+		// Local Declarations
+		Object value = null;
+		byte tag = input.readByte();
+		int size;
+
+		switch (tag) {
+		case nullTag:
+			value = null;
+			break;
+		case stringTag:
+			byte[] bytes = new byte[readSize(input, limit)];
+			input.readFully(bytes);
+			String string = new String(bytes, utf8);
+			strings.add(string);
+			value = string;
+			break;
+		case stringReferenceTag:
+			int index = input.readInt();
+			if (index < 0 || index >= strings.size()) {
+				throw new IOException("YAMLCache Message: Bad string "
+						+ "reference " + index);
+			}
+			value = strings.get(index);
+			break;
+		case trueTag:
+			value = Boolean.TRUE;
+			break;
+		case falseTag:
+			value = Boolean.FALSE;
+			break;
+		case integerTag:
+			value = input.readInt();
+			break;
+		case longTag:
+			value = input.readLong();
+			break;
+		case doubleTag:
+			value = input.readDouble();
+			break;
+		case listTag:
+			size = readSize(input, limit);
+			ArrayList<Object> list = new ArrayList<Object>(size);
+			for (int i = 0; i < size; i++) {
+				list.add(readValue(input, strings, limit));
+			}
+			value = list;
+			break;
+		case mapTag:
+			size = readSize(input, limit);
+			LinkedHashMap<Object, Object> map = new LinkedHashMap<Object, Object>(
+					2 * size);
+			for (int i = 0; i < size; i++) {
+				Object key = readValue(input, strings, limit);
+				map.put(key, readValue(input, strings, limit));
+			}
+			value = map;
+			break;
+		default:
+			throw new IOException("YAMLCache Message: Bad value tag " + tag);
+		}
+
+		return value;
+	}
+
+	/**
+	 * This operation reads the length of a string or the size of a list or
+	 * map and checks that it fits in the file. Every byte of a string and
+	 * every entry of a list or map takes at least one byte of the file.
+	 *
+	 * @param input
+	 *            The stream to read.
+	 * @param limit
+	 *            The size of the file.
+	 * @return The size.
+	 * @throws IOException
+	 *             Thrown if the size cannot be read or is out of bounds.
+	 */
+	private static int readSize(DataInputStream input, long limit)
+			throws IOException {
+		int size = input.readInt();
+		if (size < 0 || size > limit) {
+			throw new IOException("YAMLCache Message: Bad size " + size);
+		}
+		return size;
+	}
+
+	/**
+	 * This operation closes a stream and ignores any errors.
+	 *
+	 * @param stream
+	 *            The stream, which may be null.
+	 */
+	private static void close(Closeable stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				// Nothing else can be done
+			}
+		}
+		return;
+	}
+
+}
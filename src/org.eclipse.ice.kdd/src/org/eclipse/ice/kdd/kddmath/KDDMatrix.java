@@ -13,6 +13,7 @@
 package org.eclipse.ice.kdd.kddmath;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
@@ -29,18 +30,25 @@ import org.eclipse.ice.analysistool.IDataProvider;
  * methods for matrix arithmetic, transposition, normalizing rows and columns,
  * and scaling by an uncertainty matrix.
  * </p>
+ * <p>
+ * The elements are stored in a single primitive array in row major order, so
+ * each row is contiguous in memory. Clients that need to work on a large
+ * number of elements, such as distance kernels, should use getValue(),
+ * setValue() and getElements() instead of the boxed IAbstractMatrix
+ * operations.
+ * </p>
  * 
  * @author Alex McCaskey
  */
 public class KDDMatrix implements IAbstractMatrix<Double> {
 	/**
 	 * <p>
-	 * The individual elements of this matrix. This is a list of n*m double
-	 * values for a given matrix of size nxm.
+	 * The individual elements of this matrix. This is an array of exactly n*m
+	 * double values in row major order for a given matrix of size nxm.
 	 * </p>
 	 * 
 	 */
-	protected ArrayList<Double> elements;
+	protected double[] elements;
 
 	/**
 	 * <p>
@@ -77,7 +85,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(IDataProvider data) throws IllegalArgumentException {
 
 		// Initialize the elements array
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 
 		// Initialize the number of rows and columns
 		nCols = 0;
@@ -112,11 +120,19 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return false;
 		}
 
-		// Perform the subtraction
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) - matToSubtract.getElement(i, j));
+		// Perform the subtraction, directly on the arrays if possible
+		if (matToSubtract instanceof KDDMatrix
+				&& ((KDDMatrix) matToSubtract).elements.length == elements.length) {
+			double[] other = ((KDDMatrix) matToSubtract).elements;
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] -= other[i];
+			}
+		} else {
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					setElement(i, j,
+							getElement(i, j) - matToSubtract.getElement(i, j));
+				}
 			}
 		}
 
@@ -138,10 +154,19 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return false;
 		}
 
-		// Perform the addition
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) + matToAdd.getElement(i, j));
+		// Perform the addition, directly on the arrays if possible
+		if (matToAdd instanceof KDDMatrix
+				&& ((KDDMatrix) matToAdd).elements.length == elements.length) {
+			double[] other = ((KDDMatrix) matToAdd).elements;
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] += other[i];
+			}
+		} else {
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					setElement(i, j,
+							getElement(i, j) + matToAdd.getElement(i, j));
+				}
 			}
 		}
 
@@ -158,29 +183,16 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public void rowNormalize() {
 
-		// Local ArrayList to collect all row sums
-		ArrayList<Double> rowSums = new ArrayList<Double>();
-
-		// Initialize one rowSum to 0.0
-		Double rowSum = 0.0;
-
-		// Calculate the sum of each row, then add it to the
-		// array list
+		// Sum each row and divide its elements by that sum. The rows are
+		// contiguous, so this is a single pass over the array.
 		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				rowSum = rowSum + getElement(i, j);
+			int start = i * nCols;
+			double rowSum = 0.0;
+			for (int j = start; j < start + nCols; j++) {
+				rowSum += elements[j];
 			}
-			// Add the sum to the list
-			rowSums.add(rowSum);
-			// Reset the sum
-			rowSum = 0.0;
-		}
-
-		// Now go through each element and divide it
-		// by its row sum
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, getElement(i, j) / rowSums.get(i));
+			for (int j = start; j < start + nCols; j++) {
+				elements[j] /= rowSum;
 			}
 		}
 
@@ -216,10 +228,16 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 
 		// Divide each element by the corresponding
 		// uncertainty element
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j,
-						getElement(i, j) / uncertainty.getElement(i, j));
+		if (uncertainty.elements.length == elements.length) {
+			for (int i = 0; i < elements.length; i++) {
+				elements[i] /= uncertainty.elements[i];
+			}
+		} else {
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					setElement(i, j,
+							getElement(i, j) / uncertainty.getElement(i, j));
+				}
 			}
 		}
 
@@ -248,7 +266,62 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			return null;
 		}
 
-		return elements.get(nCols * rowIndex + colIndex);
+		return elements[nCols * rowIndex + colIndex];
+	}
+
+	/**
+	 * <p>
+	 * Get the element value at the given row and column index without boxing
+	 * it. Unlike getElement(), this operation throws an exception if the
+	 * indices are out of range.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @return
+	 */
+	public double getValue(int rowIndex, int colIndex) {
+		if (rowIndex < 0 || colIndex < 0 || rowIndex >= nRows
+				|| colIndex >= nCols) {
+			throw new IndexOutOfBoundsException("Invalid matrix index ("
+					+ rowIndex + ", " + colIndex + ") for a " + nRows + "x"
+					+ nCols + " matrix.");
+		}
+		return elements[nCols * rowIndex + colIndex];
+	}
+
+	/**
+	 * <p>
+	 * Set the value of the individual matrix element at index i,j without
+	 * boxing it. Unlike setElement(), this operation throws an exception if
+	 * the indices are out of range.
+	 * </p>
+	 * 
+	 * @param rowIndex
+	 * @param colIndex
+	 * @param value
+	 */
+	public void setValue(int rowIndex, int colIndex, double value) {
+		if (rowIndex < 0 || colIndex < 0 || rowIndex >= nRows
+				|| colIndex >= nCols) {
+			throw new IndexOutOfBoundsException("Invalid matrix index ("
+					+ rowIndex + ", " + colIndex + ") for a " + nRows + "x"
+					+ nCols + " matrix.");
+		}
+		elements[nCols * rowIndex + colIndex] = value;
+	}
+
+	/**
+	 * <p>
+	 * Return the array that holds the elements of this matrix in row major
+	 * order. The array is not copied, so changes to it change the matrix. It
+	 * is replaced when rows or columns are added or removed.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public double[] getElements() {
+		return elements;
 	}
 
 	/**
@@ -278,7 +351,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		}
 
 		// Set the value
-		elements.set(nCols * rowIndex + colIndex, value);
+		elements[nCols * rowIndex + colIndex] = value;
 
 		return true;
 	}
@@ -325,29 +398,16 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 			nCols = oldNRows;
 		} else {
 
-			// This method assumes that the IDataProvider
-			// has already been validated, since the KDDMatrix wouldn't
-			// have been constructed otherwise.
-
-			// Get the IData elements
-			ArrayList<IData> dataElements = dataProvider
-					.getDataAtCurrentTime("Data");
-
 			// Transpose swaps the number of rows and cols
 			nRows = oldNCols;
 			nCols = oldNRows;
 
-			KDDMatrix oldMatrix = new KDDMatrix(
-					(ArrayList<Double>) elements.clone(), oldNRows, oldNCols);
-
-			elements.clear();
-			for (int i = 0; i < nRows * nCols; i++) {
-				elements.add(0.0);
-			}
-
-			for (int i = 0; i < nRows; i++) {
-				for (int j = 0; j < nCols; j++) {
-					setElement(i, j, oldMatrix.getElement(j, i));
+			// Copy the old elements into their transposed positions
+			double[] oldElements = elements;
+			elements = new double[oldElements.length];
+			for (int i = 0; i < oldNRows; i++) {
+				for (int j = 0; j < oldNCols; j++) {
+					elements[j * nCols + i] = oldElements[i * oldNCols + j];
 				}
 			}
 
@@ -364,7 +424,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * 
 	 */
 	public KDDMatrix() {
-		elements = new ArrayList<Double>();
+		elements = new double[0];
 		nRows = 0;
 		nCols = 0;
 	}
@@ -399,9 +459,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public int addRow() {
 		// Add for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.add(0.0);
-		}
+		elements = Arrays.copyOf(elements, elements.length + nCols);
 		// Add to the row
 		nRows += 1;
 		return nRows;
@@ -417,9 +475,12 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public int addColumn() {
 		// Add for the number of rows
+		double[] newElements = new double[nRows * (nCols + 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.add(((i + 1) * nCols) + i, 0.0);
+			System.arraycopy(elements, i * nCols, newElements, i * (nCols + 1),
+					nCols);
 		}
+		elements = newElements;
 		// Add to the cols
 		nCols += 1;
 
@@ -436,9 +497,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public boolean deleteRow() {
 		// Remove for the number of columns
-		for (int i = 0; i < nCols; i++) {
-			elements.remove(elements.size() - 1);
-		}
+		elements = Arrays.copyOf(elements, elements.length - nCols);
 		// Remove a row
 		nRows -= 1;
 		return true;
@@ -454,9 +513,12 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 */
 	public boolean deleteColumn() {
 		// Remove for the number of rows
+		double[] newElements = new double[nRows * (nCols - 1)];
 		for (int i = 0; i < nRows; i++) {
-			elements.remove(((i + 1) * nCols) - i - 1);
+			System.arraycopy(elements, i * nCols, newElements, i * (nCols - 1),
+					nCols - 1);
 		}
+		elements = newElements;
 		// Remove a Column
 		nCols -= 1;
 		return true;
@@ -533,8 +595,9 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 					"Invalid number of data elements. Must have nRows * nCols data elements.");
 		}
 		// Add the elements
+		elements = new double[nRows * nCols];
 		for (int i = 0; i < nRows * nCols; i++) {
-			elements.add(dataElements.get(i).getValue());
+			elements[i] = dataElements.get(i).getValue();
 		}
 
 		return;
@@ -562,15 +625,14 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public KDDMatrix getRow(int index) {
-		KDDMatrix retVector = new KDDMatrix(1, nCols);
-		for (int i = 0; i < nCols; i++) {
-			if (!retVector.setElement(0, i, getElement(index, i))) {
-				System.out.println("THIS WQAS FALSE");
-				return null;
-			}
+		// Return null if the index is invalid
+		if (index < 0 || index >= nRows) {
+			return null;
 		}
 
-		return retVector;
+		// The row is contiguous, so copy it in one shot
+		return new KDDMatrix(Arrays.copyOfRange(elements, index * nCols,
+				(index + 1) * nCols), 1, nCols);
 	}
 
 	/**
@@ -584,8 +646,18 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @return
 	 */
 	public KDDMatrix getColumn(int index) {
-		// TODO Auto-generated method stub
-		return null;
+		// Return null if the index is invalid
+		if (index < 0 || index >= nCols) {
+			return null;
+		}
+
+		// Gather the column
+		double[] column = new double[nRows];
+		for (int i = 0; i < nRows; i++) {
+			column[i] = elements[i * nCols + index];
+		}
+
+		return new KDDMatrix(column, nRows, 1);
 	}
 
 	/**
@@ -600,10 +672,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	public KDDMatrix(int nRows, int nCols) {
 		this.nRows = nRows;
 		this.nCols = nCols;
-		elements = new ArrayList<Double>();
-		for (int i = 0; i < this.nRows * this.nCols; i++) {
-			elements.add(0.0);
-		}
+		elements = new double[nRows * nCols];
 	}
 
 	/**
@@ -621,12 +690,12 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		if (matrix.numberOfColumns() != nCols || matrix.numberOfRows() != nRows) {
 			return false;
 		}
-		// Then make sure all the elements are the same
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				if (!matrix.getElement(i, j).equals(getElement(i, j))) {
-					return false;
-				}
+		// Then make sure all the elements are the same. This compares the
+		// bits like Double.equals() does.
+		for (int i = 0; i < nRows * nCols; i++) {
+			if (Double.doubleToLongBits(matrix.elements[i]) != Double
+					.doubleToLongBits(elements[i])) {
+				return false;
 			}
 		}
 
@@ -651,7 +720,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 		// Compute the hashcode
 		hash = 31 * hash + this.nCols;
 		hash = 31 * hash + this.nRows;
-		hash = 31 * hash + this.elements.hashCode();
+		hash = 31 * hash + Arrays.hashCode(this.elements);
 		hash = 31 * hash + this.dataProvider.hashCode();
 		
 		// Done, return
@@ -668,6 +737,29 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	 * @param nCols
 	 */
 	public KDDMatrix(ArrayList<Double> elements, int nRows, int nCols) {
+		this.nRows = nRows;
+		this.nCols = nCols;
+		this.elements = new double[elements.size()];
+		for (int i = 0; i < this.elements.length; i++) {
+			this.elements[i] = elements.get(i);
+		}
+	}
+
+	/**
+	 * <p>
+	 * The Constructor. The array holds the elements in row major order and is
+	 * used directly, not copied.
+	 * </p>
+	 * 
+	 * @param elements
+	 * @param nRows
+	 * @param nCols
+	 */
+	public KDDMatrix(double[] elements, int nRows, int nCols) {
+		if (elements.length != nRows * nCols) {
+			throw new IllegalArgumentException(
+					"Invalid number of data elements. Must have nRows * nCols data elements.");
+		}
 		this.nRows = nRows;
 		this.nCols = nCols;
 		this.elements = elements;
@@ -689,11 +781,7 @@ public class KDDMatrix implements IAbstractMatrix<Double> {
 	}
 
 	public void zeroMatrix() {
-		for (int i = 0; i < nRows; i++) {
-			for (int j = 0; j < nCols; j++) {
-				setElement(i, j, 0.0);
-			}
-		}
+		Arrays.fill(elements, 0.0);
 	}
 
 	public void printMatrix() {
@@ -12,16 +12,10 @@
  *******************************************************************************/
 package org.eclipse.ice.kdd.kddstrategy.godfreystrategy;
 
-import java.io.ByteArrayInputStream;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.kdd.kddmath.IDataMatrix;
 import org.eclipse.ice.kdd.kddmath.KDDMatrix;
 
@@ -155,10 +149,12 @@ public class AxialPower extends GodfreySubStrategy {
 			weightSum = 0.0;
 		}
 
-		// Calculate the Axial Power Differences
-		// first re-run the PinPowerDifference,
-		// just in case a property was changed
-		if (calculateDiffs && !differences.executeStrategy()) {
+		// Calculate the Axial Power Differences. First run the
+		// PinPowerDifference if it has not been run, which is the case unless
+		// it was run by a GodfreyStrategy along with this sub-strategy.
+		executed = false;
+		if (calculateDiffs && !differences.hasExecuted()
+				&& !differences.executeStrategy()) {
 			return false;
 		}
 		if (calculateDiffs) {
@@ -213,7 +209,26 @@ public class AxialPower extends GodfreySubStrategy {
 			axialPowerDiffRMS = Math.sqrt(Math.abs(diffRMSSum / weightSum));
 		}
 
-		return createAsset();
+		executed = createAsset();
+
+		return executed;
+	}
+
+	/**
+	 * <p>
+	 * Return the sub-strategies that must be executed before this one, which
+	 * is the PinPowerDifference if the differences are calculated.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	@Override
+	public ArrayList<GodfreySubStrategy> getDependencies() {
+		ArrayList<GodfreySubStrategy> dependencies = new ArrayList<GodfreySubStrategy>();
+		if (calculateDiffs) {
+			dependencies.add(differences);
+		}
+		return dependencies;
 	}
 
 	/**
@@ -225,83 +240,46 @@ public class AxialPower extends GodfreySubStrategy {
 	 * @return
 	 */
 	private boolean createAsset() {
-		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		StringBuilder builder = new StringBuilder();
 		DecimalFormat formatter = new DecimalFormat("#.####");
 
-		// Get the default project, which should be
-		// the only element in getProjects()
-		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-		if (root.getProjects().length == 0) {
-			return false;
-		}
-
-		// Get the IProject
-		IProject project = root.getProjects()[0];
-
-		// Create a handle to the file we are going to write to
-		IFile file = project.getFile("axialpower.txt");
-
-		// If this file exists, then we've already used
-		// it to write cluster data, so lets create a file
-		// with a different name
-		if (file.exists()) {
-			int counter = 1;
-			while (file.exists()) {
-				file = project.getFile("axialpower_" + String.valueOf(counter)
-						+ ".txt");
-				counter++;
-			}
-		}
-
 		// Get the number of axial levels
 		int nAxial = loadedPinPowers.get(0).size();
 
-		fileContents.add("\n---------- Axial Results ----------");
-		fileContents.add("\nAxial Power");
+		builder.append("\n---------- Axial Results ----------\n");
+		builder.append("\nAxial Power\n");
 		for (int k = 0; k < nAxial; k++) {
-			fileContents.add(formatter.format(axialPower.getElement(k, 0)));
+			builder.append(formatter.format(axialPower.getElement(k, 0)))
+					.append("\n");
 		}
 
 		if (calculateDiffs) {
-			fileContents.add("\nAxial Power Difference");
+			builder.append("\nAxial Power Difference\n");
 			for (int k = 0; k < nAxial; k++) {
-				fileContents.add(formatter.format(axialPowerDiff.getElement(k,
-						0)));
+				builder.append(
+						formatter.format(axialPowerDiff.getElement(k, 0)))
+						.append("\n");
 			}
 		}
 
-		fileContents.add("");
-		fileContents.add("Average Axial Power: "
-				+ formatter.format(axialPowerAverage));
-		fileContents.add("RMS Axial Power: " + formatter.format(axialPowerRMS));
+		builder.append("\n");
+		builder.append("Average Axial Power: ")
+				.append(formatter.format(axialPowerAverage)).append("\n");
+		builder.append("RMS Axial Power: ")
+				.append(formatter.format(axialPowerRMS)).append("\n");
 
 		if (calculateDiffs) {
-			fileContents.add("Average Axial Power Difference: "
-					+ formatter.format(axialPowerDiffAverage));
-			fileContents.add("RMS Axial Power Difference: "
-					+ formatter.format(axialPowerDiffRMS));
-		}
-
-		// Convert the ArrayList to one string
-		// so we can use the getBytes method
-		for (String s : fileContents) {
-			contents = contents + s + "\n";
-		}
-
-		// Create the IFile with a ByteArrayInputStream
-		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
-		} catch (CoreException e) {
-			e.printStackTrace();
-			return false;
+			builder.append("Average Axial Power Difference: ")
+					.append(formatter.format(axialPowerDiffAverage))
+					.append("\n");
+			builder.append("RMS Axial Power Difference: ")
+					.append(formatter.format(axialPowerDiffRMS)).append("\n");
 		}
 
-		// set the URI
-		uri = file.getLocationURI();
+		// Keep the contents and write them to the workspace
+		contents = builder.toString();
 
-		return true;
+		return createFile("axialpower");
 	}
 
 	/**
@@ -15,22 +15,20 @@ package org.eclipse.ice.kdd.kddstrategy.godfreystrategy;
 import static org.eclipse.ice.kdd.kddmath.IDataMatrix.*;
 import static org.eclipse.ice.kdd.kddstrategy.godfreystrategy.GodfreySubStrategy.*;
 
-import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
-import java.io.File;
-import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.URI;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.concurrent.RecursiveTask;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ice.analysistool.AnalysisPool;
 import org.eclipse.ice.analysistool.IData;
 
 import java.util.Properties;
@@ -120,6 +118,15 @@ public class GodfreyStrategy extends CompositeStrategy {
 	 */
 	private SubStrategyFactory subStrategyFactory;
 
+	/**
+	 * <p>
+	 * The time in milliseconds that each sub-strategy took to execute during
+	 * the last execution, keyed on the name of the sub-strategy.
+	 * </p>
+	 * 
+	 */
+	private LinkedHashMap<String, Long> executionTimes = new LinkedHashMap<String, Long>();
+
 	/**
 	 * <p>
 	 * The constructor. Should initialize the following properties: Symmetry
@@ -259,20 +266,119 @@ public class GodfreyStrategy extends CompositeStrategy {
 			}
 		}
 
-		// Since this is a CompositeStrategy, loop over its children
-		// invoking executeStrategy on each
+		// Since this is a CompositeStrategy, execute its children. The
+		// sub-strategies are run in parallel as a graph, where each one waits
+		// for the sub-strategies that it depends on.
 		System.out.println("Executing sub-strategies...");
-		if (super.executeStrategy()) {
+		if (executeSubStrategies()) {
 			return createAsset();
 		} else {
 			return false;
 		}
 	}
 
+	/**
+	 * <p>
+	 * This method executes the sub-strategies on the pool of the
+	 * GodfreySubStrategies. A sub-strategy is started once all of the
+	 * sub-strategies that it depends on have finished, so the
+	 * PinPowerDifference is only calculated once and the sub-strategies that
+	 * use it run at the same time. The sub-strategies only keep their assets
+	 * in memory and the time of each one is recorded.
+	 * </p>
+	 * 
+	 * @return True if all of the sub-strategies executed successfully.
+	 */
+	private boolean executeSubStrategies() {
+
+		// Local Declarations
+		LinkedHashMap<KDDStrategy, SubStrategyTask> tasks = new LinkedHashMap<KDDStrategy, SubStrategyTask>();
+		boolean success;
+
+		// Create the tasks, including those of any dependencies that were not
+		// requested but are still needed
+		for (KDDStrategy strategy : strategies) {
+			createTask(strategy, tasks);
+		}
+
+		// Run the graph
+		success = AnalysisPool.getPool().invoke(new GraphTask(
+				new ArrayList<SubStrategyTask>(tasks.values())));
+
+		// Report the time of each sub-strategy
+		executionTimes.clear();
+		for (SubStrategyTask task : tasks.values()) {
+			executionTimes.put(task.strategy.getName(), task.time);
+			System.out.println("GodfreyStrategy Message: "
+					+ task.strategy.getName() + " executed in " + task.time
+					+ " ms.");
+		}
+
+		return success;
+	}
+
+	/**
+	 * <p>
+	 * This method creates the task of a strategy after creating the tasks of
+	 * the sub-strategies that it depends on. Each strategy gets a single task.
+	 * The sub-strategies are reset so that their dependencies are executed
+	 * again and only keep their assets in memory.
+	 * </p>
+	 * 
+	 * @param strategy
+	 *            The strategy
+	 * @param tasks
+	 *            The tasks that were already created
+	 * @return The task of the strategy
+	 */
+	private SubStrategyTask createTask(KDDStrategy strategy,
+			LinkedHashMap<KDDStrategy, SubStrategyTask> tasks) {
+
+		// Local Declarations
+		SubStrategyTask task = tasks.get(strategy);
+		ArrayList<SubStrategyTask> dependencies = new ArrayList<SubStrategyTask>();
+		GodfreySubStrategy subStrategy;
+
+		if (task == null) {
+			if (strategy instanceof GodfreySubStrategy) {
+				subStrategy = (GodfreySubStrategy) strategy;
+				subStrategy.resetExecuted();
+				subStrategy.setWritesFile(false);
+				for (GodfreySubStrategy dependency : subStrategy
+						.getDependencies()) {
+					dependencies.add(createTask(dependency, tasks));
+				}
+			}
+			task = new SubStrategyTask(strategy, dependencies);
+			tasks.put(strategy, task);
+		}
+
+		return task;
+	}
+
+	/**
+	 * <p>
+	 * Return the time in milliseconds that each sub-strategy took to execute
+	 * during the last execution, keyed on the name of the sub-strategy.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public LinkedHashMap<String, Long> getExecutionTimes() {
+		return new LinkedHashMap<String, Long>(executionTimes);
+	}
+
+	/**
+	 * <p>
+	 * This method creates the URI of this strategy. It combines the assets of
+	 * the sub-strategies, which are kept in memory, and writes them to the
+	 * workspace at once.
+	 * </p>
+	 * 
+	 * @return
+	 */
 	private boolean createAsset() {
-		ArrayList<URI> uris = new ArrayList<URI>();
-		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		StringBuilder builder = new StringBuilder();
 
 		// Get the default project, which should be
 		// the only element in getProjects()
@@ -301,62 +407,33 @@ public class GodfreyStrategy extends CompositeStrategy {
 		}
 
 		// Write general data
-		fileContents.add("Number of Assemblies: " + nAssemblies);
-		fileContents.add("Number of Axial Levels: " + nAxial);
-		fileContents.add("Number of Pin Rows: " + nPinRows);
-		fileContents.add("Number of Pin Columns: " + nPinCols);
-		fileContents.add("");
+		builder.append("Number of Assemblies: ").append(nAssemblies)
+				.append("\n");
+		builder.append("Number of Axial Levels: ").append(nAxial).append("\n");
+		builder.append("Number of Pin Rows: ").append(nPinRows).append("\n");
+		builder.append("Number of Pin Columns: ").append(nPinCols)
+				.append("\n");
+		builder.append("\n");
 
 		// Since this is a Composite KDDStrategy, here we
-		// should collect all the sub-strategy's URIs
+		// should collect all the sub-strategy's assets
 		// and combine them into one URI for use in ICE
 		for (KDDStrategy strategy : strategies) {
-			System.out.println("Adding URI for " + strategy.getName());
-			uris.add(strategy.getURI());
-		}
-
-		// Pattern is used for cross platform compatibility
-		IFile subFile;
-		BufferedReader reader = null;
-		File tempFile = null;
-		for (URI u : uris) {
-			// Creating a File object because it works
-			// well with all platforms...
-			tempFile = new File(u.getPath());
-			subFile = project.getFile(tempFile.getName());
-
-			// If it doesn't exist, just move on to the next subfile
-			if (!subFile.exists()) {
-				System.err
-						.println("Failed to locate file " + subFile.getName());
-				continue;
-			}
-
-			try {
-				reader = new BufferedReader(new InputStreamReader(
-						subFile.getContents()));
-				while ((line = reader.readLine()) != null) {
-					fileContents.add(line);
-				}
-			} catch (CoreException e) {
-				e.printStackTrace();
-				return false;
-			} catch (IOException e) {
-				e.printStackTrace();
-				return false;
+			System.out.println("Adding asset for " + strategy.getName());
+			if (strategy instanceof GodfreySubStrategy
+					&& ((GodfreySubStrategy) strategy).getContents() != null) {
+				builder.append(((GodfreySubStrategy) strategy).getContents());
+			} else {
+				// If it doesn't have one, just move on to the next one
+				System.err.println("Failed to locate asset for "
+						+ strategy.getName());
 			}
 		}
 
-		// Convert the ArrayList to one string
-		// so we can use the getBytes method
-		for (String s : fileContents) {
-			contents = contents + s + "\n";
-		}
-
 		// Create the IFile with a ByteArrayInputStream
 		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
+			file.create(new ByteArrayInputStream(builder.toString()
+					.getBytes()), false, null);
 		} catch (CoreException e) {
 			e.printStackTrace();
 			return false;
@@ -368,6 +445,133 @@ public class GodfreyStrategy extends CompositeStrategy {
 		return true;
 	}
 
+	/**
+	 * <p>
+	 * SubStrategyTask executes a strategy once the tasks of the
+	 * sub-strategies that it depends on have finished successfully and records
+	 * how long the strategy took.
+	 * </p>
+	 * 
+	 */
+	private static class SubStrategyTask extends RecursiveTask<Boolean> {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The strategy to execute.
+		 */
+		private final KDDStrategy strategy;
+
+		/**
+		 * The tasks of the sub-strategies that the strategy depends on.
+		 */
+		private final ArrayList<SubStrategyTask> dependencies;
+
+		/**
+		 * The time in milliseconds that the strategy took to execute.
+		 */
+		private volatile long time;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param strategy
+		 *            The strategy to execute
+		 * @param dependencies
+		 *            The tasks of the sub-strategies that the strategy depends
+		 *            on
+		 */
+		private SubStrategyTask(KDDStrategy strategy,
+				ArrayList<SubStrategyTask> dependencies) {
+			this.strategy = strategy;
+			this.dependencies = dependencies;
+			this.time = 0;
+		}
+
+		@Override
+		protected Boolean compute() {
+
+			// Local Declarations
+			long start;
+			boolean success = true;
+
+			// Wait for the dependencies. They are forked by the GraphTask, so
+			// joining them runs them here if no other thread has taken them.
+			for (SubStrategyTask dependency : dependencies) {
+				success = dependency.join() && success;
+			}
+			if (!success) {
+				System.err.println("GodfreyStrategy Message: "
+						+ strategy.getName()
+						+ " was not executed because a sub-strategy "
+						+ "that it depends on failed.");
+				return false;
+			}
+
+			// Execute the strategy
+			start = System.nanoTime();
+			try {
+				success = strategy.executeStrategy();
+			} catch (RuntimeException e) {
+				e.printStackTrace();
+				success = false;
+			}
+			time = (System.nanoTime() - start) / 1000000;
+
+			return success;
+		}
+	}
+
+	/**
+	 * <p>
+	 * GraphTask forks the tasks of all of the sub-strategies and waits for
+	 * them to finish.
+	 * </p>
+	 * 
+	 */
+	private static class GraphTask extends RecursiveTask<Boolean> {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The tasks of the sub-strategies.
+		 */
+		private final ArrayList<SubStrategyTask> tasks;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param tasks
+		 *            The tasks of the sub-strategies
+		 */
+		private GraphTask(ArrayList<SubStrategyTask> tasks) {
+			this.tasks = tasks;
+		}
+
+		@Override
+		protected Boolean compute() {
+
+			// Local Declarations
+			boolean success = true;
+
+			// Fork every task and then wait for all of them
+			for (SubStrategyTask task : tasks) {
+				task.fork();
+			}
+			for (SubStrategyTask task : tasks) {
+				success = task.join() && success;
+			}
+
+			return success;
+		}
+	}
+
 	/**
 	 * <p>
 	 * Return the number of rows in the pin powers matrix.
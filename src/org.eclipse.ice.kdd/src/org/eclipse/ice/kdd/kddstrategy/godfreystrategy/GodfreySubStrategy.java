@@ -13,8 +13,14 @@
 package org.eclipse.ice.kdd.kddstrategy.godfreystrategy;
 
 import java.util.HashMap;
+import java.io.ByteArrayInputStream;
 import java.net.URI;
 
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.analysistool.AnalysisAssetType;
 
 import java.util.Properties;
@@ -31,9 +37,33 @@ import org.eclipse.ice.kdd.kddstrategy.KDDStrategy;
  */
 public class GodfreySubStrategy extends KDDStrategy {
 	/**
+	 * <p>
+	 * True if the sub-strategy has executed successfully since it was created
+	 * or last reset. Sub-strategies that depend on this one only execute it
+	 * again if it has not executed.
+	 * </p>
+	 * 
+	 */
+	protected volatile boolean executed;
+
+	/**
+	 * <p>
+	 * The text of the asset that was created by the last execution, or null
+	 * if it has not been created.
+	 * </p>
+	 * 
+	 */
+	protected String contents;
+
+	/**
+	 * <p>
+	 * True if the asset should be written to its own file in the workspace.
+	 * A GodfreyStrategy turns this off and writes the contents of all of its
+	 * sub-strategies to a single file.
+	 * </p>
 	 * 
 	 */
-	protected boolean executed;
+	protected boolean writesFile;
 
 	/**
 	 * <p>
@@ -80,6 +110,7 @@ public class GodfreySubStrategy extends KDDStrategy {
 		this.refPinPowers = refPinPowers;
 		this.weights = weights;
 		this.executed = false;
+		this.writesFile = true;
 	}
 
 	/**
@@ -103,4 +134,96 @@ public class GodfreySubStrategy extends KDDStrategy {
 		executed = false;
 	}
 
+	/**
+	 * <p>
+	 * Return the text of the asset that was created by the last execution,
+	 * or null if it has not been created.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public String getContents() {
+		return contents;
+	}
+
+	/**
+	 * <p>
+	 * Set whether the asset should be written to its own file in the
+	 * workspace when the sub-strategy is executed. If it is not, the asset is
+	 * only kept in memory and the URI is not set.
+	 * </p>
+	 * 
+	 * @param writesFile
+	 */
+	public void setWritesFile(boolean writesFile) {
+		this.writesFile = writesFile;
+	}
+
+	/**
+	 * <p>
+	 * Return the sub-strategies that must be executed before this one. They
+	 * are executed first when this sub-strategy is run by a GodfreyStrategy.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	public ArrayList<GodfreySubStrategy> getDependencies() {
+		return new ArrayList<GodfreySubStrategy>();
+	}
+
+	/**
+	 * <p>
+	 * This method writes the contents of the asset to a new file in the
+	 * workspace and sets the URI. The name of the file is the given name,
+	 * with a counter appended if that file already exists. The asset is
+	 * written with a single operation. If the sub-strategy does not write
+	 * files, this only returns true.
+	 * </p>
+	 * 
+	 * @param name
+	 *            The name of the file without the .txt extension.
+	 * @return
+	 */
+	protected boolean createFile(String name) {
+
+		// Only write the file if it was requested
+		if (!writesFile) {
+			return true;
+		}
+
+		// Get the default project, which should be
+		// the only element in getProjects()
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		if (root.getProjects().length == 0 || contents == null) {
+			return false;
+		}
+
+		// Get the IProject
+		IProject project = root.getProjects()[0];
+
+		// Create a handle to the file we are going to write to. If the file
+		// already exists, create one with a different name.
+		IFile file = project.getFile(name + ".txt");
+		int counter = 1;
+		while (file.exists()) {
+			file = project.getFile(name + "_" + String.valueOf(counter)
+					+ ".txt");
+			counter++;
+		}
+
+		// Create the IFile with a ByteArrayInputStream
+		try {
+			file.create(new ByteArrayInputStream(contents.getBytes()), false,
+					null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		// set the URI
+		uri = file.getLocationURI();
+
+		return true;
+	}
+
 }
\ No newline at end of file
@@ -13,16 +13,13 @@
 package org.eclipse.ice.kdd.kddstrategy.godfreystrategy;
 
 import java.text.DecimalFormat;
+import java.util.Collections;
 import java.util.HashMap;
-import java.io.ByteArrayInputStream;
-import java.net.URI;
 import java.util.ArrayList;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
-import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
+import org.eclipse.ice.analysistool.AnalysisPool;
 import org.eclipse.ice.kdd.kddmath.IDataMatrix;
 import org.eclipse.ice.kdd.kddmath.KDDMatrix;
 
@@ -39,6 +36,15 @@ import org.eclipse.ice.kdd.kddmath.KDDMatrix;
  * @author Alex McCaskey
  */
 public class PinPowerDifference extends GodfreySubStrategy {
+	/**
+	 * <p>
+	 * The number of assemblies below which a DifferenceTask works on its
+	 * assemblies itself instead of splitting them.
+	 * </p>
+	 * 
+	 */
+	private static final int ASSEMBLIES_PER_TASK = 8;
+
 	/**
 	 * <p>
 	 * Reference to the calculated pin power difference matrices.
@@ -95,13 +101,62 @@ public class PinPowerDifference extends GodfreySubStrategy {
 				|| !("Relative".equals(differenceType))) {
 			differenceType = "Basic";
 		}
+		properties.put("Difference Type", differenceType);
+	}
+
+	/**
+	 * <p>
+	 * This operation sets the value of a property and calculates the
+	 * differences again. The difference type can be Basic or Relative. The
+	 * sub-strategy is marked as not executed first, so the sub-strategies
+	 * that depend on it, like the AxialPower and RadialPower, calculate the
+	 * differences again instead of using the old ones if this fails.
+	 * </p>
+	 * 
+	 * @param key
+	 *            <p>
+	 *            The key whose value should be set.
+	 *            </p>
+	 * @param value
+	 *            <p>
+	 *            The new value for the key.
+	 *            </p>
+	 * @return <p>
+	 *         True if the value was set and the differences were calculated,
+	 *         false otherwise.
+	 *         </p>
+	 */
+	@Override
+	public boolean setProperty(String key, String value) {
+
+		// Local Declarations
+		String oldType = differenceType;
+
+		// Only Basic and Relative differences can be calculated
+		if ("Difference Type".equals(key)) {
+			if (!"Basic".equals(value) && !"Relative".equals(value)) {
+				return false;
+			}
+			differenceType = value;
+		}
+		// The old differences are no longer valid
+		executed = false;
+
+		// Set the property and calculate the differences
+		if (!super.setProperty(key, value)) {
+			differenceType = oldType;
+			return false;
+		}
+
+		return true;
 	}
 
 	/**
 	 * <p>
 	 * This method allows subclasses to implement a unique clustering or anomaly
 	 * detection algorithm and produce a KDDAnalysisAsset for clients to display
-	 * and manipulate.
+	 * and manipulate. The differences of the assemblies are calculated in
+	 * parallel.
 	 * </p>
 	 * 
 	 * @return
@@ -115,181 +170,288 @@ public class PinPowerDifference extends GodfreySubStrategy {
 
 		// Local Declarations
 		int nAssemblies = loadedPinPowers.size();
+		ArrayList<ArrayList<KDDMatrix>> matrices = new ArrayList<ArrayList<KDDMatrix>>(
+				Collections.<ArrayList<KDDMatrix>> nCopies(nAssemblies, null));
+		ArrayList<ArrayList<KDDMatrix>> unMatrices = new ArrayList<ArrayList<KDDMatrix>>(
+				Collections.<ArrayList<KDDMatrix>> nCopies(nAssemblies, null));
+		ArrayList<String> text = new ArrayList<String>(
+				Collections.<String> nCopies(nAssemblies, null));
+		ArrayList<String> unText = new ArrayList<String>(
+				Collections.<String> nCopies(nAssemblies, null));
+		DifferenceTask task = new DifferenceTask(matrices, unMatrices, text,
+				unText, 0, nAssemblies);
+
+		// Perform the loaded and reference differences and get the
+		// difference in the uncertainties, only using the pool if there are
+		// enough assemblies. The text of each assembly is also written by the
+		// tasks.
+		executed = false;
+		if (nAssemblies <= ASSEMBLIES_PER_TASK) {
+			task.compute();
+		} else if (ForkJoinTask.inForkJoinPool()) {
+			task.invoke();
+		} else {
+			AnalysisPool.getPool().invoke(task);
+		}
+
+		// Set them in the final result
+		for (int l = 0; l < nAssemblies; l++) {
+			difference.put(l, matrices.get(l));
+			uncertaintyDiff.put(l, unMatrices.get(l));
+		}
+
+		// Create this Asset
+		executed = createAsset(text, unText);
+
+		return executed;
+	}
+
+	/**
+	 * <p>
+	 * This method calculates the pin power differences and the uncertainty
+	 * differences of every axial level of an assembly.
+	 * </p>
+	 * 
+	 * @param l
+	 *            The index of the assembly
+	 * @param matrices
+	 *            The list to which the differences are added
+	 * @param unMatrices
+	 *            The list to which the uncertainty differences are added
+	 */
+	private void calculateDifference(int l, ArrayList<KDDMatrix> matrices,
+			ArrayList<KDDMatrix> unMatrices) {
+
+		// Local Declarations
 		int nAxial = loadedPinPowers.get(0).size();
 		int nRows = loadedPinPowers.get(0).get(0).numberOfRows();
 		int nCols = loadedPinPowers.get(0).get(0).numberOfColumns();
 		KDDMatrix matrix, uncertainMatrix;
-		ArrayList<KDDMatrix> matrices;
-		ArrayList<KDDMatrix> unMatrices;
 
-		// Perform the loaded and reference differences
-		// Also, get the difference in the uncertainties.
-		for (int l = 0; l < nAssemblies; l++) {
-			matrices = new ArrayList<KDDMatrix>();
-			unMatrices = new ArrayList<KDDMatrix>();
-			for (int k = 0; k < nAxial; k++) {
-				matrix = new KDDMatrix(nRows, nCols);
-				uncertainMatrix = new KDDMatrix(nRows, nCols);
-				for (int i = 0; i < nRows; i++) {
-					for (int j = 0; j < nCols; j++) {
-						if ("Relative".equals(differenceType)) {
-
-							// Subtract the data, relative type
-							matrix.setElement(
-									i,
-									j,
-									(loadedPinPowers.get(l).get(k)
-											.getElementValue(i, j) - refPinPowers
-											.get(l).get(k)
-											.getElementValue(i, j))
-											/ refPinPowers.get(l).get(k)
-													.getElementValue(i, j));
-
-							// Subtract the uncertainties, relative type
-							uncertainMatrix
-									.setElement(
-											i,
-											j,
-											(loadedPinPowers
-													.get(l)
-													.get(k)
-													.getElementUncertainty(i, j) - refPinPowers
-													.get(l)
-													.get(k)
-													.getElementUncertainty(i, j))
-													/ refPinPowers
-															.get(l)
-															.get(k)
-															.getElementUncertainty(
-																	i, j));
-
-						} else {
-							// Subtract the data, basic type
-							matrix.setElement(i, j,
-									loadedPinPowers.get(l).get(k)
-											.getElementValue(i, j)
-											- refPinPowers.get(l).get(k)
-													.getElementValue(i, j));
-
-							// Subtract the uncertainties, basic type
-							uncertainMatrix.setElement(i, j, loadedPinPowers
-									.get(l).get(k).getElementUncertainty(i, j)
-									- refPinPowers.get(l).get(k)
-											.getElementUncertainty(i, j));
-						}
+		for (int k = 0; k < nAxial; k++) {
+			matrix = new KDDMatrix(nRows, nCols);
+			uncertainMatrix = new KDDMatrix(nRows, nCols);
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					if ("Relative".equals(differenceType)) {
+
+						// Subtract the data, relative type
+						matrix.setElement(
+								i,
+								j,
+								(loadedPinPowers.get(l).get(k)
+										.getElementValue(i, j) - refPinPowers
+										.get(l).get(k).getElementValue(i, j))
+										/ refPinPowers.get(l).get(k)
+												.getElementValue(i, j));
+
+						// Subtract the uncertainties, relative type
+						uncertainMatrix.setElement(
+								i,
+								j,
+								(loadedPinPowers.get(l).get(k)
+										.getElementUncertainty(i, j) - refPinPowers
+										.get(l).get(k)
+										.getElementUncertainty(i, j))
+										/ refPinPowers.get(l).get(k)
+												.getElementUncertainty(i, j));
+
+					} else {
+						// Subtract the data, basic type
+						matrix.setElement(i, j, loadedPinPowers.get(l).get(k)
+								.getElementValue(i, j)
+								- refPinPowers.get(l).get(k)
+										.getElementValue(i, j));
+
+						// Subtract the uncertainties, basic type
+						uncertainMatrix.setElement(i, j, loadedPinPowers
+								.get(l).get(k).getElementUncertainty(i, j)
+								- refPinPowers.get(l).get(k)
+										.getElementUncertainty(i, j));
 					}
 				}
-
-				// Add them to the temp arraylists
-				matrices.add(matrix);
-				unMatrices.add(uncertainMatrix);
 			}
 
-			// Set them in the final result
-			difference.put(l, matrices);
-			uncertaintyDiff.put(l, unMatrices);
+			// Add them to the lists
+			matrices.add(matrix);
+			unMatrices.add(uncertainMatrix);
 		}
 
-		// Create this Asset
-		return createAsset();
+		return;
 	}
 
 	/**
 	 * <p>
-	 * This method is for the creation of this IAnalysisAsset's URI.
+	 * This method writes the matrices of every axial level of an assembly as
+	 * text for the asset.
 	 * </p>
 	 * 
-	 * @return
+	 * @param l
+	 *            The index of the assembly
+	 * @param matrices
+	 *            The matrices of the assembly
+	 * @param formatter
+	 *            The formatter of the elements
+	 * @return The text of the assembly
 	 */
-	private boolean createAsset() {
-		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
-		DecimalFormat formatter = new DecimalFormat("#.####");
-
-		// Get the default project, which should be
-		// the only element in getProjects()
-		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-		if (root.getProjects().length == 0) {
-			return false;
-		}
+	private static String formatAssembly(int l, ArrayList<KDDMatrix> matrices,
+			DecimalFormat formatter) {
 
-		// Get the IProject
-		IProject project = root.getProjects()[0];
-
-		// Create a handle to the file we are going to write to
-		IFile file = project.getFile("pindifferences.txt");
-
-		// If this file exists, then we've already used
-		// it to write cluster data, so lets create a file
-		// with a different name
-		if (file.exists()) {
-			int counter = 1;
-			while (file.exists()) {
-				file = project.getFile("pindifferences_"
-						+ String.valueOf(counter) + ".txt");
-				counter++;
+		// Local Declarations
+		StringBuilder builder = new StringBuilder();
+		int nAxial = matrices.size();
+		int nRows = matrices.get(0).numberOfRows();
+		int nCols = matrices.get(0).numberOfColumns();
+
+		builder.append("\nAssembly ").append(l).append("\n");
+		for (int k = 0; k < nAxial; k++) {
+			builder.append("Axial Level ").append(k).append("\n");
+			for (int i = 0; i < nRows; i++) {
+				for (int j = 0; j < nCols; j++) {
+					builder.append(
+							formatter.format(matrices.get(k).getElement(i, j)))
+							.append(" ");
+				}
+				builder.append("\n");
 			}
 		}
 
-		int nAssemblies = difference.size();
-		int nAxial = difference.get(0).size();
-		int nRows = difference.get(0).get(0).numberOfRows();
-		int nCols = difference.get(0).get(0).numberOfColumns();
+		return builder.toString();
+	}
 
-		fileContents.add("\nFuel Pin Difference");
-		for (int l = 0; l < nAssemblies; l++) {
-			fileContents.add("\nAssembly " + l);
-			for (int k = 0; k < nAxial; k++) {
-				fileContents.add("Axial Level " + k);
-				for (int i = 0; i < nRows; i++) {
-					for (int j = 0; j < nCols; j++) {
-						line = line
-								+ formatter.format(difference.get(l).get(k)
-										.getElement(i, j)) + " ";
-					}
-					fileContents.add(line);
-					line = "";
-				}
-			}
+	/**
+	 * <p>
+	 * DifferenceTask calculates the differences of a range of assemblies.
+	 * Large ranges are split in half and worked on in parallel. Each assembly
+	 * is stored at its own index, so the tasks do not share any state.
+	 * </p>
+	 * 
+	 */
+	private class DifferenceTask extends RecursiveAction {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The differences of each assembly.
+		 */
+		private final ArrayList<ArrayList<KDDMatrix>> matrices;
+
+		/**
+		 * The uncertainty differences of each assembly.
+		 */
+		private final ArrayList<ArrayList<KDDMatrix>> unMatrices;
+
+		/**
+		 * The text of the differences of each assembly.
+		 */
+		private final ArrayList<String> text;
+
+		/**
+		 * The text of the uncertainty differences of each assembly.
+		 */
+		private final ArrayList<String> unText;
+
+		/**
+		 * The first assembly of the range.
+		 */
+		private final int start;
+
+		/**
+		 * The assembly after the last assembly of the range.
+		 */
+		private final int end;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param matrices
+		 *            The list that will hold the differences of each assembly
+		 * @param unMatrices
+		 *            The list that will hold the uncertainty differences of
+		 *            each assembly
+		 * @param text
+		 *            The list that will hold the text of the differences of
+		 *            each assembly
+		 * @param unText
+		 *            The list that will hold the text of the uncertainty
+		 *            differences of each assembly
+		 * @param start
+		 *            The first assembly of the range
+		 * @param end
+		 *            The assembly after the last assembly of the range
+		 */
+		private DifferenceTask(ArrayList<ArrayList<KDDMatrix>> matrices,
+				ArrayList<ArrayList<KDDMatrix>> unMatrices,
+				ArrayList<String> text, ArrayList<String> unText, int start,
+				int end) {
+			this.matrices = matrices;
+			this.unMatrices = unMatrices;
+			this.text = text;
+			this.unText = unText;
+			this.start = start;
+			this.end = end;
 		}
 
-		// Write the % Errors
-		fileContents.add("\nFuel Pin Powers Uncertainties");
-		for (int l = 0; l < nAssemblies; l++) {
-			fileContents.add("\nAssembly " + l);
-			for (int k = 0; k < nAxial; k++) {
-				fileContents.add("Axial Level " + k);
-				for (int i = 0; i < nRows; i++) {
-					for (int j = 0; j < nCols; j++) {
-						line = line
-								+ formatter.format(uncertaintyDiff.get(l)
-										.get(k).getElement(i, j)) + " ";
-					}
-					fileContents.add(line);
-					line = "";
+		@Override
+		protected void compute() {
+
+			// Split large ranges
+			if (end - start > ASSEMBLIES_PER_TASK) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new DifferenceTask(matrices, unMatrices, text,
+						unText, start, middle), new DifferenceTask(matrices,
+						unMatrices, text, unText, middle, end));
+			} else {
+				// DecimalFormat is not thread safe, so each task has its own
+				DecimalFormat formatter = new DecimalFormat("#.####");
+				for (int l = start; l < end; l++) {
+					ArrayList<KDDMatrix> assembly = new ArrayList<KDDMatrix>();
+					ArrayList<KDDMatrix> unAssembly = new ArrayList<KDDMatrix>();
+					calculateDifference(l, assembly, unAssembly);
+					matrices.set(l, assembly);
+					unMatrices.set(l, unAssembly);
+					text.set(l, formatAssembly(l, assembly, formatter));
+					unText.set(l, formatAssembly(l, unAssembly, formatter));
 				}
 			}
+
+			return;
 		}
+	}
+
+	/**
+	 * <p>
+	 * This method is for the creation of this IAnalysisAsset's URI.
+	 * </p>
+	 * 
+	 * @param text
+	 *            The text of the differences of each assembly
+	 * @param unText
+	 *            The text of the uncertainty differences of each assembly
+	 * @return
+	 */
+	private boolean createAsset(ArrayList<String> text,
+			ArrayList<String> unText) {
+		StringBuilder builder = new StringBuilder();
 
-		// Convert the ArrayList to one string
-		// so we can use the getBytes method
-		for (String s : fileContents) {
-			contents = contents + s + "\n";
+		builder.append("\nFuel Pin Difference\n");
+		for (String assembly : text) {
+			builder.append(assembly);
 		}
 
-		// Create the IFile with a ByteArrayInputStream
-		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
-		} catch (CoreException e) {
-			e.printStackTrace();
-			return false;
+		// Write the % Errors
+		builder.append("\nFuel Pin Powers Uncertainties\n");
+		for (String assembly : unText) {
+			builder.append(assembly);
 		}
 
-		// set the URI
-		uri = file.getLocationURI();
+		// Keep the contents and write them to the workspace
+		contents = builder.toString();
 
-		return true;
+		return createFile("pindifferences");
 	}
 
 	/**
@@ -12,16 +12,10 @@
  *******************************************************************************/
 package org.eclipse.ice.kdd.kddstrategy.godfreystrategy;
 
-import java.io.ByteArrayInputStream;
 import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.HashMap;
 
-import org.eclipse.core.resources.IFile;
-import org.eclipse.core.resources.IProject;
-import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.ResourcesPlugin;
-import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.kdd.kddmath.IDataMatrix;
 import org.eclipse.ice.kdd.kddmath.KDDMatrix;
 
@@ -131,8 +125,11 @@ public class RadialPower extends GodfreySubStrategy {
 		ArrayList<KDDMatrix> dr = new ArrayList<KDDMatrix>();
 		KDDMatrix matrix, diffMat, drMat;
 
-		// Make sure we run the difference algorithm.
-		if (calculateDiffs && !differences.executeStrategy()) {
+		// Make sure we run the difference algorithm, unless it was already
+		// run by a GodfreyStrategy along with this sub-strategy.
+		executed = false;
+		if (calculateDiffs && !differences.hasExecuted()
+				&& !differences.executeStrategy()) {
 			return false;
 		}
 
@@ -215,7 +212,26 @@ public class RadialPower extends GodfreySubStrategy {
 			radialPowerDiffRMS = Math.sqrt(Math.abs(diffSumRms / weightSum));
 		}
 
-		return createAsset();
+		executed = createAsset();
+
+		return executed;
+	}
+
+	/**
+	 * <p>
+	 * Return the sub-strategies that must be executed before this one, which
+	 * is the PinPowerDifference if the differences are calculated.
+	 * </p>
+	 * 
+	 * @return
+	 */
+	@Override
+	public ArrayList<GodfreySubStrategy> getDependencies() {
+		ArrayList<GodfreySubStrategy> dependencies = new ArrayList<GodfreySubStrategy>();
+		if (calculateDiffs) {
+			dependencies.add(differences);
+		}
+		return dependencies;
 	}
 
 	/**
@@ -228,103 +244,62 @@ public class RadialPower extends GodfreySubStrategy {
 	 */
 	private boolean createAsset() {
 
-		ArrayList<String> fileContents = new ArrayList<String>();
-		String line = "", contents = "";
+		StringBuilder builder = new StringBuilder();
 		DecimalFormat formatter = new DecimalFormat("#.####");
 
-		// Get the default project, which should be
-		// the only element in getProjects()
-		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
-		if (root.getProjects().length == 0) {
-			return false;
-		}
-
-		// Get the IProject
-		IProject project = root.getProjects()[0];
-
-		// Create a handle to the file we are going to write to
-		IFile file = project.getFile("radialpower.txt");
-
-		// If this file exists, then we've already used
-		// it to write cluster data, so lets create a file
-		// with a different name
-		if (file.exists()) {
-			int counter = 1;
-			while (file.exists()) {
-				file = project.getFile("radialpower_" + String.valueOf(counter)
-						+ ".txt");
-				counter++;
-			}
-		}
-
 		// Get the number of axial levels
 		int nAssemblies = loadedPinPowers.size();
 		int nRows = loadedPinPowers.get(0).get(0).numberOfRows();
 		int nCols = loadedPinPowers.get(0).get(0).numberOfColumns();
 
-		fileContents.add("\n---------- Radial Results ----------");
-		fileContents.add("\nRadial Power\n");
+		builder.append("\n---------- Radial Results ----------\n");
+		builder.append("\nRadial Power\n\n");
 		for (int l = 0; l < nAssemblies; l++) {
-			fileContents.add("Assembly " + l);
+			builder.append("Assembly ").append(l).append("\n");
 			for (int i = 0; i < nRows; i++) {
 				for (int j = 0; j < nCols; j++) {
-					line = line
-							+ formatter.format(radialPower.get(l).getElement(i,
-									j)) + " ";
+					builder.append(
+							formatter.format(radialPower.get(l).getElement(i,
+									j))).append(" ");
 				}
-				fileContents.add(line);
-				line = "";
+				builder.append("\n");
 			}
 		}
 
 		if (calculateDiffs) {
-			fileContents.add("\nRadial Power Difference\n");
+			builder.append("\nRadial Power Difference\n\n");
 			for (int l = 0; l < nAssemblies; l++) {
-				fileContents.add("Assembly " + l);
+				builder.append("Assembly ").append(l).append("\n");
 				for (int i = 0; i < nRows; i++) {
 					for (int j = 0; j < nCols; j++) {
-						line = line
-								+ formatter.format(radialPowerDiff.get(l)
-										.getElement(i, j)) + " ";
+						builder.append(
+								formatter.format(radialPowerDiff.get(l)
+										.getElement(i, j))).append(" ");
 					}
-					fileContents.add(line);
-					line = "";
+					builder.append("\n");
 				}
 			}
 		}
 
-		fileContents.add("");
-		fileContents.add("Average Radial Power: "
-				+ formatter.format(radialPowerAverage));
-		fileContents.add("RMS Radial Power: "
-				+ formatter.format(radialPowerRMS));
+		builder.append("\n");
+		builder.append("Average Radial Power: ")
+				.append(formatter.format(radialPowerAverage)).append("\n");
+		builder.append("RMS Radial Power: ")
+				.append(formatter.format(radialPowerRMS)).append("\n");
 
 		if (calculateDiffs) {
-			fileContents.add("Average Radial Power Difference: "
-					+ formatter.format(radialPowerDiffAverage));
-			fileContents.add("RMS Radial Power Difference: "
-					+ formatter.format(radialPowerDiffRMS));
-		}
-
-		// Convert the ArrayList to one string
-		// so we can use the getBytes method
-		for (String s : fileContents) {
-			contents = contents + s + "\n";
-		}
-
-		// Create the IFile with a ByteArrayInputStream
-		try {
-			file.create(new ByteArrayInputStream(contents.getBytes()), false,
-					null);
-		} catch (CoreException e) {
-			e.printStackTrace();
-			return false;
+			builder.append("Average Radial Power Difference: ")
+					.append(formatter.format(radialPowerDiffAverage))
+					.append("\n");
+			builder.append("RMS Radial Power Difference: ")
+					.append(formatter.format(radialPowerDiffRMS))
+					.append("\n");
 		}
 
-		// set the URI
-		uri = file.getLocationURI();
+		// Keep the contents and write them to the workspace
+		contents = builder.toString();
 
-		return true;
+		return createFile("radialpower");
 	}
 
 	/**
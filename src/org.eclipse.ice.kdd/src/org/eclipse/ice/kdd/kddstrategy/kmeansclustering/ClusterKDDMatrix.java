@@ -13,8 +13,10 @@
 package org.eclipse.ice.kdd.kddstrategy.kmeansclustering;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
 
+import org.eclipse.ice.analysistool.AnalysisPool;
 import org.eclipse.ice.analysistool.IDataProvider;
 
 import java.io.BufferedWriter;
@@ -41,6 +43,15 @@ import org.eclipse.ice.kdd.kddmath.KDDMatrix;
  */
 public class ClusterKDDMatrix extends KDDMatrix {
 
+	/**
+	 * <p>
+	 * The number of rows below which an AssignmentTask works on its rows
+	 * itself instead of splitting them.
+	 * </p>
+	 * 
+	 */
+	private static final int ROWS_PER_TASK = 1024;
+
 	/**
 	 * 
 	 */
@@ -92,6 +103,25 @@ public class ClusterKDDMatrix extends KDDMatrix {
 		clusters = new ArrayList<Cluster>();
 	}
 
+	/**
+	 * <p>
+	 * The constructor, for creating a matrix directly from its elements in row
+	 * major order with a realization of the DistanceMeasure interface. The
+	 * array is used directly, not copied.
+	 * </p>
+	 * 
+	 * @param elements
+	 * @param nRows
+	 * @param nCols
+	 * @param measure
+	 */
+	public ClusterKDDMatrix(double[] elements, int nRows, int nCols,
+			DistanceMeasure measure) {
+		super(elements, nRows, nCols);
+		distanceMeasure = measure;
+		clusters = new ArrayList<Cluster>();
+	}
+
 	/**
 	 * <p>
 	 * This method performs a KMeans cluster algorithm on this matrix-structured
@@ -109,69 +139,83 @@ public class ClusterKDDMatrix extends KDDMatrix {
 
 		// Local Declarations
 		ArrayList<KDDMatrix> centroids = new ArrayList<KDDMatrix>();
-		ArrayList<Double> distances = new ArrayList<Double>();
-		KDDMatrix vector = null;
-		Double minDistance = 0.0;
+		Double min = getMinMatrixElement(), max = getMaxMatrixElement();
 
-		// Clear any old clusters from a previous run
-		clusters.clear();
+		// Calculate a set of random means, one per cluster
+		for (int i = 0; i < nClusters; i++) {
+			centroids.add(new Cluster(i).getRandomClusterMean(nCols, min, max));
+		}
+
+		// Cluster the data
+		cluster(centroids, nIterations);
+
+		return;
+	}
 
-		// Create nClusters clusters, and calculate
-		// a set of random means
+	/**
+	 * <p>
+	 * This method performs a KMeans cluster algorithm on this matrix-structured
+	 * data set starting from the given centroids, which must be column vectors
+	 * with number of rows equal to the number of columns of this matrix. One
+	 * Cluster is created per centroid.
+	 * </p>
+	 * <p>
+	 * The rows of this matrix are assigned to their nearest centroids in
+	 * parallel on a fork-join pool, with each task working directly on a
+	 * contiguous block of rows. Distance measures other than the
+	 * EuclideanDistanceMeasure are not required to be thread safe, so they are
+	 * used sequentially.
+	 * </p>
+	 * 
+	 * @param initialCentroids
+	 * @param nIterations
+	 */
+	public void cluster(ArrayList<KDDMatrix> initialCentroids, int nIterations) {
+
+		// Local Declarations
+		int nClusters = initialCentroids.size();
+		double[] centroids = new double[nClusters * nCols];
+		int[] assignments = new int[nRows];
+		ClusterSums sums;
+
+		// Clear any old clusters from a previous run and create the new ones
+		clusters.clear();
 		for (int i = 0; i < nClusters; i++) {
-			// Create the cluster
-			Cluster c = new Cluster(i);
-			clusters.add(c);
-
-			// Add the random center of mass vector to
-			// the centroids list
-			centroids.add(c.getRandomClusterMean(nCols, getMinMatrixElement(),
-					getMaxMatrixElement()));
+			clusters.add(new Cluster(i));
+			System.arraycopy(initialCentroids.get(i).getElements(), 0,
+					centroids, i * nCols, nCols);
 		}
 
 		// Loop over the specified number of iterations
 		// to refine the data clustering
 		for (int i = 0; i < nIterations; i++) {
-			// Clear the cluster data from the previous iteration
-			for (Cluster c : clusters) {
-				c.clearData();
+			// Assign each row vector to its nearest centroid and sum the
+			// vectors of each cluster
+			if (distanceMeasure.getClass() == EuclideanDistanceMeasure.class) {
+				sums = AnalysisPool.getPool().invoke(new AssignmentTask(elements, nCols,
+						centroids, nClusters, assignments, 0, nRows));
+			} else {
+				sums = assignSequentially(centroids, nClusters, assignments);
 			}
 
-			// For each row vector we need to calculate its
-			// distance to each centroid
-			for (int j = 0; j < numberOfRows(); j++) {
-				// Get the jth row vector from this matrix
-				vector = getRow(j);
-
-				// Transpose it so we only work with
-				// column vectors
-				vector.transpose();
-
-				// Get a list of the distances from this row vector
-				// to this centroid
-				for (int k = 0; k < nClusters; k++) {
-					// Add the distance between the jth row vector and
-					// the kth centroid to the list of distances
-					distances.add(distanceMeasure.getDistance(centroids.get(k),
-							vector));
+			// Now we can calculate more accurate cluster centroids for the
+			// next iteration. Empty clusters are centered on the origin.
+			for (int k = 0; k < nClusters; k++) {
+				for (int j = 0; j < nCols; j++) {
+					centroids[k * nCols + j] = (sums.counts[k] > 0) ? sums.sums[k
+							* nCols + j]
+							/ sums.counts[k] : 0.0;
 				}
-
-				// Get the minimum distance
-				minDistance = Collections.min(distances);
-
-				// Find the index of the minDistance, which is also the index
-				// of the correct centroid to add this vector to
-				clusters.get(distances.indexOf(minDistance)).addVector(vector);
-
-				// Clear the distances array
-				distances.clear();
 			}
+		}
 
-			// Now we can calculate more accurate
-			// cluster centroids for the next iteration
-			centroids.clear();
-			for (Cluster c : clusters) {
-				centroids.add(c.getClusterMean(nCols));
+		// Add each row vector to the cluster it was assigned to in the last
+		// iteration as a column vector
+		if (nIterations > 0) {
+			for (int j = 0; j < nRows; j++) {
+				clusters.get(assignments[j]).addVector(
+						new KDDMatrix(Arrays.copyOfRange(elements, j * nCols,
+								(j + 1) * nCols), nCols, 1));
 			}
 		}
 
@@ -189,6 +233,55 @@ public class ClusterKDDMatrix extends KDDMatrix {
 		return;
 	}
 
+	/**
+	 * <p>
+	 * This method assigns each row vector to its nearest centroid with the
+	 * DistanceMeasure of this matrix on the calling thread.
+	 * </p>
+	 * 
+	 * @param centroids
+	 *            The centroids, stored contiguously
+	 * @param nClusters
+	 *            The number of centroids
+	 * @param assignments
+	 *            The array that will hold the cluster index of each row
+	 * @return The sums of the vectors assigned to each cluster
+	 */
+	private ClusterSums assignSequentially(double[] centroids, int nClusters,
+			int[] assignments) {
+
+		// Local Declarations
+		ClusterSums sums = new ClusterSums(nClusters, nCols);
+		ArrayList<KDDMatrix> centroidVectors = new ArrayList<KDDMatrix>();
+
+		// Create the centroid vectors
+		for (int k = 0; k < nClusters; k++) {
+			centroidVectors.add(new KDDMatrix(Arrays.copyOfRange(centroids, k
+					* nCols, (k + 1) * nCols), nCols, 1));
+		}
+
+		// Find the nearest centroid of each row vector. The first of several
+		// equally distant centroids is used.
+		for (int j = 0; j < nRows; j++) {
+			KDDMatrix vector = getRow(j);
+			vector.transpose();
+			int nearest = 0;
+			double minDistance = Double.POSITIVE_INFINITY;
+			for (int k = 0; k < nClusters; k++) {
+				double distance = distanceMeasure.getDistance(
+						centroidVectors.get(k), vector);
+				if (distance < minDistance) {
+					minDistance = distance;
+					nearest = k;
+				}
+			}
+			assignments[j] = nearest;
+			sums.add(nearest, elements, j * nCols);
+		}
+
+		return sums;
+	}
+
 	/**
 	 * <p>
 	 * Return the largest element in this matrix.
@@ -197,7 +290,11 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * @return
 	 */
 	private Double getMaxMatrixElement() {
-		return Collections.max(elements);
+		double max = Double.NEGATIVE_INFINITY;
+		for (double element : elements) {
+			max = Math.max(max, element);
+		}
+		return max;
 	}
 
 	/**
@@ -208,7 +305,11 @@ public class ClusterKDDMatrix extends KDDMatrix {
 	 * @return
 	 */
 	private Double getMinMatrixElement() {
-		return Collections.min(elements);
+		double min = Double.POSITIVE_INFINITY;
+		for (double element : elements) {
+			min = Math.min(min, element);
+		}
+		return min;
 	}
 
 	/**
@@ -399,4 +500,196 @@ public class ClusterKDDMatrix extends KDDMatrix {
 		return;
 	}
 
+	/**
+	 * <p>
+	 * ClusterSums holds the sums of the vectors assigned to each cluster and
+	 * the number of vectors in each cluster.
+	 * </p>
+	 * 
+	 */
+	private static class ClusterSums {
+
+		/**
+		 * The sums of the vectors of each cluster, stored contiguously.
+		 */
+		private final double[] sums;
+
+		/**
+		 * The number of vectors in each cluster.
+		 */
+		private final int[] counts;
+
+		/**
+		 * The length of the vectors.
+		 */
+		private final int length;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param nClusters
+		 *            The number of clusters
+		 * @param length
+		 *            The length of the vectors
+		 */
+		private ClusterSums(int nClusters, int length) {
+			sums = new double[nClusters * length];
+			counts = new int[nClusters];
+			this.length = length;
+		}
+
+		/**
+		 * This operation adds a vector to the sum of a cluster.
+		 * 
+		 * @param cluster
+		 *            The index of the cluster
+		 * @param vector
+		 *            The array that holds the vector
+		 * @param offset
+		 *            The index of the first element of the vector
+		 */
+		private void add(int cluster, double[] vector, int offset) {
+			int start = cluster * length;
+			for (int i = 0; i < length; i++) {
+				sums[start + i] += vector[offset + i];
+			}
+			counts[cluster]++;
+		}
+
+		/**
+		 * This operation adds the sums of another set of rows to these sums.
+		 * 
+		 * @param other
+		 *            The other sums
+		 */
+		private void merge(ClusterSums other) {
+			for (int i = 0; i < sums.length; i++) {
+				sums[i] += other.sums[i];
+			}
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] += other.counts[i];
+			}
+		}
+	}
+
+	/**
+	 * <p>
+	 * AssignmentTask assigns a block of row vectors to their nearest centroids
+	 * by Euclidean distance and sums the vectors of each cluster. Large blocks
+	 * are split in half and worked on in parallel.
+	 * </p>
+	 * 
+	 */
+	private static class AssignmentTask extends RecursiveTask<ClusterSums> {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The elements of the matrix in row major order.
+		 */
+		private final double[] elements;
+
+		/**
+		 * The length of the rows.
+		 */
+		private final int nCols;
+
+		/**
+		 * The centroids, stored contiguously.
+		 */
+		private final double[] centroids;
+
+		/**
+		 * The number of centroids.
+		 */
+		private final int nClusters;
+
+		/**
+		 * The cluster index of each row.
+		 */
+		private final int[] assignments;
+
+		/**
+		 * The first row of the block.
+		 */
+		private final int start;
+
+		/**
+		 * The row after the last row of the block.
+		 */
+		private final int end;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param elements
+		 *            The elements of the matrix in row major order
+		 * @param nCols
+		 *            The length of the rows
+		 * @param centroids
+		 *            The centroids, stored contiguously
+		 * @param nClusters
+		 *            The number of centroids
+		 * @param assignments
+		 *            The array that will hold the cluster index of each row
+		 * @param start
+		 *            The first row of the block
+		 * @param end
+		 *            The row after the last row of the block
+		 */
+		private AssignmentTask(double[] elements, int nCols,
+				double[] centroids, int nClusters, int[] assignments,
+				int start, int end) {
+			this.elements = elements;
+			this.nCols = nCols;
+			this.centroids = centroids;
+			this.nClusters = nClusters;
+			this.assignments = assignments;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected ClusterSums compute() {
+
+			// Split large blocks
+			if (end - start > ROWS_PER_TASK) {
+				int middle = (start + end) >>> 1;
+				AssignmentTask first = new AssignmentTask(elements, nCols,
+						centroids, nClusters, assignments, start, middle);
+				AssignmentTask second = new AssignmentTask(elements, nCols,
+						centroids, nClusters, assignments, middle, end);
+				first.fork();
+				ClusterSums sums = second.compute();
+				sums.merge(first.join());
+				return sums;
+			}
+
+			// Otherwise find the nearest centroid of each row. The first of
+			// several equally distant centroids is used. The squared distance
+			// has the same minimum as the distance.
+			ClusterSums sums = new ClusterSums(nClusters, nCols);
+			for (int j = start; j < end; j++) {
+				int nearest = 0;
+				double minDistance = Double.POSITIVE_INFINITY;
+				for (int k = 0; k < nClusters; k++) {
+					double distance = EuclideanDistanceMeasure
+							.squaredDistance(centroids, k * nCols, elements, j
+									* nCols, nCols);
+					if (distance < minDistance) {
+						minDistance = distance;
+						nearest = k;
+					}
+				}
+				assignments[j] = nearest;
+				sums.add(nearest, elements, j * nCols);
+			}
+
+			return sums;
+		}
+	}
+
 }
\ No newline at end of file
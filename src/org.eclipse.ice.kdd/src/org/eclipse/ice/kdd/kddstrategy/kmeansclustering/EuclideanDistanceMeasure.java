@@ -30,15 +30,37 @@ public class EuclideanDistanceMeasure implements DistanceMeasure {
 			throw new IllegalArgumentException(
 					"Error: Vector lengths not equal.");
 		}
-		// Initialize a sum variable
-		Double sum = 0.0, temp = 0.0;
+		// Sum up (c_i - a_i)^2 over the column vectors. Their elements are
+		// stored contiguously, so work on the arrays directly.
+		return Math.sqrt(squaredDistance(vector1.getElements(), 0,
+				vector2.getElements(), 0, vector1.numberOfRows()));
+	}
 
-		// Sum up (c_i - a_i)^2
-		for (int i = 0; i < vector1.numberOfRows(); i++) {
-			temp = vector1.getElement(i, 0) - vector2.getElement(i, 0);
-			sum += Math.pow(temp, 2);
+	/**
+	 * <p>
+	 * Calculate the squared Euclidean distance between two vectors stored
+	 * contiguously in arrays, such as the rows of a KDDMatrix.
+	 * </p>
+	 * 
+	 * @param vector1
+	 *            The array that holds the first vector
+	 * @param offset1
+	 *            The index of the first element of the first vector
+	 * @param vector2
+	 *            The array that holds the second vector
+	 * @param offset2
+	 *            The index of the first element of the second vector
+	 * @param length
+	 *            The number of elements in each vector
+	 * @return The squared distance
+	 */
+	public static double squaredDistance(double[] vector1, int offset1,
+			double[] vector2, int offset2, int length) {
+		double sum = 0.0, temp;
+		for (int i = 0; i < length; i++) {
+			temp = vector1[offset1 + i] - vector2[offset2 + i];
+			sum += temp * temp;
 		}
-
-		return Math.sqrt(sum);
+		return sum;
 	}
 }
\ No newline at end of file
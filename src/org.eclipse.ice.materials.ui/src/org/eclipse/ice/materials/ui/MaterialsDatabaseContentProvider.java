@@ -18,12 +18,12 @@ import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
  * This is a content provider that reads an IMaterialsDatabase and lists the
- * materials in it.
+ * materials in it. The input is the List of Materials returned by
+ * {@link IMaterialsDatabase#getMaterials()}, which may be any kind of List.
  * 
  * @author Jay Jay Billings
  * 
@@ -62,8 +62,8 @@ public class MaterialsDatabaseContentProvider implements ITreeContentProvider {
 	@Override
 	public Object[] getElements(Object inputElement) {
 		Object [] result = null;
-		if (inputElement instanceof ArrayList<?>) {
-			result = ((ArrayList<Material>) inputElement).toArray();
+		if (inputElement instanceof List<?>) {
+			result = ((List<?>) inputElement).toArray();
 		}
 		return result;
 	}
@@ -84,8 +84,8 @@ public class MaterialsDatabaseContentProvider implements ITreeContentProvider {
 			Material material = (Material) parentElement;
 			// Only return the children of this Material
 			retVal = material.getComponents().toArray();
-		} else if (parentElement instanceof ArrayList<?>) {
-			ArrayList<Material> materials = (ArrayList<Material>) parentElement;
+		} else if (parentElement instanceof List<?>) {
+			List<?> materials = (List<?>) parentElement;
 			// Just return all of the contents as an array
 			retVal = materials.toArray();
 		}
@@ -119,8 +119,8 @@ public class MaterialsDatabaseContentProvider implements ITreeContentProvider {
 			Material material = (Material) element;
 			List<Material> children = material.getComponents();
 			retVal = !children.isEmpty();
-		} else if (element instanceof ArrayList<?>) {
-			ArrayList<Material> materials = (ArrayList<Material>) element;
+		} else if (element instanceof List<?>) {
+			List<?> materials = (List<?>) element;
 			retVal = !materials.isEmpty();
 		}
 		
@@ -35,10 +35,36 @@ public interface IMaterialsDatabase extends IElementSource<Material> {
 	/**
 	 * This operation returns all of the materials in the database.
 	 * 
-	 * @return A list of all the Materials in the database.
+	 * @return A list of all the Materials in the database. The list may not
+	 *         be modifiable.
 	 */
 	public List<Material> getMaterials();
 
+	/**
+	 * This operation returns the material with the given name.
+	 * 
+	 * @param name
+	 *            the name of the material
+	 * @return The Material or null if there is no material with the name.
+	 */
+	public Material getMaterial(String name);
+
+	/**
+	 * This operation returns the materials that have a property with a value
+	 * in the given range, such as all of the materials with a density between
+	 * two values. Materials that do not have the property are not returned.
+	 * 
+	 * @param property
+	 *            the name of the property
+	 * @param minValue
+	 *            the smallest value of the property, inclusive
+	 * @param maxValue
+	 *            the largest value of the property, inclusive
+	 * @return A list of the Materials, sorted by the value of the property.
+	 */
+	public List<Material> getMaterials(String property, double minValue,
+			double maxValue);
+
 	/**
 	 * This operation creates a new material in the database. If the new
 	 * Material is already in the database, it updates the existing record.
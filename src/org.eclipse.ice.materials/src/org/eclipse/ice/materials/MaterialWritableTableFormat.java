@@ -29,7 +29,9 @@ import ca.odell.glazedlists.gui.WritableTableFormat;
  * Instead of assuming that updated values passed to it are doubles, it calls
  * Object.toString() and interprets that value as a double.
  * 
- * It always reports values as editable.
+ * It always reports values as editable. If it is created for a database, it
+ * passes every edited Material to IMaterialsDatabase.updateMaterial() so that
+ * the database can update its queries and save the change.
  * 
  * @author Jay Jay Billings
  *
@@ -43,6 +45,12 @@ public class MaterialWritableTableFormat implements
 	 */
 	private List<String> properties;
 
+	/**
+	 * The database that holds the Materials or null if the Materials are not
+	 * from a database.
+	 */
+	private IMaterialsDatabase database;
+
 	/**
 	 * The constructor
 	 * 
@@ -60,6 +68,24 @@ public class MaterialWritableTableFormat implements
 		properties.addAll(propertiesList);
 	}
 
+	/**
+	 * The constructor for Materials that are held by a database.
+	 * 
+	 * @param propertiesList
+	 *            The list of properties that provides the keys needed to read
+	 *            the Material properties of the List with which this format is
+	 *            associated. The value "Name" is prepended to create a column
+	 *            fo the material name.
+	 * @param database
+	 *            The database that holds the Materials. Edited Materials are
+	 *            passed to its updateMaterial() operation.
+	 */
+	public MaterialWritableTableFormat(List<String> propertiesList,
+			IMaterialsDatabase database) {
+		this(propertiesList);
+		this.database = database;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -135,6 +161,10 @@ public class MaterialWritableTableFormat implements
 		if (column != 0) {
 			baseObject.setProperty(properties.get(column),
 					Double.valueOf(editedValue.toString()));
+			// Let the database know that the Material changed
+			if (database != null) {
+				database.updateMaterial(baseObject);
+			}
 		}
 		// Just return the material
 		return baseObject;
@@ -16,9 +16,17 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URL;
 import java.util.ArrayList;
-import java.util.Hashtable;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
@@ -49,11 +57,24 @@ import ca.odell.glazedlists.gui.TableFormat;
  * bundle. It stores the (possibly) modified user list of Materials in its
  * bundle directory in the workspace.
  * 
+ * The database is not loaded until it is first used, so starting the service
+ * is cheap even for large libraries. The materials are indexed by name and,
+ * when they are first queried by a property, by the value of that property.
+ * Changes are written to the user database in the background. Several changes
+ * made close together are written at once.
+ * 
  * @author Jay Jay Billings
  * 
  */
 public class XMLMaterialsDatabase implements IMaterialsDatabase {
 
+	/**
+	 * The time in milliseconds between a change to the database and the write
+	 * of the user database that saves it. Other changes made in that time are
+	 * saved by the same write.
+	 */
+	private static final long writeDelay = 2000;
+
 	/**
 	 * This file contains the most recent version of the database that the user
 	 * has modified.
@@ -66,6 +87,11 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	private File defaultDatabase;
 
+	/**
+	 * The file that the database is loaded from the first time it is used.
+	 */
+	private File fileToLoad;
+
 	/**
 	 * This context is used to create all of the JAXB related utilities for
 	 * marshalling and unmarshalling the file.
@@ -73,10 +99,48 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	private JAXBContext jaxbContext;
 
 	/**
-	 * The list of materials loaded from the database. They are stored as a
-	 * Hashtable for fast, sychronized manipulation.
+	 * The list of materials loaded from the database, keyed and sorted by
+	 * name. It is a concurrent map so that it can be read while it is
+	 * modified. It is null until the database is loaded.
+	 */
+	volatile ConcurrentSkipListMap<String, Material> materialsMap;
+
+	/**
+	 * The materials sorted by the value of a property, keyed by the name of
+	 * the property. The index of a property is only created when the property
+	 * is first queried and all of the indices are discarded when the database
+	 * changes.
+	 */
+	private final ConcurrentHashMap<String, ConcurrentSkipListMap<Double, List<Material>>> propertyIndices = new ConcurrentHashMap<String, ConcurrentSkipListMap<Double, List<Material>>>();
+
+	/**
+	 * An unmodifiable list of the materials that is returned by
+	 * getMaterials(). It is null if the database changed since it was
+	 * created.
+	 */
+	private volatile List<Material> materialsList;
+
+	/**
+	 * The number of changes made to the database. It is used to discard lists
+	 * and indices that were created while the database was changing.
+	 */
+	private final AtomicLong changeCount = new AtomicLong();
+
+	/**
+	 * The lock that guards loading and writing the database.
+	 */
+	private final Object databaseLock = new Object();
+
+	/**
+	 * The thread that writes the user database after it changes.
+	 */
+	private ScheduledExecutorService writeExecutor;
+
+	/**
+	 * The write of the user database that is waiting to run, or null if there
+	 * are no unsaved changes.
 	 */
-	Hashtable<String, Material> materialsMap;
+	private ScheduledFuture<?> pendingWrite;
 
 	/**
 	 * The service tracker to track the LoggingService.
@@ -122,7 +186,104 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	@Override
 	public List<Material> getMaterials() {
-		return new ArrayList<Material>(materialsMap.values());
+
+		// Local Declarations
+		List<Material> list = materialsList;
+		long count;
+
+		// Only copy the materials again if the database changed
+		if (list == null) {
+			count = changeCount.get();
+			list = Collections.unmodifiableList(new ArrayList<Material>(
+					getMaterialsMap().values()));
+			if (count == changeCount.get()) {
+				materialsList = list;
+			}
+		}
+
+		return list;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialsDatabase#getMaterial(java.lang.String
+	 * )
+	 */
+	@Override
+	public Material getMaterial(String name) {
+		return (name != null) ? getMaterialsMap().get(name) : null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialsDatabase#getMaterials(java.lang.String
+	 * , double, double)
+	 */
+	@Override
+	public List<Material> getMaterials(String property, double minValue,
+			double maxValue) {
+
+		// Local Declarations
+		ArrayList<Material> materials = new ArrayList<Material>();
+		ConcurrentSkipListMap<Double, List<Material>> index;
+
+		// Collect the materials from the index of the property
+		if (property != null && minValue <= maxValue) {
+			index = getPropertyIndex(property);
+			for (List<Material> sameValue : index.subMap(minValue, true,
+					maxValue, true).values()) {
+				materials.addAll(sameValue);
+			}
+		}
+
+		return materials;
+	}
+
+	/**
+	 * This operation returns the index of the materials that have a property,
+	 * creating it if it does not exist.
+	 * 
+	 * @param property
+	 *            The name of the property.
+	 * @return The materials that have the property, keyed and sorted by its
+	 *         value.
+	 */
+	private ConcurrentSkipListMap<Double, List<Material>> getPropertyIndex(
+			String property) {
+
+		// Local Declarations
+		ConcurrentSkipListMap<Double, List<Material>> index = propertyIndices
+				.get(property);
+		long count;
+		Map<String, Double> properties;
+		List<Material> sameValue;
+
+		if (index == null) {
+			// Sort the materials by their values of the property
+			count = changeCount.get();
+			index = new ConcurrentSkipListMap<Double, List<Material>>();
+			for (Material material : getMaterialsMap().values()) {
+				properties = material.getProperties();
+				if (properties.containsKey(property)) {
+					sameValue = index.get(properties.get(property));
+					if (sameValue == null) {
+						sameValue = new ArrayList<Material>(1);
+						index.put(properties.get(property), sameValue);
+					}
+					sameValue.add(material);
+				}
+			}
+			// Only keep it if the database did not change in the meantime
+			if (count == changeCount.get()) {
+				propertyIndices.put(property, index);
+			}
+		}
+
+		return index;
 	}
 
 	/*
@@ -135,7 +296,8 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	@Override
 	public void addMaterial(Material material) {
 		if (material != null) {
-			materialsMap.put(material.getName(), material);
+			getMaterialsMap().put(material.getName(), material);
+			databaseChanged();
 		}
 
 	}
@@ -149,8 +311,8 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	@Override
 	public void deleteMaterial(String name) {
-		if (name != null) {
-			materialsMap.remove(name);
+		if (name != null && getMaterialsMap().remove(name) != null) {
+			databaseChanged();
 		}
 	}
 
@@ -164,7 +326,7 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	@Override
 	public void deleteMaterial(Material material) {
 		if (material != null) {
-			materialsMap.remove(material.getName());
+			deleteMaterial(material.getName());
 		}
 	}
 
@@ -178,8 +340,62 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	@Override
 	public void updateMaterial(Material material) {
 		if (material != null) {
-			materialsMap.put(material.getName(), material);
+			getMaterialsMap().put(material.getName(), material);
+			databaseChanged();
+		}
+	}
+
+	/**
+	 * This operation returns the map of materials, loading the database if it
+	 * has not been loaded yet.
+	 * 
+	 * @return The materials keyed by name.
+	 */
+	private ConcurrentSkipListMap<String, Material> getMaterialsMap() {
+
+		// Local Declarations
+		ConcurrentSkipListMap<String, Material> map = materialsMap;
+
+		if (map == null) {
+			synchronized (databaseLock) {
+				if (materialsMap == null) {
+					loadDatabase(fileToLoad);
+				}
+				map = materialsMap;
+			}
+		}
+
+		return map;
+	}
+
+	/**
+	 * This operation discards the lists and indices of the materials after
+	 * the database changes and schedules a write of the user database if one
+	 * is not already waiting.
+	 */
+	private void databaseChanged() {
+
+		// Discard everything that was created from the old materials
+		changeCount.incrementAndGet();
+		materialsList = null;
+		propertyIndices.clear();
+
+		// Write the changes, along with any others made before the write
+		synchronized (databaseLock) {
+			if (pendingWrite == null && writeExecutor != null) {
+				pendingWrite = writeExecutor.schedule(new Runnable() {
+					@Override
+					public void run() {
+						synchronized (databaseLock) {
+							pendingWrite = null;
+							writeDatabase();
+						}
+					}
+				}, writeDelay, TimeUnit.MILLISECONDS);
+			}
 		}
+
+		return;
 	}
 
 	/**
@@ -190,6 +406,10 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 *            should be loaded.
 	 */
 	private void loadDatabase(File fileToLoad) {
+
+		// Local Declarations
+		ConcurrentSkipListMap<String, Material> map = new ConcurrentSkipListMap<String, Material>();
+
 		try {
 			// Create the necessary JAXB equipment to load the file
 			Unmarshaller jaxbUnmarshaller = jaxbContext.createUnmarshaller();
@@ -198,13 +418,18 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 					.unmarshal(fileToLoad);
 
 			// Load the list into the material map
-			materialsMap = new Hashtable<String, Material>();
 			for (Material material : rawList.getList()) {
-				materialsMap.put(material.getName(), material);
+				map.put(material.getName(), material);
 			}
 		} catch (JAXBException e) {
 			e.printStackTrace();
 		}
+
+		// Replace the old materials
+		materialsMap = map;
+		changeCount.incrementAndGet();
+		materialsList = null;
+		propertyIndices.clear();
 	}
 
 	/**
@@ -227,6 +452,17 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 		}
 	}
 
+	/**
+	 * This operation cancels the write of the user database that is waiting
+	 * to run, if there is one. The caller must hold the database lock.
+	 */
+	private void cancelPendingWrite() {
+		if (pendingWrite != null) {
+			pendingWrite.cancel(false);
+			pendingWrite = null;
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -234,20 +470,21 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	@Override
 	public void restoreDefaults() {
-		// Load the default database
-		loadDatabase(defaultDatabase);
-		// Overwrite the user database
-		writeDatabase();
+		synchronized (databaseLock) {
+			// Load the default database
+			loadDatabase(defaultDatabase);
+			// Overwrite the user database
+			cancelPendingWrite();
+			writeDatabase();
+		}
 	}
 
 	/**
-	 * This operation starts the service.
+	 * This operation starts the service. The database itself is loaded when
+	 * it is first used.
 	 */
 	public void start() {
 
-		// Local Declarations
-		File fileToLoad;
-
 		// Create the JAXB context to manipulate the files
 		try {
 			jaxbContext = JAXBContext
@@ -262,19 +499,39 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 			}
 		}
 
-		// Choose which database to load
-		if (userDatabase.exists()) {
-			if (logger != null) {
-				logger.log(LogService.LOG_INFO,
-						"Loading user-modified database.");
+		synchronized (databaseLock) {
+			// Choose which database to load
+			if (userDatabase.exists()) {
+				if (logger != null) {
+					logger.log(LogService.LOG_INFO,
+							"Using user-modified database.");
+				}
+				fileToLoad = userDatabase;
+			} else {
+				fileToLoad = defaultDatabase;
 			}
-			fileToLoad = userDatabase;
-		} else {
-			fileToLoad = defaultDatabase;
-		}
 
-		// Load it up
-		loadDatabase(fileToLoad);
+			// Forget anything that was loaded before and wait until the
+			// materials are needed to load them
+			materialsMap = null;
+			materialsList = null;
+			propertyIndices.clear();
+			changeCount.incrementAndGet();
+
+			// Start the thread that writes changes
+			if (writeExecutor == null) {
+				writeExecutor = Executors
+						.newSingleThreadScheduledExecutor(new ThreadFactory() {
+							@Override
+							public Thread newThread(Runnable runnable) {
+								Thread thread = new Thread(runnable,
+										"XMLMaterialsDatabase Writer");
+								thread.setDaemon(true);
+								return thread;
+							}
+						});
+			}
+		}
 
 		if (logger != null) {
 			logger.log(LogService.LOG_INFO, "Started!");
@@ -326,8 +583,19 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	 */
 	public void stop() {
 
-		// Write the database
-		writeDatabase();
+		synchronized (databaseLock) {
+			// Write the database if it was loaded. Otherwise it did not
+			// change.
+			cancelPendingWrite();
+			if (materialsMap != null) {
+				writeDatabase();
+			}
+			// Stop the thread that writes changes
+			if (writeExecutor != null) {
+				writeExecutor.shutdown();
+				writeExecutor = null;
+			}
+		}
 
 		if (logger != null) {
 			logger.log(LogService.LOG_INFO, "Service stopped!");
@@ -345,7 +613,7 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 	public EventList<Material> getElements() {
 		// Create a new event list and return it using the standard factory
 		// method for GlazedLists.
-		EventList<Material> list = GlazedLists.eventList(materialsMap.values());
+		EventList<Material> list = GlazedLists.eventList(getMaterials());
 		return list;
 	}
 
@@ -362,15 +630,15 @@ public class XMLMaterialsDatabase implements IMaterialsDatabase {
 		
 		// Build and return a table format if there are materials in the
 		// database
-		if (!materialsMap.isEmpty()) {
-			// Get the properties off the map. Pulling back the array is more
-			// efficient than getting an iterator. I think...
-			Material[] emptyArray = {};
-			Map<String, Double> props = materialsMap.values().toArray(
-					emptyArray)[0].getProperties();
+		Map.Entry<String, Material> firstEntry = getMaterialsMap()
+				.firstEntry();
+		if (firstEntry != null) {
+			// Get the properties off the first material
+			Map<String, Double> props = firstEntry.getValue().getProperties();
 			ArrayList<String> propNames = new ArrayList<String>(props.keySet());
-			// Initialize the table format
-			format = new MaterialWritableTableFormat(propNames);
+			// Initialize the table format. Edits are passed back to the
+			// database so that its indices and the user database are updated.
+			format = new MaterialWritableTableFormat(propNames, this);
 		}
 
 		return format;
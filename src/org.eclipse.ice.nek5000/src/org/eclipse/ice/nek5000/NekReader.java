@@ -12,13 +12,16 @@
  *******************************************************************************/
 package org.eclipse.ice.nek5000;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.AllowedValueType;
@@ -58,11 +61,34 @@ import org.eclipse.ice.datastructures.form.mesh.Vertex;
  * toggling between Nek examples) is deliberately placed at the beginning of the
  * NekModel Form (id = 1) when the Form is created.
  * 
+ * The mesh elements and boundary conditions make up almost all of a large
+ * reafile, so the file is streamed through once. The small sections before
+ * and after the mesh are kept as lines, while the elements and boundary
+ * conditions are read in chunks that are decoded in parallel and dropped
+ * before the next chunk is read.
+ * 
  * @author Anna Wojtowicz
  * 
  */
 public class NekReader {
 
+	/**
+	 * The number of mesh elements or boundary condition lines below which a
+	 * SectionTask decodes its range itself instead of splitting it.
+	 */
+	private static final int LINES_PER_TASK = 256;
+
+	/**
+	 * The number of mesh elements or boundary condition lines that are read
+	 * from the file before they are decoded.
+	 */
+	private static final int LINES_PER_CHUNK = 16 * LINES_PER_TASK;
+
+	/**
+	 * The pool that runs the SectionTasks of all readers.
+	 */
+	private static final ForkJoinPool sectionPool = new ForkJoinPool();
+
 	/**
 	 * Number of dimensions the problem is based in, defined by the NDIM
 	 * parameter in a .rea file, located on the line before the MESH COMPONENT
@@ -121,14 +147,17 @@ public class NekReader {
 	 * Component. If the reafile is invalid, the method returns a null
 	 * ArrayList.
 	 * 
+	 * The file is read once from start to end. Only the lines before and after
+	 * the mesh are kept in memory, so a large mesh is never held as text.
+	 * 
 	 * @param reaFile
 	 *            The Nek5000 reafile.
 	 * @return ArrayList containing all the reafile input as Components.
 	 * @throws IOException
-	 *             Thrown when readFileLines(...) fails to read or close its
-	 *             FileInputStream
+	 *             Thrown when the reafile cannot be read or its
+	 *             FileInputStream cannot be closed
 	 * @throws FileNotFoundException
-	 *             Thrown when readFileLines(...) fails to find the input file
+	 *             Thrown when the reafile cannot be found
 	 */
 	public ArrayList<Component> loadREAFile(File reaFile)
 			throws FileNotFoundException, IOException {
@@ -139,17 +168,42 @@ public class NekReader {
 		}
 
 		ArrayList<Component> components = new ArrayList<Component>();
+		DataComponent parameters, passiveScalarData, switches, preNekAxes;
+		MeshComponent mesh, curvedSideData;
+		ArrayList<String> lines = new ArrayList<String>();
+
+		// Read the file one line at a time through a buffer. Each byte is one
+		// character, as it was when the file was read byte by byte.
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(reaFile), "ISO-8859-1"));
+		try {
+			// Read the lines up to the mesh data heading and load the
+			// sections in them
+			String numbersLine = readHeaderLines(reader, lines);
+			parameters = loadParameters(lines);
+			passiveScalarData = loadPassiveScalarData(lines);
+			switches = loadLogicalSwitches(lines);
+			preNekAxes = loadPreNekAxes(lines);
+
+			// Stream the mesh and its boundary conditions and collect the
+			// lines after them. Without a mesh, every section is searched for
+			// in the whole file, so the same lines are searched again.
+			if (numbersLine != null) {
+				lines = new ArrayList<String>();
+			}
+			mesh = loadMesh(reader, numbersLine, lines);
+			curvedSideData = loadCurvedSideData(lines);
+		} finally {
+			// Close the stream
+			reader.close();
+		}
 
-		// Read lines into an ArrayList of Strings
-		ArrayList<String> lines = readFileLines(reaFile);
+		// Drop any empty lines at the end of the file
+		while (!lines.isEmpty() && lines.get(lines.size() - 1).isEmpty()) {
+			lines.remove(lines.size() - 1);
+		}
 
-		// Load the input components
-		DataComponent parameters = loadParameters(lines);
-		DataComponent passiveScalarData = loadPassiveScalarData(lines);
-		DataComponent switches = loadLogicalSwitches(lines);
-		DataComponent preNekAxes = loadPreNekAxes(lines);
-		MeshComponent mesh = loadMesh(lines);
-		MeshComponent curvedSideData = loadCurvedSideData(lines);
+		// Load the sections after the mesh
 		DataComponent presolveRestartOpts = loadPresolveRestartOpts(lines);
 		DataComponent initialConditions = loadInitialConditions(lines);
 		DataComponent driveForceData = loadDriveForceData(lines);
@@ -182,9 +236,73 @@ public class NekReader {
 		return components;
 	}
 
+	/**
+	 * Reads the lines of a reafile up to the NEL,NDIM,NELV line that follows
+	 * the MESH DATA heading. The lines before the heading are added to a list.
+	 * If the reafile has no mesh, all of its lines are added.
+	 * 
+	 * @param reader
+	 *            The reader positioned at the start of the reafile.
+	 * @param lines
+	 *            The list that will hold the lines before the heading.
+	 * @return The NEL,NDIM,NELV line, or null if the reafile has no mesh.
+	 * @throws IOException
+	 *             Thrown when the reafile cannot be read
+	 */
+	private String readHeaderLines(BufferedReader reader,
+			ArrayList<String> lines) throws IOException {
+
+		// Local Declarations
+		String line, previousLine = "";
+
+		// Stop at the line after the mesh data heading
+		while ((line = reader.readLine()) != null) {
+			if ((previousLine.contains("**MESH DATA**") || previousLine
+					.contains("*** MESH DATA ***"))
+					&& line.contains("NEL,NDIM,NELV")) {
+				// Take off the heading
+				lines.remove(lines.size() - 1);
+				return line;
+			}
+			lines.add(line);
+			previousLine = line;
+		}
+
+		return null;
+	}
+
+	/**
+	 * Reads up to count lines from a reafile into a list, which is cleared
+	 * first.
+	 * 
+	 * @param reader
+	 *            The reader of the reafile.
+	 * @param lines
+	 *            The list that will hold the lines.
+	 * @param count
+	 *            The number of lines to read.
+	 * @return The number of lines that were read, which is less than count
+	 *         only if the end of the file was reached.
+	 * @throws IOException
+	 *             Thrown when the reafile cannot be read
+	 */
+	private int readChunk(BufferedReader reader, ArrayList<String> lines,
+			int count) throws IOException {
+
+		String line;
+		lines.clear();
+		while (lines.size() < count && (line = reader.readLine()) != null) {
+			lines.add(line);
+		}
+
+		return lines.size();
+	}
+
 	/**
 	 * Utility class to read in a reafile and return its contents as an
-	 * ArrayList of Strings, broken at each newline character.
+	 * ArrayList of Strings, broken at each newline character. The NekReader
+	 * itself streams the file in loadREAFile(), so this is only needed by
+	 * clients that want all of the lines.
 	 * 
 	 * @param file
 	 *            The reafile to break up.
@@ -197,24 +315,28 @@ public class NekReader {
 	public ArrayList<String> readFileLines(File file)
 			throws FileNotFoundException, IOException {
 
-		// Convert to FileInputStream
-		FileInputStream fileStream = null;
-		fileStream = new FileInputStream(file);
-
-		// Read the FileInputStream and append to a StringBuffer
-		StringBuffer buffer = new StringBuffer();
-		int fileByte;
-		while ((fileByte = fileStream.read()) != -1) {
-			buffer.append((char) fileByte);
+		// Local Declarations
+		ArrayList<String> fileLines = new ArrayList<String>();
+		String line;
+
+		// Read the file one line at a time through a buffer. Each byte is one
+		// character, as it was when the file was read byte by byte.
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file), "ISO-8859-1"));
+		try {
+			while ((line = reader.readLine()) != null) {
+				fileLines.add(line);
+			}
+		} finally {
+			// Close the stream
+			reader.close();
 		}
 
-		// Close the stream
-		fileStream.close();
-
-		// Break up the StringBuffer at each newline character
-		String[] bufferSplit = (buffer.toString()).split("\n");
-		ArrayList<String> fileLines = new ArrayList<String>(
-				Arrays.asList(bufferSplit));
+		// Drop any empty lines at the end of the file
+		while (!fileLines.isEmpty()
+				&& fileLines.get(fileLines.size() - 1).isEmpty()) {
+			fileLines.remove(fileLines.size() - 1);
+		}
 
 		return fileLines;
 	}
@@ -265,7 +387,7 @@ public class NekReader {
 
 					// Grab the current line
 					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
+					splitLine = tokenize(currLine);
 
 					// If the current parameter is NPSCAL, define the value of
 					// numPassiveScalars
@@ -280,10 +402,7 @@ public class NekReader {
 					entry = makeNekEntry(false);
 
 					// Construct the parameter description
-					currDesc = "";
-					for (int k = 2; k < splitLine.length; k++) {
-						currDesc += splitLine[k] + " ";
-					}
+					currDesc = joinTokens(splitLine, 2, " ");
 
 					// Set name, description, value, and ID
 					entry.setValue(splitLine[0]);
@@ -352,20 +471,13 @@ public class NekReader {
 
 						// Grab the current line
 						currLine = reaLines.get(i + j);
-						splitLine = currLine.trim().split("\\s+");
+						splitLine = tokenize(currLine);
 
 						// Create a Nek Entry
 						entry = makeNekEntry(false);
 
 						// Construct the current value
-						currValue = "";
-						for (int k = 0; k < splitLine.length; k++) {
-							if (k != splitLine.length - 1) {
-								currValue += splitLine[k] + " ";
-							} else {
-								currValue += splitLine[k];
-							}
-						}
+						currValue = joinTokens(splitLine, 0, "");
 
 						// Set the name, description, value, and ID
 						entry.setName("Passive Scalar " + (j + 1));
@@ -427,7 +539,7 @@ public class NekReader {
 
 					// Grab the current line
 					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
+					splitLine = tokenize(currLine);
 
 					currValue = "";
 					currName = "";
@@ -453,13 +565,7 @@ public class NekReader {
 									splitLine[7], splitLine[8], splitLine[9],
 									splitLine[10]);
 
-							for (int k = 14; k < splitLine.length; k++) {
-								if (k != splitLine.length - 1) {
-									currDesc += splitLine[k] + " ";
-								} else {
-									currDesc += splitLine[k];
-								}
-							}
+							currDesc = joinTokens(splitLine, 14, "");
 						} else if (currLine.contains("IFTMSH")) {
 
 							currName = "IFTMSH";
@@ -469,13 +575,7 @@ public class NekReader {
 									splitLine[4], splitLine[5], splitLine[6],
 									splitLine[7], splitLine[8], splitLine[9],
 									splitLine[10], splitLine[11]);
-							for (int k = 13; k < splitLine.length; k++) {
-								if (k != splitLine.length - 1) {
-									currDesc += splitLine[k] + " ";
-								} else {
-									currDesc += splitLine[k];
-								}
-							}
+							currDesc = joinTokens(splitLine, 13, "");
 						}
 
 					}
@@ -544,24 +644,15 @@ public class NekReader {
 
 				// Grab the current line
 				String currLine = reaLines.get(i);
-				splitLine = currLine.trim().split("\\s+");
+				splitLine = tokenize(currLine);
 
 				// Create a Nek Entry
 				entry = makeNekEntry(false);
 
 				// Construct the current value and name
-				currValue = "";
-				currName = "";
 				currValue = String.format("%-13s %-13s %-13s %-13s",
 						splitLine[0], splitLine[1], splitLine[2], splitLine[3]);
-
-				for (int j = 4; j < splitLine.length; j++) {
-					if (j != splitLine.length - 1) {
-						currName += splitLine[j] + " ";
-					} else {
-						currName += splitLine[j];
-					}
-				}
+				currName = joinTokens(splitLine, 4, "");
 
 				// Set the name, value and ID
 				entry.setName(currName);
@@ -589,30 +680,30 @@ public class NekReader {
 	 * of BoundaryConditions, where N is the value defined by NPSCAL in the
 	 * PARAMETERS section (ie. this.numPassiveScalars)
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
+	 * The elements are read and built a chunk at a time. Their boundary
+	 * conditions follow all of the elements in the file, so they are assigned
+	 * once the boundary condition sets have been read.
+	 * 
+	 * @param reader
+	 *            The reader of the reafile, positioned after the NEL,NDIM,NELV
+	 *            line.
+	 * @param numbersLine
+	 *            The NEL,NDIM,NELV line, or null if the reafile has no mesh.
+	 * @param trailerLines
+	 *            The list that will hold the lines after the last boundary
+	 *            condition. It is left alone if the reafile has no mesh.
 	 * @return MeshComponent containing the definition of all mesh elements()
 	 *         defined in the problem, with a set of BoundaryConditions
 	 *         associated to each Quad.
+	 * @throws IOException
+	 *             Thrown when the reafile cannot be read
 	 **/
-	private MeshComponent loadMesh(ArrayList<String> reaLines) {
+	private MeshComponent loadMesh(BufferedReader reader, String numbersLine,
+			ArrayList<String> trailerLines) throws IOException {
 
 		// Local declarations for file reading
-		String currLine;
-		ArrayList<Float> nextLine = null;
-		ArrayList<String> numbersLine = null;
-
-		// Local declarations for quad building
-		Vertex vertex;
-		Edge edge;
-		Quad quad;
-		ArrayList<Vertex> vertices = null;
-		ArrayList<Edge> edges = null;
-		ArrayList<Vertex> vertexCombo = null;
-
-		// Keeps track of the unique edge IDs associated to the current quad
-		// for the purpose of assigning boundary conditions keyed on edge IDs
-		ArrayList<Integer> edgeIdList = null;
+		ArrayList<String> numbers = null;
+		String line;
 
 		// Create a mesh component, quad and edge
 		MeshComponent mesh = new MeshComponent();
@@ -628,246 +719,280 @@ public class NekReader {
 		HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = null;
 		ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions = null;
 
-		// Begin reading the input file lines
-		for (int i = 0; i < reaLines.size(); i++) {
+		// The mesh data heading was found by readHeaderLines()
+		if (numbersLine != null) {
+
+			// Grab the numbers on the line after the heading (NEL,NDIM,NELV)
+			numbers = (ArrayList<String>) parseLine(String.class, numbersLine);
+
+			// NEL = number of (thermal) elements used
+			// NDIM = number of dimensions
+			// NELV = number of fluid elements used (doesn't have to be same
+			// as number of thermal elements
+
+			numThermalElements = Integer.parseInt(numbers.get(0));
+			numDimensions = Integer.parseInt(numbers.get(1));
+			numFluidElements = Integer.parseInt(numbers.get(2));
+
+			// Read the lines of the elements/quads. Each element is (1 header
+			// + # dimensions) lines. Only the lines of the elements are kept,
+			// and the quads are built in parallel whenever a chunk is full.
+			int linesPerElement = numDimensions + 1;
+			int numLines = numThermalElements * linesPerElement;
+			Quad[] quads = new Quad[numThermalElements];
+			ArrayList<String> chunk = new ArrayList<String>();
+			int numElements = 0;
+			int j = 0;
+			while (j < numLines && (line = reader.readLine()) != null) {
+
+				// If current line is the beginning of a new element, keep it
+				// and the rest of the element and jump ahead to the next
+				// element/quad (if there is one)
+				if (line.contains("ELEMENT")) {
+					chunk.add(line);
+					for (int k = 1; k < linesPerElement
+							&& (line = reader.readLine()) != null; k++) {
+						chunk.add(line);
+					}
+					j += linesPerElement;
 
-			// Search for the mesh data heading
-			if ((reaLines.get(i).contains("**MESH DATA**") || reaLines.get(i)
-					.contains("*** MESH DATA ***"))
-					&& reaLines.get(i + 1).contains("NEL,NDIM,NELV")) {
-
-				// Grab the numbers on the next line (NEL,NDIM,NELV)
-				numbersLine = (ArrayList<String>) parseLine(String.class,
-						reaLines.get(i + 1));
-
-				// NEL = number of (thermal) elements used
-				// NDIM = number of dimensions
-				// NELV = number of fluid elements used (doesn't have to be same
-				// as number of thermal elements
-
-				numThermalElements = Integer.parseInt(numbersLine.get(0));
-				numDimensions = Integer.parseInt(numbersLine.get(1));
-				numFluidElements = Integer.parseInt(numbersLine.get(2));
-
-				// Start ID counters for quads, edges and vertices, all IDs
-				// must be unique
-				int edgeId = 1;
-				int vertexId = 1;
-				int quadId = 1;
-
-				// Load boundary conditions that will be assigned to
-				// element/quad edges
-				boundaryConditions = loadBoundaryConditions(reaLines);
-
-				// Determine what position the fluid, thermal and passive scalar
-				// boundary conditions are in the loaded boundaryConditions list
-				int fluidPosition = 0, thermalPosition = 0, passiveScalPosition = 0;
-				if (ifFlow) {
-					fluidPosition = 0;
-				}
-				if (ifFlow && ifHeat) {
-					thermalPosition = 1;
-				} else if (!ifFlow && ifHeat) {
-					thermalPosition = 0;
-				}
-				if (numPassiveScalars > 0) {
-					passiveScalPosition = thermalPosition + 1;
-				}
-				if (ifFlow) {
-					fluidBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
-							.get(fluidPosition);
-				}
-				if (ifHeat) {
-					thermalBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
-							.get(thermalPosition);
+					// Build the quads once the chunk is full
+					if (chunk.size() >= LINES_PER_CHUNK * linesPerElement) {
+						numElements = buildQuads(chunk, linesPerElement,
+								quads, numElements);
+					}
+				} else {
+					j++;
 				}
+			}
+			numElements = buildQuads(chunk, linesPerElement, quads,
+					numElements);
+
+			// Load boundary conditions that will be assigned to
+			// element/quad edges. They follow the elements.
+			boundaryConditions = loadBoundaryConditions(reader, trailerLines);
+
+			// Determine what position the fluid, thermal and passive scalar
+			// boundary conditions are in the loaded boundaryConditions list
+			int fluidPosition = 0, thermalPosition = 0, passiveScalPosition = 0;
+			if (ifFlow) {
+				fluidPosition = 0;
+			}
+			if (ifFlow && ifHeat) {
+				thermalPosition = 1;
+			} else if (!ifFlow && ifHeat) {
+				thermalPosition = 0;
+			}
+			if (numPassiveScalars > 0) {
+				passiveScalPosition = thermalPosition + 1;
+			}
+			if (ifFlow) {
+				fluidBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
+						.get(fluidPosition);
+			}
+			if (ifHeat) {
+				thermalBoundaryConditions = (HashMap<Integer, BoundaryCondition>) boundaryConditions
+						.get(thermalPosition);
+			}
 
-				if (numPassiveScalars > 0) {
-					scalarBoundaryConditions = (ArrayList<HashMap<Integer, BoundaryCondition>>) boundaryConditions
-							.get(passiveScalPosition);
-				}
+			if (numPassiveScalars > 0) {
+				scalarBoundaryConditions = (ArrayList<HashMap<Integer, BoundaryCondition>>) boundaryConditions
+						.get(passiveScalPosition);
+			}
 
-				// Jump the iterator 2 lines ahead and begin reading in
-				// elements/quads
-				i += 2;
+			// Assign the boundary conditions and add the quads to the mesh in
+			// order
+			for (int k = 0; k < numElements; k++) {
+				setBoundaryConditions(quads[k], k, fluidBoundaryConditions,
+						thermalBoundaryConditions, scalarBoundaryConditions);
+				mesh.addPolygon(quads[k]);
+			}
+		}
 
-				String materialId;
-				int groupNum;
-				String[] splitLine;
-				int j = 0;
-				while (j < numThermalElements * (numDimensions + 1)) { // Each
-																		// element
-																		// is (1
-																		// header
-																		// + #
-																		// dimensions)
-																		// lines
+		// Return the Mesh Component containing mesh elements/quads with a
+		// set of (2 + NPSCAL) boundary conditions associated to each edge
+		return mesh;
+	}
 
-					// Grab the current line
-					currLine = reaLines.get(i + j);
+	/**
+	 * Builds the quads of a chunk of element lines in parallel and clears the
+	 * chunk. Their IDs only depend on their position in the mesh, so the
+	 * result does not depend on the order in which they are built. The lines
+	 * of an element cut off by the end of the file are ignored.
+	 * 
+	 * @param chunk
+	 *            The lines of the elements, starting with an ELEMENT header.
+	 * @param linesPerElement
+	 *            The number of lines of each element.
+	 * @param quads
+	 *            The array that holds the Quad of each element.
+	 * @param first
+	 *            The position in the mesh of the first element of the chunk.
+	 * @return The position in the mesh of the element after the chunk.
+	 */
+	private int buildQuads(ArrayList<String> chunk, int linesPerElement,
+			Quad[] quads, int first) {
 
-					// If current line is the beginning of a new element
-					if (currLine.contains("ELEMENT")) {
-
-						// Grab the material ID and group number
-						splitLine = currLine.trim().split("\\s+");
-						if (splitLine[3].charAt(splitLine[3].length() - 1) == ']') {
-							materialId = splitLine[3].substring(0,
-									splitLine[3].length() - 1);
-							groupNum = Integer.parseInt(splitLine[5]);
-						} else {
-							materialId = splitLine[3];
-							groupNum = Integer.parseInt(splitLine[6]);
-						}
+		int count = chunk.size() / linesPerElement;
+		decodeSection(new ElementTask(chunk, linesPerElement, quads, first,
+				first, first + count), count);
+		chunk.clear();
+
+		return first + count;
+	}
+
+	/**
+	 * Builds one element/quad of the MESH DATA section with its vertices and
+	 * edges. Each quad has 4 vertices and 4 edges, so the unique IDs of the
+	 * quad, its vertices and its edges are computed from the position of the
+	 * element in the mesh.
+	 * 
+	 * @param lines
+	 *            Lines of the mesh elements as an ArrayList of Strings.
+	 * @param headerLine
+	 *            The index of the line with the ELEMENT header.
+	 * @param index
+	 *            The position of the element in the mesh, starting at 0.
+	 * @return The Quad.
+	 */
+	private Quad buildQuad(ArrayList<String> lines, int headerLine, int index) {
 
-						// Create a new current element
-						ArrayList<ArrayList<Float>> currElement = new ArrayList<ArrayList<Float>>();
+		// Local declarations for quad building
+		Vertex vertex;
+		Edge edge;
+		Quad quad;
+		ArrayList<Vertex> vertices = null;
+		ArrayList<Edge> edges = null;
+		ArrayList<Vertex> vertexCombo = null;
+		String materialId;
+		int groupNum;
+
+		// Start ID counters for quads, edges and vertices, all IDs
+		// must be unique
+		int edgeId = 4 * index + 1;
+		int vertexId = 4 * index + 1;
+		int quadId = index + 1;
+
+		// Grab the material ID and group number
+		String[] splitLine = tokenize(lines.get(headerLine));
+		if (splitLine[3].charAt(splitLine[3].length() - 1) == ']') {
+			materialId = splitLine[3].substring(0, splitLine[3].length() - 1);
+			groupNum = Integer.parseInt(splitLine[5]);
+		} else {
+			materialId = splitLine[3];
+			groupNum = Integer.parseInt(splitLine[6]);
+		}
 
-						// Jump to the next line and parse as many lines as
-						// there
-						// are dimensions (ie. 2 dimensions = 2 lines of coords)
-						for (int k = 0; k < numDimensions; k++) {
+		// Parse the x and y coordinates on the next two lines
+		String[] xCoords = tokenize(lines.get(headerLine + 1));
+		String[] yCoords = tokenize(lines.get(headerLine + 2));
 
-							// Parse line into an ArrayList and add to current
-							// element
-							nextLine = (ArrayList<Float>) parseLine(
-									Float.class, reaLines.get(i + j + k + 1));
-							currElement.add(nextLine);
-						}
+		// Construct a set of vertices
+		float x, y, z;
+		vertices = new ArrayList<Vertex>(xCoords.length);
 
-						// Construct a set of vertices
-						float x, y, z;
-						vertices = new ArrayList<Vertex>();
+		for (int k = 0; k < xCoords.length; k++) {
 
-						for (int k = 0; k < currElement.get(0).size(); k++) {
+			// Define the x,y,z coordinates
+			x = Float.parseFloat(xCoords[k]);
+			y = Float.parseFloat(yCoords[k]);
+			z = 0f;
 
-							// Define the x,y,z coordinates
-							x = currElement.get(0).get(k);
-							y = currElement.get(1).get(k);
-							z = 0f;
+			// Create new vertex and add to vertices ArrayList
+			vertex = new Vertex(x, y, z);
+			vertex.setId(vertexId); // Set unique ID
+			vertices.add(vertex);
 
-							// Create new vertex and add to vertices ArrayList
-							vertex = new Vertex(x, y, z);
-							vertex.setId(vertexId); // Set unique ID
-							vertices.add(vertex);
+			vertexId++;
+		}
 
-							vertexId++;
-						}
+		// Construct combinations of vertices. Edge k connects vertices k and
+		// k + 1, and the last edge connects vertices 4 and 1.
+		edges = new ArrayList<Edge>(4);
+		for (int k = 0; k < 4; k++) {
 
-						// Construct combinations of vertices
-						edges = new ArrayList<Edge>();
-						edgeIdList = new ArrayList<Integer>();
-
-						for (int k = 0; k < 4; k++) {
-
-							vertexCombo = new ArrayList<Vertex>();
-
-							// Edge 1 = Vertices 1 + 2
-							// Edge 2 = Vertices 2 + 3
-							// Edge 3 = Vertices 3 + 4
-							// Edge 4 = Vertices 4 + 1
-
-							// Create one of four possible combinations of
-							// vertices
-							switch (k) {
-							case 0:
-								vertexCombo.add(vertices.get(0));
-								vertexCombo.add(vertices.get(1));
-								break;
-							case 1:
-								vertexCombo.add(vertices.get(1));
-								vertexCombo.add(vertices.get(2));
-								break;
-							case 2:
-								vertexCombo.add(vertices.get(2));
-								vertexCombo.add(vertices.get(3));
-								break;
-							case 3:
-								vertexCombo.add(vertices.get(3));
-								vertexCombo.add(vertices.get(0));
-								break;
-							default:
-								break;
-							}
-
-							// Create a new edge and add to edges ArrayList
-							edge = new Edge(vertexCombo);
-							edge.setId(edgeId); // Set unique edge ID
-							edges.add(edge);
-
-							edgeIdList.add(edgeId);
-
-							edgeId++;
-						}
+			vertexCombo = new ArrayList<Vertex>(2);
+			vertexCombo.add(vertices.get(k));
+			vertexCombo.add(vertices.get((k + 1) % 4));
 
-						// Create new quad, add it to the MeshComponent
-						quad = new Quad(edges, vertices);
-						quad.setPolygonProperties(materialId, groupNum);
-
-						// Set the boundary conditions of the quad by edge ID
-						int currEdgeId;
-						for (int k = 0; k < 4; k++) { // k < 6 for
-														// three-dimensional
-														// cases
-
-							// Grab the ID of one of the edges contained in the
-							// quad
-							currEdgeId = edgeIdList.get(k);
-
-							// Set the fluid boundary condition for that edge
-							if (ifFlow) {
-								quad.setFluidBoundaryCondition(currEdgeId,
-										fluidBoundaryConditions.get(currEdgeId));
-							}
-
-							// Set the thermal boundary condition for that edge
-							if (ifHeat) {
-								quad.setThermalBoundaryCondition(currEdgeId,
-										thermalBoundaryConditions
-												.get(currEdgeId));
-							}
-
-							// Set the passive scalar boundary condition(s) for
-							// that edge (if any)
-							if (numPassiveScalars > 0) {
-
-								HashMap<Integer, BoundaryCondition> currSetScalars = new HashMap<Integer, BoundaryCondition>();
-
-								for (int ii = 1; ii <= numPassiveScalars; ii++) {
-
-									// Define the current set of scalar boundary
-									// conditions
-									currSetScalars = scalarBoundaryConditions
-											.get(ii);
-
-									// Set the passive scalar boundary condition
-									// for the current edge
-									quad.setOtherBoundaryCondition(currEdgeId,
-											ii, currSetScalars.get(currEdgeId));
-								}
-							}
-						}
+			// Create a new edge and add to edges ArrayList
+			edge = new Edge(vertexCombo);
+			edge.setId(edgeId + k); // Set unique edge ID
+			edges.add(edge);
+		}
 
-						quad.setId(quadId); // Set unique quad ID
-						mesh.addPolygon(quad); // Add the quad to the mesh
-						edgeIdList.clear(); // Clear the quad edge list
+		// Create new quad
+		quad = new Quad(edges, vertices);
+		quad.setPolygonProperties(materialId, groupNum);
+		quad.setId(quadId); // Set unique quad ID
 
-						quadId++;
+		return quad;
+	}
 
-						// Jump ahead to the next element/quad (if there is one)
-						j += (numDimensions + 1);
-					}
+	/**
+	 * Assigns the boundary conditions of the edges of one element/quad.
+	 * 
+	 * @param quad
+	 *            The Quad.
+	 * @param index
+	 *            The position of the element in the mesh, starting at 0.
+	 * @param fluidBoundaryConditions
+	 *            The fluid BoundaryConditions keyed on unique edge ID, or null
+	 *            if fluid is not solved for.
+	 * @param thermalBoundaryConditions
+	 *            The thermal BoundaryConditions keyed on unique edge ID, or
+	 *            null if heat is not solved for.
+	 * @param scalarBoundaryConditions
+	 *            The sets of passive scalar BoundaryConditions keyed on unique
+	 *            edge ID, or null if there are no passive scalars.
+	 */
+	private void setBoundaryConditions(Quad quad, int index,
+			HashMap<Integer, BoundaryCondition> fluidBoundaryConditions,
+			HashMap<Integer, BoundaryCondition> thermalBoundaryConditions,
+			ArrayList<HashMap<Integer, BoundaryCondition>> scalarBoundaryConditions) {
 
-					else {
-						j++;
-					}
+		// The edge IDs of the quad start here
+		int edgeId = 4 * index + 1;
+
+		// Set the boundary conditions of the quad by edge ID
+		int currEdgeId;
+		for (int k = 0; k < 4; k++) { // k < 6 for three-dimensional cases
+
+			// Grab the ID of one of the edges contained in the quad
+			currEdgeId = edgeId + k;
+
+			// Set the fluid boundary condition for that edge
+			if (ifFlow) {
+				quad.setFluidBoundaryCondition(currEdgeId,
+						fluidBoundaryConditions.get(currEdgeId));
+			}
+
+			// Set the thermal boundary condition for that edge
+			if (ifHeat) {
+				quad.setThermalBoundaryCondition(currEdgeId,
+						thermalBoundaryConditions.get(currEdgeId));
+			}
+
+			// Set the passive scalar boundary condition(s) for that edge (if
+			// any)
+			if (numPassiveScalars > 0) {
+
+				HashMap<Integer, BoundaryCondition> currSetScalars;
+
+				for (int ii = 1; ii <= numPassiveScalars; ii++) {
+
+					// Define the current set of scalar boundary conditions
+					currSetScalars = scalarBoundaryConditions.get(ii);
+
+					// Set the passive scalar boundary condition for the
+					// current edge
+					quad.setOtherBoundaryCondition(currEdgeId, ii,
+							currSetScalars.get(currEdgeId));
 				}
 			}
 		}
 
-		// Return the Mesh Component containing mesh elements/quads with a
-		// set of (2 + NPSCAL) boundary conditions associated to each edge
-		return mesh;
+		return;
 	}
 
 	/**
@@ -893,10 +1018,10 @@ public class NekReader {
 	}
 
 	/**
-	 * Reads in an ArrayList of Strings (lines read from a .rea file) and
-	 * returns an ArrayList of Objects containing the boundary conditions
-	 * extracted from the reafile. The returned ArrayList is of mixed type,
-	 * which necessitates it being of type Object. The contents are:
+	 * Reads the boundary conditions that follow the mesh elements of a reafile
+	 * and returns an ArrayList of Objects containing them. The returned
+	 * ArrayList is of mixed type, which necessitates it being of type Object.
+	 * The contents are:
 	 * 
 	 * [0] : HashMap of fluid BoundaryCondition objects keyed on unique edge ID
 	 * [1] : HashMap of thermal BoundaryCondition objects keyed on unique edge
@@ -904,22 +1029,30 @@ public class NekReader {
 	 * objects keyed on unique edge ID, where n is an integer defined by the
 	 * NPSCAL parameter (ie. this.numPassiveScalars)
 	 * 
-	 * @param realLines
-	 *            Lines of the reafile as an ArrayList of Strings.
+	 * The rest of the file is read by this method. The lines after the last
+	 * set of boundary conditions are collected for the sections that follow
+	 * the mesh.
+	 * 
+	 * @param reader
+	 *            The reader of the reafile, positioned after the last mesh
+	 *            element.
+	 * @param trailerLines
+	 *            The list that will hold the lines after the last boundary
+	 *            condition.
 	 * @return An ArrayList of BoundaryCondition HashMaps keyed on unique Edge
 	 *         IDs. Elements 0 and 1 are fluid and thermal boundary condition
 	 *         maps respecively. Elements 2 is an ArrayList of N HashMaps of
 	 *         passive scalar boundary conditions, where N is defined by NPSCAL
 	 *         in the PARAMETERS section (ie. this.numPassiveScalars)
+	 * @throws IOException
+	 *             Thrown when the reafile cannot be read
 	 **/
-	private ArrayList<Object> loadBoundaryConditions(ArrayList<String> reaLines) {
-
-		// Local declarations
-		ArrayList<Object> currCondition;
+	private ArrayList<Object> loadBoundaryConditions(BufferedReader reader,
+			ArrayList<String> trailerLines) throws IOException {
 
 		// Create the HashMaps of thermal and fluid boundary conditions
-		HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = new HashMap<Integer, BoundaryCondition>();
-		HashMap<Integer, BoundaryCondition> fluidBoundaryConditions = new HashMap<Integer, BoundaryCondition>();
+		HashMap<Integer, BoundaryCondition> thermalBoundaryConditions = null;
+		HashMap<Integer, BoundaryCondition> fluidBoundaryConditions = null;
 
 		// Create an ArrayList to hold all HashMaps of passive scalar
 		// boundary conditions
@@ -930,63 +1063,43 @@ public class NekReader {
 		ArrayList<Object> allBoundaryConditions = new ArrayList<Object>();
 
 		// Begin reading the input file lines
-		for (int i = 0; i < reaLines.size(); i++) {
+		String line;
+		while ((line = reader.readLine()) != null) {
 
 			/** --- Load FLUID boundary conditions --- **/
 
 			// Search for the fluid boundary conditions header
-			if (reaLines.get(i).contains(
-					"***** FLUID   BOUNDARY CONDITIONS *****")) {
-
-				// Jump the iterator 1 line ahead and begin reading in boundary
-				// conditions
-				i += 1;
-
-				for (int j = 0; j < numFluidElements * 4; j++) {
-
-					// Create the current boundary condition object
-					currCondition = buildBoundaryConditionPair(reaLines, i, j);
-
-					// Plug it (along with the unique edge ID it corresponds to)
-					// into the thermal boundary conditions HashMap
-					fluidBoundaryConditions.put((Integer) currCondition.get(0),
-							(BoundaryCondition) currCondition.get(1));
-				}
+			if (line.contains("***** FLUID   BOUNDARY CONDITIONS *****")) {
 
+				// Read in the boundary conditions on the following lines
+				fluidBoundaryConditions = loadBoundaryConditionSet(reader,
+						numFluidElements * 4);
 				allBoundaryConditions.add(fluidBoundaryConditions);
+
+				// The sections after the mesh follow the last set
+				trailerLines.clear();
 			}
 
 			/** --- Load THERMAL boundary conditions --- **/
 
 			// Search for the thermal boundary conditions header
-			if (reaLines.get(i).contains(
-					"***** THERMAL BOUNDARY CONDITIONS *****")) {
-
-				// Jump the iterator 1 line ahead and begin reading in boundary
-				// conditions
-				i += 1;
-
-				for (int j = 0; j < numThermalElements * 4; j++) {
-
-					// Create the current boundary condition object
-					currCondition = buildBoundaryConditionPair(reaLines, i, j);
-
-					// Plug it (along with the unique edge ID it corresponds to)
-					// into the thermal boundary conditions HashMap
-					thermalBoundaryConditions.put(
-							(Integer) currCondition.get(0),
-							(BoundaryCondition) currCondition.get(1));
-				}
+			else if (line
+					.contains("***** THERMAL BOUNDARY CONDITIONS *****")) {
 
+				// Read in the boundary conditions on the following lines
+				thermalBoundaryConditions = loadBoundaryConditionSet(reader,
+						numThermalElements * 4);
 				allBoundaryConditions.add(thermalBoundaryConditions);
+
+				// The sections after the mesh follow the last set
+				trailerLines.clear();
 			}
 
 			/** --- Load PASSIVE SCALAR boundary conditions (if any) --- **/
 			// Find the beginning of the passive scalar BC section
-			if (numPassiveScalars > 0
-					&& reaLines.get(i).contains(
-							"***** PASSIVE SCALAR           "
-									+ "1 BOUNDARY CONDITIONS *****")) {
+			else if (numPassiveScalars > 0
+					&& line.contains("***** PASSIVE SCALAR           "
+							+ "1 BOUNDARY CONDITIONS *****")) {
 
 				// Repeat the following for as many sets of passive scalar
 				// BCs as there are
@@ -995,50 +1108,80 @@ public class NekReader {
 					// Search for the current scalar header
 					String passiveScalarHeader = "***** PASSIVE SCALAR           "
 							+ currScalarNum + " BOUNDARY CONDITIONS *****";
-					if (reaLines.get(i).contains(passiveScalarHeader)) {
-
-						// Create a HashMap for the current passive scalar
-						// boundary
-						// conditions
-						HashMap<Integer, BoundaryCondition> scalarBoundaryCondition = new HashMap<Integer, BoundaryCondition>();
-
-						// Jump the iterator 1 line ahead and begin reading
-						// in boundary
-						// conditions
-						i += 1;
-
-						for (int j = 0; j < numThermalElements * 4; j++) {
-
-							// Create the current boundary condition object
-							currCondition = buildBoundaryConditionPair(
-									reaLines, i, j);
-
-							// Plug it (along with the unique edge ID it
-							// corresponds to)
-							// into the passive scalar boundary conditions
-							// HashMap
-							scalarBoundaryCondition.put(
-									(Integer) currCondition.get(0),
-									(BoundaryCondition) currCondition.get(1));
-						}
+					if (line.contains(passiveScalarHeader)) {
+
+						// Read in the boundary conditions for the current
+						// passive scalar on the following lines
+						HashMap<Integer, BoundaryCondition> scalarBoundaryCondition = loadBoundaryConditionSet(
+								reader, numThermalElements * 4);
 
 						// Append the HashMap to the list of all passive
-						// scalar
-						// boundary conditions
+						// scalar boundary conditions
 						scalarBoundaryConditions.add(scalarBoundaryCondition);
+						trailerLines.clear();
+
+						// The line after the header was a boundary condition
+						line = "";
 					}
 
 					// Append the list of all passive scalar boundary
-					// condition
-					// sets to the list of all boundary conditions
+					// condition sets to the list of all boundary conditions
 					allBoundaryConditions.add(scalarBoundaryConditions);
 				}
 			}
+
+			// Keep any other line in case it follows the last set
+			else {
+				trailerLines.add(line);
+			}
 		}
 
 		return allBoundaryConditions;
 	}
 
+	/**
+	 * Reads one set of boundary conditions (fluid, thermal or one passive
+	 * scalar) and returns them keyed on unique edge ID. The lines are read a
+	 * chunk at a time, and each chunk is decoded in parallel.
+	 * 
+	 * @param reader
+	 *            The reader of the reafile, positioned at the first boundary
+	 *            condition line.
+	 * @param count
+	 *            The number of boundary condition lines.
+	 * @return A HashMap of BoundaryConditions keyed on unique edge ID.
+	 * @throws IOException
+	 *             Thrown when the reafile cannot be read
+	 */
+	private HashMap<Integer, BoundaryCondition> loadBoundaryConditionSet(
+			BufferedReader reader, int count) throws IOException {
+
+		// Local declarations
+		int[] edgeIds = new int[count];
+		BoundaryCondition[] conditions = new BoundaryCondition[count];
+		HashMap<Integer, BoundaryCondition> boundaryConditions = new HashMap<Integer, BoundaryCondition>(
+				2 * count);
+		ArrayList<String> chunk = new ArrayList<String>();
+		int numLines = 0, chunkSize;
+
+		// Read and decode the lines one chunk at a time
+		while (numLines < count
+				&& (chunkSize = readChunk(reader, chunk,
+						Math.min(LINES_PER_CHUNK, count - numLines))) > 0) {
+			decodeSection(new BoundaryConditionTask(chunk, numLines, edgeIds,
+					conditions, numLines, numLines + chunkSize), chunkSize);
+			numLines += chunkSize;
+		}
+
+		// Plug each condition (along with the unique edge ID it corresponds
+		// to) into the HashMap in the order of the file
+		for (int j = 0; j < numLines; j++) {
+			boundaryConditions.put(edgeIds[j], conditions[j]);
+		}
+
+		return boundaryConditions;
+	}
+
 	/**
 	 * Loads the PRESOLVE/RESTART OPTIONS section of a reafile and returns the
 	 * contents as a DataComponent of Entries. Each line is set an Entry.
@@ -1080,20 +1223,13 @@ public class NekReader {
 
 					// Grab the current line
 					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
+					splitLine = tokenize(currLine);
 
 					// Create a Nek Entry
 					entry = makeNekEntry(false);
 
 					// Construct the current value
-					currValue = "";
-					for (int k = 0; k < splitLine.length; k++) {
-						if (k != splitLine.length - 1) {
-							currValue += splitLine[k] + " ";
-						} else {
-							currValue += splitLine[k];
-						}
-					}
+					currValue = joinTokens(splitLine, 0, "");
 
 					// Set the name, value and ID
 					entry.setName("Restart Option " + (j + 1));
@@ -1408,7 +1544,7 @@ public class NekReader {
 
 					// Grab the current line
 					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
+					splitLine = tokenize(currLine);
 
 					// Determine if the entry will have discrete values or not
 					isDiscrete = (currLine.contains("COORDINATES")
@@ -1422,14 +1558,7 @@ public class NekReader {
 					// Define the name and value
 					currValue = ("T".equals(splitLine[0]) ? "YES" : ("F"
 							.equals(splitLine[0]) ? "NO" : splitLine[0]));
-					currName = "";
-					for (int k = 1; k < splitLine.length; k++) {
-						if (k != splitLine.length - 1) {
-							currName += splitLine[k] + " ";
-						} else {
-							currName += splitLine[k];
-						}
-					}
+					currName = joinTokens(splitLine, 1, "");
 
 					// Set the name, value and ID
 					entry.setName(currName);
@@ -1483,7 +1612,7 @@ public class NekReader {
 
 					// Grab the current line
 					currLine = reaLines.get(i + j);
-					splitLine = currLine.trim().split("\\s+");
+					splitLine = tokenize(currLine);
 
 					// Create a Nek Entry
 					entry = makeNekEntry(false);
@@ -1574,9 +1703,12 @@ public class NekReader {
 		ArrayList<?> returnArray = null;
 
 		// Break up the line into a list of non-whitespace elements
-		String[] splitLine = line.trim().split("\\s+");
+		String[] splitLine = tokenize(line);
 		ArrayList<String> stringArray = new ArrayList<String>(
-				Arrays.asList(splitLine));
+				splitLine.length);
+		for (String token : splitLine) {
+			stringArray.add(token);
+		}
 
 		// Parse to the objectType class specified
 		if (objectType == String.class) {
@@ -1624,20 +1756,14 @@ public class NekReader {
 	 * works for all sets of BoundaryConditions (fluid, thermal, passive
 	 * scalars).
 	 * 
-	 * @param reaLines
-	 *            Lines of the reafile as an ArrayList of Strings.
-	 * @param i
-	 *            The reafile line at which the MESH DATA begins.
-	 * @param j
-	 *            The current line being read inside the MESH DATA section.
+	 * @param currLine
+	 *            The boundary condition line.
 	 * @return An ArrayList containing the unique Edge ID in the first element,
 	 *         and the associated BoundaryCondition in the second element.
 	 */
-	private ArrayList<Object> buildBoundaryConditionPair(
-			ArrayList<String> reaLines, int i, int j) {
+	private ArrayList<Object> buildBoundaryConditionPair(String currLine) {
 
 		// Local declarations
-		String currLine;
 		ArrayList<Float> currBoundaryValues = new ArrayList<Float>();
 
 		int edgeId;
@@ -1645,12 +1771,9 @@ public class NekReader {
 		BoundaryCondition condition;
 		BoundaryConditionType type;
 
-		// Grab the current line
-		currLine = reaLines.get(i + j);
-
 		// Extract values from current boundary condition
 		String[] splitLine;
-		splitLine = currLine.trim().split("\\s+");
+		splitLine = tokenize(currLine);
 
 		for (int k = 1; k <= 7; k++) {
 			currBoundaryValues.add(Float.parseFloat(splitLine[k]));
@@ -1684,6 +1807,91 @@ public class NekReader {
 		return boundaryPair;
 	}
 
+	/**
+	 * Utility method that breaks a String up at its whitespaces, like
+	 * line.trim().split("\\s+") but without compiling a regular expression
+	 * for every line. A blank line returns a single empty String.
+	 * 
+	 * @param line
+	 *            The String of mixed whitespace and non-whitespace chars.
+	 * @return The non-whitespace sequences in the line.
+	 */
+	private static String[] tokenize(String line) {
+
+		// Local declarations
+		ArrayList<String> tokens = new ArrayList<String>();
+		int length = line.length();
+		int i = 0, tokenStart;
+
+		while (i < length) {
+			// Skip the whitespace
+			while (i < length && line.charAt(i) <= ' ') {
+				i++;
+			}
+			// Find the end of the token
+			tokenStart = i;
+			while (i < length && line.charAt(i) > ' ') {
+				i++;
+			}
+			if (i > tokenStart) {
+				tokens.add(line.substring(tokenStart, i));
+			}
+		}
+
+		// A blank line is one empty token
+		if (tokens.isEmpty()) {
+			tokens.add("");
+		}
+
+		return tokens.toArray(new String[tokens.size()]);
+	}
+
+	/**
+	 * Utility method that joins tokens with single spaces.
+	 * 
+	 * @param tokens
+	 *            The tokens of a line.
+	 * @param first
+	 *            The index of the first token to join.
+	 * @param suffix
+	 *            The String to append after the last token, if there are any
+	 *            tokens to join.
+	 * @return The joined tokens, or an empty String if there are no tokens
+	 *         from the first index on.
+	 */
+	private static String joinTokens(String[] tokens, int first, String suffix) {
+
+		StringBuilder builder = new StringBuilder();
+		for (int k = first; k < tokens.length; k++) {
+			if (k > first) {
+				builder.append(' ');
+			}
+			builder.append(tokens[k]);
+		}
+		if (first < tokens.length) {
+			builder.append(suffix);
+		}
+
+		return builder.toString();
+	}
+
+	/**
+	 * Runs a SectionTask, in the shared pool if its range is large enough to
+	 * be split.
+	 * 
+	 * @param task
+	 *            The task that decodes the section.
+	 * @param count
+	 *            The number of elements or lines the task decodes.
+	 */
+	private void decodeSection(SectionTask task, int count) {
+		if (count > LINES_PER_TASK) {
+			sectionPool.invoke(task);
+		} else {
+			task.compute();
+		}
+	}
+
 	/**
 	 * Returns the last ProblemProperties object constructed by the NekReader.
 	 * Intended to be passed on as input for NekWriter.writeREAFile().
@@ -1694,4 +1902,226 @@ public class NekReader {
 		return properties;
 	}
 
+	/**
+	 * This class decodes a range of the mesh elements or boundary condition
+	 * lines of a reafile. Large ranges are split in half and decoded in
+	 * parallel. Each index is decoded independently and stores its result in
+	 * its own slot of an array.
+	 * 
+	 * @author Anna Wojtowicz
+	 * 
+	 */
+	private abstract class SectionTask extends RecursiveAction {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The first index of the range
+		 */
+		protected final int start;
+
+		/**
+		 * The index after the last index of the range
+		 */
+		protected final int end;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param start
+		 *            the first index of the range
+		 * @param end
+		 *            the index after the last index of the range
+		 */
+		protected SectionTask(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		/**
+		 * This operation creates a task for part of the range.
+		 * 
+		 * @param start
+		 *            the first index of the part
+		 * @param end
+		 *            the index after the last index of the part
+		 * @return the task
+		 */
+		protected abstract SectionTask split(int start, int end);
+
+		/**
+		 * This operation decodes one index of the range.
+		 * 
+		 * @param index
+		 *            the index
+		 */
+		protected abstract void decode(int index);
+
+		@Override
+		protected void compute() {
+			// Split large ranges
+			if (end - start > LINES_PER_TASK) {
+				int middle = (start + end) >>> 1;
+				invokeAll(split(start, middle), split(middle, end));
+			} else {
+				// Otherwise decode the range
+				for (int i = start; i < end; i++) {
+					decode(i);
+				}
+			}
+		}
+	}
+
+	/**
+	 * This class builds the Quads of a range of mesh elements from a chunk of
+	 * their lines.
+	 * 
+	 * @author Anna Wojtowicz
+	 * 
+	 */
+	private class ElementTask extends SectionTask {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Lines of the elements of the chunk
+		 */
+		private final ArrayList<String> lines;
+
+		/**
+		 * The number of lines of each element
+		 */
+		private final int linesPerElement;
+
+		/**
+		 * The array that will hold the Quad of each element
+		 */
+		private final Quad[] quads;
+
+		/**
+		 * The position in the mesh of the first element of the chunk
+		 */
+		private final int first;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param lines
+		 *            lines of the elements of the chunk
+		 * @param linesPerElement
+		 *            the number of lines of each element
+		 * @param quads
+		 *            the array that will hold the Quad of each element
+		 * @param first
+		 *            the position in the mesh of the first element of the
+		 *            chunk
+		 * @param start
+		 *            the first element of the range
+		 * @param end
+		 *            the element after the last element of the range
+		 */
+		private ElementTask(ArrayList<String> lines, int linesPerElement,
+				Quad[] quads, int first, int start, int end) {
+			super(start, end);
+			this.lines = lines;
+			this.linesPerElement = linesPerElement;
+			this.quads = quads;
+			this.first = first;
+		}
+
+		@Override
+		protected SectionTask split(int start, int end) {
+			return new ElementTask(lines, linesPerElement, quads, first,
+					start, end);
+		}
+
+		@Override
+		protected void decode(int index) {
+			quads[index] = buildQuad(lines, (index - first) * linesPerElement,
+					index);
+		}
+	}
+
+	/**
+	 * This class decodes a range of the lines of one set of boundary
+	 * conditions from a chunk of the lines.
+	 * 
+	 * @author Anna Wojtowicz
+	 * 
+	 */
+	private class BoundaryConditionTask extends SectionTask {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Boundary condition lines of the chunk
+		 */
+		private final ArrayList<String> lines;
+
+		/**
+		 * The index in the set of the first line of the chunk
+		 */
+		private final int first;
+
+		/**
+		 * The array that will hold the unique edge ID of each line
+		 */
+		private final int[] edgeIds;
+
+		/**
+		 * The array that will hold the BoundaryCondition of each line
+		 */
+		private final BoundaryCondition[] conditions;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param lines
+		 *            boundary condition lines of the chunk
+		 * @param first
+		 *            the index in the set of the first line of the chunk
+		 * @param edgeIds
+		 *            the array that will hold the unique edge ID of each line
+		 * @param conditions
+		 *            the array that will hold the BoundaryCondition of each
+		 *            line
+		 * @param start
+		 *            the first line of the range in the set
+		 * @param end
+		 *            the line after the last line of the range in the set
+		 */
+		private BoundaryConditionTask(ArrayList<String> lines, int first,
+				int[] edgeIds, BoundaryCondition[] conditions, int start,
+				int end) {
+			super(start, end);
+			this.lines = lines;
+			this.first = first;
+			this.edgeIds = edgeIds;
+			this.conditions = conditions;
+		}
+
+		@Override
+		protected SectionTask split(int start, int end) {
+			return new BoundaryConditionTask(lines, first, edgeIds,
+					conditions, start, end);
+		}
+
+		@Override
+		protected void decode(int index) {
+			ArrayList<Object> pair = buildBoundaryConditionPair(lines
+					.get(index - first));
+			edgeIds[index] = (Integer) pair.get(0);
+			conditions[index] = (BoundaryCondition) pair.get(1);
+		}
+	}
+
 }
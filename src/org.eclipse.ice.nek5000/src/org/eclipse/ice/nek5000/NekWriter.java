@@ -32,6 +32,7 @@ import org.eclipse.ice.datastructures.form.mesh.BoundaryCondition;
 import org.eclipse.ice.datastructures.form.mesh.BoundaryConditionType;
 import org.eclipse.ice.datastructures.form.mesh.Edge;
 import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
+import org.eclipse.ice.datastructures.form.mesh.Polygon;
 import org.eclipse.ice.datastructures.form.mesh.Quad;
 import org.eclipse.ice.datastructures.form.mesh.Vertex;
 
@@ -416,11 +417,14 @@ public class NekWriter implements IComponentVisitor {
 		ArrayList<String> fluidBCs = new ArrayList<String>();
 		ArrayList<ArrayList<String>> passiveScalarBCs = null;
 
-		// Iterate through the mesh elements
-		for (int i = 0; i < mesh.getPolygons().size(); i++) {
+		// Iterate through the mesh elements. The view of the polygons is used
+		// so that they are not copied for every element.
+		int i = -1;
+		for (Polygon polygon : mesh.getPolygonView()) {
+			i++;
 
 			// Define the current mesh element
-			currQuad = (Quad) mesh.getPolygons().get(i);
+			currQuad = (Quad) polygon;
 			currValue = String.format("           ELEMENT%6s [ %4s]" // FORMAT:
 																		// 18X,I6,4X,I3,A1,11x,i5
 					+ "  GROUP   %5s\n", (i + 1), currQuad
@@ -0,0 +1,559 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.persistence.xml;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.form.geometry.Transformation;
+import org.eclipse.ice.datastructures.form.mesh.BoundaryCondition;
+import org.eclipse.ice.datastructures.form.mesh.BoundaryConditionType;
+import org.eclipse.ice.datastructures.form.mesh.Edge;
+import org.eclipse.ice.datastructures.form.mesh.Hex;
+import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
+import org.eclipse.ice.datastructures.form.mesh.Polygon;
+import org.eclipse.ice.datastructures.form.mesh.PolygonProperties;
+import org.eclipse.ice.datastructures.form.mesh.Quad;
+import org.eclipse.ice.datastructures.form.mesh.Vertex;
+
+/**
+ * <p>
+ * This class writes and reads the native record of a MeshComponent for the
+ * BinaryPersistenceProvider. In XML every Polygon carries its own copies of
+ * its Vertices and Edges, so shared Vertices and Edges are written once for
+ * each Polygon that uses them. The native record writes each Vertex and Edge
+ * once and the Polygons refer to them by id.
+ * </p>
+ * <p>
+ * The record holds, in order, the id, name and description of the mesh, the
+ * Vertices with their locations, the Edges with the ids of their Vertices and
+ * the Polygons. Each Polygon holds its shape properties, its Transformation,
+ * the ids of its Edges and Vertices, its PolygonProperties and the
+ * BoundaryConditions of each of its Edges. Polygons start with a byte that
+ * identifies their class. Only plain Vertices and Edges and Polygons, Quads
+ * and Hexes can be written, see canWrite(), and meshes that use any other
+ * class are stored as XML records instead.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ *
+ */
+final class BinaryMeshRecord {
+
+	/**
+	 * The classes of the Polygons that can be written, indexed by their tag.
+	 */
+	private static final Class<?>[] POLYGON_CLASSES = { Polygon.class,
+			Quad.class, Hex.class };
+
+	/**
+	 * This class only has static operations.
+	 */
+	private BinaryMeshRecord() {
+	}
+
+	/**
+	 * This operation checks whether or not the mesh and all of its parts have
+	 * a native encoding.
+	 *
+	 * @param mesh
+	 *            The mesh
+	 * @return True if the mesh can be written with write(), false if it must
+	 *         be stored as XML
+	 */
+	public static boolean canWrite(MeshComponent mesh) {
+
+		// Subclasses of the mesh may carry other state
+		if (mesh.getClass() != MeshComponent.class) {
+			return false;
+		}
+		for (Vertex vertex : mesh.getVertexView()) {
+			if (vertex.getClass() != Vertex.class) {
+				return false;
+			}
+		}
+		for (Edge edge : mesh.getEdgeView()) {
+			if (edge.getClass() != Edge.class) {
+				return false;
+			}
+		}
+		for (Polygon polygon : mesh.getPolygonView()) {
+			if (getTag(polygon, POLYGON_CLASSES) < 0) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This operation writes the native record of a mesh. It does not write the
+	 * tag of the record.
+	 *
+	 * @param mesh
+	 *            The mesh, which must pass canWrite()
+	 * @param output
+	 *            The output
+	 * @throws IOException
+	 *             An exception indicating that the record could not be
+	 *             written
+	 */
+	public static void write(MeshComponent mesh, DataOutputStream output)
+			throws IOException {
+
+		// Local Declarations
+		float[] location;
+		int[] vertexIds;
+
+		// Write the mesh
+		writeObject(mesh, output);
+
+		// Write the Vertices
+		output.writeInt(mesh.getVertexView().size());
+		for (Vertex vertex : mesh.getVertexView()) {
+			writeObject(vertex, output);
+			location = vertex.getLocation();
+			output.writeFloat(location[0]);
+			output.writeFloat(location[1]);
+			output.writeFloat(location[2]);
+		}
+
+		// Write the Edges
+		output.writeInt(mesh.getEdgeView().size());
+		for (Edge edge : mesh.getEdgeView()) {
+			writeObject(edge, output);
+			vertexIds = edge.getVertexIds();
+			output.writeInt(vertexIds[0]);
+			output.writeInt(vertexIds[1]);
+		}
+
+		// Write the Polygons
+		output.writeInt(mesh.getPolygonView().size());
+		for (Polygon polygon : mesh.getPolygonView()) {
+			writePolygon(polygon, output);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes a Polygon.
+	 *
+	 * @param polygon
+	 *            The Polygon
+	 * @param output
+	 *            The output
+	 * @throws IOException
+	 *             An exception indicating that the Polygon could not be
+	 *             written
+	 */
+	private static void writePolygon(Polygon polygon, DataOutputStream output)
+			throws IOException {
+
+		// Local Declarations
+		ArrayList<String> keys = polygon.getPropertyKeys();
+		Transformation transformation = polygon.getTransformation();
+		ArrayList<Edge> edges = polygon.getEdges();
+		ArrayList<Vertex> vertices = polygon.getVertices();
+		PolygonProperties properties = polygon.getPolygonProperties();
+		ArrayList<BoundaryCondition> otherConditions;
+		BoundaryCondition condition;
+		int edgeId;
+
+		// Write the shape
+		output.writeByte(getTag(polygon, POLYGON_CLASSES));
+		writeObject(polygon, output);
+		output.writeInt(keys.size());
+		for (String key : keys) {
+			BinaryPersistenceProvider.writeString(key, output);
+			BinaryPersistenceProvider.writeString(polygon.getProperty(key),
+					output);
+		}
+		output.writeBoolean(transformation != null);
+		if (transformation != null) {
+			output.writeDouble(transformation.getSize());
+			writeDoubles(transformation.getSkew(), output);
+			writeDoubles(transformation.getScale(), output);
+			writeDoubles(transformation.getRotation(), output);
+			writeDoubles(transformation.getTranslation(), output);
+		}
+
+		// Write the ids of the Edges and Vertices
+		output.writeInt(edges.size());
+		for (int i = 0; i < edges.size(); i++) {
+			output.writeInt(edges.get(i).getId());
+			output.writeInt(vertices.get(i).getId());
+		}
+
+		// Write the properties and the boundary conditions of each Edge
+		BinaryPersistenceProvider.writeString(properties.getMaterialId(),
+				output);
+		output.writeInt(properties.getGroupNum());
+		for (Edge edge : edges) {
+			edgeId = edge.getId();
+			writeCondition(polygon.getFluidBoundaryCondition(edgeId), output);
+			writeCondition(polygon.getThermalBoundaryCondition(edgeId), output);
+			otherConditions = new ArrayList<BoundaryCondition>();
+			while ((condition = polygon.getOtherBoundaryCondition(edgeId,
+					otherConditions.size())) != null) {
+				otherConditions.add(condition);
+			}
+			output.writeInt(otherConditions.size());
+			for (BoundaryCondition otherCondition : otherConditions) {
+				writeCondition(otherCondition, output);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation writes a BoundaryCondition.
+	 *
+	 * @param condition
+	 *            The BoundaryCondition
+	 * @param output
+	 *            The output
+	 * @throws IOException
+	 *             An exception indicating that the BoundaryCondition could not
+	 *             be written
+	 */
+	private static void writeCondition(BoundaryCondition condition,
+			DataOutputStream output) throws IOException {
+
+		// Local Declarations
+		BoundaryConditionType type = condition.getType();
+		ArrayList<Float> values = condition.getValues();
+
+		writeObject(condition, output);
+		BinaryPersistenceProvider.writeString(
+				(type != null) ? type.name() : null, output);
+		if (values == null) {
+			output.writeInt(-1);
+		} else {
+			output.writeInt(values.size());
+			for (Float value : values) {
+				output.writeFloat((value != null) ? value : 0f);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads the native record of a mesh.
+	 *
+	 * @param buffer
+	 *            The buffer positioned after the record tag
+	 * @return The mesh
+	 * @throws IOException
+	 *             An exception indicating that the record is invalid
+	 */
+	public static MeshComponent read(ByteBuffer buffer) throws IOException {
+
+		// Local Declarations
+		MeshComponent mesh = new MeshComponent();
+		HashMap<Integer, Vertex> vertices = new HashMap<Integer, Vertex>();
+		HashMap<Integer, Edge> edges = new HashMap<Integer, Edge>();
+		ArrayList<Vertex> edgeVertices = new ArrayList<Vertex>(2);
+		Vertex vertex;
+		Edge edge;
+		int count;
+
+		// Read the mesh
+		readObject(mesh, buffer);
+
+		// Read the Vertices
+		count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			vertex = new Vertex();
+			readObject(vertex, buffer);
+			vertex.setLocation(buffer.getFloat(), buffer.getFloat(),
+					buffer.getFloat());
+			vertices.put(vertex.getId(), vertex);
+		}
+
+		// Read the Edges
+		count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			int id = buffer.getInt();
+			String name = BinaryPersistenceProvider.readString(buffer);
+			String description = BinaryPersistenceProvider.readString(buffer);
+			edgeVertices.clear();
+			edgeVertices.add(getPart(vertices, buffer.getInt()));
+			edgeVertices.add(getPart(vertices, buffer.getInt()));
+			try {
+				edge = new Edge(edgeVertices);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(e);
+			}
+			edge.setId(id);
+			edge.setName(name);
+			edge.setDescription(description);
+			edges.put(id, edge);
+		}
+
+		// Read the Polygons and add them to the mesh
+		count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			mesh.addPolygon(readPolygon(buffer, vertices, edges));
+		}
+
+		return mesh;
+	}
+
+	/**
+	 * This operation reads a Polygon.
+	 *
+	 * @param buffer
+	 *            The buffer positioned at the start of the Polygon
+	 * @param vertices
+	 *            The Vertices of the mesh keyed on their ids
+	 * @param edges
+	 *            The Edges of the mesh keyed on their ids
+	 * @return The Polygon
+	 * @throws IOException
+	 *             An exception indicating that the Polygon is invalid
+	 */
+	private static Polygon readPolygon(ByteBuffer buffer,
+			HashMap<Integer, Vertex> vertices, HashMap<Integer, Edge> edges)
+			throws IOException {
+
+		// Local Declarations
+		Polygon polygon;
+		byte tag = buffer.get();
+		int id = buffer.getInt();
+		String name = BinaryPersistenceProvider.readString(buffer);
+		String description = BinaryPersistenceProvider.readString(buffer);
+		ArrayList<String> keys = new ArrayList<String>();
+		ArrayList<String> values = new ArrayList<String>();
+		Transformation transformation = null;
+		ArrayList<Edge> polygonEdges;
+		ArrayList<Vertex> polygonVertices;
+		int count, edgeId;
+
+		// Read the shape properties and the Transformation
+		count = buffer.getInt();
+		for (int i = 0; i < count; i++) {
+			keys.add(BinaryPersistenceProvider.readString(buffer));
+			values.add(BinaryPersistenceProvider.readString(buffer));
+		}
+		if (buffer.get() != 0) {
+			transformation = new Transformation();
+			transformation.setSize(buffer.getDouble());
+			double[] vector = readDoubles(buffer);
+			transformation.setSkew(vector[0], vector[1], vector[2]);
+			vector = readDoubles(buffer);
+			transformation.setScale(vector[0], vector[1], vector[2]);
+			vector = readDoubles(buffer);
+			transformation.setRotation(vector[0], vector[1], vector[2]);
+			vector = readDoubles(buffer);
+			transformation.setTranslation(vector[0], vector[1], vector[2]);
+		}
+
+		// Read the Edges and Vertices
+		count = buffer.getInt();
+		polygonEdges = new ArrayList<Edge>(count);
+		polygonVertices = new ArrayList<Vertex>(count);
+		for (int i = 0; i < count; i++) {
+			polygonEdges.add(getPart(edges, buffer.getInt()));
+			polygonVertices.add(getPart(vertices, buffer.getInt()));
+		}
+
+		// Create the Polygon
+		try {
+			if (tag == 1) {
+				polygon = new Quad(polygonEdges, polygonVertices);
+			} else if (tag == 2) {
+				polygon = new Hex(polygonEdges, polygonVertices);
+			} else if (tag == 0) {
+				polygon = new Polygon(polygonEdges, polygonVertices);
+			} else {
+				throw new IOException("BinaryMeshRecord Message: "
+						+ "Unknown Polygon type " + tag + ".");
+			}
+		} catch (IllegalArgumentException e) {
+			throw new IOException(e);
+		}
+		polygon.setId(id);
+		polygon.setName(name);
+		polygon.setDescription(description);
+		for (int i = 0; i < keys.size(); i++) {
+			polygon.setProperty(keys.get(i), values.get(i));
+		}
+		if (transformation != null) {
+			polygon.setTransformation(transformation);
+		}
+
+		// Read the properties and boundary conditions
+		polygon.setPolygonProperties(
+				BinaryPersistenceProvider.readString(buffer), buffer.getInt());
+		for (Edge edge : polygonEdges) {
+			edgeId = edge.getId();
+			polygon.setFluidBoundaryCondition(edgeId, readCondition(buffer));
+			polygon.setThermalBoundaryCondition(edgeId, readCondition(buffer));
+			count = buffer.getInt();
+			for (int i = 0; i < count; i++) {
+				polygon.setOtherBoundaryCondition(edgeId, i,
+						readCondition(buffer));
+			}
+		}
+
+		return polygon;
+	}
+
+	/**
+	 * This operation reads a BoundaryCondition.
+	 *
+	 * @param buffer
+	 *            The buffer positioned at the start of the BoundaryCondition
+	 * @return The BoundaryCondition
+	 * @throws IOException
+	 *             An exception indicating that the type is unknown
+	 */
+	private static BoundaryCondition readCondition(ByteBuffer buffer)
+			throws IOException {
+
+		// Local Declarations
+		BoundaryCondition condition = new BoundaryCondition();
+		String type;
+		int count;
+		ArrayList<Float> values = null;
+
+		readObject(condition, buffer);
+		type = BinaryPersistenceProvider.readString(buffer);
+		if (type != null) {
+			try {
+				condition.setType(BoundaryConditionType.valueOf(type));
+			} catch (IllegalArgumentException e) {
+				throw new IOException(e);
+			}
+		}
+		count = buffer.getInt();
+		if (count >= 0) {
+			values = new ArrayList<Float>(count);
+			for (int i = 0; i < count; i++) {
+				values.add(buffer.getFloat());
+			}
+		}
+		condition.setValues(values);
+
+		return condition;
+	}
+
+	/**
+	 * This operation returns the tag of a mesh part, which is the index of
+	 * its class in the list of classes that can be written.
+	 *
+	 * @param part
+	 *            The part
+	 * @param classes
+	 *            The classes that can be written
+	 * @return The tag or -1 if the class of the part can not be written
+	 */
+	private static int getTag(Object part, Class<?>[] classes) {
+		for (int i = 0; i < classes.length; i++) {
+			if (part.getClass() == classes[i]) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * This operation looks up a Vertex or Edge of the mesh by id.
+	 *
+	 * @param parts
+	 *            The parts keyed on their ids
+	 * @param id
+	 *            The id
+	 * @return The part
+	 * @throws IOException
+	 *             An exception indicating that the record refers to a part
+	 *             that it does not hold
+	 */
+	private static <T> T getPart(HashMap<Integer, T> parts, int id)
+			throws IOException {
+		T part = parts.get(id);
+		if (part == null) {
+			throw new IOException("BinaryMeshRecord Message: "
+					+ "Mesh record refers to unknown part " + id + ".");
+		}
+		return part;
+	}
+
+	/**
+	 * This operation writes the id, name and description of an ICEObject.
+	 *
+	 * @param object
+	 *            The object
+	 * @param output
+	 *            The output
+	 * @throws IOException
+	 *             An exception indicating that the object could not be written
+	 */
+	private static void writeObject(ICEObject object, DataOutputStream output)
+			throws IOException {
+		output.writeInt(object.getId());
+		BinaryPersistenceProvider.writeString(object.getName(), output);
+		BinaryPersistenceProvider.writeString(object.getDescription(), output);
+	}
+
+	/**
+	 * This operation reads the id, name and description of an ICEObject
+	 * written by writeObject().
+	 *
+	 * @param object
+	 *            The object that should be updated
+	 * @param buffer
+	 *            The buffer
+	 */
+	private static void readObject(ICEObject object, ByteBuffer buffer) {
+		object.setId(buffer.getInt());
+		object.setName(BinaryPersistenceProvider.readString(buffer));
+		object.setDescription(BinaryPersistenceProvider.readString(buffer));
+	}
+
+	/**
+	 * This operation writes a vector of three doubles.
+	 *
+	 * @param vector
+	 *            The vector
+	 * @param output
+	 *            The output
+	 * @throws IOException
+	 *             An exception indicating that the vector could not be written
+	 */
+	private static void writeDoubles(double[] vector, DataOutputStream output)
+			throws IOException {
+		for (int i = 0; i < 3; i++) {
+			output.writeDouble(vector[i]);
+		}
+	}
+
+	/**
+	 * This operation reads a vector of three doubles.
+	 *
+	 * @param buffer
+	 *            The buffer
+	 * @return The vector
+	 */
+	private static double[] readDoubles(ByteBuffer buffer) {
+		return new double[] { buffer.getDouble(), buffer.getDouble(),
+				buffer.getDouble() };
+	}
+}
@@ -0,0 +1,855 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.persistence.xml;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ice.core.iCore.ItemHeader;
+import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.ICEObject.ListComponent;
+import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
+import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
+import org.eclipse.ice.datastructures.form.AdaptiveTreeComposite;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.datastructures.form.MasterDetailsComponent;
+import org.eclipse.ice.datastructures.form.MatrixComponent;
+import org.eclipse.ice.datastructures.form.ResourceComponent;
+import org.eclipse.ice.datastructures.form.TableComponent;
+import org.eclipse.ice.datastructures.form.TimeDataComponent;
+import org.eclipse.ice.datastructures.form.TreeComposite;
+import org.eclipse.ice.datastructures.form.emf.EMFComponent;
+import org.eclipse.ice.datastructures.form.geometry.GeometryComponent;
+import org.eclipse.ice.datastructures.form.geometry.IShape;
+import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
+import org.eclipse.ice.item.Item;
+
+/**
+ * <p>
+ * This class is an IPersistenceProvider that stores Items in a compact binary
+ * format instead of XML. It inherits the task queue, batching, hashing, index
+ * and background loading of the XMLPersistenceProvider and only changes the
+ * format of the files, which use the .icb extension.
+ * </p>
+ * <p>
+ * Each file starts with a fixed header that holds the id, name, builder name
+ * and status of the Item so that its header can be indexed without reading
+ * the rest of the file. The header is followed by the Item itself, marshalled as
+ * XML without the Components of its Form, and then by one record for each
+ * Component. The Components are walked with an IComponentVisitor.
+ * MatrixComponents are stored natively as arrays of doubles and
+ * MeshComponents are stored natively by BinaryMeshRecord, which writes each
+ * Vertex and Edge once instead of once per Polygon. All other Components,
+ * including TableComponents, are stored as XML records. The rows of a
+ * TableComponent are Entries whose state is only defined by their JAXB
+ * mappings, so a native encoding would have to duplicate those mappings and
+ * would not be much smaller. Every Component that can be persisted by the
+ * XMLPersistenceProvider can be persisted by this provider too.
+ * </p>
+ * <p>
+ * Large files are read through a memory-mapped buffer. Files smaller than the
+ * memory map threshold, see setMemoryMapThreshold(), and files that are not
+ * stored on the local file system are read onto the heap.
+ * </p>
+ * <p>
+ * The provider also loads Items from XML files that were written by the
+ * XMLPersistenceProvider, so switching to it does not require any conversion.
+ * When an Item that was loaded from XML is persisted again it is written in
+ * the binary format and the XML file is removed. The PersistenceConverter can
+ * be used to convert a whole project space in either direction.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class BinaryPersistenceProvider extends XMLPersistenceProvider {
+
+	/**
+	 * The extension of the files written by this provider.
+	 */
+	public static final String FILE_EXTENSION = "icb";
+
+	/**
+	 * The magic number at the start of every file, which is "ICEB" in ASCII.
+	 */
+	static final int MAGIC_NUMBER = 0x49434542;
+
+	/**
+	 * The version of the binary format. Version 2 added native MeshComponent
+	 * records. Files with older versions can still be read.
+	 */
+	static final int FORMAT_VERSION = 2;
+
+	/**
+	 * The tag of a Component record that holds XML.
+	 */
+	private static final byte XML_RECORD = 0;
+
+	/**
+	 * The tag of a Component record that holds a native MatrixComponent.
+	 */
+	private static final byte MATRIX_RECORD = 1;
+
+	/**
+	 * The tag of a Component record that holds a native MeshComponent.
+	 */
+	private static final byte MESH_RECORD = 2;
+
+	/**
+	 * The name of the element that holds the Components of a Form, which is
+	 * dropped from the XML of the Item.
+	 */
+	private static final String COMPONENT_LIST = "componentList";
+
+	/**
+	 * The depth of the Form's Component list in the XML of the Item. The Item
+	 * is the root at depth one and its Form is at depth two.
+	 */
+	private static final int COMPONENT_LIST_DEPTH = 3;
+
+	/**
+	 * The charset used for all strings.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The factory used to create the XMLStreamWriters for the XML records.
+	 */
+	private static final XMLOutputFactory outputFactory = XMLOutputFactory
+			.newInstance();
+
+	/**
+	 * The size in bytes above which files are memory-mapped instead of read
+	 * onto the heap.
+	 */
+	private volatile long memoryMapThreshold = 1024 * 1024;
+
+	/**
+	 * The default constructor.
+	 */
+	public BinaryPersistenceProvider() {
+		super();
+	}
+
+	/**
+	 * An alternative constructor that allows the project space to be set for
+	 * testing.
+	 *
+	 * @param projectSpace
+	 *            The project space that should be used instead of the default.
+	 */
+	public BinaryPersistenceProvider(IProject projectSpace) {
+		super(projectSpace);
+	}
+
+	/**
+	 * This operation sets the size above which files are read through a
+	 * memory-mapped buffer. The default is one megabyte. Memory-mapped files
+	 * can not be modified on some platforms until the buffer is collected, so
+	 * this should not be set too low.
+	 *
+	 * @param threshold
+	 *            The threshold in bytes
+	 */
+	public void setMemoryMapThreshold(long threshold) {
+		memoryMapThreshold = Math.max(0, threshold);
+	}
+
+	/**
+	 * This operation returns the extensions of the files that the provider can
+	 * load. Binary files are preferred over XML files for the same Item.
+	 *
+	 * @see XMLPersistenceProvider#getFileExtensions()
+	 */
+	@Override
+	protected String[] getFileExtensions() {
+		return new String[] { "xml", FILE_EXTENSION };
+	}
+
+	/**
+	 * This operation writes the Item in the binary format.
+	 *
+	 * @see XMLPersistenceProvider#serializeItem(Item)
+	 */
+	@Override
+	protected byte[] serializeItem(Item item) {
+
+		// Local Declarations
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		Form form = item.getForm();
+		ArrayList<Component> components = (form != null) ? form
+				.getComponents() : new ArrayList<Component>();
+		ComponentRecordWriter recordWriter = new ComponentRecordWriter(output);
+		FormStatus status = item.getStatus();
+		byte[] itemXML;
+
+		try {
+			// Write the header
+			output.writeInt(MAGIC_NUMBER);
+			output.writeInt(FORMAT_VERSION);
+			output.writeInt(item.getId());
+			writeString(item.getName(), output);
+			writeString(item.getItemBuilderName(), output);
+			writeString((status != null) ? status.name() : null, output);
+			// Write the Item without its Components
+			itemXML = marshalXML(item, true);
+			output.writeInt(itemXML.length);
+			output.write(itemXML);
+			// Write the Components
+			output.writeInt(components.size());
+			for (Component component : components) {
+				recordWriter.write(component);
+			}
+			output.flush();
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			System.out.println("BinaryPersistenceProvider Message: "
+					+ "Failed to serialize " + item.getName() + " "
+					+ item.getId());
+			return null;
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * This operation reads an Item in the binary format or delegates to the
+	 * XMLPersistenceProvider if the file is XML.
+	 *
+	 * @see XMLPersistenceProvider#deserializeItem(IFile)
+	 */
+	@Override
+	protected Item deserializeItem(IFile file) {
+
+		// Local Declarations
+		Item item = null;
+		ByteBuffer buffer = null;
+		Form form = null;
+		int numComponents = 0;
+
+		// Let the base class handle XML
+		if (!FILE_EXTENSION.equals(file.getFileExtension())) {
+			return super.deserializeItem(file);
+		}
+
+		try {
+			// Read the file and skip the header
+			buffer = readFile(file);
+			checkHeader(buffer.getInt(), buffer.getInt(), file);
+			buffer.getInt();
+			readString(buffer);
+			readString(buffer);
+			readString(buffer);
+			// Read the Item
+			byte[] itemXML = new byte[buffer.getInt()];
+			buffer.get(itemXML);
+			item = (Item) getUnmarshaller().unmarshal(
+					new ByteArrayInputStream(itemXML));
+			// Read its Components
+			form = item.getForm();
+			numComponents = buffer.getInt();
+			if (numComponents > 0 && form == null) {
+				throw new IOException("Item in " + file.getName()
+						+ " does not have a Form for its Components.");
+			}
+			for (int i = 0; i < numComponents; i++) {
+				form.addComponent(readComponent(buffer));
+			}
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+			item = null;
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			item = null;
+		} catch (JAXBException e) {
+			// Complain
+			e.printStackTrace();
+			item = null;
+		} catch (BufferUnderflowException e) {
+			// Complain about truncated files
+			System.out.println("BinaryPersistenceProvider Message: "
+					+ "File " + file.getName() + " is truncated.");
+			e.printStackTrace();
+			item = null;
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation reads the header of an Item in the binary format or
+	 * delegates to the XMLPersistenceProvider if the file is XML. Only the
+	 * header is read from the file. The binary header does not hold the
+	 * description of the Item.
+	 *
+	 * @see XMLPersistenceProvider#readItemHeader(IFile)
+	 */
+	@Override
+	protected ItemHeader readItemHeader(IFile file) {
+
+		// Local Declarations
+		ItemHeader header = null;
+		InputStream stream = null;
+		DataInputStream input = null;
+
+		// Let the base class handle XML
+		if (!FILE_EXTENSION.equals(file.getFileExtension())) {
+			return super.readItemHeader(file);
+		}
+
+		try {
+			stream = file.getContents();
+			input = new DataInputStream(new BufferedInputStream(stream, 512));
+			checkHeader(input.readInt(), input.readInt(), file);
+			int id = input.readInt();
+			String name = readString(input);
+			String builderName = readString(input);
+			String status = readString(input);
+			header = new ItemHeader(id, name, null, builderName,
+					(status != null) ? FormStatus.valueOf(status) : null);
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+		} catch (IllegalArgumentException e) {
+			// Complain about unknown status values
+			e.printStackTrace();
+		} finally {
+			closeStream(stream);
+		}
+
+		return header;
+	}
+
+	/**
+	 * This operation checks the magic number and version at the start of a
+	 * file.
+	 *
+	 * @param magicNumber
+	 *            The magic number read from the file
+	 * @param version
+	 *            The version read from the file
+	 * @param file
+	 *            The file, for error messages
+	 * @throws IOException
+	 *             An exception indicating that the file is not in a format that
+	 *             this provider can read
+	 */
+	private void checkHeader(int magicNumber, int version, IFile file)
+			throws IOException {
+		if (magicNumber != MAGIC_NUMBER) {
+			throw new IOException("BinaryPersistenceProvider Message: "
+					+ file.getName() + " is not a binary Item file.");
+		} else if (version > FORMAT_VERSION) {
+			throw new IOException("BinaryPersistenceProvider Message: "
+					+ file.getName() + " uses unsupported format version "
+					+ version + ".");
+		}
+	}
+
+	/**
+	 * This operation reads the whole file into a buffer. Files that are larger
+	 * than the memory map threshold and stored on the local file system are
+	 * memory-mapped.
+	 *
+	 * @param file
+	 *            The file
+	 * @return The buffer positioned at the start of the file
+	 * @throws IOException
+	 *             An exception indicating that the file could not be read
+	 * @throws CoreException
+	 *             An exception indicating that the workspace could not open
+	 *             the file
+	 */
+	private ByteBuffer readFile(IFile file) throws IOException, CoreException {
+
+		// Local Declarations
+		ByteBuffer buffer = null;
+		IPath location = file.getLocation();
+		File localFile = (location != null) ? location.toFile() : null;
+
+		if (localFile != null && localFile.isFile()
+				&& localFile.length() > memoryMapThreshold) {
+			// Map large local files. The mapping stays valid after the channel
+			// is closed.
+			RandomAccessFile randomAccessFile = new RandomAccessFile(localFile,
+					"r");
+			try {
+				FileChannel channel = randomAccessFile.getChannel();
+				buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+						channel.size());
+			} finally {
+				randomAccessFile.close();
+			}
+		} else {
+			// Read everything else onto the heap
+			InputStream stream = file.getContents();
+			try {
+				ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+				byte[] chunk = new byte[65536];
+				int count;
+				while ((count = stream.read(chunk)) > 0) {
+					bytes.write(chunk, 0, count);
+				}
+				buffer = ByteBuffer.wrap(bytes.toByteArray());
+			} finally {
+				closeStream(stream);
+			}
+		}
+
+		return buffer;
+	}
+
+	/**
+	 * This operation marshals an object to compact XML with the Marshaller of
+	 * the calling thread.
+	 *
+	 * @param obj
+	 *            The object to marshal
+	 * @param dropComponents
+	 *            True if the object is an Item and the Components of its Form
+	 *            should be left out
+	 * @return The XML
+	 * @throws IOException
+	 *             An exception indicating that the object could not be
+	 *             marshalled
+	 */
+	private byte[] marshalXML(Object obj, boolean dropComponents)
+			throws IOException {
+
+		// Local Declarations
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		XMLStreamWriter writer = null;
+
+		try {
+			writer = outputFactory.createXMLStreamWriter(bytes, "UTF-8");
+			if (dropComponents) {
+				writer = new ElementFilteringStreamWriter(writer,
+						COMPONENT_LIST, COMPONENT_LIST_DEPTH);
+			}
+			getMarshaller().marshal(obj, writer);
+			writer.close();
+		} catch (XMLStreamException e) {
+			throw new IOException(e);
+		} catch (JAXBException e) {
+			throw new IOException(e);
+		}
+
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * This operation reads a single Component record.
+	 *
+	 * @param buffer
+	 *            The buffer positioned at the start of the record
+	 * @return The Component
+	 * @throws IOException
+	 *             An exception indicating that the record is invalid
+	 * @throws JAXBException
+	 *             An exception indicating that an XML record could not be
+	 *             unmarshalled
+	 */
+	private Component readComponent(ByteBuffer buffer) throws IOException,
+			JAXBException {
+
+		// Local Declarations
+		Component component = null;
+		byte tag = buffer.get();
+
+		if (tag == XML_RECORD) {
+			byte[] xml = new byte[buffer.getInt()];
+			buffer.get(xml);
+			component = (Component) getUnmarshaller().unmarshal(
+					new ByteArrayInputStream(xml));
+		} else if (tag == MATRIX_RECORD) {
+			component = readMatrix(buffer);
+		} else if (tag == MESH_RECORD) {
+			component = BinaryMeshRecord.read(buffer);
+		} else {
+			throw new IOException("BinaryPersistenceProvider Message: "
+					+ "Unknown Component record " + tag + ".");
+		}
+
+		return component;
+	}
+
+	/**
+	 * This operation reads a native MatrixComponent record.
+	 *
+	 * @param buffer
+	 *            The buffer positioned after the record tag
+	 * @return The MatrixComponent
+	 */
+	private MatrixComponent readMatrix(ByteBuffer buffer) {
+
+		// Local Declarations
+		MatrixComponent matrix;
+		int id = buffer.getInt();
+		String name = readString(buffer);
+		String description = readString(buffer);
+		boolean isSquare = buffer.get() != 0;
+		AllowedValueType valueType = AllowedValueType
+				.valueOf(readString(buffer));
+		int numAllowedValues = buffer.getInt();
+		ArrayList<Double> allowedValues = null;
+		boolean resizable = buffer.get() != 0;
+		int numRows, numCols;
+		double[][] values;
+
+		// Read the allowed values
+		if (numAllowedValues >= 0) {
+			allowedValues = new ArrayList<Double>(numAllowedValues);
+			for (int i = 0; i < numAllowedValues; i++) {
+				allowedValues.add(buffer.getDouble());
+			}
+		}
+
+		// Create the matrix
+		matrix = new MatrixComponent(isSquare, valueType);
+		matrix.setId(id);
+		matrix.setName(name);
+		matrix.setDescription(description);
+		matrix.setAllowedValues(allowedValues);
+
+		// Resize it. Square matrices grow in both directions at once.
+		numRows = buffer.getInt();
+		numCols = buffer.getInt();
+		for (int i = 1; i < numRows; i++) {
+			matrix.addRow();
+		}
+		for (int i = matrix.numberOfColumns(); i < numCols; i++) {
+			matrix.addColumn();
+		}
+
+		// Fill it in all at once
+		values = new double[numRows][numCols];
+		for (int i = 0; i < numRows; i++) {
+			buffer.asDoubleBuffer().get(values[i]);
+			buffer.position(buffer.position() + 8 * numCols);
+		}
+		matrix.setBlock(0, 0, values);
+		matrix.setResizable(resizable);
+
+		return matrix;
+	}
+
+	/**
+	 * This operation writes a string as its length in bytes followed by its
+	 * UTF-8 bytes. Null is written as a length of -1.
+	 *
+	 * @param value
+	 *            The string
+	 * @param output
+	 *            The output
+	 * @throws IOException
+	 *             An exception indicating that the string could not be written
+	 */
+	static void writeString(String value, DataOutputStream output)
+			throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+		} else {
+			byte[] bytes = value.getBytes(UTF8);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+	}
+
+	/**
+	 * This operation reads a string written by writeString() from a buffer.
+	 *
+	 * @param buffer
+	 *            The buffer
+	 * @return The string, which may be null
+	 */
+	static String readString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * This operation reads a string written by writeString() from a stream.
+	 * The strings in the header are short, so lengths above 64 KB are treated
+	 * as a corrupt header.
+	 *
+	 * @param input
+	 *            The stream
+	 * @return The string, which may be null
+	 * @throws IOException
+	 *             An exception indicating that the string could not be read
+	 */
+	private static String readString(DataInputStream input) throws IOException {
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		} else if (length > 65536) {
+			throw new IOException("BinaryPersistenceProvider Message: "
+					+ "Invalid string length " + length + " in header.");
+		}
+		byte[] bytes = new byte[length];
+		input.readFully(bytes);
+		return new String(bytes, UTF8);
+	}
+
+	/**
+	 * This class is an IComponentVisitor that writes the record for each
+	 * Component that it visits. Components without a native encoding are
+	 * written as XML records.
+	 *
+	 * @author Jay Jay Billings
+	 *
+	 */
+	private class ComponentRecordWriter implements IComponentVisitor {
+
+		/**
+		 * The output to which the records are written.
+		 */
+		private final DataOutputStream output;
+
+		/**
+		 * True if the last visit wrote a record.
+		 */
+		private boolean written;
+
+		/**
+		 * The first exception thrown while writing a record in a visit.
+		 */
+		private IOException exception;
+
+		/**
+		 * The Constructor
+		 *
+		 * @param output
+		 *            The output to which the records should be written
+		 */
+		public ComponentRecordWriter(DataOutputStream output) {
+			this.output = output;
+		}
+
+		/**
+		 * This operation writes the record for a Component.
+		 *
+		 * @param component
+		 *            The Component
+		 * @throws IOException
+		 *             An exception indicating that the record could not be
+		 *             written
+		 */
+		public void write(Component component) throws IOException {
+			// Visit the Component
+			written = false;
+			exception = null;
+			component.accept(this);
+			if (exception != null) {
+				throw exception;
+			}
+			// Fall back to XML if the Component did not accept the visitor
+			if (!written) {
+				writeXML(component);
+			}
+		}
+
+		/**
+		 * This operation writes an XML record for the Component, catching the
+		 * exception so that it can be thrown from write().
+		 *
+		 * @param component
+		 *            The Component
+		 */
+		private void visitXML(Component component) {
+			try {
+				writeXML(component);
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+
+		/**
+		 * This operation writes an XML record for the Component.
+		 *
+		 * @param component
+		 *            The Component
+		 * @throws IOException
+		 *             An exception indicating that the record could not be
+		 *             written
+		 */
+		private void writeXML(Component component) throws IOException {
+			byte[] xml = marshalXML(component, false);
+			output.writeByte(XML_RECORD);
+			output.writeInt(xml.length);
+			output.write(xml);
+			written = true;
+		}
+
+		@Override
+		public void visit(MatrixComponent component) {
+
+			// Only plain MatrixComponents are stored natively since subclasses
+			// may carry other state.
+			if (component.getClass() != MatrixComponent.class) {
+				visitXML(component);
+				return;
+			}
+
+			// Local Declarations
+			int numRows = component.numberOfRows();
+			int numCols = component.numberOfColumns();
+			ArrayList<Double> allowedValues = component.getAllowedValues();
+			Double value;
+
+			try {
+				output.writeByte(MATRIX_RECORD);
+				output.writeInt(component.getId());
+				writeString(component.getName(), output);
+				writeString(component.getDescription(), output);
+				output.writeBoolean(component.isSquare());
+				writeString(component.getAllowedValueType().name(), output);
+				if (allowedValues == null) {
+					output.writeInt(-1);
+				} else {
+					output.writeInt(allowedValues.size());
+					for (Double allowedValue : allowedValues) {
+						output.writeDouble(allowedValue);
+					}
+				}
+				output.writeBoolean(component.isResizable());
+				output.writeInt(numRows);
+				output.writeInt(numCols);
+				for (int i = 0; i < numRows; i++) {
+					for (int j = 0; j < numCols; j++) {
+						value = component.getElementValue(i, j);
+						output.writeDouble((value != null) ? value : 0.0);
+					}
+				}
+				written = true;
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+
+		@Override
+		public void visit(DataComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(ResourceComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(TableComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(IShape component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(GeometryComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(MasterDetailsComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(TreeComposite component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(AdaptiveTreeComposite component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(IReactorComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(TimeDataComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(MeshComponent component) {
+
+			// Meshes with parts that do not have a native encoding are stored
+			// as XML.
+			if (!BinaryMeshRecord.canWrite(component)) {
+				visitXML(component);
+				return;
+			}
+
+			try {
+				output.writeByte(MESH_RECORD);
+				BinaryMeshRecord.write(component, output);
+				written = true;
+			} catch (IOException e) {
+				exception = e;
+			}
+		}
+
+		@Override
+		public void visit(EMFComponent component) {
+			visitXML(component);
+		}
+
+		@Override
+		public void visit(ListComponent<?> component) {
+			visitXML(component);
+		}
+	}
+}
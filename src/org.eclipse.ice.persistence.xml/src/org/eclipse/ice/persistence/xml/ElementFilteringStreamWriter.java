@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.persistence.xml;
+
+import javax.xml.namespace.NamespaceContext;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+/**
+ * This class is an XMLStreamWriter that forwards everything to another writer
+ * except for the elements with a given local name at a given depth, which are
+ * dropped along with all of their content. The root element is at depth one.
+ * It is used by the BinaryPersistenceProvider to marshal an Item without the
+ * Components of its Form, which are stored separately.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+class ElementFilteringStreamWriter implements XMLStreamWriter {
+
+	/**
+	 * The writer to which the events are forwarded.
+	 */
+	private final XMLStreamWriter writer;
+
+	/**
+	 * The local name of the elements that are dropped.
+	 */
+	private final String filteredName;
+
+	/**
+	 * The depth of the elements that are dropped.
+	 */
+	private final int filteredDepth;
+
+	/**
+	 * The depth of the current element.
+	 */
+	private int depth = 0;
+
+	/**
+	 * The depth of the element that is being dropped or zero if nothing is
+	 * being dropped.
+	 */
+	private int skipDepth = 0;
+
+	/**
+	 * True if an empty element was just dropped and its attributes must be
+	 * dropped too.
+	 */
+	private boolean skippingEmpty = false;
+
+	/**
+	 * The Constructor
+	 *
+	 * @param writer
+	 *            The writer to which the events are forwarded
+	 * @param filteredName
+	 *            The local name of the elements that should be dropped
+	 * @param filteredDepth
+	 *            The depth of the elements that should be dropped
+	 */
+	public ElementFilteringStreamWriter(XMLStreamWriter writer,
+			String filteredName, int filteredDepth) {
+		this.writer = writer;
+		this.filteredName = filteredName;
+		this.filteredDepth = filteredDepth;
+	}
+
+	/**
+	 * This operation returns true if events are currently being dropped.
+	 *
+	 * @return True if the current element is being dropped
+	 */
+	private boolean skipping() {
+		return skipDepth > 0 || skippingEmpty;
+	}
+
+	/**
+	 * This operation is called before content that is not part of a start tag
+	 * is written and returns true if the content should be forwarded.
+	 *
+	 * @return True if the content should be forwarded
+	 */
+	private boolean content() {
+		skippingEmpty = false;
+		return !skipping();
+	}
+
+	/**
+	 * This operation opens an element and decides whether or not it should be
+	 * dropped.
+	 *
+	 * @param localName
+	 *            The local name of the element
+	 * @param empty
+	 *            True if the element is empty and will not be closed by a
+	 *            call to writeEndElement()
+	 * @return True if the element should be forwarded
+	 */
+	private boolean open(String localName, boolean empty) {
+
+		// Local Declarations
+		boolean forward;
+
+		skippingEmpty = false;
+		depth++;
+		if (skipDepth == 0 && depth == filteredDepth
+				&& filteredName.equals(localName)) {
+			skipDepth = depth;
+		}
+		forward = (skipDepth == 0);
+		// Empty elements close immediately, but their attributes still need to
+		// be dropped.
+		if (empty) {
+			if (skipDepth == depth) {
+				skipDepth = 0;
+				skippingEmpty = true;
+			}
+			depth--;
+		}
+
+		return forward;
+	}
+
+	@Override
+	public void writeStartElement(String localName) throws XMLStreamException {
+		if (open(localName, false)) {
+			writer.writeStartElement(localName);
+		}
+	}
+
+	@Override
+	public void writeStartElement(String namespaceURI, String localName)
+			throws XMLStreamException {
+		if (open(localName, false)) {
+			writer.writeStartElement(namespaceURI, localName);
+		}
+	}
+
+	@Override
+	public void writeStartElement(String prefix, String localName,
+			String namespaceURI) throws XMLStreamException {
+		if (open(localName, false)) {
+			writer.writeStartElement(prefix, localName, namespaceURI);
+		}
+	}
+
+	@Override
+	public void writeEmptyElement(String namespaceURI, String localName)
+			throws XMLStreamException {
+		if (open(localName, true)) {
+			writer.writeEmptyElement(namespaceURI, localName);
+		}
+	}
+
+	@Override
+	public void writeEmptyElement(String prefix, String localName,
+			String namespaceURI) throws XMLStreamException {
+		if (open(localName, true)) {
+			writer.writeEmptyElement(prefix, localName, namespaceURI);
+		}
+	}
+
+	@Override
+	public void writeEmptyElement(String localName) throws XMLStreamException {
+		if (open(localName, true)) {
+			writer.writeEmptyElement(localName);
+		}
+	}
+
+	@Override
+	public void writeEndElement() throws XMLStreamException {
+		if (content()) {
+			writer.writeEndElement();
+		} else if (skipDepth == depth) {
+			// The dropped element is finished
+			skipDepth = 0;
+		}
+		depth--;
+	}
+
+	@Override
+	public void writeEndDocument() throws XMLStreamException {
+		writer.writeEndDocument();
+	}
+
+	@Override
+	public void close() throws XMLStreamException {
+		writer.close();
+	}
+
+	@Override
+	public void flush() throws XMLStreamException {
+		writer.flush();
+	}
+
+	@Override
+	public void writeAttribute(String localName, String value)
+			throws XMLStreamException {
+		if (!skipping()) {
+			writer.writeAttribute(localName, value);
+		}
+	}
+
+	@Override
+	public void writeAttribute(String prefix, String namespaceURI,
+			String localName, String value) throws XMLStreamException {
+		if (!skipping()) {
+			writer.writeAttribute(prefix, namespaceURI, localName, value);
+		}
+	}
+
+	@Override
+	public void writeAttribute(String namespaceURI, String localName,
+			String value) throws XMLStreamException {
+		if (!skipping()) {
+			writer.writeAttribute(namespaceURI, localName, value);
+		}
+	}
+
+	@Override
+	public void writeNamespace(String prefix, String namespaceURI)
+			throws XMLStreamException {
+		if (!skipping()) {
+			writer.writeNamespace(prefix, namespaceURI);
+		}
+	}
+
+	@Override
+	public void writeDefaultNamespace(String namespaceURI)
+			throws XMLStreamException {
+		if (!skipping()) {
+			writer.writeDefaultNamespace(namespaceURI);
+		}
+	}
+
+	@Override
+	public void writeComment(String data) throws XMLStreamException {
+		if (content()) {
+			writer.writeComment(data);
+		}
+	}
+
+	@Override
+	public void writeProcessingInstruction(String target)
+			throws XMLStreamException {
+		if (content()) {
+			writer.writeProcessingInstruction(target);
+		}
+	}
+
+	@Override
+	public void writeProcessingInstruction(String target, String data)
+			throws XMLStreamException {
+		if (content()) {
+			writer.writeProcessingInstruction(target, data);
+		}
+	}
+
+	@Override
+	public void writeCData(String data) throws XMLStreamException {
+		if (content()) {
+			writer.writeCData(data);
+		}
+	}
+
+	@Override
+	public void writeDTD(String dtd) throws XMLStreamException {
+		writer.writeDTD(dtd);
+	}
+
+	@Override
+	public void writeEntityRef(String name) throws XMLStreamException {
+		if (content()) {
+			writer.writeEntityRef(name);
+		}
+	}
+
+	@Override
+	public void writeStartDocument() throws XMLStreamException {
+		writer.writeStartDocument();
+	}
+
+	@Override
+	public void writeStartDocument(String version) throws XMLStreamException {
+		writer.writeStartDocument(version);
+	}
+
+	@Override
+	public void writeStartDocument(String encoding, String version)
+			throws XMLStreamException {
+		writer.writeStartDocument(encoding, version);
+	}
+
+	@Override
+	public void writeCharacters(String text) throws XMLStreamException {
+		if (content()) {
+			writer.writeCharacters(text);
+		}
+	}
+
+	@Override
+	public void writeCharacters(char[] text, int start, int len)
+			throws XMLStreamException {
+		if (content()) {
+			writer.writeCharacters(text, start, len);
+		}
+	}
+
+	@Override
+	public String getPrefix(String uri) throws XMLStreamException {
+		return writer.getPrefix(uri);
+	}
+
+	@Override
+	public void setPrefix(String prefix, String uri) throws XMLStreamException {
+		writer.setPrefix(prefix, uri);
+	}
+
+	@Override
+	public void setDefaultNamespace(String uri) throws XMLStreamException {
+		writer.setDefaultNamespace(uri);
+	}
+
+	@Override
+	public void setNamespaceContext(NamespaceContext context)
+			throws XMLStreamException {
+		writer.setNamespaceContext(context);
+	}
+
+	@Override
+	public NamespaceContext getNamespaceContext() {
+		return writer.getNamespaceContext();
+	}
+
+	@Override
+	public Object getProperty(String name) throws IllegalArgumentException {
+		return writer.getProperty(name);
+	}
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.persistence.xml;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.item.Item;
+
+/**
+ * This class converts the Items stored by one IPersistenceProvider into the
+ * format of another, such as from the XMLPersistenceProvider to the
+ * BinaryPersistenceProvider or back. Both providers must have been started
+ * with the same ItemBuilders and class providers.
+ *
+ * If both providers use the same project space, converting from XML to binary
+ * replaces the XML files because the BinaryPersistenceProvider removes the old
+ * file when it persists an Item that was loaded from another format. Converting
+ * from binary to XML leaves the binary files in place and they must be removed
+ * before the BinaryPersistenceProvider is used again, since it prefers them.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class PersistenceConverter {
+
+	/**
+	 * This operation loads all of the Items from the source provider and
+	 * persists them with the target provider. Persisting is asynchronous, so
+	 * the Items may not be written when this operation returns. Stopping the
+	 * target provider waits for them.
+	 *
+	 * @param source
+	 *            The provider from which the Items should be loaded
+	 * @param target
+	 *            The provider with which the Items should be persisted
+	 * @return The number of Items that were submitted to the target provider
+	 */
+	public static int convert(IPersistenceProvider source,
+			IPersistenceProvider target) {
+
+		// Local Declarations
+		int count = 0;
+		ArrayList<Item> items;
+
+		// Make sure there is something to do
+		if (source == null || target == null || source == target) {
+			return 0;
+		}
+
+		// Load everything and persist it again
+		items = source.loadItems();
+		for (Item item : items) {
+			if (target.persistItem(item)) {
+				count++;
+			} else {
+				System.out.println("PersistenceConverter Message: "
+						+ "Unable to convert Item " + item.getName() + " "
+						+ item.getId());
+			}
+		}
+
+		return count;
+	}
+}
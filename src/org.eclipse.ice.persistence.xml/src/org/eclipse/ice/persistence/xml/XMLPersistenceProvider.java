@@ -12,14 +12,32 @@
  *******************************************************************************/
 package org.eclipse.ice.persistence.xml;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.Hashtable;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 import javax.naming.OperationNotSupportedException;
@@ -27,6 +45,11 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlEnumValue;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
@@ -36,8 +59,10 @@ import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.core.iCore.ItemHeader;
 import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.datastructures.jaxbclassprovider.IJAXBClassProvider;
 import org.eclipse.ice.io.serializable.IReader;
 import org.eclipse.ice.io.serializable.IWriter;
@@ -58,8 +83,32 @@ import org.eclipse.ice.reactorAnalyzer.ReactorAnalyzer;
  * Items are handled on a separate, non-blocking thread. Loading operations are
  * blocking.
  * 
+ * The event loop collects all of the tasks that are waiting in the queue into
+ * a batch. Repeated persist, update and delete requests for the same Item id
+ * in a batch are coalesced so that only the last one is performed. The
+ * remaining tasks are marshalled in parallel by a pool of worker threads, each
+ * of which has its own Marshaller since the JAXBContext is thread-safe but
+ * Marshallers are not. Files are only rewritten if the hash of the new XML
+ * differs from the hash of the last XML written to that file.
+ * 
+ * The provider keeps an index of ItemHeaders, which hold the id, name,
+ * description, builder name and status of each Item, in the ".itemIndex" file
+ * of the project space. The index is rewritten after each batch that persists
+ * or deletes Items. When the provider starts it maps the Item ids to their
+ * files and takes the headers from the index, so loadItemHeaders() is
+ * available without unmarshalling any Items. Only the files that changed
+ * since the index was written have their headers read again, which requires
+ * just the root element of the file. Items are unmarshalled when they are
+ * requested with loadItem(), or in parallel by loadItems(). The provider can
+ * also start unmarshalling all of the Items in the background when it starts
+ * by calling setPreloadOnStart().
+ * 
  * Items that are loaded by the provider are not constructed with a project.
  * 
+ * Subclasses can store Items in other formats by overriding
+ * getFileExtensions(), serializeItem(), deserializeItem() and
+ * readItemHeader(). They inherit the queue, batching, hashing and index.
+ * 
  * This provider should always be started AFTER all of the Items are registered
  * with it because registering Items while it is running would require stopping
  * the thread and recreating the JAXB context. That is easiest enough to do, but
@@ -98,6 +147,11 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		 * The item that should be processed.
 		 */
 		public Item item;
+		/**
+		 * The id of the Item at the time the task was submitted. This is used
+		 * to coalesce tasks for the same Item.
+		 */
+		public int itemId;
 		/**
 		 * The task that should be performed; one of "persist," "delete," or
 		 * "write."
@@ -120,13 +174,141 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	ArrayBlockingQueue<QueuedTask> taskQueue = new ArrayBlockingQueue<QueuedTask>(
 			1024);
 
+	/**
+	 * The task that stop() puts in the queue to wake up the event loop and
+	 * tell it to stop once the tasks that were queued before it are processed.
+	 */
+	private final QueuedTask stopTask = new QueuedTask();
+
 	/**
 	 * A private thread on which the event loop is run. The runnable for this
-	 * thread is the current instance of this class. All work is processed on
-	 * this thread.
+	 * thread is the current instance of this class. Tasks are collected into
+	 * batches on this thread and handed to the writer pool.
 	 */
 	private Thread eventLoop;
 
+	/**
+	 * The pool of worker threads that marshal and write the batched tasks and
+	 * unmarshal Items that are loaded.
+	 */
+	private ExecutorService workerPool;
+
+	/**
+	 * The Marshallers used by the worker threads. Each thread gets its own
+	 * Marshaller because they are not thread-safe.
+	 */
+	private ThreadLocal<Marshaller> marshallers;
+
+	/**
+	 * The Unmarshallers used by the worker threads. Each thread gets its own
+	 * Unmarshaller because they are not thread-safe.
+	 */
+	private ThreadLocal<Unmarshaller> unmarshallers;
+
+	/**
+	 * The Items that are being or have been unmarshalled in the background.
+	 * The keys are the Item ids. Entries are removed when they are retrieved or
+	 * when a new task is submitted for the Item.
+	 */
+	private ConcurrentHashMap<Integer, Future<Item>> preloadedItems = new ConcurrentHashMap<Integer, Future<Item>>();
+
+	/**
+	 * True if the Items should be unmarshalled in the background when the
+	 * provider starts, false if they should only be loaded on demand.
+	 */
+	private boolean preloadOnStart = false;
+
+	/**
+	 * The name of the file in the project space that holds the index of
+	 * ItemHeaders.
+	 */
+	public static final String INDEX_FILE_NAME = ".itemIndex";
+
+	/**
+	 * The magic number at the start of the index file, which is "ICEI" in
+	 * ASCII.
+	 */
+	private static final int INDEX_MAGIC_NUMBER = 0x49434549;
+
+	/**
+	 * The version of the format of the index file.
+	 */
+	private static final int INDEX_VERSION = 1;
+
+	/**
+	 * The charset used for the strings in the index file.
+	 */
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	/**
+	 * The headers of the persisted Items. The keys are the Item ids.
+	 */
+	private ConcurrentHashMap<Integer, ItemHeader> itemHeaders = new ConcurrentHashMap<Integer, ItemHeader>();
+
+	/**
+	 * The local time stamps of the Item files when their headers were last
+	 * read or written. The keys are the Item ids. A header from the index file
+	 * is only used if the time stamp of the Item file still matches.
+	 */
+	private ConcurrentHashMap<Integer, Long> headerStamps = new ConcurrentHashMap<Integer, Long>();
+
+	/**
+	 * True if the headers changed since the index file was last written.
+	 */
+	private AtomicBoolean indexChanged = new AtomicBoolean();
+
+	/**
+	 * A map of the XML values of the FormStatus enum to the enum values. It is
+	 * used to read the status from the root element of an Item file.
+	 */
+	private static final HashMap<String, FormStatus> statusValues = new HashMap<String, FormStatus>();
+
+	/**
+	 * The factory used to create the readers for the headers of XML files.
+	 */
+	private static final XMLInputFactory inputFactory = XMLInputFactory
+			.newInstance();
+
+	static {
+		// Map the XML enum values of the status to the real values
+		for (FormStatus status : FormStatus.values()) {
+			try {
+				XmlEnumValue value = FormStatus.class.getField(status.name())
+						.getAnnotation(XmlEnumValue.class);
+				if (value != null) {
+					statusValues.put(value.value(), status);
+				}
+			} catch (NoSuchFieldException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+	}
+
+	/**
+	 * This is a private class used to hold an entry of the index file.
+	 *
+	 * @author Jay Jay Billings
+	 *
+	 */
+	private static class IndexEntry {
+		/**
+		 * The header of the Item.
+		 */
+		public ItemHeader header;
+		/**
+		 * The local time stamp of the Item file when the header was recorded.
+		 */
+		public long stamp;
+	}
+
+	/**
+	 * A map of the full paths of the files written by the provider as keys and
+	 * the hashes of their contents as values. This is used to skip writes when
+	 * the contents have not changed.
+	 */
+	private ConcurrentHashMap<String, byte[]> contentHashes = new ConcurrentHashMap<String, byte[]>();
+
 	/**
 	 * The Eclipse project used by the provider.
 	 */
@@ -205,18 +387,22 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Local Declarations
 		int id;
 		ArrayList<String> names = new ArrayList<String>();
+		HashMap<Integer, Integer> preferences = new HashMap<Integer, Integer>();
+		List<String> extensions = Arrays.asList(getFileExtensions());
 		IResource[] members;
 
 		try {
 			// Get the list of files in the project space
 			members = project.members();
 			for (IResource resource : members) {
-				// Only add the resources that are xml files with the format
-				// that we expect. This uses a regular expression that checks
-				// for <itemName>_<itemId>.xml.
+				// Only add the resources that are files with the format that
+				// we expect and an extension that this provider can read. This
+				// uses a regular expression that checks for
+				// <itemName>_<itemId>.<extension>.
 				if (resource.getType() == IResource.FILE
 						&& resource.getName().matches(
-								"^[a-zA-Z0-9_\\-]*_\\d+\\.xml$")) {
+								"^[a-zA-Z0-9_\\-]*_\\d+\\.[a-zA-Z0-9]+$")
+						&& extensions.contains(resource.getFileExtension())) {
 					names.add(resource.getName());
 				}
 			}
@@ -233,6 +419,15 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 				String[] nameMinusExtParts = nameMinusExt.split("_");
 				String idString = nameMinusExtParts[nameMinusExtParts.length - 1];
 				id = Integer.valueOf(idString);
+				// If the Item is stored in more than one format, only keep the
+				// file with the preferred one.
+				int preference = extensions.indexOf(nameParts[1]);
+				Integer currentPreference = preferences.get(id);
+				if (currentPreference != null
+						&& currentPreference.intValue() > preference) {
+					continue;
+				}
+				preferences.put(id, preference);
 				// Put the info in the map
 				itemIdMap.put(id, name);
 			}
@@ -245,6 +440,38 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		return;
 	}
 
+	/**
+	 * This operation returns the extensions of the files from which the
+	 * provider can load Items in increasing order of preference. If an Item is
+	 * stored in more than one of these formats, only the file with the most
+	 * preferred extension is loaded. New files are always written with the
+	 * last extension in the list. Subclasses that store Items in other formats
+	 * should override this operation along with serializeItem() and
+	 * deserializeItem().
+	 * 
+	 * @return The file extensions, without the leading period
+	 */
+	protected String[] getFileExtensions() {
+		return new String[] { "xml" };
+	}
+
+	/**
+	 * This operation quietly closes a stream.
+	 * 
+	 * @param stream
+	 *            The stream to close. It may be null.
+	 */
+	protected void closeStream(InputStream stream) {
+		if (stream != null) {
+			try {
+				stream.close();
+			} catch (IOException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+	}
+
 	/**
 	 * This operation is responsible for creating the project space used by the
 	 * XMLPersistenceProvider.
@@ -287,7 +514,7 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 *             An exception indicating that the JAXB Context could not be
 	 *             created.
 	 */
-	private void createJAXBContext() throws JAXBException {
+	protected void createJAXBContext() throws JAXBException {
 		// Make an array to store the class list of registered Items
 		ArrayList<Class> classList = new ArrayList<Class>();
 		Class[] classArray = {};
@@ -309,6 +536,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		// Create new JAXB class context and unmarshaller
 		context = JAXBContext.newInstance(classList.toArray(classArray));
+		// Reset the (un)marshallers since they depend on the context
+		marshallers = new ThreadLocal<Marshaller>();
+		unmarshallers = new ThreadLocal<Unmarshaller>();
 	}
 
 	/**
@@ -335,14 +565,26 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		// Create the JAXB context
 		createJAXBContext();
 
-		// Get the names and ids for all of the Items that have been persisted.
+		// Get the names and ids for all of the Items that have been
+		// persisted and their headers.
 		loadItemIdMap();
+		indexItems();
+		if (indexChanged.getAndSet(false)) {
+			writeIndex();
+		}
 
-		// Start the event loop
+		// Create the worker pool and start the event loop
+		workerPool = Executors.newFixedThreadPool(Math.max(1, Runtime
+				.getRuntime().availableProcessors()));
 		runFlag.set(true);
 		eventLoop = new Thread(this);
 		eventLoop.start();
 
+		// Start loading the Items in the background if requested
+		if (preloadOnStart) {
+			preloadItems();
+		}
+
 		// Debug information
 		System.out.println("XMLPersistenceProvider Message: "
 				+ "Provider started.");
@@ -352,42 +594,38 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 	/**
 	 * This operation is called to stop the XMLPersistenceProvider by the OSGi
-	 * Declarative Services engine. It throws the run flag to shut down the
-	 * event loop and waits until it has processed all of its request or for one
-	 * minute, whichever is sooner.
+	 * Declarative Services engine. It queues a stop task that wakes up the
+	 * event loop and shuts it down, and waits until the loop has processed all
+	 * of the requests before it or for one minute, whichever is sooner.
 	 */
 	public void stop() {
 
-		long counter = 0, maxPollCount = 60;
-
 		// Debug information
 		System.out.println("XMLPersistenceProvider Message: "
 				+ "Stopping Provider!");
 
 		// Shut down the thread if it was started
 		if (eventLoop != null) {
-			// Thrown the flag to shut down the thread
+			// Thrown the flag and queue the stop task, which wakes up the
+			// event loop right away.
 			runFlag.set(false);
-			// Watch the thread until it shuts down or for one minute,
-			// whichever is sooner.
-			while (counter < maxPollCount) {
-				if (eventLoop.isAlive()) {
-					Thread.currentThread();
-					try {
-						// Sleep for a second if the event loop is still busy
-						Thread.sleep(1000);
-					} catch (InterruptedException e) {
-						// Complain if something interrupts naptime!
-						e.printStackTrace();
-					}
-					// Increment the counter
-					counter++;
-				} else {
-					// Just quit because the event loop has already died.
-					break;
-				}
+			try {
+				taskQueue.put(stopTask);
+				// Wait for the event loop to drain the queue or for one
+				// minute, whichever is sooner.
+				eventLoop.join(60000);
+			} catch (InterruptedException e) {
+				// Complain if something interrupts naptime!
+				e.printStackTrace();
 			}
+			eventLoop = null;
+		}
+
+		// Shut down the worker pool and drop anything that was not retrieved
+		if (workerPool != null) {
+			workerPool.shutdown();
 		}
+		preloadedItems.clear();
 
 		// Debug information
 		System.out.println("XMLPersistenceProvider Message: "
@@ -421,46 +659,125 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * This operation returns an output stream containing the XML representation
-	 * of an Item stored in a QueuedTask.
+	 * This operation returns the Marshaller of the calling thread, creating it
+	 * if needed. Marshallers are not thread-safe, so the Marshaller must not be
+	 * shared with other threads.
+	 * 
+	 * @return The Marshaller
+	 * @throws JAXBException
+	 *             An exception indicating that the Marshaller could not be
+	 *             created.
+	 */
+	protected Marshaller getMarshaller() throws JAXBException {
+		Marshaller marshaller = marshallers.get();
+		if (marshaller == null) {
+			marshaller = context.createMarshaller();
+			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
+					Boolean.TRUE);
+			marshallers.set(marshaller);
+		}
+		return marshaller;
+	}
+
+	/**
+	 * This operation returns the Unmarshaller of the calling thread, creating
+	 * it if needed. Unmarshallers are not thread-safe, so the Unmarshaller must
+	 * not be shared with other threads.
+	 * 
+	 * @return The Unmarshaller
+	 * @throws JAXBException
+	 *             An exception indicating that the Unmarshaller could not be
+	 *             created.
+	 */
+	protected Unmarshaller getUnmarshaller() throws JAXBException {
+		Unmarshaller unmarshaller = unmarshallers.get();
+		if (unmarshaller == null) {
+			unmarshaller = context.createUnmarshaller();
+			unmarshallers.set(unmarshaller);
+		}
+		return unmarshaller;
+	}
+
+	/**
+	 * This operation returns the XML representation of an object. It uses the
+	 * Marshaller of the calling thread.
 	 * 
 	 * @param obj
-	 *            the object to write to the stream
-	 * @return the output stream containing the Item as XML
+	 *            the object to marshal
+	 * @return the XML or null if it could not be marshalled
 	 */
-	private ByteArrayOutputStream createXMLStream(Object obj) {
+	protected byte[] marshal(Object obj) {
 		// Get the XML
 		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-		// Create the marshaller and write the item
-		Marshaller marshaller;
+		byte[] content = null;
 		try {
-			marshaller = context.createMarshaller();
-			marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT,
-					Boolean.TRUE);
-			marshaller.marshal(obj, outputStream);
+			getMarshaller().marshal(obj, outputStream);
+			content = outputStream.toByteArray();
 		} catch (JAXBException e) {
 			// Complain
 			e.printStackTrace();
 			System.out.println("XMLPersistenceProvider Message: "
 					+ "Failed to execute persistence task for " + obj);
 		}
-		return outputStream;
+		return content;
 	}
 
 	/**
-	 * This operation writes the specified object to the file in XML.
+	 * This operation returns the contents of the file in which the Item will be
+	 * stored. Subclasses that store Items in other formats should override it.
 	 * 
-	 * @param obj
-	 *            The object to be written
+	 * @param item
+	 *            The Item
+	 * @return The contents of the file or null if the Item could not be
+	 *         serialized
+	 */
+	protected byte[] serializeItem(Item item) {
+		return marshal(item);
+	}
+
+	/**
+	 * This operation computes the hash of some content so that it can be
+	 * compared with the hash of the content that was last written.
+	 * 
+	 * @param content
+	 *            The content that should be hashed
+	 * @return The hash or null if the digest is not available
+	 */
+	private byte[] computeHash(byte[] content) {
+		byte[] hash = null;
+		try {
+			hash = MessageDigest.getInstance("MD5").digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			// Complain. The file will just be written every time.
+			e.printStackTrace();
+		}
+		return hash;
+	}
+
+	/**
+	 * This operation writes the content to the file.
+	 * 
+	 * @param content
+	 *            The content to be written. It may be null if the object that
+	 *            should have been written could not be serialized.
 	 * @param file
 	 *            The file to where it should be written
+	 * @return True if the file holds the content, false otherwise
 	 */
-	private void writeFile(Object obj, IFile file) {
-		// Create an output stream containing the XML.
-		ByteArrayOutputStream outputStream = createXMLStream(obj);
+	private boolean writeFile(byte[] content, IFile file) {
+		// Don't write anything if it could not be serialized
+		if (content == null) {
+			return false;
+		}
+		// Skip the write if the file already holds this content
+		String path = file.getFullPath().toString();
+		byte[] hash = computeHash(content);
+		if (hash != null && file.exists()
+				&& Arrays.equals(hash, contentHashes.get(path))) {
+			return true;
+		}
 		// Convert it to an input stream so it can be pushed to file
-		ByteArrayInputStream inputStream = new ByteArrayInputStream(
-				outputStream.toByteArray());
+		ByteArrayInputStream inputStream = new ByteArrayInputStream(content);
 		try {
 			// Update the output file if it already exists
 			if (file.exists()) {
@@ -469,11 +786,33 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 				// Or create it from scratch
 				file.create(inputStream, IResource.FORCE, null);
 			}
+			// Store the hash of the new contents
+			if (hash != null) {
+				contentHashes.put(path, hash);
+			}
 		} catch (CoreException e) {
 			// Complain
 			e.printStackTrace();
+			contentHashes.remove(path);
+			return false;
 		}
-		return;
+		return true;
+	}
+
+	/**
+	 * This operation deletes a file from the project space if it exists and
+	 * forgets the hash of its contents.
+	 * 
+	 * @param file
+	 *            The file to delete
+	 * @throws CoreException
+	 *             An exception indicating that the file could not be deleted
+	 */
+	private void deleteFile(IFile file) throws CoreException {
+		if (file.exists()) {
+			file.delete(true, null);
+		}
+		contentHashes.remove(file.getFullPath().toString());
 	}
 
 	/**
@@ -486,45 +825,59 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		// Local Declarations
 		String name = null;
+		String oldName = null;
 		IFile file = null;
+		String[] extensions = getFileExtensions();
 
 		try {
-			// Handle the task if it is available
-			if (currentTask != null) {
-				// Get the file name if this is a persist or delete
-				if ("persist".equals(currentTask.task)
-						|| "delete".equals(currentTask.task)) {
-					// Setup the file name
-					name = currentTask.item.getName().replaceAll("\\s+", "_")
-							+ "_" + currentTask.item.getId() + ".xml";
-					// Get the file in the project
-					file = project.getFile(name);
+			// Get the file name if this is a persist or delete
+			if ("persist".equals(currentTask.task)
+					|| "delete".equals(currentTask.task)) {
+				// Setup the file name
+				name = currentTask.item.getName().replaceAll("\\s+", "_")
+						+ "_" + currentTask.itemId + "."
+						+ extensions[extensions.length - 1];
+				// Get the file in the project
+				file = project.getFile(name);
+			}
+			// Process persists
+			if ("persist".equals(currentTask.task)
+					&& !(currentTask.item instanceof ReactorAnalyzer)) {
+				// Send the Item off to be written to the file
+				if (writeFile(serializeItem(currentTask.item), file)) {
+					// Update the item id map and the index
+					oldName = itemIdMap.put(currentTask.itemId, name);
+					itemHeaders.put(currentTask.itemId, new ItemHeader(
+							currentTask.itemId, currentTask.item.getName(),
+							currentTask.item.getDescription(),
+							currentTask.item.getItemBuilderName(),
+							currentTask.item.getStatus()));
+					headerStamps.put(currentTask.itemId,
+							file.getLocalTimeStamp());
+					indexChanged.set(true);
+					// Remove the old file if the Item was renamed or stored
+					// in a different format.
+					if (oldName != null && !oldName.equals(name)) {
+						deleteFile(project.getFile(oldName));
+					}
 				}
-				// Process persists
-				if ("persist".equals(currentTask.task)
-						&& !(currentTask.item instanceof ReactorAnalyzer)) {
-					// Send the Item off to be written to the file
-					writeFile(currentTask.item, file);
-					// Update the item id map
-					itemIdMap.put(currentTask.item.getId(), file.getName());
-				} else if ("delete".equals(currentTask.task) && file.exists()) {
-					// Handle deletes
-					file.delete(true, null);
-					// Update the item id map
-					itemIdMap.remove(currentTask.item.getId());
-				} else if ("write".equals(currentTask.task)) {
-					// Deal with simple Form write requests from the IWriter
-					// interface.
-					writeFile(currentTask.form, currentTask.file);
+			} else if ("delete".equals(currentTask.task)) {
+				// Handle deletes
+				deleteFile(file);
+				// Update the item id map and the index and remove the file that
+				// was loaded if it is different
+				oldName = itemIdMap.remove(currentTask.itemId);
+				itemHeaders.remove(currentTask.itemId);
+				headerStamps.remove(currentTask.itemId);
+				indexChanged.set(true);
+				if (oldName != null && !oldName.equals(name)) {
+					deleteFile(project.getFile(oldName));
 				}
-			} else {
-				// Otherwise sleep for a bit
-				Thread.currentThread();
-				Thread.sleep(1000);
+			} else if ("write".equals(currentTask.task)) {
+				// Deal with simple Form write requests from the IWriter
+				// interface.
+				writeFile(marshal(currentTask.form), currentTask.file);
 			}
-		} catch (InterruptedException e) {
-			// Complain
-			e.printStackTrace();
 		} catch (CoreException e) {
 			// Complain
 			e.printStackTrace();
@@ -533,27 +886,99 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		return;
 	}
 
+	/**
+	 * A utility operation that processes a batch of tasks from the queue. Tasks
+	 * for the same Item id or the same file are coalesced so that only the
+	 * most recent one is performed, and the remaining tasks are processed in
+	 * parallel by the writer pool. This operation blocks until the whole batch
+	 * is finished so that tasks in later batches are always performed after
+	 * the tasks in this one.
+	 * 
+	 * @param batch
+	 *            The tasks to be processed in the order they were submitted.
+	 */
+	private void processTasks(List<QueuedTask> batch) {
+
+		// Local Declarations
+		LinkedHashMap<String, QueuedTask> coalescedTasks = new LinkedHashMap<String, QueuedTask>();
+		ArrayList<Future<?>> results = new ArrayList<Future<?>>();
+		String key;
+
+		// Coalesce the tasks, keeping only the last one for each key
+		for (QueuedTask task : batch) {
+			if (task.item != null) {
+				key = "item:" + task.itemId;
+			} else {
+				key = "file:" + task.file.getFullPath().toString();
+			}
+			coalescedTasks.remove(key);
+			coalescedTasks.put(key, task);
+		}
+
+		// Hand the tasks to the writer pool
+		for (final QueuedTask task : coalescedTasks.values()) {
+			results.add(workerPool.submit(new Runnable() {
+				@Override
+				public void run() {
+					processTask(task);
+				}
+			}));
+		}
+
+		// Wait for them to finish
+		for (Future<?> result : results) {
+			try {
+				result.get();
+			} catch (InterruptedException e) {
+				// Complain
+				e.printStackTrace();
+			} catch (ExecutionException e) {
+				// Complain
+				e.printStackTrace();
+			}
+		}
+
+		return;
+	}
+
 	/**
 	 * The event loop. When Items are persisted, loaded, deleted or updated,
-	 * they are added to the queue and those operations are processed on this
-	 * thread.
+	 * they are added to the queue. This thread collects all of the waiting
+	 * tasks into batches and processes them. It blocks until a task arrives
+	 * and stops after the stop task that is queued by stop(), so everything
+	 * submitted before the provider was stopped is still processed.
 	 */
 	public void run() {
 
-		// While the provider is set to run, just process tasks from the
-		// queue
-		while (runFlag.get()) {
+		// Local Declarations
+		ArrayList<QueuedTask> batch = new ArrayList<QueuedTask>();
+		boolean stopping = false;
+
+		// Process tasks from the queue until the stop task is found
+		while (!stopping) {
 			try {
-				// Grab the next task
-				QueuedTask currentTask = taskQueue.poll(2, TimeUnit.SECONDS);
-				// Process it
-				processTask(currentTask);
+				// Wait for the next task
+				QueuedTask currentTask = taskQueue.take();
+				// Grab everything else that is waiting
+				batch.add(currentTask);
+				taskQueue.drainTo(batch);
+				// Stop after this batch if it holds the stop task
+				stopping = batch.remove(stopTask);
+				if (!batch.isEmpty()) {
+					processTasks(batch);
+				}
+				batch.clear();
+				// Write the index if the batch changed it
+				if (indexChanged.getAndSet(false)) {
+					writeIndex();
+				}
 			} catch (InterruptedException e) {
-				// TODO Auto-generated catch block
+				// Complain
 				e.printStackTrace();
 			}
 		}
 
+		return;
 	}
 
 	/**
@@ -579,7 +1004,10 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 		if (item != null) {
 			// Setup the task
 			task.item = item;
+			task.itemId = item.getId();
 			task.task = taskName;
+			// Any preloaded copy of the Item is about to be stale
+			preloadedItems.remove(task.itemId);
 			// Submit the task
 			try {
 				taskQueue.add(task);
@@ -624,8 +1052,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * This operation loads the Item. It logs the load order with the queue and
-	 * only returns false if an exception is thrown.
+	 * This operation loads the Item. If the Item was preloaded in the
+	 * background, the preloaded copy is returned once it is finished.
+	 * Otherwise it is unmarshalled on the calling thread.
 	 * 
 	 * @param itemID
 	 *            id of the Item to load.
@@ -635,17 +1064,49 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		// Local Declarations
 		Item item = null;
-		String fileName;
+		Future<Item> preloadedItem = preloadedItems.remove(itemID);
+
+		// Use the preloaded Item if there is one or load it directly
+		if (preloadedItem != null) {
+			item = getLoadedItem(preloadedItem);
+		} else {
+			item = unmarshalItem(itemIdMap.get(itemID));
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation loads the Item stored in a file in the project space.
+	 * 
+	 * @param fileName
+	 *            The name of the file in the project space. It may be null.
+	 * @return The Item or null if it could not be loaded.
+	 */
+	private Item unmarshalItem(String fileName) {
+		return (fileName != null) ? deserializeItem(project.getFile(fileName))
+				: null;
+	}
+
+	/**
+	 * This operation reads the Item stored in the file using the Unmarshaller
+	 * of the calling thread. Subclasses that store Items in other formats
+	 * should override it.
+	 * 
+	 * @param file
+	 *            The file that holds the Item
+	 * @return The Item or null if it could not be loaded.
+	 */
+	protected Item deserializeItem(IFile file) {
+
+		// Local Declarations
+		Item item = null;
+		InputStream stream = null;
 
 		try {
-			// If the map contains the item, load it.
-			fileName = itemIdMap.get(itemID);
-			if (fileName != null) {
-				// Create the unmarshaller and load the item
-				Unmarshaller unmarshaller = context.createUnmarshaller();
-				item = (Item) unmarshaller.unmarshal(project.getFile(fileName)
-						.getContents());
-			}
+			// Load the item
+			stream = new BufferedInputStream(file.getContents(), 65536);
+			item = (Item) getUnmarshaller().unmarshal(stream);
 		} catch (CoreException e) {
 			// Complain
 			e.printStackTrace();
@@ -656,11 +1117,89 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 			e.printStackTrace();
 			// Null out the Item so that it can't be returned uninitialized
 			item = null;
+		} finally {
+			closeStream(stream);
+		}
+
+		return item;
+	}
+
+	/**
+	 * This operation submits a job to the worker pool that unmarshals the Item
+	 * with the given id.
+	 * 
+	 * @param itemID
+	 *            The id of the Item
+	 * @return The Future that will hold the Item
+	 */
+	private Future<Item> submitLoad(final int itemID) {
+		return workerPool.submit(new Callable<Item>() {
+			@Override
+			public Item call() {
+				return unmarshalItem(itemIdMap.get(itemID));
+			}
+		});
+	}
+
+	/**
+	 * This operation waits for an Item that is being loaded by the worker pool
+	 * and returns it.
+	 * 
+	 * @param future
+	 *            The Future that holds the Item
+	 * @return The Item or null if it could not be loaded.
+	 */
+	private Item getLoadedItem(Future<Item> future) {
+
+		// Local Declarations
+		Item item = null;
+
+		try {
+			item = future.get();
+		} catch (InterruptedException e) {
+			// Complain
+			e.printStackTrace();
+		} catch (ExecutionException e) {
+			// Complain
+			e.printStackTrace();
 		}
 
 		return item;
 	}
 
+	/**
+	 * This operation starts unmarshalling all of the persisted Items in the
+	 * background on the worker pool. Items that are already being preloaded
+	 * are not submitted again. It returns immediately.
+	 */
+	public void preloadItems() {
+
+		// Only preload if the provider is running
+		if (workerPool != null && !workerPool.isShutdown()) {
+			for (int id : itemIdMap.keySet()) {
+				if (!preloadedItems.containsKey(id)) {
+					preloadedItems.put(id, submitLoad(id));
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation sets whether or not the provider should start
+	 * unmarshalling all of the persisted Items in the background when it
+	 * starts. It must be called before start() to have any effect. The default
+	 * is false, so Items are only unmarshalled when they are requested.
+	 * 
+	 * @param preload
+	 *            True if the Items should be preloaded, false if they should
+	 *            only be loaded on demand.
+	 */
+	public void setPreloadOnStart(boolean preload) {
+		preloadOnStart = preload;
+	}
+
 	/**
 	 * This operation deletes the Item. It logs the delete order with the queue
 	 * and only returns false if an exception is thrown.
@@ -680,7 +1219,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	 * and only returns false if an exception is thrown.
 	 * 
 	 * This operation is identical to calling persistItem() because there is no
-	 * way to do an efficient merge of the XML files.
+	 * way to do an efficient merge of the XML files. However, updates are
+	 * coalesced with other waiting tasks for the same Item and the file is not
+	 * rewritten if the XML has not changed.
 	 * 
 	 * @param item
 	 *            Item to update.
@@ -693,7 +1234,9 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 	}
 
 	/**
-	 * This operation loads all of the Items that this provider can find.
+	 * This operation loads all of the Items that this provider can find. The
+	 * Items are unmarshalled in parallel on the worker pool, or retrieved from
+	 * the background preload if it has already started.
 	 * 
 	 * @return A list of all of the Items that this persistence provider was
 	 *         able to load from the project space.
@@ -702,18 +1245,330 @@ public class XMLPersistenceProvider implements IPersistenceProvider, Runnable,
 
 		// Local Declarations
 		ArrayList<Item> items = new ArrayList<Item>();
+		ArrayList<Future<Item>> loads = new ArrayList<Future<Item>>();
 		Set<Integer> keys = itemIdMap.keySet();
+		Future<Item> load = null;
 		Item item = null;
 
-		// Load them all
+		// Just load them one at a time if the provider is not running
+		if (workerPool == null || workerPool.isShutdown()) {
+			for (int id : keys) {
+				item = loadItem(id);
+				if (item != null) {
+					items.add(item);
+				}
+			}
+			return items;
+		}
+
+		// Start loading everything that wasn't preloaded
 		for (int id : keys) {
-			item = loadItem(id);
-			items.add(item);
+			load = preloadedItems.remove(id);
+			loads.add((load != null) ? load : submitLoad(id));
+		}
+
+		// Collect them all
+		for (Future<Item> future : loads) {
+			item = getLoadedItem(future);
+			if (item != null) {
+				items.add(item);
+			}
 		}
 
 		return items;
 	}
 
+	/**
+	 * This operation returns the headers of all of the Items that this
+	 * provider can find, sorted by id. The headers are kept in the index, so
+	 * no Items are unmarshalled.
+	 * 
+	 * @see IPersistenceProvider#loadItemHeaders()
+	 */
+	public ArrayList<ItemHeader> loadItemHeaders() {
+		return new ArrayList<ItemHeader>(new TreeMap<Integer, ItemHeader>(
+				itemHeaders).values());
+	}
+
+	/**
+	 * This operation builds the headers of the persisted Items. The header of
+	 * an Item is taken from the index file if the Item file has not changed
+	 * since the index was written. Otherwise it is read from the Item file and
+	 * the index is marked as changed.
+	 */
+	private void indexItems() {
+
+		// Local Declarations
+		HashMap<String, IndexEntry> index = readIndex();
+		IndexEntry entry;
+		ItemHeader header;
+		IFile file;
+		long stamp;
+
+		// Find the header for each Item file
+		for (Map.Entry<Integer, String> mapping : itemIdMap.entrySet()) {
+			file = project.getFile(mapping.getValue());
+			stamp = file.getLocalTimeStamp();
+			entry = index.remove(mapping.getValue());
+			if (entry != null && entry.stamp == stamp
+					&& entry.header.getId() == mapping.getKey()) {
+				header = entry.header;
+			} else {
+				// Read the header from the file if it is new or changed
+				header = readItemHeader(file);
+				indexChanged.set(true);
+			}
+			if (header != null) {
+				itemHeaders.put(mapping.getKey(), header);
+				headerStamps.put(mapping.getKey(), stamp);
+			} else {
+				System.out.println("XMLPersistenceProvider Message: "
+						+ "Unable to read the header of "
+						+ mapping.getValue() + ".");
+			}
+		}
+
+		// Drop the entries for files that no longer exist
+		if (!index.isEmpty()) {
+			indexChanged.set(true);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation reads the index file. Any problem with the file is
+	 * treated as if there was no index, in which case the headers are read
+	 * from the Item files.
+	 * 
+	 * @return The entries of the index. The keys are the names of the Item
+	 *         files.
+	 */
+	private HashMap<String, IndexEntry> readIndex() {
+
+		// Local Declarations
+		HashMap<String, IndexEntry> index = new HashMap<String, IndexEntry>();
+		IFile file = project.getFile(INDEX_FILE_NAME);
+		InputStream stream = null;
+		DataInputStream input = null;
+
+		// Don't bother if there is no index
+		if (!file.exists()) {
+			return index;
+		}
+
+		try {
+			// Read the whole index so that the lengths in it can be checked
+			// against the bytes that are left.
+			stream = file.getContents();
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			byte[] chunk = new byte[65536];
+			int numBytes;
+			while ((numBytes = stream.read(chunk)) > 0) {
+				bytes.write(chunk, 0, numBytes);
+			}
+			input = new DataInputStream(new ByteArrayInputStream(
+					bytes.toByteArray()));
+			if (input.readInt() != INDEX_MAGIC_NUMBER
+					|| input.readInt() != INDEX_VERSION) {
+				throw new IOException("Unknown index format.");
+			}
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				String fileName = readIndexString(input);
+				IndexEntry entry = new IndexEntry();
+				entry.stamp = input.readLong();
+				int id = input.readInt();
+				String name = readIndexString(input);
+				String description = readIndexString(input);
+				String builderName = readIndexString(input);
+				String status = readIndexString(input);
+				entry.header = new ItemHeader(id, name, description,
+						builderName, (status != null) ? FormStatus
+								.valueOf(status) : null);
+				index.put(fileName, entry);
+			}
+		} catch (CoreException e) {
+			// Complain and read the headers from the files
+			e.printStackTrace();
+			index.clear();
+		} catch (IOException e) {
+			// Complain and read the headers from the files
+			System.out.println("XMLPersistenceProvider Message: "
+					+ "Unable to read the Item index. It will be rebuilt.");
+			index.clear();
+		} catch (IllegalArgumentException e) {
+			// Complain about unknown status values and read the headers from
+			// the files
+			e.printStackTrace();
+			index.clear();
+		} finally {
+			closeStream(stream);
+		}
+
+		return index;
+	}
+
+	/**
+	 * This operation writes the headers of the persisted Items to the index
+	 * file.
+	 */
+	private void writeIndex() {
+
+		// Local Declarations
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream output = new DataOutputStream(bytes);
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		String fileName;
+		Long stamp;
+		ItemHeader header;
+		FormStatus status;
+
+		// Only write the headers of Items that still have files
+		for (Integer id : new TreeMap<Integer, ItemHeader>(itemHeaders)
+				.keySet()) {
+			if (itemIdMap.containsKey(id) && headerStamps.containsKey(id)) {
+				ids.add(id);
+			}
+		}
+
+		try {
+			output.writeInt(INDEX_MAGIC_NUMBER);
+			output.writeInt(INDEX_VERSION);
+			output.writeInt(ids.size());
+			for (Integer id : ids) {
+				fileName = itemIdMap.get(id);
+				stamp = headerStamps.get(id);
+				header = itemHeaders.get(id);
+				status = header.getStatus();
+				writeIndexString(fileName, output);
+				output.writeLong((stamp != null) ? stamp : IResource.NULL_STAMP);
+				output.writeInt(header.getId());
+				writeIndexString(header.getName(), output);
+				writeIndexString(header.getDescription(), output);
+				writeIndexString(header.getItemBuilderName(), output);
+				writeIndexString((status != null) ? status.name() : null,
+						output);
+			}
+			output.flush();
+		} catch (IOException e) {
+			// Complain
+			e.printStackTrace();
+			return;
+		}
+
+		// Write the file
+		writeFile(bytes.toByteArray(), project.getFile(INDEX_FILE_NAME));
+
+		return;
+	}
+
+	/**
+	 * This operation writes a string to the index as its length in bytes
+	 * followed by its UTF-8 bytes. Null is written as a length of -1.
+	 * 
+	 * @param value
+	 *            The string
+	 * @param output
+	 *            The output
+	 * @throws IOException
+	 *             An exception indicating that the string could not be written
+	 */
+	private static void writeIndexString(String value, DataOutputStream output)
+			throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+		} else {
+			byte[] stringBytes = value.getBytes(UTF8);
+			output.writeInt(stringBytes.length);
+			output.write(stringBytes);
+		}
+	}
+
+	/**
+	 * This operation reads a string written by writeIndexString().
+	 * 
+	 * @param input
+	 *            The input, which must hold the rest of the index so that
+	 *            available() returns the number of bytes that are left
+	 * @return The string, which may be null
+	 * @throws IOException
+	 *             An exception indicating that the string could not be read or
+	 *             that its length is invalid
+	 */
+	private static String readIndexString(DataInputStream input)
+			throws IOException {
+		int length = input.readInt();
+		if (length < 0) {
+			return null;
+		} else if (length > input.available()) {
+			throw new IOException("Invalid string length in the index.");
+		}
+		byte[] stringBytes = new byte[length];
+		input.readFully(stringBytes);
+		return new String(stringBytes, UTF8);
+	}
+
+	/**
+	 * This operation reads the ItemHeader of a persisted Item from the root
+	 * element of its file without unmarshalling the rest of the Item.
+	 * Subclasses that store Items in other formats should override it.
+	 * 
+	 * @param file
+	 *            The file that holds the Item
+	 * @return The header or null if it could not be read
+	 */
+	protected ItemHeader readItemHeader(IFile file) {
+
+		// Local Declarations
+		ItemHeader header = null;
+		InputStream stream = null;
+		XMLStreamReader reader = null;
+
+		try {
+			// Skip forward to the root element
+			stream = file.getContents();
+			reader = inputFactory.createXMLStreamReader(stream);
+			while (reader.hasNext()
+					&& reader.next() != XMLStreamConstants.START_ELEMENT) {
+				continue;
+			}
+			// Pull the attributes off of it
+			if (reader.isStartElement()) {
+				String idString = reader.getAttributeValue(null, "id");
+				if (idString != null) {
+					header = new ItemHeader(Integer.valueOf(idString.trim()),
+							reader.getAttributeValue(null, "name"),
+							reader.getAttributeValue(null, "description"),
+							reader.getAttributeValue(null, "builderName"),
+							statusValues.get(reader.getAttributeValue(null,
+									"status")));
+				}
+			}
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		} catch (XMLStreamException e) {
+			// Complain
+			e.printStackTrace();
+		} catch (NumberFormatException e) {
+			// Complain
+			e.printStackTrace();
+		} finally {
+			// Close the reader and the stream
+			if (reader != null) {
+				try {
+					reader.close();
+				} catch (XMLStreamException e) {
+					e.printStackTrace();
+				}
+			}
+			closeStream(stream);
+		}
+
+		return header;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -15,6 +15,7 @@ package org.eclipse.ice.reactor.perspective;
 import org.eclipse.ice.io.hdf.HdfIOFactory;
 import org.eclipse.ice.reactor.ILWRComponentVisitor;
 import org.eclipse.ice.reactor.LWRComponent;
+import org.eclipse.ice.reactor.LWRDataSource;
 import org.eclipse.ice.reactor.LWRRod;
 import org.eclipse.ice.reactor.Ring;
 import org.eclipse.ice.reactor.Tube;
@@ -40,7 +41,9 @@ import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 import org.eclipse.ice.datastructures.resource.ICEResource;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.Viewer;
@@ -48,13 +51,27 @@ import org.eclipse.jface.viewers.Viewer;
 /**
  * This class fills out the tree in the {@link ReactorViewer}. Top level
  * elements are {@link ICEResource}s for HDF5 reactor files. Their children are
- * {@link IReactorComponent}s in the reactor file.
+ * {@link IReactorComponent}s in the reactor file. The data of the reactors is
+ * read from the files when it is first needed, so the files stay open until
+ * their reactors are read again, the input changes or the provider is
+ * disposed.
  * 
  * @author Jordan H. Deyton, Taylor Patterson
  * 
  */
 public class ReactorTreeContentProvider implements ITreeContentProvider {
 
+	/**
+	 * The factory used to read the reactors in the files.
+	 */
+	private final ReactorReaderFactory reactorReader = new ReactorReaderFactory();
+
+	/**
+	 * The reactors that were read by the {@link #reactorReader}, keyed on
+	 * their ICEResources, so that they can be released later.
+	 */
+	private final Map<ICEResource, IReactorComponent> reactors = new IdentityHashMap<ICEResource, IReactorComponent>();
+
 	/**
 	 * A ParentVisitor is used to get the parent object for an
 	 * IReactorComponent.
@@ -344,14 +361,32 @@ public class ReactorTreeContentProvider implements ITreeContentProvider {
 		// ----------------------------------------- //
 	};
 
+	/**
+	 * Releases the reactors of the old input.
+	 */
 	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+		releaseReactors();
 		return;
 	}
 
+	/**
+	 * Releases all of the reactors that were read.
+	 */
 	public void dispose() {
+		releaseReactors();
 		return;
 	}
 
+	/**
+	 * Releases all of the reactors that were read, which closes their files.
+	 */
+	private void releaseReactors() {
+		for (IReactorComponent reactor : reactors.values()) {
+			reactorReader.releaseReactor(reactor);
+		}
+		reactors.clear();
+	}
+
 	/**
 	 * Returns true if the element in the tree should have children, false
 	 * otherwise. ICEResources and some IReactorComponents (plants, reactors,
@@ -438,10 +473,15 @@ public class ReactorTreeContentProvider implements ITreeContentProvider {
 			// FIXME Temporary fall-back to the original method that uses direct
 			// references to the LWR and SFR readers.
 			else {
-				// Read the first structure from the reactor file.
-				ReactorReaderFactory reader = new ReactorReaderFactory();
-				IReactorComponent parentRC = reader.readReactor(resource
-						.getPath());
+				// Read the first structure from the reactor file. Its data is
+				// read when it is first needed. Release the reactor that was
+				// read for the resource before.
+				reactorReader.releaseReactor(reactors.remove(resource));
+				IReactorComponent parentRC = reactorReader.readReactor(
+						resource.getPath(), LWRDataSource.DEFAULT_CACHE_SIZE);
+				if (parentRC != null) {
+					reactors.put(resource, parentRC);
+				}
 
 				// Add the parent component to the return structure
 				childComponents.add(parentRC);
@@ -138,6 +138,9 @@ public class PlantComponentReader implements IPlantComponentVisitor {
 		groups.add("Reactors");
 		groups.add("Other");
 
+		// Batch the added components so that listeners, like the plant view,
+		// are notified once for the whole plant instead of once per component.
+		plantComp.startBatch();
 		try {
 			// Read each major group of PlantComponents.
 			for (int i = 0; i < groups.size(); i++) {
@@ -178,6 +181,8 @@ public class PlantComponentReader implements IPlantComponentVisitor {
 			System.out.println("PlantComponentWriter error: "
 					+ "Failed to write PlantComposite " + plantComp.getName()
 					+ " " + plantComp.getId());
+		} finally {
+			plantComp.finishBatch();
 		}
 
 		parents.pop();
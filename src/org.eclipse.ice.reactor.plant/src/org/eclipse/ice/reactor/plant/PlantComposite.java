@@ -15,13 +15,31 @@ package org.eclipse.ice.reactor.plant;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.ICEObject.Composite;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * A PlantComposite is a container for {@link PlantComponent}s. Duplicate
  * components and components with duplicate IDs are not allowed.
+ * <p>
+ * {@link IPlantCompositeListener}s are notified on a small executor that is
+ * shared by all PlantComposites. The events from a single PlantComposite are
+ * always delivered in order. Bulk changes should be wrapped in
+ * {@link #startBatch()} and {@link #finishBatch()} so that listeners receive
+ * one event for all of the removed components and one event for all of the
+ * added components instead of one event per component.
+ * </p>
  * 
  * @author Jordan H. Deyton
  * 
@@ -40,6 +58,75 @@ public class PlantComposite extends PlantComponent implements Composite {
 	 */
 	private final List<IPlantCompositeListener> listeners;
 
+	/**
+	 * The executor used by all PlantComposites to notify their
+	 * IPlantCompositeListeners. Its threads are daemons so that they do not
+	 * keep the JVM alive, and they are released when they are idle.
+	 */
+	private static final ExecutorService notifierService;
+
+	static {
+		// Local Declarations
+		int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+		ThreadPoolExecutor executor;
+
+		executor = new ThreadPoolExecutor(threads, threads, 30L,
+				TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+				new ThreadFactory() {
+					private final AtomicInteger count = new AtomicInteger();
+
+					@Override
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable,
+								"ICE Plant Notifier " + count.incrementAndGet());
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+		notifierService = executor;
+	}
+
+	/**
+	 * The events that are waiting to be delivered to the
+	 * IPlantCompositeListeners. Access to the queue and to
+	 * {@link #dispatching} is synchronized on the queue.
+	 */
+	private final ArrayDeque<PlantCompositeEvent> pendingEvents;
+
+	/**
+	 * Whether or not a task on the {@link #notifierService} is delivering the
+	 * {@link #pendingEvents}. Only one task delivers the events of a
+	 * PlantComposite at a time, which keeps them in order.
+	 */
+	private boolean dispatching;
+
+	/**
+	 * The depth of nested batches. Changes are only delivered when the
+	 * outermost batch is finished.
+	 */
+	private int batchDepth;
+
+	/**
+	 * The net changes made during the current batch. A component that is
+	 * mapped to true was added, and a component that is mapped to false was
+	 * removed. Components are compared by reference so that a component that
+	 * is removed and then added again cancels out.
+	 */
+	private final Map<PlantComponent, Boolean> batchChanges;
+
+	/**
+	 * The components in {@link #batchChanges} in the order that they were
+	 * first changed. It may contain components whose changes cancelled out.
+	 */
+	private final List<PlantComponent> batchOrder;
+
+	/**
+	 * Whether or not the IUpdateableListeners need to be notified when the
+	 * current batch is finished.
+	 */
+	private boolean batchUpdated;
+
 	/**
 	 * The default, nullary constructor. Initializes all default values.
 	 */
@@ -54,7 +141,12 @@ public class PlantComposite extends PlantComponent implements Composite {
 		components = new TreeMap<Integer, PlantComponent>();
 
 		// Initialize the list of listeners.
-		listeners = new ArrayList<IPlantCompositeListener>();
+		listeners = new CopyOnWriteArrayList<IPlantCompositeListener>();
+
+		// Initialize the notification and batch state.
+		pendingEvents = new ArrayDeque<PlantCompositeEvent>();
+		batchChanges = new IdentityHashMap<PlantComponent, Boolean>();
+		batchOrder = new ArrayList<PlantComponent>();
 
 		return;
 	}
@@ -91,7 +183,7 @@ public class PlantComposite extends PlantComponent implements Composite {
 				notifyPlantCompositeListeners(components, true);
 
 				// Notify IUpdateableListeners.
-				notifyListeners();
+				notifyUpdateableListeners();
 			}
 		}
 
@@ -114,12 +206,90 @@ public class PlantComposite extends PlantComponent implements Composite {
 			notifyPlantCompositeListeners(components, false);
 
 			// Notify IUpdateableListeners.
-			notifyListeners();
+			notifyUpdateableListeners();
 		}
 
 		return;
 	}
 
+	/**
+	 * Starts a batch of changes. Until the matching call to
+	 * {@link #finishBatch()}, components that are added or removed are only
+	 * recorded. When the batch is finished, the IPlantCompositeListeners are
+	 * notified once of all of the removed components and once of all of the
+	 * added components, and the IUpdateableListeners are notified once.
+	 * Batches may be nested, in which case only the outermost batch delivers
+	 * the changes.
+	 */
+	public void startBatch() {
+		batchDepth++;
+		return;
+	}
+
+	/**
+	 * Finishes a batch of changes that was started with {@link #startBatch()}.
+	 * If it finishes the outermost batch, the net changes made during the batch
+	 * are delivered to the listeners. This should be called from a finally
+	 * block so that the changes are not held back by an exception.
+	 */
+	public void finishBatch() {
+
+		// Local Declarations
+		List<PlantComponent> added, removed;
+		Boolean change;
+
+		if (batchDepth > 0 && --batchDepth == 0) {
+			added = new ArrayList<PlantComponent>();
+			removed = new ArrayList<PlantComponent>();
+
+			// Sort the net changes in the order they were made. Removing the
+			// component from the map skips any duplicates in the order.
+			for (PlantComponent component : batchOrder) {
+				change = batchChanges.remove(component);
+				if (change != null) {
+					(change ? added : removed).add(component);
+				}
+			}
+			batchChanges.clear();
+			batchOrder.clear();
+
+			// Removals are delivered first so that a listener never sees two
+			// components with the same ID.
+			queueEvent(removed, false);
+			queueEvent(added, true);
+
+			// Notify IUpdateableListeners.
+			if (batchUpdated) {
+				batchUpdated = false;
+				notifyListeners();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * Whether or not a batch of changes is in progress.
+	 * 
+	 * @return True if {@link #startBatch()} has been called more times than
+	 *         {@link #finishBatch()}, false otherwise.
+	 */
+	public boolean isBatching() {
+		return batchDepth > 0;
+	}
+
+	/**
+	 * Notifies the IUpdateableListeners of a change, or defers the
+	 * notification until the end of the current batch.
+	 */
+	private void notifyUpdateableListeners() {
+		if (batchDepth > 0) {
+			batchUpdated = true;
+		} else {
+			notifyListeners();
+		}
+	}
+
 	/**
 	 * Gets the Component with the specified ID. To avoid having to cast the
 	 * return value, use {@link #getPlantComponent(int)}.
@@ -219,7 +389,8 @@ public class PlantComposite extends PlantComponent implements Composite {
 
 	/**
 	 * Notifies all registered {@link IPlantCompositeListener}s of any added or
-	 * removed PlantComponents <i>in a separate notifier thread</i>.
+	 * removed PlantComponents <i>in a separate notifier thread</i>. If a batch
+	 * is in progress, the components are instead added to the batch's changes.
 	 * 
 	 * @param components
 	 *            The PlantComponents that have been added or removed from the
@@ -230,29 +401,164 @@ public class PlantComposite extends PlantComponent implements Composite {
 	public void notifyPlantCompositeListeners(
 			final List<PlantComponent> components, final boolean added) {
 
+		// Local Declarations
+		Boolean change;
+
 		if (components != null && !components.isEmpty()) {
-			// Create a thread to notify IPlantCompositeListeners that
-			// PlantComponents were either added or removed.
-			Thread notifierThread = new Thread() {
-				@Override
-				public void run() {
-					if (added) {
-						for (IPlantCompositeListener listener : listeners) {
-							listener.addedComponents(PlantComposite.this,
-									components);
+			if (batchDepth > 0) {
+				// Record the changes. Opposite changes to the same component
+				// cancel out.
+				for (PlantComponent component : components) {
+					change = batchChanges.get(component);
+					if (change == null) {
+						batchChanges.put(component, added);
+						batchOrder.add(component);
+					} else if (change != added) {
+						batchChanges.remove(component);
+					}
+				}
+			} else {
+				queueEvent(components, added);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * Queues an event for the IPlantCompositeListeners and makes sure that a
+	 * task on the shared executor is delivering this PlantComposite's events.
+	 * 
+	 * @param components
+	 *            The PlantComponents that have been added or removed.
+	 * @param added
+	 *            Whether the components were added or removed.
+	 */
+	private void queueEvent(List<PlantComponent> components, boolean added) {
+
+		// Local Declarations
+		boolean submit = false;
+
+		if (!components.isEmpty() && !listeners.isEmpty()) {
+			synchronized (pendingEvents) {
+				pendingEvents.add(new PlantCompositeEvent(components, added));
+				if (!dispatching) {
+					dispatching = true;
+					submit = true;
+				}
+			}
+			if (submit) {
+				notifierService.execute(new Runnable() {
+					@Override
+					public void run() {
+						dispatchEvents();
+					}
+				});
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * Delivers the queued events to the IPlantCompositeListeners until the
+	 * queue is empty. Consecutive events of the same type are merged so that a
+	 * burst of additions or removals reaches the listeners as one event. If a
+	 * listener throws an Error, this task ends, but a new task is started for
+	 * the events that are still queued so that they are not stranded.
+	 */
+	private void dispatchEvents() {
+
+		// Local Declarations
+		PlantCompositeEvent event;
+		List<PlantComponent> components;
+		boolean finished = false;
+
+		try {
+			while (true) {
+				synchronized (pendingEvents) {
+					event = pendingEvents.poll();
+					if (event == null) {
+						dispatching = false;
+						finished = true;
+						return;
+					}
+					components = event.components;
+					if (pendingEvents.peek() != null
+							&& pendingEvents.peek().added == event.added) {
+						components = new ArrayList<PlantComponent>(components);
+						while (pendingEvents.peek() != null
+								&& pendingEvents.peek().added == event.added) {
+							components.addAll(pendingEvents.poll().components);
 						}
-					} else {
-						for (IPlantCompositeListener listener : listeners) {
-							listener.removedComponents(PlantComposite.this,
-									components);
+					}
+				}
+
+				// A listener that throws should not stop the other listeners
+				// or the events that follow.
+				for (IPlantCompositeListener listener : listeners) {
+					try {
+						if (event.added) {
+							listener.addedComponents(this, components);
+						} else {
+							listener.removedComponents(this, components);
 						}
+					} catch (RuntimeException e) {
+						e.printStackTrace();
 					}
 				}
-			};
-			notifierThread.start();
+			}
+		} finally {
+			// Hand the rest of the queue to a new task if this one is ending
+			// early. Otherwise the flag would stay set and no other task
+			// would ever deliver this PlantComposite's events.
+			if (!finished) {
+				boolean submit;
+				synchronized (pendingEvents) {
+					submit = !pendingEvents.isEmpty();
+					dispatching = submit;
+				}
+				if (submit) {
+					notifierService.execute(new Runnable() {
+						@Override
+						public void run() {
+							dispatchEvents();
+						}
+					});
+				}
+			}
 		}
+	}
 
-		return;
+	/**
+	 * An add or remove event that is waiting to be delivered to the
+	 * IPlantCompositeListeners.
+	 */
+	private static class PlantCompositeEvent {
+
+		/**
+		 * The PlantComponents that were added or removed.
+		 */
+		private final List<PlantComponent> components;
+
+		/**
+		 * Whether the components were added or removed.
+		 */
+		private final boolean added;
+
+		/**
+		 * The constructor.
+		 * 
+		 * @param components
+		 *            The PlantComponents that were added or removed.
+		 * @param added
+		 *            Whether the components were added or removed.
+		 */
+		public PlantCompositeEvent(List<PlantComponent> components,
+				boolean added) {
+			this.components = components;
+			this.added = added;
+		}
 	}
 
 	/*
@@ -331,21 +637,28 @@ public class PlantComposite extends PlantComponent implements Composite {
 			// Copy the PlantComponent and ICEObject data.
 			super.copy(otherObject);
 
-			// Clear all components and notify IPlantCompositeListeners.
-			List<PlantComponent> list = new ArrayList<PlantComponent>(
-					components.values());
-			notifyPlantCompositeListeners(list, false);
-			components.clear();
-
-			// Copy all of the local class data.
-			components.putAll(otherObject.components);
-
-			// Notify IPlantComposite listeners of the added components.
-			list = new ArrayList<PlantComponent>(components.values());
-			notifyPlantCompositeListeners(list, true);
-
-			// Notify IUpdateableListeners of the change.
-			notifyListeners();
+			// Batch the changes so that components in both composites cancel
+			// out and the listeners receive at most one event of each type.
+			startBatch();
+			try {
+				// Clear all components and notify IPlantCompositeListeners.
+				List<PlantComponent> list = new ArrayList<PlantComponent>(
+						components.values());
+				notifyPlantCompositeListeners(list, false);
+				components.clear();
+
+				// Copy all of the local class data.
+				components.putAll(otherObject.components);
+
+				// Notify IPlantComposite listeners of the added components.
+				list = new ArrayList<PlantComponent>(components.values());
+				notifyPlantCompositeListeners(list, true);
+
+				// Notify IUpdateableListeners of the change.
+				notifyUpdateableListeners();
+			} finally {
+				finishBatch();
+			}
 		}
 
 		return;
@@ -31,6 +31,7 @@ import ncsa.hdf.object.h5.H5Group;
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
 import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
 import org.eclipse.ice.datastructures.componentVisitor.IComponentVisitor;
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 import org.eclipse.ice.io.hdf.HdfReaderFactory;
@@ -197,26 +198,8 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 		if (this.listeners == null || this.listeners.isEmpty()) {
 			return;
 		}
-		// Local Declarations
-		final LWRComponent compHandle = this;
-
-		// Create a thread on which to notify the listeners.
-		Thread notifierThread = new Thread() {
-
-			@Override
-			public void run() {
-
-				// Loop over all listeners and update them
-				for (int i = 0; i < listeners.size(); i++) {
-					listeners.get(i).update(compHandle);
-				}
-
-				return;
-			}
-		};
-
-		// Launch the thread and do the notifications
-		notifierThread.start();
+		// Hand the notifications to the shared dispatcher
+		NotificationDispatcher.getDefault().notifyListeners(this, listeners);
 
 		return;
 
@@ -609,6 +592,13 @@ public class LWRComponent implements IReactorComponent, IDataProvider,
 
 	}
 
+	/*
+	 * Implements method from IDataProvider.
+	 */
+	public int getNumberOfDataAtCurrentTime(String feature) {
+		return getDataAtCurrentTime(feature).size();
+	}
+
 	/*
 	 * Implements method from IDataProvider.
 	 */
@@ -118,7 +118,88 @@ public class LWRComponentReader implements IHdfReader {
 		H5Group h5Group = HdfReaderFactory.getChildH5Group(rootH5Group, 0);
 
 		// Read the group into the iHdfReadable
-		IHdfReadable iHdfReadable = this.read(h5Group);
+		IHdfReadable iHdfReadable = this.read(h5Group, null);
+
+		// Close the file
+		HdfFileFactory.closeH5File(h5File);
+
+		// Return the iHdfReadable
+		return iHdfReadable;
+
+	}
+
+	/**
+	 * <p>
+	 * Reads the structure of the components in the file at the provided uri,
+	 * but not the data at the locations of their LWRGridManagers. Each manager
+	 * reads the data of a location from the file when it is first requested
+	 * with getDataProviderAtLocation(). The managers share one LWRDataSource,
+	 * which keeps the data that was read in a cache of the given size.
+	 * </p>
+	 * 
+	 * @param uri
+	 *            <p>
+	 *            The uri of the file.
+	 *            </p>
+	 * @param cacheSize
+	 *            <p>
+	 *            The size in bytes of the cache of data.
+	 *            </p>
+	 * @return <p>
+	 *         The top level component or null if the file could not be read.
+	 *         </p>
+	 */
+	public IHdfReadable readLazily(URI uri, long cacheSize) {
+		return this.readLazily(uri, new LWRDataSource(uri, cacheSize));
+	}
+
+	/**
+	 * <p>
+	 * Reads the structure of the components in the file at the provided uri
+	 * like {@link #readLazily(URI, long)}, but lets the managers read their
+	 * data with the given source. The caller can then close the source when
+	 * the components are no longer needed.
+	 * </p>
+	 * 
+	 * @param uri
+	 *            <p>
+	 *            The uri of the file.
+	 *            </p>
+	 * @param source
+	 *            <p>
+	 *            The source that reads the data of the file later.
+	 *            </p>
+	 * @return <p>
+	 *         The top level component or null if the file could not be read.
+	 *         </p>
+	 */
+	public IHdfReadable readLazily(URI uri, LWRDataSource source) {
+
+		// Check the source
+		if (source == null) {
+			return null;
+		}
+		// Open the file at the provided uri
+		H5File h5File = HdfFileFactory.openH5File(uri);
+
+		// If the file is null, then return false
+		if (h5File == null) {
+			return null;
+		}
+		// Get the root group from the file
+		H5Group rootH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+				.getRootNode()).getUserObject();
+
+		// If the root group is null, then return null
+		if (rootH5Group == null) {
+			return null;
+		}
+		// Get the first child group from the root group
+		H5Group h5Group = HdfReaderFactory.getChildH5Group(rootH5Group, 0);
+
+		// Read the structure into the iHdfReadable. The source opens the file
+		// again when it needs to read data.
+		IHdfReadable iHdfReadable = this.read(h5Group, source);
 
 		// Close the file
 		HdfFileFactory.closeH5File(h5File);
@@ -163,12 +244,17 @@ public class LWRComponentReader implements IHdfReader {
 	 *            <p>
 	 *            The H5Group to be read.
 	 *            </p>
+	 * @param source
+	 *            <p>
+	 *            The source that reads the data at the locations of
+	 *            LWRGridManagers later, or null if the data should be read now.
+	 *            </p>
 	 * @return <p>
 	 *         An IHdfReadable that has been populated by the provided H5Group
 	 *         and its child H5Groups and Datasets.
 	 *         </p>
 	 */
-	private IHdfReadable read(H5Group h5Group) {
+	private IHdfReadable read(H5Group h5Group, LWRDataSource source) {
 
 		IHdfReadable iHdfReadable = null;
 
@@ -189,8 +275,15 @@ public class LWRComponentReader implements IHdfReader {
 			// Read in the attributes
 			iHdfReadable.readAttributes(h5Group);
 
-			// Read in the datasets
-			iHdfReadable.readDatasets(h5Group);
+			// Read in the datasets. Only read the locations of managers if
+			// their data will be read later.
+			if (source != null && iHdfReadable instanceof LWRGridManager) {
+				LWRGridManager manager = (LWRGridManager) iHdfReadable;
+				manager.readDatasets(h5Group, 1.0, 0.0);
+				manager.setDataSource(source, h5Group);
+			} else {
+				iHdfReadable.readDatasets(h5Group);
+			}
 
 			// Get a list of child groups
 			ArrayList<H5Group> childGroupList = HdfReaderFactory
@@ -203,7 +296,7 @@ public class LWRComponentReader implements IHdfReader {
 				for (H5Group group : childGroupList) {
 
 					// Create and populate a child from the child group
-					IHdfReadable child = this.read(group);
+					IHdfReadable child = this.read(group, source);
 
 					// Read the child into the readable
 					iHdfReadable.readChild(child);
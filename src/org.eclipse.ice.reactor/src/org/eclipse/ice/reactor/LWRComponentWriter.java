@@ -30,11 +30,54 @@ import org.eclipse.ice.io.hdf.IHdfWriteable;
  * accordingly to any part of a Reactor or its delegated classes that inherit
  * from LWRComponent.
  * </p>
+ * <p>
+ * The data of every LWRGridManager is written in the chunked, compressed
+ * columnar layout by default because it is much smaller and faster to read in
+ * part. Files for readers that only know the original group-per-location
+ * layout can be written by turning it off with setColumnarLayout(false) or
+ * by starting ICE with -D{@value #COLUMNAR_LAYOUT_PROPERTY}=false. A manager
+ * that asks for the columnar layout itself always gets it.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
 public class LWRComponentWriter implements IHdfWriter {
 
+	/**
+	 * The system property that turns the columnar layout off for every new
+	 * writer when it is set to false.
+	 */
+	public static final String COLUMNAR_LAYOUT_PROPERTY = "org.eclipse.ice.reactor.columnarLayout";
+
+	/**
+	 * True if the data of the LWRGridManagers is written in the columnar
+	 * layout.
+	 */
+	private boolean columnarLayout = !"false".equalsIgnoreCase(System
+			.getProperty(COLUMNAR_LAYOUT_PROPERTY));
+
+	/**
+	 * Sets whether the data of the LWRGridManagers is written in the columnar
+	 * layout.
+	 * 
+	 * @param columnar
+	 *            True to write the columnar layout, false to write the layout
+	 *            that each manager is set to.
+	 */
+	public void setColumnarLayout(boolean columnar) {
+		this.columnarLayout = columnar;
+	}
+
+	/**
+	 * Returns true if the data of the LWRGridManagers is written in the
+	 * columnar layout. It is true by default.
+	 * 
+	 * @return True if the layout is columnar
+	 */
+	public boolean isColumnarLayout() {
+		return this.columnarLayout;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -116,8 +159,15 @@ public class LWRComponentWriter implements IHdfWriter {
 		// Write the attributes for this LWRComponent
 		flag &= iHdfWriteable.writeAttributes(h5File, h5Group);
 
-		// Write the datasets for this LWRComponent
-		flag &= iHdfWriteable.writeDatasets(h5File, h5Group);
+		// Write the datasets for this LWRComponent. The data of grid managers
+		// is written in the layout of this writer.
+		if (iHdfWriteable instanceof LWRGridManager) {
+			LWRGridManager manager = (LWRGridManager) iHdfWriteable;
+			flag &= manager.writeDatasets(h5File, h5Group, columnarLayout
+					|| manager.isColumnarLayout());
+		} else {
+			flag &= iHdfWriteable.writeDatasets(h5File, h5Group);
+		}
 
 		// Get the children of iHdfWriteable
 		ArrayList<IHdfWriteable> children = iHdfWriteable
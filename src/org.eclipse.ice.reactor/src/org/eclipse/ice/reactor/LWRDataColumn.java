@@ -0,0 +1,579 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.ice.analysistool.IData;
+
+/**
+ * <p>
+ * The LWRDataColumn stores all of the data for one feature at one time step of
+ * an LWRDataProvider in primitive arrays instead of as individual LWRData. The
+ * values, uncertainties and positions of the data are each stored in a single
+ * array, and the units of each datum are stored as an index into a short table
+ * of the distinct units of the column.
+ * </p>
+ * <p>
+ * The arrays returned by getValues(), getUncertainties(), getPositions() and
+ * getUnitIndices() are the arrays held by the column when they are exactly as
+ * long as the number of data, and must not be modified. Adding a block of data
+ * sizes the arrays exactly, and trimToSize() does the same after data has been
+ * added one datum at a time. Otherwise the getters return trimmed copies.
+ * Reading the column never changes it, so a column that is no longer being
+ * written can be read from several threads.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class LWRDataColumn {
+
+	/**
+	 * <p>
+	 * The initial capacity of the arrays.
+	 * </p>
+	 * 
+	 */
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * <p>
+	 * The name of the feature.
+	 * </p>
+	 * 
+	 */
+	private final String feature;
+
+	/**
+	 * <p>
+	 * The number of data in the column.
+	 * </p>
+	 * 
+	 */
+	private int size;
+
+	/**
+	 * <p>
+	 * The values of the data.
+	 * </p>
+	 * 
+	 */
+	private double[] values;
+
+	/**
+	 * <p>
+	 * The uncertainties of the data.
+	 * </p>
+	 * 
+	 */
+	private double[] uncertainties;
+
+	/**
+	 * <p>
+	 * The x, y and z coordinates of each datum, three per datum.
+	 * </p>
+	 * 
+	 */
+	private double[] positions;
+
+	/**
+	 * <p>
+	 * The index of the units of each datum in the units table.
+	 * </p>
+	 * 
+	 */
+	private int[] unitIndices;
+
+	/**
+	 * <p>
+	 * The distinct units of the data in the column.
+	 * </p>
+	 * 
+	 */
+	private final ArrayList<String> units;
+
+	/**
+	 * <p>
+	 * The constructor.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The name of the feature.
+	 *            </p>
+	 */
+	public LWRDataColumn(String feature) {
+		this.feature = feature;
+		size = 0;
+		values = new double[INITIAL_CAPACITY];
+		uncertainties = new double[INITIAL_CAPACITY];
+		positions = new double[3 * INITIAL_CAPACITY];
+		unitIndices = new int[INITIAL_CAPACITY];
+		units = new ArrayList<String>();
+	}
+
+	/**
+	 * <p>
+	 * Returns the name of the feature.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The feature.
+	 *         </p>
+	 */
+	public String getFeature() {
+		return feature;
+	}
+
+	/**
+	 * <p>
+	 * Returns the number of data in the column.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The number of data.
+	 *         </p>
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * <p>
+	 * Makes sure the arrays can hold the given number of data.
+	 * </p>
+	 * 
+	 * @param capacity
+	 *            <p>
+	 *            The number of data.
+	 *            </p>
+	 */
+	private void ensureCapacity(int capacity) {
+		if (capacity > values.length) {
+			resize(Math.max(capacity, values.length + (values.length >> 1)
+					+ 1));
+		}
+	}
+
+	/**
+	 * <p>
+	 * Copies the arrays into new arrays that hold the given number of data.
+	 * </p>
+	 * 
+	 * @param newCapacity
+	 *            <p>
+	 *            The number of data.
+	 *            </p>
+	 */
+	private void resize(int newCapacity) {
+		values = Arrays.copyOf(values, newCapacity);
+			uncertainties = Arrays.copyOf(uncertainties, newCapacity);
+			positions = Arrays.copyOf(positions, 3 * newCapacity);
+			unitIndices = Arrays.copyOf(unitIndices, newCapacity);
+	}
+
+	/**
+	 * <p>
+	 * Trims the arrays to the number of data so that the getters can return
+	 * them without copying. This should be called once all of the data has
+	 * been added one datum at a time.
+	 * </p>
+	 * 
+	 */
+	public void trimToSize() {
+		if (values.length != size) {
+			resize(size);
+		}
+	}
+
+	/**
+	 * <p>
+	 * Returns the index of the units in the units table, adding them if they
+	 * are not already there.
+	 * </p>
+	 * 
+	 * @param unit
+	 *            <p>
+	 *            The units.
+	 *            </p>
+	 * @return <p>
+	 *         The index.
+	 *         </p>
+	 */
+	private int getUnitIndex(String unit) {
+		int index = units.indexOf(unit);
+		if (index < 0) {
+			units.add(unit);
+			index = units.size() - 1;
+		}
+		return index;
+	}
+
+	/**
+	 * <p>
+	 * Adds a datum to the end of the column. Its position should have three
+	 * coordinates. Missing coordinates are set to zero.
+	 * </p>
+	 * 
+	 * @param data
+	 *            <p>
+	 *            The datum.
+	 *            </p>
+	 */
+	public void add(IData data) {
+
+		// Local Declarations
+		ArrayList<Double> position = data.getPosition();
+
+		ensureCapacity(size + 1);
+		values[size] = data.getValue();
+		uncertainties[size] = data.getUncertainty();
+		for (int i = 0; i < 3; i++) {
+			positions[3 * size + i] = (position != null && i < position.size()) ? position
+					.get(i) : 0.0;
+		}
+		unitIndices[size] = getUnitIndex(data.getUnits());
+		size++;
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Adds a block of data with the same units to the end of the column.
+	 * </p>
+	 * 
+	 * @param newValues
+	 *            <p>
+	 *            The values.
+	 *            </p>
+	 * @param newUncertainties
+	 *            <p>
+	 *            The uncertainties. There must be one for each value.
+	 *            </p>
+	 * @param newPositions
+	 *            <p>
+	 *            The x, y and z coordinates of each value, three per value.
+	 *            </p>
+	 * @param unit
+	 *            <p>
+	 *            The units of the values.
+	 *            </p>
+	 */
+	public void add(double[] newValues, double[] newUncertainties,
+			double[] newPositions, String unit) {
+		int[] newUnitIndices = new int[newValues.length];
+		Arrays.fill(newUnitIndices, getUnitIndex(unit));
+		add(newValues, newUncertainties, newPositions, newUnitIndices,
+				new String[] { unit });
+	}
+
+	/**
+	 * <p>
+	 * Adds a block of data to the end of the column. The units of each value
+	 * are given by an index into a table of units.
+	 * </p>
+	 * 
+	 * @param newValues
+	 *            <p>
+	 *            The values.
+	 *            </p>
+	 * @param newUncertainties
+	 *            <p>
+	 *            The uncertainties. There must be one for each value.
+	 *            </p>
+	 * @param newPositions
+	 *            <p>
+	 *            The x, y and z coordinates of each value, three per value.
+	 *            </p>
+	 * @param newUnitIndices
+	 *            <p>
+	 *            The index of the units of each value in the table.
+	 *            </p>
+	 * @param unitTable
+	 *            <p>
+	 *            The table of units.
+	 *            </p>
+	 */
+	public void add(double[] newValues, double[] newUncertainties,
+			double[] newPositions, int[] newUnitIndices, String[] unitTable) {
+
+		// Local Declarations
+		int count = newValues.length;
+		int[] unitMap = new int[unitTable.length];
+
+		// Check the arrays
+		if (newUncertainties.length != count
+				|| newPositions.length != 3 * count
+				|| newUnitIndices.length != count) {
+			throw new IllegalArgumentException("LWRDataColumn Message: "
+					+ "The arrays of data for feature " + feature
+					+ " do not have matching lengths.");
+		}
+
+		// Map the units table onto this column's table
+		for (int i = 0; i < unitTable.length; i++) {
+			unitMap[i] = getUnitIndex(unitTable[i]);
+		}
+
+		// Copy the data into arrays that hold exactly the data
+		if (values.length != size + count) {
+			resize(size + count);
+		}
+		System.arraycopy(newValues, 0, values, size, count);
+		System.arraycopy(newUncertainties, 0, uncertainties, size, count);
+		System.arraycopy(newPositions, 0, positions, 3 * size, 3 * count);
+		for (int i = 0; i < count; i++) {
+			unitIndices[size + i] = unitMap[newUnitIndices[i]];
+		}
+		size += count;
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Creates an LWRData for a datum in the column. Changing it does not
+	 * change the column.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the datum.
+	 *            </p>
+	 * @return <p>
+	 *         The LWRData.
+	 *         </p>
+	 */
+	public LWRData getData(int index) {
+
+		// Local Declarations
+		LWRData data = new LWRData(feature);
+		ArrayList<Double> position = new ArrayList<Double>(3);
+
+		// Check the index
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("LWRDataColumn Message: "
+					+ "Invalid index " + index + " for feature " + feature
+					+ " with " + size + " data.");
+		}
+
+		// Set up the datum
+		data.setValue(values[index]);
+		data.setUncertainty(uncertainties[index]);
+		data.setUnits(units.get(unitIndices[index]));
+		position.add(positions[3 * index]);
+		position.add(positions[3 * index + 1]);
+		position.add(positions[3 * index + 2]);
+		data.setPosition(position);
+
+		return data;
+	}
+
+	/**
+	 * <p>
+	 * Creates an LWRData for each datum in the column.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The list of data.
+	 *         </p>
+	 */
+	public ArrayList<IData> getData() {
+		ArrayList<IData> data = new ArrayList<IData>(size);
+		for (int i = 0; i < size; i++) {
+			data.add(getData(i));
+		}
+		return data;
+	}
+
+	/**
+	 * <p>
+	 * Returns the values of the data. The array is only copied if the column
+	 * has not been trimmed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The values.
+	 *         </p>
+	 */
+	public double[] getValues() {
+		return (values.length == size) ? values : Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * <p>
+	 * Returns the uncertainties of the data. The array is only copied if the
+	 * column has not been trimmed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The uncertainties.
+	 *         </p>
+	 */
+	public double[] getUncertainties() {
+		return (uncertainties.length == size) ? uncertainties : Arrays.copyOf(
+				uncertainties, size);
+	}
+
+	/**
+	 * <p>
+	 * Returns the x, y and z coordinates of the data, three per datum. The
+	 * array is only copied if the column has not been trimmed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The positions.
+	 *         </p>
+	 */
+	public double[] getPositions() {
+		return (positions.length == 3 * size) ? positions : Arrays.copyOf(
+				positions, 3 * size);
+	}
+
+	/**
+	 * <p>
+	 * Returns the index of the units of each datum in the table returned by
+	 * getUnits(). The array is only copied if the column has not been
+	 * trimmed.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The unit indices.
+	 *         </p>
+	 */
+	public int[] getUnitIndices() {
+		return (unitIndices.length == size) ? unitIndices : Arrays.copyOf(
+				unitIndices, size);
+	}
+
+	/**
+	 * <p>
+	 * Returns a copy of the table of the distinct units of the column.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The units.
+	 *         </p>
+	 */
+	public ArrayList<String> getUnits() {
+		return new ArrayList<String>(units);
+	}
+
+	/**
+	 * <p>
+	 * Overrides the equals operation to check the attributes on this object
+	 * with another object of the same type. Returns true if the objects are
+	 * equal. False otherwise.
+	 * </p>
+	 * 
+	 * @param otherObject
+	 *            <p>
+	 *            The object to be compared.
+	 *            </p>
+	 * @return <p>
+	 *         True if otherObject is equal. False otherwise.
+	 *         </p>
+	 */
+	public boolean equals(Object otherObject) {
+
+		// Local declarations
+		LWRDataColumn column;
+
+		// If they are equal to the same object, return true
+		if (this == otherObject) {
+			return true;
+		}
+
+		// If this object is an instance of the LWRDataColumn, cast it.
+		// Make sure it is also not null
+		if (otherObject == null || !(otherObject instanceof LWRDataColumn)) {
+			return false;
+		}
+		column = (LWRDataColumn) otherObject;
+
+		// Check the feature and the number of data
+		if (!feature.equals(column.feature) || size != column.size) {
+			return false;
+		}
+
+		// Check each datum like LWRData.equals() does
+		for (int i = 0; i < size; i++) {
+			if (values[i] != column.values[i]
+					|| uncertainties[i] != column.uncertainties[i]
+					|| !units.get(unitIndices[i]).equals(
+							column.units.get(column.unitIndices[i]))) {
+				return false;
+			}
+		}
+		for (int i = 0; i < 3 * size; i++) {
+			if (!Double.valueOf(positions[i]).equals(column.positions[i])) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * Returns the hashCode of the object.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The hash of the object.
+	 *         </p>
+	 */
+	public int hashCode() {
+
+		// Local Declarations
+		int hash = 31;
+
+		// Calculate hash
+		hash += 31 * feature.hashCode();
+		hash += 31 * size;
+		for (int i = 0; i < size; i++) {
+			hash = 31 * hash + Double.valueOf(values[i]).hashCode();
+			hash = 31 * hash + units.get(unitIndices[i]).hashCode();
+		}
+
+		// return the hash
+		return hash;
+	}
+
+	/**
+	 * <p>
+	 * Deep copies and returns a newly instantiated object.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The newly instantiated copied object.
+	 *         </p>
+	 */
+	public Object clone() {
+
+		// Local Declarations
+		LWRDataColumn column = new LWRDataColumn(feature);
+
+		// Copy the data
+		column.size = size;
+		column.values = Arrays.copyOf(values, size);
+		column.uncertainties = Arrays.copyOf(uncertainties, size);
+		column.positions = Arrays.copyOf(positions, 3 * size);
+		column.unitIndices = Arrays.copyOf(unitIndices, size);
+		column.units.addAll(units);
+
+		return column;
+	}
+}
@@ -15,10 +15,10 @@ package org.eclipse.ice.reactor;
 import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.analysistool.IDataProvider;
 
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.TreeMap;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 
 /**
  * <p>
@@ -26,18 +26,44 @@ import java.util.ArrayList;
  * point data, usually for material decompositions or powers, that can be used
  * to store and display changes in value overtime across different features.
  * </p>
+ * <p>
+ * The data of each feature at each time step is stored in an LWRDataColumn of
+ * primitive arrays instead of as individual LWRData, and the time steps are
+ * kept in a sorted array that is searched with a binary search. The LWRData
+ * returned by getDataAtCurrentTime() are created on demand, so changing them
+ * does not change the provider. Clients that read a large amount of data
+ * should use getDataColumn() to work on the arrays directly.
+ * </p>
  * 
  * @author Scott Forest Hull II
  */
 public class LWRDataProvider implements IDataProvider {
 	/**
 	 * <p>
-	 * A TreeMap implementation of IData and features. Keep in mind that there
-	 * can be multiple IData for the same feature.
+	 * The times of the time steps in ascending order. Only the first
+	 * numberOfTimes elements are used.
+	 * </p>
+	 * 
+	 */
+	private double[] times;
+
+	/**
+	 * <p>
+	 * The number of time steps.
 	 * </p>
 	 * 
 	 */
-	private TreeMap<Double, ArrayList<FeatureSet>> dataTree;
+	private int numberOfTimes;
+
+	/**
+	 * <p>
+	 * The columns of data of each feature at each time step, in the same order
+	 * as the times. Keep in mind that there can be multiple IData for the same
+	 * feature in each column.
+	 * </p>
+	 * 
+	 */
+	private ArrayList<LinkedHashMap<String, LWRDataColumn>> dataColumns;
 	/**
 	 * <p>
 	 * The current time step. Can not be less than 0, and must be strictly less
@@ -69,8 +95,10 @@ public class LWRDataProvider implements IDataProvider {
 	 * 
 	 */
 	public LWRDataProvider() {
-		// Setup TreeMap
-		this.dataTree = new TreeMap<Double, ArrayList<FeatureSet>>();
+		// Setup the time steps
+		this.times = new double[8];
+		this.numberOfTimes = 0;
+		this.dataColumns = new ArrayList<LinkedHashMap<String, LWRDataColumn>>();
 
 		// Setup Source
 		this.sourceInfo = "No Source Available";
@@ -100,8 +128,10 @@ public class LWRDataProvider implements IDataProvider {
 
 	/**
 	 * <p>
-	 * Adds a IData piece, keyed on the feature and timeStep, to the dataTree.
-	 * If the feature exists in the tree, it will append to the end of the list.
+	 * Adds a IData piece, keyed on the feature and timeStep, to the provider.
+	 * If the feature exists at the time, it will append to the end of its
+	 * column. The values of the data are copied, so changing the data after
+	 * it is added does not change the provider.
 	 * </p>
 	 * 
 	 * @param data
@@ -112,62 +142,172 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public void addData(LWRData data, double time) {
 
-		// Local Declarations
-		ArrayList<FeatureSet> featureSetList;
-		FeatureSet set;
-		boolean featureExistsFlag = false;
-
 		// Return if the passed parameters are incorrect
 		if (data == null || time < 0) {
 			return;
 		}
 
-		featureSetList = this.dataTree.get(time);
+		// Append to the column of the feature at the time step, creating them
+		// if needed
+		getOrCreateColumn(data.getFeature(), time).add(data);
 
-		// If the timestep does not exist in the list, add it to the list
-		if (featureSetList == null) {
-			featureSetList = new ArrayList<FeatureSet>();
-			set = new FeatureSet(data.getFeature());
-			set.addIData(data);
-			featureSetList.add(set);
-			this.dataTree.put(time, featureSetList);
+	}
+
+	/**
+	 * <p>
+	 * Adds a block of data for a feature at a time step. The data is appended
+	 * to any data that already exists for the feature at that time. This is
+	 * equivalent to, but much faster than, adding an LWRData for each value.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @param values
+	 *            <p>
+	 *            The values.
+	 *            </p>
+	 * @param uncertainties
+	 *            <p>
+	 *            The uncertainties. There must be one for each value.
+	 *            </p>
+	 * @param positions
+	 *            <p>
+	 *            The x, y and z coordinates of each value, three per value.
+	 *            </p>
+	 * @param unitIndices
+	 *            <p>
+	 *            The index of the units of each value in the table of units.
+	 *            </p>
+	 * @param units
+	 *            <p>
+	 *            The table of units.
+	 *            </p>
+	 */
+	public void addData(String feature, double time, double[] values,
+			double[] uncertainties, double[] positions, int[] unitIndices,
+			String[] units) {
 
+		// Return if the passed parameters are incorrect
+		if (feature == null || feature.trim().isEmpty() || time < 0
+				|| values == null || uncertainties == null
+				|| positions == null || unitIndices == null || units == null
+				|| uncertainties.length != values.length
+				|| positions.length != 3 * values.length
+				|| unitIndices.length != values.length) {
+			return;
 		}
 
-		// Otherwise, the timestep exists and needs to append to the current
-		// running list
-		else {
-
-			// Append to the current FeatureSet if it exists
-			for (int i = 0; i < featureSetList.size(); i++) {
-				// IF the featureset is the same name as the data, add it
-				if (featureSetList.get(i).getName().equals(data.getFeature())) {
-					featureSetList.get(i).addIData(data);
-					featureExistsFlag = true;
-					break;
-				}
-			}
+		// Append to the column of the feature at the time step, creating them
+		// if needed. The feature is trimmed like it is by LWRData.
+		getOrCreateColumn(feature.trim(), time).add(values, uncertainties,
+				positions, unitIndices, units);
 
-			// If the featureSet does not exist, then add it
-			if (!featureExistsFlag) {
-				// If it does not, add it
-				set = new FeatureSet(data.getFeature());
-				set.addIData(data);
+	}
 
-				// Add it to the list of sets
-				featureSetList.add(set);
+	/**
+	 * <p>
+	 * Returns the column of a feature at a time, creating the time step and
+	 * the column if they do not exist.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @return <p>
+	 *         The column.
+	 *         </p>
+	 */
+	private LWRDataColumn getOrCreateColumn(String feature, double time) {
+
+		// Local Declarations
+		int index = Arrays.binarySearch(times, 0, numberOfTimes, time);
+		LinkedHashMap<String, LWRDataColumn> columns;
+		LWRDataColumn column;
+
+		// If the timestep does not exist, insert it in order. Times are
+		// usually added in order, so this is normally an append.
+		if (index < 0) {
+			index = -(index + 1);
+			if (numberOfTimes == times.length) {
+				times = Arrays.copyOf(times, 2 * times.length);
 			}
+			System.arraycopy(times, index, times, index + 1, numberOfTimes
+					- index);
+			times[index] = time;
+			numberOfTimes++;
+			dataColumns.add(index, new LinkedHashMap<String, LWRDataColumn>());
+		}
 
+		// Get the column, adding it if the feature is new at this time
+		columns = dataColumns.get(index);
+		column = columns.get(feature);
+		if (column == null) {
+			column = new LWRDataColumn(feature);
+			columns.put(feature, column);
 		}
 
+		return column;
 	}
 
 	/**
 	 * <p>
-	 * Removes the feature and all associated IData from the dataTree at all
-	 * time steps. If a user wishes to remove a single piece of IData from the
-	 * tree, then use the appropriate getData operation on that feature and
-	 * manipulate the data that way.
+	 * Returns the columns of data at a time or null if the time step does not
+	 * exist.
+	 * </p>
+	 * 
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @return <p>
+	 *         The columns keyed by feature.
+	 *         </p>
+	 */
+	private LinkedHashMap<String, LWRDataColumn> getColumns(double time) {
+		int index = Arrays.binarySearch(times, 0, numberOfTimes, time);
+		return (index >= 0) ? dataColumns.get(index) : null;
+	}
+
+	/**
+	 * <p>
+	 * Returns the column of data of a feature at a time or null if there is no
+	 * data for the feature at that time. The arrays of the column are not
+	 * copied and must not be modified.
+	 * </p>
+	 * 
+	 * @param feature
+	 *            <p>
+	 *            The feature.
+	 *            </p>
+	 * @param time
+	 *            <p>
+	 *            The time.
+	 *            </p>
+	 * @return <p>
+	 *         The column.
+	 *         </p>
+	 */
+	public LWRDataColumn getDataColumn(String feature, double time) {
+		LinkedHashMap<String, LWRDataColumn> columns = getColumns(time);
+		return (columns != null && feature != null) ? columns.get(feature)
+				: null;
+	}
+
+	/**
+	 * <p>
+	 * Removes the feature and all associated IData from the provider at all
+	 * time steps.
 	 * </p>
 	 * 
 	 * @param feature
@@ -181,22 +321,9 @@ public class LWRDataProvider implements IDataProvider {
 		if (feature == null) {
 			return;
 		}
-		// Get the iterator
-		Iterator<Double> iter;
-		iter = this.dataTree.keySet().iterator();
-
 		// Iterate over the list of all timesteps and remove all the features
-		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
-
-			// If the FeatureSet with the feature name exists, remove it
-			for (int i = 0; i < list.size(); i++) {
-				if (list.get(i).getName().equals(feature)) {
-					list.remove(i);
-					break; // Break from for loop, otherwise really bad things
-							// will happen
-				}
-			}
+		for (LinkedHashMap<String, LWRDataColumn> columns : dataColumns) {
+			columns.remove(feature);
 		}
 
 	}
@@ -213,25 +340,25 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public void copy(LWRDataProvider otherObject) {
 
-		// Local Declarations
-		Iterator<Double> iter;
-
 		// If null, return
 		if (otherObject == null) {
 			return;
 		}
-		// Copy dataTree
-		this.dataTree.clear();
-
-		// Setup the iterator
-		iter = otherObject.dataTree.keySet().iterator();
-
-		// Currently, this will only shallow copy the ArrayList on value. IData
-		// will have to implement copy and clone routines for it to be a deep
-		// copy
-		while (iter.hasNext()) {
-			Double key = iter.next();
-			this.dataTree.put(key, otherObject.dataTree.get(key));
+
+		// Copy the times
+		this.times = Arrays.copyOf(otherObject.times,
+				otherObject.times.length);
+		this.numberOfTimes = otherObject.numberOfTimes;
+
+		// Deep copy the columns
+		this.dataColumns = new ArrayList<LinkedHashMap<String, LWRDataColumn>>(
+				otherObject.numberOfTimes);
+		for (LinkedHashMap<String, LWRDataColumn> otherColumns : otherObject.dataColumns) {
+			LinkedHashMap<String, LWRDataColumn> columns = new LinkedHashMap<String, LWRDataColumn>();
+			for (LWRDataColumn column : otherColumns.values()) {
+				columns.put(column.getFeature(), (LWRDataColumn) column.clone());
+			}
+			this.dataColumns.add(columns);
 		}
 
 		// Copy Time info
@@ -310,7 +437,12 @@ public class LWRDataProvider implements IDataProvider {
 			component = (LWRDataProvider) otherObject;
 
 			// Check values
-			retVal = (this.dataTree.equals(component.dataTree)
+			retVal = (this.numberOfTimes == component.numberOfTimes
+					&& Arrays.equals(
+							Arrays.copyOf(this.times, this.numberOfTimes),
+							Arrays.copyOf(component.times,
+									component.numberOfTimes))
+					&& this.dataColumns.equals(component.dataColumns)
 					&& this.time == component.time
 					&& this.sourceInfo.equals(component.sourceInfo) && this.timeUnit
 					.equals(component.timeUnit));
@@ -335,7 +467,9 @@ public class LWRDataProvider implements IDataProvider {
 		int hash = 31;
 
 		// Calculate IDataProvider info
-		hash += 31 * this.dataTree.hashCode();
+		hash += 31 * Arrays.hashCode(Arrays.copyOf(this.times,
+				this.numberOfTimes));
+		hash += 31 * this.dataColumns.hashCode();
 		hash += 31 * this.time;
 		hash += 31 * this.sourceInfo.hashCode();
 		hash += 31 * this.timeUnit.hashCode();
@@ -353,32 +487,15 @@ public class LWRDataProvider implements IDataProvider {
 	public ArrayList<String> getFeatureList() {
 
 		// Local Declarations
-		ArrayList<String> featureList = new ArrayList<String>();
-		HashMap<String, Integer> map = new HashMap<String, Integer>();
-
-		// Get the iterator
-		Iterator<Double> iter;
-		iter = this.dataTree.keySet().iterator();
+		LinkedHashSet<String> features = new LinkedHashSet<String>();
 
 		// Iterate over the list of all timesteps get one unique feature
-		while (iter.hasNext()) {
-			ArrayList<FeatureSet> list = this.dataTree.get(iter.next());
-
-			// If the map does not have the feature name, add it
-			for (int i = 0; i < list.size(); i++) {
-				if (map.get(list.get(i).getName()) == null) {
-					map.put(list.get(i).getName(), 1);
-				}
-			}
-		}
-
-		// Append to featureList
-		for (String name : map.keySet()) {
-			featureList.add(name);
+		for (LinkedHashMap<String, LWRDataColumn> columns : dataColumns) {
+			features.addAll(columns.keySet());
 		}
 
 		// Return the featureList
-		return featureList;
+		return new ArrayList<String>(features);
 
 	}
 
@@ -389,7 +506,7 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public int getNumberOfTimeSteps() {
 
-		return this.dataTree.size();
+		return this.numberOfTimes;
 	}
 
 	/**
@@ -415,24 +532,33 @@ public class LWRDataProvider implements IDataProvider {
 		if (feature == null) {
 			return new ArrayList<IData>();
 		}
-		// Locate the list
-		ArrayList<FeatureSet> list = this.dataTree.get(this.time);
-
-		if (list != null) {
-			// If the list exists, return the iData
-			for (int i = 0; i < list.size(); i++) {
-				if (list.get(i).getName().equals(feature)) {
-
-					// Return the reference to the list of iData
-					return list.get(i).getIData();
-				}
-			}
+		// Locate the column and create the iData
+		LWRDataColumn column = getDataColumn(feature, this.time);
+		if (column != null) {
+			return column.getData();
 		}
 
 		return new ArrayList<IData>();
 
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see IDataProvider#getNumberOfDataAtCurrentTime(String feature)
+	 */
+	public int getNumberOfDataAtCurrentTime(String feature) {
+
+		// If feature is null, there is no data
+		if (feature == null) {
+			return 0;
+		}
+		// Locate the column, which already knows its size
+		LWRDataColumn column = getDataColumn(feature, this.time);
+
+		return (column != null) ? column.size() : 0;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -451,23 +577,16 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public ArrayList<String> getFeaturesAtCurrentTime() {
 
-		// Local Declarations
-		ArrayList<String> features = new ArrayList<String>();
-		ArrayList<FeatureSet> list = null;
-
-		// Get the list at the time
-		list = this.dataTree.get(this.time);
+		// Get the columns at the time
+		LinkedHashMap<String, LWRDataColumn> columns = getColumns(this.time);
 
 		// If the time does not exist, return empty
-		if (list == null) {
-			return features;
-		}
-		// Get the features
-		for (int i = 0; i < list.size(); i++) {
-			features.add(list.get(i).getName());
+		if (columns == null) {
+			return new ArrayList<String>();
 		}
 
-		return features;
+		// Get the features
+		return new ArrayList<String>(columns.keySet());
 
 	}
 
@@ -479,18 +598,15 @@ public class LWRDataProvider implements IDataProvider {
 	public ArrayList<Double> getTimes() {
 
 		// Local Declarations
-		ArrayList<Double> times = new ArrayList<Double>();
-
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
+		ArrayList<Double> timeList = new ArrayList<Double>(numberOfTimes);
 
 		// Add the times to the arraylist
-		while (iter.hasNext()) {
-			times.add(iter.next());
+		for (int i = 0; i < numberOfTimes; i++) {
+			timeList.add(times[i]);
 		}
 
 		// Return the list of times
-		return times;
+		return timeList;
 
 	}
 
@@ -501,23 +617,11 @@ public class LWRDataProvider implements IDataProvider {
 	 */
 	public int getTimeStep(double time) {
 
-		// Get the iterator
-		Iterator<Double> iter = this.dataTree.keySet().iterator();
-		int counter = 0;
-
-		// Iterate the list
-		while (iter.hasNext()) {
-
-			// If the time is there, return the index
-			if (iter.next().equals(time)) {
-				return counter;
-			}
-			counter++;
-
-		}
+		// Search the sorted times
+		int index = Arrays.binarySearch(times, 0, numberOfTimes, time);
 
-		// Time not found!
-		return -1;
+		// Return -1 if the time is not found!
+		return (index >= 0) ? index : -1;
 
 	}
 
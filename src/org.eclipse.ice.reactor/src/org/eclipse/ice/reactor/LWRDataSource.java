@@ -0,0 +1,454 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor;
+
+import java.lang.ref.WeakReference;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ncsa.hdf.object.HObject;
+import ncsa.hdf.object.h5.H5File;
+import ncsa.hdf.object.h5.H5Group;
+
+import org.eclipse.ice.io.hdf.HdfFileFactory;
+
+/**
+ * <p>
+ * The LWRDataSource class reads the data at the locations of LWRGridManagers
+ * from an HDF5 file when it is first needed. LWRComponentReader.readLazily()
+ * only reads the structure of a reactor and gives each of its LWRGridManagers
+ * this source, which then reads the LWRDataProvider of a location the first
+ * time that it is requested from the manager.
+ * </p>
+ * <p>
+ * The providers that are read are kept in a least recently used cache. When
+ * the estimated size of the cached providers is more than the size of the
+ * cache, the least recently used providers are dropped from the cache. A
+ * dropped provider that is still referenced elsewhere is handed out again if it
+ * is requested later, so that changes to it, like its current time, are kept.
+ * Only providers that are no longer in use are read again as new objects.
+ * </p>
+ * <p>
+ * The file is opened on the first read and stays open until
+ * {@link #close()} is called. It is opened again if data is requested after
+ * it is closed. The HDF5 library is not thread safe, so the operations of
+ * this class are synchronized.
+ * </p>
+ * 
+ * @author Jay Jay Billings
+ */
+public class LWRDataSource {
+
+	/**
+	 * <p>
+	 * The default size of the cache in bytes.
+	 * </p>
+	 * 
+	 */
+	public static final long DEFAULT_CACHE_SIZE = 256L * 1024L * 1024L;
+
+	/**
+	 * <p>
+	 * The estimated size in bytes of each datum in a column of data: a value,
+	 * an uncertainty, three coordinates and the index of its units.
+	 * </p>
+	 * 
+	 */
+	private static final long DATUM_SIZE = 5 * 8 + 4;
+
+	/**
+	 * <p>
+	 * The estimated size in bytes of a column of data or of a provider without
+	 * any data.
+	 * </p>
+	 * 
+	 */
+	private static final long COLUMN_SIZE = 128;
+
+	/**
+	 * <p>
+	 * The URI of the file.
+	 * </p>
+	 * 
+	 */
+	private final URI uri;
+
+	/**
+	 * <p>
+	 * The file or null if it is not open.
+	 * </p>
+	 * 
+	 */
+	private H5File h5File;
+
+	/**
+	 * <p>
+	 * The cached providers, keyed on the full name of the group of their
+	 * manager and their row and column, in order of access.
+	 * </p>
+	 * 
+	 */
+	private final LinkedHashMap<String, LWRDataProvider> providers;
+
+	/**
+	 * <p>
+	 * The estimated sizes of the cached providers.
+	 * </p>
+	 * 
+	 */
+	private final LinkedHashMap<String, Long> providerSizes;
+
+	/**
+	 * <p>
+	 * Weak references to the providers that were dropped from the cache,
+	 * keyed like the cached providers. They are handed out again while they
+	 * are still in use.
+	 * </p>
+	 * 
+	 */
+	private final HashMap<String, WeakReference<LWRDataProvider>> droppedProviders;
+
+	/**
+	 * <p>
+	 * The size of the cache in bytes.
+	 * </p>
+	 * 
+	 */
+	private long cacheSize;
+
+	/**
+	 * <p>
+	 * The estimated size of the cached providers in bytes.
+	 * </p>
+	 * 
+	 */
+	private long memoryUsage;
+
+	/**
+	 * <p>
+	 * The Constructor.
+	 * </p>
+	 * 
+	 * @param uri
+	 *            <p>
+	 *            The URI of the file.
+	 *            </p>
+	 * @param cacheSize
+	 *            <p>
+	 *            The size of the cache in bytes.
+	 *            </p>
+	 */
+	public LWRDataSource(URI uri, long cacheSize) {
+
+		this.uri = uri;
+		this.cacheSize = Math.max(0, cacheSize);
+		this.providers = new LinkedHashMap<String, LWRDataProvider>(16, 0.75f,
+				true);
+		this.providerSizes = new LinkedHashMap<String, Long>();
+		this.droppedProviders = new HashMap<String, WeakReference<LWRDataProvider>>();
+		this.memoryUsage = 0;
+
+	}
+
+	/**
+	 * <p>
+	 * Returns the URI of the file.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The URI.
+	 *         </p>
+	 */
+	public URI getURI() {
+		return this.uri;
+	}
+
+	/**
+	 * <p>
+	 * Returns the size of the cache in bytes.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The size of the cache.
+	 *         </p>
+	 */
+	public synchronized long getCacheSize() {
+		return this.cacheSize;
+	}
+
+	/**
+	 * <p>
+	 * Sets the size of the cache in bytes. Providers are dropped from the
+	 * cache if they no longer fit.
+	 * </p>
+	 * 
+	 * @param cacheSize
+	 *            <p>
+	 *            The size of the cache. It must not be negative.
+	 *            </p>
+	 */
+	public synchronized void setCacheSize(long cacheSize) {
+
+		if (cacheSize >= 0) {
+			this.cacheSize = cacheSize;
+			this.evict(null);
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Returns the estimated size in bytes of the providers in the cache.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The estimated size of the cached providers.
+	 *         </p>
+	 */
+	public synchronized long getMemoryUsage() {
+		return this.memoryUsage;
+	}
+
+	/**
+	 * <p>
+	 * Returns the data provider of a location of a manager, reading it from
+	 * the file if it is not in the cache. The same provider is returned for as
+	 * long as it is in the cache or still in use elsewhere.
+	 * </p>
+	 * 
+	 * @param manager
+	 *            <p>
+	 *            The manager.
+	 *            </p>
+	 * @param groupName
+	 *            <p>
+	 *            The full name of the group of the manager in the file.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The location.
+	 *            </p>
+	 * @return <p>
+	 *         The provider or null if it could not be read.
+	 *         </p>
+	 */
+	public synchronized LWRDataProvider getDataProvider(
+			LWRGridManager manager, String groupName, GridLocation location) {
+
+		// Local Declarations
+		String key;
+		LWRDataProvider provider;
+		WeakReference<LWRDataProvider> reference;
+		long size;
+
+		if (manager == null || groupName == null || location == null) {
+			return null;
+		}
+		// Return the cached provider if there is one
+		key = groupName + "/" + location.getRow() + " " + location.getColumn();
+		provider = this.providers.get(key);
+		if (provider != null) {
+			return provider;
+		}
+		// Reuse a dropped provider that is still in use, or read it, and make
+		// room for it in the cache
+		reference = this.droppedProviders.remove(key);
+		provider = (reference != null ? reference.get() : null);
+		if (provider == null) {
+			provider = this.readDataProvider(manager, groupName, location,
+					-Double.MAX_VALUE, Double.MAX_VALUE);
+		}
+		if (provider != null) {
+			size = estimateSize(provider);
+			this.providers.put(key, provider);
+			this.providerSizes.put(key, size);
+			this.memoryUsage += size;
+			this.evict(key);
+		}
+
+		return provider;
+	}
+
+	/**
+	 * <p>
+	 * Reads the data at a location of a manager in a window of time from the
+	 * file. The provider is not cached, so this can be used to look at a few
+	 * time steps of a location without reading all of them.
+	 * </p>
+	 * 
+	 * @param manager
+	 *            <p>
+	 *            The manager.
+	 *            </p>
+	 * @param groupName
+	 *            <p>
+	 *            The full name of the group of the manager in the file.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The location.
+	 *            </p>
+	 * @param startTime
+	 *            <p>
+	 *            The earliest time to read.
+	 *            </p>
+	 * @param endTime
+	 *            <p>
+	 *            The latest time to read.
+	 *            </p>
+	 * @return <p>
+	 *         A new provider or null if it could not be read.
+	 *         </p>
+	 */
+	public synchronized LWRDataProvider readDataProvider(
+			LWRGridManager manager, String groupName, GridLocation location,
+			double startTime, double endTime) {
+
+		// Local Declarations
+		HObject object = null;
+
+		if (manager == null || groupName == null || location == null) {
+			return null;
+		}
+		// Open the file if needed
+		if (this.h5File == null) {
+			this.h5File = HdfFileFactory.openH5File(this.uri);
+			if (this.h5File == null) {
+				System.err.println("LWRDataSource Message: Could not open "
+						+ this.uri + ".");
+				return null;
+			}
+		}
+		// Find the group of the manager and read the location from it
+		try {
+			object = this.h5File.get(groupName);
+		} catch (Exception e) {
+			e.printStackTrace();
+		}
+		if (!(object instanceof H5Group)) {
+			return null;
+		}
+
+		return manager.readDataProvider((H5Group) object, location, startTime,
+				endTime);
+	}
+
+	/**
+	 * <p>
+	 * Closes the file and empties the cache. The file is opened again if more
+	 * data is requested. Providers that are still in use are handed out again
+	 * like any other dropped provider.
+	 * </p>
+	 * 
+	 */
+	public synchronized void close() {
+
+		if (this.h5File != null) {
+			HdfFileFactory.closeH5File(this.h5File);
+			this.h5File = null;
+		}
+		for (Map.Entry<String, LWRDataProvider> entry : this.providers
+				.entrySet()) {
+			this.droppedProviders.put(entry.getKey(),
+					new WeakReference<LWRDataProvider>(entry.getValue()));
+		}
+		this.providers.clear();
+		this.providerSizes.clear();
+		this.memoryUsage = 0;
+		this.purgeDroppedProviders();
+
+	}
+
+	/**
+	 * Drops the least recently used providers from the cache until the cached
+	 * providers fit in it. The provider that was just read is always kept, even
+	 * if it is larger than the cache, so that it is not read again by the next
+	 * request. Weak references to the dropped providers are kept so that they
+	 * can be handed out again while they are in use.
+	 * 
+	 * @param keep
+	 *            The key of the provider that should be kept or null.
+	 */
+	private void evict(String keep) {
+
+		// Local Declarations
+		Iterator<Map.Entry<String, LWRDataProvider>> iterator = this.providers
+				.entrySet().iterator();
+		Map.Entry<String, LWRDataProvider> entry;
+		String key;
+
+		// The map is in order of access, so the eldest providers come first
+		while (this.memoryUsage > this.cacheSize && iterator.hasNext()) {
+			entry = iterator.next();
+			key = entry.getKey();
+			if (!key.equals(keep)) {
+				this.droppedProviders.put(key,
+						new WeakReference<LWRDataProvider>(entry.getValue()));
+				iterator.remove();
+				this.memoryUsage -= this.providerSizes.remove(key);
+			}
+		}
+		this.purgeDroppedProviders();
+
+		return;
+	}
+
+	/**
+	 * Removes the references to dropped providers that are no longer in use.
+	 */
+	private void purgeDroppedProviders() {
+
+		// Local Declarations
+		Iterator<WeakReference<LWRDataProvider>> iterator = this.droppedProviders
+				.values().iterator();
+
+		while (iterator.hasNext()) {
+			if (iterator.next().get() == null) {
+				iterator.remove();
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * Estimates the size of a provider in bytes.
+	 * 
+	 * @param provider
+	 *            The provider.
+	 * @return The estimated size.
+	 */
+	private static long estimateSize(LWRDataProvider provider) {
+
+		// Local Declarations
+		long size = COLUMN_SIZE;
+		ArrayList<String> features = provider.getFeatureList();
+		LWRDataColumn column;
+
+		for (double time : provider.getTimes()) {
+			for (String feature : features) {
+				column = provider.getDataColumn(feature, time);
+				if (column != null) {
+					size += COLUMN_SIZE + DATUM_SIZE * column.size();
+				}
+			}
+		}
+
+		return size;
+	}
+
+}
@@ -0,0 +1,895 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import ncsa.hdf.object.Dataset;
+import ncsa.hdf.object.Datatype;
+import ncsa.hdf.object.HObject;
+import ncsa.hdf.object.h5.H5Datatype;
+import ncsa.hdf.object.h5.H5File;
+import ncsa.hdf.object.h5.H5Group;
+
+import org.eclipse.ice.io.hdf.HdfReaderFactory;
+import org.eclipse.ice.io.hdf.HdfWriterFactory;
+
+/**
+ * <p>
+ * This class reads and writes the columnar HDF5 layout of the data in an
+ * LWRGridManager. Instead of a group for every location and time step, each
+ * feature is stored as two chunked, compressed datasets that cover every
+ * location and time step of the grid:
+ * </p>
+ * <ul>
+ * <li>"Feature dataTable" is a location x time x point x 5 table of doubles
+ * that holds the value, uncertainty and x, y and z position of each point.</li>
+ * <li>"Feature headTable" is a location x time x point table of integers that
+ * holds the index of the units of each point, or -1 where there is no point.</li>
+ * </ul>
+ * <p>
+ * The "Locations" dataset holds the row, column and name index of each
+ * location and the "Times" dataset holds the times of all of the time steps.
+ * The names and units are stored in the same tables as in the original
+ * layout. Each location is chunked separately, so a single location or a
+ * window of time steps can be read from the file with a hyperslab selection
+ * without reading the rest of the grid.
+ * </p>
+ * <p>
+ * The HDF5 library is not thread safe, so all of the reads and writes are
+ * made by the calling thread. The data of the locations is packed and
+ * unpacked on a shared pool while the file is read or written.
+ * </p>
+ * 
+ * @author Jay Jay Billings
+ */
+final class LWRGridDataTable {
+
+	/**
+	 * <p>
+	 * The version of the layout, which is written to the "Layout Version"
+	 * attribute of the Positions group. Groups without the attribute use the
+	 * original layout with a group for every location and time step.
+	 * </p>
+	 * 
+	 */
+	static final int LAYOUT_VERSION = 2;
+
+	/**
+	 * <p>
+	 * The name of the attribute that holds the version of the layout.
+	 * </p>
+	 * 
+	 */
+	static final String LAYOUT_ATTRIBUTE = "Layout Version";
+
+	/**
+	 * <p>
+	 * The level of gzip compression of the feature tables.
+	 * </p>
+	 * 
+	 */
+	private static final int GZIP_LEVEL = 6;
+
+	/**
+	 * <p>
+	 * The largest number of time steps in a chunk of a feature table.
+	 * </p>
+	 * 
+	 */
+	private static final int TIMES_PER_CHUNK = 32;
+
+	/**
+	 * <p>
+	 * The pool that packs and unpacks the data of the locations.
+	 * </p>
+	 * 
+	 */
+	private static final ForkJoinPool tablePool = new ForkJoinPool();
+
+	/**
+	 * <p>
+	 * The suffix of the datasets that hold the values of a feature.
+	 * </p>
+	 * 
+	 */
+	private static final String dataTableString = " dataTable";
+
+	/**
+	 * <p>
+	 * The suffix of the datasets that hold the units of a feature.
+	 * </p>
+	 * 
+	 */
+	private static final String headTableString = " headTable";
+
+	/**
+	 * <p>
+	 * The name of the dataset that holds the locations.
+	 * </p>
+	 * 
+	 */
+	private static final String locationsName = "Locations";
+
+	/**
+	 * <p>
+	 * The name of the dataset that holds the times.
+	 * </p>
+	 * 
+	 */
+	private static final String timesName = "Times";
+
+	/**
+	 * <p>
+	 * The name of the dataset that holds the names of the locations.
+	 * </p>
+	 * 
+	 */
+	private static final String namesName = "Simple Position Names Table";
+
+	/**
+	 * <p>
+	 * The name of the dataset that holds the units.
+	 * </p>
+	 * 
+	 */
+	private static final String unitsName = "Units Table";
+
+	/**
+	 * <p>
+	 * The row, column and name index of each location, three per location.
+	 * </p>
+	 * 
+	 */
+	private int[] locations;
+
+	/**
+	 * <p>
+	 * The names of the locations.
+	 * </p>
+	 * 
+	 */
+	private String[] names;
+
+	/**
+	 * <p>
+	 * The units of the data.
+	 * </p>
+	 * 
+	 */
+	private String[] units;
+
+	/**
+	 * <p>
+	 * The times of the time steps in ascending order.
+	 * </p>
+	 * 
+	 */
+	private double[] times;
+
+	/**
+	 * <p>
+	 * The features in the table.
+	 * </p>
+	 * 
+	 */
+	private final ArrayList<String> features;
+
+	/**
+	 * <p>
+	 * The datasets that hold the values of each feature.
+	 * </p>
+	 * 
+	 */
+	private final ArrayList<Dataset> dataTables;
+
+	/**
+	 * <p>
+	 * The datasets that hold the units of each feature.
+	 * </p>
+	 * 
+	 */
+	private final ArrayList<Dataset> headTables;
+
+	/**
+	 * <p>
+	 * The number of points at each location and time of each feature.
+	 * </p>
+	 * 
+	 */
+	private final ArrayList<Integer> points;
+
+	/**
+	 * <p>
+	 * The constructor. Use {@link #open(H5Group)} to read a table from a file.
+	 * </p>
+	 * 
+	 */
+	private LWRGridDataTable() {
+		features = new ArrayList<String>();
+		dataTables = new ArrayList<Dataset>();
+		headTables = new ArrayList<Dataset>();
+		points = new ArrayList<Integer>();
+	}
+
+	/**
+	 * <p>
+	 * This operation returns true if the Positions group of an LWRGridManager
+	 * was written in the columnar layout.
+	 * </p>
+	 * 
+	 * @param h5Group
+	 *            <p>
+	 *            The Positions group.
+	 *            </p>
+	 * @return <p>
+	 *         True if the group holds a columnar table, false if it uses the
+	 *         original layout.
+	 *         </p>
+	 */
+	static boolean isColumnar(H5Group h5Group) {
+		Integer version = HdfReaderFactory.readIntegerAttribute(h5Group,
+				LAYOUT_ATTRIBUTE);
+		return version != null && version.intValue() == LAYOUT_VERSION;
+	}
+
+	/**
+	 * <p>
+	 * This operation opens the table in the Positions group of an
+	 * LWRGridManager. It reads the locations, names, units and times, but not
+	 * the data of the features.
+	 * </p>
+	 * 
+	 * @param h5Group
+	 *            <p>
+	 *            The Positions group.
+	 *            </p>
+	 * @return <p>
+	 *         The table or null if it could not be read.
+	 *         </p>
+	 */
+	static LWRGridDataTable open(H5Group h5Group) {
+
+		// Local Declarations
+		LWRGridDataTable table = new LWRGridDataTable();
+		Dataset dataset;
+		String name, feature;
+
+		try {
+			// Read the locations and names, which are always written
+			dataset = HdfReaderFactory.getDataset(h5Group, locationsName);
+			if (dataset == null) {
+				return null;
+			}
+			dataset.init();
+			table.locations = (int[]) dataset.getData();
+			dataset = HdfReaderFactory.getDataset(h5Group, namesName);
+			table.names = (dataset != null ? (String[]) dataset.getData()
+					: new String[0]);
+
+			// Read the units and times, which are missing if there is no data
+			dataset = HdfReaderFactory.getDataset(h5Group, unitsName);
+			table.units = (dataset != null ? (String[]) dataset.getData()
+					: new String[0]);
+			dataset = HdfReaderFactory.getDataset(h5Group, timesName);
+			if (dataset != null) {
+				dataset.init();
+				table.times = (double[]) dataset.getData();
+			} else {
+				table.times = new double[0];
+			}
+
+			// Find the feature tables. Each data table is followed by its head
+			// table, but look them up by name to be safe.
+			for (HObject member : HdfReaderFactory.getChildH5Members(h5Group)) {
+				name = member.getName();
+				if (member instanceof Dataset
+						&& name.endsWith(dataTableString)) {
+					feature = name.substring(0, name.length()
+							- dataTableString.length());
+					dataset = (Dataset) member;
+					dataset.init();
+					table.features.add(feature);
+					table.dataTables.add(dataset);
+					table.points.add((int) dataset.getDims()[2]);
+					dataset = HdfReaderFactory.getDataset(h5Group, feature
+							+ headTableString);
+					if (dataset == null) {
+						return null;
+					}
+					dataset.init();
+					table.headTables.add(dataset);
+				}
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			return null;
+		}
+
+		return table;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the number of locations in the table.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The number of locations.
+	 *         </p>
+	 */
+	int getNumberOfLocations() {
+		return locations.length / 3;
+	}
+
+	/**
+	 * <p>
+	 * This operation creates a new GridLocation, without any data, for a
+	 * location in the table.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the location in the table.
+	 *            </p>
+	 * @return <p>
+	 *         The location.
+	 *         </p>
+	 */
+	GridLocation createLocation(int index) {
+		return new GridLocation(locations[3 * index],
+				locations[3 * index + 1]);
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the name of the component at a location in the
+	 * table.
+	 * </p>
+	 * 
+	 * @param index
+	 *            <p>
+	 *            The index of the location in the table.
+	 *            </p>
+	 * @return <p>
+	 *         The name.
+	 *         </p>
+	 */
+	String getName(int index) {
+		return names[locations[3 * index + 2]];
+	}
+
+	/**
+	 * <p>
+	 * This operation finds the index of the location at a row and column. The
+	 * locations are written in order, so this is a binary search.
+	 * </p>
+	 * 
+	 * @param row
+	 *            <p>
+	 *            The row.
+	 *            </p>
+	 * @param column
+	 *            <p>
+	 *            The column.
+	 *            </p>
+	 * @return <p>
+	 *         The index of the location or -1 if it is not in the table.
+	 *         </p>
+	 */
+	int findLocation(int row, int column) {
+
+		// Local Declarations
+		int low = 0, high = getNumberOfLocations() - 1, middle, difference;
+
+		while (low <= high) {
+			middle = (low + high) >>> 1;
+			difference = locations[3 * middle] - row;
+			if (difference == 0) {
+				difference = locations[3 * middle + 1] - column;
+			}
+			if (difference < 0) {
+				low = middle + 1;
+			} else if (difference > 0) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+
+		return -1;
+	}
+
+	/**
+	 * <p>
+	 * This operation reads the data of some of the locations in a window of
+	 * time into their providers. Only the time steps from startTime to
+	 * endTime, inclusive, are read from the file.
+	 * </p>
+	 * 
+	 * @param indices
+	 *            <p>
+	 *            The indices of the locations in the table.
+	 *            </p>
+	 * @param providers
+	 *            <p>
+	 *            The providers of the locations, in the same order as the
+	 *            indices.
+	 *            </p>
+	 * @param startTime
+	 *            <p>
+	 *            The earliest time to read.
+	 *            </p>
+	 * @param endTime
+	 *            <p>
+	 *            The latest time to read.
+	 *            </p>
+	 * @return <p>
+	 *         True if the data was read, false otherwise.
+	 *         </p>
+	 */
+	boolean read(int[] indices, final LWRDataProvider[] providers,
+			double startTime, double endTime) {
+
+		// Local Declarations
+		int first, last, nFeatures = features.size();
+		ArrayList<Future<?>> unpackers = new ArrayList<Future<?>>();
+
+		// Find the time steps in the window
+		first = Arrays.binarySearch(times, startTime);
+		first = (first < 0 ? -(first + 1) : first);
+		last = Arrays.binarySearch(times, endTime);
+		last = (last < 0 ? -(last + 1) : last + 1);
+		if (first >= last || nFeatures == 0) {
+			return true;
+		}
+		final int firstStep = first, nSteps = last - first;
+
+		try {
+			for (int i = 0; i < indices.length; i++) {
+				// Read the slabs of the location from each feature table
+				final double[][] data = new double[nFeatures][];
+				final int[][] heads = new int[nFeatures][];
+				for (int j = 0; j < nFeatures; j++) {
+					select(dataTables.get(j), indices[i], firstStep, nSteps);
+					data[j] = (double[]) dataTables.get(j).read();
+					select(headTables.get(j), indices[i], firstStep, nSteps);
+					heads[j] = (int[]) headTables.get(j).read();
+				}
+
+				// Unpack them on the pool while the next location is read
+				final LWRDataProvider provider = providers[i];
+				unpackers.add(tablePool.submit(new Runnable() {
+					@Override
+					public void run() {
+						unpack(provider, data, heads, firstStep, nSteps);
+					}
+				}));
+			}
+
+			// Wait for all of the locations to be unpacked
+			for (Future<?> unpacker : unpackers) {
+				unpacker.get();
+			}
+		} catch (Exception e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation adds the slabs of a location to its provider.
+	 * </p>
+	 * 
+	 * @param provider
+	 *            <p>
+	 *            The provider of the location.
+	 *            </p>
+	 * @param data
+	 *            <p>
+	 *            The slab of values of each feature.
+	 *            </p>
+	 * @param heads
+	 *            <p>
+	 *            The slab of unit indices of each feature.
+	 *            </p>
+	 * @param firstStep
+	 *            <p>
+	 *            The index of the first time step in the slabs.
+	 *            </p>
+	 * @param nSteps
+	 *            <p>
+	 *            The number of time steps in the slabs.
+	 *            </p>
+	 */
+	private void unpack(LWRDataProvider provider, double[][] data,
+			int[][] heads, int firstStep, int nSteps) {
+
+		// Local Declarations
+		int nPoints, count, offset;
+		double[] values, uncertainties, positions;
+		int[] unitIndices;
+
+		for (int t = 0; t < nSteps; t++) {
+			for (int j = 0; j < features.size(); j++) {
+				// The points are packed at the start of each time step
+				nPoints = points.get(j);
+				offset = t * nPoints;
+				count = 0;
+				while (count < nPoints && heads[j][offset + count] >= 0) {
+					count++;
+				}
+				if (count == 0) {
+					continue;
+				}
+
+				// Split the rows into columns
+				values = new double[count];
+				uncertainties = new double[count];
+				positions = new double[3 * count];
+				unitIndices = Arrays.copyOfRange(heads[j], offset, offset
+						+ count);
+				for (int k = 0; k < count; k++) {
+					int row = 5 * (offset + k);
+					values[k] = data[j][row];
+					uncertainties[k] = data[j][row + 1];
+					positions[3 * k] = data[j][row + 2];
+					positions[3 * k + 1] = data[j][row + 3];
+					positions[3 * k + 2] = data[j][row + 4];
+				}
+				provider.addData(features.get(j), times[firstStep + t],
+						values, uncertainties, positions, unitIndices, units);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation selects the slab of a location and a range of time steps
+	 * in a feature table.
+	 * </p>
+	 * 
+	 * @param dataset
+	 *            <p>
+	 *            The data or head table of a feature.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The index of the location.
+	 *            </p>
+	 * @param firstStep
+	 *            <p>
+	 *            The index of the first time step.
+	 *            </p>
+	 * @param nSteps
+	 *            <p>
+	 *            The number of time steps.
+	 *            </p>
+	 */
+	private static void select(Dataset dataset, int location, int firstStep,
+			int nSteps) {
+
+		// Local Declarations
+		long[] dims = dataset.getDims();
+		long[] start = dataset.getStartDims();
+		long[] selected = dataset.getSelectedDims();
+		long[] stride = dataset.getStride();
+
+		// The selection arrays belong to the dataset, so change them in place
+		Arrays.fill(start, 0);
+		Arrays.fill(stride, 1);
+		System.arraycopy(dims, 0, selected, 0, dims.length);
+		start[0] = location;
+		selected[0] = 1;
+		start[1] = firstStep;
+		selected[1] = nSteps;
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation writes the locations of a grid and the data at them to
+	 * the Positions group in the columnar layout.
+	 * </p>
+	 * 
+	 * @param h5File
+	 *            <p>
+	 *            The file.
+	 *            </p>
+	 * @param h5Group
+	 *            <p>
+	 *            The Positions group.
+	 *            </p>
+	 * @param components
+	 *            <p>
+	 *            The names of the components keyed on their locations, in the
+	 *            order that they should be written.
+	 *            </p>
+	 * @return <p>
+	 *         True if the table was written, false otherwise.
+	 *         </p>
+	 */
+	static boolean write(H5File h5File, H5Group h5Group,
+			Map<GridLocation, String> components) {
+
+		// Local Declarations
+		final ArrayList<GridLocation> gridLocations = new ArrayList<GridLocation>(
+				components.keySet());
+		int nLocations = gridLocations.size();
+		ArrayList<String> nameList = new ArrayList<String>();
+		final LinkedHashMap<String, Integer> featurePoints = new LinkedHashMap<String, Integer>();
+		final HashMap<String, Integer> unitIndices = new HashMap<String, Integer>();
+		ArrayList<String> unitList = new ArrayList<String>();
+		TreeSet<Double> timeSet = new TreeSet<Double>();
+		int[] locationData = new int[3 * nLocations];
+		String name;
+		LWRDataColumn column;
+
+		// Number the names and gather the times, features and units
+		for (int i = 0; i < nLocations; i++) {
+			GridLocation location = gridLocations.get(i);
+			LWRDataProvider provider = location.getLWRDataProvider();
+			name = components.get(location);
+			if (!nameList.contains(name)) {
+				nameList.add(name);
+			}
+			locationData[3 * i] = location.getRow();
+			locationData[3 * i + 1] = location.getColumn();
+			locationData[3 * i + 2] = nameList.indexOf(name);
+
+			ArrayList<String> providerFeatures = provider.getFeatureList();
+			for (double time : provider.getTimes()) {
+				timeSet.add(time);
+				for (String feature : providerFeatures) {
+					column = provider.getDataColumn(feature, time);
+					if (column == null || column.size() == 0) {
+						continue;
+					}
+					Integer size = featurePoints.get(feature);
+					if (size == null || size < column.size()) {
+						featurePoints.put(feature, column.size());
+					}
+					for (String unit : column.getUnits()) {
+						if (!unitIndices.containsKey(unit)) {
+							unitIndices.put(unit, unitList.size());
+							unitList.add(unit);
+						}
+					}
+				}
+			}
+		}
+
+		// Copy the times out of the set
+		final double[] timeData = new double[timeSet.size()];
+		int index = 0;
+		for (Double time : timeSet) {
+			timeData[index++] = time;
+		}
+		final int nTimes = timeData.length;
+
+		try {
+			// Write the locations, names, units and times
+			Datatype intType = HdfWriterFactory.createIntegerH5Datatype(h5File);
+			Datatype doubleType = HdfWriterFactory
+					.createFloatH5Datatype(h5File);
+			h5File.createScalarDS(locationsName, h5Group, intType, new long[] {
+					nLocations, 3 }, null, null, 0, locationData);
+			writeStrings(h5File, h5Group, namesName, nameList);
+			if (!unitList.isEmpty()) {
+				writeStrings(h5File, h5Group, unitsName, unitList);
+			}
+			if (nTimes > 0) {
+				h5File.createScalarDS(timesName, h5Group, doubleType,
+						new long[] { nTimes }, null, null, 0, timeData);
+			}
+
+			// Create the feature tables, chunked by location and time
+			final ArrayList<String> featureList = new ArrayList<String>(
+					featurePoints.keySet());
+			ArrayList<Dataset> data = new ArrayList<Dataset>();
+			ArrayList<Dataset> heads = new ArrayList<Dataset>();
+			int chunkTimes = Math.min(nTimes, TIMES_PER_CHUNK);
+			for (String feature : featureList) {
+				int nPoints = featurePoints.get(feature);
+				Dataset dataset = h5File.createScalarDS(feature
+						+ dataTableString, h5Group, doubleType, new long[] {
+						nLocations, nTimes, nPoints, 5 }, null, new long[] { 1,
+						chunkTimes, nPoints, 5 }, GZIP_LEVEL, null);
+				dataset.init();
+				data.add(dataset);
+				dataset = h5File.createScalarDS(feature + headTableString,
+						h5Group, intType, new long[] { nLocations, nTimes,
+								nPoints }, null, new long[] { 1, chunkTimes,
+								nPoints }, GZIP_LEVEL, null);
+				dataset.init();
+				heads.add(dataset);
+			}
+
+			// Pack the locations on the pool a few at a time, ahead of the
+			// location that is being written
+			ArrayDeque<Future<Object[][]>> packers = new ArrayDeque<Future<Object[][]>>();
+			int ahead = 2 * tablePool.getParallelism(), next = 0;
+			for (int i = 0; i < nLocations && !featureList.isEmpty(); i++) {
+				while (next < nLocations && next <= i + ahead) {
+					final LWRDataProvider provider = gridLocations.get(next++)
+							.getLWRDataProvider();
+					packers.add(tablePool.submit(new Callable<Object[][]>() {
+						@Override
+						public Object[][] call() {
+							return pack(provider, featureList, featurePoints,
+									unitIndices, timeData);
+						}
+					}));
+				}
+
+				// Write the slabs of the location
+				Object[][] slabs = packers.poll().get();
+				for (int j = 0; j < featureList.size(); j++) {
+					select(data.get(j), i, 0, nTimes);
+					data.get(j).write(slabs[0][j]);
+					select(heads.get(j), i, 0, nTimes);
+					heads.get(j).write(slabs[1][j]);
+				}
+			}
+
+			// Mark the layout
+			HdfWriterFactory.writeIntegerAttribute(h5File, h5Group,
+					LAYOUT_ATTRIBUTE, LAYOUT_VERSION);
+
+		} catch (Exception e) {
+			e.printStackTrace();
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * This operation packs the data of a location into one slab of values and
+	 * one slab of unit indices for each feature. Time steps and points without
+	 * data are padded with zeros and a unit index of -1.
+	 * </p>
+	 * 
+	 * @param provider
+	 *            <p>
+	 *            The provider of the location.
+	 *            </p>
+	 * @param features
+	 *            <p>
+	 *            The features.
+	 *            </p>
+	 * @param featurePoints
+	 *            <p>
+	 *            The number of points of each feature.
+	 *            </p>
+	 * @param unitIndices
+	 *            <p>
+	 *            The index of each unit in the table of units.
+	 *            </p>
+	 * @param times
+	 *            <p>
+	 *            The times of all of the time steps.
+	 *            </p>
+	 * @return <p>
+	 *         The slabs of values, as double[]s, and the slabs of unit
+	 *         indices, as int[]s.
+	 *         </p>
+	 */
+	private static Object[][] pack(LWRDataProvider provider,
+			List<String> features, Map<String, Integer> featurePoints,
+			Map<String, Integer> unitIndices, double[] times) {
+
+		// Local Declarations
+		Object[][] slabs = new Object[2][features.size()];
+		int nPoints, offset;
+		double[] data, values, uncertainties, positions;
+		int[] heads, columnUnits;
+		ArrayList<String> units;
+		LWRDataColumn column;
+
+		for (int j = 0; j < features.size(); j++) {
+			nPoints = featurePoints.get(features.get(j));
+			data = new double[times.length * nPoints * 5];
+			heads = new int[times.length * nPoints];
+			Arrays.fill(heads, -1);
+			for (int t = 0; t < times.length; t++) {
+				column = provider.getDataColumn(features.get(j), times[t]);
+				if (column == null) {
+					continue;
+				}
+				values = column.getValues();
+				uncertainties = column.getUncertainties();
+				positions = column.getPositions();
+				columnUnits = column.getUnitIndices();
+				units = column.getUnits();
+				offset = t * nPoints;
+				for (int k = 0; k < column.size(); k++) {
+					int row = 5 * (offset + k);
+					data[row] = values[k];
+					data[row + 1] = uncertainties[k];
+					data[row + 2] = positions[3 * k];
+					data[row + 3] = positions[3 * k + 1];
+					data[row + 4] = positions[3 * k + 2];
+					heads[offset + k] = unitIndices.get(units
+							.get(columnUnits[k]));
+				}
+			}
+			slabs[0][j] = data;
+			slabs[1][j] = heads;
+		}
+
+		return slabs;
+	}
+
+	/**
+	 * <p>
+	 * This operation writes a list of strings as a string dataset.
+	 * </p>
+	 * 
+	 * @param h5File
+	 *            <p>
+	 *            The file.
+	 *            </p>
+	 * @param h5Group
+	 *            <p>
+	 *            The group.
+	 *            </p>
+	 * @param name
+	 *            <p>
+	 *            The name of the dataset.
+	 *            </p>
+	 * @param strings
+	 *            <p>
+	 *            The strings.
+	 *            </p>
+	 * @throws Exception
+	 */
+	private static void writeStrings(H5File h5File, H5Group h5Group,
+			String name, List<String> strings) throws Exception {
+
+		// Local Declarations
+		int maxLength = 1;
+
+		for (String string : strings) {
+			maxLength = Math.max(string.length(), maxLength);
+		}
+		H5Datatype datatypeString = (H5Datatype) h5File.createDatatype(
+				Datatype.CLASS_STRING, maxLength, Datatype.NATIVE,
+				Datatype.NATIVE);
+		Dataset dataset = h5File.createScalarDS(name, h5Group,
+				datatypeString, new long[] { strings.size() }, null, null, 0,
+				null);
+		dataset.write(strings.toArray(new String[strings.size()]));
+		dataset.init();
+
+		return;
+	}
+
+}
@@ -13,7 +13,10 @@
 package org.eclipse.ice.reactor;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.Vector;
@@ -28,7 +31,6 @@ import ncsa.hdf.object.HObject;
 import ncsa.hdf.object.h5.*;
 import ncsa.hdf.hdflib.*;
 
-import org.eclipse.ice.analysistool.IData;
 import org.eclipse.ice.io.hdf.*;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 
@@ -53,6 +55,35 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 */
 	private TreeMap<GridLocation, String> lWRComponents;
 
+	/**
+	 * <p>
+	 * A dense index of the GridLocations in lWRComponents. The location at a
+	 * row and column is stored at row * size + column, or the entry is null if
+	 * there is no location there.
+	 * </p>
+	 * 
+	 */
+	private GridLocation[] locationGrid;
+
+	/**
+	 * <p>
+	 * An inverted index of lWRComponents that maps each component name to its
+	 * GridLocations. The locations are kept in the same order as the keys of
+	 * lWRComponents.
+	 * </p>
+	 * 
+	 */
+	private HashMap<String, ArrayList<GridLocation>> nameLocations;
+
+	/**
+	 * <p>
+	 * Read-only views of the lists in nameLocations, which are returned by
+	 * getGridLocationsAtName().
+	 * </p>
+	 * 
+	 */
+	private HashMap<String, List<GridLocation>> nameLocationViews;
+
 	/**
 	 * <p>
 	 * The size of the rows and columns.
@@ -75,6 +106,38 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	private String headTableString = " headTable";
 	private String dataTableString = " dataTable";
 
+	/**
+	 * <p>
+	 * True if the data at the locations is written as one columnar table per
+	 * feature, false if it is written with a group for every location and
+	 * time step. The original layout is written by default so that older
+	 * readers can still read the files, but the columnar layout is smaller and
+	 * can be read in part. Both layouts can always be read. The
+	 * LWRComponentWriter writes the columnar layout unless it is told not to,
+	 * whatever this is set to.
+	 * </p>
+	 * 
+	 */
+	private boolean columnarLayout = false;
+
+	/**
+	 * <p>
+	 * The source that reads the data at the locations when it is first
+	 * requested, or null if the data was read with the locations.
+	 * </p>
+	 * 
+	 */
+	private LWRDataSource dataSource;
+
+	/**
+	 * <p>
+	 * The full name of the group of this manager in the file of the data
+	 * source.
+	 * </p>
+	 * 
+	 */
+	private String dataSourceGroupName;
+
 	/**
 	 * <p>
 	 * The Constructor.
@@ -97,6 +160,8 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 		// Setup defaults for the LWRGridManager
 		lWRComponents = new TreeMap<GridLocation, String>();
+		nameLocations = new HashMap<String, ArrayList<GridLocation>>();
+		nameLocationViews = new HashMap<String, List<GridLocation>>();
 		this.size = 1;
 
 		// Setup size if it is at least 1 or greater. Otherwise use defaults
@@ -104,6 +169,9 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			this.size = size;
 		}
 
+		// Setup the grid index for the size
+		locationGrid = new GridLocation[this.size * this.size];
+
 		// Setup the HDF5LWRTagType to correct type
 		this.HDF5LWRTag = HDF5LWRTagType.LWRGRIDMANAGER;
 
@@ -240,9 +308,12 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		// Copy contents
 
 		this.size = otherObject.size;
+		this.columnarLayout = otherObject.columnarLayout;
+		this.dataSource = otherObject.dataSource;
+		this.dataSourceGroupName = otherObject.dataSourceGroupName;
 
 		// Perform a deep copy of the tree
-		this.lWRComponents.clear();
+		this.clearLocations();
 
 		// Get the iterator
 		iter = otherObject.lWRComponents.keySet().iterator();
@@ -250,7 +321,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		// Iterate over the list, deep copy the lWRComponents and values
 		while (iter.hasNext()) {
 			location = iter.next();
-			this.lWRComponents.put((GridLocation) location.clone(),
+			this.putLocation((GridLocation) location.clone(),
 					otherObject.lWRComponents.get(location));
 		}
 
@@ -307,8 +378,9 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 				&& location.getRow() < this.size
 				&& location.getColumn() < this.size && location.getRow() >= 0
 				&& location.getColumn() >= 0
-				&& !this.lWRComponents.containsKey(location)) {
-			this.lWRComponents.put(location, component.getName());
+				&& this.locationGrid[location.getRow() * this.size
+						+ location.getColumn()] == null) {
+			this.putLocation(location, component.getName());
 		}
 
 	}
@@ -322,7 +394,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 		// If the location is not null, remove location
 		if (location != null) {
-			this.lWRComponents.remove(location);
+			this.removeLocation(location);
 		}
 
 	}
@@ -337,22 +409,118 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		// If the component is not null, remove the associated component
 		if (component != null) {
 
-			// Iterate over a map
-			for (Map.Entry<GridLocation, String> entry : this.lWRComponents
-					.entrySet()) {
-				String lComponent = entry.getValue();
-
-				// If the components are equal, remove the entry
-				if (lComponent.equals(component.getName())) {
-					this.lWRComponents.remove(entry.getKey());
-					return;
-				}
+			// Remove the first location with the component's name
+			ArrayList<GridLocation> locations = this.nameLocations
+					.get(component.getName());
+			if (locations != null) {
+				this.removeLocation(locations.get(0));
 			}
 
 		}
 
 	}
 
+	/**
+	 * <p>
+	 * Adds a location and the name at that location to lWRComponents and its
+	 * indices, replacing any location with the same row and column.
+	 * </p>
+	 * 
+	 * @param location
+	 *            <p>
+	 *            The location to add.
+	 *            </p>
+	 * @param name
+	 *            <p>
+	 *            The name of the component at the location.
+	 *            </p>
+	 */
+	private void putLocation(GridLocation location, String name) {
+
+		// Local Declarations
+		ArrayList<GridLocation> locations;
+
+		// Remove any location that is already at the row and column
+		this.removeLocation(location);
+
+		// Add it to the tree
+		this.lWRComponents.put(location, name);
+
+		// Add it to the grid. Locations outside of the grid are only kept in
+		// the tree.
+		if (location.getRow() < this.size && location.getColumn() < this.size) {
+			this.locationGrid[location.getRow() * this.size
+					+ location.getColumn()] = location;
+		}
+
+		// Add it to the name's locations in sorted order
+		locations = this.nameLocations.get(name);
+		if (locations == null) {
+			locations = new ArrayList<GridLocation>(1);
+			this.nameLocations.put(name, locations);
+			this.nameLocationViews.put(name,
+					Collections.unmodifiableList(locations));
+		}
+		locations.add(-Collections.binarySearch(locations, location) - 1,
+				location);
+
+	}
+
+	/**
+	 * <p>
+	 * Removes the location with the same row and column as the given location
+	 * from lWRComponents and its indices.
+	 * </p>
+	 * 
+	 * @param location
+	 *            <p>
+	 *            The location to remove.
+	 *            </p>
+	 */
+	private void removeLocation(GridLocation location) {
+
+		// Local Declarations
+		ArrayList<GridLocation> locations;
+		String name;
+
+		// The tree compares rows and columns, so this finds the location
+		// even if it is a different instance.
+		name = this.lWRComponents.remove(location);
+		if (name == null) {
+			return;
+		}
+
+		// Remove it from the grid
+		if (location.getRow() < this.size && location.getColumn() < this.size) {
+			this.locationGrid[location.getRow() * this.size
+					+ location.getColumn()] = null;
+		}
+
+		// Remove it from the name's locations
+		locations = this.nameLocations.get(name);
+		locations.remove(Collections.binarySearch(locations, location));
+		if (locations.isEmpty()) {
+			this.nameLocations.remove(name);
+			this.nameLocationViews.remove(name);
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Clears lWRComponents and its indices, resizing the grid to the current
+	 * size.
+	 * </p>
+	 */
+	private void clearLocations() {
+
+		this.lWRComponents.clear();
+		this.locationGrid = new GridLocation[this.size * this.size];
+		this.nameLocations.clear();
+		this.nameLocationViews.clear();
+
+	}
+
 	/**
 	 * 
 	 * @param h5File
@@ -376,6 +544,34 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 * @return
 	 */
 	public boolean writeDatasets(H5File h5File, H5Group h5Group) {
+		return writeDatasets(h5File, h5Group, this.columnarLayout);
+	}
+
+	/**
+	 * <p>
+	 * Writes the datasets of this manager in the given layout, whatever the
+	 * layout of the manager is. The LWRComponentWriter uses this to write the
+	 * layout that it was configured with.
+	 * </p>
+	 * 
+	 * @param h5File
+	 *            <p>
+	 *            The H5File.
+	 *            </p>
+	 * @param h5Group
+	 *            <p>
+	 *            The group of this manager.
+	 *            </p>
+	 * @param columnar
+	 *            <p>
+	 *            True to write the columnar layout, false to write the
+	 *            original layout.
+	 *            </p>
+	 * @return <p>
+	 *         True if successful, false otherwise.
+	 *         </p>
+	 */
+	boolean writeDatasets(H5File h5File, H5Group h5Group, boolean columnar) {
 
 		boolean flag = true;
 
@@ -390,7 +586,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		if (this.lWRComponents.isEmpty()) {
 			return true;
 		}
-		return this.writeFeatureSets(h5File, h5Group);
+		return this.writeFeatureSets(h5File, h5Group, columnar);
 	}
 
 	//
@@ -402,10 +598,13 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 *            H5File
 	 * @param The
 	 *            Group
+	 * @param columnar
+	 *            True to write the columnar layout
 	 * 
 	 * @return True if successful, false otherwise
 	 */
-	private boolean writeFeatureSets(H5File h5File, H5Group h5Group) {
+	private boolean writeFeatureSets(H5File h5File, H5Group h5Group,
+			boolean columnar) {
 
 
 		// Return if the file or group is null
@@ -429,6 +628,12 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		mainH5Group = HdfWriterFactory.createH5Group(h5File,
 				this.dataH5GroupName, h5Group);
 
+		// Write all of the locations as one table if the layout is columnar
+		if (columnar) {
+			return LWRGridDataTable.write(h5File, mainH5Group,
+					this.lWRComponents);
+		}
+
 		// Iterate over the GridLocations and add them to the list
 		// Iterate over a map
 		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
@@ -577,12 +782,14 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	private boolean writeTimeAtFeatureSet(H5Group dataH5Group, H5File h5File,
 			LWRDataProvider provider, ArrayList<String> unitsList) {
 
-		// Iterate over the dataTree and create timesteps for each key in
-		// the tree
-		for (int w = 0; w < provider.getTimes().size(); w++) {
+		// Get the times
+		ArrayList<Double> times = provider.getTimes();
+
+		// Iterate over the times and create timesteps for each one
+		for (int w = 0; w < times.size(); w++) {
 
 			// Get the time
-			double time = provider.getTimes().get(w);
+			double time = times.get(w);
 
 			// Set the time in order to get the FeatureSet
 			provider.setTime(time);
@@ -598,62 +805,57 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			HdfWriterFactory.writeDoubleAttribute(h5File, timeStepH5Group,
 					"time", time);
 
-			// Create a Compound Dataset for each timeStep to represent the
-			// collection of FeatureSets. This contains the list of Feature
-			// Sets
-			for (int i = 0; i < provider.getFeaturesAtCurrentTime().size(); i++) {
-
-				// Get the FeatureSet
-				ArrayList<IData> set = provider.getDataAtCurrentTime(provider
-						.getFeatureList().get(i));
-
-				H5Datatype datatype = null;
-
-				// Get the number of IDatas stored on the FeatureSet
-				int iDataSize = set.size();
-
-				// Create a 2D array n x 5
-				double[][] dataList = new double[iDataSize][5];
-
-				// Create a head data table
-				long[][] headData = new long[iDataSize][2];
-
-				// Iterate over the IDatas to fill out the arrays listed
-				// above
-				for (int j = 0; j < set.size(); j++) {
-					// Get the iData at the location
-					IData iData = set.get(j);
+			// Create a pair of Datasets for each feature at the timeStep.
+			// The columns of the provider are moved into the tables in bulk
+			// and each table is written in a single operation.
+			for (String feature : provider.getFeaturesAtCurrentTime()) {
 
-					// Set value and uncertainty
-					dataList[j][0] = iData.getValue();
-					dataList[j][1] = iData.getUncertainty();
+				// Get the column of data for the feature
+				LWRDataColumn column = provider.getDataColumn(feature, time);
 
-					// Get the position
-					ArrayList<Double> pos = iData.getPosition();
-					dataList[j][2] = pos.get(0).doubleValue();
-					dataList[j][3] = pos.get(1);
-					dataList[j][4] = pos.get(2);
-
-					// If the unitsList does not contain the units, add them!
-					if (!unitsList.contains(iData.getUnits())) {
-						unitsList.add(iData.getUnits());
+				// Skip empty columns. There is nothing to write.
+				if (column == null || column.size() == 0) {
+					continue;
+				}
 
+				// Get the number of IDatas stored in the column
+				int iDataSize = column.size();
+				double[] values = column.getValues();
+				double[] uncertainties = column.getUncertainties();
+				double[] positions = column.getPositions();
+				int[] unitIndices = column.getUnitIndices();
+
+				// Map the units of the column to the unitsList, adding them
+				// if they are not there
+				ArrayList<String> columnUnits = column.getUnits();
+				int[] unitsMap = new int[columnUnits.size()];
+				for (int j = 0; j < unitsMap.length; j++) {
+					if (!unitsList.contains(columnUnits.get(j))) {
+						unitsList.add(columnUnits.get(j));
 					}
+					unitsMap[j] = unitsList.indexOf(columnUnits.get(j));
+				}
 
-					// Once this is done, append to the headList. Note that
-					// this is to be externalized out of this loop in the
-					// future
-					// Set the dataList id and the unitsList id
-					headData[j][0] = j;
-					headData[j][1] = unitsList.indexOf(iData.getUnits());
-
+				// Create the n x 5 data table and the n x 2 head table in row
+				// major order. The head table holds the dataList id and the
+				// unitsList id.
+				double[] dataList = new double[iDataSize * 5];
+				long[] headData = new long[iDataSize * 2];
+				for (int j = 0; j < iDataSize; j++) {
+					dataList[5 * j] = values[j];
+					dataList[5 * j + 1] = uncertainties[j];
+					dataList[5 * j + 2] = positions[3 * j];
+					dataList[5 * j + 3] = positions[3 * j + 1];
+					dataList[5 * j + 4] = positions[3 * j + 2];
+					headData[2 * j] = j;
+					headData[2 * j + 1] = unitsMap[unitIndices[j]];
 				}
 
 				try {
 
 					// Calculate the dimensions of the length of each
 					// dataSet by
-					// the number of IDatas in the FeatureSet
+					// the number of IDatas in the column
 					long[] dimsData = { iDataSize, 5 };
 					long[] dimsHead = { iDataSize, 2 };
 
@@ -665,16 +867,14 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 							Datatype.NATIVE);
 
 					// Create the simple dataset - dataList
-					Dataset dataSet1 = h5File.createScalarDS(set.get(0)
-							.getFeature() + this.dataTableString,
-							timeStepH5Group, dataTypeDouble, dimsData, null,
-							null, 0, dataList);
+					Dataset dataSet1 = h5File.createScalarDS(feature
+							+ this.dataTableString, timeStepH5Group,
+							dataTypeDouble, dimsData, null, null, 0, dataList);
 
 					// Create the simple dataset - headData
-					Dataset dataSet2 = h5File.createScalarDS(set.get(0)
-							.getFeature() + this.headTableString,
-							timeStepH5Group, dataTypeLong, dimsHead, null,
-							null, 0, headData);
+					Dataset dataSet2 = h5File.createScalarDS(feature
+							+ this.headTableString, timeStepH5Group,
+							dataTypeLong, dimsHead, null, null, 0, headData);
 
 					dataSet1.init();
 					dataSet2.init();
@@ -703,6 +903,35 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 * @return
 	 */
 	public boolean readDatasets(H5Group h5Group) {
+		return this.readDatasets(h5Group, -Double.MAX_VALUE, Double.MAX_VALUE);
+	}
+
+	/**
+	 * <p>
+	 * Reads the locations and the data at them, but only reads the data in a
+	 * window of time. If startTime is greater than endTime, only the locations
+	 * are read. Both the columnar and the original layouts are detected and
+	 * read. Only the chunks of the window are read from a columnar table.
+	 * </p>
+	 * 
+	 * @param h5Group
+	 *            <p>
+	 *            The group of this manager.
+	 *            </p>
+	 * @param startTime
+	 *            <p>
+	 *            The earliest time to read.
+	 *            </p>
+	 * @param endTime
+	 *            <p>
+	 *            The latest time to read.
+	 *            </p>
+	 * @return <p>
+	 *         True if successful, false otherwise.
+	 *         </p>
+	 */
+	public boolean readDatasets(H5Group h5Group, double startTime,
+			double endTime) {
 
 		// Call super
 		boolean flag = super.readDatasets(h5Group);
@@ -724,12 +953,16 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			return true;
 		}
 		// Clear the tree
-		this.lWRComponents.clear();
+		this.clearLocations();
 
 		// If the dataGroup is 0, return
 		if (dataH5Group.getNumberOfMembersInFile() == 0) {
 			return true;
 		}
+		// Read the table if the layout is columnar
+		if (LWRGridDataTable.isColumnar(dataH5Group)) {
+			return this.readDataTable(dataH5Group, startTime, endTime);
+		}
 		// Get the last member list and make sure it is correct
 		if (HdfReaderFactory.getDataset(dataH5Group, "Units Table") == null) {
 			// Do nothing
@@ -810,7 +1043,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			String name = arrayPositions[positionInfo[2]];
 
 			// Put it in the tree
-			this.lWRComponents.put(location, name);
+			this.putLocation(location, name);
 
 			// This is important: If there is a units table with no data in it,
 			// then there should be no positions. Flag error and exit
@@ -826,7 +1059,7 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			// read the time steps at the feature.
 			// Return if the operation returns false
 			if (!this.readTimeStepsAtFeature(provider, timeStepsMemberList,
-					arrayStrings)) {
+					arrayStrings, startTime, endTime)) {
 				return false;
 			}
 
@@ -836,6 +1069,132 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 
 	}
 
+	/**
+	 * Reads the locations in a columnar table and the data at them in a window
+	 * of time. The locations are added to the tree.
+	 * 
+	 * @param dataH5Group
+	 *            The Positions group
+	 * @param startTime
+	 *            The earliest time to read
+	 * @param endTime
+	 *            The latest time to read
+	 * @return True if successful, false otherwise.
+	 */
+	private boolean readDataTable(H5Group dataH5Group, double startTime,
+			double endTime) {
+
+		// Local Declarations
+		LWRGridDataTable table = LWRGridDataTable.open(dataH5Group);
+		int[] indices;
+		LWRDataProvider[] providers;
+		GridLocation location;
+
+		if (table == null) {
+			System.err.println("LWRGridManager Message: "
+					+ "Can't read the table of positions.");
+			return false;
+		}
+		// Add the locations to the tree
+		indices = new int[table.getNumberOfLocations()];
+		providers = new LWRDataProvider[indices.length];
+		for (int i = 0; i < indices.length; i++) {
+			location = table.createLocation(i);
+			this.putLocation(location, table.getName(i));
+			indices[i] = i;
+			providers[i] = location.getLWRDataProvider();
+		}
+
+		// Read the data in the window, if there is one
+		return startTime > endTime
+				|| table.read(indices, providers, startTime, endTime);
+	}
+
+	/**
+	 * <p>
+	 * Reads the data at one location in a window of time from the group of a
+	 * manager that was written to a file. Only the data of that location is
+	 * read, so the data of a large grid can be read as it is needed. This
+	 * manager is not changed.
+	 * </p>
+	 * 
+	 * @param h5Group
+	 *            <p>
+	 *            The group of the manager that was written.
+	 *            </p>
+	 * @param location
+	 *            <p>
+	 *            The location.
+	 *            </p>
+	 * @param startTime
+	 *            <p>
+	 *            The earliest time to read.
+	 *            </p>
+	 * @param endTime
+	 *            <p>
+	 *            The latest time to read.
+	 *            </p>
+	 * @return <p>
+	 *         A new data provider with the data at the location, or null if
+	 *         the location is not in the group or could not be read.
+	 *         </p>
+	 */
+	public LWRDataProvider readDataProvider(H5Group h5Group,
+			GridLocation location, double startTime, double endTime) {
+
+		// Local Declarations
+		H5Group dataH5Group, positionH5Group;
+		LWRGridDataTable table;
+		LWRDataProvider provider = new LWRDataProvider();
+		Dataset unitsSet;
+		String[] arrayStrings = null;
+		int index;
+
+		if (h5Group == null || location == null) {
+			return null;
+		}
+		dataH5Group = HdfReaderFactory.getChildH5Group(h5Group,
+				this.dataH5GroupName);
+		if (dataH5Group == null) {
+			return null;
+		}
+		// Read the slab of the location from a columnar table
+		if (LWRGridDataTable.isColumnar(dataH5Group)) {
+			table = LWRGridDataTable.open(dataH5Group);
+			index = (table != null ? table.findLocation(location.getRow(),
+					location.getColumn()) : -1);
+			if (index < 0
+					|| !table.read(new int[] { index },
+							new LWRDataProvider[] { provider }, startTime,
+							endTime)) {
+				return null;
+			}
+			return provider;
+		}
+		// Otherwise read the time steps of the location's group
+		positionH5Group = HdfReaderFactory.getChildH5Group(dataH5Group,
+				"Position " + location.getRow() + " " + location.getColumn());
+		if (positionH5Group == null) {
+			return null;
+		}
+		unitsSet = HdfReaderFactory.getDataset(dataH5Group, "Units Table");
+		if (unitsSet != null) {
+			try {
+				arrayStrings = (String[]) unitsSet.getData();
+			} catch (Exception e) {
+				e.printStackTrace();
+				return null;
+			}
+		}
+		if (!this.readTimeStepsAtFeature(provider,
+				HdfReaderFactory.getChildH5Groups(positionH5Group),
+				arrayStrings, startTime, endTime)) {
+			return null;
+		}
+
+		return provider;
+	}
+
 	/**
 	 * Reads the time steps at a feature and adds the time steps to the
 	 * GridLocation. Returns true if the operation was successful, false
@@ -847,10 +1206,15 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 *            The time steps on that group
 	 * @param arrayStrings
 	 *            An array of strings used to specify the unit list.
+	 * @param startTime
+	 *            The earliest time to read
+	 * @param endTime
+	 *            The latest time to read
 	 * @return
 	 */
 	private boolean readTimeStepsAtFeature(LWRDataProvider provider,
-			ArrayList<H5Group> timeStepsMemberList, String[] arrayStrings) {
+			ArrayList<H5Group> timeStepsMemberList, String[] arrayStrings,
+			double startTime, double endTime) {
 
 		// Iterate over the time groups
 		for (int j = 0; j < timeStepsMemberList.size(); j++) {
@@ -859,6 +1223,11 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 			double time = HdfReaderFactory.readDoubleAttribute(timeGroup,
 					"time");
 
+			// Skip the time steps outside of the window
+			if (time < startTime || time > endTime) {
+				continue;
+			}
+
 			ArrayList<HObject> memberList = HdfReaderFactory
 					.getChildH5Members(timeGroup);
 
@@ -901,43 +1270,39 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 				// Convert the data to a readable format
 				double[] dataArray = (double[]) dataListData;
 				long[] headArray = (long[]) headListData;
+				int iDataSize = (int) dataRowSize;
+
+				// Make sure the tables have the expected shape
+				if (dataColSize != 5 || headColSize != 2
+						|| headRowSize != dataRowSize
+						|| dataArray.length != iDataSize * 5
+						|| headArray.length != iDataSize * 2) {
+					System.err.println("LWRGridManager Message: "
+							+ "Unexpected table dimensions for feature "
+							+ featureName + ".");
+					return false;
+				}
 
-				// Iterate over the list and grab values as necessary
-
-				// Counts the iterations in the following value grabber
-				int counter = 0;
-
-				// Iterate over the values and create the correct LWRData
-				// Iterate by columnsize
-				for (int l = 0; l < dataArray.length; l += dataColSize) {
-
-					// Create the data and setup basic attributes
-					LWRData lwrdata = new LWRData(featureName);
-					lwrdata.setValue(dataArray[l]);
-					lwrdata.setUncertainty(dataArray[l + 1]);
-
-					// This states: At position X in the array of string
-					// units, give me the headArray's second (or last)
-					// column value for each row.
-					// The last column value should represent the unitsID,
-					// or the id to represent the units
-					lwrdata.setUnits(arrayStrings[(int) headArray[(int) ((counter) * headColSize) + 1]]);
-
-					// Setup position
-					ArrayList<Double> positionss = new ArrayList<Double>();
-					positionss.add(dataArray[l + 2]);
-					positionss.add(dataArray[l + 3]);
-					positionss.add(dataArray[l + 4]);
-
-					// Set position
-					lwrdata.setPosition(positionss);
-
-					// Add the lwrdata to the location
-					provider.addData(lwrdata, time);
-
-					counter++;
+				// Split the tables into columns. The last column value of
+				// the head table should represent the unitsID, or the id to
+				// represent the units in the array of string units.
+				double[] values = new double[iDataSize];
+				double[] uncertainties = new double[iDataSize];
+				double[] positions = new double[iDataSize * 3];
+				int[] unitIndices = new int[iDataSize];
+				for (int l = 0; l < iDataSize; l++) {
+					values[l] = dataArray[5 * l];
+					uncertainties[l] = dataArray[5 * l + 1];
+					positions[3 * l] = dataArray[5 * l + 2];
+					positions[3 * l + 1] = dataArray[5 * l + 3];
+					positions[3 * l + 2] = dataArray[5 * l + 4];
+					unitIndices[l] = (int) headArray[2 * l + 1];
 				}
 
+				// Add the columns to the location in one shot
+				provider.addData(featureName, time, values, uncertainties,
+						positions, unitIndices, arrayStrings);
+
 			}
 
 		}
@@ -971,16 +1336,93 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 		this.size = size.intValue();
 
 		// Reset map
-		this.lWRComponents.clear();
+		this.clearLocations();
 
 		return true;
 
 	}
 
+	/**
+	 * <p>
+	 * Sets whether the data at the locations is written as one columnar table
+	 * per feature or with a group for every location and time step.
+	 * </p>
+	 * 
+	 * @param columnar
+	 *            <p>
+	 *            True to write the columnar layout, false to write the
+	 *            original layout.
+	 *            </p>
+	 */
+	public void setColumnarLayout(boolean columnar) {
+		this.columnarLayout = columnar;
+	}
+
+	/**
+	 * <p>
+	 * Returns true if the data at the locations is written as one columnar
+	 * table per feature, false if it is written with a group for every
+	 * location and time step. The default is false.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         True if the layout is columnar.
+	 *         </p>
+	 */
+	public boolean isColumnarLayout() {
+		return this.columnarLayout;
+	}
+
+	/**
+	 * <p>
+	 * Sets the source that reads the data at the locations of this manager
+	 * when it is first requested. This is used when only the locations were
+	 * read from the group of this manager. The data of the locations is then
+	 * read by getDataProviderAtLocation() and should not be changed, because
+	 * it may be read from the file again.
+	 * </p>
+	 * 
+	 * @param source
+	 *            <p>
+	 *            The source or null to stop reading data from it.
+	 *            </p>
+	 * @param h5Group
+	 *            <p>
+	 *            The group of this manager in the file of the source.
+	 *            </p>
+	 */
+	public void setDataSource(LWRDataSource source, H5Group h5Group) {
+
+		if (source != null && h5Group != null) {
+			this.dataSource = source;
+			this.dataSourceGroupName = h5Group.getFullName();
+		} else {
+			this.dataSource = null;
+			this.dataSourceGroupName = null;
+		}
+
+	}
+
+	/**
+	 * <p>
+	 * Returns the source that reads the data at the locations of this manager
+	 * or null if the data was read with the locations.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The source.
+	 *         </p>
+	 */
+	public LWRDataSource getDataSource() {
+		return this.dataSource;
+	}
+
 	/**
 	 * <p>
 	 * Returns the data provider at the grid location or null if it does not
-	 * exist.
+	 * exist. The location is looked up directly in the grid index. If this
+	 * manager has a data source, the provider is read from it the first time
+	 * that it is requested.
 	 * </p>
 	 * 
 	 * @param location
@@ -993,29 +1435,48 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 */
 	public LWRDataProvider getDataProviderAtLocation(GridLocation location) {
 
+		// Local Declarations
+		GridLocation key;
+
 		if (location == null) {
 			return null;
 		}
-		// Iterate over a map
-		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
-				.entrySet()) {
+		// Look the location up in the grid
+		if (location.getRow() < this.size && location.getColumn() < this.size) {
+			key = this.locationGrid[location.getRow() * this.size
+					+ location.getColumn()];
+		} else {
+			// Locations outside of the grid can only come from a file, so
+			// look for it in the tree.
+			key = this.lWRComponents.ceilingKey(location);
+			if (key != null && key.compareTo(location) != 0) {
+				key = null;
+			}
+		}
 
-			// If the key exists, return
-			if (location.getRow() == entry.getKey().getRow()
-					&& location.getColumn() == entry.getKey().getColumn()) {
-				return entry.getKey().getLWRDataProvider();
+		// Read the provider from the source if there is one
+		if (key != null && this.dataSource != null) {
+			LWRDataProvider provider = this.dataSource.getDataProvider(this,
+					this.dataSourceGroupName, key);
+			if (provider != null) {
+				return provider;
 			}
 		}
 
-		// Not found!
-		return null;
+		// Return the provider if the location was found
+		return (key != null ? key.getLWRDataProvider() : null);
 
 	}
 
 	/**
 	 * <p>
-	 * Returns the list of grid locations at the given name. If none are found,
-	 * returns an empty list.
+	 * Returns the list of grid locations at the given name, sorted by row and
+	 * then column. If none are found, returns an empty list.
+	 * </p>
+	 * <p>
+	 * The list is a read-only view that is shared by all callers and that
+	 * reflects later changes to this manager. The locations in it are the
+	 * locations managed by this class and should not be modified.
 	 * </p>
 	 * 
 	 * @param name
@@ -1026,26 +1487,18 @@ public class LWRGridManager extends LWRComponent implements IGridManager {
 	 *         The locations
 	 *         </p>
 	 */
-	public ArrayList<GridLocation> getGridLocationsAtName(String name) {
+	public List<GridLocation> getGridLocationsAtName(String name) {
 
 		// Local Declarations
-		ArrayList<GridLocation> locations = new ArrayList<GridLocation>();
-
-		if (name == null) {
-			return locations;
-		}
-		// Iterate over a map
-		for (Map.Entry<GridLocation, String> entry : this.lWRComponents
-				.entrySet()) {
+		List<GridLocation> locations = null;
 
-			// If the key exists, return
-			if (name.equals(entry.getValue())) {
-				locations.add((GridLocation) entry.getKey().clone());
-			}
+		if (name != null) {
+			locations = this.nameLocationViews.get(name);
 		}
 
 		// Return list
-		return locations;
+		return (locations != null ? locations : Collections
+				.<GridLocation> emptyList());
 
 	}
 
@@ -12,6 +12,7 @@
  *******************************************************************************/
 package org.eclipse.ice.reactorAnalyzer;
 
+import org.eclipse.ice.analysistool.AnalysisPool;
 import org.eclipse.ice.analysistool.IAnalysisAsset;
 import org.eclipse.ice.analysistool.IAnalysisDocument;
 import org.eclipse.ice.analysistool.IAnalysisTool;
@@ -40,6 +41,11 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
 import javax.xml.bind.annotation.XmlRootElement;
@@ -177,6 +183,55 @@ public class ReactorAnalyzer extends Item implements Runnable {
 	 */
 	private IReactorComponent referenceReactorComponent = null;
 
+	/**
+	 * The analysis tool that created the last analysis document. It is used
+	 * to create a separate document for each type of asset so that the assets
+	 * can be generated at the same time.
+	 */
+	private IAnalysisTool analysisTool = null;
+
+	/**
+	 * The IDataProvider of the input reactor that was given to the analysis
+	 * tool.
+	 */
+	private IDataProvider inputDataProvider = null;
+
+	/**
+	 * The IDataProvider of the reference reactor that was given to the
+	 * analysis documents.
+	 */
+	private IDataProvider referenceDataProvider = null;
+
+	/**
+	 * The task that is running {@link #run()} on the pool, or null if the
+	 * ReactorAnalyzer has not been processed.
+	 */
+	private ForkJoinTask<?> analysisTask = null;
+
+	/**
+	 * True if the last process request was canceled.
+	 */
+	private AtomicBoolean processCancelled;
+
+	/**
+	 * The tasks that are generating the analysis assets. They are canceled if
+	 * the process request is canceled.
+	 */
+	private ArrayList<AssetTask> assetTasks;
+
+	/**
+	 * The time in milliseconds that each type of analysis asset took to
+	 * generate during the last process request, keyed on the name of the
+	 * asset type.
+	 */
+	private LinkedHashMap<String, Long> assetTimes;
+
+	/**
+	 * The fraction of the selected analysis artifacts that were generated by
+	 * the current or last process request.
+	 */
+	private volatile double progress;
+
 	/**
 	 * <p>
 	 * The constructor.
@@ -198,6 +253,11 @@ public class ReactorAnalyzer extends Item implements Runnable {
 		concurrentStatus.set(formStatus);
 		// Initialize the form atomic
 		concurrentForm = new AtomicReference<Form>();
+		// Initialize the asset pipeline
+		processCancelled = new AtomicBoolean(false);
+		assetTasks = new ArrayList<AssetTask>();
+		assetTimes = new LinkedHashMap<String, Long>();
+		progress = 0.0;
 
 		return;
 
@@ -438,9 +498,12 @@ public class ReactorAnalyzer extends Item implements Runnable {
 				if ("Knowledge Discovery and Data Mining ICE Analysis Tool"
 						.equals(tool.getName())
 						&& inputReactor instanceof IDataProvider) {
-					analysisDocuments
-							.add(tool
-									.createDocument(getKDDIDataProvider((IDataProvider) inputReactor)));
+					// Keep the tool and data to create a document for each
+					// asset type when processing
+					analysisTool = tool;
+					inputDataProvider = getKDDIDataProvider((IDataProvider) inputReactor);
+					analysisDocuments.add(tool
+							.createDocument(inputDataProvider));
 				}
 			}
 
@@ -581,7 +644,8 @@ public class ReactorAnalyzer extends Item implements Runnable {
 	 * <p>
 	 * This operation overrides the operation on the Item base class to generate
 	 * analysis artifacts. The only valid action name is
-	 * "Generate Analysis Artifacts."
+	 * "Generate Analysis Artifacts." The artifacts are generated on a pool and
+	 * the request is refused while a previous request is still running.
 	 * </p>
 	 * 
 	 * @param actionName
@@ -600,15 +664,17 @@ public class ReactorAnalyzer extends Item implements Runnable {
 		if ((actionName != null && "Generate Analysis Artifacts"
 				.equals(actionName))
 				&& (status.equals(FormStatus.ReadyToProcess) || status
-						.equals(FormStatus.Processed))) {
+						.equals(FormStatus.Processed))
+				&& (analysisTask == null || analysisTask.isDone())) {
 			// Set the status
 			status = FormStatus.Processing;
 			// Set the references
 			concurrentStatus.set(status);
 			concurrentForm.set(form);
-			// Start the processing thread
-			Thread analysisThread = new Thread(this);
-			analysisThread.start();
+			processCancelled.set(false);
+			progress = 0.0;
+			// Start processing on the pool
+			analysisTask = AnalysisPool.getPool().submit(this);
 		} else {
 			return FormStatus.InfoError;
 		}
@@ -616,6 +682,69 @@ public class ReactorAnalyzer extends Item implements Runnable {
 		return status;
 	}
 
+	/**
+	 * <p>
+	 * This operation cancels the generation of the analysis artifacts. Asset
+	 * types that have not started are skipped and the artifacts of those that
+	 * are running are not added to the Form. The artifacts that were already
+	 * added remain in the Form.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The status of the ReactorAnalyzer after canceling.
+	 *         </p>
+	 */
+	@Override
+	public FormStatus cancelProcess() {
+
+		// Only cancel if the artifacts are still being generated
+		if (concurrentStatus.compareAndSet(FormStatus.Processing,
+				FormStatus.ReadyToProcess)) {
+			processCancelled.set(true);
+			synchronized (assetTasks) {
+				for (AssetTask task : assetTasks) {
+					task.cancel(false);
+				}
+			}
+			status = FormStatus.ReadyToProcess;
+		}
+
+		return getStatus();
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the time in milliseconds that each type of
+	 * analysis asset took to generate during the last process request, keyed
+	 * on the name of the asset type.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The times of the asset types.
+	 *         </p>
+	 */
+	public LinkedHashMap<String, Long> getAssetTimes() {
+		synchronized (assetTimes) {
+			return new LinkedHashMap<String, Long>(assetTimes);
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the fraction of the selected analysis artifacts
+	 * that were generated by the current or last process request. The status
+	 * is Processing until all of them are generated or the request is
+	 * canceled.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The progress, between 0 and 1.
+	 *         </p>
+	 */
+	public double getProgress() {
+		return progress;
+	}
+
 	/**
 	 * <p>
 	 * This operation checks the status of the ReactorAnalyzer and returns true
@@ -855,10 +984,9 @@ public class ReactorAnalyzer extends Item implements Runnable {
 						&& referenceReactor instanceof IDataProvider
 						&& !(analysisDocuments.isEmpty())
 						&& analysisDocuments.get(0) != null) {
-					analysisDocuments
-							.get(0)
-							.loadReferenceData(
-									getKDDIDataProvider((IDataProvider) referenceReactor));
+					referenceDataProvider = getKDDIDataProvider((IDataProvider) referenceReactor);
+					analysisDocuments.get(0).loadReferenceData(
+							referenceDataProvider);
 				}
 			}
 
@@ -870,12 +998,27 @@ public class ReactorAnalyzer extends Item implements Runnable {
 	}
 
 	/**
-	 * (non-Javadoc)
+	 * <p>
+	 * This operation generates the selected analysis assets and adds them to
+	 * the ResourceComponent. Each type of asset is generated by its own
+	 * AssetTask on the pool, so independent assets are generated at the same
+	 * time. The artifacts are added to the Form in the order of the selected
+	 * asset types as soon as each type is finished. Only the location of each
+	 * artifact is stored, so its file is not read until it is displayed. The
+	 * progress is available from {@link #getProgress()} while the status is
+	 * Processing.
+	 * </p>
 	 * 
 	 * @see Runnable#run()
 	 */
 	public void run() {
 
+		// Local Declarations
+		LinkedHashMap<String, AssetTask> tasks = new LinkedHashMap<String, AssetTask>();
+		ArrayList<IAnalysisAsset> assets;
+		AssetTask task;
+		int resourceId = 0, nFinished = 0;
+
 		// Get the MasterDetailsComponent component from the concurrentForm
 		MasterDetailsComponent analysisConfigComp = (MasterDetailsComponent) concurrentForm
 				.get().getComponent(3);
@@ -891,18 +1034,34 @@ public class ReactorAnalyzer extends Item implements Runnable {
 
 		}
 
-		// Get the first document in the analysisDocuments list
-		// since we will only have a KDDAnalysisDocument to access initially
-		IAnalysisDocument document = analysisDocuments.get(0);
-
-		// Set the selected assets on the document
-		document.setSelectedAssets(selectedAssets);
-
-		// Create the assets
-		document.createSelectedAssets();
+		// Create a task for each type of asset. Assets of the same type write
+		// the same files, so they are generated one after another by the same
+		// task.
+		for (String assetName : selectedAssets) {
+			task = tasks.get(assetName);
+			if (task == null) {
+				task = new AssetTask(assetName, createAssetDocument());
+				tasks.put(assetName, task);
+			}
+			task.count++;
+		}
 
-		// Get all of the selected assets
-		ArrayList<IAnalysisAsset> assets = document.getAllAssets();
+		// Start the tasks that have their own document. The others share the
+		// first document in the analysisDocuments list, so they are run one
+		// after another below.
+		synchronized (assetTasks) {
+			assetTasks.clear();
+			assetTasks.addAll(tasks.values());
+			for (AssetTask assetTask : assetTasks) {
+				if (assetTask.document != null
+						&& !processCancelled.get()) {
+					AnalysisPool.getPool().execute(assetTask);
+				}
+			}
+		}
+		synchronized (assetTimes) {
+			assetTimes.clear();
+		}
 
 		// Get the ResourceComponent from the concurrentForm
 		ResourceComponent resourceComponent = (ResourceComponent) concurrentForm
@@ -916,39 +1075,80 @@ public class ReactorAnalyzer extends Item implements Runnable {
 
 		}
 
-		// Initialize a resource id counter
-		int resourceId = 0;
-
-		// Loop over all assets in the asset array list
-		if (!assets.isEmpty()) {
-			for (IAnalysisAsset asset : assets) {
-
-				// This is processed for every item in the ICE resource view.
-
-				// Create a new ICEResource and assign values from the asset
-				ICEResource resource = new ICEResource();
-				resource.setId(resourceId);
-				// Set the file contents for the resource
-				try {
-					resource.setContents(new File(asset.getURI().getPath()));
-				} catch (NullPointerException e) {
-					e.printStackTrace();
-				} catch (IOException e) {
-					e.printStackTrace();
+		// Add the assets of each type as soon as they are generated
+		for (AssetTask assetTask : tasks.values()) {
+
+			// Wait for the task, or run it here if it shares the document
+			assets = null;
+			try {
+				if (assetTask.document != null) {
+					assets = assetTask.join();
+				} else {
+					assets = assetTask.invoke();
 				}
-				resource.setPath(asset.getURI());
-				resource.setName(asset.getName());
+			} catch (CancellationException e) {
+				// The request was canceled before the task started
+			} catch (RuntimeException e) {
+				// Skip this asset type if it failed
+				e.printStackTrace();
+			}
+			if (processCancelled.get()) {
+				break;
+			}
 
-				// Add the resource to the resourceComponent
-				resourceComponent.addResource(resource);
+			// Report the time of the asset type
+			synchronized (assetTimes) {
+				assetTimes.put(assetTask.assetName, assetTask.time);
+			}
+			System.out.println("ReactorAnalyzer Message: Generated "
+					+ assetTask.assetName + " in " + assetTask.time + " ms.");
+
+			// Loop over all assets of this type
+			if (assets != null) {
+				for (IAnalysisAsset asset : assets) {
+
+					// This is processed for every item in the ICE resource
+					// view.
+
+					// Create a new ICEResource and assign values from the
+					// asset. Only the file handle and path are stored, the
+					// file is not read until the resource is displayed.
+					ICEResource resource = new ICEResource();
+					resource.setId(resourceId);
+					try {
+						resource.setContents(new File(asset.getURI()
+								.getPath()));
+					} catch (NullPointerException e) {
+						e.printStackTrace();
+					} catch (IOException e) {
+						e.printStackTrace();
+					}
+					resource.setPath(asset.getURI());
+					resource.setName(asset.getName());
 
-				// Increment the resourceId
-				resourceId++;
+					// Add the resource to the resourceComponent
+					resourceComponent.addResource(resource);
 
+					// Increment the resourceId
+					resourceId++;
+
+				}
 			}
+
+			// Update the progress
+			nFinished += assetTask.count;
+			progress = (double) nFinished / selectedAssets.size();
+		}
+
+		synchronized (assetTasks) {
+			assetTasks.clear();
+		}
+
+		// Set the status and progress unless the request was canceled
+		if (concurrentStatus.compareAndSet(FormStatus.Processing,
+				FormStatus.Processed)) {
+			progress = 1.0;
 		}
-		// Set the status
-		concurrentStatus.set(FormStatus.Processed);
 
 		// Assign the concurrentForm reference to form.
 		form = concurrentForm.get();
@@ -957,4 +1157,115 @@ public class ReactorAnalyzer extends Item implements Runnable {
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * <p>
+	 * This operation creates a new analysis document for the input and
+	 * reference data so that a type of asset can be generated without sharing
+	 * the document with the others. The documents still share the input and
+	 * reference IDataProviders. This is safe because the documents only read
+	 * them and reading an LWRDataProvider does not change it, so it can be
+	 * read by several threads at once.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The document, or null if the analysis tool can not create one.
+	 *         </p>
+	 */
+	private IAnalysisDocument createAssetDocument() {
+
+		// Local Declarations
+		IAnalysisDocument document = null;
+
+		if (analysisTool != null && inputDataProvider != null) {
+			document = analysisTool.createDocument(inputDataProvider);
+			if (document != null && referenceDataProvider != null) {
+				document.loadReferenceData(referenceDataProvider);
+			}
+		}
+
+		return document;
+	}
+
+	/**
+	 * <p>
+	 * AssetTask generates the assets of one of the selected asset types and
+	 * records how long they took. The assets are generated with the task's own
+	 * document if it has one and with the first document in the
+	 * analysisDocuments list otherwise.
+	 * </p>
+	 * 
+	 */
+	private class AssetTask extends RecursiveTask<ArrayList<IAnalysisAsset>> {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The name of the asset type.
+		 */
+		private final String assetName;
+
+		/**
+		 * The document of the task or null if it shares the first document.
+		 */
+		private final IAnalysisDocument document;
+
+		/**
+		 * The number of times that the asset type was selected.
+		 */
+		private int count;
+
+		/**
+		 * The time in milliseconds that the assets took to generate.
+		 */
+		private volatile long time;
+
+		/**
+		 * The Constructor
+		 * 
+		 * @param assetName
+		 *            The name of the asset type
+		 * @param document
+		 *            The document of the task or null if it shares the first
+		 *            document
+		 */
+		private AssetTask(String assetName, IAnalysisDocument document) {
+			this.assetName = assetName;
+			this.document = document;
+			this.count = 0;
+			this.time = 0;
+		}
+
+		@Override
+		protected ArrayList<IAnalysisAsset> compute() {
+
+			// Local Declarations
+			ArrayList<IAnalysisAsset> assets = new ArrayList<IAnalysisAsset>();
+			ArrayList<String> selection = new ArrayList<String>();
+			IAnalysisDocument assetDocument = document;
+			long start = System.nanoTime();
+
+			// Use the shared document if needed
+			if (assetDocument == null && !analysisDocuments.isEmpty()) {
+				assetDocument = analysisDocuments.get(0);
+			}
+
+			// Generate the assets one at a time
+			selection.add(assetName);
+			for (int i = 0; assetDocument != null && i < count
+					&& !processCancelled.get(); i++) {
+				assetDocument.setSelectedAssets(selection);
+				assetDocument.createSelectedAssets();
+				if (assetDocument.getAllAssets() != null) {
+					assets.addAll(assetDocument.getAllAssets());
+				}
+			}
+			time = (System.nanoTime() - start) / 1000000;
+
+			return assets;
+		}
+	}
+
+}
@@ -14,6 +14,7 @@ package org.eclipse.ice.reactorAnalyzer;
 
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 import org.eclipse.ice.reactor.LWRComponentReader;
+import org.eclipse.ice.reactor.LWRDataSource;
 import org.eclipse.ice.reactor.pwr.PressurizedWaterReactor;
 import org.eclipse.ice.reactor.sfr.base.SFReactorIOHandler;
 import org.eclipse.ice.reactor.sfr.core.SFReactor;
@@ -21,6 +22,7 @@ import org.eclipse.ice.reactor.sfr.core.SFReactor;
 import java.io.File;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 
 import ncsa.hdf.hdf5lib.H5;
@@ -36,14 +38,24 @@ public class ReactorReaderFactory {
 	private interface IReactorFactory {
 		public IReactorComponent read(URI uri);
 
+		public IReactorComponent readLazily(URI uri, LWRDataSource dataSource);
+
 		public void copy(IReactorComponent src, IReactorComponent dst);
 	}
 
 	private Map<Class, IReactorFactory> reactorFactoryMap;
 
+	/**
+	 * The sources that read the data of the reactors that were read lazily by
+	 * this factory, keyed on the reactors, until they are released with
+	 * {@link #releaseReactor(IReactorComponent)}.
+	 */
+	private final Map<IReactorComponent, LWRDataSource> dataSources;
+
 	public ReactorReaderFactory() {
 
 		reactorFactoryMap = new HashMap<Class, IReactorFactory>();
+		dataSources = new IdentityHashMap<IReactorComponent, LWRDataSource>();
 		reactorFactoryMap.put(PressurizedWaterReactor.class,
 				new IReactorFactory() {
 					public IReactorComponent read(URI uri) {
@@ -51,6 +63,12 @@ public class ReactorReaderFactory {
 								.read(uri);
 					}
 
+					public IReactorComponent readLazily(URI uri,
+							LWRDataSource dataSource) {
+						return (PressurizedWaterReactor) new LWRComponentReader()
+								.readLazily(uri, dataSource);
+					}
+
 					public void copy(IReactorComponent src,
 							IReactorComponent dst) {
 						((PressurizedWaterReactor) dst)
@@ -63,6 +81,12 @@ public class ReactorReaderFactory {
 				return new SFReactorIOHandler().readHDF5(uri);
 			}
 
+			public IReactorComponent readLazily(URI uri,
+					LWRDataSource dataSource) {
+				// SFReactors are always read in full.
+				return read(uri);
+			}
+
 			public void copy(IReactorComponent src, IReactorComponent dst) {
 				((SFReactor) dst).copy((SFReactor) src);
 				return;
@@ -82,6 +106,28 @@ public class ReactorReaderFactory {
 	 *         <code>null</code> if the file could not be read.
 	 */
 	public IReactorComponent readReactor(URI source) {
+		return readReactor(source, 0);
+	}
+
+	/**
+	 * This method reads the structure of the reactor in a given file into an
+	 * implementation of an IReactorComponent, but leaves the data in the file
+	 * until it is first needed. The data of each assembly or rod is then read
+	 * from the file and kept in a least recently used cache, which is limited
+	 * to the given size. This makes large files available almost immediately.
+	 * SFReactors do not support this yet and are always read in full. The file
+	 * stays open to read the data until the reactor is released with
+	 * {@link #releaseReactor(IReactorComponent)}.
+	 * 
+	 * @param source
+	 *            The URI of the source data file.
+	 * @param cacheSize
+	 *            The size of the cache of data in bytes. If it is 0 or less,
+	 *            all of the data is read now.
+	 * @return An instance of an implementation of IReactorComponent, or
+	 *         <code>null</code> if the file could not be read.
+	 */
+	public IReactorComponent readReactor(URI source, long cacheSize) {
 
 		// Declare a component to return.
 		IReactorComponent component = null;
@@ -214,11 +260,44 @@ public class ReactorReaderFactory {
 		// read in the component.
 		IReactorFactory factory = reactorFactoryMap.get(type);
 		if (factory != null) {
-			component = factory.read(source);
+			if (cacheSize > 0) {
+				LWRDataSource dataSource = new LWRDataSource(source, cacheSize);
+				component = factory.readLazily(source, dataSource);
+				if (component != null) {
+					synchronized (dataSources) {
+						dataSources.put(component, dataSource);
+					}
+				}
+			} else {
+				component = factory.read(source);
+			}
 		}
 		return component;
 	}
 
+	/**
+	 * This method releases a reactor that was read by
+	 * {@link #readReactor(URI, long)}. The file of the reactor is closed and
+	 * the cache of its data is emptied. Data that is requested from the
+	 * reactor later is read from the file again. Nothing happens if the
+	 * reactor was read in full.
+	 * 
+	 * @param component
+	 *            The reactor that is no longer needed.
+	 */
+	public void releaseReactor(IReactorComponent component) {
+
+		LWRDataSource dataSource;
+
+		synchronized (dataSources) {
+			dataSource = dataSources.remove(component);
+		}
+		if (dataSource != null) {
+			dataSource.close();
+		}
+		return;
+	}
+
 	/**
 	 * Copies the information from a source IReactorComponent instance to
 	 * another IReactorComponent.
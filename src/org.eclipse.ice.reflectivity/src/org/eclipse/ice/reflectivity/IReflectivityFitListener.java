@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings, John Ankner
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+/**
+ * This interface is implemented by classes that need to follow the progress
+ * of a {@link ReflectivityFitter} while it runs.
+ * 
+ * @author Jay Jay Billings, John Ankner
+ *
+ */
+public interface IReflectivityFitListener {
+
+	/**
+	 * This operation is called by the fitter after each iteration of the fit.
+	 * It is called once with an iteration of 0 for the starting values.
+	 * 
+	 * @param iteration
+	 *            the number of the iteration that was just finished
+	 * @param chiSquared
+	 *            the chi-squared value of the best set of parameters found so
+	 *            far
+	 * @param slabs
+	 *            a copy of the best set of slabs found so far
+	 */
+	public void update(int iteration, double chiSquared, Slab[] slabs);
+
+}
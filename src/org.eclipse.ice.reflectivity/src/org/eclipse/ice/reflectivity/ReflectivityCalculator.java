@@ -11,6 +11,9 @@
  *******************************************************************************/
 package org.eclipse.ice.reflectivity;
 
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.apache.commons.math.MathException;
 import org.apache.commons.math.complex.Complex;
 import org.apache.commons.math.special.Erf;
@@ -43,6 +46,17 @@ public class ReflectivityCalculator {
 	 */
 	private static final double cE = 1.665;
 
+	/**
+	 * The number of wave vectors below which a ReflectivityTask computes the
+	 * reflectivity itself instead of splitting its range.
+	 */
+	private static final int POINTS_PER_TASK = 128;
+
+	/**
+	 * The pool that runs the ReflectivityTasks of all calculators.
+	 */
+	private static final ForkJoinPool reflectivityPool = new ForkJoinPool();
+
 	/**
 	 * This operation returns the value of the squared modulus of the specular
 	 * reflectivity for a single wave vector Q.
@@ -118,6 +132,200 @@ public class ReflectivityCalculator {
 		return modSqrdSpecRef;
 	}
 
+	/**
+	 * This operation returns the values of the squared modulus of the specular
+	 * reflectivity for every wave vector Q in an array. It produces the same
+	 * values as calling getModSqrdSpecRef() for each Q, but the properties of
+	 * the tiles are only read once and the complex arithmetic of the Parratt
+	 * recursion is done on primitives, so no objects are created per layer or
+	 * per Q. Large arrays are split into ranges that are computed in parallel.
+	 * 
+	 * @param waveVector
+	 *            the values of the wave vector
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 * @param tiles
+	 *            the list of Tiles that contains the physical parameters needed
+	 *            for the calculation, including the scattering densities,
+	 *            absorption parameters and thicknesses.
+	 * @return the squared modulus of the specular reflectivity for each Q
+	 */
+	public double[] getModSqrdSpecRef(double[] waveVector, double wavelength,
+			Tile[] tiles) {
+
+		// Local Declarations
+		int nPoints = waveVector.length;
+		double[] modSqrdSpecRef = new double[nPoints];
+
+		if (wavelength > 0.0 && nPoints > 0) {
+			// Pull the values of the tiles that are used by the recursion into
+			// arrays. They do not depend on Q.
+			int nLayers = tiles.length;
+			double[] qCSq = new double[nLayers];
+			double[] beta = new double[nLayers];
+			double[] thickness = new double[nLayers];
+			for (int i = 0; i < nLayers; i++) {
+				qCSq[i] = 16.0 * Math.PI * tiles[i].scatteringLength;
+				beta[i] = 4.0 * Math.PI
+						* (tiles[i].trueAbsLength + tiles[i].incAbsLength
+								/ wavelength);
+				thickness[i] = tiles[i].thickness;
+			}
+			// Compute the reflectivity, in parallel if there are enough points
+			ReflectivityTask task = new ReflectivityTask(waveVector,
+					modSqrdSpecRef, qCSq, beta, thickness, 0, nPoints);
+			if (nPoints > POINTS_PER_TASK) {
+				reflectivityPool.invoke(task);
+			} else {
+				task.compute();
+			}
+		}
+
+		return modSqrdSpecRef;
+	}
+
+	/**
+	 * This operation computes the squared modulus of the specular reflectivity
+	 * for a single wave vector Q from the properties of the tiles. It performs
+	 * the same Parratt recursion as getModSqrdSpecRef(double, double, Tile[]),
+	 * but each complex operation is written out in the same order as the
+	 * commons-math Complex class does it so that the results are identical for
+	 * finite values.
+	 * 
+	 * @param waveVectorQ
+	 *            the value of the wave vector
+	 * @param qCSq
+	 *            the squared critical wave vector of each tile
+	 * @param beta
+	 *            the absorption of each tile at the wavelength
+	 * @param thickness
+	 *            the thickness of each tile
+	 * @return the squared modulus of the specular reflectivity
+	 */
+	private static double computeModSqrdSpecRef(double waveVectorQ,
+			double[] qCSq, double[] beta, double[] thickness) {
+
+		// Local Declarations
+		int nLayers = qCSq.length;
+		double qSq = waveVectorQ * waveVectorQ;
+		double qNRe, qNIm, qNm1Re, qNm1Im, aRe, aIm, fRe, fIm, yRe, yIm, zRe, zIm;
+		double re, im, c, d, q, denominator, absolute, t, expReal;
+		double rNNp1Re = 0.0, rNNp1Im = 0.0, rNm1NRe = 0.0, rNm1NIm = 0.0;
+
+		// Starting point--no reflected beam in bottom-most (bulk) layer. Take
+		// the square root of qSq - qCSq - 2i * beta.
+		re = qSq - qCSq[nLayers - 1];
+		im = -2.0 * beta[nLayers - 1];
+		if (re == 0.0 && im == 0.0) {
+			qNm1Re = 0.0;
+			qNm1Im = 0.0;
+		} else {
+			if (Math.abs(re) < Math.abs(im)) {
+				q = re / im;
+				absolute = Math.abs(im) * Math.sqrt(1 + q * q);
+			} else {
+				q = im / re;
+				absolute = Math.abs(re) * Math.sqrt(1 + q * q);
+			}
+			t = Math.sqrt((Math.abs(re) + absolute) / 2.0);
+			if (re >= 0.0) {
+				qNm1Re = t;
+				qNm1Im = im / (2.0 * t);
+			} else {
+				qNm1Re = Math.abs(im) / (2.0 * t);
+				qNm1Im = (im >= 0.0 ? 1.0 : -1.0) * t;
+			}
+		}
+
+		// Loop through to calculate recursion formula described in Parratt.
+		// Start at the bottom and work up.
+		for (int i = nLayers - 1; i > 0; i--) {
+			// Calculate the normal component of Q for layer and layer-1
+			qNRe = qNm1Re;
+			qNIm = qNm1Im;
+			re = qSq - qCSq[i - 1];
+			im = -2.0 * beta[i - 1];
+			if (re == 0.0 && im == 0.0) {
+				qNm1Re = 0.0;
+				qNm1Im = 0.0;
+			} else {
+				if (Math.abs(re) < Math.abs(im)) {
+					q = re / im;
+					absolute = Math.abs(im) * Math.sqrt(1 + q * q);
+				} else {
+					q = im / re;
+					absolute = Math.abs(re) * Math.sqrt(1 + q * q);
+				}
+				t = Math.sqrt((Math.abs(re) + absolute) / 2.0);
+				if (re >= 0.0) {
+					qNm1Re = t;
+					qNm1Im = im / (2.0 * t);
+				} else {
+					qNm1Re = Math.abs(im) / (2.0 * t);
+					qNm1Im = (im >= 0.0 ? 1.0 : -1.0) * t;
+				}
+			}
+			// Calculate phase factor, e^(-0.5*d*qNm1)
+			t = -0.5 * thickness[i - 1];
+			re = qNm1Im * t;
+			im = qNm1Re * t;
+			expReal = Math.exp(re);
+			aRe = expReal * Math.cos(im);
+			aIm = expReal * Math.sin(im);
+			// CDiv(qNm1-qN,qNm1+qN)
+			re = qNm1Re - qNRe;
+			im = qNm1Im - qNIm;
+			c = qNm1Re + qNRe;
+			d = qNm1Im + qNIm;
+			if (c == 0.0 && d == 0.0) {
+				fRe = Double.NaN;
+				fIm = Double.NaN;
+			} else if (Math.abs(c) < Math.abs(d)) {
+				q = c / d;
+				denominator = c * q + d;
+				fRe = (re * q + im) / denominator;
+				fIm = (im * q - re) / denominator;
+			} else {
+				q = d / c;
+				denominator = d * q + c;
+				fRe = (im * q + re) / denominator;
+				fIm = (im - re * q) / denominator;
+			}
+			// Calculate the reflectivity amplitude.
+			// CMult(aNm1Sq, CMult(aNm1Sq, CDiv(CAdd(rNNp1, fNm1N),
+			// CAdd(CMult(rNNp1, fNm1N), CReal(1)))))
+			yRe = (rNNp1Re * fRe - rNNp1Im * fIm) + 1.0;
+			yIm = (rNNp1Re * fIm + rNNp1Im * fRe) + 0.0;
+			zRe = rNNp1Re + fRe;
+			zIm = rNNp1Im + fIm;
+			// z / y
+			if (yRe == 0.0 && yIm == 0.0) {
+				re = Double.NaN;
+				im = Double.NaN;
+			} else if (Math.abs(yRe) < Math.abs(yIm)) {
+				q = yRe / yIm;
+				denominator = yRe * q + yIm;
+				re = (zRe * q + zIm) / denominator;
+				im = (zIm * q - zRe) / denominator;
+			} else {
+				q = yIm / yRe;
+				denominator = yIm * q + yRe;
+				re = (zIm * q + zRe) / denominator;
+				im = (zIm - zRe * q) / denominator;
+			}
+			// aNm1Sq * aNm1Sq
+			c = aRe * aRe - aIm * aIm;
+			d = aRe * aIm + aIm * aRe;
+			rNm1NRe = c * re - d * im;
+			rNm1NIm = c * im + d * re;
+			// Carry over to the next iteration
+			rNNp1Re = rNm1NRe;
+			rNNp1Im = rNm1NIm;
+		}
+
+		return rNm1NRe * rNm1NRe + rNm1NIm * rNm1NIm;
+	}
+
 	/**
 	 * This operation convolutes the data in refFit with a Gaussian resolution
 	 * function in q, calculated from theta, delThe, and delLamOLam.
@@ -651,19 +859,20 @@ public class ReflectivityCalculator {
 					+ waveVecStep * ((double) i);
 		}
 
-		// Create a temporary array to hold the extended reflectivity.
-		double[] tempReflectivity = new double[numPoints + numLowPoints
-				+ numHighPoints];
 		// Generate reflectivity values for convolution.
 		// Calculate perfect-resolution reflectivity on extended wave vector
+		double[] effWaveVector = new double[numPoints + numLowPoints
+				+ numHighPoints];
 		for (int i = 0; i < numPoints + numLowPoints + numHighPoints; i++) {
 			if (tempWaveVector[i] < 1.0e-10) {
 				qEff = 1.0e-10;
 			} else {
 				qEff = tempWaveVector[i];
 			}
-			tempReflectivity[i] = getModSqrdSpecRef(qEff, wavelength, tiles);
+			effWaveVector[i] = qEff;
 		}
+		double[] tempReflectivity = getModSqrdSpecRef(effWaveVector,
+				wavelength, tiles);
 
 		// Convolve with instrumental resolution
 		convolute(tempWaveVector, deltaQ0, deltaQ1ByQ, wavelength, numPoints,
@@ -797,4 +1006,104 @@ public class ReflectivityCalculator {
 		return profile;
 	}
 
+	/**
+	 * This class computes the squared modulus of the specular reflectivity
+	 * for a range of wave vectors. Large ranges are split in half and computed
+	 * in parallel.
+	 * 
+	 * @author Jay Jay Billings
+	 *
+	 */
+	private static class ReflectivityTask extends RecursiveAction {
+
+		/**
+		 * The serial version ID
+		 */
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * The wave vectors
+		 */
+		private final double[] waveVector;
+
+		/**
+		 * The array that will hold the reflectivity of each wave vector
+		 */
+		private final double[] modSqrdSpecRef;
+
+		/**
+		 * The squared critical wave vector of each tile
+		 */
+		private final double[] qCSq;
+
+		/**
+		 * The absorption of each tile
+		 */
+		private final double[] beta;
+
+		/**
+		 * The thickness of each tile
+		 */
+		private final double[] thickness;
+
+		/**
+		 * The first index of the range
+		 */
+		private final int start;
+
+		/**
+		 * The index after the last index of the range
+		 */
+		private final int end;
+
+		/**
+		 * The constructor
+		 * 
+		 * @param waveVector
+		 *            the wave vectors
+		 * @param modSqrdSpecRef
+		 *            the array that will hold the reflectivity of each wave
+		 *            vector
+		 * @param qCSq
+		 *            the squared critical wave vector of each tile
+		 * @param beta
+		 *            the absorption of each tile
+		 * @param thickness
+		 *            the thickness of each tile
+		 * @param start
+		 *            the first index of the range
+		 * @param end
+		 *            the index after the last index of the range
+		 */
+		private ReflectivityTask(double[] waveVector, double[] modSqrdSpecRef,
+				double[] qCSq, double[] beta, double[] thickness, int start,
+				int end) {
+			this.waveVector = waveVector;
+			this.modSqrdSpecRef = modSqrdSpecRef;
+			this.qCSq = qCSq;
+			this.beta = beta;
+			this.thickness = thickness;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			// Split large ranges
+			if (end - start > POINTS_PER_TASK) {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ReflectivityTask(waveVector, modSqrdSpecRef,
+						qCSq, beta, thickness, start, middle),
+						new ReflectivityTask(waveVector, modSqrdSpecRef, qCSq,
+								beta, thickness, middle, end));
+			} else {
+				// Otherwise compute the range
+				for (int i = start; i < end; i++) {
+					modSqrdSpecRef[i] = computeModSqrdSpecRef(waveVector[i],
+							qCSq, beta, thickness);
+				}
+			}
+		}
+	}
+
 }
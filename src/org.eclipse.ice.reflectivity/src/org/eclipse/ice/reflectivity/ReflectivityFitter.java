@@ -0,0 +1,727 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings, John Ankner
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math.MathException;
+
+/**
+ * This class fits the properties of a stack of slabs to a measured
+ * reflectivity curve with the Levenberg-Marquardt method. The properties that
+ * should be fit are selected with addParameter(). All of the other properties
+ * of the slabs are held fixed.
+ * 
+ * The slab stacks needed for the finite difference derivatives of each
+ * iteration are evaluated in parallel. The interfacial profile only depends on
+ * the number of roughness layers, so it is computed once per fitter. The tiles
+ * depend on every property of the slabs, including the roughness, and every
+ * evaluation of a fit uses different properties, so they are generated for
+ * each evaluation.
+ * 
+ * Fitting is not thread safe. Each thread that fits should use its own
+ * fitter.
+ * 
+ * @author Jay Jay Billings, John Ankner
+ *
+ */
+public class ReflectivityFitter {
+
+	/**
+	 * The properties of a slab that can be fit.
+	 * 
+	 * @author Jay Jay Billings, John Ankner
+	 *
+	 */
+	public enum SlabProperty {
+		/**
+		 * The thickness of the slab
+		 */
+		THICKNESS,
+		/**
+		 * The interfacial width, or roughness, of the slab
+		 */
+		ROUGHNESS,
+		/**
+		 * The scattering length density of the slab
+		 */
+		SCATTERING_LENGTH
+	}
+
+	/**
+	 * The pool that evaluates the slab stacks of all fitters.
+	 */
+	private static final ForkJoinPool fitPool = new ForkJoinPool();
+
+	/**
+	 * The largest damping factor that is tried before the fit gives up on
+	 * finding a better set of parameters.
+	 */
+	private static final double maxDamping = 1.0e12;
+
+	/**
+	 * The calculator used to generate the tiles and the reflectivity. It has
+	 * no state, so it is shared by all of the evaluations.
+	 */
+	private final ReflectivityCalculator calculator = new ReflectivityCalculator();
+
+	/**
+	 * The measured wave vector.
+	 */
+	private final double[] waveVector;
+
+	/**
+	 * The measured reflectivity.
+	 */
+	private final double[] reflectivity;
+
+	/**
+	 * The uncertainty of each measured reflectivity value.
+	 */
+	private final double[] errors;
+
+	/**
+	 * The number of layers of roughness.
+	 */
+	private final int numRough;
+
+	/**
+	 * The zeroth order term of the Q resolution.
+	 */
+	private final double deltaQ0;
+
+	/**
+	 * The first order term of the Q resolution.
+	 */
+	private final double deltaQ1ByQ;
+
+	/**
+	 * The wavelength of the incident neutrons.
+	 */
+	private final double wavelength;
+
+	/**
+	 * The index of the slab of each fit parameter.
+	 */
+	private final ArrayList<Integer> parameterSlabs = new ArrayList<Integer>();
+
+	/**
+	 * The property of each fit parameter.
+	 */
+	private final ArrayList<SlabProperty> parameterProperties = new ArrayList<SlabProperty>();
+
+	/**
+	 * The listeners that follow the fit.
+	 */
+	private final ArrayList<IReflectivityFitListener> listeners = new ArrayList<IReflectivityFitListener>();
+
+	/**
+	 * The step sizes of the interfacial profile.
+	 */
+	private double[] zInt;
+
+	/**
+	 * The values of the error function of the interfacial profile.
+	 */
+	private double[] rufInt;
+
+	/**
+	 * The relative change in chi-squared below which the fit is converged.
+	 */
+	private double tolerance = 1.0e-8;
+
+	/**
+	 * The chi-squared value of the last fit.
+	 */
+	private double chiSquared = Double.POSITIVE_INFINITY;
+
+	/**
+	 * The constructor.
+	 * 
+	 * @param waveVector
+	 *            the measured wave vector. It must have at least two points.
+	 * @param reflectivity
+	 *            the measured reflectivity at each point of the wave vector
+	 * @param errors
+	 *            the uncertainty of each reflectivity value. If it is null,
+	 *            or an uncertainty is not positive, the uncertainty is taken
+	 *            to be the reflectivity itself so that each point contributes
+	 *            its relative error.
+	 * @param numRough
+	 *            the number of layers of roughness
+	 * @param deltaQ0
+	 *            the zeroth order term of the Q resolution
+	 * @param deltaQ1ByQ
+	 *            the first order term of the Q resolution
+	 * @param wavelength
+	 *            the wavelength of the incident neutrons
+	 */
+	public ReflectivityFitter(double[] waveVector, double[] reflectivity,
+			double[] errors, int numRough, double deltaQ0, double deltaQ1ByQ,
+			double wavelength) {
+
+		// Check the data
+		if (waveVector == null || reflectivity == null || waveVector.length < 2
+				|| reflectivity.length != waveVector.length
+				|| (errors != null && errors.length != waveVector.length)) {
+			throw new IllegalArgumentException("ReflectivityFitter Message: "
+					+ "The wave vector, reflectivity and errors must have the "
+					+ "same length of at least two points.");
+		}
+
+		this.waveVector = waveVector.clone();
+		this.reflectivity = reflectivity.clone();
+		this.numRough = numRough;
+		this.deltaQ0 = deltaQ0;
+		this.deltaQ1ByQ = deltaQ1ByQ;
+		this.wavelength = wavelength;
+
+		// Set the uncertainties
+		this.errors = new double[waveVector.length];
+		for (int i = 0; i < waveVector.length; i++) {
+			if (errors != null && errors[i] > 0.0) {
+				this.errors[i] = errors[i];
+			} else if (reflectivity[i] != 0.0) {
+				this.errors[i] = Math.abs(reflectivity[i]);
+			} else {
+				this.errors[i] = 1.0;
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation adds a property of a slab to the set of parameters that
+	 * are fit.
+	 * 
+	 * @param slabIndex
+	 *            the index of the slab in the array passed to fit()
+	 * @param property
+	 *            the property that should be fit
+	 */
+	public void addParameter(int slabIndex, SlabProperty property) {
+		if (slabIndex >= 0 && property != null) {
+			parameterSlabs.add(slabIndex);
+			parameterProperties.add(property);
+		}
+		return;
+	}
+
+	/**
+	 * This operation returns the number of parameters that are fit.
+	 * 
+	 * @return the number of parameters
+	 */
+	public int getNumberOfParameters() {
+		return parameterSlabs.size();
+	}
+
+	/**
+	 * This operation registers a listener that will be updated after each
+	 * iteration of the fit.
+	 * 
+	 * @param listener
+	 *            the listener
+	 */
+	public void addListener(IReflectivityFitListener listener) {
+		if (listener != null) {
+			listeners.add(listener);
+		}
+		return;
+	}
+
+	/**
+	 * This operation sets the relative change in chi-squared below which the
+	 * fit is considered to be converged. The default is 1.0e-8.
+	 * 
+	 * @param tolerance
+	 *            the tolerance
+	 */
+	public void setTolerance(double tolerance) {
+		this.tolerance = tolerance;
+	}
+
+	/**
+	 * This operation returns the chi-squared value of the result of the last
+	 * fit.
+	 * 
+	 * @return chi-squared
+	 */
+	public double getChiSquared() {
+		return chiSquared;
+	}
+
+	/**
+	 * This operation fits the selected parameters of the slabs to the
+	 * measured reflectivity. The slabs that are passed in are not modified.
+	 * 
+	 * @param slabs
+	 *            the slabs that define the system and the starting values of
+	 *            the parameters
+	 * @param maxIterations
+	 *            the maximum number of iterations
+	 * @return a copy of the slabs with the fitted values of the parameters
+	 * @throws MathException
+	 *             Thrown if the interfacial profile cannot be calculated
+	 */
+	public Slab[] fit(Slab[] slabs, int maxIterations) throws MathException {
+
+		// Local Declarations
+		int nParams = parameterSlabs.size(), nPoints = waveVector.length;
+		double[] params, trialParams;
+		double[] model, trialModel, residuals, step, gradient;
+		double[][] jacobian, curvature;
+		double trialChiSquared, damping = 1.0e-3;
+		boolean converged = false;
+
+		// Check the parameters
+		for (int i = 0; i < nParams; i++) {
+			if (parameterSlabs.get(i) >= slabs.length) {
+				throw new IllegalArgumentException(
+						"ReflectivityFitter Message: Parameter " + i
+								+ " refers to a slab that does not exist.");
+			}
+		}
+
+		// Evaluate the starting values
+		params = getParameters(slabs);
+		model = evaluate(slabs, params);
+		if (model == null) {
+			throw new IllegalArgumentException("ReflectivityFitter Message: "
+					+ "The starting values of the parameters are not valid.");
+		}
+		chiSquared = getChiSquared(model);
+		notifyListeners(0, slabs, params);
+
+		// Iterate until the fit converges, runs out of iterations or can no
+		// longer find a better set of parameters
+		for (int iteration = 1; iteration <= maxIterations && !converged
+				&& nParams > 0; iteration++) {
+
+			// Compute the Jacobian of the weighted residuals
+			jacobian = getJacobian(slabs, params, model);
+			residuals = new double[nPoints];
+			for (int i = 0; i < nPoints; i++) {
+				residuals[i] = (model[i] - reflectivity[i]) / errors[i];
+			}
+
+			// Compute the curvature matrix, J^T J, and the gradient, J^T r
+			curvature = new double[nParams][nParams];
+			gradient = new double[nParams];
+			for (int j = 0; j < nParams; j++) {
+				for (int k = 0; k <= j; k++) {
+					double sum = 0.0;
+					for (int i = 0; i < nPoints; i++) {
+						sum += jacobian[j][i] * jacobian[k][i];
+					}
+					curvature[j][k] = sum;
+					curvature[k][j] = sum;
+				}
+				double sum = 0.0;
+				for (int i = 0; i < nPoints; i++) {
+					sum += jacobian[j][i] * residuals[i];
+				}
+				gradient[j] = sum;
+			}
+
+			// Increase the damping until a step reduces chi-squared
+			trialChiSquared = Double.POSITIVE_INFINITY;
+			trialModel = null;
+			trialParams = null;
+			while (damping <= maxDamping) {
+				step = solveDampedSystem(curvature, gradient, damping);
+				if (step != null) {
+					trialParams = new double[nParams];
+					for (int j = 0; j < nParams; j++) {
+						trialParams[j] = params[j] - step[j];
+					}
+					trialModel = evaluate(slabs, trialParams);
+					if (trialModel != null) {
+						trialChiSquared = getChiSquared(trialModel);
+					}
+				}
+				if (trialChiSquared < chiSquared) {
+					break;
+				}
+				damping *= 10.0;
+			}
+
+			// Accept the step if it was better
+			if (trialChiSquared < chiSquared) {
+				converged = (chiSquared - trialChiSquared) <= tolerance
+						* chiSquared;
+				params = trialParams;
+				model = trialModel;
+				chiSquared = trialChiSquared;
+				damping = Math.max(damping / 10.0, 1.0e-12);
+			} else {
+				// No better parameters can be found
+				converged = true;
+			}
+
+			notifyListeners(iteration, slabs, params);
+		}
+
+		return applyParameters(slabs, params);
+	}
+
+	/**
+	 * This operation computes the reflectivity of a set of slabs at the
+	 * measured wave vector.
+	 * 
+	 * @param slabs
+	 *            the slabs
+	 * @return the reflectivity or null if the slabs are not valid
+	 * @throws MathException
+	 *             Thrown if the interfacial profile cannot be calculated
+	 */
+	public double[] getReflectivity(Slab[] slabs) throws MathException {
+		return evaluate(slabs, getParameters(slabs));
+	}
+
+	/**
+	 * This operation computes chi-squared for a reflectivity curve.
+	 * 
+	 * @param model
+	 *            the computed reflectivity
+	 * @return chi-squared
+	 */
+	private double getChiSquared(double[] model) {
+		double sum = 0.0;
+		for (int i = 0; i < model.length; i++) {
+			double residual = (model[i] - reflectivity[i]) / errors[i];
+			sum += residual * residual;
+		}
+		// Treat a NaN as the worst possible fit
+		return Double.isNaN(sum) ? Double.POSITIVE_INFINITY : sum;
+	}
+
+	/**
+	 * This operation computes the Jacobian of the weighted residuals with
+	 * respect to the parameters by forward differences. The perturbed slab
+	 * stacks are evaluated in parallel.
+	 * 
+	 * @param slabs
+	 *            the slabs
+	 * @param params
+	 *            the current values of the parameters
+	 * @param model
+	 *            the reflectivity at the current values
+	 * @return the Jacobian, stored with one row per parameter
+	 */
+	private double[][] getJacobian(final Slab[] slabs, double[] params,
+			double[] model) {
+
+		// Local Declarations
+		int nParams = params.length, nPoints = model.length;
+		double[][] jacobian = new double[nParams][nPoints];
+		double[] steps = new double[nParams];
+		final ArrayList<double[]> perturbedParams = new ArrayList<double[]>();
+		ArrayList<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>();
+		List<Future<double[]>> results;
+
+		// Create the perturbed parameters. Thicknesses and roughnesses are
+		// stepped up so that they stay positive.
+		for (int j = 0; j < nParams; j++) {
+			double[] perturbed = params.clone();
+			steps[j] = 1.0e-6 * Math.max(Math.abs(params[j]),
+					getTypicalValue(parameterProperties.get(j)));
+			perturbed[j] += steps[j];
+			perturbedParams.add(perturbed);
+		}
+
+		// Make sure the interfacial profile exists before the tasks use it
+		try {
+			getInterfacialProfile();
+		} catch (MathException e) {
+			e.printStackTrace();
+			return jacobian;
+		}
+
+		// Evaluate the perturbed stacks in parallel
+		for (int j = 0; j < nParams; j++) {
+			final double[] perturbed = perturbedParams.get(j);
+			tasks.add(new Callable<double[]>() {
+				@Override
+				public double[] call() throws Exception {
+					return evaluate(applyParameters(slabs, perturbed));
+				}
+			});
+		}
+		results = fitPool.invokeAll(tasks);
+
+		// Compute the derivatives. Stacks that could not be evaluated do not
+		// contribute.
+		for (int j = 0; j < nParams; j++) {
+			double[] perturbedModel = null;
+			try {
+				perturbedModel = results.get(j).get();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				e.printStackTrace();
+			} catch (ExecutionException e) {
+				e.printStackTrace();
+			}
+			if (perturbedModel != null) {
+				for (int i = 0; i < nPoints; i++) {
+					jacobian[j][i] = (perturbedModel[i] - model[i])
+							/ (steps[j] * errors[i]);
+				}
+			}
+		}
+
+		return jacobian;
+	}
+
+	/**
+	 * This operation returns the typical magnitude of a property. It is used
+	 * to size the finite difference steps of parameters that are zero.
+	 * 
+	 * @param property
+	 *            the property
+	 * @return the typical magnitude
+	 */
+	private double getTypicalValue(SlabProperty property) {
+		return (property == SlabProperty.SCATTERING_LENGTH) ? 1.0e-6 : 1.0;
+	}
+
+	/**
+	 * This operation solves (A + damping * diag(A)) x = b with Gaussian
+	 * elimination and partial pivoting. Parameters that have no effect on the
+	 * reflectivity are given a step of zero.
+	 * 
+	 * @param curvature
+	 *            the matrix A
+	 * @param gradient
+	 *            the vector b
+	 * @param damping
+	 *            the damping factor
+	 * @return the solution x or null if the system is singular
+	 */
+	private double[] solveDampedSystem(double[][] curvature, double[] gradient,
+			double damping) {
+
+		// Local Declarations
+		int n = gradient.length;
+		double[][] a = new double[n][n + 1];
+
+		// Create the augmented matrix
+		for (int j = 0; j < n; j++) {
+			if (curvature[j][j] > 0.0) {
+				for (int k = 0; k < n; k++) {
+					a[j][k] = curvature[j][k];
+				}
+				a[j][j] *= 1.0 + damping;
+				a[j][n] = gradient[j];
+			} else {
+				a[j][j] = 1.0;
+			}
+		}
+
+		// Eliminate
+		for (int k = 0; k < n; k++) {
+			int pivot = k;
+			for (int j = k + 1; j < n; j++) {
+				if (Math.abs(a[j][k]) > Math.abs(a[pivot][k])) {
+					pivot = j;
+				}
+			}
+			if (a[pivot][k] == 0.0) {
+				return null;
+			}
+			double[] tmp = a[k];
+			a[k] = a[pivot];
+			a[pivot] = tmp;
+			for (int j = k + 1; j < n; j++) {
+				double factor = a[j][k] / a[k][k];
+				for (int l = k; l <= n; l++) {
+					a[j][l] -= factor * a[k][l];
+				}
+			}
+		}
+
+		// Substitute back
+		double[] x = new double[n];
+		for (int j = n - 1; j >= 0; j--) {
+			double sum = a[j][n];
+			for (int k = j + 1; k < n; k++) {
+				sum -= a[j][k] * x[k];
+			}
+			x[j] = sum / a[j][j];
+		}
+
+		return x;
+	}
+
+	/**
+	 * This operation computes the reflectivity of the slabs with the given
+	 * parameters.
+	 * 
+	 * @param slabs
+	 *            the slabs
+	 * @param params
+	 *            the values of the parameters
+	 * @return the reflectivity or null if the parameters are not valid
+	 * @throws MathException
+	 *             Thrown if the interfacial profile cannot be calculated
+	 */
+	private double[] evaluate(Slab[] slabs, double[] params)
+			throws MathException {
+		getInterfacialProfile();
+		return evaluate(applyParameters(slabs, params));
+	}
+
+	/**
+	 * This operation computes the reflectivity of a set of slabs. The slabs
+	 * are modified during the calculation, so they must not be shared. The
+	 * interfacial profile must already exist.
+	 * 
+	 * @param slabs
+	 *            the slabs
+	 * @return the reflectivity or null if the slabs are not valid
+	 * @throws MathException
+	 *             Thrown if the tiles cannot be generated
+	 */
+	private double[] evaluate(Slab[] slabs) throws MathException {
+
+		// Thicknesses and interfacial widths can not be negative
+		for (int i = 0; i < slabs.length; i++) {
+			if (slabs[i].thickness < 0.0
+					|| slabs[i].interfaceWidth < 0.0) {
+				return null;
+			}
+		}
+
+		// Correct the refractive indices for incident medium
+		double qCCorr = slabs[0].scatteringLength;
+		for (int i = 0; i < slabs.length; i++) {
+			slabs[i].scatteringLength -= qCCorr;
+		}
+
+		// Generate the tiles
+		Tile[] tiles = calculator.generateTiles(slabs, numRough, zInt, rufInt);
+
+		return calculator.convoluteReflectivity(deltaQ0, deltaQ1ByQ,
+				wavelength, false, waveVector, tiles);
+	}
+
+	/**
+	 * This operation computes the interfacial profile if it has not already
+	 * been computed. It only depends on the number of roughness layers.
+	 * 
+	 * @throws MathException
+	 *             Thrown if the error function cannot be calculated
+	 */
+	private void getInterfacialProfile() throws MathException {
+		if (zInt == null) {
+			double[] z = new double[ReflectivityCalculator.maxRoughSize];
+			double[] ruf = new double[ReflectivityCalculator.maxRoughSize];
+			calculator.getInterfacialProfile(numRough, z, ruf);
+			rufInt = ruf;
+			zInt = z;
+		}
+		return;
+	}
+
+	/**
+	 * This operation gets the values of the parameters from a set of slabs.
+	 * 
+	 * @param slabs
+	 *            the slabs
+	 * @return the values of the parameters
+	 */
+	private double[] getParameters(Slab[] slabs) {
+		double[] params = new double[parameterSlabs.size()];
+		for (int j = 0; j < params.length; j++) {
+			Slab slab = slabs[parameterSlabs.get(j)];
+			switch (parameterProperties.get(j)) {
+			case THICKNESS:
+				params[j] = slab.thickness;
+				break;
+			case ROUGHNESS:
+				params[j] = slab.interfaceWidth;
+				break;
+			case SCATTERING_LENGTH:
+				params[j] = slab.scatteringLength;
+				break;
+			}
+		}
+		return params;
+	}
+
+	/**
+	 * This operation creates a copy of a set of slabs with the values of the
+	 * parameters applied to it.
+	 * 
+	 * @param slabs
+	 *            the slabs
+	 * @param params
+	 *            the values of the parameters
+	 * @return the copy
+	 */
+	private Slab[] applyParameters(Slab[] slabs, double[] params) {
+
+		// Copy the slabs
+		Slab[] copies = new Slab[slabs.length];
+		for (int i = 0; i < slabs.length; i++) {
+			copies[i] = new Slab();
+			copies[i].scatteringLength = slabs[i].scatteringLength;
+			copies[i].trueAbsLength = slabs[i].trueAbsLength;
+			copies[i].incAbsLength = slabs[i].incAbsLength;
+			copies[i].thickness = slabs[i].thickness;
+			copies[i].interfaceWidth = slabs[i].interfaceWidth;
+		}
+
+		// Apply the parameters
+		for (int j = 0; j < params.length; j++) {
+			Slab slab = copies[parameterSlabs.get(j)];
+			switch (parameterProperties.get(j)) {
+			case THICKNESS:
+				slab.thickness = params[j];
+				break;
+			case ROUGHNESS:
+				slab.interfaceWidth = params[j];
+				break;
+			case SCATTERING_LENGTH:
+				slab.scatteringLength = params[j];
+				break;
+			}
+		}
+
+		return copies;
+	}
+
+	/**
+	 * This operation updates the listeners with the state of the fit.
+	 * 
+	 * @param iteration
+	 *            the iteration
+	 * @param slabs
+	 *            the slabs
+	 * @param params
+	 *            the best values of the parameters
+	 */
+	private void notifyListeners(int iteration, Slab[] slabs, double[] params) {
+		for (IReflectivityFitListener listener : listeners) {
+			listener.update(iteration, chiSquared,
+					applyParameters(slabs, params));
+		}
+		return;
+	}
+
+}
@@ -12,16 +12,24 @@
  *******************************************************************************/
 package org.eclipse.ice.reflectivity;
 
+import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.util.ArrayList;
 
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 
+import org.apache.commons.math.MathException;
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.datastructures.ICEObject.ListComponent;
+import org.eclipse.ice.datastructures.form.AllowedValueType;
+import org.eclipse.ice.datastructures.form.BasicEntryContentProvider;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
 import org.eclipse.ice.datastructures.form.FormStatus;
 import org.eclipse.ice.datastructures.form.Material;
 import org.eclipse.ice.datastructures.form.ResourceComponent;
@@ -40,6 +48,92 @@ import org.eclipse.ice.materials.MaterialWritableTableFormat;
 @XmlRootElement(name = "ReflectivityModel")
 public class ReflectivityModel extends Model {
 
+	/**
+	 * The name of the action that fits the layers to measured data.
+	 */
+	@XmlTransient
+	protected static final String fitActionString = "Fit Reflectivity";
+
+	/**
+	 * The id of the list of materials in the Form.
+	 */
+	private static final int materialsComponentId = 1;
+
+	/**
+	 * The id of the component of fit parameters in the Form.
+	 */
+	private static final int fitComponentId = 3;
+
+	/**
+	 * The id of the component that shows the progress of a fit in the Form.
+	 */
+	private static final int progressComponentId = 4;
+
+	/**
+	 * The name of the thickness property of the materials.
+	 */
+	private static final String thicknessName = "Thickness (A)";
+
+	/**
+	 * The name of the roughness property of the materials.
+	 */
+	private static final String roughnessName = "Roughness (A)";
+
+	/**
+	 * The name of the scattering length density property of the materials.
+	 */
+	private static final String scatteringLengthName = "Scattering Length Density (A^-2)";
+
+	/**
+	 * The name of the true absorption property of the materials.
+	 */
+	private static final String trueAbsName = "Mu_abs (A^-2)";
+
+	/**
+	 * The name of the incoherent absorption property of the materials.
+	 */
+	private static final String incAbsName = "Mu_inc (A^-1)";
+
+	/**
+	 * The name of the Entry for the file of measured data.
+	 */
+	private static final String dataFileName = "Data File";
+
+	/**
+	 * The name of the Entry for the number of roughness layers.
+	 */
+	private static final String numRoughName = "Number of Roughness Layers";
+
+	/**
+	 * The name of the Entry for the zeroth order Q resolution term.
+	 */
+	private static final String deltaQ0Name = "Delta Q0";
+
+	/**
+	 * The name of the Entry for the first order Q resolution term.
+	 */
+	private static final String deltaQ1ByQName = "Delta Q1/Q";
+
+	/**
+	 * The name of the Entry for the wavelength.
+	 */
+	private static final String wavelengthName = "Wavelength (A)";
+
+	/**
+	 * The name of the Entry for the maximum number of iterations.
+	 */
+	private static final String maxIterationsName = "Maximum Iterations";
+
+	/**
+	 * The name of the Entry for the number of fit iterations.
+	 */
+	private static final String iterationName = "Iteration";
+
+	/**
+	 * The name of the Entry for chi-squared.
+	 */
+	private static final String chiSquaredName = "Chi Squared";
+
 	/**
 	 * The constructor.
 	 */
@@ -66,7 +160,268 @@ public class ReflectivityModel extends Model {
 	 */
 	@Override
 	public FormStatus process(String actionName) {
-		return super.process(actionName);
+
+		// Local Declarations
+		FormStatus retStatus;
+
+		if (fitActionString.equals(actionName)) {
+			retStatus = fit();
+		} else {
+			retStatus = super.process(actionName);
+		}
+
+		return retStatus;
+	}
+
+	/**
+	 * This operation fits the thicknesses, roughnesses and scattering length
+	 * densities of the layers between the incident medium and the substrate
+	 * to the data in the data file. The roughness and scattering length
+	 * density of the substrate are also fit. The iteration and chi-squared
+	 * value in the Form are updated as the fit runs, the materials are
+	 * updated with the fitted values when it finishes and the fitted
+	 * reflectivity and scattering density profiles are written to the output
+	 * files.
+	 * 
+	 * @return the status of the fit
+	 */
+	private FormStatus fit() {
+
+		// Local Declarations
+		ListComponent<Material> matList;
+		DataComponent fitComponent, progressComponent;
+		final Entry iterationEntry, chiSquaredEntry;
+		Slab[] slabs;
+		ArrayList<double[]> data;
+		ReflectivityFitter fitter;
+		int numRough, maxIterations;
+		double deltaQ0, deltaQ1ByQ, wavelength;
+
+		// The fit needs the project for its input and output files
+		if (project == null || !(form.getComponent(fitComponentId) instanceof DataComponent)) {
+			return FormStatus.InfoError;
+		}
+
+		// Get the components
+		matList = (ListComponent<Material>) form
+				.getComponent(materialsComponentId);
+		fitComponent = (DataComponent) form.getComponent(fitComponentId);
+		progressComponent = (DataComponent) form
+				.getComponent(progressComponentId);
+		iterationEntry = progressComponent.retrieveEntry(iterationName);
+		chiSquaredEntry = progressComponent.retrieveEntry(chiSquaredName);
+
+		try {
+			// Get the parameters
+			numRough = Integer.parseInt(fitComponent
+					.retrieveEntry(numRoughName).getValue().trim());
+			deltaQ0 = Double.parseDouble(fitComponent
+					.retrieveEntry(deltaQ0Name).getValue().trim());
+			deltaQ1ByQ = Double.parseDouble(fitComponent
+					.retrieveEntry(deltaQ1ByQName).getValue().trim());
+			wavelength = Double.parseDouble(fitComponent
+					.retrieveEntry(wavelengthName).getValue().trim());
+			maxIterations = Integer.parseInt(fitComponent
+					.retrieveEntry(maxIterationsName).getValue().trim());
+
+			// Load the data and create the fitter
+			data = readData(project.getFile(fitComponent.retrieveEntry(
+					dataFileName).getValue()));
+			fitter = new ReflectivityFitter(data.get(0), data.get(1),
+					data.get(2), numRough, deltaQ0, deltaQ1ByQ, wavelength);
+		} catch (NumberFormatException | IOException | CoreException e) {
+			// Complain
+			System.err.println("ReflectivityModel Error: "
+					+ "Unable to read the fit parameters or the data file!");
+			e.printStackTrace();
+			return FormStatus.InfoError;
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return FormStatus.InfoError;
+		}
+
+		// There must be an incident medium and a substrate
+		if (matList.size() < 2) {
+			System.err.println("ReflectivityModel Error: "
+					+ "At least two materials are required for a fit!");
+			return FormStatus.InfoError;
+		}
+
+		// Create the slabs and select the parameters
+		slabs = new Slab[matList.size()];
+		for (int i = 0; i < slabs.length; i++) {
+			Material material = matList.get(i);
+			slabs[i] = new Slab();
+			slabs[i].thickness = material.getProperty(thicknessName);
+			slabs[i].interfaceWidth = material.getProperty(roughnessName);
+			slabs[i].scatteringLength = material
+					.getProperty(scatteringLengthName);
+			slabs[i].trueAbsLength = material.getProperty(trueAbsName);
+			slabs[i].incAbsLength = material.getProperty(incAbsName);
+			if (i > 0) {
+				if (i < slabs.length - 1) {
+					fitter.addParameter(i,
+							ReflectivityFitter.SlabProperty.THICKNESS);
+				}
+				fitter.addParameter(i,
+						ReflectivityFitter.SlabProperty.ROUGHNESS);
+				fitter.addParameter(i,
+						ReflectivityFitter.SlabProperty.SCATTERING_LENGTH);
+			}
+		}
+
+		// Stream the progress of the fit into the Form
+		fitter.addListener(new IReflectivityFitListener() {
+			@Override
+			public void update(int iteration, double chiSquared, Slab[] slabs) {
+				iterationEntry.setValue(String.valueOf(iteration));
+				chiSquaredEntry.setValue(String.valueOf(chiSquared));
+			}
+		});
+
+		try {
+			// Fit the slabs
+			slabs = fitter.fit(slabs, maxIterations);
+		} catch (MathException e) {
+			// Complain
+			System.err.println("ReflectivityModel Error: "
+					+ "Unable to generate the interfacial profile!");
+			e.printStackTrace();
+			return FormStatus.InfoError;
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			return FormStatus.InfoError;
+		}
+
+		// Update the materials
+		for (int i = 0; i < slabs.length; i++) {
+			Material material = matList.get(i);
+			material.setProperty(thicknessName, slabs[i].thickness);
+			material.setProperty(roughnessName, slabs[i].interfaceWidth);
+			material.setProperty(scatteringLengthName,
+					slabs[i].scatteringLength);
+		}
+
+		// Write the fitted profiles
+		ReflectivityProfile profile = new ReflectivityCalculator()
+				.getReflectivityProfile(slabs, numRough, deltaQ0, deltaQ1ByQ,
+						wavelength, data.get(0), false);
+		if (profile != null) {
+			String basename = "reflectivityModel_" + getId() + "_";
+			StringBuilder reflectivityLines = new StringBuilder(
+					"#features,Q,R\n#units,A^-1,R\n");
+			StringBuilder scatteringLines = new StringBuilder(
+					"#features,z,Scattering Density\n#units,A,A^-2\n");
+			for (int i = 0; i < profile.reflectivity.length; i++) {
+				reflectivityLines.append(profile.waveVector[i] + ","
+						+ profile.reflectivity[i] + "\n");
+			}
+			for (int i = 0; i < profile.depth.length; i++) {
+				scatteringLines.append(profile.depth[i] + ","
+						+ profile.scatteringDensity[i] + "\n");
+			}
+			try {
+				writeFile(project.getFile(basename + "rfd.csv"),
+						reflectivityLines.toString());
+				writeFile(project.getFile(basename + "scdens.csv"),
+						scatteringLines.toString());
+			} catch (CoreException e) {
+				// Complain
+				System.err.println("ReflectivityModel Error: "
+						+ "Problem writing reflectivity files!");
+				e.printStackTrace();
+			}
+		}
+
+		return FormStatus.Processed;
+	}
+
+	/**
+	 * This operation reads measured reflectivity data from a CSV file. Each
+	 * line should have the wave vector, the reflectivity and, optionally, the
+	 * uncertainty of the reflectivity. Lines that start with # and lines that
+	 * do not start with a number are skipped.
+	 * 
+	 * @param file
+	 *            the file
+	 * @return a list with the wave vector, the reflectivity and the
+	 *         uncertainties, which are null if the file does not have them
+	 * @throws IOException
+	 * @throws CoreException
+	 */
+	private ArrayList<double[]> readData(IFile file) throws IOException,
+			CoreException {
+
+		// Local Declarations
+		ArrayList<double[]> rows = new ArrayList<double[]>();
+		ArrayList<double[]> data = new ArrayList<double[]>();
+		boolean hasErrors = true;
+		String line;
+
+		// Read the rows
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				file.getContents()));
+		try {
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.isEmpty() || line.startsWith("#")
+						|| !(Character.isDigit(line.charAt(0))
+								|| line.charAt(0) == '.' || line.charAt(0) == '-')) {
+					continue;
+				}
+				String[] values = line.split(",");
+				double[] row = new double[values.length];
+				for (int i = 0; i < values.length; i++) {
+					row[i] = Double.parseDouble(values[i].trim());
+				}
+				if (row.length < 2) {
+					throw new IOException("ReflectivityModel Message: "
+							+ "Data files need at least two columns.");
+				}
+				hasErrors &= row.length > 2;
+				rows.add(row);
+			}
+		} finally {
+			reader.close();
+		}
+
+		// Split them into columns
+		double[] waveVector = new double[rows.size()];
+		double[] reflectivity = new double[rows.size()];
+		double[] errors = (hasErrors) ? new double[rows.size()] : null;
+		for (int i = 0; i < rows.size(); i++) {
+			waveVector[i] = rows.get(i)[0];
+			reflectivity[i] = rows.get(i)[1];
+			if (hasErrors) {
+				errors[i] = rows.get(i)[2];
+			}
+		}
+		data.add(waveVector);
+		data.add(reflectivity);
+		data.add(errors);
+
+		return data;
+	}
+
+	/**
+	 * This operation writes the contents of a file in the project, creating it
+	 * if it does not exist.
+	 * 
+	 * @param file
+	 *            the file
+	 * @param contents
+	 *            the contents
+	 * @throws CoreException
+	 */
+	private void writeFile(IFile file, String contents) throws CoreException {
+		ByteArrayInputStream stream = new ByteArrayInputStream(
+				contents.getBytes());
+		if (file.exists()) {
+			file.setContents(stream, true, false, null);
+		} else {
+			file.create(stream, true, null);
+		}
+		return;
 	}
 
 	/*
@@ -100,17 +455,17 @@ public class ReflectivityModel extends Model {
 		// Configure a list of property names for the materials
 		ArrayList<String> names = new ArrayList<String>();
 		names.add("Material ID");
-		names.add("Thickness (A)");
-		names.add("Roughness (A)");
-		names.add("Scattering Length Density (A^-2)");
-		names.add("Mu_abs (A^-2)");
-		names.add("Mu_inc (A^-1)");
+		names.add(thicknessName);
+		names.add(roughnessName);
+		names.add(scatteringLengthName);
+		names.add(trueAbsName);
+		names.add(incAbsName);
 		// Create the writable format to be used by the list
 		MaterialWritableTableFormat format = new MaterialWritableTableFormat(names);
 		
 		// Create the list that will contain all of the material information
 		ListComponent<Material> matList = new ListComponent<Material>();
-		matList.setId(1);
+		matList.setId(materialsComponentId);
 		matList.setName("Reflectivity Input Data");
 		matList.setDescription("Reflectivity Input Data");
 		matList.add(new Material());
@@ -162,6 +517,11 @@ public class ReflectivityModel extends Model {
 				resources.addResource(reflectivitySource);
 				resources.addResource(scatDensitySource);
 				form.addComponent(resources);
+
+				// Create the components for fitting the layers to measured
+				// data
+				form.addComponent(createFitComponent());
+				form.addComponent(createProgressComponent());
 			} catch (CoreException | IOException e) {
 				// Complain
 				System.err.println("ReflectivityModel Error: "
@@ -173,6 +533,94 @@ public class ReflectivityModel extends Model {
 		return;
 	}
 
+	/**
+	 * This operation creates the component that holds the parameters of a
+	 * fit.
+	 * 
+	 * @return the component
+	 */
+	private DataComponent createFitComponent() {
+
+		// Local Declarations
+		DataComponent fitComponent = new DataComponent();
+		String[][] entries = {
+				{ dataFileName, "",
+						"The CSV file in the project with the measured Q, R "
+								+ "and, optionally, the uncertainty of R" },
+				{ numRoughName, "41", "The number of layers of roughness" },
+				{ deltaQ0Name, "0.0",
+						"The zeroth order term of the Q resolution" },
+				{ deltaQ1ByQName, "0.02",
+						"The first order term of the Q resolution" },
+				{ wavelengthName, "5.0",
+						"The wavelength of the incident neutrons" },
+				{ maxIterationsName, "50",
+						"The maximum number of fit iterations" } };
+
+		// Create the Entries
+		for (int i = 0; i < entries.length; i++) {
+			fitComponent.addEntry(createEntry(i + 1, entries[i][0],
+					entries[i][1], entries[i][2]));
+		}
+
+		// Describe the component
+		fitComponent.setName("Fit Parameters");
+		fitComponent.setDescription("Parameters for fitting the layers "
+				+ "to measured reflectivity data");
+		fitComponent.setId(fitComponentId);
+
+		return fitComponent;
+	}
+
+	/**
+	 * This operation creates the component that shows the progress of a fit.
+	 * 
+	 * @return the component
+	 */
+	private DataComponent createProgressComponent() {
+
+		// Local Declarations
+		DataComponent progressComponent = new DataComponent();
+
+		// Create the Entries
+		progressComponent.addEntry(createEntry(1, iterationName, "0",
+				"The number of finished fit iterations"));
+		progressComponent.addEntry(createEntry(2, chiSquaredName, "0.0",
+				"The chi-squared value of the best fit so far"));
+
+		// Describe the component
+		progressComponent.setName("Fit Progress");
+		progressComponent.setDescription("The progress of the current fit");
+		progressComponent.setId(progressComponentId);
+
+		return progressComponent;
+	}
+
+	/**
+	 * This operation creates an Entry that accepts any value.
+	 * 
+	 * @param id
+	 *            the id of the Entry
+	 * @param name
+	 *            the name of the Entry
+	 * @param defaultValue
+	 *            the default value of the Entry
+	 * @param description
+	 *            the description of the Entry
+	 * @return the Entry
+	 */
+	private Entry createEntry(int id, String name, String defaultValue,
+			String description) {
+		BasicEntryContentProvider contentProvider = new BasicEntryContentProvider();
+		contentProvider.setAllowedValueType(AllowedValueType.Undefined);
+		contentProvider.setDefaultValue(defaultValue);
+		Entry entry = new Entry(contentProvider);
+		entry.setId(id);
+		entry.setName(name);
+		entry.setDescription(description);
+		return entry;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -190,6 +638,9 @@ public class ReflectivityModel extends Model {
 		setDescription(desc);
 		itemType = ReflectivityModelBuilder.type;
 
+		// Add the fit action
+		allowedActions.add(fitActionString);
+
 		return;
 	}
 
@@ -206,7 +657,7 @@ public class ReflectivityModel extends Model {
 		IMaterialsDatabase database = getMaterialsDatabase();
 		if (database != null) {
 			// Grab the component
-			ListComponent<Material> matList = (ListComponent<Material>) form.getComponent(1);
+			ListComponent<Material> matList = (ListComponent<Material>) form.getComponent(materialsComponentId);
 			// Set the database as an element source
 			matList.setElementSource(database);
 		}
@@ -425,6 +425,15 @@ public class CSVDataProvider implements IDataProvider {
 		return data;
 	}
 
+	/**
+	 * Returns the number of data in the series at the set current time for a
+	 * specified feature without copying the series.
+	 */
+	@Override
+	public int getNumberOfDataAtCurrentTime(String feature) {
+		return dataSet.get(currentTime).get(feature).size();
+	}
+
 	/**
 	 * Returns the values of each IData at the current time for a specified
 	 * feature.
@@ -134,8 +134,9 @@ public class CSVPlot implements IPlot {
 	 */
 	private void load(File file) {
 
-		// Load the file using the CSV utilities.
-		CSVDataLoader dataLoader = new CSVDataLoader();
+		// Load the file using the CSV utilities. The mapped loader reads the
+		// values straight into primitive columns.
+		MappedCSVDataLoader dataLoader = new MappedCSVDataLoader();
 		try {
 			baseProvider = dataLoader.load(file);
 		} catch (Exception e) {
@@ -0,0 +1,413 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.ice.analysistool.IData;
+
+/**
+ * This class is a CSVDataProvider that stores each feature of a single time
+ * step as a primitive double array instead of as a list of IData. It is
+ * created by the MappedCSVDataLoader and uses a small fraction of the memory
+ * needed by the base class for large files.
+ * <p>
+ * The IDataProvider operations remain available. The IData for a feature are
+ * only created when getDataAtCurrentTime() is called. Operations that add,
+ * remove or move data convert the provider to the representation of the base
+ * class first, after which it behaves exactly like a CSVDataProvider.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class ColumnarCSVDataProvider extends CSVDataProvider {
+
+	/**
+	 * The time at which all of the columns are stored.
+	 */
+	private static final double COLUMN_TIME = 0.0;
+
+	/**
+	 * The names of the columns, including the columns that hold
+	 * uncertainties.
+	 */
+	private final String[] columnNames;
+
+	/**
+	 * The values of the columns. Each array holds exactly one value per row.
+	 */
+	private final double[][] columns;
+
+	/**
+	 * The units of each column or null if there are none.
+	 */
+	private final String[] units;
+
+	/**
+	 * The index of the column that holds the uncertainties of each column or
+	 * -1 if it has none.
+	 */
+	private final int[] uncertaintyColumns;
+
+	/**
+	 * True for the columns that hold the uncertainties of other columns. These
+	 * are not features.
+	 */
+	private final boolean[] isUncertaintyColumn;
+
+	/**
+	 * The number of rows.
+	 */
+	private final int numberOfRows;
+
+	/**
+	 * The features that were marked as independent variables, in order.
+	 */
+	private final List<String> independentVars;
+
+	/**
+	 * True if the data was converted to the representation of the base class.
+	 */
+	private volatile boolean materialized;
+
+	/**
+	 * The Constructor
+	 *
+	 * @param columnNames
+	 *            The names of the columns
+	 * @param columns
+	 *            The values of the columns, each of which must hold
+	 *            numberOfRows values
+	 * @param numberOfRows
+	 *            The number of rows
+	 * @param units
+	 *            The units of each column or null if there are none
+	 * @param uncertaintyColumns
+	 *            The index of the column that holds the uncertainties of each
+	 *            column or -1 if it has none. This may be null if there are no
+	 *            uncertainties.
+	 * @param isUncertaintyColumn
+	 *            True for the columns that hold uncertainties. This may be null
+	 *            if there are no uncertainties.
+	 */
+	public ColumnarCSVDataProvider(String[] columnNames, double[][] columns,
+			int numberOfRows, String[] units, int[] uncertaintyColumns,
+			boolean[] isUncertaintyColumn) {
+		super();
+
+		// Local Declarations
+		int nColumns = columnNames.length;
+
+		this.columnNames = columnNames;
+		this.columns = columns;
+		this.numberOfRows = numberOfRows;
+		this.units = units;
+		if (uncertaintyColumns != null) {
+			this.uncertaintyColumns = uncertaintyColumns;
+		} else {
+			this.uncertaintyColumns = new int[nColumns];
+			Arrays.fill(this.uncertaintyColumns, -1);
+		}
+		this.isUncertaintyColumn = (isUncertaintyColumn != null) ? isUncertaintyColumn
+				: new boolean[nColumns];
+		independentVars = new ArrayList<String>();
+		materialized = false;
+	}
+
+	/**
+	 * This operation returns the index of the column for a feature.
+	 *
+	 * @param feature
+	 *            The feature
+	 * @return The index or -1 if the feature does not exist
+	 */
+	private int getColumnIndex(String feature) {
+		for (int i = 0; i < columnNames.length; i++) {
+			if (!isUncertaintyColumn[i] && columnNames[i].equals(feature)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * This operation returns the number of rows that were loaded.
+	 *
+	 * @return The number of rows
+	 */
+	public int getNumberOfRows() {
+		return numberOfRows;
+	}
+
+	/**
+	 * This operation returns the column of values of a feature without
+	 * copying it. The array must not be modified. It is not available after
+	 * the provider has been modified.
+	 *
+	 * @param feature
+	 *            The feature
+	 * @return The values of the feature or null if it does not exist or the
+	 *         provider was modified
+	 */
+	public double[] getColumn(String feature) {
+		int index = getColumnIndex(feature);
+		return (materialized || index < 0) ? null : columns[index];
+	}
+
+	/**
+	 * This operation converts the columns to the representation of the base
+	 * class so that it can be modified.
+	 */
+	private synchronized void materialize() {
+
+		if (!materialized) {
+			// Switch first so that the base class operations called below see
+			// the base class representation.
+			materialized = true;
+			if (numberOfRows > 0) {
+				for (int i = 0; i < columnNames.length; i++) {
+					if (!isUncertaintyColumn[i]) {
+						super.addDataSeries(COLUMN_TIME,
+								createData(i, new ArrayList<String>()));
+					}
+				}
+				for (String independentVar : independentVars) {
+					super.setFeatureAsIndependentVariable(independentVar);
+				}
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates the IData for one column.
+	 *
+	 * @param index
+	 *            The index of the column
+	 * @param positions
+	 *            The independent variables whose values should be set as the
+	 *            positions of the data
+	 * @return The list of IData
+	 */
+	private List<IData> createData(int index, List<String> positions) {
+
+		// Local Declarations
+		ArrayList<IData> data = new ArrayList<IData>(numberOfRows);
+		double[] values = columns[index];
+		int uncertaintyIndex = uncertaintyColumns[index];
+		double[][] positionColumns = new double[positions.size()][];
+
+		// Get the columns for the positions
+		for (int i = 0; i < positionColumns.length; i++) {
+			positionColumns[i] = columns[getColumnIndex(positions.get(i))];
+		}
+
+		// Create the data
+		for (int row = 0; row < numberOfRows; row++) {
+			CSVData csvData = new CSVData(columnNames[index], values[row]);
+			if (uncertaintyIndex >= 0) {
+				csvData.setUncertainty(columns[uncertaintyIndex][row]);
+			}
+			if (units != null) {
+				csvData.setUnits(units[index]);
+			}
+			for (double[] positionColumn : positionColumns) {
+				csvData.addPosition(positionColumn[row]);
+			}
+			data.add(csvData);
+		}
+
+		return data;
+	}
+
+	/**
+	 * This operation returns a copy of a column or null if the feature does
+	 * not exist.
+	 *
+	 * @param feature
+	 *            The feature
+	 * @return The copy of the column
+	 */
+	private double[] copyColumn(String feature) {
+		int index = getColumnIndex(feature);
+		return (index < 0 || numberOfRows == 0) ? null : Arrays.copyOf(
+				columns[index], numberOfRows);
+	}
+
+	@Override
+	public void addData(double time, IData data) {
+		materialize();
+		super.addData(time, data);
+	}
+
+	@Override
+	public void addDataSeries(double time, List<IData> dataSeries) {
+		materialize();
+		super.addDataSeries(time, dataSeries);
+	}
+
+	@Override
+	public void removeDataSeries(double time, String feature) {
+		materialize();
+		super.removeDataSeries(time, feature);
+	}
+
+	@Override
+	public void setTime(double step) {
+		if (materialized) {
+			super.setTime(step);
+		}
+		// Otherwise there is only one time, so there is nothing to change.
+	}
+
+	@Override
+	public void setTimeForFeature(double prevTime, double newTime,
+			String feature) {
+		materialize();
+		super.setTimeForFeature(prevTime, newTime, feature);
+	}
+
+	/**
+	 * Marks a feature as an independent variable. The positions of the data
+	 * are only computed when the data is requested.
+	 */
+	@Override
+	public void setFeatureAsIndependentVariable(String independent) {
+		if (materialized) {
+			super.setFeatureAsIndependentVariable(independent);
+		} else if (getColumnIndex(independent) >= 0
+				&& !independentVars.contains(independent)) {
+			independentVars.add(independent);
+		}
+	}
+
+	@Override
+	public ArrayList<String> getIndependentVariables() {
+		return (materialized) ? super.getIndependentVariables()
+				: new ArrayList<String>(independentVars);
+	}
+
+	@Override
+	public ArrayList<Double> getTimesForFeature(String feature) {
+		if (materialized) {
+			return super.getTimesForFeature(feature);
+		}
+		ArrayList<Double> times = new ArrayList<Double>();
+		if (numberOfRows > 0 && getColumnIndex(feature) >= 0) {
+			times.add(COLUMN_TIME);
+		}
+		return times;
+	}
+
+	@Override
+	public ArrayList<String> getFeatureList() {
+		if (materialized) {
+			return super.getFeatureList();
+		}
+		ArrayList<String> features = new ArrayList<String>();
+		if (numberOfRows > 0) {
+			for (int i = 0; i < columnNames.length; i++) {
+				if (!isUncertaintyColumn[i]) {
+					features.add(columnNames[i]);
+				}
+			}
+		}
+		return features;
+	}
+
+	@Override
+	public int getNumberOfTimeSteps() {
+		return (materialized) ? super.getNumberOfTimeSteps()
+				: (numberOfRows > 0 ? 1 : 0);
+	}
+
+	@Override
+	public ArrayList<IData> getDataAtCurrentTime(String feature) {
+		if (materialized) {
+			return super.getDataAtCurrentTime(feature);
+		}
+		int index = getColumnIndex(feature);
+		return (index < 0 || numberOfRows == 0) ? null
+				: new ArrayList<IData>(createData(index, independentVars));
+	}
+
+	@Override
+	public int getNumberOfDataAtCurrentTime(String feature) {
+		if (materialized) {
+			return super.getNumberOfDataAtCurrentTime(feature);
+		}
+		return (getColumnIndex(feature) < 0) ? 0 : numberOfRows;
+	}
+
+	@Override
+	public double[] getValuesAtCurrentTime(String feature) {
+		return (materialized) ? super.getValuesAtCurrentTime(feature)
+				: copyColumn(feature);
+	}
+
+	@Override
+	public double[] getUncertaintiesAtCurrentTime(String feature) {
+		if (materialized) {
+			return super.getUncertaintiesAtCurrentTime(feature);
+		}
+		// Local Declarations
+		int index = getColumnIndex(feature);
+		double[] uncertainties = null;
+		if (index >= 0 && numberOfRows > 0) {
+			uncertainties = new double[numberOfRows];
+			int uncertaintyIndex = uncertaintyColumns[index];
+			// CSVData ignores negative uncertainties, so they are zero here too
+			if (uncertaintyIndex >= 0) {
+				double[] values = columns[uncertaintyIndex];
+				for (int i = 0; i < numberOfRows; i++) {
+					uncertainties[i] = Math.max(values[i], 0.0);
+				}
+			}
+		}
+		return uncertainties;
+	}
+
+	@Override
+	public double[] getPositionAtCurrentTime(String independentVar) {
+		return (materialized) ? super.getPositionAtCurrentTime(independentVar)
+				: copyColumn(independentVar);
+	}
+
+	@Override
+	public ArrayList<String> getFeaturesAtCurrentTime() {
+		return (materialized) ? super.getFeaturesAtCurrentTime()
+				: getFeatureList();
+	}
+
+	@Override
+	public ArrayList<Double> getTimes() {
+		if (materialized) {
+			return super.getTimes();
+		}
+		ArrayList<Double> times = new ArrayList<Double>();
+		if (numberOfRows > 0) {
+			times.add(COLUMN_TIME);
+		}
+		return times;
+	}
+
+	@Override
+	public int getTimeStep(double time) {
+		return (materialized) ? super.getTimeStep(time) : getTimes().indexOf(
+				time);
+	}
+}
@@ -0,0 +1,615 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.csv;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class loads a single CSV file into a ColumnarCSVDataProvider. It
+ * accepts the same header lines as the CSVDataLoader (#features, #units,
+ * #time-units and #matrix, or a first line of feature names) but it reads the
+ * file through memory-mapped buffers and parses each number directly from the
+ * bytes of the file into a primitive column. No String or IData is created for
+ * the values, so very large files can be loaded quickly and with little
+ * memory.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class MappedCSVDataLoader {
+
+	/**
+	 * The size of the regions of the file that are mapped at one time.
+	 */
+	private static final long MAP_SIZE = 64L * 1024L * 1024L;
+
+	/**
+	 * The number of lines of data that are sampled to estimate the number of
+	 * rows in the file.
+	 */
+	private static final int SAMPLE_LINES = 256;
+
+	/**
+	 * The exact powers of ten that can be represented by a double.
+	 */
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4,
+			1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+			1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/**
+	 * The mapped region of the file that is being read.
+	 */
+	private MappedByteBuffer buffer;
+
+	/**
+	 * The channel of the file that is being read.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * The position in the file of the start of the mapped region.
+	 */
+	private long bufferStart;
+
+	/**
+	 * The size of the file.
+	 */
+	private long fileSize;
+
+	/**
+	 * The bytes of the current field.
+	 */
+	private byte[] field = new byte[64];
+
+	/**
+	 * The values parsed from the file, one array per column.
+	 */
+	private double[][] columns;
+
+	/**
+	 * The smallest value in the file.
+	 */
+	private double dataMin;
+
+	/**
+	 * The largest value in the file.
+	 */
+	private double dataMax;
+
+	/**
+	 * This operation loads a CSV file.
+	 *
+	 * @param csvInputFile
+	 *            The CSV file to load
+	 * @return The contents of the file
+	 * @throws Exception
+	 *             An exception indicating that the file could not be read or
+	 *             that it is not in the expected format
+	 */
+	public ColumnarCSVDataProvider load(File csvInputFile) throws Exception {
+
+		// Local Declarations
+		ArrayList<String> features = new ArrayList<String>();
+		ArrayList<String> units = new ArrayList<String>();
+		ArrayList<Integer> errorColumns = new ArrayList<Integer>();
+		ArrayList<Integer> baseColumns = new ArrayList<Integer>();
+		String timeUnits = null;
+		int dataWidth = 0, dataHeight = 0;
+		int featureLineLength = 0;
+		int lineNumber = 1;
+		long dataStart;
+		String line;
+		String[] commentLine;
+		boolean hasHashFeature;
+		int nColumns, nRows;
+		RandomAccessFile file = new RandomAccessFile(csvInputFile, "r");
+
+		try {
+			channel = file.getChannel();
+			fileSize = channel.size();
+			bufferStart = 0;
+			buffer = null;
+			mapRegion(0);
+
+			// Read the header the same way as the CSVDataLoader. The first line
+			// that does not contain a "#", other than the first line of the
+			// file, is the first line of data.
+			dataStart = 0;
+			while ((line = readLine()) != null
+					&& (line.contains("#") || lineNumber == 1)) {
+				// Replace ":", ";" and "/" in "#keyword: values" lines
+				if (line.matches("#\\s*\\w+\\s*([:;/]).+")) {
+					line = line.replaceAll(":", ",");
+					line = line.replaceAll(";", ",");
+					line = line.replaceAll("/", ",");
+				}
+				commentLine = line.trim().split(",");
+				for (int i = 0; i < commentLine.length; i++) {
+					commentLine[i] = commentLine[i].trim();
+				}
+				hasHashFeature = line.toLowerCase().contains("#features");
+				if (hasHashFeature || (!line.contains("#") && lineNumber == 1)) {
+					// Read the features and find their uncertainties
+					featureLineLength = commentLine.length;
+					Pattern errorPattern = Pattern
+							.compile("(.*)_(error|uncertainty)");
+					int elementOffset = (hasHashFeature ? 1 : 0);
+					for (int i = elementOffset; i < commentLine.length; i++) {
+						features.add(commentLine[i]);
+						Matcher match = errorPattern.matcher(commentLine[i]);
+						if (match.find()) {
+							baseColumns.add(features.indexOf(match.group(1)));
+							errorColumns.add(i - elementOffset);
+						}
+					}
+				} else if (line.toLowerCase().contains("#units")) {
+					if (featureLineLength == commentLine.length
+							&& featureLineLength != 0) {
+						for (int i = 1; i < commentLine.length; i++) {
+							units.add(commentLine[i]);
+						}
+					} else {
+						System.out.println("Number of units and "
+								+ "features do not match.");
+					}
+				} else if (line.toLowerCase().contains("#time-units")) {
+					timeUnits = commentLine[1];
+				} else if (line.toLowerCase().contains("#matrix")) {
+					String[] matrixData = line.split(",");
+					dataWidth = Integer.parseInt(matrixData[1]);
+					dataHeight = Integer.parseInt(matrixData[2]);
+				}
+				lineNumber++;
+				dataStart = position();
+			}
+
+			// Make sure there is data
+			if (line == null) {
+				throw new Exception("CSV file " + csvInputFile.getName()
+						+ " does not contain any data.");
+			}
+
+			// Name the columns x0, x1, ... if there were no features
+			if (features.isEmpty()) {
+				int count = line.trim().split(",").length;
+				for (int i = 0; i < count; i++) {
+					features.add("x" + i);
+				}
+			}
+
+			// Allocate the columns with an estimate of the number of rows
+			nColumns = features.size();
+			columns = new double[nColumns][estimateRows(dataStart)];
+			dataMin = Double.POSITIVE_INFINITY;
+			dataMax = Double.NEGATIVE_INFINITY;
+
+			// Go back to the first line of data and read all of the rows
+			seek(dataStart);
+			nRows = readRows(nColumns);
+		} finally {
+			channel = null;
+			buffer = null;
+			file.close();
+		}
+
+		// Trim the columns to the number of rows
+		for (int i = 0; i < nColumns; i++) {
+			if (columns[i].length != nRows) {
+				columns[i] = Arrays.copyOf(columns[i], nRows);
+			}
+		}
+
+		// Create the provider
+		int[] uncertaintyColumns = null;
+		boolean[] isUncertaintyColumn = null;
+		if (!errorColumns.isEmpty()) {
+			uncertaintyColumns = new int[nColumns];
+			isUncertaintyColumn = new boolean[nColumns];
+			Arrays.fill(uncertaintyColumns, -1);
+			for (int i = 0; i < errorColumns.size(); i++) {
+				isUncertaintyColumn[errorColumns.get(i)] = true;
+				if (baseColumns.get(i) >= 0) {
+					uncertaintyColumns[baseColumns.get(i)] = errorColumns.get(i);
+				}
+			}
+		}
+		ColumnarCSVDataProvider dataSet = new ColumnarCSVDataProvider(
+				features.toArray(new String[nColumns]), columns, nRows,
+				(units.size() == nColumns) ? units.toArray(new String[nColumns])
+						: null, uncertaintyColumns, isUncertaintyColumn);
+		dataSet.setTimeUnits(timeUnits);
+		dataSet.setDataWidth(dataWidth);
+		dataSet.setDataHeight(dataHeight);
+		if (nRows > 0) {
+			dataSet.setDataMin(dataMin);
+			dataSet.setDataMax(dataMax);
+		}
+		columns = null;
+
+		return dataSet;
+	}
+
+	/**
+	 * This operation maps the region of the file that starts at the given
+	 * position.
+	 *
+	 * @param position
+	 *            The position in the file
+	 * @throws IOException
+	 */
+	private void mapRegion(long position) throws IOException {
+		bufferStart = position;
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, position,
+				Math.min(MAP_SIZE, fileSize - position));
+	}
+
+	/**
+	 * This operation returns the position in the file of the next byte.
+	 *
+	 * @return The position
+	 */
+	private long position() {
+		return bufferStart + buffer.position();
+	}
+
+	/**
+	 * This operation moves to a position in the file.
+	 *
+	 * @param position
+	 *            The position
+	 * @throws IOException
+	 */
+	private void seek(long position) throws IOException {
+		if (position >= bufferStart
+				&& position <= bufferStart + buffer.limit()) {
+			buffer.position((int) (position - bufferStart));
+		} else {
+			mapRegion(position);
+		}
+	}
+
+	/**
+	 * This operation reads the next byte of the file.
+	 *
+	 * @return The byte or -1 at the end of the file
+	 * @throws IOException
+	 */
+	private int read() throws IOException {
+		if (!buffer.hasRemaining()) {
+			long next = bufferStart + buffer.limit();
+			if (next >= fileSize) {
+				return -1;
+			}
+			mapRegion(next);
+		}
+		return buffer.get() & 0xFF;
+	}
+
+	/**
+	 * This operation reads the next line of the file as a String. It is only
+	 * used for the header.
+	 *
+	 * @return The line without its terminator or null at the end of the file
+	 * @throws IOException
+	 */
+	private String readLine() throws IOException {
+
+		// Local Declarations
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		int next = read();
+
+		if (next == -1) {
+			return null;
+		}
+		while (next != -1 && next != '\n' && next != '\r') {
+			bytes.write(next);
+			next = read();
+		}
+		skipLineFeed(next);
+
+		return new String(bytes.toByteArray(), Charset.defaultCharset());
+	}
+
+	/**
+	 * This operation skips the line feed of a "\r\n" line terminator.
+	 *
+	 * @param terminator
+	 *            The byte that ended the line
+	 * @throws IOException
+	 */
+	private void skipLineFeed(int terminator) throws IOException {
+		if (terminator == '\r') {
+			long mark = position();
+			if (read() != '\n') {
+				seek(mark);
+			}
+		}
+	}
+
+	/**
+	 * This operation estimates the number of rows of data by measuring the
+	 * average length of the first lines of data and scaling it to the rest of
+	 * the file. A little room is left for lines that are longer than the
+	 * sample. If the sample reaches the end of the file, the number of lines
+	 * is exact. readRows() grows the columns if the estimate is too small.
+	 *
+	 * @param start
+	 *            The position of the first line of data
+	 * @return The estimated number of rows
+	 * @throws IOException
+	 */
+	private int estimateRows(long start) throws IOException {
+
+		// Local Declarations
+		int lines = 0;
+		int next = 0;
+		long sampleSize;
+		long estimate;
+
+		// Measure the first lines of data
+		seek(start);
+		while (lines < SAMPLE_LINES && (next = read()) != -1) {
+			if (next == '\n' || next == '\r') {
+				skipLineFeed(next);
+				lines++;
+			}
+		}
+		sampleSize = position() - start;
+
+		if (next == -1 || sampleSize == 0) {
+			// The whole file was read, including a last line that may not
+			// have a terminator.
+			estimate = lines + 1;
+		} else {
+			// Scale the sample to the rest of the file
+			estimate = (fileSize - start) * lines / sampleSize;
+			estimate += estimate / 16 + 16;
+		}
+
+		return (int) Math.min(estimate, Integer.MAX_VALUE - 8);
+	}
+
+	/**
+	 * This operation reads the rows of data until the end of the file, an
+	 * empty line or a line that starts with "#".
+	 *
+	 * @param nColumns
+	 *            The number of columns
+	 * @return The number of rows
+	 * @throws Exception
+	 */
+	private int readRows(int nColumns) throws Exception {
+
+		// Local Declarations
+		int nRows = 0;
+		int next = read();
+
+		while (next != -1 && next != '#' && next != '\n' && next != '\r') {
+			// Grow the columns if needed
+			if (nRows == columns[0].length) {
+				int capacity = (int) Math.min(2L * nRows + 16,
+						Integer.MAX_VALUE - 8);
+				if (capacity <= nRows) {
+					throw new Exception("CSV file has too many rows.");
+				}
+				for (int i = 0; i < nColumns; i++) {
+					columns[i] = Arrays.copyOf(columns[i], capacity);
+				}
+			}
+			// Read the fields of the line
+			int column = 0;
+			int emptyFields = 0;
+			boolean endOfLine = false;
+			while (!endOfLine) {
+				// Read the field
+				int length = 0;
+				while (next != -1 && next != ',' && next != '\n'
+						&& next != '\r') {
+					if (length == field.length) {
+						field = Arrays.copyOf(field, 2 * length);
+					}
+					field[length++] = (byte) next;
+					next = read();
+				}
+				endOfLine = (next != ',');
+				// Store it. Empty fields are only allowed at the end of the
+				// line, where String.split() would have dropped them.
+				if (isBlank(length)) {
+					emptyFields++;
+				} else {
+					if (emptyFields > 0 || column >= nColumns) {
+						throw new Exception("CSV file in an unexpected format, "
+								+ "data must be a (m x n) matrix");
+					}
+					double value = parseDouble(length);
+					columns[column][nRows] = value;
+					if (value < dataMin) {
+						dataMin = value;
+					}
+					if (value > dataMax) {
+						dataMax = value;
+					}
+					column++;
+				}
+				if (!endOfLine) {
+					next = read();
+				}
+			}
+			// Check the number of values
+			if (column != nColumns) {
+				if (column == 0) {
+					// A blank line ends the data like an empty one
+					break;
+				}
+				throw new Exception("CSV file in an unexpected format, "
+						+ "data must be a (m x n) matrix");
+			}
+			nRows++;
+			// Move to the next line
+			skipLineFeed(next);
+			next = read();
+		}
+
+		return nRows;
+	}
+
+	/**
+	 * This operation returns true if the current field only contains white
+	 * space.
+	 *
+	 * @param length
+	 *            The length of the field
+	 * @return True if the field is blank
+	 */
+	private boolean isBlank(int length) {
+		for (int i = 0; i < length; i++) {
+			if (field[i] != ' ' && field[i] != '\t') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * This operation parses the current field as a double. Decimal numbers
+	 * with up to fifteen significant digits and small exponents, which are
+	 * nearly all of the numbers written by simulation codes, are converted
+	 * exactly without creating any objects. Everything else is passed to
+	 * Double.parseDouble().
+	 *
+	 * @param length
+	 *            The length of the field
+	 * @return The value
+	 * @throws NumberFormatException
+	 *             An exception indicating that the field is not a number
+	 */
+	private double parseDouble(int length) {
+
+		// Local Declarations
+		int start = 0, end = length;
+		int i;
+		boolean negative = false;
+		long mantissa = 0;
+		int digits = 0, significantDigits = 0;
+		int exponent = 0;
+
+		// Trim the field
+		while (start < end && (field[start] == ' ' || field[start] == '\t')) {
+			start++;
+		}
+		while (end > start && (field[end - 1] == ' ' || field[end - 1] == '\t')) {
+			end--;
+		}
+		i = start;
+
+		// Read the sign
+		if (i < end && (field[i] == '-' || field[i] == '+')) {
+			negative = (field[i] == '-');
+			i++;
+		}
+		// Read the integer part
+		while (i < end && field[i] >= '0' && field[i] <= '9') {
+			if (mantissa != 0 || field[i] != '0') {
+				if (significantDigits < 18) {
+					mantissa = 10 * mantissa + (field[i] - '0');
+				} else {
+					exponent++;
+				}
+				significantDigits++;
+			}
+			digits++;
+			i++;
+		}
+		// Read the fraction
+		if (i < end && field[i] == '.') {
+			i++;
+			while (i < end && field[i] >= '0' && field[i] <= '9') {
+				if (mantissa != 0 || field[i] != '0') {
+					if (significantDigits < 18) {
+						mantissa = 10 * mantissa + (field[i] - '0');
+						exponent--;
+					}
+					significantDigits++;
+				} else {
+					exponent--;
+				}
+				digits++;
+				i++;
+			}
+		}
+		// Read the exponent
+		if (digits > 0 && i < end && (field[i] == 'e' || field[i] == 'E')) {
+			i++;
+			boolean negativeExponent = false;
+			if (i < end && (field[i] == '-' || field[i] == '+')) {
+				negativeExponent = (field[i] == '-');
+				i++;
+			}
+			int exponentDigits = 0, explicitExponent = 0;
+			while (i < end && field[i] >= '0' && field[i] <= '9') {
+				if (explicitExponent < 10000) {
+					explicitExponent = 10 * explicitExponent + (field[i] - '0');
+				}
+				exponentDigits++;
+				i++;
+			}
+			if (exponentDigits == 0) {
+				digits = 0;
+			}
+			exponent += (negativeExponent) ? -explicitExponent
+					: explicitExponent;
+		}
+
+		// Use the exact conversion if possible
+		if (digits > 0 && i == end && significantDigits <= 15) {
+			double value;
+			if (mantissa == 0) {
+				value = 0.0;
+			} else if (exponent >= 0 && exponent <= 22) {
+				value = mantissa * POWERS_OF_TEN[exponent];
+			} else if (exponent < 0 && exponent >= -22) {
+				value = mantissa / POWERS_OF_TEN[-exponent];
+			} else {
+				return slowParseDouble(start, end);
+			}
+			return (negative) ? -value : value;
+		}
+
+		return slowParseDouble(start, end);
+	}
+
+	/**
+	 * This operation parses part of the current field with
+	 * Double.parseDouble().
+	 *
+	 * @param start
+	 *            The index of the first byte
+	 * @param end
+	 *            The index after the last byte
+	 * @return The value
+	 */
+	private double slowParseDouble(int start, int end) {
+		return Double.parseDouble(new String(field, start, end - start,
+				Charset.forName("US-ASCII")));
+	}
+}
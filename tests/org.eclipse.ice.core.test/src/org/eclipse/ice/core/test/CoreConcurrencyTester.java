@@ -0,0 +1,229 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.core.internal.Core;
+import org.eclipse.ice.core.internal.itemmanager.ItemManager;
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Form;
+import org.eclipse.ice.datastructures.form.FormStatus;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * <p>
+ * The CoreConcurrencyTester drives the Core from many simulated clients at
+ * once. It checks that Items created concurrently receive unique ids and that
+ * concurrent requests on the same and on different Items all complete with the
+ * right status.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class CoreConcurrencyTester {
+
+	/**
+	 * The number of simulated clients.
+	 */
+	private static final int NUM_CLIENTS = 8;
+
+	/**
+	 * The number of Items shared by the clients.
+	 */
+	private static final int NUM_ITEMS = 16;
+
+	/**
+	 * The number of requests made by each client.
+	 */
+	private static final int NUM_REQUESTS = 2000;
+
+	/**
+	 * The Core under test.
+	 */
+	private Core iCECore;
+
+	/**
+	 * The ItemBuilder for the FakeItems used in the test.
+	 */
+	private FakeGeometryBuilder fakeGeometryBuilder;
+
+	/**
+	 * This operation sets up the Core.
+	 */
+	@Before
+	public void setup() {
+		iCECore = new Core(new ItemManager());
+		fakeGeometryBuilder = new FakeGeometryBuilder();
+		iCECore.registerItem(fakeGeometryBuilder);
+	}
+
+	/**
+	 * This operation runs a set of clients at the same time and waits for all
+	 * of them to finish.
+	 *
+	 * @param clients
+	 *            The clients
+	 * @throws InterruptedException
+	 */
+	private void runClients(final Runnable[] clients)
+			throws InterruptedException {
+
+		// Local Declarations
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(clients.length);
+
+		// Start the clients, but hold them at the gate
+		for (int i = 0; i < clients.length; i++) {
+			final Runnable client = clients[i];
+			Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						start.await();
+						client.run();
+					} catch (InterruptedException e) {
+						e.printStackTrace();
+					} finally {
+						done.countDown();
+					}
+				}
+			}, "Simulated Client " + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		// Let them go and wait
+		start.countDown();
+		done.await();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that Items created by many clients at once all
+	 * receive unique ids.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkConcurrentCreation() throws InterruptedException {
+
+		// Local Declarations
+		final ConcurrentLinkedQueue<String> ids = new ConcurrentLinkedQueue<String>();
+		Runnable[] clients = new Runnable[NUM_CLIENTS];
+
+		// Create the clients
+		for (int i = 0; i < NUM_CLIENTS; i++) {
+			clients[i] = new Runnable() {
+				@Override
+				public void run() {
+					for (int j = 0; j < NUM_ITEMS; j++) {
+						ids.add(iCECore.createItem(fakeGeometryBuilder
+								.getItemName()));
+					}
+				}
+			};
+		}
+		runClients(clients);
+
+		// Make sure every id is valid and unique
+		assertEquals(NUM_CLIENTS * NUM_ITEMS, ids.size());
+		assertEquals(ids.size(), new HashSet<String>(ids).size());
+		for (String id : ids) {
+			assertTrue(Integer.parseInt(id) > 0);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation drives Core.processItem() and Core.updateItem() from
+	 * many clients at once and checks that every request succeeds.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkConcurrentRequests() throws InterruptedException {
+
+		// Local Declarations
+		final int[] itemIds = new int[NUM_ITEMS];
+		final Form[] forms = new Form[NUM_ITEMS];
+		final AtomicInteger failures = new AtomicInteger();
+		final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<Throwable>();
+		Runnable[] clients = new Runnable[NUM_CLIENTS];
+
+		// Create the Items. A FakeItem is ready to process when its Form has
+		// two Components.
+		for (int i = 0; i < NUM_ITEMS; i++) {
+			itemIds[i] = Integer.parseInt(iCECore.createItem(fakeGeometryBuilder
+					.getItemName()));
+			forms[i] = iCECore.getItem(itemIds[i]);
+			forms[i].addComponent(new DataComponent());
+			forms[i].addComponent(new DataComponent());
+		}
+
+		// Create the clients. Each one alternates between updating and
+		// processing, moving across the Items so that every Item is used by
+		// several clients at the same time.
+		for (int i = 0; i < NUM_CLIENTS; i++) {
+			final int clientId = i + 1;
+			clients[i] = new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < NUM_REQUESTS; j++) {
+							int index = (j + clientId) % NUM_ITEMS;
+							FormStatus status;
+							if (j % 2 == 0) {
+								status = iCECore.updateItem(forms[index],
+										clientId);
+								if (status != FormStatus.ReadyToProcess) {
+									failures.incrementAndGet();
+								}
+							} else {
+								status = iCECore.processItem(itemIds[index],
+										"blend", clientId);
+								if (status != FormStatus.Processed) {
+									failures.incrementAndGet();
+								}
+							}
+						}
+					} catch (Throwable e) {
+						errors.add(e);
+					}
+				}
+			};
+		}
+
+		// Run them
+		runClients(clients);
+
+		// Check the results
+		for (Throwable error : errors) {
+			error.printStackTrace();
+		}
+		assertTrue(errors.isEmpty());
+		assertEquals(0, failures.get());
+
+		return;
+	}
+
+}
@@ -552,6 +552,15 @@ public class CoreTester {
 		// Get the FakeItem and make sure it was updated
 		assertTrue(fakeGeometryBuilder.getLastFakeItem().wasUpdated());
 
+		// Make sure posting a batch of updates works
+		fakeGeometryBuilder.getLastFakeItem().reset();
+		msg = "post=[{\"item_id\":" + id + ", \"posts\":[{\"type\":"
+				+ "\"PROGRESS_UPDATED\",\"message\":\"a=b\"}]}, "
+				+ "{\"posts\":[{\"type\":\"UPDATER_STOPPED\"}], "
+				+ "\"item_id\":" + id + "}]";
+		assertEquals("OK", iCECore.postUpdateMessage(msg));
+		assertTrue(fakeGeometryBuilder.getLastFakeItem().wasUpdated());
+
 		// Make sure posting a null message fails
 		assertNull(iCECore.postUpdateMessage(null));
 
@@ -13,8 +13,10 @@
 package org.eclipse.ice.core.test;
 
 import org.eclipse.ice.core.iCore.IPersistenceProvider;
+import org.eclipse.ice.core.iCore.ItemHeader;
 
 import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.ice.item.Item;
 
@@ -30,6 +32,20 @@ public class FakePersistenceProvider implements IPersistenceProvider {
 	 * 
 	 */
 	private volatile boolean loaded = false;
+	/**
+	 * <p>
+	 * True if the headers of the Items were loaded, false otherwise.
+	 * </p>
+	 * 
+	 */
+	private volatile boolean headersLoaded = false;
+	/**
+	 * <p>
+	 * The number of Items that were loaded individually.
+	 * </p>
+	 * 
+	 */
+	private final AtomicInteger loadCount = new AtomicInteger();
 	/**
 	 * <p>
 	 * True if an individual Item was persisted, false otherwise.
@@ -66,6 +82,34 @@ public class FakePersistenceProvider implements IPersistenceProvider {
 		return loaded;
 	}
 
+	/**
+	 * <p>
+	 * This operation returns true if the headers of the Items were loaded,
+	 * false otherwise.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         True if the headers were loaded, false otherwise.
+	 *         </p>
+	 */
+	public boolean headersLoaded() {
+		return headersLoaded;
+	}
+
+	/**
+	 * <p>
+	 * This operation returns the number of Items that were loaded individually
+	 * with loadItem().
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The number of calls to loadItem().
+	 *         </p>
+	 */
+	public int getLoadCount() {
+		return loadCount.get();
+	}
+
 	/**
 	 * <p>
 	 * This operation resets the provider's flags for the test.
@@ -76,6 +120,8 @@ public class FakePersistenceProvider implements IPersistenceProvider {
 
 		// Reset all the flags to false
 		loaded = false;
+		headersLoaded = false;
+		loadCount.set(0);
 		persisted = false;
 		updated = false;
 		deleted = false;
@@ -139,8 +185,18 @@ public class FakePersistenceProvider implements IPersistenceProvider {
 	 * @see IPersistenceProvider#loadItem(int itemID)
 	 */
 	public Item loadItem(int itemID) {
-		// TODO Auto-generated method stub
-		return null;
+
+		// Local Declarations
+		FakeItem item = null;
+
+		// Only the Items in the headers can be loaded
+		if (itemID == 1 || itemID == 3) {
+			item = new FakeItem(null);
+			item.setId(itemID);
+			loadCount.incrementAndGet();
+		}
+
+		return item;
 	}
 
 	/**
@@ -192,6 +248,29 @@ public class FakePersistenceProvider implements IPersistenceProvider {
 		return items;
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see IPersistenceProvider#loadItemHeaders()
+	 */
+	public ArrayList<ItemHeader> loadItemHeaders() {
+
+		// Local Declarations
+		ArrayList<ItemHeader> headers = new ArrayList<ItemHeader>();
+		FakeItem fake = new FakeItem(null);
+
+		// Describe the same Items as loadItems()
+		headers.add(new ItemHeader(1, fake.getName(), fake.getDescription(),
+				fake.getItemBuilderName(), fake.getStatus()));
+		headers.add(new ItemHeader(3, fake.getName(), fake.getDescription(),
+				fake.getItemBuilderName(), fake.getStatus()));
+
+		// Set the flag
+		headersLoaded = true;
+
+		return headers;
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
@@ -23,6 +23,8 @@ import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IProjectDescription;
@@ -34,6 +36,8 @@ import org.eclipse.ice.datastructures.ICEObject.Identifiable;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Form;
 import org.eclipse.ice.datastructures.form.FormStatus;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.ItemBuilder;
 import org.eclipse.ice.item.ItemType;
 import org.eclipse.ice.item.messaging.Message;
 import org.junit.Before;
@@ -547,8 +551,8 @@ public class ItemManagerTester {
 		// Items with ids 1 and 3 and we just created one with id 2.
 		assertEquals(4, itemId);
 
-		// See if everything was loaded
-		assertTrue(fakePersistenceProvider.allLoaded());
+		// See if the headers were loaded
+		assertTrue(fakePersistenceProvider.headersLoaded());
 
 		// Reset the fake persistence provider
 		fakePersistenceProvider.reset();
@@ -562,4 +566,178 @@ public class ItemManagerTester {
 		return;
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks that loading the Items from the persistence
+	 * provider only loads their headers and that each Item is loaded the first
+	 * time it is accessed.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkLazyItemLoading() {
+
+		// Local Declarations
+		ArrayList<Identifiable> items;
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+
+		// Load the Items from the persistence provider
+		fakePersistenceProvider.reset();
+		itemManager.loadItems(null);
+
+		// Only the headers should have been loaded
+		assertTrue(fakePersistenceProvider.headersLoaded());
+		assertFalse(fakePersistenceProvider.allLoaded());
+		assertEquals(0, fakePersistenceProvider.getLoadCount());
+
+		// The list should still show both Items without loading them
+		items = itemManager.retrieveItemList();
+		for (Identifiable item : items) {
+			ids.add(item.getId());
+		}
+		assertEquals(2, items.size());
+		assertTrue(ids.contains(1));
+		assertTrue(ids.contains(3));
+		assertEquals(new FakeItem(null).getStatus(),
+				itemManager.getItemStatus(1));
+		assertEquals(0, fakePersistenceProvider.getLoadCount());
+
+		// Retrieving the Form should load the Item, but only once
+		assertNotNull(itemManager.retrieveItem(1));
+		assertNotNull(itemManager.retrieveItem(1));
+		assertEquals(1, fakePersistenceProvider.getLoadCount());
+
+		// The other Item should still be in the list after the first one was
+		// loaded
+		assertEquals(2, itemManager.retrieveItemList().size());
+
+		// Deleting the other Item loads it so that the provider can delete it
+		assertTrue(itemManager.deleteItem(3));
+		assertEquals(2, fakePersistenceProvider.getLoadCount());
+		assertTrue(fakePersistenceProvider.itemDeleted());
+		assertEquals(1, itemManager.retrieveItemList().size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that Items that call the ItemManager while they
+	 * are being processed do not deadlock, even when two Items call each other
+	 * at the same time, and that messages reach an Item while it is
+	 * processing.
+	 * </p>
+	 * 
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkNestedItemCalls() throws InterruptedException {
+
+		// Local Declarations
+		final int[] itemIds = new int[2];
+		final FormStatus[] statuses = new FormStatus[2];
+		final CountDownLatch bothProcessing = new CountDownLatch(2);
+		final CountDownLatch waiting = new CountDownLatch(1);
+		final CountDownLatch messaged = new CountDownLatch(1);
+		Thread[] threads = new Thread[2];
+
+		// Create a builder for Items that process their partner or wait for a
+		// message when they are processed
+		ItemBuilder crossingBuilder = new ItemBuilder() {
+			@Override
+			public String getItemName() {
+				return "Crossing Item";
+			}
+
+			@Override
+			public ItemType getItemType() {
+				return ItemType.Model;
+			}
+
+			@Override
+			public Item build(IProject projectSpace) {
+				return new FakeItem(projectSpace) {
+					@Override
+					public FormStatus process(String actionName) {
+						try {
+							if ("cross".equals(actionName)) {
+								// Wait until both Items are processing and
+								// then process the other one
+								bothProcessing.countDown();
+								bothProcessing.await(5, TimeUnit.SECONDS);
+								int partner = (getId() == itemIds[0]) ? itemIds[1]
+										: itemIds[0];
+								return itemManager.processItem(partner,
+										"blend");
+							} else if ("wait".equals(actionName)) {
+								// Wait for a message
+								waiting.countDown();
+								if (!messaged.await(5, TimeUnit.SECONDS)) {
+									return FormStatus.InfoError;
+								}
+							}
+						} catch (InterruptedException e) {
+							return FormStatus.InfoError;
+						}
+						return super.process(actionName);
+					}
+
+					@Override
+					public boolean update(Message msg) {
+						messaged.countDown();
+						return super.update(msg);
+					}
+				};
+			}
+		};
+		itemManager.registerBuilder(crossingBuilder);
+		itemIds[0] = itemManager.createItem("Crossing Item", null);
+		itemIds[1] = itemManager.createItem("Crossing Item", null);
+		assertTrue(itemIds[0] > 0 && itemIds[1] > 0);
+
+		// Process both Items at the same time
+		for (int i = 0; i < 2; i++) {
+			final int index = i;
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					statuses[index] = itemManager.processItem(itemIds[index],
+							"cross");
+				}
+			});
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join(10000);
+			assertFalse("ItemManagerTester: Items deadlocked!",
+					thread.isAlive());
+		}
+		assertEquals(FormStatus.Processed, statuses[0]);
+		assertEquals(FormStatus.Processed, statuses[1]);
+
+		// Process the first Item until it receives a message
+		threads[0] = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				statuses[0] = itemManager.processItem(itemIds[0], "wait");
+			}
+		});
+		threads[0].setDaemon(true);
+		threads[0].start();
+		assertTrue(waiting.await(5, TimeUnit.SECONDS));
+
+		// Post the message. It should not wait for the process.
+		Message msg = new Message();
+		msg.setItemId(itemIds[0]);
+		msg.setMessage("Done");
+		msg.setType("FILE_UPDATED");
+		assertTrue(itemManager.postUpdateMessage(msg));
+		threads[0].join(10000);
+		assertFalse(threads[0].isAlive());
+		assertEquals(FormStatus.Processed, statuses[0]);
+
+		return;
+	}
+}
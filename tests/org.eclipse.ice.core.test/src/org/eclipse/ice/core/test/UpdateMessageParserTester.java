@@ -0,0 +1,131 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.core.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.eclipse.ice.core.internal.UpdateMessageParser;
+import org.eclipse.ice.item.messaging.Message;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the UpdateMessageParser.
+ *
+ * @author Jay Jay Billings
+ */
+public class UpdateMessageParserTester {
+
+	/**
+	 * This operation checks that a single update from an updater is read
+	 * correctly and that its statistics are recorded.
+	 */
+	@Test
+	public void checkSingleUpdate() {
+
+		// Local Declarations
+		UpdateMessageParser parser = new UpdateMessageParser();
+		String payload = "{\"item_id\":\"5\", "
+				+ "\"client_key\":\"1234567890ABCDEFGHIJ1234567890ABCDEFGHIJ\", "
+				+ "\"posts\":[{\"type\":\"UPDATER_STARTED\",\"message\":\"\"},"
+				+ "{\"type\":\"FILE_MODIFIED\","
+				+ "\"message\":\"/tmp/file\"}]}";
+		ArrayList<Message> messages;
+
+		// Parse it
+		messages = parser.parse(payload);
+
+		// Check the Messages
+		assertEquals(2, messages.size());
+		assertEquals(5, messages.get(0).getItemId());
+		assertEquals("UPDATER_STARTED", messages.get(0).getType());
+		assertEquals("", messages.get(0).getMessage());
+		assertEquals(5, messages.get(1).getItemId());
+		assertEquals("FILE_MODIFIED", messages.get(1).getType());
+		assertEquals("/tmp/file", messages.get(1).getMessage());
+
+		// Check the statistics
+		assertEquals(1, parser.getPayloadCount());
+		assertEquals(2, parser.getMessageCount());
+		assertEquals(0, parser.getFailureCount());
+		assertTrue(parser.getAverageParseLatency() > 0.0);
+		assertTrue(parser.getMaxParseLatency() > 0.0);
+		assertTrue(parser.getIngestRate() > 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that batched updates for several Items, fields in
+	 * any order, per-post item ids, offsets and unknown fields are handled.
+	 */
+	@Test
+	public void checkBatchedUpdates() {
+
+		// Local Declarations
+		UpdateMessageParser parser = new UpdateMessageParser();
+		String payload = "post=[{\"posts\":[{\"type\":\"PROGRESS_UPDATED\","
+				+ "\"message\":\"0.5\",\"id\":3,\"extra\":{\"a\":[1,2]}},"
+				+ "{\"type\":\"MESSAGE_POSTED\",\"item_id\":9,"
+				+ "\"message\":null}],\"item_id\":2},"
+				+ "{\"item_id\":4,\"posts\":[{\"type\":\"UPDATER_STOPPED\"}]}]";
+		ArrayList<Message> messages;
+
+		// Parse it from after the form key
+		messages = parser.parse(payload, payload.indexOf('=') + 1);
+
+		// Check the Messages
+		assertEquals(3, messages.size());
+		assertEquals(2, messages.get(0).getItemId());
+		assertEquals(3, messages.get(0).getId());
+		assertEquals("PROGRESS_UPDATED", messages.get(0).getType());
+		assertEquals("0.5", messages.get(0).getMessage());
+		assertEquals(9, messages.get(1).getItemId());
+		assertEquals("MESSAGE_POSTED", messages.get(1).getType());
+		assertNull(messages.get(1).getMessage());
+		assertEquals(4, messages.get(2).getItemId());
+		assertEquals("UPDATER_STOPPED", messages.get(2).getType());
+		assertEquals("", messages.get(2).getMessage());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that bad payloads produce no Messages and are
+	 * counted as failures.
+	 */
+	@Test
+	public void checkBadPayloads() {
+
+		// Local Declarations
+		UpdateMessageParser parser = new UpdateMessageParser();
+
+		// Check null, empty and malformed payloads
+		assertTrue(parser.parse(null).isEmpty());
+		assertTrue(parser.parse("").isEmpty());
+		assertTrue(parser.parse("{\"item_id\":\"one\",\"posts\":[]}")
+				.isEmpty());
+		assertTrue(parser.parse(
+				"{\"item_id\":1,\"posts\":[{\"type\":\"FILE_CREATED\"},")
+				.isEmpty());
+		assertTrue(parser.parse("{\"item_id\":1,\"posts\":[]}").isEmpty());
+		assertEquals(5, parser.getFailureCount());
+		assertEquals(0, parser.getPayloadCount());
+
+		return;
+	}
+
+}
@@ -14,6 +14,8 @@ package org.eclipse.ice.datastructures.test;
 
 import static org.junit.Assert.*;
 
+import java.util.Arrays;
+
 import org.junit.Test;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.geometry.Transformation;
@@ -92,6 +94,10 @@ public class AbstractShapeTester {
 		assertFalse(testShape.setProperty("key2", null));
 		assertNull(testShape.getProperty("key2"));
 
+		// Check the keys, which are kept in the order they were first set
+		assertEquals(Arrays.asList("name", "lover", "Henry"),
+				testShape.getPropertyKeys());
+
 	}
 
 	/**
@@ -0,0 +1,261 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.ice.datastructures.form.DataComponent;
+import org.eclipse.ice.datastructures.form.Entry;
+import org.junit.Test;
+
+/**
+ * <p>
+ * The DataComponentIndexTester class checks that the index of Entry names and
+ * ready Entries of the DataComponent stays correct when the list of Entries is
+ * modified directly and that the DataComponent can be read from several
+ * threads at once.
+ * </p>
+ * 
+ * @author Jay Jay Billings
+ */
+public class DataComponentIndexTester {
+
+	/**
+	 * <p>
+	 * The number of Entries in the DataComponents.
+	 * </p>
+	 * 
+	 */
+	private static final int numEntries = 2000;
+
+	/**
+	 * <p>
+	 * The number of threads that read the DataComponent at the same time.
+	 * </p>
+	 * 
+	 */
+	private static final int numThreads = 4;
+
+	/**
+	 * <p>
+	 * This operation creates an Entry.
+	 * </p>
+	 * 
+	 * @param i
+	 *            <p>
+	 *            The id of the Entry, which is also used in its name.
+	 *            </p>
+	 * @param parent
+	 *            <p>
+	 *            True if the Entry should depend on the "Parent" Entry.
+	 *            </p>
+	 * @return <p>
+	 *         The Entry.
+	 *         </p>
+	 */
+	private Entry createEntry(int i, boolean parent) {
+		Entry entry = new Entry();
+		entry.setId(i);
+		entry.setName("Entry " + i);
+		if (parent) {
+			entry.setParent("Parent");
+		}
+		return entry;
+	}
+
+	/**
+	 * <p>
+	 * This operation creates a DataComponent in which every tenth Entry
+	 * depends on the "Parent" Entry, which is not ready.
+	 * </p>
+	 * 
+	 * @return <p>
+	 *         The DataComponent.
+	 *         </p>
+	 */
+	private DataComponent createDataComponent() {
+		DataComponent dataComponent = new DataComponent();
+		for (int i = 0; i < numEntries; i++) {
+			dataComponent.addEntry(createEntry(i, i % 10 == 0));
+		}
+		dataComponent.update("Parent", "no");
+		return dataComponent;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that modifying the list returned by
+	 * retrieveAllEntries() with each kind of list operation updates the index.
+	 * </p>
+	 */
+	@Test
+	public void checkListModifications() {
+
+		// Local Declarations
+		DataComponent dataComponent = new DataComponent();
+		ArrayList<Entry> entries = dataComponent.retrieveAllEntries();
+		Entry first = createEntry(0, false), second = createEntry(1, true);
+		Entry third = createEntry(2, false), fourth = createEntry(3, false);
+
+		// Add Entries at the end and in the middle
+		entries.add(first);
+		entries.add(third);
+		entries.add(1, second);
+		assertSame(second, dataComponent.retrieveEntry("Entry 1"));
+		assertTrue(dataComponent.contains("Entry 2"));
+		dataComponent.update("Parent", "no");
+		assertEquals(Arrays.asList(first, third),
+				dataComponent.retrieveReadyEntries());
+
+		// Replace an Entry
+		entries.set(2, fourth);
+		assertFalse(dataComponent.contains("Entry 2"));
+		assertSame(fourth, dataComponent.retrieveEntry("Entry 3"));
+
+		// Remove Entries by position, by reference and with an iterator
+		entries.remove(0);
+		assertNull(dataComponent.retrieveEntry("Entry 0"));
+		entries.remove(fourth);
+		assertNull(dataComponent.retrieveEntry("Entry 3"));
+		assertTrue(dataComponent.retrieveReadyEntries().isEmpty());
+		Iterator<Entry> iterator = entries.iterator();
+		iterator.next();
+		iterator.remove();
+		assertFalse(dataComponent.contains("Entry 1"));
+
+		// Add and remove Entries in bulk and through a sublist
+		entries.addAll(Arrays.asList(first, second, third, fourth));
+		assertEquals(3, dataComponent.retrieveReadyEntries().size());
+		entries.subList(1, 3).clear();
+		assertFalse(dataComponent.contains("Entry 1"));
+		assertFalse(dataComponent.contains("Entry 2"));
+		assertEquals(Arrays.asList(first, fourth),
+				dataComponent.retrieveReadyEntries());
+		entries.removeAll(Arrays.asList(first));
+		assertNull(dataComponent.retrieveEntry("Entry 0"));
+		entries.addAll(0, Arrays.asList(second, third));
+		assertSame(third, dataComponent.retrieveEntry("Entry 2"));
+		entries.retainAll(Arrays.asList(second));
+		assertEquals(1, entries.size());
+		assertSame(second, dataComponent.retrieveEntry("Entry 1"));
+		assertFalse(dataComponent.contains("Entry 3"));
+
+		// Clear the list
+		entries.clear();
+		assertFalse(dataComponent.contains("Entry 1"));
+		assertTrue(dataComponent.retrieveReadyEntries().isEmpty());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that renaming an Entry and changing the readiness
+	 * of Entries update the index, including for Entries that were added to
+	 * the list of Entries directly.
+	 * </p>
+	 */
+	@Test
+	public void checkEntryChanges() {
+
+		// Local Declarations
+		DataComponent dataComponent = createDataComponent();
+		Entry entry = createEntry(numEntries, true);
+
+		// An Entry added to the list directly is watched too
+		dataComponent.retrieveAllEntries().add(entry);
+		dataComponent.update("Parent", "no");
+		assertEquals(numEntries - numEntries / 10, dataComponent
+				.retrieveReadyEntries().size());
+		dataComponent.update("Parent", "yes");
+		assertEquals(numEntries + 1, dataComponent.retrieveReadyEntries()
+				.size());
+
+		// Rename Entries
+		entry.setName("Renamed");
+		assertSame(entry, dataComponent.retrieveEntry("Renamed"));
+		assertFalse(dataComponent.contains("Entry " + numEntries));
+		dataComponent.retrieveEntry("Entry 5").setName("Entry 7");
+		assertEquals(5, dataComponent.retrieveEntry("Entry 7").getId());
+
+		// Deleting a name removes every Entry with it
+		dataComponent.deleteEntry("Entry 7");
+		assertFalse(dataComponent.contains("Entry 7"));
+		assertEquals(numEntries - 1, dataComponent.retrieveAllEntries()
+				.size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that several threads can look up Entries and the
+	 * ready Entries of the same DataComponent at once, including right after
+	 * the list of Entries was modified directly.
+	 * </p>
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void checkConcurrentReads() throws Exception {
+
+		// Local Declarations
+		final DataComponent dataComponent = createDataComponent();
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		ArrayList<Callable<Boolean>> readers = new ArrayList<Callable<Boolean>>();
+
+		// Modify the list directly right before it is read
+		dataComponent.retrieveAllEntries().remove(numEntries - 1);
+		dataComponent.retrieveAllEntries().add(0,
+				createEntry(numEntries, false));
+
+		// Each reader looks up every Entry and the ready Entries
+		for (int j = 0; j < numThreads; j++) {
+			readers.add(new Callable<Boolean>() {
+				@Override
+				public Boolean call() {
+					for (int i = 0; i < numEntries - 1; i++) {
+						Entry entry = dataComponent.retrieveEntry("Entry " + i);
+						if (entry == null || entry.getId() != i) {
+							return false;
+						}
+					}
+					return dataComponent.contains("Entry " + numEntries)
+							&& !dataComponent.contains("Entry "
+									+ (numEntries - 1))
+							&& dataComponent.retrieveReadyEntries().size() == numEntries
+									- numEntries / 10;
+				}
+			});
+		}
+
+		try {
+			for (Future<Boolean> result : executor.invokeAll(readers)) {
+				assertTrue(result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return;
+	}
+
+}
@@ -220,6 +220,82 @@ public class DataComponentTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that the DataComponent keeps its index of Entry
+	 * names and its set of ready Entries up to date when the Entries are
+	 * renamed, change their readiness or are removed.
+	 * </p>
+	 */
+	@Test
+	public void checkEntryIndex() {
+
+		// Local Declarations
+		int i = 0, numEntries = 20;
+		ArrayList<Entry> entries = new ArrayList<Entry>();
+		ArrayList<Entry> readyEntries = null;
+
+		// Setup the list of Entries. The odd Entries depend on a parent.
+		dataComponent = new DataComponent();
+		for (i = 0; i < numEntries; i++) {
+			entries.add(new Entry());
+			(entries.get(i)).setId(i);
+			(entries.get(i)).setName("Test Entry " + i);
+			if (i % 2 == 1) {
+				(entries.get(i)).setParent("Parent");
+			}
+			dataComponent.addEntry(entries.get(i));
+		}
+
+		// All of the Entries should be ready
+		assertEquals(numEntries, dataComponent.retrieveReadyEntries().size());
+
+		// Rename an Entry and make sure it can only be found by its new name
+		(entries.get(3)).setName("Renamed Entry");
+		assertFalse(dataComponent.contains("Test Entry 3"));
+		assertNull(dataComponent.retrieveEntry("Test Entry 3"));
+		assertSame(entries.get(3), dataComponent.retrieveEntry("Renamed Entry"));
+		assertSame(entries.get(4), dataComponent.retrieveEntry("Test Entry 4"));
+
+		// Disable the odd Entries by updating their parent
+		dataComponent.update("Parent", "no");
+		readyEntries = dataComponent.retrieveReadyEntries();
+		assertEquals(numEntries / 2, readyEntries.size());
+		for (i = 0; i < readyEntries.size(); i++) {
+			assertSame(entries.get(2 * i), readyEntries.get(i));
+		}
+
+		// Make one of them ready again directly
+		(entries.get(5)).setReady(true);
+		readyEntries = dataComponent.retrieveReadyEntries();
+		assertEquals(numEntries / 2 + 1, readyEntries.size());
+		assertSame(entries.get(5), readyEntries.get(3));
+
+		// Remove Entries through the list and the DataComponent
+		dataComponent.retrieveAllEntries().remove(0);
+		dataComponent.deleteEntry("Test Entry 2");
+		assertFalse(dataComponent.contains("Test Entry 0"));
+		assertFalse(dataComponent.contains("Test Entry 2"));
+		assertEquals(numEntries - 2, dataComponent.retrieveAllEntries().size());
+		readyEntries = dataComponent.retrieveReadyEntries();
+		assertEquals(numEntries / 2 - 1, readyEntries.size());
+		assertSame(entries.get(4), readyEntries.get(0));
+
+		// Removed Entries should no longer change the DataComponent
+		(entries.get(2)).setName("Test Entry 4");
+		assertSame(entries.get(4), dataComponent.retrieveEntry("Test Entry 4"));
+
+		// Entries with the same name should all be deleted
+		(entries.get(6)).setName("Twin");
+		(entries.get(7)).setName("Twin");
+		assertSame(entries.get(6), dataComponent.retrieveEntry("Twin"));
+		dataComponent.deleteEntry("Twin");
+		assertFalse(dataComponent.contains("Twin"));
+		assertEquals(numEntries - 4, dataComponent.retrieveAllEntries().size());
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This operation checks the ability of the DataComponent to update its
@@ -24,6 +24,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.bind.JAXBException;
 
@@ -387,6 +388,93 @@ public class MatrixComponentTester {
 
 	}
 
+	/**
+	 * This operation checks that many threads can write the same
+	 * MatrixComponent to XML at once and that every thread writes the whole
+	 * matrix.
+	 * 
+	 * @throws InterruptedException
+	 * @throws JAXBException
+	 * @throws IOException
+	 */
+	@Test
+	public void checkConcurrentWriting() throws InterruptedException,
+			JAXBException, IOException {
+
+		// Local declarations
+		final int numThreads = 8;
+		final int numWrites = 25;
+		final ICEJAXBHandler xmlHandler = new ICEJAXBHandler();
+		final ArrayList<Class> classList = new ArrayList<Class>();
+		final ConcurrentLinkedQueue<String> outputs = new ConcurrentLinkedQueue<String>();
+		final ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<Throwable>();
+		Thread[] threads = new Thread[numThreads];
+		classList.add(MatrixComponent.class);
+
+		// Create a 20x20 matrix with a different value in each element
+		matrixComponent = new MatrixComponent();
+		for (int i = 1; i < 20; i++) {
+			matrixComponent.addRow();
+			matrixComponent.addColumn();
+		}
+		for (int i = 0; i < 20; i++) {
+			for (int j = 0; j < 20; j++) {
+				matrixComponent.setElementValue(i, j, i * 20.0 + j);
+			}
+		}
+
+		// Write it once to get the expected XML
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		xmlHandler.write(matrixComponent, classList, outputStream);
+		final String expected = new String(outputStream.toByteArray());
+
+		// Write it from many threads at once
+		for (int i = 0; i < numThreads; i++) {
+			threads[i] = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int j = 0; j < numWrites; j++) {
+							ByteArrayOutputStream stream = new ByteArrayOutputStream();
+							xmlHandler.write(matrixComponent, classList, stream);
+							outputs.add(new String(stream.toByteArray()));
+						}
+					} catch (Throwable e) {
+						errors.add(e);
+					}
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		// Every write should match the first one
+		for (Throwable error : errors) {
+			error.printStackTrace();
+		}
+		assertTrue(errors.isEmpty());
+		assertEquals(numThreads * numWrites, outputs.size());
+		for (String output : outputs) {
+			assertEquals(expected, output);
+		}
+
+		// And the XML should still load the same elements
+		MatrixComponent loadMatrix = (MatrixComponent) xmlHandler.read(
+				classList, new ByteArrayInputStream(expected.getBytes()));
+		assertEquals(20, loadMatrix.numberOfRows());
+		assertEquals(20, loadMatrix.numberOfColumns());
+		for (int i = 0; i < 20; i++) {
+			for (int j = 0; j < 20; j++) {
+				assertEquals(i * 20.0 + j, loadMatrix.getElementValue(i, j),
+						0.0);
+			}
+		}
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * This method checks that a MatrixComponent can be constructed by using all
@@ -2116,4 +2204,119 @@ public class MatrixComponentTester {
 		assertEquals(10.0, matrixComponent.getAllowedValues().get(3), 0.0);
 
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation checks the bulk operations of the MatrixComponent and
+	 * that the elements keep their positions while the matrix grows and
+	 * shrinks.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkBulkOperations() {
+
+		// Local Declarations
+		int numRows = 7, numCols = 5;
+		double[][] block = new double[numRows][numCols];
+		ArrayList<Double> values = new ArrayList<Double>();
+		testComponentListener = new TestComponentListener();
+
+		// Grow the matrix one row and column at a time
+		matrixComponent = new MatrixComponent();
+		for (int i = 1; i < numRows; i++) {
+			matrixComponent.addRow();
+			if (i < numCols) {
+				matrixComponent.addColumn();
+			}
+		}
+		assertEquals(numRows, matrixComponent.numberOfRows());
+		assertEquals(numCols, matrixComponent.numberOfColumns());
+
+		// Fill it with distinct values
+		for (int i = 0; i < numRows; i++) {
+			for (int j = 0; j < numCols; j++) {
+				block[i][j] = 10.0 * i + j;
+			}
+		}
+		matrixComponent.register(testComponentListener);
+		assertTrue(matrixComponent.setBlock(0, 0, block));
+		assertTrue(testComponentListener.wasNotified());
+		testComponentListener.reset();
+
+		// Check the rows and columns
+		for (int i = 0; i < numRows; i++) {
+			for (int j = 0; j < numCols; j++) {
+				assertEquals(10.0 * i + j, matrixComponent.getElementValue(i, j),
+						0.0);
+				assertEquals(10.0 * i + j, matrixComponent.getRow(i).get(j),
+						0.0);
+				assertEquals(10.0 * i + j,
+						matrixComponent.getColumn(j).get(i), 0.0);
+			}
+		}
+
+		// Adding a column and a row should keep the values and fill the new
+		// ones with zeros
+		matrixComponent.addColumn();
+		matrixComponent.addRow();
+		assertEquals(34.0, matrixComponent.getElementValue(3, 4), 0.0);
+		assertEquals(64.0, matrixComponent.getElementValue(6, 4), 0.0);
+		assertEquals(0.0, matrixComponent.getElementValue(3, 5), 0.0);
+		assertEquals(0.0, matrixComponent.getElementValue(7, 2), 0.0);
+
+		// Removing them should restore the original matrix
+		matrixComponent.deleteColumn();
+		matrixComponent.deleteRow();
+		assertEquals(numRows, matrixComponent.numberOfRows());
+		assertEquals(numCols, matrixComponent.numberOfColumns());
+		assertEquals(64.0, matrixComponent.getElementValue(6, 4), 0.0);
+
+		// Set a row, a column and a block
+		assertTrue(matrixComponent.setRow(2, new double[] { -1.0, -2.0, -3.0,
+				-4.0, -5.0 }));
+		assertTrue(matrixComponent.setColumn(4, new double[] { 1.0, 2.0, 3.0,
+				4.0, 5.0, 6.0, 7.0 }));
+		assertTrue(matrixComponent.setBlock(5, 1, new double[][] {
+				{ 100.0, 101.0 }, { 102.0, 103.0 } }));
+		assertEquals(-3.0, matrixComponent.getElementValue(2, 2), 0.0);
+		assertEquals(3.0, matrixComponent.getElementValue(2, 4), 0.0);
+		assertEquals(7.0, matrixComponent.getElementValue(6, 4), 0.0);
+		assertEquals(103.0, matrixComponent.getElementValue(6, 2), 0.0);
+		assertEquals(60.0, matrixComponent.getElementValue(6, 0), 0.0);
+
+		// Bad rows, columns and blocks are rejected
+		assertFalse(matrixComponent.setRow(2, new double[] { 1.0 }));
+		assertFalse(matrixComponent.setRow(numRows, new double[numCols]));
+		assertFalse(matrixComponent.setColumn(-1, new double[numRows]));
+		assertFalse(matrixComponent.setColumn(0, null));
+		assertFalse(matrixComponent.setBlock(6, 4, new double[2][2]));
+		assertFalse(matrixComponent.setBlock(0, 0, new double[][] {
+				{ 1.0, 2.0 }, { 3.0 } }));
+		assertFalse(matrixComponent.setBlock(0, 0, new double[0][0]));
+		assertEquals(-3.0, matrixComponent.getElementValue(2, 2), 0.0);
+
+		// Values that are not allowed are rejected without changing the
+		// matrix
+		matrixComponent = new MatrixComponent(false,
+				AllowedValueType.Continuous);
+		values.add(1.0);
+		values.add(10.0);
+		matrixComponent.setAllowedValues(values);
+		matrixComponent.addRow();
+		matrixComponent.addColumn();
+		assertTrue(matrixComponent.setRow(0, new double[] { 2.0, 3.0 }));
+		assertFalse(matrixComponent.setRow(1, new double[] { 2.0, 30.0 }));
+		assertEquals(1.0, matrixComponent.getElementValue(1, 0), 0.0);
+		assertEquals(3.0, matrixComponent.getElementValue(0, 1), 0.0);
+
+		// Copies and clones should have the same values
+		MatrixComponent clone = (MatrixComponent) matrixComponent.clone();
+		assertTrue(clone.equals(matrixComponent));
+		assertEquals(clone.hashCode(), matrixComponent.hashCode());
+		clone.setElementValue(1, 1, 5.0);
+		assertFalse(clone.equals(matrixComponent));
+
+		return;
+	}
+}
@@ -22,6 +22,8 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 
 import javax.xml.bind.JAXBException;
@@ -866,4 +868,230 @@ public class MeshComponentTester {
 
 		return;
 	}
-}
\ No newline at end of file
+
+	/**
+	 * <p>
+	 * This operation creates a mesh of size x size unit squares in the x-y
+	 * plane. The squares share their vertices and edges. The vertex at row i
+	 * and column j has the ID i * (size + 1) + j + 1 and the location (j, i).
+	 * The square at row i and column j has the ID i * size + j + 1.
+	 * </p>
+	 * 
+	 * @param size
+	 *            <p>
+	 *            The number of squares on each side of the mesh.
+	 *            </p>
+	 * @return <p>
+	 *         The new mesh.
+	 *         </p>
+	 */
+	private MeshComponent createSquareMesh(int size) {
+
+		MeshComponent mesh = new MeshComponent();
+		Vertex[][] vertices = new Vertex[size + 1][size + 1];
+		HashMap<String, Edge> edgeMap = new HashMap<String, Edge>();
+
+		// Create the vertices.
+		for (int i = 0; i <= size; i++) {
+			for (int j = 0; j <= size; j++) {
+				vertices[i][j] = new Vertex(j, i, 0f);
+				vertices[i][j].setId(i * (size + 1) + j + 1);
+			}
+		}
+
+		// Create the squares, reusing the edges between them.
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j < size; j++) {
+				ArrayList<Vertex> polygonVertices = new ArrayList<Vertex>();
+				polygonVertices.add(vertices[i][j]);
+				polygonVertices.add(vertices[i][j + 1]);
+				polygonVertices.add(vertices[i + 1][j + 1]);
+				polygonVertices.add(vertices[i + 1][j]);
+				ArrayList<Edge> polygonEdges = new ArrayList<Edge>();
+				for (int k = 0; k < 4; k++) {
+					Vertex start = polygonVertices.get(k);
+					Vertex end = polygonVertices.get((k + 1) % 4);
+					String key = Math.min(start.getId(), end.getId()) + ","
+							+ Math.max(start.getId(), end.getId());
+					Edge edge = edgeMap.get(key);
+					if (edge == null) {
+						edge = new Edge(start, end);
+						edge.setId(edgeMap.size() + 1);
+						edgeMap.put(key, edge);
+					}
+					polygonEdges.add(edge);
+				}
+				Polygon polygon = new Polygon(polygonEdges, polygonVertices);
+				polygon.setId(i * size + j + 1);
+				mesh.addPolygon(polygon);
+			}
+		}
+
+		return mesh;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks the adjacency queries of the MeshComponent and
+	 * that they stay correct when polygons are removed.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkAdjacencyQueries() {
+
+		// Create a 3x3 mesh. Vertex 6 is shared by squares 1, 2, 4 and 5.
+		MeshComponent mesh = createSquareMesh(3);
+		assertEquals(9, mesh.getPolygons().size());
+		assertEquals(16, mesh.getVertices().size());
+		assertEquals(24, mesh.getEdges().size());
+
+		// Check the polygons and edges of an inner vertex.
+		List<Polygon> polygons = mesh.getPolygonsFromVertex(6);
+		assertEquals(4, polygons.size());
+		assertEquals(1, polygons.get(0).getId());
+		assertEquals(2, polygons.get(1).getId());
+		assertEquals(4, polygons.get(2).getId());
+		assertEquals(5, polygons.get(3).getId());
+		assertEquals(4, mesh.getEdgesFromVertex(6).size());
+		assertEquals(2, mesh.getEdgesFromVertex(1).size());
+		assertTrue(mesh.getPolygonsFromVertex(100).isEmpty());
+		assertTrue(mesh.getEdgesFromVertex(100).isEmpty());
+
+		// Check the edges between vertices.
+		Edge edge = mesh.getEdgeFromVertices(6, 7);
+		assertNotNull(edge);
+		assertEquals(edge, mesh.getEdgeFromVertices(7, 6));
+		assertEquals(2, mesh.getPolygonsFromEdge(edge.getId()).size());
+		assertNull(mesh.getEdgeFromVertices(6, 11));
+		assertNull(mesh.getEdgeFromVertices(6, 6));
+		assertNull(mesh.getEdgeFromVertices(6, 100));
+
+		// Check the polygons made from a set of vertices. The vertices of
+		// square 1 and 2 (with a duplicate) select both squares.
+		ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+		for (int id : new int[] { 1, 2, 3, 5, 6, 7, 6, 100 }) {
+			Vertex vertex = mesh.getVertex(id);
+			vertices.add(vertex != null ? vertex : new Vertex());
+		}
+		vertices.add(null);
+		polygons = mesh.getPolygonsFromVertices(vertices);
+		assertEquals(2, polygons.size());
+		assertEquals(1, polygons.get(0).getId());
+		assertEquals(2, polygons.get(1).getId());
+
+		// Remove square 5. Vertex 6 and the edge between vertices 6 and 7 are
+		// still used by other squares.
+		mesh.removePolygon(5);
+		assertEquals(3, mesh.getPolygonsFromVertex(6).size());
+		assertEquals(1, mesh.getPolygonsFromEdge(edge.getId()).size());
+		assertEquals(edge, mesh.getEdgeFromVertices(6, 7));
+
+		// Remove the squares around vertex 6.
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		ids.add(1);
+		ids.add(2);
+		ids.add(4);
+		mesh.removePolygons(ids);
+		assertNull(mesh.getVertex(6));
+		assertTrue(mesh.getPolygonsFromVertex(6).isEmpty());
+		assertNull(mesh.getEdgeFromVertices(6, 7));
+		assertEquals(2, mesh.getPolygonsFromVertex(7).size());
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks the queries of the MeshComponent by location and
+	 * that they follow vertices as they move.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkSpatialQueries() {
+
+		// Create a 10x10 mesh.
+		MeshComponent mesh = createSquareMesh(10);
+
+		// Check the nearest vertex. Vertex 13 is at (1, 1).
+		assertEquals(13, mesh.getNearestVertex(1.1f, 0.9f, 0.5f).getId());
+		assertNull(mesh.getNearestVertex(1.5f, 1.5f, 0.5f));
+		assertNull(mesh.getNearestVertex(1.0f, 1.0f, -1f));
+		assertEquals(1, mesh.getNearestVertex(-100f, -100f,
+				Float.POSITIVE_INFINITY).getId());
+
+		// Check the vertices in a rectangle.
+		assertEquals(9, mesh.getVerticesInRectangle(0.5f, 0.5f, 3f, 3f).size());
+		assertEquals(121,
+				mesh.getVerticesInRectangle(-1f, -1f, 11f, 11f).size());
+		assertTrue(mesh.getVerticesInRectangle(20f, 20f, 30f, 30f).isEmpty());
+
+		// Check the polygons at a point. Square 13 covers (2, 1) to (3, 2).
+		List<Polygon> polygons = mesh.getPolygonsAtPoint(2.5f, 1.5f);
+		assertEquals(1, polygons.size());
+		assertEquals(13, polygons.get(0).getId());
+		// A point on the edge between two squares is in both.
+		assertEquals(2, mesh.getPolygonsAtPoint(2.0f, 1.5f).size());
+		assertTrue(mesh.getPolygonsAtPoint(10.5f, 1.5f).isEmpty());
+
+		// Move vertex 13 and check that the queries follow it.
+		Vertex vertex = mesh.getVertex(13);
+		vertex.setLocation(5.4f, 5.4f, 0f);
+		assertEquals(13, mesh.getNearestVertex(5.4f, 5.4f, 0.1f).getId());
+		assertNull(mesh.getNearestVertex(1f, 1f, 0.5f));
+		// Square 1 now stretches to (5.4, 5.4).
+		polygons = mesh.getPolygonsAtPoint(4f, 4f);
+		assertEquals(1, polygons.get(0).getId());
+
+		// Removed vertices are no longer found, even if they move.
+		ArrayList<Integer> ids = new ArrayList<Integer>();
+		ids.add(1);
+		ids.add(2);
+		ids.add(11);
+		ids.add(12);
+		mesh.removePolygons(ids);
+		assertNull(mesh.getVertex(13));
+		assertNull(mesh.getNearestVertex(5.4f, 5.4f, 0.1f));
+		vertex.setLocation(7.5f, 7.5f, 0f);
+		assertNull(mesh.getNearestVertex(7.5f, 7.5f, 0.1f));
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that the views of the MeshComponent reflect its
+	 * contents and cannot be modified.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkViews() {
+
+		MeshComponent mesh = new MeshComponent();
+		Collection<Polygon> polygons = mesh.getPolygonView();
+		assertTrue(polygons.isEmpty());
+		assertTrue(mesh.getVertexView().isEmpty());
+		assertTrue(mesh.getEdgeView().isEmpty());
+
+		// The views follow the contents of the mesh.
+		mesh.copy(createSquareMesh(2));
+		assertEquals(4, polygons.size());
+		assertEquals(mesh.getPolygons(), new ArrayList<Polygon>(polygons));
+		assertEquals(mesh.getVertices(),
+				new ArrayList<Vertex>(mesh.getVertexView()));
+		assertEquals(mesh.getEdges(), new ArrayList<Edge>(mesh.getEdgeView()));
+
+		// The views cannot be changed.
+		try {
+			polygons.clear();
+			assertTrue("The view of the polygons was modified.", false);
+		} catch (UnsupportedOperationException e) {
+			// Expected
+		}
+		assertEquals(4, polygons.size());
+
+		return;
+	}
+}
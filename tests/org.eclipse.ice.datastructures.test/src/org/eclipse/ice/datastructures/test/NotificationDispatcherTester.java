@@ -0,0 +1,306 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.datastructures.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.datastructures.ICEObject.ICEObject;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateable;
+import org.eclipse.ice.datastructures.ICEObject.IUpdateableListener;
+import org.eclipse.ice.datastructures.ICEObject.NotificationDispatcher;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the NotificationDispatcher. It checks
+ * that notifications are delivered to each listener in order, that repeated
+ * notifications from the same source are coalesced and that the statistics
+ * are updated. Each test shuts down its dispatcher when it is done.
+ *
+ * @author Jay Jay Billings
+ */
+public class NotificationDispatcherTester {
+
+	/**
+	 * The dispatcher used by the current test.
+	 */
+	private NotificationDispatcher dispatcher;
+
+	/**
+	 * This operation shuts down the dispatcher of the last test so that its
+	 * threads do not leak.
+	 */
+	@After
+	public void afterEachTest() {
+		if (dispatcher != null) {
+			dispatcher.shutdown();
+			dispatcher = null;
+		}
+	}
+
+	/**
+	 * A simple listener that records the sources it received.
+	 */
+	private class RecordingListener implements IUpdateableListener {
+
+		/**
+		 * The sources received, in order.
+		 */
+		private final List<IUpdateable> received = Collections
+				.synchronizedList(new ArrayList<IUpdateable>());
+
+		/**
+		 * The latch counted down on each update.
+		 */
+		private final CountDownLatch latch;
+
+		/**
+		 * The Constructor
+		 *
+		 * @param count
+		 *            The number of updates to wait for.
+		 */
+		public RecordingListener(int count) {
+			latch = new CountDownLatch(count);
+		}
+
+		@Override
+		public void update(IUpdateable component) {
+			received.add(component);
+			latch.countDown();
+		}
+	}
+
+	/**
+	 * This operation checks that the notifications posted for different
+	 * sources are delivered to each listener in the order they were posted.
+	 */
+	@Test
+	public void checkOrdering() throws InterruptedException {
+
+		// Local Declarations
+		dispatcher = new NotificationDispatcher(4, 0);
+		int numSources = 50;
+		RecordingListener firstListener = new RecordingListener(numSources);
+		RecordingListener secondListener = new RecordingListener(numSources);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		ArrayList<ICEObject> sources = new ArrayList<ICEObject>();
+		listeners.add(firstListener);
+		listeners.add(secondListener);
+
+		// Post one notification for each source
+		for (int i = 0; i < numSources; i++) {
+			ICEObject source = new ICEObject();
+			source.setId(i);
+			sources.add(source);
+			dispatcher.notifyListeners(source, listeners);
+		}
+
+		// Wait for the notifications and check the order
+		assertTrue(firstListener.latch.await(5, TimeUnit.SECONDS));
+		assertTrue(secondListener.latch.await(5, TimeUnit.SECONDS));
+		assertEquals(sources, firstListener.received);
+		assertEquals(sources, secondListener.received);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that repeated notifications from the same source
+	 * are coalesced and that the statistics reflect the deliveries.
+	 */
+	@Test
+	public void checkCoalescing() throws InterruptedException {
+
+		// Use a long window so that all posts land before the drain
+		dispatcher = new NotificationDispatcher(1, 200);
+		RecordingListener listener = new RecordingListener(1);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(listener);
+		ICEObject source = new ICEObject();
+
+		// Post a burst of updates
+		for (int i = 0; i < 100; i++) {
+			dispatcher.notifyListeners(source, listeners);
+		}
+		assertEquals(1, dispatcher.getQueueDepth());
+		assertEquals(99, dispatcher.getCoalescedCount());
+
+		// Wait for the delivery and give the dispatcher a moment to finish
+		assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		assertEquals(1, listener.received.size());
+		assertSame(source, listener.received.get(0));
+		assertEquals(0, dispatcher.getQueueDepth());
+		assertEquals(1, dispatcher.getDispatchedCount());
+		assertTrue(dispatcher.getMaxLatency() > 0.0);
+		assertTrue(dispatcher.getAverageLatency() > 0.0);
+
+		// Reset the statistics
+		dispatcher.resetStatistics();
+		assertEquals(0, dispatcher.getDispatchedCount());
+		assertEquals(0, dispatcher.getCoalescedCount());
+		assertEquals(0.0, dispatcher.getMaxLatency(), 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a listener that throws an exception does not
+	 * stop the other listeners from being notified.
+	 */
+	@Test
+	public void checkFailingListener() throws InterruptedException {
+
+		// Local Declarations
+		dispatcher = new NotificationDispatcher(2, 0);
+		RecordingListener listener = new RecordingListener(2);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				throw new IllegalStateException("Expected by the test.");
+			}
+		});
+		listeners.add(listener);
+
+		// Post two updates from different sources
+		dispatcher.notifyListeners(new ICEObject(), listeners);
+		dispatcher.notifyListeners(new ICEObject(), listeners);
+
+		// The good listener should still get both
+		assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+
+		// Null arguments should be ignored
+		dispatcher.notifyListeners(null, listeners);
+		dispatcher.notifyListeners(new ICEObject(), null);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a listener that throws an Error does not
+	 * leave its channel stuck, so that it still receives later updates.
+	 */
+	@Test
+	public void checkListenerError() throws InterruptedException {
+
+		// Local Declarations
+		dispatcher = new NotificationDispatcher(2, 0);
+		final ICEObject failingSource = new ICEObject();
+		final CountDownLatch failed = new CountDownLatch(1);
+		final RecordingListener listener = new RecordingListener(1);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				if (component == failingSource) {
+					failed.countDown();
+					throw new AssertionError("Expected by the test.");
+				}
+				listener.update(component);
+			}
+		});
+
+		// Post an update that makes the listener throw and wait for it
+		dispatcher.notifyListeners(failingSource, listeners);
+		assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+		// The next update must still be delivered
+		ICEObject source = new ICEObject();
+		dispatcher.notifyListeners(source, listeners);
+		assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+		assertSame(source, listener.received.get(0));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that an Error thrown for one notification does not
+	 * drop the rest of the batch that was delivered with it.
+	 */
+	@Test
+	public void checkErrorInBatch() throws InterruptedException {
+
+		// Use a long window so that both posts are delivered in one batch
+		dispatcher = new NotificationDispatcher(1, 200);
+		final ICEObject failingSource = new ICEObject();
+		final RecordingListener listener = new RecordingListener(1);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(new IUpdateableListener() {
+			@Override
+			public void update(IUpdateable component) {
+				if (component == failingSource) {
+					throw new AssertionError("Expected by the test.");
+				}
+				listener.update(component);
+			}
+		});
+
+		// Post the failing source first and then a good one
+		ICEObject source = new ICEObject();
+		dispatcher.notifyListeners(failingSource, listeners);
+		dispatcher.notifyListeners(source, listeners);
+		assertEquals(2, dispatcher.getQueueDepth());
+
+		// The good source must still be delivered
+		assertTrue(listener.latch.await(5, TimeUnit.SECONDS));
+		assertSame(source, listener.received.get(0));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that shutting down a dispatcher drops the pending
+	 * notifications and ignores new ones, and that the shared dispatcher can
+	 * not be shut down.
+	 */
+	@Test
+	public void checkShutdown() throws InterruptedException {
+
+		// Use a long window so that the post is still pending at shutdown
+		dispatcher = new NotificationDispatcher(1, 200);
+		RecordingListener listener = new RecordingListener(1);
+		ArrayList<IUpdateableListener> listeners = new ArrayList<IUpdateableListener>();
+		listeners.add(listener);
+		dispatcher.notifyListeners(new ICEObject(), listeners);
+		assertEquals(1, dispatcher.getQueueDepth());
+
+		// Shut it down. The pending notification should be dropped.
+		assertFalse(dispatcher.isShutdown());
+		dispatcher.shutdown();
+		assertTrue(dispatcher.isShutdown());
+		assertEquals(0, dispatcher.getQueueDepth());
+
+		// New notifications should be ignored
+		dispatcher.notifyListeners(new ICEObject(), listeners);
+		assertEquals(0, dispatcher.getQueueDepth());
+		assertFalse(listener.latch.await(400, TimeUnit.MILLISECONDS));
+		assertTrue(listener.received.isEmpty());
+
+		// Shutting it down again should be harmless
+		dispatcher.shutdown();
+
+		// The shared dispatcher must keep running
+		NotificationDispatcher.getDefault().shutdown();
+		assertFalse(NotificationDispatcher.getDefault().isShutdown());
+
+		return;
+	}
+}
@@ -38,6 +38,33 @@ public class FakeMaterialsDatabase implements IMaterialsDatabase {
 		return null;
 	}
 
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialsDatabase#getMaterial(java.lang.String
+	 * )
+	 */
+	@Override
+	public Material getMaterial(String name) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * org.eclipse.ice.materials.IMaterialsDatabase#getMaterials(java.lang.String
+	 * , double, double)
+	 */
+	@Override
+	public List<Material> getMaterials(String property, double minValue,
+			double maxValue) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
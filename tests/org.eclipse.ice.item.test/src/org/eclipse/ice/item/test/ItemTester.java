@@ -24,7 +24,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Properties;
 
 import javax.xml.bind.JAXBException;
@@ -1229,6 +1231,74 @@ public class ItemTester implements ItemListener {
 		return;
 	}
 
+	/**
+	 * This method checks that files can be copied and moved in a batch without
+	 * a project and that the copies are exact.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkFileTransferBatch() throws IOException {
+
+		// Local Declarations
+		TestItem testItem = new TestItem(null);
+		int numFiles = 25;
+		File root = File.createTempFile("itemTransfers", "");
+		File source = new File(root, "source");
+		File copies = new File(root, "copies");
+		File moved = new File(root, "moved");
+		byte[] contents;
+
+		// Create the directories and some files of different sizes
+		root.delete();
+		assertTrue(source.mkdirs());
+		assertTrue(copies.mkdir());
+		assertTrue(moved.mkdir());
+		for (int i = 0; i < numFiles; i++) {
+			contents = new byte[1000 * i + 1];
+			Arrays.fill(contents, (byte) i);
+			Files.write(new File(source, "file" + i + ".dat").toPath(),
+					contents);
+		}
+		Files.write(new File(source, "other.txt").toPath(), new byte[] { 1 });
+
+		// Make one of the files executable to check that the copies keep
+		// their permissions. Some file systems do not support it.
+		boolean executable = new File(source, "file1.dat").setExecutable(true);
+
+		// Copy and move the files in one batch
+		testItem.transferTestFiles(source.getPath(), copies.getPath(),
+				moved.getPath(), ".dat");
+
+		// The files should only be in the source and final directories
+		for (int i = 0; i < numFiles; i++) {
+			String name = "file" + i + ".dat";
+			assertTrue(new File(source, name).exists());
+			assertFalse(new File(copies, name).exists());
+			assertTrue(Arrays.equals(
+					Files.readAllBytes(new File(source, name).toPath()),
+					Files.readAllBytes(new File(moved, name).toPath())));
+		}
+		assertFalse(new File(moved, "other.txt").exists());
+		if (executable) {
+			assertTrue(new File(moved, "file1.dat").canExecute());
+			assertFalse(new File(moved, "file2.dat").canExecute());
+			testItem.copyTestFile(source.getPath(), copies.getPath(),
+					"file1.dat");
+			assertTrue(new File(copies, "file1.dat").canExecute());
+		}
+
+		// Copying a file onto itself should leave it intact
+		testItem.copyTestFile(moved.getPath(), moved.getPath(), "file3.dat");
+		assertEquals(3001, new File(moved, "file3.dat").length());
+
+		// Clean up
+		testItem.deleteTestDirectory(root.getPath());
+		assertFalse(root.exists());
+
+		return;
+	}
+
 	/**
 	 * This method checks the Item's ability to get and use an IOService.
 	 */
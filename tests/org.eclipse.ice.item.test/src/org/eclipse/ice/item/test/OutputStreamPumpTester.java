@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.item.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.ice.item.action.IOutputListener;
+import org.eclipse.ice.item.action.OutputStreamPump;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the OutputStreamPump.
+ *
+ * @author Jay Jay Billings
+ */
+public class OutputStreamPumpTester {
+
+	/**
+	 * This operation checks that the pump copies its stream exactly, in
+	 * bounded chunks, to both the Writer and the listeners, even if one of the
+	 * listeners fails.
+	 *
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkPump() throws InterruptedException {
+
+		// Local Declarations
+		StringBuilder expected = new StringBuilder();
+		final StringBuilder received = new StringBuilder();
+		final ArrayList<Integer> chunkSizes = new ArrayList<Integer>();
+		StringWriter writer = new StringWriter();
+		CopyOnWriteArrayList<IOutputListener> listeners = new CopyOnWriteArrayList<IOutputListener>();
+		OutputStreamPump pump;
+
+		// Create several chunks of output with mixed line endings and a
+		// partial last line
+		for (int i = 0; expected.length() < 3 * OutputStreamPump.CHUNK_SIZE; i++) {
+			expected.append("Step " + i + " residual = 1.0e-" + (i % 10));
+			expected.append((i % 3 == 0) ? "\r\n" : "\n");
+		}
+		expected.append("no newline");
+
+		// Add a listener that fails and one that records the output
+		listeners.add(new IOutputListener() {
+			@Override
+			public void outputReceived(String streamName, char[] buffer,
+					int offset, int length) {
+				throw new IllegalStateException("Bad listener");
+			}
+		});
+		listeners.add(new IOutputListener() {
+			@Override
+			public void outputReceived(String streamName, char[] buffer,
+					int offset, int length) {
+				assertEquals(IOutputListener.STDOUT, streamName);
+				received.append(buffer, offset, length);
+				chunkSizes.add(length);
+			}
+		});
+
+		// Run the pump
+		pump = new OutputStreamPump(IOutputListener.STDOUT,
+				new ByteArrayInputStream(expected.toString().getBytes()),
+				writer, listeners);
+		pump.start();
+		pump.join();
+
+		// Check the output
+		assertFalse(pump.hasFailed());
+		assertEquals(expected.toString(), writer.toString());
+		assertEquals(expected.toString(), received.toString());
+		for (int size : chunkSizes) {
+			assertTrue(size <= OutputStreamPump.CHUNK_SIZE);
+		}
+
+		return;
+	}
+
+}
@@ -333,6 +333,24 @@ public class TestItem extends Item {
 	public void copyTestDirectory(String src, String dest) {
 		copyDirectory(src, dest);
 	}	
+
+	/**
+	 * This method is used by the ItemTester to test that a batch of file
+	 * transfers functions correctly. It copies the files to one directory and
+	 * then moves them to another in a single batch.
+	 * 
+	 * @param src
+	 * @param copyDest
+	 * @param moveDest
+	 * @param ext
+	 */
+	public void transferTestFiles(String src, String copyDest,
+			String moveDest, String ext) {
+		startFileTransfers();
+		copyFiles(src, copyDest, ext);
+		moveFiles(copyDest, moveDest, ext);
+		finishFileTransfers();
+	}
 	
 	/**
 	 * Return the IO type, this is used for the ItemTester.checkIOService.
@@ -19,8 +19,12 @@ import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.TreeComposite;
 import org.eclipse.ice.item.utilities.moose.MOOSEFileHandler;
 import org.eclipse.ice.item.utilities.moose.Parameter;
+import org.eclipse.ice.item.utilities.moose.YAMLCache;
 
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.util.ArrayList;
@@ -394,4 +398,202 @@ public class MOOSEFileHandlerTester {
 
 		return;
 	}
+
+	/**
+	 * This operation checks that the YAML specification is only loaded once
+	 * and that the cached copies are reloaded when the YAML file changes.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkCachedYAML() throws IOException {
+
+		// Local Declarations
+		File directory = File.createTempFile("mooseCache", "");
+		File yamlFile = new File(directory, "app.yaml");
+		File syntaxFile = new File(directory, "app.syntax");
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+		ArrayList<TreeComposite> first, second, third;
+		String yaml = "- name: /Kernels\n"
+				+ "  description: The kernels\n"
+				+ "  parameters:\n"
+				+ "  - name: active\n"
+				+ "    required: false\n"
+				+ "    default: __all__\n"
+				+ "    description: The active kernels\n"
+				+ "  subblocks:\n"
+				+ "  - name: /Kernels/<type>\n"
+				+ "    subblocks:\n"
+				+ "    - name: /Kernels/<type>/Diffusion\n"
+				+ "      parameters:\n"
+				+ "      - name: variable\n"
+				+ "        required: true\n"
+				+ "        description: The variable\n"
+				+ "    - name: /Kernels/<type>/TimeDerivative\n"
+				+ "      parameters:\n"
+				+ "      - name: variable\n"
+				+ "        required: true\n"
+				+ "        description: The variable\n"
+				+ "- name: /Mesh\n"
+				+ "  parameters:\n"
+				+ "  - name: file\n"
+				+ "    required: true\n"
+				+ "    description: The mesh file\n";
+
+		// Create the YAML and action syntax files
+		directory.delete();
+		assertTrue(directory.mkdir());
+		writeFile(yamlFile, yaml);
+		writeFile(syntaxFile, "Kernels\nKernels/*\nMesh\n");
+		YAMLCache.setCacheDirectory(new File(directory, "cache"));
+
+		// Load the file twice. The second copy should come from the cache,
+		// but it must be equal to and independent of the first.
+		YAMLCache.clear();
+		first = handler.loadYAML(yamlFile.getPath());
+		second = handler.loadYAML(yamlFile.getPath());
+		assertEquals(2, first.size());
+		assertEquals(first, second);
+		assertNotSame(first.get(0), second.get(0));
+		assertTrue(first.get(0) instanceof AdaptiveTreeComposite);
+		assertTrue(((AdaptiveTreeComposite) first.get(0)).getTypes().contains(
+				"Diffusion"));
+		first.get(1).setName("Changed");
+		assertEquals("Mesh", second.get(1).getName());
+
+		// Load it again from the binary copy of the YAML
+		YAMLCache.clear();
+		third = handler.loadYAML(yamlFile.getPath());
+		assertEquals(second, third);
+
+		// Change the file and make sure that the change is picked up
+		writeFile(yamlFile, yaml.replace("/Mesh", "/Outputs"));
+		yamlFile.setLastModified(yamlFile.lastModified() + 2000);
+		third = handler.loadYAML(yamlFile.getPath());
+		assertEquals(2, third.size());
+		assertEquals("Outputs", third.get(1).getName());
+
+		// Clean up
+		YAMLCache.clear();
+		deleteDirectory(directory);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a binary copy of the YAML that cannot be read
+	 * is ignored and the YAML is parsed again.
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void checkCorruptCachedYAML() throws IOException {
+
+		// Local Declarations
+		File directory = File.createTempFile("mooseCache", "");
+		File cacheDirectory = new File(directory, "cache");
+		File yamlFile = new File(directory, "app.yaml");
+		File syntaxFile = new File(directory, "app.syntax");
+		MOOSEFileHandler handler = new MOOSEFileHandler();
+		ArrayList<TreeComposite> first, second;
+		File[] cacheFiles;
+		String yaml = "- name: /Mesh\n"
+				+ "  parameters:\n"
+				+ "  - name: file\n"
+				+ "    required: true\n"
+				+ "    description: The mesh file\n";
+
+		// Create the YAML and action syntax files
+		directory.delete();
+		assertTrue(directory.mkdir());
+		writeFile(yamlFile, yaml);
+		writeFile(syntaxFile, "Mesh\n");
+		YAMLCache.setCacheDirectory(cacheDirectory);
+
+		// Load the file once to write the binary copy. No temporary files
+		// should be left behind.
+		YAMLCache.clear();
+		first = handler.loadYAML(yamlFile.getPath());
+		assertEquals(1, first.size());
+		cacheFiles = cacheDirectory.listFiles();
+		assertEquals(1, cacheFiles.length);
+		assertTrue(cacheFiles[0].getName().endsWith(".bin"));
+
+		// Claim a string that is far longer than the file
+		writeCorruptCache(cacheFiles[0], yamlFile, 1, Integer.MAX_VALUE);
+		YAMLCache.clear();
+		second = handler.loadYAML(yamlFile.getPath());
+		assertEquals(first, second);
+
+		// Claim a list with a negative size
+		writeCorruptCache(cacheFiles[0], yamlFile, 8, -5);
+		YAMLCache.clear();
+		second = handler.loadYAML(yamlFile.getPath());
+		assertEquals(first, second);
+
+		// Clean up
+		YAMLCache.clear();
+		deleteDirectory(directory);
+
+		return;
+	}
+
+	/**
+	 * This operation writes a binary copy of a YAML file with a valid header
+	 * and a single bad value.
+	 * 
+	 * @param cacheFile
+	 *            The binary copy.
+	 * @param yamlFile
+	 *            The YAML file.
+	 * @param tag
+	 *            The tag of the value.
+	 * @param size
+	 *            The size of the value.
+	 * @throws IOException
+	 */
+	private void writeCorruptCache(File cacheFile, File yamlFile, int tag,
+			int size) throws IOException {
+		DataOutputStream output = new DataOutputStream(new FileOutputStream(
+				cacheFile));
+		output.writeInt(0x4D4F4F53);
+		output.writeInt(1);
+		output.writeUTF(yamlFile.getAbsolutePath());
+		output.writeLong(yamlFile.lastModified());
+		output.writeLong(yamlFile.length());
+		output.writeByte(tag);
+		output.writeInt(size);
+		output.close();
+	}
+
+	/**
+	 * This operation deletes a directory and everything in it.
+	 * 
+	 * @param directory
+	 *            The directory.
+	 */
+	private void deleteDirectory(File directory) {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				deleteDirectory(file);
+			}
+		}
+		directory.delete();
+	}
+
+	/**
+	 * This operation writes a string to a file.
+	 * 
+	 * @param file
+	 *            The file.
+	 * @param contents
+	 *            The contents of the file.
+	 * @throws IOException
+	 */
+	private void writeFile(File file, String contents) throws IOException {
+		FileWriter writer = new FileWriter(file);
+		writer.write(contents);
+		writer.close();
+	}
 }
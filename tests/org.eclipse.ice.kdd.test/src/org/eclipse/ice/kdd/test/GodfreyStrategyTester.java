@@ -22,6 +22,7 @@ import java.io.InputStreamReader;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -32,6 +33,7 @@ import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.ice.kdd.kddmath.KDDMatrix;
 import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.GodfreyStrategy;
+import org.eclipse.ice.kdd.kddstrategy.godfreystrategy.SubStrategyFactory;
 import org.eclipse.ice.kdd.test.fakeobjects.FakeSubStrategyFactory;
 import org.eclipse.ice.kdd.test.fakeobjects.SimpleData;
 import org.eclipse.ice.kdd.test.fakeobjects.SimpleDataProvider;
@@ -158,6 +160,55 @@ public class GodfreyStrategyTester {
 
 	}
 
+	/**
+	 * <p>
+	 * Checks that the sub-strategies are executed with their dependencies and
+	 * that the time of each one is reported.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkExecuteSubStrategies() {
+
+		// Local Declarations
+		LinkedHashMap<String, Long> times;
+
+		// Create the strategy with the real sub-strategies
+		godfreyStrategy = new GodfreyStrategy(new SubStrategyFactory(),
+				nPinRows, nPinCols, nAxial, nAssemblies, providers.get(0)
+						.getDataAtCurrentTime("Data"), providers.get(1)
+						.getDataAtCurrentTime("Data"));
+
+		// Nothing has been timed yet
+		assertTrue(godfreyStrategy.getExecutionTimes().isEmpty());
+
+		// Execute it twice. The second execution should not depend on the
+		// first.
+		for (int i = 0; i < 2; i++) {
+			assertTrue(godfreyStrategy.executeStrategy());
+			assertNotNull(godfreyStrategy.getURI());
+
+			// Every sub-strategy should have been timed
+			times = godfreyStrategy.getExecutionTimes();
+			assertEquals(3, times.size());
+			assertTrue(times
+					.containsKey("Pin Power Difference Godfrey Sub-Strategy"));
+			assertTrue(times.containsKey("Axial Power Godfrey Sub-Strategy"));
+			assertTrue(times.containsKey("Radial Power Godfrey Sub-Strategy"));
+			for (Long time : times.values()) {
+				assertTrue(time >= 0);
+			}
+		}
+
+		// Without the differences the other sub-strategies still run. Setting
+		// the property executes the strategy again.
+		assertTrue(godfreyStrategy.setProperty("Pin Power Difference", "no"));
+		times = godfreyStrategy.getExecutionTimes();
+		assertTrue(times.containsKey("Axial Power Godfrey Sub-Strategy"));
+		assertTrue(times.containsKey("Radial Power Godfrey Sub-Strategy"));
+
+	}
+
 	/**
 	 * <p>
 	 * Checks that we can get and set properties correctly.
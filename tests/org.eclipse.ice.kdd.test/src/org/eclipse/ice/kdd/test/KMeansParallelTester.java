@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.kdd.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+import org.eclipse.ice.kdd.kddmath.KDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.ClusterKDDMatrix;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.DistanceMeasure;
+import org.eclipse.ice.kdd.kddstrategy.kmeansclustering.EuclideanDistanceMeasure;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class checks that the parallel, primitive k-means clustering of the
+ * ClusterKDDMatrix finds the same clusters as the sequential clustering
+ * through boxed elements that is used for other DistanceMeasures. The data is
+ * shaped like the pin powers of a core, with one row per pin and one column
+ * per axial level, and has enough rows to be split across several tasks.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class KMeansParallelTester {
+
+	/**
+	 * The number of pins in the core.
+	 */
+	private static final int nPins = 20 * 17 * 17;
+
+	/**
+	 * The number of axial levels.
+	 */
+	private static final int nAxial = 24;
+
+	/**
+	 * The number of clusters.
+	 */
+	private static final int nClusters = 4;
+
+	/**
+	 * The number of iterations.
+	 */
+	private static final int nIterations = 10;
+
+	/**
+	 * <p>
+	 * A Euclidean distance that works through the boxed elements of the
+	 * vectors. It is not an EuclideanDistanceMeasure, so the ClusterKDDMatrix
+	 * uses it sequentially.
+	 * </p>
+	 */
+	private static class BoxedDistanceMeasure implements DistanceMeasure {
+		@Override
+		public Double getDistance(KDDMatrix vector1, KDDMatrix vector2) {
+			Double sum = 0.0, temp = 0.0;
+			for (int i = 0; i < vector1.numberOfRows(); i++) {
+				temp = vector1.getElement(i, 0) - vector2.getElement(i, 0);
+				sum += Math.pow(temp, 2);
+			}
+			return Math.sqrt(sum);
+		}
+	}
+
+	/**
+	 * This operation creates the pin powers. Each pin is given one of a few
+	 * well separated power levels with a small amount of noise.
+	 *
+	 * @return The pin powers in row major order
+	 */
+	private double[] createPinPowers() {
+
+		// Local Declarations
+		double[] powers = new double[nPins * nAxial];
+		Random random = new Random(2014);
+
+		for (int i = 0; i < nPins; i++) {
+			double level = 0.5 + (i % nClusters);
+			for (int j = 0; j < nAxial; j++) {
+				powers[i * nAxial + j] = level
+						* Math.sin(Math.PI * (j + 0.5) / nAxial) + 0.05
+						* random.nextGaussian();
+			}
+		}
+
+		return powers;
+	}
+
+	/**
+	 * This operation creates the initial centroids from the first few rows.
+	 *
+	 * @param powers
+	 *            The pin powers
+	 * @return The centroids
+	 */
+	private ArrayList<KDDMatrix> createCentroids(double[] powers) {
+		ArrayList<KDDMatrix> centroids = new ArrayList<KDDMatrix>();
+		for (int k = 0; k < nClusters; k++) {
+			KDDMatrix centroid = new KDDMatrix(nAxial, 1);
+			for (int j = 0; j < nAxial; j++) {
+				centroid.setValue(j, 0, powers[k * nAxial + j]);
+			}
+			centroids.add(centroid);
+		}
+		return centroids;
+	}
+
+	/**
+	 * This operation checks that both clustering paths produce the same
+	 * clusters and that the clusters are the expected ones.
+	 */
+	@Test
+	public void checkParallelClustering() {
+
+		// Local Declarations
+		double[] powers = createPinPowers();
+		ClusterKDDMatrix boxedMatrix = new ClusterKDDMatrix(powers.clone(),
+				nPins, nAxial, new BoxedDistanceMeasure());
+		ClusterKDDMatrix primitiveMatrix = new ClusterKDDMatrix(
+				powers.clone(), nPins, nAxial, new EuclideanDistanceMeasure());
+
+		// Cluster the data both ways
+		boxedMatrix.cluster(createCentroids(powers), nIterations);
+		primitiveMatrix.cluster(createCentroids(powers), nIterations);
+
+		// Check the clusters
+		assertEquals(nClusters, primitiveMatrix.getNumberOfClusters());
+		ArrayList<KDDMatrix> boxedMeans = boxedMatrix.getClusterMeans();
+		ArrayList<KDDMatrix> primitiveMeans = primitiveMatrix
+				.getClusterMeans();
+		for (int k = 0; k < nClusters; k++) {
+			// Pin i has power level i % nClusters
+			assertEquals((nPins + nClusters - 1 - k) / nClusters,
+					primitiveMatrix.getNumberOfClusterElements(k));
+			assertEquals(boxedMatrix.getNumberOfClusterElements(k),
+					primitiveMatrix.getNumberOfClusterElements(k));
+			for (int j = 0; j < nAxial; j++) {
+				assertEquals(boxedMeans.get(k).getValue(j, 0), primitiveMeans
+						.get(k).getValue(j, 0), 1.0e-12);
+			}
+		}
+
+		return;
+	}
+
+}
@@ -125,6 +125,30 @@ public class PinPowerDifferenceTester {
 		assertNotNull(pinDiff.getURI());
 	}
 
+	/**
+	 * This operation checks that setting the difference type calculates the
+	 * differences again and that invalid types are rejected.
+	 */
+	@Test
+	public void checkSetProperty() {
+
+		// Calculate the differences
+		assertTrue(pinDiff.executeStrategy());
+		assertTrue(pinDiff.hasExecuted());
+		assertEquals("Basic", pinDiff.getProperty("Difference Type"));
+
+		// Invalid types and properties are rejected
+		assertFalse(pinDiff.setProperty("Difference Type", "Absolute"));
+		assertEquals("Basic", pinDiff.getProperty("Difference Type"));
+		assertTrue(pinDiff.hasExecuted());
+		assertFalse(pinDiff.setProperty("Symmetry Type", "Full"));
+
+		// Changing the type calculates the differences again
+		assertTrue(pinDiff.setProperty("Difference Type", "Relative"));
+		assertEquals("Relative", pinDiff.getProperty("Difference Type"));
+		assertTrue(pinDiff.hasExecuted());
+	}
+
 	/**
 	 * 
 	 * @return
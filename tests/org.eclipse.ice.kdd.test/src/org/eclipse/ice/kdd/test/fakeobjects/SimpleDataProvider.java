@@ -105,6 +105,15 @@ public class SimpleDataProvider implements IDataProvider {
 		}
 	}
 
+	/**
+	 * (non-Javadoc)
+	 * 
+	 * @see IDataProvider#getNumberOfDataAtCurrentTime(String feature)
+	 */
+	public int getNumberOfDataAtCurrentTime(String feature) {
+		return dataSet.get(feature).size();
+	}
+
 	/**
 	 * (non-Javadoc)
 	 * 
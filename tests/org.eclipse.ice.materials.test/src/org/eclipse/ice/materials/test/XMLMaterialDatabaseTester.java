@@ -228,4 +228,102 @@ public class XMLMaterialDatabaseTester {
 			fail();
 		}
 	}
+
+	/**
+	 * This operation checks the queries by name and by property value, and
+	 * that changes are written to the user database without stopping the
+	 * service.
+	 * 
+	 * @throws JAXBException
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	@Test
+	public void checkQueries() throws JAXBException, IOException,
+			InterruptedException {
+
+		// Local Declarations
+		File userFile = File.createTempFile("userMaterials", ".xml");
+		File defaultFile = File.createTempFile("defaultMaterials", ".xml");
+		ArrayList<Material> materials = new ArrayList<Material>();
+		ICEList<Material> jaxbMaterialsList = new ICEList<Material>();
+		List<Material> results;
+
+		// Create a set of materials with increasing densities
+		for (int i = 0; i < 100; i++) {
+			Material material = new Material();
+			material.setName("Material " + i);
+			material.setProperty("density", 0.5 * i);
+			materials.add(material);
+		}
+		materials.add(TestMaterialFactory.createH2O());
+		jaxbMaterialsList.setList(materials);
+		JAXBContext jaxbContext = JAXBContext.newInstance(ICEList.class,
+				Material.class);
+		Marshaller jaxbMarshaller = jaxbContext.createMarshaller();
+		jaxbMarshaller.marshal(jaxbMaterialsList, defaultFile);
+		userFile.delete();
+
+		// Start the database
+		XMLMaterialsDatabase database = new XMLMaterialsDatabase(userFile,
+				defaultFile);
+		database.start();
+
+		// Check the queries by name
+		assertEquals(101, database.getMaterials().size());
+		assertEquals(materials.get(10), database.getMaterial("Material 10"));
+		assertNull(database.getMaterial("Unobtainium"));
+
+		// Check a range. The materials without a density are not included.
+		results = database.getMaterials("density", 10.0, 12.0);
+		assertEquals(5, results.size());
+		for (int i = 0; i < results.size(); i++) {
+			assertEquals(10.0 + 0.5 * i, results.get(i).getProperty("density"),
+					0.0);
+		}
+		assertTrue(database.getMaterials("density", 12.0, 10.0).isEmpty());
+		assertTrue(database.getMaterials("color", 0.0, 100.0).isEmpty());
+
+		// Changes must be reflected in the queries
+		Material heavy = new Material();
+		heavy.setName("Heavy");
+		heavy.setProperty("density", 11.3);
+		database.addMaterial(heavy);
+		results = database.getMaterials("density", 10.0, 12.0);
+		assertEquals(6, results.size());
+		assertTrue(results.contains(heavy));
+		database.deleteMaterial("Material 21");
+		assertEquals(5, database.getMaterials("density", 10.0, 12.0).size());
+		assertEquals(101, database.getMaterials().size());
+
+		// Edits made through the table format must be reflected too
+		MaterialWritableTableFormat format = (MaterialWritableTableFormat) database
+				.getTableFormat();
+		String property = format.getColumnName(1);
+		Material edited = database.getMaterial("Material 2");
+		assertTrue(database.getMaterials(property, 1234.5, 1234.5).isEmpty());
+		format.setColumnValue(edited, "1234.5", 1);
+		results = database.getMaterials(property, 1234.5, 1234.5);
+		assertEquals(1, results.size());
+		assertTrue(results.contains(edited));
+
+		// The changes should be written in the background
+		for (int i = 0; i < 100 && !userFile.exists(); i++) {
+			Thread.sleep(100);
+		}
+		assertTrue(userFile.exists());
+
+		// Restart it and make sure the changes were kept
+		database.stop();
+		database.start();
+		assertNotNull(database.getMaterial("Heavy"));
+		assertNull(database.getMaterial("Material 21"));
+		database.stop();
+
+		// Clean up
+		userFile.delete();
+		defaultFile.delete();
+
+		return;
+	}
 }
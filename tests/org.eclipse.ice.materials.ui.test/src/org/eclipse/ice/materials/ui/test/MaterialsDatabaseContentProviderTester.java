@@ -0,0 +1,87 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay
+ *   Billings
+ *******************************************************************************/
+package org.eclipse.ice.materials.ui.test;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.ice.datastructures.form.Material;
+import org.eclipse.ice.materials.ui.MaterialsDatabaseContentProvider;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing
+ * {@link MaterialsDatabaseContentProvider}.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class MaterialsDatabaseContentProviderTester {
+
+	/**
+	 * This operation checks that the provider lists the materials of the
+	 * database, which returns an unmodifiable list, and their components.
+	 */
+	@Test
+	public void checkMaterials() {
+
+		// Local Declarations
+		MaterialsDatabaseContentProvider provider = new MaterialsDatabaseContentProvider();
+		ArrayList<Material> materials = new ArrayList<Material>();
+		Material water = new Material(), hydrogen = new Material(), oxygen = new Material();
+		Object[] elements;
+
+		// Create a material with two components and add them all
+		hydrogen.setName("H");
+		oxygen.setName("O");
+		water.setName("H2O");
+		water.addComponent(hydrogen);
+		water.addComponent(oxygen);
+		materials.add(hydrogen);
+		materials.add(water);
+		materials.add(oxygen);
+
+		// The database hands out an unmodifiable list of its materials
+		List<Material> input = Collections.unmodifiableList(materials);
+
+		// Check the elements
+		elements = provider.getElements(input);
+		assertNotNull(elements);
+		assertArrayEquals(materials.toArray(), elements);
+
+		// Check the children of the input
+		assertTrue(provider.hasChildren(input));
+		assertArrayEquals(materials.toArray(), provider.getChildren(input));
+
+		// Check the children of the materials
+		assertTrue(provider.hasChildren(water));
+		assertArrayEquals(new Object[] { hydrogen, oxygen },
+				provider.getChildren(water));
+		assertFalse(provider.hasChildren(hydrogen));
+		assertEquals(0, provider.getChildren(hydrogen).length);
+
+		// An empty database has no elements
+		input = Collections.emptyList();
+		assertEquals(0, provider.getElements(input).length);
+		assertFalse(provider.hasChildren(input));
+
+		// Anything else is not a database
+		assertNull(provider.getElements("Materials"));
+		assertFalse(provider.hasChildren("Materials"));
+
+		return;
+	}
+
+}
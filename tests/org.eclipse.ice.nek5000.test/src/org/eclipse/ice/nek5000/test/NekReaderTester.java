@@ -20,12 +20,16 @@ import static org.junit.Assert.fail;
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.mesh.BoundaryCondition;
+import org.eclipse.ice.datastructures.form.mesh.BoundaryConditionType;
 import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
 import org.eclipse.ice.datastructures.form.mesh.Quad;
+import org.eclipse.ice.datastructures.form.mesh.Vertex;
 import org.eclipse.ice.nek5000.NekReader;
+import org.eclipse.ice.nek5000.ProblemProperties;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 
@@ -2048,4 +2052,144 @@ public class NekReaderTester {
 		return;
 		
 	}
+
+	/**
+	 * Tests the NekReader on a generated reafile with a mesh that is large
+	 * enough for the elements and boundary conditions to be decoded in
+	 * parallel. The sections after the mesh must still be found, and every
+	 * element must get the same IDs it would get if the elements were read
+	 * one after another.
+	 */
+	@Test
+	public void checkLargeMesh() {
+
+		// Local Declarations
+		NekReader reader = new NekReader();
+		int numX = 30, numY = 20, numElements = numX * numY;
+		ArrayList<Component> component = null;
+		File testFile = null;
+
+		// Write a reafile with a numX by numY grid of square elements
+		StringBuilder rea = new StringBuilder();
+		rea.append(" ****** PARAMETERS *****\n");
+		rea.append("    2.610000     NEKTON VERSION\n");
+		rea.append("            2 DIMENSIONAL RUN\n");
+		rea.append("            2 PARAMETERS FOLLOW\n");
+		rea.append("   1.00000      p001 DENSITY\n");
+		rea.append("  -100.000\tp002   VISCOS   (negative) \n");
+		rea.append("    0  Lines of passive scalar data follows\n");
+		rea.append("         2  LOGICAL SWITCHES FOLLOW\n");
+		rea.append("  T      IFFLOW\n");
+		rea.append("  F      IFHEAT\n");
+		rea.append("   10.0  10.0  -0.5  -0.5     XFAC,YFAC,XZERO,YZERO\n");
+		rea.append("  ***** MESH DATA *****\n");
+		rea.append("  " + numElements + "  2  " + numElements
+				+ "           NEL,NDIM,NELV\n");
+		for (int i = 0; i < numElements; i++) {
+			int x = i % numX, y = i / numX;
+			rea.append("            ELEMENT " + (i + 1)
+					+ " [    1a]  GROUP  0\n");
+			rea.append("   " + x + " " + (x + 1) + " " + (x + 1) + " " + x
+					+ "\n");
+			rea.append("   " + y + " " + y + " " + (y + 1) + " " + (y + 1)
+					+ "\n");
+		}
+		rea.append("  ***** CURVED SIDE DATA *****\n");
+		rea.append("       0 Curved sides follow IEDGE,IEL,CURVE(I),I=1,5, "
+				+ "CCURVE\n");
+		rea.append("  ***** BOUNDARY CONDITIONS *****\n");
+		rea.append("  ***** FLUID   BOUNDARY CONDITIONS *****\n");
+		for (int i = 0; i < numElements; i++) {
+			for (int j = 1; j <= 4; j++) {
+				rea.append((j == 1 ? " W  " : " E  ") + (i + 1) + "  " + j
+						+ "  " + (float) i + "  0.0  0.0  0.0  0.0\n");
+			}
+		}
+		rea.append("  ***** NO THERMAL BOUNDARY CONDITIONS *****\n");
+		rea.append("   0 PRESOLVE/RESTART OPTIONS  *****\n");
+		rea.append("   1         INITIAL CONDITIONS *****\n");
+		rea.append("C Default\n");
+		rea.append("  ***** OUTPUT FIELD SPECIFICATION *****\n");
+		rea.append("   2  SPECIFICATIONS FOLLOW\n");
+		rea.append("  T      COORDINATES\n");
+		rea.append("  F      VELOCITY\n");
+		try {
+			testFile = File.createTempFile("largeMesh", ".rea");
+			testFile.deleteOnExit();
+			FileWriter writer = new FileWriter(testFile);
+			writer.write(rea.toString());
+			writer.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail("Failed to write the generated Nek input file");
+		}
+
+		// Load the file
+		try {
+			component = reader.loadREAFile(testFile);
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+			fail("Failed to find Nek input file: " + testFile.toString());
+		} catch (IOException e) {
+			e.printStackTrace();
+			fail("Failed to read from Nek input file: " + testFile.toString());
+		}
+		assertNotNull(component);
+		assertEquals(13, component.size());
+
+		// Check the parameters. Tabs and repeated spaces separate the words.
+		DataComponent parameters = (DataComponent) component.get(0);
+		assertEquals(2, parameters.retrieveAllEntries().size());
+		assertEquals("-100.000", parameters.retrieveEntry("p02").getValue());
+		assertEquals("VISCOS (negative) ", parameters.retrieveEntry("p02")
+				.getDescription());
+
+		// Check the logical switches
+		DataComponent switches = (DataComponent) component.get(2);
+		assertEquals(2, switches.retrieveAllEntries().size());
+		assertEquals("YES", switches.retrieveEntry("IFFLOW").getValue());
+		assertEquals("NO", switches.retrieveEntry("IFHEAT").getValue());
+
+		// Check the problem properties
+		ProblemProperties properties = reader.getLastProperties();
+		assertEquals(2, properties.getNumDimensions());
+		assertEquals(numElements, properties.getNumThermalElements());
+		assertEquals(numElements, properties.getNumFluidElements());
+		assertEquals(0, properties.getNumPassiveScalars());
+
+		// Check every element, its vertices and its fluid boundary conditions
+		MeshComponent mesh = (MeshComponent) component.get(4);
+		assertEquals(numElements, mesh.getPolygons().size());
+		for (int i = 0; i < numElements; i++) {
+			Quad quad = (Quad) mesh.getPolygon(i + 1);
+			assertNotNull(quad);
+			assertEquals("1a", quad.getPolygonProperties().getMaterialId());
+			ArrayList<Vertex> vertices = quad.getVertices();
+			assertEquals(4, vertices.size());
+			for (int j = 0; j < 4; j++) {
+				assertEquals(4 * i + j + 1, vertices.get(j).getId());
+				assertEquals(4 * i + j + 1, quad.getEdges().get(j).getId());
+			}
+			assertEquals(i % numX, vertices.get(0).getLocation()[0], 0f);
+			assertEquals(i / numX + 1, vertices.get(2).getLocation()[1], 0f);
+			BoundaryCondition condition = quad
+					.getFluidBoundaryCondition(4 * i + 1);
+			assertEquals(BoundaryConditionType.Wall, condition.getType());
+			assertEquals((float) i, condition.getValues().get(0), 0f);
+			assertEquals(BoundaryConditionType.Internal, quad
+					.getFluidBoundaryCondition(4 * i + 2).getType());
+		}
+
+		// Check the sections after the mesh
+		DataComponent initialConditions = (DataComponent) component.get(7);
+		assertEquals(1, initialConditions.retrieveAllEntries().size());
+		assertEquals("C Default", initialConditions.retrieveAllEntries()
+				.get(0).getValue());
+		DataComponent outputFieldSpec = (DataComponent) component.get(11);
+		assertEquals(2, outputFieldSpec.retrieveAllEntries().size());
+		assertEquals("YES", outputFieldSpec.retrieveEntry("COORDINATES")
+				.getValue());
+
+		return;
+	}
 }
@@ -0,0 +1,463 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package xmlpp.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import javax.xml.bind.JAXBException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.eclipse.ice.datastructures.ICEObject.Component;
+import org.eclipse.ice.datastructures.form.MatrixComponent;
+import org.eclipse.ice.datastructures.form.mesh.BoundaryCondition;
+import org.eclipse.ice.datastructures.form.mesh.BoundaryConditionType;
+import org.eclipse.ice.datastructures.form.mesh.Edge;
+import org.eclipse.ice.datastructures.form.mesh.MeshComponent;
+import org.eclipse.ice.datastructures.form.mesh.Quad;
+import org.eclipse.ice.datastructures.form.mesh.Vertex;
+import org.eclipse.ice.datastructures.jaxbclassprovider.ICEJAXBClassProvider;
+import org.eclipse.ice.item.Item;
+import org.eclipse.ice.item.nuclear.MOOSEModelBuilder;
+import org.eclipse.ice.persistence.xml.BinaryPersistenceProvider;
+import org.eclipse.ice.persistence.xml.PersistenceConverter;
+import org.eclipse.ice.persistence.xml.XMLPersistenceProvider;
+import org.eclipse.ice.vibe.launcher.VibeLauncherBuilder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * This class tests the BinaryPersistenceProvider and the PersistenceConverter.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class BinaryPersistenceProviderTester {
+
+	/**
+	 * The Eclipse project used in the test.
+	 */
+	private static IProject project;
+
+	/**
+	 * The BinaryPersistenceProvider that will be tested.
+	 */
+	private static BinaryPersistenceProvider binaryProvider;
+
+	/**
+	 * This operation sets up the tester and creates the project space. It also
+	 * copies the data file for the MOOSEModel Item into the workspace so that
+	 * it can be used.
+	 */
+	@BeforeClass
+	static public void setup() {
+
+		// Local Declarations
+		IWorkspaceRoot workspaceRoot = ResourcesPlugin.getWorkspace().getRoot();
+		String projectName = "binaryItemDB";
+		String separator = System.getProperty("file.separator");
+		String userDir = System.getProperty("user.home") + separator
+				+ "ICETests" + separator + "persistenceData";
+		String filePath = userDir + separator + "bison.yaml";
+		String projectPath = userDir + separator + projectName;
+
+		// Setup the project
+		try {
+			// Get the project handle
+			project = workspaceRoot.getProject(projectName);
+			// If the project does not exist, create it
+			if (!project.exists()) {
+				URI defaultProjectLocation = (new File(projectPath).toURI());
+				IProjectDescription desc = ResourcesPlugin.getWorkspace()
+						.newProjectDescription(projectName);
+				desc.setLocationURI(defaultProjectLocation);
+				project.create(desc, null);
+			}
+			// Open the project if it is not already open
+			if (project.exists() && !project.isOpen()) {
+				project.open(null);
+			}
+			// Setup the project directory
+			IFolder mooseFolder = project.getFolder("MOOSE");
+			if (!mooseFolder.exists()) {
+				mooseFolder.create(true, true, null);
+				IPath moosePath = new Path(filePath);
+				FileInputStream mooseStream = new FileInputStream(
+						moosePath.toFile());
+				IFile mooseEFSFile = mooseFolder.getFile("bison.yaml");
+				mooseEFSFile.create(mooseStream, true, null);
+			}
+			// Refresh the workspace
+			project.refreshLocal(IResource.DEPTH_INFINITE, null);
+		} catch (CoreException e) {
+			e.printStackTrace();
+			fail();
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		// Setup and start the provider
+		binaryProvider = createProvider(true);
+
+		return;
+	}
+
+	/**
+	 * This operation cleans up after the test and removes the project space.
+	 */
+	@AfterClass
+	static public void teardown() {
+
+		// Stop the provider
+		binaryProvider.stop();
+
+		// Delete the project.
+		try {
+			project.delete(true, null);
+		} catch (CoreException e) {
+			// Complain
+			e.printStackTrace();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation creates and starts a provider for the project space.
+	 *
+	 * @param binary
+	 *            True if a BinaryPersistenceProvider should be created, false
+	 *            if an XMLPersistenceProvider should be created
+	 * @return The started provider
+	 */
+	private static XMLPersistenceProvider startProvider(boolean binary) {
+
+		// Create the provider
+		XMLPersistenceProvider provider = (binary) ? new BinaryPersistenceProvider(
+				project) : new XMLPersistenceProvider(project);
+		provider.addBuilder(new MOOSEModelBuilder());
+		provider.addBuilder(new VibeLauncherBuilder());
+		provider.registerClassProvider(new ICEJAXBClassProvider());
+		provider.setPreloadOnStart(false);
+
+		// Start it
+		try {
+			provider.start();
+		} catch (JAXBException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		return provider;
+	}
+
+	/**
+	 * This operation creates and starts a BinaryPersistenceProvider for the
+	 * project space.
+	 *
+	 * @param mapEverything
+	 *            True if every file should be read through a memory-mapped
+	 *            buffer
+	 * @return The started provider
+	 */
+	private static BinaryPersistenceProvider createProvider(
+			boolean mapEverything) {
+		BinaryPersistenceProvider provider = (BinaryPersistenceProvider) startProvider(true);
+		if (mapEverything) {
+			provider.setMemoryMapThreshold(0);
+		}
+		return provider;
+	}
+
+	/**
+	 * This is a utility operation that just delays the execution of the program
+	 * for the specified number of seconds.
+	 *
+	 * @param seconds
+	 *            The time to delay.
+	 */
+	private void pause(int seconds) {
+		try {
+			Thread.sleep(seconds * 1000);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * This operation creates a MOOSE Item with a MatrixComponent in its Form so
+	 * that both the native and the XML records are used.
+	 *
+	 * @param id
+	 *            The id of the Item
+	 * @return The Item
+	 */
+	private Item createItem(int id) {
+
+		// Create the Item
+		Item item = new MOOSEModelBuilder().build(project);
+		item.setId(id);
+
+		// Add a 3x4 matrix to it
+		MatrixComponent matrix = new MatrixComponent(false);
+		matrix.setId(1001);
+		matrix.setName("Coefficients");
+		matrix.addRow();
+		matrix.addRow();
+		for (int i = 0; i < 3; i++) {
+			matrix.addColumn();
+		}
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 4; j++) {
+				matrix.setElementValue(i, j, i * 10.0 + j + 0.5);
+			}
+		}
+		item.getForm().addComponent(matrix);
+
+		return item;
+	}
+
+	/**
+	 * This operation checks that the matrix added by createItem() survived
+	 * the round trip.
+	 *
+	 * @param item
+	 *            The loaded Item
+	 */
+	private void checkMatrix(Item item) {
+
+		// Find the matrix
+		MatrixComponent matrix = null;
+		for (Component component : item.getForm().getComponents()) {
+			if (component instanceof MatrixComponent
+					&& ((MatrixComponent) component).getId() == 1001) {
+				matrix = (MatrixComponent) component;
+			}
+		}
+
+		// Check it
+		assertNotNull(matrix);
+		assertEquals("Coefficients", matrix.getName());
+		assertEquals(3, matrix.numberOfRows());
+		assertEquals(4, matrix.numberOfColumns());
+		for (int i = 0; i < 3; i++) {
+			for (int j = 0; j < 4; j++) {
+				assertEquals(i * 10.0 + j + 0.5, matrix.getElementValue(i, j),
+						0.0);
+			}
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that Items are persisted in the binary format and
+	 * loaded again by a new provider.
+	 */
+	@Test
+	public void checkPersistAndLoad() {
+
+		// Create an Item and persist it
+		Item item = createItem(1);
+		String name = item.getName().replace(" ", "_") + "_" + item.getId()
+				+ "." + BinaryPersistenceProvider.FILE_EXTENSION;
+		assertTrue(binaryProvider.persistItem(item));
+		pause(2);
+		assertTrue(project.getFile(name).exists());
+
+		// Start a second provider, load the Item and check it. Serialized
+		// Items do not store their project.
+		BinaryPersistenceProvider provider = createProvider(true);
+		Item loadedItem = provider.loadItem(1);
+		assertNotNull(loadedItem);
+		loadedItem.setProject(project);
+		assertEquals(item, loadedItem);
+		checkMatrix(loadedItem);
+		provider.stop();
+
+		// Loading from the heap should give the same result
+		provider = createProvider(false);
+		loadedItem = provider.loadItem(1);
+		assertNotNull(loadedItem);
+		loadedItem.setProject(project);
+		assertEquals(item, loadedItem);
+		checkMatrix(loadedItem);
+		provider.stop();
+
+		return;
+	}
+
+	/**
+	 * This operation checks that a MeshComponent is stored with a native record
+	 * and that the loaded mesh shares its Vertices and Edges between Polygons.
+	 */
+	@Test
+	public void checkMeshRecord() {
+
+		// Local Declarations
+		Item item = createItem(3);
+		MeshComponent mesh = new MeshComponent();
+		ArrayList<Vertex> vertices = new ArrayList<Vertex>();
+		ArrayList<Edge> edges = new ArrayList<Edge>();
+		BoundaryCondition condition = new BoundaryCondition(
+				BoundaryConditionType.Wall);
+		ArrayList<Float> values = new ArrayList<Float>();
+		MeshComponent loadedMesh = null;
+
+		// Create a row of two quads that share an edge
+		for (int i = 0; i < 6; i++) {
+			vertices.add(new Vertex(i % 3, i / 3, 0f));
+			vertices.get(i).setId(i + 1);
+		}
+		int[][] edgeVertices = { { 0, 1 }, { 1, 4 }, { 4, 3 }, { 3, 0 },
+				{ 1, 2 }, { 2, 5 }, { 5, 4 } };
+		for (int i = 0; i < edgeVertices.length; i++) {
+			edges.add(new Edge(vertices.get(edgeVertices[i][0]), vertices
+					.get(edgeVertices[i][1])));
+			edges.get(i).setId(i + 1);
+		}
+		Quad quad = new Quad(new ArrayList<Edge>(Arrays.asList(edges.get(0),
+				edges.get(1), edges.get(2), edges.get(3))),
+				new ArrayList<Vertex>(Arrays.asList(vertices.get(0),
+						vertices.get(1), vertices.get(4), vertices.get(3))));
+		quad.setId(1);
+		quad.setPolygonProperties("fuel", 2);
+		values.add(1.5f);
+		condition.setValues(values);
+		quad.setFluidBoundaryCondition(1, condition);
+		mesh.addPolygon(quad);
+		quad = new Quad(new ArrayList<Edge>(Arrays.asList(edges.get(4),
+				edges.get(5), edges.get(6), edges.get(1))),
+				new ArrayList<Vertex>(Arrays.asList(vertices.get(1),
+						vertices.get(2), vertices.get(5), vertices.get(4))));
+		quad.setId(2);
+		mesh.addPolygon(quad);
+		mesh.setId(1002);
+		item.getForm().addComponent(mesh);
+
+		// Persist the Item and load it with a second provider
+		assertTrue(binaryProvider.persistItem(item));
+		pause(2);
+		BinaryPersistenceProvider provider = createProvider(false);
+		Item loadedItem = provider.loadItem(3);
+		provider.stop();
+		assertNotNull(loadedItem);
+		loadedItem.setProject(project);
+		assertEquals(item, loadedItem);
+
+		// Find the mesh and check that it was rebuilt with shared parts
+		for (Component component : loadedItem.getForm().getComponents()) {
+			if (component instanceof MeshComponent) {
+				loadedMesh = (MeshComponent) component;
+			}
+		}
+		assertNotNull(loadedMesh);
+		assertEquals(mesh, loadedMesh);
+		assertEquals(6, loadedMesh.getVertices().size());
+		assertEquals(7, loadedMesh.getEdges().size());
+		assertSame(loadedMesh.getEdge(2), loadedMesh.getPolygon(1).getEdges()
+				.get(1));
+		assertSame(loadedMesh.getEdge(2), loadedMesh.getPolygon(2).getEdges()
+				.get(3));
+		assertEquals(condition, loadedMesh.getPolygon(1)
+				.getFluidBoundaryCondition(1));
+		assertEquals("fuel", loadedMesh.getPolygon(1).getPolygonProperties()
+				.getMaterialId());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that Items stored in XML are loaded by the binary
+	 * provider and that the PersistenceConverter converts them in both
+	 * directions.
+	 */
+	@Test
+	public void checkConversion() {
+
+		// Local Declarations
+		Item item = createItem(2);
+		String baseName = item.getName().replace(" ", "_") + "_"
+				+ item.getId();
+		IFile xmlFile = project.getFile(baseName + ".xml");
+		IFile binaryFile = project.getFile(baseName + "."
+				+ BinaryPersistenceProvider.FILE_EXTENSION);
+		XMLPersistenceProvider xmlProvider = startProvider(false);
+		BinaryPersistenceProvider provider;
+		Item loadedItem;
+		ArrayList<Item> items;
+
+		// Store the Item as XML
+		assertTrue(xmlProvider.persistItem(item));
+		pause(2);
+		assertTrue(xmlFile.exists());
+
+		// The binary provider should load it as is
+		provider = createProvider(false);
+		loadedItem = provider.loadItem(2);
+		assertNotNull(loadedItem);
+		loadedItem.setProject(project);
+		assertEquals(item, loadedItem);
+		checkMatrix(loadedItem);
+
+		// Convert it to binary, which should replace the XML file
+		assertTrue(PersistenceConverter.convert(xmlProvider, provider) > 0);
+		provider.stop();
+		assertTrue(binaryFile.exists());
+		assertFalse(xmlFile.exists());
+		xmlProvider.stop();
+
+		// Convert it back to XML
+		provider = createProvider(false);
+		xmlProvider = startProvider(false);
+		assertTrue(PersistenceConverter.convert(provider, xmlProvider) > 0);
+		xmlProvider.stop();
+		provider.stop();
+		assertTrue(xmlFile.exists());
+
+		// Load it from the XML again and check it
+		xmlProvider = startProvider(false);
+		items = xmlProvider.loadItems();
+		loadedItem = null;
+		for (Item currentItem : items) {
+			if (currentItem.getId() == 2) {
+				loadedItem = currentItem;
+			}
+		}
+		assertNotNull(loadedItem);
+		loadedItem.setProject(project);
+		assertEquals(item, loadedItem);
+		checkMatrix(loadedItem);
+		xmlProvider.stop();
+
+		return;
+	}
+
+}
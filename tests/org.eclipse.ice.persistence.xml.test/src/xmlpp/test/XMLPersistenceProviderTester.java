@@ -281,6 +281,50 @@ public class XMLPersistenceProviderTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that repeated persistence requests for the same
+	 * Item are coalesced and that an update of an unchanged Item does not
+	 * rewrite its file.
+	 */
+	@Test
+	public void checkBatchedPersist() {
+
+		// Create a MOOSE item
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		item.setId(6);
+		String name = item.getName().replace(" ", "_") + "_" + item.getId()
+				+ ".xml";
+		IFile file = project.getFile(name);
+
+		// Submit a burst of persists and updates for the same Item
+		for (int i = 0; i < 20; i++) {
+			assertTrue(xmlpp.persistItem(item));
+			assertTrue(xmlpp.updateItem(item));
+		}
+
+		// Wait while the file is persisted.
+		pause(2);
+
+		// Check the project space to make sure it was persisted
+		assertTrue(checkPersistedFile(name));
+		long stamp = file.getModificationStamp();
+
+		// Update it without changing anything and make sure the file was left
+		// alone
+		assertTrue(xmlpp.updateItem(item));
+		pause(2);
+		assertEquals(stamp, file.getModificationStamp());
+
+		// Change the Item and make sure that the file is rewritten
+		item.setDescription("A changed MOOSE Model");
+		assertTrue(xmlpp.updateItem(item));
+		pause(2);
+		assertTrue(stamp != file.getModificationStamp());
+
+		return;
+	}
+
 	/**
 	 * This operation checks the load operation to make sure that the
 	 * XMLPersistenceProvider can properly load Items from the workspace. It
@@ -368,6 +412,50 @@ public class XMLPersistenceProviderTester {
 		return;
 	}
 
+	/**
+	 * This operation checks that a second provider that does not preload the
+	 * Items can find them in the project space and load them on demand, and
+	 * that it stops quickly.
+	 */
+	@Test
+	public void checkLoadOnDemand() {
+
+		// Create a MOOSE item and persist it
+		MOOSEModelBuilder builder = new MOOSEModelBuilder();
+		Item item = builder.build(project);
+		item.setId(8);
+		assertTrue(xmlpp.persistItem(item));
+		pause(2);
+
+		// Start a second provider that only loads Items on demand
+		XMLPersistenceProvider lazyProvider = new XMLPersistenceProvider(
+				project);
+		lazyProvider.addBuilder(new MOOSEModelBuilder());
+		lazyProvider.addBuilder(new VibeLauncherBuilder());
+		lazyProvider.registerClassProvider(new ICEJAXBClassProvider());
+		lazyProvider.setPreloadOnStart(false);
+		try {
+			lazyProvider.start();
+		} catch (JAXBException e) {
+			e.printStackTrace();
+			fail();
+		}
+
+		// The Item should load on demand
+		Item loadedItem = lazyProvider.loadItem(8);
+		assertNotNull(loadedItem);
+		loadedItem.setProject(project);
+		assertEquals(item, loadedItem);
+
+		// Stopping an idle provider should wake its event loop right away
+		// instead of waiting for the next poll of the queue.
+		long startTime = System.nanoTime();
+		lazyProvider.stop();
+		assertTrue(System.nanoTime() - startTime < 1000000000L);
+
+		return;
+	}
+
 	/**
 	 * This operation insures that IWriter interface is implemented as described
 	 * by the XML persistence provider and that the operations function.
@@ -0,0 +1,260 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.plant.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ice.reactor.plant.IPlantCompositeListener;
+import org.eclipse.ice.reactor.plant.Pipe;
+import org.eclipse.ice.reactor.plant.PipeToPipeJunction;
+import org.eclipse.ice.reactor.plant.PlantComponent;
+import org.eclipse.ice.reactor.plant.PlantComposite;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class checks how a PlantComposite delivers its events when a large
+ * plant is loaded one component at a time or in a single batch, and when a
+ * listener fails. The plant is a long loop of Pipes that are connected by
+ * PipeToPipeJunctions, which is the shape of a large RELAP-7 model.
+ * </p>
+ *
+ * @author Jordan H. Deyton
+ */
+public class PlantCompositeEventTester {
+
+	/**
+	 * The number of Pipes in the plant. There is one junction per pipe.
+	 */
+	private static final int nPipes = 5000;
+
+	/**
+	 * This listener counts the events and components it receives, like the
+	 * plant view, which renders once per event. It also records the added
+	 * components in the order it receives them.
+	 */
+	private static class CountingListener implements IPlantCompositeListener {
+
+		private final AtomicInteger events = new AtomicInteger();
+
+		private final AtomicInteger added = new AtomicInteger();
+
+		private final List<PlantComponent> addedComponents = Collections
+				.synchronizedList(new ArrayList<PlantComponent>());
+
+		@Override
+		public void addedComponents(PlantComposite composite,
+				List<PlantComponent> components) {
+			addedComponents.addAll(components);
+			added.addAndGet(components.size());
+			events.incrementAndGet();
+		}
+
+		@Override
+		public void removedComponents(PlantComposite composite,
+				List<PlantComponent> components) {
+			events.incrementAndGet();
+		}
+
+		/**
+		 * Waits for the specified number of added components. Expires after
+		 * 10s.
+		 *
+		 * @param count
+		 *            The number of components that should have been added.
+		 */
+		public void waitForComponents(int count) {
+			int counter = 0;
+			while (added.get() < count && ++counter < 1000) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
+	/**
+	 * This operation creates the components of the plant.
+	 *
+	 * @return The Pipes and PipeToPipeJunctions of the plant
+	 */
+	private List<PlantComponent> createPlant() {
+
+		// Local Declarations
+		List<PlantComponent> components = new ArrayList<PlantComponent>();
+		List<Pipe> pipes = new ArrayList<Pipe>(nPipes);
+		ArrayList<PlantComponent> inputs, outputs;
+		PipeToPipeJunction junction;
+		Pipe pipe;
+
+		// Create the pipes.
+		for (int i = 0; i < nPipes; i++) {
+			pipe = new Pipe(1.0, 0.1);
+			pipe.setId(i);
+			pipe.setName("pipe" + i);
+			pipes.add(pipe);
+			components.add(pipe);
+		}
+
+		// Connect each pipe to the next, closing the loop at the end.
+		for (int i = 0; i < nPipes; i++) {
+			inputs = new ArrayList<PlantComponent>(1);
+			inputs.add(pipes.get(i));
+			outputs = new ArrayList<PlantComponent>(1);
+			outputs.add(pipes.get((i + 1) % nPipes));
+			junction = new PipeToPipeJunction();
+			junction.setId(nPipes + i);
+			junction.setName("junction" + i);
+			junction.setInputs(inputs);
+			junction.setOutputs(outputs);
+			components.add(junction);
+		}
+
+		return components;
+	}
+
+	/**
+	 * This operation loads the plant into a new PlantComposite and waits for
+	 * the listener to receive all of the components.
+	 *
+	 * @param components
+	 *            The components of the plant
+	 * @param listener
+	 *            The listener to register with the PlantComposite
+	 * @param batch
+	 *            Whether or not the components should be added in a batch
+	 */
+	private void loadPlant(List<PlantComponent> components,
+			CountingListener listener, boolean batch) {
+
+		// Local Declarations
+		PlantComposite plant = new PlantComposite();
+
+		plant.registerPlantCompositeListener(listener);
+
+		if (batch) {
+			plant.startBatch();
+		}
+		try {
+			for (PlantComponent component : components) {
+				plant.addPlantComponent(component);
+			}
+		} finally {
+			if (batch) {
+				plant.finishBatch();
+			}
+		}
+		listener.waitForComponents(components.size());
+
+		assertEquals(components.size(), plant.getNumberOfComponents());
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the listeners receive every component of the
+	 * plant in order and that a batch delivers the whole plant in one event.
+	 */
+	@Test
+	public void checkLoadEvents() {
+
+		// Local Declarations
+		List<PlantComponent> components = createPlant();
+		CountingListener singleListener = new CountingListener();
+		CountingListener batchListener = new CountingListener();
+
+		// Load the plant both ways
+		loadPlant(components, singleListener, false);
+		loadPlant(components, batchListener, true);
+
+		// The single adds may be merged while they wait to be delivered, but
+		// there is at least one event and no more than one per component.
+		assertEquals(components.size(), singleListener.added.get());
+		assertTrue(singleListener.events.get() >= 1);
+		assertTrue(singleListener.events.get() <= components.size());
+		assertEquals(components, singleListener.addedComponents);
+
+		// The batch is one event
+		assertEquals(components.size(), batchListener.added.get());
+		assertEquals(1, batchListener.events.get());
+		assertEquals(components, batchListener.addedComponents);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the events keep being delivered after a
+	 * listener throws an Error, which is not caught like a RuntimeException.
+	 */
+	@Test
+	public void checkListenerError() {
+
+		// Local Declarations
+		PlantComposite plant = new PlantComposite();
+		CountingListener listener = new CountingListener();
+		final AtomicInteger failures = new AtomicInteger();
+		List<PlantComponent> components = createPlant().subList(0, 10);
+
+		// This listener fails the first time it is notified
+		plant.registerPlantCompositeListener(new IPlantCompositeListener() {
+			@Override
+			public void addedComponents(PlantComposite composite,
+					List<PlantComponent> components) {
+				if (failures.getAndIncrement() == 0) {
+					throw new Error("PlantCompositeEventTester: failing "
+							+ "listener");
+				}
+			}
+
+			@Override
+			public void removedComponents(PlantComposite composite,
+					List<PlantComponent> components) {
+				// Nothing to do
+			}
+		});
+		plant.registerPlantCompositeListener(listener);
+
+		// Add the first component and wait for the failure
+		plant.addPlantComponent(components.get(0));
+		int counter = 0;
+		while (failures.get() == 0 && ++counter < 1000) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+		assertEquals(1, failures.get());
+
+		// The rest of the components should still be delivered
+		for (PlantComponent component : components.subList(1,
+				components.size())) {
+			plant.addPlantComponent(component);
+		}
+		listener.waitForComponents(components.size() - 1);
+		assertTrue(listener.added.get() >= components.size() - 1);
+		assertTrue(listener.addedComponents.containsAll(components.subList(1,
+				components.size())));
+
+		return;
+	}
+
+}
@@ -23,6 +23,7 @@ import static org.junit.Assert.fail;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.ice.datastructures.ICEObject.Component;
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
@@ -259,6 +260,89 @@ public class PlantCompositeTester {
 		return;
 	}
 
+	/**
+	 * Checks that changes made during a batch are delivered to the
+	 * IPlantCompositeListeners once the batch is finished, and that opposite
+	 * changes to the same component cancel out.
+	 */
+	@Test
+	public void checkBatchedChanges() {
+
+		// Create a PlantComposite and a listener for testing.
+		PlantComposite composite = new PlantComposite();
+		TestPlantCompositeListener listener = new TestPlantCompositeListener();
+		composite.registerPlantCompositeListener(listener);
+
+		// Create some PlantComponents with unique IDs.
+		PlantComponent firstComponent = new PlantComponent("ironhide");
+		firstComponent.setId(1);
+		PlantComponent secondComponent = new PlantComponent("ratchet");
+		secondComponent.setId(2);
+		PlantComponent thirdComponent = new PlantComponent("jazz");
+		thirdComponent.setId(3);
+		PlantComponent fourthComponent = new PlantComponent("wheeljack");
+		fourthComponent.setId(4);
+
+		// ---- Changes in a batch are held until it is finished. ---- //
+		assertFalse(composite.isBatching());
+		composite.startBatch();
+		assertTrue(composite.isBatching());
+		composite.addPlantComponent(firstComponent);
+		composite.addPlantComponent(secondComponent);
+		composite.addPlantComponent(thirdComponent);
+		composite.removeComponent(secondComponent.getId());
+
+		// The composite itself should be up to date.
+		assertEquals(2, composite.getNumberOfComponents());
+		assertSame(thirdComponent, composite.getPlantComponent(3));
+
+		// Nested batches should not deliver the changes.
+		composite.startBatch();
+		composite.finishBatch();
+		assertTrue(composite.isBatching());
+		assertFalse(listener.wasNotified());
+
+		// Finishing the batch should deliver a single added event without the
+		// component that was added and removed.
+		composite.finishBatch();
+		assertFalse(composite.isBatching());
+		assertTrue(listener.wasNotified(1));
+		assertEquals(2, listener.getAddedComponents().size());
+		assertSame(firstComponent, listener.getAddedComponents().get(0));
+		assertSame(thirdComponent, listener.getAddedComponents().get(1));
+		assertTrue(listener.getRemovedComponents().isEmpty());
+		listener.reset();
+
+		// ---- Removing and re-adding a component cancels out. ---- //
+		composite.startBatch();
+		composite.removeComponent(firstComponent.getId());
+		composite.addPlantComponent(firstComponent);
+		composite.removeComponent(thirdComponent.getId());
+		composite.addPlantComponent(fourthComponent);
+		composite.finishBatch();
+
+		// The listener should get one removed and one added event.
+		assertTrue(listener.wasNotified(2));
+		assertEquals(1, listener.getRemovedComponents().size());
+		assertSame(thirdComponent, listener.getRemovedComponents().get(0));
+		assertEquals(1, listener.getAddedComponents().size());
+		assertSame(fourthComponent, listener.getAddedComponents().get(0));
+		listener.reset();
+
+		// ---- An empty batch does not notify the listeners. ---- //
+		composite.startBatch();
+		composite.removeComponent(fourthComponent.getId());
+		composite.addPlantComponent(fourthComponent);
+		composite.finishBatch();
+		assertFalse(listener.wasNotified());
+
+		// Extra calls to finishBatch() should be ignored.
+		composite.finishBatch();
+		assertFalse(composite.isBatching());
+
+		return;
+	}
+
 	/**
 	 * Checks equality and hash codes for PlantComposites. All child components
 	 * from two composites should be compared.
@@ -476,6 +560,8 @@ public class PlantCompositeTester {
 
 		private final AtomicBoolean notified = new AtomicBoolean(false);
 
+		private final AtomicInteger events = new AtomicInteger();
+
 		/**
 		 * Whether or not the listener was notified. Expires after 250ms. It
 		 * returns within 10ms of being notified.
@@ -499,9 +585,35 @@ public class PlantCompositeTester {
 			return notified.get();
 		}
 
+		/**
+		 * Whether or not the listener received the specified number of events.
+		 * Expires after 2.5s.
+		 * 
+		 * @param count
+		 *            The number of events that should have been received.
+		 * @return True if the listener received exactly that many events,
+		 *         false otherwise.
+		 */
+		public boolean wasNotified(int count) {
+
+			int counter = 0;
+
+			while (events.get() < count && ++counter < 250) {
+				try {
+					Thread.sleep(10);
+				} catch (InterruptedException e) {
+					fail("PlantCompositeTester error: "
+							+ "Thread interrupted during IPlantCompositeListener test.");
+				}
+			}
+
+			return events.get() == count;
+		}
+
 		public void reset() {
-			added.clear();
-			removed.clear();
+			added = new ArrayList<PlantComponent>();
+			removed = new ArrayList<PlantComponent>();
+			events.set(0);
 			notified.set(false);
 		}
 
@@ -516,12 +628,14 @@ public class PlantCompositeTester {
 		public void addedComponents(PlantComposite composite,
 				List<PlantComponent> components) {
 			added = components;
+			events.incrementAndGet();
 			notified.set(true);
 		}
 
 		public void removedComponents(PlantComposite composite,
 				List<PlantComponent> components) {
 			removed = components;
+			events.incrementAndGet();
 			notified.set(true);
 		}
 
@@ -22,10 +22,12 @@ import java.util.TreeSet;
 import ncsa.hdf.object.FileFormat;
 import ncsa.hdf.object.Group;
 import ncsa.hdf.object.h5.H5File;
+import ncsa.hdf.object.h5.H5Group;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.eclipse.ice.io.hdf.HdfFileFactory;
+import org.eclipse.ice.io.hdf.HdfReaderFactory;
 import org.eclipse.ice.reactor.*;
 import org.eclipse.ice.reactor.pwr.*;
 
@@ -889,4 +891,67 @@ public class LWRComponentWriterTester {
 
 	}
 
-}
\ No newline at end of file
+	/**
+	 * This operation checks that the writer writes the data of grid managers
+	 * in the columnar layout by default and in the original layout when it is
+	 * turned off.
+	 */
+	@Test
+	public void checkColumnarLayout() {
+
+		// Local Declarations
+		File dataFile = new File(System.getProperty("user.dir")
+				+ System.getProperty("file.separator") + "columnar.h5");
+		LWRComponentWriter writer = new LWRComponentWriter();
+		LWRGridManager manager = new LWRGridManager(2);
+		LWRComponent component = new LWRComponent("Component");
+		GridLocation location = new GridLocation(1, 1);
+		ArrayList<Double> position = new ArrayList<Double>();
+		LWRData data = new LWRData("Pin Power");
+
+		// Setup a manager with one point of data
+		manager.setName("Manager");
+		position.add(0.0);
+		position.add(0.0);
+		position.add(1.0);
+		data.setPosition(position);
+		data.setValue(5.0);
+		data.setUnits("W");
+		location.getLWRDataProvider().addData(data, 0.0);
+		manager.addComponent(component, location);
+
+		// The writer writes the columnar layout by default, even though the
+		// manager does not ask for it
+		assertTrue(writer.isColumnarLayout());
+		assertFalse(manager.isColumnarLayout());
+		for (boolean columnar : new boolean[] { true, false }) {
+			writer.setColumnarLayout(columnar);
+			assertEquals(columnar, writer.isColumnarLayout());
+			assertTrue(writer.write((LWRGridManager) manager.clone(),
+					dataFile.toURI()));
+
+			// Find the Positions group and check its layout
+			try {
+				H5File h5File = HdfFileFactory.openH5File(dataFile.toURI());
+				H5Group rootGroup = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+						.getRootNode()).getUserObject();
+				H5Group managerGroup = HdfReaderFactory.getChildH5Group(
+						rootGroup, 0);
+				H5Group positionsGroup = HdfReaderFactory.getChildH5Group(
+						managerGroup, "Positions");
+				assertNotNull(positionsGroup);
+				assertEquals(columnar, HdfReaderFactory.readIntegerAttribute(
+						positionsGroup, "Layout Version") != null);
+				HdfFileFactory.closeH5File(h5File);
+			} catch (Exception e) {
+				e.printStackTrace();
+				fail();
+			}
+
+			dataFile.delete();
+		}
+
+		return;
+	}
+
+}
@@ -12,13 +12,22 @@
  *******************************************************************************/
 package org.eclipse.ice.reactor.test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
+import java.util.ArrayList;
+
+import org.eclipse.ice.analysistool.IData;
+
 import org.eclipse.ice.reactor.GridLocation;
 import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataColumn;
 import org.eclipse.ice.reactor.LWRDataProvider;
 import org.junit.Test;
 
@@ -266,6 +275,85 @@ public class LWRDataProviderTester {
 
 	}
 
+	/**
+	 * <p>
+	 * An operation that checks that whole columns of data can be added to and
+	 * retrieved from the provider at out of order times.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkDataColumns() {
+
+		// Local Declarations
+		LWRDataProvider provider = new LWRDataProvider();
+		double[] values = { 1.0, 2.0, 3.0 };
+		double[] uncertainties = { 0.1, 0.2, 0.3 };
+		double[] positions = { 0, 0, 0, 1, 1, 1, 2, 2, 2 };
+		int[] unitIndices = { 0, 1, 0 };
+		String[] units = { "W", "K" };
+		LWRData data;
+
+		// Add the columns out of order
+		provider.addData("Power", 2.0, values, uncertainties, positions,
+				unitIndices, units);
+		provider.addData("Power", 1.0, values, uncertainties, positions,
+				unitIndices, units);
+		data = new LWRData("Power");
+		data.setValue(4.0);
+		data.setUnits("kW");
+		provider.addData(data, 1.0);
+
+		// Check the times
+		assertEquals(2, provider.getNumberOfTimeSteps());
+		assertEquals(1.0, provider.getTimes().get(0), 0.0);
+		assertEquals(2.0, provider.getTimes().get(1), 0.0);
+		assertEquals(0, provider.getTimeStep(1.0));
+		assertEquals(1, provider.getTimeStep(2.0));
+
+		// Check the column at the first time
+		LWRDataColumn column = provider.getDataColumn("Power", 1.0);
+		assertEquals(4, column.size());
+		assertArrayEquals(new double[] { 1.0, 2.0, 3.0, 4.0 },
+				column.getValues(), 0.0);
+		assertArrayEquals(new int[] { 0, 1, 0, 2 }, column.getUnitIndices());
+		assertEquals("kW", column.getUnits().get(2));
+
+		// Reading an untrimmed column must not change it, so each read gets
+		// its own copy until the column is trimmed
+		assertNotSame(column.getValues(), column.getValues());
+		column.trimToSize();
+		assertSame(column.getValues(), column.getValues());
+		assertEquals(12, column.getPositions().length);
+
+		// A whole block is stored without spare room
+		column = provider.getDataColumn("Power", 2.0);
+		assertSame(column.getValues(), column.getValues());
+
+		// Check the number of data at each time
+		provider.setTime(1.0);
+		assertEquals(4, provider.getNumberOfDataAtCurrentTime("Power"));
+		assertEquals(0, provider.getNumberOfDataAtCurrentTime("Flux"));
+		assertEquals(0, provider.getNumberOfDataAtCurrentTime(null));
+
+		// Check the data created from the column
+		provider.setTime(2.0);
+		ArrayList<IData> dataList = provider.getDataAtCurrentTime("Power");
+		assertEquals(3, dataList.size());
+		assertEquals(2.0, dataList.get(1).getValue(), 0.0);
+		assertEquals(0.2, dataList.get(1).getUncertainty(), 0.0);
+		assertEquals("K", dataList.get(1).getUnits());
+		assertEquals(1.0, dataList.get(1).getPosition().get(2), 0.0);
+
+		// Check bad columns
+		assertNull(provider.getDataColumn("Power", 3.0));
+		assertNull(provider.getDataColumn("Flux", 1.0));
+		provider.addData("Flux", 1.0, values, uncertainties, new double[2],
+				unitIndices, units);
+		assertNull(provider.getDataColumn("Flux", 1.0));
+
+	}
+
 	/**
 	 * <p>
 	 * Checks the copying and cloning operations.
@@ -0,0 +1,191 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactor.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+
+import org.eclipse.ice.reactor.GridLocation;
+import org.eclipse.ice.reactor.LWRComponentReader;
+import org.eclipse.ice.reactor.LWRComponentWriter;
+import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataProvider;
+import org.eclipse.ice.reactor.LWRDataSource;
+import org.eclipse.ice.reactor.LWRGridManager;
+import org.eclipse.ice.reactor.LWRRod;
+import org.junit.AfterClass;
+import org.junit.Test;
+
+/**
+ * <p>
+ * This class tests the operations of LWRDataSource and the lazy reading of
+ * LWRComponentReader.
+ * </p>
+ * 
+ * @author Jay Jay Billings
+ */
+public class LWRDataSourceTester {
+
+	/**
+	 * <p>
+	 * The name of the file that is written by the tests.
+	 * </p>
+	 * 
+	 */
+	private static final String testFileName = "testLazy.h5";
+
+	/**
+	 * <p>
+	 * This operation checks that the data of a manager is read from the file
+	 * when it is requested and that the cache stays within its size.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkLazyReading() {
+
+		// Local Declarations
+		LWRGridManager manager = new LWRGridManager(3);
+		LWRGridManager loadedManager;
+		GridLocation location1 = new GridLocation(0, 0);
+		GridLocation location2 = new GridLocation(1, 1);
+		LWRDataProvider provider, usedProvider;
+		LWRDataSource source;
+		LWRData data;
+		ArrayList<Double> position;
+		String separator = System.getProperty("file.separator");
+		File dataFile = new File(System.getProperty("user.dir") + separator
+				+ testFileName);
+		URI uri = dataFile.toURI();
+
+		// Setup a manager with data at two locations
+		manager.setName("Lazy Manager");
+		manager.addComponent(new LWRRod("Rod 1"), location1);
+		manager.addComponent(new LWRRod("Rod 2"), location2);
+		manager.addComponent(new LWRRod("Rod 2"), new GridLocation(2, 1));
+		for (int i = 0; i < 10; i++) {
+			position = new ArrayList<Double>();
+			position.add(0.0);
+			position.add(0.0);
+			position.add((double) i);
+			data = new LWRData("Pin Power");
+			data.setPosition(position);
+			data.setValue(100.0 + i);
+			data.setUncertainty(0.5);
+			data.setUnits("W");
+			location1.getLWRDataProvider().addData(data, 1.0);
+			data = (LWRData) data.clone();
+			data.setValue(200.0 + i);
+			location2.getLWRDataProvider().addData(data, 2.0 + i);
+		}
+
+		// Write the manager
+		assertTrue(new LWRComponentWriter().write(manager, uri));
+
+		// Read it lazily. Only the locations are read.
+		loadedManager = (LWRGridManager) new LWRComponentReader().readLazily(
+				uri, LWRDataSource.DEFAULT_CACHE_SIZE);
+		assertNotNull(loadedManager);
+		source = loadedManager.getDataSource();
+		assertNotNull(source);
+		assertEquals(uri, source.getURI());
+		assertEquals(0, source.getMemoryUsage());
+		assertEquals("Rod 2",
+				loadedManager.getComponentName(new GridLocation(2, 1)));
+		assertEquals(2, loadedManager.getGridLocationsAtName("Rod 2").size());
+
+		// Each provider is read on the first request and then cached
+		provider = loadedManager.getDataProviderAtLocation(location1);
+		assertEquals(location1.getLWRDataProvider(), provider);
+		assertSame(provider, loadedManager.getDataProviderAtLocation(location1));
+		assertEquals(location2.getLWRDataProvider(),
+				loadedManager.getDataProviderAtLocation(location2));
+		assertEquals(0,
+				loadedManager.getDataProviderAtLocation(new GridLocation(2, 1))
+						.getTimes().size());
+		assertNull(loadedManager.getDataProviderAtLocation(new GridLocation(
+				0, 2)));
+		assertTrue(source.getMemoryUsage() > 0);
+
+		// Copies share the source
+		assertSame(source,
+				((LWRGridManager) loadedManager.clone()).getDataSource());
+
+		// Shrink the cache. Only the provider that was read last is kept, but
+		// a dropped provider that is still in use is handed out again with its
+		// current time.
+		source.setCacheSize(1);
+		assertEquals(1, source.getCacheSize());
+		provider = loadedManager.getDataProviderAtLocation(location1);
+		assertEquals(location1.getLWRDataProvider(), provider);
+		usedProvider = loadedManager.getDataProviderAtLocation(location2);
+		assertEquals(location2.getLWRDataProvider(), usedProvider);
+		usedProvider.setTime(4.0);
+		loadedManager.getDataProviderAtLocation(location1);
+		assertSame(usedProvider,
+				loadedManager.getDataProviderAtLocation(location2));
+		assertEquals(4.0, usedProvider.getCurrentTime(), 0.0);
+
+		// Read a window of time without caching it
+		provider = source.readDataProvider(loadedManager, "/"
+				+ loadedManager.getName(), location2, 2.0, 4.0);
+		assertNotNull(provider);
+		assertEquals(3, provider.getTimes().size());
+		assertNull(source.readDataProvider(loadedManager, "/Missing",
+				location2, 2.0, 4.0));
+
+		// Closing the source empties the cache, but data can still be read
+		// and the providers in use are kept
+		source.close();
+		assertEquals(0, source.getMemoryUsage());
+		assertEquals(location1.getLWRDataProvider(),
+				loadedManager.getDataProviderAtLocation(location1));
+		assertSame(usedProvider,
+				loadedManager.getDataProviderAtLocation(location2));
+		source.close();
+
+		// Without a source the locations have no data
+		loadedManager.setDataSource(null, null);
+		assertNull(loadedManager.getDataSource());
+		assertEquals(0, loadedManager.getDataProviderAtLocation(location1)
+				.getTimes().size());
+
+		dataFile.delete();
+
+		return;
+	}
+
+	/**
+	 * <p>
+	 * Removes the test file after the tests fail (to keep the workspace
+	 * clean).
+	 * </p>
+	 * 
+	 */
+	@AfterClass
+	public static void afterClass() {
+
+		// Cleans up the datafile if it exists due to a failed test
+		File dataFile = new File(System.getProperty("user.dir")
+				+ System.getProperty("file.separator") + testFileName);
+
+		// If it exists, remove it
+		if (dataFile.exists()) {
+			dataFile.delete();
+		}
+
+	}
+}
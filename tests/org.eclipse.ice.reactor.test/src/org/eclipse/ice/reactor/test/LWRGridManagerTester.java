@@ -17,6 +17,7 @@ import static org.junit.Assert.*;
 import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 
 import ncsa.hdf.object.Attribute;
@@ -39,6 +40,7 @@ import org.eclipse.ice.reactor.GridLocation;
 import org.eclipse.ice.reactor.HDF5LWRTagType;
 import org.eclipse.ice.reactor.LWRComponent;
 import org.eclipse.ice.reactor.LWRData;
+import org.eclipse.ice.reactor.LWRDataProvider;
 import org.eclipse.ice.reactor.LWRGridManager;
 
 /**
@@ -510,6 +512,95 @@ public class LWRGridManagerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * Checks that the grid and name indices follow the components as they are
+	 * added, removed and copied, and that the lists of locations are shared
+	 * read-only views.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkGridIndex() {
+
+		// Local Declarations
+		int size = 17;
+		LWRGridManager manager = new LWRGridManager(size);
+		LWRComponent rod = new LWRComponent("Rod");
+		LWRComponent tube = new LWRComponent("Tube");
+		GridLocation location1 = new GridLocation(16, 16);
+		GridLocation location2 = new GridLocation(0, 5);
+		GridLocation location3 = new GridLocation(8, 8);
+		List<GridLocation> rods;
+
+		// Add the rods out of order. The locations should come back sorted by
+		// row and then column.
+		manager.addComponent(rod, location1);
+		manager.addComponent(rod, location2);
+		manager.addComponent(tube, location3);
+		rods = manager.getGridLocationsAtName("Rod");
+		assertEquals(2, rods.size());
+		assertSame(location2, rods.get(0));
+		assertSame(location1, rods.get(1));
+
+		// The view is shared and read-only.
+		assertSame(rods, manager.getGridLocationsAtName("Rod"));
+		try {
+			rods.clear();
+			fail("LWRGridManagerTester error: the list should be read-only.");
+		} catch (UnsupportedOperationException e) {
+			// Exception thrown as expected.
+		}
+
+		// The providers are found with any instance at the same row and
+		// column. Locations off of the grid have no provider.
+		assertSame(location3.getLWRDataProvider(),
+				manager.getDataProviderAtLocation(new GridLocation(8, 8)));
+		assertNull(manager.getDataProviderAtLocation(new GridLocation(8, 9)));
+		assertNull(manager.getDataProviderAtLocation(new GridLocation(17, 0)));
+
+		// A taken location should not be replaced.
+		manager.addComponent(tube, new GridLocation(16, 16));
+		assertEquals("Rod", manager.getComponentName(location1));
+		assertEquals(1, manager.getGridLocationsAtName("Tube").size());
+
+		// Removing by component removes the first location and the view
+		// follows the change.
+		manager.removeComponent(rod);
+		assertEquals(1, rods.size());
+		assertSame(location1, rods.get(0));
+		assertNull(manager.getDataProviderAtLocation(location2));
+
+		// Removing by location works with a different instance.
+		manager.removeComponent(new GridLocation(8, 8));
+		assertTrue(manager.getGridLocationsAtName("Tube").isEmpty());
+		assertNull(manager.getComponentName(location3));
+		assertNull(manager.getDataProviderAtLocation(location3));
+
+		// The location can be used again after it is removed.
+		manager.addComponent(rod, location3);
+		assertEquals(2, manager.getGridLocationsAtName("Rod").size());
+		assertSame(location3.getLWRDataProvider(),
+				manager.getDataProviderAtLocation(location3));
+
+		// A copy should have its own index with copies of the locations.
+		LWRGridManager copy = (LWRGridManager) manager.clone();
+		assertEquals(manager, copy);
+		assertEquals(2, copy.getGridLocationsAtName("Rod").size());
+		assertNotSame(location3, copy.getGridLocationsAtName("Rod").get(0));
+		assertEquals(location3, copy.getGridLocationsAtName("Rod").get(0));
+		assertNotNull(copy.getDataProviderAtLocation(location1));
+		copy.removeComponent(location1);
+		assertNull(copy.getDataProviderAtLocation(location1));
+		assertNotNull(manager.getDataProviderAtLocation(location1));
+
+		// Null values are handled.
+		assertTrue(manager.getGridLocationsAtName(null).isEmpty());
+		assertTrue(manager.getGridLocationsAtName("Tube").isEmpty());
+		assertNull(manager.getDataProviderAtLocation(null));
+
+	}
+
 	/**
 	 * <p>
 	 * This operation checks the HDF5 writing operations.
@@ -1306,6 +1397,141 @@ public class LWRGridManagerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that both layouts of the data at the locations can
+	 * be read in full, in a window of time and one location at a time.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkHDF5DataTable() {
+
+		// Local Declarations
+		int size = 4;
+		LWRGridManager manager = new LWRGridManager(size);
+		LWRComponent component1 = new LWRComponent("Component 1");
+		LWRComponent component2 = new LWRComponent("Component 2");
+		GridLocation location1 = new GridLocation(0, 1);
+		GridLocation location2 = new GridLocation(3, 2);
+		LWRDataProvider provider;
+		String separator = System.getProperty("file.separator");
+		File dataFile = new File(System.getProperty("user.dir") + separator
+				+ "test.h5");
+		H5File h5File;
+		H5Group parentH5Group, subGroup;
+		LWRData data;
+		ArrayList<Double> position;
+
+		// Setup the manager. Location 1 has two points of one feature at each
+		// of three times and location 2 has one point of another feature.
+		manager.setName("Table");
+		manager.addComponent(component1, location1);
+		manager.addComponent(component2, location2);
+		manager.addComponent(component1, new GridLocation(1, 1));
+		for (int t = 0; t < 3; t++) {
+			for (int i = 0; i < 2; i++) {
+				position = new ArrayList<Double>();
+				position.add((double) i);
+				position.add(0.0);
+				position.add(t + 0.5);
+				data = new LWRData("Pin Power");
+				data.setPosition(position);
+				data.setValue(10.0 * t + i);
+				data.setUncertainty(0.1 * i);
+				data.setUnits(i == 0 ? "W" : "kW");
+				location1.getLWRDataProvider().addData(data, t);
+			}
+		}
+		position = new ArrayList<Double>();
+		position.add(1.0);
+		position.add(2.0);
+		position.add(3.0);
+		data = new LWRData("Temperature");
+		data.setPosition(position);
+		data.setValue(600.0);
+		data.setUncertainty(1.0);
+		data.setUnits("K");
+		location2.getLWRDataProvider().addData(data, 1.0);
+
+		// Check both layouts
+		for (boolean columnar : new boolean[] { true, false }) {
+			manager.setColumnarLayout(columnar);
+			assertEquals(columnar, manager.isColumnarLayout());
+			assertEquals(columnar,
+					((LWRGridManager) manager.clone()).isColumnarLayout());
+
+			try {
+				// Write the manager
+				h5File = HdfFileFactory.createH5File(dataFile.toURI());
+				h5File.open();
+				parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+						.getRootNode()).getUserObject();
+				subGroup = manager.createGroup(h5File, parentH5Group);
+				assertTrue(manager.writeAttributes(h5File, subGroup));
+				assertTrue(manager.writeDatasets(h5File, subGroup));
+				h5File.close();
+				h5File.open();
+				parentH5Group = (H5Group) ((javax.swing.tree.DefaultMutableTreeNode) h5File
+						.getRootNode()).getUserObject();
+				subGroup = (H5Group) parentH5Group.getMemberList().get(0);
+
+				// Read all of it
+				LWRGridManager newManager = new LWRGridManager(1);
+				assertTrue(newManager.readAttributes(subGroup));
+				assertTrue(newManager.readDatasets(subGroup));
+				assertEquals(manager, newManager);
+				assertEquals(location1.getLWRDataProvider(),
+						newManager.getDataProviderAtLocation(location1));
+				assertEquals(location2.getLWRDataProvider(),
+						newManager.getDataProviderAtLocation(location2));
+
+				// Read only the locations
+				newManager = new LWRGridManager(1);
+				assertTrue(newManager.readAttributes(subGroup));
+				assertTrue(newManager.readDatasets(subGroup, 1.0, 0.0));
+				assertEquals(manager, newManager);
+				assertEquals(0, newManager
+						.getDataProviderAtLocation(location1).getTimes().size());
+
+				// Read a window of time
+				newManager = new LWRGridManager(1);
+				assertTrue(newManager.readAttributes(subGroup));
+				assertTrue(newManager.readDatasets(subGroup, 0.5, 2.0));
+				provider = newManager.getDataProviderAtLocation(location1);
+				assertEquals(2, provider.getTimes().size());
+				assertEquals(1.0, provider.getTimes().get(0), 0.0);
+				assertEquals(location1.getLWRDataProvider().getDataColumn(
+						"Pin Power", 2.0), provider.getDataColumn("Pin Power",
+						2.0));
+				assertEquals(location2.getLWRDataProvider(),
+						newManager.getDataProviderAtLocation(location2));
+
+				// Read a single location
+				provider = newManager.readDataProvider(subGroup, location1,
+						-Double.MAX_VALUE, Double.MAX_VALUE);
+				assertEquals(location1.getLWRDataProvider(), provider);
+				provider = newManager.readDataProvider(subGroup, location2,
+						1.5, 2.0);
+				assertNotNull(provider);
+				assertEquals(0, provider.getTimes().size());
+				assertNull(newManager.readDataProvider(subGroup,
+						new GridLocation(2, 2), 0.0, 1.0));
+				assertNull(newManager.readDataProvider(null, location1, 0.0,
+						1.0));
+
+				h5File.close();
+			} catch (Exception e) {
+				e.printStackTrace();
+				fail();
+			}
+
+			dataFile.delete();
+		}
+
+		return;
+	}
+
 	/**
 	 * <p>
 	 * Removes the test.h5 file after the tests fails (to keep the workspace
@@ -0,0 +1,208 @@
+/*******************************************************************************
+ * Copyright (c) 2015 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation - Jay Jay Billings,
+ *   Jordan H. Deyton, Dasha Gorin, Alexander J. McCaskey, Taylor Patterson,
+ *   Claire Saunders, Matthew Wang, Anna Wojtowicz
+ *******************************************************************************/
+package org.eclipse.ice.reactorAnalyzer.test;
+
+import java.io.File;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.ice.analysistool.IAnalysisAsset;
+import org.eclipse.ice.analysistool.IAnalysisDocument;
+import org.eclipse.ice.analysistool.IAnalysisTool;
+import org.eclipse.ice.analysistool.IDataProvider;
+
+/**
+ * <p>
+ * A fake implementation of IAnalysisTool that takes the place of the KDD
+ * analysis tool. Its documents create the assets of one type only after they
+ * are released, so the ReactorAnalyzer can be canceled while it generates
+ * them.
+ * </p>
+ *
+ * @author Jay Jay Billings
+ */
+public class FakeBlockingAnalysisTool implements IAnalysisTool {
+
+	/**
+	 * <p>
+	 * The name of the asset type whose assets wait to be released.
+	 * </p>
+	 *
+	 */
+	private final String blockedAsset;
+
+	/**
+	 * <p>
+	 * Counted down when a document starts to create the blocked assets.
+	 * </p>
+	 *
+	 */
+	private final CountDownLatch blockedLatch;
+
+	/**
+	 * <p>
+	 * Counted down to let the documents create the blocked assets.
+	 * </p>
+	 *
+	 */
+	private final CountDownLatch releaseLatch;
+
+	/**
+	 * <p>
+	 * The constructor.
+	 * </p>
+	 *
+	 * @param blockedAsset
+	 *            <p>
+	 *            The name of the asset type whose assets wait to be released.
+	 *            </p>
+	 */
+	public FakeBlockingAnalysisTool(String blockedAsset) {
+		this.blockedAsset = blockedAsset;
+		blockedLatch = new CountDownLatch(1);
+		releaseLatch = new CountDownLatch(1);
+	}
+
+	/**
+	 * <p>
+	 * This operation waits until a document starts to create the blocked
+	 * assets.
+	 * </p>
+	 *
+	 * @param timeout
+	 *            <p>
+	 *            The time to wait in milliseconds.
+	 *            </p>
+	 * @return <p>
+	 *         True if the blocked assets were requested in time, false
+	 *         otherwise.
+	 *         </p>
+	 */
+	public boolean awaitBlockedAssets(long timeout) {
+		try {
+			return blockedLatch.await(timeout, TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * <p>
+	 * This operation lets the documents create the blocked assets.
+	 * </p>
+	 *
+	 */
+	public void release() {
+		releaseLatch.countDown();
+	}
+
+	public Boolean close() {
+		return true;
+	}
+
+	/**
+	 * <p>
+	 * The ReactorAnalyzer only creates documents with the KDD tool, so the
+	 * fake uses its name.
+	 * </p>
+	 *
+	 */
+	public String getName() {
+		return "Knowledge Discovery and Data Mining ICE Analysis Tool";
+	}
+
+	public String getVersion() {
+		return "1.0.0";
+	}
+
+	public IAnalysisDocument createDocument(URI data) {
+		return new BlockingDocument();
+	}
+
+	public boolean isReady() {
+		return true;
+	}
+
+	public IAnalysisDocument createDocument(IDataProvider data) {
+		return new BlockingDocument();
+	}
+
+	/**
+	 * <p>
+	 * A FakeAnalysisDocument that waits to be released before it creates the
+	 * blocked assets.
+	 * </p>
+	 *
+	 */
+	private class BlockingDocument extends FakeAnalysisDocument {
+
+		/**
+		 * The selected asset types.
+		 */
+		private ArrayList<String> selection = new ArrayList<String>();
+
+		@Override
+		public void setSelectedAssets(ArrayList<String> assets) {
+			selection = new ArrayList<String>(assets);
+		}
+
+		@Override
+		public ArrayList<String> getSelectedAssets() {
+			return selection;
+		}
+
+		@Override
+		public void createSelectedAssets() {
+
+			// Wait to be released if the blocked assets are selected
+			if (selection.contains(blockedAsset)) {
+				blockedLatch.countDown();
+				try {
+					releaseLatch.await(10, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					e.printStackTrace();
+				}
+			}
+
+			return;
+		}
+
+		@Override
+		public ArrayList<IAnalysisAsset> getAllAssets() {
+
+			// Local Declarations
+			ArrayList<IAnalysisAsset> assets = new ArrayList<IAnalysisAsset>();
+
+			// Create one asset for each selected type. The files of the
+			// assets are never read.
+			for (final String assetName : selection) {
+				assets.add(new FakeAnalysisAsset() {
+					@Override
+					public String getName() {
+						return assetName;
+					}
+
+					@Override
+					public URI getURI() {
+						return new File(assetName).toURI();
+					}
+				});
+			}
+
+			return assets;
+		}
+	}
+}
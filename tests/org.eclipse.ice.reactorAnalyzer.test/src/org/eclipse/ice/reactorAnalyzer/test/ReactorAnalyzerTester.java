@@ -18,6 +18,7 @@ import java.io.File;
 import java.net.URI;
 import java.util.ArrayList;
 
+import org.eclipse.ice.analysistool.AnalysisPool;
 import org.eclipse.ice.analysistool.IAnalysisTool;
 import org.eclipse.ice.datastructures.form.DataComponent;
 import org.eclipse.ice.datastructures.form.Entry;
@@ -347,6 +348,9 @@ public class ReactorAnalyzerTester {
 		}
 		assertEquals(FormStatus.Processed, reactorAnalyzer.getStatus());
 
+		// Every selected asset type should have been timed
+		assertFalse(reactorAnalyzer.getAssetTimes().isEmpty());
+
 		// Check the ResourceComponent
 		form = reactorAnalyzer.getForm();
 		ResourceComponent resourceComp = (ResourceComponent) form
@@ -383,6 +387,129 @@ public class ReactorAnalyzerTester {
 
 	}
 
+	/**
+	 * <p>
+	 * This operation checks that canceling a ReactorAnalyzer that is not
+	 * processing does not change its status.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkCancelProcess() {
+
+		// Make the ReactorAnalyzer
+		reactorAnalyzer = new ReactorAnalyzer(projectSpace);
+		reactorAnalyzer.setName(ReactorAnalyzerBuilder.name);
+
+		// Nothing has been generated, so nothing has been timed
+		assertTrue(reactorAnalyzer.getAssetTimes().isEmpty());
+
+		// Canceling should leave the status alone
+		FormStatus status = reactorAnalyzer.getStatus();
+		assertEquals(status, reactorAnalyzer.cancelProcess());
+		assertEquals(status, reactorAnalyzer.getStatus());
+
+		return;
+
+	}
+
+	/**
+	 * <p>
+	 * This operation checks that canceling a ReactorAnalyzer while it
+	 * generates its artifacts keeps the artifacts that were already added and
+	 * drops the rest.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void checkCancelDuringProcessing() {
+
+		// Local Declarations
+		ArrayList<IAnalysisTool> tools = new ArrayList<IAnalysisTool>();
+		FakeBlockingAnalysisTool blockingTool;
+		MasterDetailsComponent masterDetailsComponent;
+		ResourceComponent resourceComp;
+		ArrayList<String> masterValues;
+		String description;
+		Form form;
+		long start;
+
+		// Make a ReactorAnalyzer whose documents wait to generate the second
+		// asset type
+		reactorAnalyzer = new ReactorAnalyzer(projectSpace);
+		reactorAnalyzer.setName(ReactorAnalyzerBuilder.name);
+		blockingTool = new FakeBlockingAnalysisTool(
+				"Plot warp core plasma temperate vs. time");
+		tools.add(blockingTool);
+		reactorAnalyzer.setAnalysisTools(tools);
+
+		// Review the Form to create the documents
+		form = reactorAnalyzer.getForm();
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.submitForm(form));
+
+		// Select the first two asset types
+		masterDetailsComponent = (MasterDetailsComponent) form.getComponent(3);
+		masterValues = masterDetailsComponent.getAllowedMasterValues();
+		masterDetailsComponent.setMasterInstanceValue(
+				masterDetailsComponent.addMaster(), masterValues.get(0));
+		masterDetailsComponent.setMasterInstanceValue(
+				masterDetailsComponent.addMaster(), masterValues.get(1));
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.submitForm(form));
+		resourceComp = (ResourceComponent) form.getComponent(2);
+		description = resourceComp.getDescription();
+
+		// Process it and wait until the first type is added and the second
+		// type is being generated
+		assertEquals(FormStatus.Processing,
+				reactorAnalyzer.process("Generate Analysis Artifacts"));
+		assertTrue(blockingTool.awaitBlockedAssets(10000));
+		start = System.currentTimeMillis();
+		while (reactorAnalyzer.getProgress() < 0.5
+				&& System.currentTimeMillis() - start < 10000) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+		assertEquals(0.5, reactorAnalyzer.getProgress(), 0.0);
+
+		// Cancel it, let the second type finish and wait for the pool
+		assertEquals(FormStatus.ReadyToProcess,
+				reactorAnalyzer.cancelProcess());
+		blockingTool.release();
+		start = System.currentTimeMillis();
+		while (!AnalysisPool.getPool().isQuiescent()
+				&& System.currentTimeMillis() - start < 10000) {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				e.printStackTrace();
+			}
+		}
+		assertTrue(AnalysisPool.getPool().isQuiescent());
+
+		// Only the artifact of the first type was added and the request stays
+		// canceled
+		assertEquals(FormStatus.ReadyToProcess, reactorAnalyzer.getStatus());
+		assertEquals(0.5, reactorAnalyzer.getProgress(), 0.0);
+		form = reactorAnalyzer.getForm();
+		resourceComp = (ResourceComponent) form.getComponent(2);
+		assertEquals(1, resourceComp.getResources().size());
+		assertEquals(masterValues.get(0), resourceComp.getResources().get(0)
+				.getName());
+		assertEquals(description, resourceComp.getDescription());
+
+		// Nothing was timed for the canceled type
+		assertFalse(reactorAnalyzer.getAssetTimes().containsKey(
+				masterValues.get(1)));
+
+		return;
+
+	}
+
 	/**
 	 * <p>
 	 * This operation checks the ability of the ReactorAnalyzer to update the
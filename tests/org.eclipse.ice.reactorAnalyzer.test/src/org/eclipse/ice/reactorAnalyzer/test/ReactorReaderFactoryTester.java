@@ -20,6 +20,7 @@ import static org.junit.Assert.fail;
 
 import org.eclipse.ice.datastructures.componentVisitor.IReactorComponent;
 import org.eclipse.ice.reactor.LWRComponentWriter;
+import org.eclipse.ice.reactor.LWRDataSource;
 import org.eclipse.ice.reactor.pwr.PressurizedWaterReactor;
 import org.eclipse.ice.reactor.sfr.base.SFReactorIOHandler;
 import org.eclipse.ice.reactor.sfr.core.SFReactor;
@@ -69,6 +70,14 @@ public class ReactorReaderFactoryTester {
 		// Verify that they are equivalent.
 		assertTrue(reactor.equals(loadedReactor));
 
+		// Read the reactor again, leaving the data in the file.
+		loadedReactor = factory.readReactor(uri,
+				LWRDataSource.DEFAULT_CACHE_SIZE);
+		assertTrue(reactor.equals(loadedReactor));
+
+		// Release the reactor to close the file.
+		factory.releaseReactor(loadedReactor);
+
 		// Delete the file that was just created.
 		try {
 			file.delete();
@@ -93,6 +102,14 @@ public class ReactorReaderFactoryTester {
 		// Verify that they are equivalent.
 		assertTrue(reactor.equals(loadedReactor));
 
+		// Read the reactor again, leaving the data in the file.
+		loadedReactor = factory.readReactor(uri,
+				LWRDataSource.DEFAULT_CACHE_SIZE);
+		assertTrue(reactor.equals(loadedReactor));
+
+		// Release the reactor to close the file.
+		factory.releaseReactor(loadedReactor);
+
 		// Delete the file that was just created.
 		try {
 			file.delete();
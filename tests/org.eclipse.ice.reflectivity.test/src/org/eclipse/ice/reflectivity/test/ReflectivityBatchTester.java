@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings, John Ankner
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.math.MathException;
+import org.eclipse.ice.reflectivity.ReflectivityCalculator;
+import org.eclipse.ice.reflectivity.ReflectivityProfile;
+import org.eclipse.ice.reflectivity.Slab;
+import org.eclipse.ice.reflectivity.Tile;
+import org.junit.Test;
+
+/**
+ * This class checks the batch reflectivity calculation of the
+ * {@link org.eclipse.ice.reflectivity.ReflectivityCalculator} against the
+ * calculation of one wave vector at a time. It uses the same system of slabs
+ * as the ReflectivityCalculatorTester, but does not need the test workspace.
+ *
+ * @author Jay Jay Billings, John Ankner
+ *
+ */
+public class ReflectivityBatchTester {
+
+	/**
+	 * The number of wave vectors.
+	 */
+	private static final int numPoints = ReflectivityCalculator.maxPoints;
+
+	/**
+	 * The number of layers of roughness.
+	 */
+	private static final int numRough = 41;
+
+	/**
+	 * The number of threads that compute the reflectivity at the same time.
+	 */
+	private static final int numThreads = 4;
+
+	/**
+	 * The wavelength of the incident neutrons.
+	 */
+	private static final double wavelength = 5.0;
+
+	/**
+	 * This operation creates the slabs that define the system.
+	 *
+	 * @return the slabs
+	 */
+	private Slab[] createSlabs() {
+
+		// Create the slabs that define the system, starting with air
+		Slab air = new Slab();
+		air.thickness = 200.0;
+		air.interfaceWidth = 0.0;
+
+		// NiOx
+		Slab niOx = new Slab();
+		niOx.scatteringLength = (0.00000686 + 0.00000715) / 2.0;
+		niOx.trueAbsLength = 2.27931868269305E-09;
+		niOx.incAbsLength = 4.74626235093697E-09;
+		niOx.thickness = 22.0;
+		niOx.interfaceWidth = 4.0 * 2.35;
+
+		// Ni
+		Slab ni = new Slab();
+		ni.scatteringLength = 9.31e-6;
+		ni.trueAbsLength = 2.27931868269305E-09;
+		ni.incAbsLength = 4.74626235093697E-09;
+		ni.thickness = 551.0;
+		ni.interfaceWidth = 4.3 * 2.35;
+
+		// SiNiOx
+		Slab siNiOx = new Slab();
+		siNiOx.scatteringLength = (0.00000554 + 0.00000585) / 2.0;
+		siNiOx.trueAbsLength = 2.27931868269305E-09;
+		siNiOx.incAbsLength = 4.74626235093697E-09;
+		siNiOx.thickness = 42.0;
+		siNiOx.interfaceWidth = 7.0 * 2.35;
+
+		// SiOx
+		Slab si = new Slab();
+		si.scatteringLength = 2.070e-6;
+		si.trueAbsLength = 4.74981478870069E-11;
+		si.incAbsLength = 1.99769988072137E-12;
+		si.thickness = 100.0;
+		si.interfaceWidth = 17.5;
+
+		return new Slab[] { air, niOx, ni, siNiOx, si };
+	}
+
+	/**
+	 * This operation creates a wave vector.
+	 *
+	 * @param numPoints
+	 *            the number of wave vectors
+	 * @return the wave vector
+	 */
+	private double[] createWaveVector(int numPoints) {
+		double[] waveVector = new double[numPoints];
+		for (int i = 0; i < numPoints; i++) {
+			waveVector[i] = 0.008 + 0.0002 * i;
+		}
+		return waveVector;
+	}
+
+	/**
+	 * This operation creates the tiles of the system.
+	 *
+	 * @param calculator
+	 *            the calculator that generates the tiles
+	 * @return the tiles
+	 * @throws MathException
+	 */
+	private Tile[] createTiles(ReflectivityCalculator calculator)
+			throws MathException {
+		double[] zInt = new double[ReflectivityCalculator.maxRoughSize];
+		double[] rufInt = new double[ReflectivityCalculator.maxRoughSize];
+		calculator.getInterfacialProfile(numRough, zInt, rufInt);
+		return calculator.generateTiles(createSlabs(), numRough, zInt, rufInt);
+	}
+
+	/**
+	 * This operation checks that the batch calculation produces exactly the
+	 * same values as the calculation of one wave vector at a time for arrays
+	 * that are computed serially, that are split once and that are split many
+	 * times.
+	 *
+	 * @throws MathException
+	 */
+	@Test
+	public void checkBatchReflectivity() throws MathException {
+
+		// Local Declarations
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		Tile[] tiles = createTiles(calculator);
+		int[] sizes = { 0, 1, 128, 129, 257, numPoints };
+		double[] waveVector, batchReflectivity;
+
+		for (int size : sizes) {
+			// Compute the whole array at once
+			waveVector = createWaveVector(size);
+			batchReflectivity = calculator.getModSqrdSpecRef(waveVector,
+					wavelength, tiles);
+			// The values should be identical to one at a time
+			assertEquals(size, batchReflectivity.length);
+			for (int i = 0; i < size; i++) {
+				assertEquals(calculator.getModSqrdSpecRef(waveVector[i],
+						wavelength, tiles), batchReflectivity[i], 0.0);
+			}
+		}
+
+		// A bad wavelength gives no reflectivity
+		batchReflectivity = calculator.getModSqrdSpecRef(
+				createWaveVector(numPoints), 0.0, tiles);
+		assertEquals(numPoints, batchReflectivity.length);
+		for (int i = 0; i < numPoints; i++) {
+			assertEquals(0.0, batchReflectivity[i], 0.0);
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that several calculators that share the pool can
+	 * compute the reflectivity of the same wave vectors at the same time and
+	 * all get the serial result.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkConcurrentBatches() throws Exception {
+
+		// Local Declarations
+		final ReflectivityCalculator calculator = new ReflectivityCalculator();
+		final Tile[] tiles = createTiles(calculator);
+		final double[] waveVector = createWaveVector(numPoints);
+		double[] expected = new double[numPoints];
+		ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+		Future<?>[] results = new Future<?>[numThreads];
+
+		// Compute the expected values one at a time
+		for (int i = 0; i < numPoints; i++) {
+			expected[i] = calculator.getModSqrdSpecRef(waveVector[i],
+					wavelength, tiles);
+		}
+
+		try {
+			// Start the batches
+			for (int i = 0; i < numThreads; i++) {
+				results[i] = executor.submit(new Callable<double[]>() {
+					@Override
+					public double[] call() {
+						return new ReflectivityCalculator().getModSqrdSpecRef(
+								waveVector, wavelength, tiles);
+					}
+				});
+			}
+			// Check every batch
+			for (Future<?> result : results) {
+				double[] reflectivity = (double[]) result.get();
+				for (int i = 0; i < numPoints; i++) {
+					assertEquals(expected[i], reflectivity[i], 0.0);
+				}
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that the full reflectivity profile, which includes
+	 * the resolution convolution, matches the convolution of the tiles
+	 * generated from the corrected slabs and leaves the slabs unchanged.
+	 *
+	 * @throws MathException
+	 */
+	@Test
+	public void checkProfile() throws MathException {
+
+		// Local Declarations
+		ReflectivityCalculator calculator = new ReflectivityCalculator();
+		Slab[] slabs = createSlabs();
+		Slab[] correctedSlabs = createSlabs();
+		double[] waveVector = createWaveVector(numPoints);
+		double[] zInt = new double[ReflectivityCalculator.maxRoughSize];
+		double[] rufInt = new double[ReflectivityCalculator.maxRoughSize];
+
+		// Compute the profile
+		ReflectivityProfile profile = calculator.getReflectivityProfile(slabs,
+				numRough, 0.0, 0.02, wavelength, waveVector, false);
+		assertNotNull(profile);
+		assertEquals(numPoints, profile.reflectivity.length);
+
+		// The slabs must be restored
+		for (int i = 0; i < slabs.length; i++) {
+			assertEquals(correctedSlabs[i].scatteringLength,
+					slabs[i].scatteringLength, 0.0);
+		}
+
+		// Compute the same reflectivity by hand
+		double qCCorr = correctedSlabs[0].scatteringLength;
+		for (Slab slab : correctedSlabs) {
+			slab.scatteringLength -= qCCorr;
+		}
+		calculator.getInterfacialProfile(numRough, zInt, rufInt);
+		Tile[] tiles = calculator.generateTiles(correctedSlabs, numRough,
+				zInt, rufInt);
+		double[] reflectivity = calculator.convoluteReflectivity(0.0, 0.02,
+				wavelength, false, waveVector, tiles);
+		for (int i = 0; i < numPoints; i++) {
+			assertTrue(!Double.isNaN(profile.reflectivity[i]));
+			assertEquals(reflectivity[i], profile.reflectivity[i], 0.0);
+		}
+
+		return;
+	}
+
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings, John Ankner
+ *******************************************************************************/
+package org.eclipse.ice.reflectivity.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+
+import org.apache.commons.math.MathException;
+import org.eclipse.ice.reflectivity.IReflectivityFitListener;
+import org.eclipse.ice.reflectivity.ReflectivityFitter;
+import org.eclipse.ice.reflectivity.ReflectivityFitter.SlabProperty;
+import org.eclipse.ice.reflectivity.Slab;
+import org.junit.Test;
+
+/**
+ * This class tests {@link org.eclipse.ice.reflectivity.ReflectivityFitter}
+ * by fitting a perturbed system to reflectivity data that was computed from
+ * the original system.
+ * 
+ * @author Jay Jay Billings, John Ankner
+ *
+ */
+public class ReflectivityFitterTester implements IReflectivityFitListener {
+
+	/**
+	 * The chi-squared values reported to the listener.
+	 */
+	private ArrayList<Double> chiSquaredValues = new ArrayList<Double>();
+
+	/**
+	 * The number of layers of roughness.
+	 */
+	private static final int numRough = 11;
+
+	/**
+	 * This operation creates a system of air, nickel on a silicon substrate.
+	 * 
+	 * @param thickness
+	 *            the thickness of the nickel
+	 * @param roughness
+	 *            the roughness of the nickel
+	 * @param scatteringLength
+	 *            the scattering length density of the nickel
+	 * @return the slabs
+	 */
+	private Slab[] createSlabs(double thickness, double roughness,
+			double scatteringLength) {
+
+		// Air
+		Slab air = new Slab();
+		air.thickness = 200.0;
+
+		// Ni
+		Slab ni = new Slab();
+		ni.scatteringLength = scatteringLength;
+		ni.trueAbsLength = 2.27931868269305E-09;
+		ni.incAbsLength = 4.74626235093697E-09;
+		ni.thickness = thickness;
+		ni.interfaceWidth = roughness;
+
+		// Si
+		Slab si = new Slab();
+		si.scatteringLength = 2.070e-6;
+		si.trueAbsLength = 4.74981478870069E-11;
+		si.incAbsLength = 1.99769988072137E-12;
+		si.thickness = 100.0;
+		si.interfaceWidth = 8.0;
+
+		return new Slab[] { air, ni, si };
+	}
+
+	/**
+	 * This operation checks that the fitter recovers the thickness, roughness
+	 * and scattering length density of a layer and that it reports its
+	 * progress.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void checkFit() throws MathException {
+
+		// Local Declarations
+		int numPoints = 200;
+		double[] waveVector = new double[numPoints];
+		double[] reflectivity;
+		Slab[] trueSlabs = createSlabs(300.0, 10.0, 9.31e-6);
+		Slab[] startSlabs = createSlabs(295.0, 11.0, 9.2e-6);
+		Slab[] fitSlabs;
+
+		// Create the data from the true system
+		for (int i = 0; i < numPoints; i++) {
+			waveVector[i] = 0.01 + 0.0005 * i;
+		}
+		ReflectivityFitter fitter = new ReflectivityFitter(waveVector,
+				new double[numPoints], null, numRough, 0.0, 0.02, 5.0);
+		reflectivity = fitter.getReflectivity(trueSlabs);
+		assertNotNull(reflectivity);
+
+		// Fit the perturbed system
+		fitter = new ReflectivityFitter(waveVector, reflectivity, null,
+				numRough, 0.0, 0.02, 5.0);
+		fitter.addParameter(1, SlabProperty.THICKNESS);
+		fitter.addParameter(1, SlabProperty.ROUGHNESS);
+		fitter.addParameter(1, SlabProperty.SCATTERING_LENGTH);
+		fitter.addListener(this);
+		assertEquals(3, fitter.getNumberOfParameters());
+		fitSlabs = fitter.fit(startSlabs, 50);
+
+		// Check the fit
+		assertEquals(300.0, fitSlabs[1].thickness, 1.0e-3);
+		assertEquals(10.0, fitSlabs[1].interfaceWidth, 1.0e-3);
+		assertEquals(9.31e-6, fitSlabs[1].scatteringLength, 1.0e-11);
+		assertTrue(fitter.getChiSquared() < 1.0e-8);
+
+		// The starting slabs should not have changed
+		assertEquals(295.0, startSlabs[1].thickness, 0.0);
+		assertEquals(11.0, startSlabs[1].interfaceWidth, 0.0);
+		assertEquals(9.2e-6, startSlabs[1].scatteringLength, 0.0);
+
+		// Check the progress. The best chi-squared can never increase.
+		assertTrue(chiSquaredValues.size() > 1);
+		for (int i = 1; i < chiSquaredValues.size(); i++) {
+			assertTrue(chiSquaredValues.get(i) <= chiSquaredValues.get(i - 1));
+		}
+		assertEquals(fitter.getChiSquared(),
+				chiSquaredValues.get(chiSquaredValues.size() - 1), 0.0);
+
+		return;
+	}
+
+	/**
+	 * This operation checks that bad input is rejected.
+	 * 
+	 * @throws MathException
+	 */
+	@Test
+	public void checkBadInput() throws MathException {
+
+		// The data must have matching lengths
+		try {
+			new ReflectivityFitter(new double[] { 0.01, 0.02 },
+					new double[] { 1.0 }, null, numRough, 0.0, 0.02, 5.0);
+			fail("Mismatched data must be rejected.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		// Parameters must refer to existing slabs
+		ReflectivityFitter fitter = new ReflectivityFitter(new double[] {
+				0.01, 0.02 }, new double[] { 1.0, 0.5 }, null, numRough, 0.0,
+				0.02, 5.0);
+		fitter.addParameter(5, SlabProperty.THICKNESS);
+		try {
+			fitter.fit(createSlabs(300.0, 10.0, 9.31e-6), 10);
+			fail("A parameter of a missing slab must be rejected.");
+		} catch (IllegalArgumentException e) {
+			// Expected
+		}
+
+		return;
+	}
+
+	@Override
+	public void update(int iteration, double chiSquared, Slab[] slabs) {
+		assertEquals(chiSquaredValues.size(), iteration);
+		assertEquals(3, slabs.length);
+		chiSquaredValues.add(chiSquared);
+	}
+
+}
@@ -96,6 +96,19 @@ public class ReflectivityModelBuilderTester implements IMaterialsDatabase {
 		return null;
 	}
 
+	@Override
+	public Material getMaterial(String name) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+
+	@Override
+	public List<Material> getMaterials(String property, double minValue,
+			double maxValue) {
+		// TODO Auto-generated method stub
+		return null;
+	}
+
 	@Override
 	public void addMaterial(Material material) {
 		// TODO Auto-generated method stub
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * Copyright (c) 2014 UT-Battelle, LLC.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *   Initial API and implementation and/or initial documentation -
+ *   Jay Jay Billings
+ *******************************************************************************/
+package org.eclipse.ice.viz.service.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.eclipse.ice.analysistool.IData;
+import org.eclipse.ice.viz.service.csv.CSVData;
+import org.eclipse.ice.viz.service.csv.ColumnarCSVDataProvider;
+import org.eclipse.ice.viz.service.csv.MappedCSVDataLoader;
+import org.junit.Test;
+
+/**
+ * This class is responsible for testing the MappedCSVDataLoader and the
+ * ColumnarCSVDataProvider that it creates.
+ *
+ * @author Jay Jay Billings
+ *
+ */
+public class MappedCSVDataLoaderTester {
+
+	/**
+	 * This operation writes a temporary CSV file.
+	 *
+	 * @param contents
+	 *            The contents of the file
+	 * @return The file
+	 * @throws IOException
+	 */
+	private File writeFile(String contents) throws IOException {
+		File file = File.createTempFile("mappedCSVTest", ".csv");
+		file.deleteOnExit();
+		BufferedWriter writer = new BufferedWriter(new FileWriter(file));
+		writer.write(contents);
+		writer.close();
+		return file;
+	}
+
+	/**
+	 * This operation checks that a file with a #features line, units and
+	 * uncertainties is loaded correctly.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkLoad() throws Exception {
+
+		// Local Declarations
+		double delta = 0.0;
+		File file = writeFile("#features,t,y,y_error\r\n"
+				+ "#units,s,m,m\r\n" + "#time-units,s\n"
+				+ "0.0,1.5,0.1\r\n" + "1.0, -2.25e-3 ,-1\n"
+				+ "2.0,12345678901234567890,1E+2\r\n"
+				+ "3.0,0.30000000000000004,.5\n" + "\n");
+		ColumnarCSVDataProvider provider = new MappedCSVDataLoader()
+				.load(file);
+
+		// Check the features and the values
+		assertEquals(Arrays.asList("t", "y"), provider.getFeatureList());
+		assertEquals(4, provider.getNumberOfRows());
+		assertEquals(1, provider.getNumberOfTimeSteps());
+		assertEquals("s", provider.getTimeUnits());
+		assertArrayEquals(new double[] { 0.0, 1.0, 2.0, 3.0 },
+				provider.getValuesAtCurrentTime("t"), delta);
+		assertArrayEquals(new double[] { 1.5, -2.25e-3,
+				12345678901234567890.0, 0.30000000000000004 },
+				provider.getValuesAtCurrentTime("y"), delta);
+		// Negative uncertainties are ignored like they are by CSVData
+		assertArrayEquals(new double[] { 0.1, 0.0, 100.0, 0.5 },
+				provider.getUncertaintiesAtCurrentTime("y"), delta);
+		assertArrayEquals(new double[] { 0.0, 0.0, 0.0, 0.0 },
+				provider.getUncertaintiesAtCurrentTime("t"), delta);
+		assertEquals(-1.0, provider.getDataMin(), delta);
+		assertEquals(12345678901234567890.0, provider.getDataMax(), delta);
+		assertNull(provider.getValuesAtCurrentTime("y_error"));
+
+		// Check the data with an independent variable
+		provider.setFeatureAsIndependentVariable("t");
+		ArrayList<IData> data = provider.getDataAtCurrentTime("y");
+		assertEquals(4, data.size());
+		assertEquals(4, provider.getNumberOfDataAtCurrentTime("y"));
+		assertEquals(0, provider.getNumberOfDataAtCurrentTime("z"));
+		assertEquals("y", data.get(0).getFeature());
+		assertEquals("m", data.get(0).getUnits());
+		assertEquals(0.1, data.get(0).getUncertainty(), delta);
+		assertEquals(3.0, data.get(3).getPosition().get(0), delta);
+
+		// Adding data must switch to the base representation without losing
+		// anything
+		provider.addData(1.0, new CSVData("y", 7.0));
+		assertEquals(2, provider.getNumberOfTimeSteps());
+		provider.setTime(0.0);
+		assertArrayEquals(new double[] { 1.5, -2.25e-3,
+				12345678901234567890.0, 0.30000000000000004 },
+				provider.getValuesAtCurrentTime("y"), delta);
+		assertArrayEquals(new double[] { 0.0, 1.0, 2.0, 3.0 },
+				provider.getPositionAtCurrentTime("t"), delta);
+		assertNull(provider.getColumn("y"));
+
+		return;
+	}
+
+	/**
+	 * This operation checks that files with a plain header or no header are
+	 * loaded, that the values match Double.parseDouble() and that a ragged
+	 * file is rejected.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkFormats() throws Exception {
+
+		// Local Declarations
+		StringBuilder contents = new StringBuilder("a,b\n");
+		double[] expected = new double[2000];
+		java.util.Random random = new java.util.Random(42);
+
+		// A plain header with many values that exercise both number parsers
+		for (int i = 0; i < 1000; i++) {
+			expected[2 * i] = (random.nextDouble() - 0.5)
+					* Math.pow(10, random.nextInt(40) - 20);
+			expected[2 * i + 1] = random.nextInt(100000) / 1000.0;
+			contents.append(expected[2 * i] + "," + expected[2 * i + 1]
+					+ ",\n");
+		}
+		ColumnarCSVDataProvider provider = new MappedCSVDataLoader()
+				.load(writeFile(contents.toString()));
+		double[] a = provider.getColumn("a");
+		double[] b = provider.getColumn("b");
+		assertEquals(1000, a.length);
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(expected[2 * i], a[i], 0.0);
+			assertEquals(expected[2 * i + 1], b[i], 0.0);
+		}
+
+		// A #matrix line without features
+		provider = new MappedCSVDataLoader().load(writeFile("#matrix,2,3\n"
+				+ "1,2\n3,4\n5,6\n"));
+		assertEquals(Arrays.asList("x0", "x1"), provider.getFeatureList());
+		assertEquals(2, provider.getDataWidth());
+		assertEquals(3, provider.getDataHeight());
+		assertArrayEquals(new double[] { 2, 4, 6 },
+				provider.getValuesAtCurrentTime("x1"), 0.0);
+
+		// A ragged file
+		try {
+			new MappedCSVDataLoader().load(writeFile("a,b\n1,2\n3\n"));
+			fail("A ragged file must not be loaded.");
+		} catch (Exception e) {
+			assertEquals("CSV file in an unexpected format, "
+					+ "data must be a (m x n) matrix", e.getMessage());
+		}
+
+		return;
+	}
+
+	/**
+	 * This operation checks that files whose first line of data is much
+	 * longer or shorter than the rest are loaded completely, since the number
+	 * of rows is estimated from a sample of the lines.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void checkLineLengths() throws Exception {
+
+		// Local Declarations
+		StringBuilder contents = new StringBuilder("a,b\n");
+		ColumnarCSVDataProvider provider;
+		double[] a;
+
+		// A long first line followed by many short lines
+		contents.append("1.000000000000001,2.000000000000001\n");
+		for (int i = 0; i < 5000; i++) {
+			contents.append(i % 10 + "," + i % 7 + "\n");
+		}
+		provider = new MappedCSVDataLoader().load(writeFile(contents
+				.toString()));
+		a = provider.getColumn("a");
+		assertEquals(5001, a.length);
+		assertEquals(1.000000000000001, a[0], 0.0);
+		assertEquals(4999 % 10, a[5000], 0.0);
+
+		// A short first line followed by lines that keep getting longer
+		contents = new StringBuilder("a,b\n1,2\n");
+		for (int i = 0; i < 5000; i++) {
+			contents.append(i * 1.0e-3 + "," + (double) i * i + "\n");
+		}
+		provider = new MappedCSVDataLoader().load(writeFile(contents
+				.toString()));
+		a = provider.getColumn("a");
+		assertEquals(5001, a.length);
+		assertEquals(1.0, a[0], 0.0);
+		assertEquals(4999 * 1.0e-3, a[5000], 0.0);
+		assertEquals(4999.0 * 4999.0, provider.getColumn("b")[5000], 0.0);
+
+		// A file with fewer lines than the sample
+		provider = new MappedCSVDataLoader().load(writeFile("a,b\n1,2\n3,4"));
+		assertArrayEquals(new double[] { 1, 3 }, provider.getColumn("a"), 0.0);
+
+		return;
+	}
+
+}